@@ -441,6 +441,45 @@ public final class Session
                 protocolHeaders);
     }
 
+    /**
+     * Returns the session with the value of the system property replaced. The value must be valid for the property,
+     * because system properties are validated only when the transaction begins.
+     */
+    public Session withSystemProperty(String propertyName, String propertyValue)
+    {
+        requireNonNull(propertyName, "propertyName is null");
+        requireNonNull(propertyValue, "propertyValue is null");
+
+        Map<String, String> systemProperties = new HashMap<>(this.systemProperties);
+        systemProperties.put(propertyName, propertyValue);
+
+        return new Session(
+                queryId,
+                transactionId,
+                clientTransactionSupport,
+                identity,
+                source,
+                catalog,
+                schema,
+                path,
+                traceToken,
+                timeZoneKey,
+                locale,
+                remoteUserAddress,
+                userAgent,
+                clientInfo,
+                clientTags,
+                clientCapabilities,
+                resourceEstimates,
+                start,
+                systemProperties,
+                connectorProperties,
+                unprocessedCatalogProperties,
+                sessionPropertyManager,
+                preparedStatements,
+                protocolHeaders);
+    }
+
     public ConnectorSession toConnectorSession()
     {
         return new FullConnectorSession(this, identity.toConnectorIdentity());
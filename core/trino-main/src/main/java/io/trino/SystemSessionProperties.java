@@ -42,6 +42,7 @@ import static io.trino.spi.session.PropertyMetadata.booleanProperty;
 import static io.trino.spi.session.PropertyMetadata.doubleProperty;
 import static io.trino.spi.session.PropertyMetadata.enumProperty;
 import static io.trino.spi.session.PropertyMetadata.integerProperty;
+import static io.trino.spi.session.PropertyMetadata.longProperty;
 import static io.trino.spi.session.PropertyMetadata.stringProperty;
 import static io.trino.spi.type.IntegerType.INTEGER;
 import static java.lang.Math.min;
@@ -76,6 +77,8 @@ public final class SystemSessionProperties
     public static final String PUSH_TABLE_WRITE_THROUGH_UNION = "push_table_write_through_union";
     public static final String EXECUTION_POLICY = "execution_policy";
     public static final String DICTIONARY_AGGREGATION = "dictionary_aggregation";
+    public static final String FLAT_GROUP_BY_HASH_ENABLED = "flat_group_by_hash_enabled";
+    public static final String RADIX_PARTITIONED_JOIN_HASH_ENABLED = "radix_partitioned_join_hash_enabled";
     public static final String USE_TABLE_SCAN_NODE_PARTITIONING = "use_table_scan_node_partitioning";
     public static final String TABLE_SCAN_NODE_PARTITIONING_MIN_BUCKET_TO_TASK_RATIO = "table_scan_node_partitioning_min_bucket_to_task_ratio";
     public static final String SPATIAL_JOIN = "spatial_join";
@@ -96,6 +99,7 @@ public final class SystemSessionProperties
     public static final String ITERATIVE_OPTIMIZER_TIMEOUT = "iterative_optimizer_timeout";
     public static final String ENABLE_FORCED_EXCHANGE_BELOW_GROUP_ID = "enable_forced_exchange_below_group_id";
     public static final String EXCHANGE_COMPRESSION = "exchange_compression";
+    public static final String EXCHANGE_ADAPTIVE_COMPRESSION = "exchange_adaptive_compression";
     public static final String ENABLE_INTERMEDIATE_AGGREGATIONS = "enable_intermediate_aggregations";
     public static final String PUSH_AGGREGATION_THROUGH_OUTER_JOIN = "push_aggregation_through_outer_join";
     public static final String PUSH_PARTIAL_AGGREGATION_THROUGH_JOIN = "push_partial_aggregation_through_join";
@@ -122,6 +126,8 @@ public final class SystemSessionProperties
     public static final String LATE_MATERIALIZATION = "late_materialization";
     public static final String ENABLE_DYNAMIC_FILTERING = "enable_dynamic_filtering";
     public static final String ENABLE_LARGE_DYNAMIC_FILTERS = "enable_large_dynamic_filters";
+    public static final String DYNAMIC_FILTERING_BLOOM_FILTERS_ENABLED = "dynamic_filtering_bloom_filters_enabled";
+    public static final String DYNAMIC_FILTERING_TOP_N_ENABLED = "dynamic_filtering_top_n_enabled";
     public static final String QUERY_MAX_MEMORY_PER_NODE = "query_max_memory_per_node";
     public static final String QUERY_MAX_TOTAL_MEMORY_PER_NODE = "query_max_total_memory_per_node";
     public static final String IGNORE_DOWNSTREAM_PREFERENCES = "ignore_downstream_preferences";
@@ -134,6 +140,17 @@ public final class SystemSessionProperties
     public static final String OMIT_DATETIME_TYPE_PRECISION = "omit_datetime_type_precision";
     public static final String USE_LEGACY_WINDOW_FILTER_PUSHDOWN = "use_legacy_window_filter_pushdown";
     public static final String MAX_UNACKNOWLEDGED_SPLITS_PER_TASK = "max_unacknowledged_splits_per_task";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_ENABLED = "adaptive_partial_aggregation_enabled";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS = "adaptive_partial_aggregation_min_rows";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD = "adaptive_partial_aggregation_unique_rows_ratio_threshold";
+    public static final String RESULT_CACHE_ENABLED = "result_cache_enabled";
+    public static final String PLAN_CACHE_ENABLED = "plan_cache_enabled";
+    public static final String FRAGMENT_CACHE_ENABLED = "fragment_cache_enabled";
+    public static final String ADAPTIVE_JOIN_DISTRIBUTION_ENABLED = "adaptive_join_distribution_enabled";
+    public static final String SKEWED_JOIN_HANDLING_ENABLED = "skewed_join_handling_enabled";
+    public static final String SKEWED_JOIN_HANDLING_MIN_KEY_FRACTION = "skewed_join_handling_min_key_fraction";
+    public static final String SKEWED_JOIN_HANDLING_SAMPLE_ROWS = "skewed_join_handling_sample_rows";
+    public static final String USE_HISTORY_BASED_STATISTICS = "use_history_based_statistics";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -296,6 +313,16 @@ public final class SystemSessionProperties
                         "Enable optimization for aggregations on dictionaries",
                         featuresConfig.isDictionaryAggregation(),
                         false),
+                booleanProperty(
+                        FLAT_GROUP_BY_HASH_ENABLED,
+                        "Store multi-column group by keys in a flat row oriented hash table",
+                        featuresConfig.isFlatGroupByHashEnabled(),
+                        false),
+                booleanProperty(
+                        RADIX_PARTITIONED_JOIN_HASH_ENABLED,
+                        "Build join hash tables larger than the CPU cache in cache sized partitions",
+                        featuresConfig.isRadixPartitionedJoinHashEnabled(),
+                        false),
                 integerProperty(
                         INITIAL_SPLITS_PER_NODE,
                         "The number of splits each node will run per task, initially",
@@ -407,6 +434,11 @@ public final class SystemSessionProperties
                         "Enable compression in exchanges",
                         featuresConfig.isExchangeCompressionEnabled(),
                         false),
+                booleanProperty(
+                        EXCHANGE_ADAPTIVE_COMPRESSION,
+                        "Compress each column in exchanges with a codec chosen by the observed compression ratio and cost",
+                        featuresConfig.isExchangeAdaptiveCompressionEnabled(),
+                        false),
                 booleanProperty(
                         ENABLE_INTERMEDIATE_AGGREGATIONS,
                         "Enable the use of intermediate aggregations",
@@ -546,6 +578,16 @@ public final class SystemSessionProperties
                         "Enable collection of large dynamic filters",
                         dynamicFilterConfig.isEnableLargeDynamicFilters(),
                         false),
+                booleanProperty(
+                        DYNAMIC_FILTERING_BLOOM_FILTERS_ENABLED,
+                        "Collect bloom filters of large join build sides and use them to filter rows of table scans",
+                        dynamicFilterConfig.isEnableBloomFilters(),
+                        false),
+                booleanProperty(
+                        DYNAMIC_FILTERING_TOP_N_ENABLED,
+                        "Filter rows of table scans below TopN operators with the current boundary of the TopN operator",
+                        dynamicFilterConfig.isEnableTopNDynamicFilters(),
+                        false),
                 dataSizeProperty(
                         QUERY_MAX_MEMORY_PER_NODE,
                         "Maximum amount of memory a query can use per node",
@@ -609,7 +651,62 @@ public final class SystemSessionProperties
                         nodeSchedulerConfig.getMaxUnacknowledgedSplitsPerTask(),
                         false,
                         value -> validateIntegerValue(value, MAX_UNACKNOWLEDGED_SPLITS_PER_TASK, 1, false),
-                        object -> object));
+                        object -> object),
+                booleanProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_ENABLED,
+                        "When enabled, partial aggregation might be adaptively turned off when it does not provide any performance gain",
+                        featuresConfig.isAdaptivePartialAggregationEnabled(),
+                        false),
+                longProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS,
+                        "Minimum number of processed rows before partial aggregation might be adaptively turned off",
+                        featuresConfig.getAdaptivePartialAggregationMinRows(),
+                        false),
+                doubleProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD,
+                        "Ratio between aggregation output and input rows above which partial aggregation might be adaptively turned off",
+                        featuresConfig.getAdaptivePartialAggregationUniqueRowsRatioThreshold(),
+                        false),
+                booleanProperty(
+                        RESULT_CACHE_ENABLED,
+                        "Serve the results of the query from the result cache of the coordinator, and cache them",
+                        queryManagerConfig.isResultCacheEnabled(),
+                        false),
+                booleanProperty(
+                        PLAN_CACHE_ENABLED,
+                        "Reuse the optimized plan of the same query cached on the coordinator, and cache it",
+                        queryManagerConfig.isPlanCacheEnabled(),
+                        false),
+                booleanProperty(
+                        FRAGMENT_CACHE_ENABLED,
+                        "Reuse the output of leaf pipelines for the same splits cached on the workers, and cache it",
+                        taskManagerConfig.isFragmentCacheEnabled(),
+                        false),
+                booleanProperty(
+                        ADAPTIVE_JOIN_DISTRIBUTION_ENABLED,
+                        "Plan the query again when the build side of a broadcast join turns out to be larger than the maximum broadcast table size",
+                        featuresConfig.isAdaptiveJoinDistributionEnabled(),
+                        false),
+                booleanProperty(
+                        SKEWED_JOIN_HANDLING_ENABLED,
+                        "Spread the probe rows of the most common join keys across all partitions of a partitioned join, and send the matching build rows to all of them",
+                        featuresConfig.isSkewedJoinHandlingEnabled(),
+                        false),
+                doubleProperty(
+                        SKEWED_JOIN_HANDLING_MIN_KEY_FRACTION,
+                        "Minimum fraction of the probe rows holding a join key, for the key to be handled as skewed",
+                        featuresConfig.getSkewedJoinHandlingMinKeyFraction(),
+                        false),
+                integerProperty(
+                        SKEWED_JOIN_HANDLING_SAMPLE_ROWS,
+                        "Number of rows of the probe table sampled for the most common join keys, when the connector does not report them",
+                        featuresConfig.getSkewedJoinHandlingSampleRows(),
+                        false),
+                booleanProperty(
+                        USE_HISTORY_BASED_STATISTICS,
+                        "Record the actual output of plan subtrees of completed queries, and use it instead of the estimated output of the same subtrees",
+                        featuresConfig.isUseHistoryBasedStatistics(),
+                        false));
     }
 
     public List<PropertyMetadata<?>> getSessionProperties()
@@ -712,6 +809,16 @@ public final class SystemSessionProperties
         return session.getSystemProperty(DICTIONARY_AGGREGATION, Boolean.class);
     }
 
+    public static boolean isFlatGroupByHashEnabled(Session session)
+    {
+        return session.getSystemProperty(FLAT_GROUP_BY_HASH_ENABLED, Boolean.class);
+    }
+
+    public static boolean isRadixPartitionedJoinHashEnabled(Session session)
+    {
+        return session.getSystemProperty(RADIX_PARTITIONED_JOIN_HASH_ENABLED, Boolean.class);
+    }
+
     public static boolean isOptimizeMetadataQueries(Session session)
     {
         return session.getSystemProperty(OPTIMIZE_METADATA_QUERIES, Boolean.class);
@@ -861,6 +968,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(EXCHANGE_COMPRESSION, Boolean.class);
     }
 
+    public static boolean isExchangeAdaptiveCompressionEnabled(Session session)
+    {
+        return session.getSystemProperty(EXCHANGE_ADAPTIVE_COMPRESSION, Boolean.class);
+    }
+
     public static boolean isEnableIntermediateAggregations(Session session)
     {
         return session.getSystemProperty(ENABLE_INTERMEDIATE_AGGREGATIONS, Boolean.class);
@@ -1027,6 +1139,16 @@ public final class SystemSessionProperties
         return session.getSystemProperty(ENABLE_LARGE_DYNAMIC_FILTERS, Boolean.class);
     }
 
+    public static boolean isDynamicFilteringBloomFiltersEnabled(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_BLOOM_FILTERS_ENABLED, Boolean.class);
+    }
+
+    public static boolean isDynamicFilteringTopNEnabled(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_TOP_N_ENABLED, Boolean.class);
+    }
+
     public static DataSize getQueryMaxMemoryPerNode(Session session)
     {
         return session.getSystemProperty(QUERY_MAX_MEMORY_PER_NODE, DataSize.class);
@@ -1086,4 +1208,59 @@ public final class SystemSessionProperties
     {
         return session.getSystemProperty(MAX_UNACKNOWLEDGED_SPLITS_PER_TASK, Integer.class);
     }
+
+    public static boolean isAdaptivePartialAggregationEnabled(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_ENABLED, Boolean.class);
+    }
+
+    public static long getAdaptivePartialAggregationMinRows(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS, Long.class);
+    }
+
+    public static double getAdaptivePartialAggregationUniqueRowsRatioThreshold(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD, Double.class);
+    }
+
+    public static boolean isResultCacheEnabled(Session session)
+    {
+        return session.getSystemProperty(RESULT_CACHE_ENABLED, Boolean.class);
+    }
+
+    public static boolean isPlanCacheEnabled(Session session)
+    {
+        return session.getSystemProperty(PLAN_CACHE_ENABLED, Boolean.class);
+    }
+
+    public static boolean isFragmentCacheEnabled(Session session)
+    {
+        return session.getSystemProperty(FRAGMENT_CACHE_ENABLED, Boolean.class);
+    }
+
+    public static boolean isAdaptiveJoinDistributionEnabled(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_JOIN_DISTRIBUTION_ENABLED, Boolean.class);
+    }
+
+    public static boolean isSkewedJoinHandlingEnabled(Session session)
+    {
+        return session.getSystemProperty(SKEWED_JOIN_HANDLING_ENABLED, Boolean.class);
+    }
+
+    public static double getSkewedJoinHandlingMinKeyFraction(Session session)
+    {
+        return session.getSystemProperty(SKEWED_JOIN_HANDLING_MIN_KEY_FRACTION, Double.class);
+    }
+
+    public static int getSkewedJoinHandlingSampleRows(Session session)
+    {
+        return session.getSystemProperty(SKEWED_JOIN_HANDLING_SAMPLE_ROWS, Integer.class);
+    }
+
+    public static boolean isUseHistoryBasedStatistics(Session session)
+    {
+        return session.getSystemProperty(USE_HISTORY_BASED_STATISTICS, Boolean.class);
+    }
 }
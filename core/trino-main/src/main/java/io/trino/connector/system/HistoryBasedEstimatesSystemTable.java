@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.connector.system;
+
+import com.google.common.collect.ImmutableSet;
+import io.trino.FullConnectorSession;
+import io.trino.cost.history.HistoricalPlanStatistics;
+import io.trino.cost.history.HistoryBasedEstimate;
+import io.trino.cost.history.HistoryBasedEstimates;
+import io.trino.security.AccessControl;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.ConnectorTableMetadata;
+import io.trino.spi.connector.ConnectorTransactionHandle;
+import io.trino.spi.connector.InMemoryRecordSet;
+import io.trino.spi.connector.RecordCursor;
+import io.trino.spi.connector.SchemaTableName;
+import io.trino.spi.connector.SystemTable;
+import io.trino.spi.predicate.TupleDomain;
+import io.trino.spi.security.Identity;
+
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.trino.metadata.MetadataUtil.TableMetadataBuilder.tableMetadataBuilder;
+import static io.trino.spi.connector.SystemTable.Distribution.SINGLE_COORDINATOR;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.DateTimeEncoding.packDateTimeWithZone;
+import static io.trino.spi.type.DoubleType.DOUBLE;
+import static io.trino.spi.type.TimeZoneKey.UTC_KEY;
+import static io.trino.spi.type.TimestampWithTimeZoneType.TIMESTAMP_TZ_MILLIS;
+import static io.trino.spi.type.VarcharType.createUnboundedVarcharType;
+import static java.util.Objects.requireNonNull;
+
+public class HistoryBasedEstimatesSystemTable
+        implements SystemTable
+{
+    private static final SchemaTableName TABLE_NAME = new SchemaTableName("runtime", "history_based_estimates");
+
+    private static final ConnectorTableMetadata TABLE = tableMetadataBuilder(TABLE_NAME)
+            .column("query_id", createUnboundedVarcharType())
+            .column("plan_node_type", createUnboundedVarcharType())
+            .column("canonical_plan", createUnboundedVarcharType())
+            .column("estimated_rows", DOUBLE)
+            .column("history_rows", BIGINT)
+            .column("history_output_bytes", BIGINT)
+            .column("history_query_id", createUnboundedVarcharType())
+            .column("history_record_time", TIMESTAMP_TZ_MILLIS)
+            .build();
+
+    private final Optional<HistoryBasedEstimates> estimates;
+    private final AccessControl accessControl;
+
+    @Inject
+    public HistoryBasedEstimatesSystemTable(Optional<HistoryBasedEstimates> estimates, AccessControl accessControl)
+    {
+        this.estimates = requireNonNull(estimates, "estimates is null");
+        this.accessControl = requireNonNull(accessControl, "accessControl is null");
+    }
+
+    @Override
+    public Distribution getDistribution()
+    {
+        return SINGLE_COORDINATOR;
+    }
+
+    @Override
+    public ConnectorTableMetadata getTableMetadata()
+    {
+        return TABLE;
+    }
+
+    @Override
+    public RecordCursor cursor(ConnectorTransactionHandle transactionHandle, ConnectorSession session, TupleDomain<Integer> constraint)
+    {
+        checkState(estimates.isPresent(), "History based estimates system table can return results only on coordinator");
+
+        List<HistoryBasedEstimate> allEstimates = estimates.get().getAll();
+        Set<String> allowedUsers = getAllowedUsers(((FullConnectorSession) session).getSession().getIdentity(), allEstimates);
+
+        InMemoryRecordSet.Builder table = InMemoryRecordSet.builder(TABLE);
+        for (HistoryBasedEstimate estimate : allEstimates) {
+            if (!allowedUsers.contains(estimate.getUser())) {
+                continue;
+            }
+            HistoricalPlanStatistics history = estimate.getHistory();
+            table.addRow(
+                    estimate.getQueryId().toString(),
+                    estimate.getPlanNodeType(),
+                    history.getCanonicalPlan(),
+                    Double.isNaN(estimate.getEstimatedRowCount()) ? null : estimate.getEstimatedRowCount(),
+                    history.getOutputRowCount(),
+                    history.getOutputDataSize().toBytes(),
+                    history.getQueryId().toString(),
+                    packDateTimeWithZone(history.getRecordTime().getMillis(), UTC_KEY));
+        }
+        return table.build().cursor();
+    }
+
+    private Set<String> getAllowedUsers(Identity identity, List<HistoryBasedEstimate> estimates)
+    {
+        // the canonical plans contain the predicates of the queries, so only the estimates of the visible queries are returned
+        Set<String> owners = estimates.stream()
+                .map(HistoryBasedEstimate::getUser)
+                .filter(owner -> !owner.equals(identity.getUser()))
+                .collect(toImmutableSet());
+        return ImmutableSet.<String>builder()
+                .add(identity.getUser())
+                .addAll(accessControl.filterQueriesOwnedBy(identity, owners))
+                .build();
+    }
+}
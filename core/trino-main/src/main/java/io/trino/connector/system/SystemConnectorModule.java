@@ -56,6 +56,7 @@ public class SystemConnectorModule
         globalTableBinder.addBinding().to(AnalyzePropertiesSystemTable.class).in(Scopes.SINGLETON);
         globalTableBinder.addBinding().to(TransactionsSystemTable.class).in(Scopes.SINGLETON);
         globalTableBinder.addBinding().to(RuleStatsSystemTable.class).in(Scopes.SINGLETON);
+        globalTableBinder.addBinding().to(HistoryBasedEstimatesSystemTable.class).in(Scopes.SINGLETON);
 
         globalTableBinder.addBinding().to(AttributeJdbcTable.class).in(Scopes.SINGLETON);
         globalTableBinder.addBinding().to(CatalogJdbcTable.class).in(Scopes.SINGLETON);
@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.trino.Session;
+import io.trino.cost.history.HistoricalPlanStatistics;
+import io.trino.cost.history.HistoryBasedEstimate;
+import io.trino.cost.history.HistoryBasedEstimates;
+import io.trino.cost.history.HistoryBasedStatisticsStore;
+import io.trino.cost.history.PlanCanonicalizer;
+import io.trino.cost.history.PlanCanonicalizer.CanonicalPlan;
+import io.trino.metadata.Metadata;
+import io.trino.sql.planner.TypeProvider;
+import io.trino.sql.planner.iterative.Lookup;
+import io.trino.sql.planner.plan.PlanNode;
+
+import java.util.Optional;
+
+import static io.trino.SystemSessionProperties.isUseHistoryBasedStatistics;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Replaces the estimated output row count of a plan node with the actual output row count of the same
+ * plan subtree in a completed query, when the subtree is found in the {@link HistoryBasedStatisticsStore}.
+ */
+public class HistoryBasedStatsCalculator
+        implements StatsCalculator
+{
+    private final StatsCalculator delegate;
+    private final Metadata metadata;
+    private final HistoryBasedStatisticsStore store;
+    private final HistoryBasedEstimates estimates;
+    private final StatsNormalizer normalizer = new StatsNormalizer();
+    // the canonical forms of the plan nodes of a query are kept while the query is in use
+    private final Cache<Session, PlanCanonicalizer> canonicalizers = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    public HistoryBasedStatsCalculator(StatsCalculator delegate, Metadata metadata, HistoryBasedStatisticsStore store, HistoryBasedEstimates estimates)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.store = requireNonNull(store, "store is null");
+        this.estimates = requireNonNull(estimates, "estimates is null");
+    }
+
+    @Override
+    public PlanNodeStatsEstimate calculateStats(PlanNode node, StatsProvider sourceStats, Lookup lookup, Session session, TypeProvider types)
+    {
+        PlanNodeStatsEstimate estimate = delegate.calculateStats(node, sourceStats, lookup, session, types);
+        if (!isUseHistoryBasedStatistics(session)) {
+            return estimate;
+        }
+
+        Optional<HistoricalPlanStatistics> history = canonicalizers.asMap().computeIfAbsent(session, ignored -> PlanCanonicalizer.forPlan(metadata))
+                .canonicalize(node, lookup, session)
+                .map(CanonicalPlan::getPlan)
+                .flatMap(store::get);
+        if (history.isEmpty()) {
+            return estimate;
+        }
+
+        estimates.add(new HistoryBasedEstimate(
+                session.getQueryId(),
+                session.getUser(),
+                node.getClass().getSimpleName(),
+                estimate.getOutputRowCount(),
+                history.get()));
+        // the statistics of the symbols are kept, the distinct values counts are capped at the new row count
+        return normalizer.normalize(
+                PlanNodeStatsEstimate.buildFrom(estimate)
+                        .setOutputRowCount(history.get().getOutputRowCount())
+                        .build(),
+                types);
+    }
+}
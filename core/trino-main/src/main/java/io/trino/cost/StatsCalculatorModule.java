@@ -17,21 +17,45 @@ import com.google.common.collect.ImmutableList;
 import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.google.inject.Provides;
+import com.google.inject.Scopes;
+import io.trino.cost.history.FileHistoryBasedStatisticsStore;
+import io.trino.cost.history.HistoricalPlanStatistics;
+import io.trino.cost.history.HistoryBasedEstimates;
+import io.trino.cost.history.HistoryBasedStatisticsConfig;
+import io.trino.cost.history.HistoryBasedStatisticsRecorder;
+import io.trino.cost.history.HistoryBasedStatisticsStore;
 import io.trino.metadata.Metadata;
 import io.trino.sql.planner.TypeAnalyzer;
 
 import javax.inject.Singleton;
 
+import static com.google.inject.multibindings.OptionalBinder.newOptionalBinder;
+import static io.airlift.configuration.ConfigBinder.configBinder;
+import static io.airlift.json.JsonCodecBinder.jsonCodecBinder;
+import static org.weakref.jmx.guice.ExportBinder.newExporter;
+
 public class StatsCalculatorModule
         implements Module
 {
     @Override
     public void configure(Binder binder)
     {
+        configBinder(binder).bindConfig(HistoryBasedStatisticsConfig.class);
+        jsonCodecBinder(binder).bindJsonCodec(HistoricalPlanStatistics.class);
+        binder.bind(FileHistoryBasedStatisticsStore.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(FileHistoryBasedStatisticsStore.class).withGeneratedName();
+        newOptionalBinder(binder, HistoryBasedStatisticsStore.class).setDefault().to(FileHistoryBasedStatisticsStore.class);
+        binder.bind(HistoryBasedStatisticsRecorder.class).in(Scopes.SINGLETON);
+        binder.bind(HistoryBasedEstimates.class).in(Scopes.SINGLETON);
     }
 
     @Provides
     @Singleton
+    public static StatsCalculator createStatsCalculator(Metadata metadata, TypeAnalyzer typeAnalyzer, HistoryBasedStatisticsStore historyBasedStatisticsStore, HistoryBasedEstimates historyBasedEstimates)
+    {
+        return new HistoryBasedStatsCalculator(createNewStatsCalculator(metadata, typeAnalyzer), metadata, historyBasedStatisticsStore, historyBasedEstimates);
+    }
+
     public static StatsCalculator createNewStatsCalculator(Metadata metadata, TypeAnalyzer typeAnalyzer)
     {
         StatsNormalizer normalizer = new StatsNormalizer();
@@ -0,0 +1,235 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost.history;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.json.JsonCodec;
+import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
+import io.airlift.units.Duration;
+import org.joda.time.DateTime;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.hash.Hashing.sha256;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Keeps the statistics of every canonical plan in a file on local disk, named after the hash of the plan.
+ * The statistics read from disk, and the absence of statistics, are cached in memory, so the optimizer
+ * reads the file of a plan subtree once. Statistics older than the maximum age are not used, and their
+ * files are removed periodically.
+ */
+@ThreadSafe
+public class FileHistoryBasedStatisticsStore
+        implements HistoryBasedStatisticsStore
+{
+    private static final Logger log = Logger.get(FileHistoryBasedStatisticsStore.class);
+
+    private static final String FILE_SUFFIX = ".json";
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+    private static final Duration CLEANUP_INTERVAL = new Duration(1, HOURS);
+
+    private final Path directory;
+    private final JsonCodec<HistoricalPlanStatistics> codec;
+    private final Cache<String, Optional<HistoricalPlanStatistics>> cache;
+    private final Duration maxAge;
+    private final ScheduledExecutorService cleanupExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("history-based-statistics-cleanup"));
+
+    private final CounterStat reads = new CounterStat();
+    private final CounterStat writes = new CounterStat();
+    private final CounterStat failures = new CounterStat();
+    private final CounterStat removals = new CounterStat();
+
+    @Inject
+    public FileHistoryBasedStatisticsStore(HistoryBasedStatisticsConfig config, JsonCodec<HistoricalPlanStatistics> codec)
+    {
+        this(config.getDirectory().toPath(), config.getCacheSize(), config.getMaxAge(), codec);
+    }
+
+    @VisibleForTesting
+    public FileHistoryBasedStatisticsStore(Path directory, int cacheSize, Duration maxAge, JsonCodec<HistoricalPlanStatistics> codec)
+    {
+        this.directory = requireNonNull(directory, "directory is null");
+        this.codec = requireNonNull(codec, "codec is null");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+        this.maxAge = requireNonNull(maxAge, "maxAge is null");
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        cleanupExecutor.scheduleWithFixedDelay(this::removeExpiredFiles, 0, CLEANUP_INTERVAL.toMillis(), MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        cleanupExecutor.shutdownNow();
+    }
+
+    @Override
+    public Optional<HistoricalPlanStatistics> get(String canonicalPlan)
+    {
+        Optional<HistoricalPlanStatistics> statistics;
+        try {
+            statistics = cache.get(canonicalPlan, () -> read(canonicalPlan));
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+        // the data of the tables may have changed since, so old statistics are not used, even when they are cached
+        return statistics.filter(value -> value.getRecordTime().isAfter(DateTime.now().minus(maxAge.toMillis())));
+    }
+
+    @Override
+    public void put(HistoricalPlanStatistics statistics)
+    {
+        requireNonNull(statistics, "statistics is null");
+        cache.put(statistics.getCanonicalPlan(), Optional.of(statistics));
+        Path file = getFile(statistics.getCanonicalPlan());
+        try {
+            Files.createDirectories(directory);
+            // write to a temporary file first, so that the readers never see a partially written file
+            Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), TEMPORARY_FILE_SUFFIX);
+            Files.write(temporaryFile, codec.toJsonBytes(statistics));
+            Files.move(temporaryFile, file, ATOMIC_MOVE);
+            writes.update(1);
+        }
+        catch (IOException | IllegalArgumentException e) {
+            failures.update(1);
+            log.warn(e, "Failed to write history based statistics to %s", file);
+        }
+    }
+
+    /**
+     * Removes the files written before the maximum age, and the temporary files left behind by failed writes.
+     */
+    @VisibleForTesting
+    void removeExpiredFiles()
+    {
+        FileTime expiration = FileTime.fromMillis(System.currentTimeMillis() - maxAge.toMillis());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*{" + FILE_SUFFIX + "," + TEMPORARY_FILE_SUFFIX + "}")) {
+            for (Path file : files) {
+                try {
+                    if (Files.getLastModifiedTime(file).compareTo(expiration) < 0) {
+                        Files.delete(file);
+                        removals.update(1);
+                    }
+                }
+                catch (NoSuchFileException ignored) {
+                    // the file was replaced concurrently
+                }
+            }
+        }
+        catch (NoSuchFileException ignored) {
+            // no statistics have been written yet
+        }
+        catch (IOException | RuntimeException e) {
+            failures.update(1);
+            log.warn(e, "Failed to remove expired history based statistics from %s", directory);
+        }
+    }
+
+    private Optional<HistoricalPlanStatistics> read(String canonicalPlan)
+    {
+        Path file = getFile(canonicalPlan);
+        HistoricalPlanStatistics statistics;
+        try {
+            statistics = codec.fromJson(Files.readAllBytes(file));
+            reads.update(1);
+        }
+        catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            failures.update(1);
+            log.warn(e, "Failed to read history based statistics from %s", file);
+            return Optional.empty();
+        }
+        // plans with colliding hashes share the file
+        if (!statistics.getCanonicalPlan().equals(canonicalPlan)) {
+            return Optional.empty();
+        }
+        return Optional.of(statistics);
+    }
+
+    private Path getFile(String canonicalPlan)
+    {
+        return directory.resolve(sha256().hashString(canonicalPlan, UTF_8) + FILE_SUFFIX);
+    }
+
+    @Managed
+    public void invalidateCache()
+    {
+        cache.invalidateAll();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getReads()
+    {
+        return reads;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getWrites()
+    {
+        return writes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getFailures()
+    {
+        return failures;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getRemovals()
+    {
+        return removals;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost.history;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.airlift.units.DataSize;
+import io.trino.spi.QueryId;
+import org.joda.time.DateTime;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Actual output of a plan subtree, recorded from a completed query.
+ */
+public class HistoricalPlanStatistics
+{
+    private final String canonicalPlan;
+    private final long outputRowCount;
+    private final DataSize outputDataSize;
+    private final QueryId queryId;
+    private final DateTime recordTime;
+
+    @JsonCreator
+    public HistoricalPlanStatistics(
+            @JsonProperty("canonicalPlan") String canonicalPlan,
+            @JsonProperty("outputRowCount") long outputRowCount,
+            @JsonProperty("outputDataSize") DataSize outputDataSize,
+            @JsonProperty("queryId") QueryId queryId,
+            @JsonProperty("recordTime") DateTime recordTime)
+    {
+        this.canonicalPlan = requireNonNull(canonicalPlan, "canonicalPlan is null");
+        checkArgument(outputRowCount >= 0, "outputRowCount is negative");
+        this.outputRowCount = outputRowCount;
+        this.outputDataSize = requireNonNull(outputDataSize, "outputDataSize is null");
+        this.queryId = requireNonNull(queryId, "queryId is null");
+        this.recordTime = requireNonNull(recordTime, "recordTime is null");
+    }
+
+    @JsonProperty
+    public String getCanonicalPlan()
+    {
+        return canonicalPlan;
+    }
+
+    @JsonProperty
+    public long getOutputRowCount()
+    {
+        return outputRowCount;
+    }
+
+    @JsonProperty
+    public DataSize getOutputDataSize()
+    {
+        return outputDataSize;
+    }
+
+    /**
+     * Returns the query, which the statistics were recorded from.
+     */
+    @JsonProperty
+    public QueryId getQueryId()
+    {
+        return queryId;
+    }
+
+    @JsonProperty
+    public DateTime getRecordTime()
+    {
+        return recordTime;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        HistoricalPlanStatistics that = (HistoricalPlanStatistics) o;
+        return outputRowCount == that.outputRowCount &&
+                canonicalPlan.equals(that.canonicalPlan) &&
+                outputDataSize.equals(that.outputDataSize) &&
+                queryId.equals(that.queryId) &&
+                recordTime.isEqual(that.recordTime);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(canonicalPlan, outputRowCount, outputDataSize, queryId, recordTime.getMillis());
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("canonicalPlan", canonicalPlan)
+                .add("outputRowCount", outputRowCount)
+                .add("outputDataSize", outputDataSize)
+                .add("queryId", queryId)
+                .add("recordTime", recordTime)
+                .toString();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost.history;
+
+import io.trino.spi.QueryId;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Output row count of a plan subtree, which the optimizer of a query took from the history, instead of estimating it.
+ */
+public class HistoryBasedEstimate
+{
+    private final QueryId queryId;
+    private final String user;
+    private final String planNodeType;
+    private final double estimatedRowCount;
+    private final HistoricalPlanStatistics history;
+
+    /**
+     * @param estimatedRowCount the row count estimated from the statistics of the sources, which was replaced
+     */
+    public HistoryBasedEstimate(QueryId queryId, String user, String planNodeType, double estimatedRowCount, HistoricalPlanStatistics history)
+    {
+        this.queryId = requireNonNull(queryId, "queryId is null");
+        this.user = requireNonNull(user, "user is null");
+        this.planNodeType = requireNonNull(planNodeType, "planNodeType is null");
+        this.estimatedRowCount = estimatedRowCount;
+        this.history = requireNonNull(history, "history is null");
+    }
+
+    public QueryId getQueryId()
+    {
+        return queryId;
+    }
+
+    public String getUser()
+    {
+        return user;
+    }
+
+    public String getPlanNodeType()
+    {
+        return planNodeType;
+    }
+
+    public double getEstimatedRowCount()
+    {
+        return estimatedRowCount;
+    }
+
+    public HistoricalPlanStatistics getHistory()
+    {
+        return history;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("queryId", queryId)
+                .add("user", user)
+                .add("planNodeType", planNodeType)
+                .add("estimatedRowCount", estimatedRowCount)
+                .add("history", history)
+                .toString();
+    }
+}
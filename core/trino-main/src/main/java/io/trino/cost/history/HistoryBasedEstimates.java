@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost.history;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.trino.spi.QueryId;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * History based estimates of the recent queries, for the {@code system.runtime.history_based_estimates} table.
+ */
+@ThreadSafe
+public class HistoryBasedEstimates
+{
+    private static final int MAX_QUERIES = 1000;
+
+    private final Cache<QueryId, Map<String, HistoryBasedEstimate>> estimates = CacheBuilder.newBuilder()
+            .maximumSize(MAX_QUERIES)
+            .build();
+
+    public void add(HistoryBasedEstimate estimate)
+    {
+        requireNonNull(estimate, "estimate is null");
+        try {
+            // the same subtree is estimated many times during the optimization, the first estimate is kept
+            estimates.get(estimate.getQueryId(), ConcurrentHashMap::new)
+                    .putIfAbsent(estimate.getHistory().getCanonicalPlan(), estimate);
+        }
+        catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public List<HistoryBasedEstimate> getAll()
+    {
+        return estimates.asMap().values().stream()
+                .flatMap(queryEstimates -> queryEstimates.values().stream())
+                .collect(toImmutableList());
+    }
+}
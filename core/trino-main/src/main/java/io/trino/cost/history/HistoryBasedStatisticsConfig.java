@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost.history;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.Duration;
+import io.airlift.units.MinDuration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import java.io.File;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+
+public class HistoryBasedStatisticsConfig
+{
+    private File directory = new File("var/history-based-statistics");
+    private int cacheSize = 10_000;
+    private Duration maxAge = new Duration(7, DAYS);
+
+    @NotNull
+    public File getDirectory()
+    {
+        return directory;
+    }
+
+    @Config("history-based-statistics.directory")
+    @ConfigDescription("Directory on local disk where the actual output of plan subtrees of completed queries is kept")
+    public HistoryBasedStatisticsConfig setDirectory(File directory)
+    {
+        this.directory = directory;
+        return this;
+    }
+
+    @Min(0)
+    public int getCacheSize()
+    {
+        return cacheSize;
+    }
+
+    @Config("history-based-statistics.cache-size")
+    @ConfigDescription("Number of plan subtrees, for which the statistics read from disk are kept in memory")
+    public HistoryBasedStatisticsConfig setCacheSize(int cacheSize)
+    {
+        this.cacheSize = cacheSize;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1m")
+    public Duration getMaxAge()
+    {
+        return maxAge;
+    }
+
+    @Config("history-based-statistics.max-age")
+    @ConfigDescription("Time after which the statistics recorded from a completed query are no longer used, and are removed from disk")
+    public HistoryBasedStatisticsConfig setMaxAge(Duration maxAge)
+    {
+        this.maxAge = maxAge;
+        return this;
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost.history;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.log.Logger;
+import io.trino.Session;
+import io.trino.execution.QueryInfo;
+import io.trino.execution.StageInfo;
+import io.trino.operator.OperatorStats;
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.predicate.TupleDomain;
+import io.trino.sql.planner.PlanFragment;
+import io.trino.sql.planner.plan.DistinctLimitNode;
+import io.trino.sql.planner.plan.ExchangeNode;
+import io.trino.sql.planner.plan.IndexJoinNode;
+import io.trino.sql.planner.plan.JoinNode;
+import io.trino.sql.planner.plan.LimitNode;
+import io.trino.sql.planner.plan.PlanFragmentId;
+import io.trino.sql.planner.plan.PlanNode;
+import io.trino.sql.planner.plan.PlanNodeId;
+import io.trino.sql.planner.plan.RemoteSourceNode;
+import io.trino.sql.planner.plan.SemiJoinNode;
+import io.trino.sql.planner.plan.SpatialJoinNode;
+import org.joda.time.DateTime;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Lists.reverse;
+import static io.airlift.units.DataSize.succinctBytes;
+import static io.trino.execution.QueryState.FINISHED;
+import static io.trino.sql.planner.plan.JoinNode.DistributionType.REPLICATED;
+import static io.trino.sql.planner.plan.JoinNode.Type.INNER;
+import static io.trino.sql.planner.plan.JoinNode.Type.RIGHT;
+import static java.util.Comparator.comparingInt;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.groupingBy;
+
+/**
+ * Records the actual output of the plan subtrees of a completed query in the {@link HistoryBasedStatisticsStore}.
+ * Subtrees, whose output may be incomplete, are not recorded. That is, the subtrees below a limit, and the
+ * probe side of a join, which produced no rows, since these are not read to the end. The subtrees executed
+ * by every task of a stage, with the replicated build side of a join, and the subtrees filtered by dynamic
+ * filters collected outside of them, are not recorded either.
+ */
+@ThreadSafe
+public class HistoryBasedStatisticsRecorder
+{
+    private static final Logger log = Logger.get(HistoryBasedStatisticsRecorder.class);
+
+    private final HistoryBasedStatisticsStore store;
+
+    @Inject
+    public HistoryBasedStatisticsRecorder(HistoryBasedStatisticsStore store)
+    {
+        this.store = requireNonNull(store, "store is null");
+    }
+
+    /**
+     * @param tablePredicates the predicates guaranteed by the tables of the table scans of the query
+     * @see PlanCanonicalizer#getTablePredicates
+     */
+    public void record(QueryInfo queryInfo, Map<PlanNodeId, TupleDomain<ColumnHandle>> tablePredicates, Session session)
+    {
+        if (queryInfo.getState() != FINISHED || queryInfo.getOutputStage().isEmpty()) {
+            return;
+        }
+
+        try {
+            List<StageInfo> stages = StageInfo.getAllStages(queryInfo.getOutputStage());
+            ImmutableMap.Builder<PlanFragmentId, PlanFragment> fragments = ImmutableMap.builder();
+            Map<PlanNodeId, OperatorOutput> outputs = new HashMap<>();
+            for (StageInfo stage : stages) {
+                if (stage.getPlan() == null) {
+                    return;
+                }
+                fragments.put(stage.getPlan().getId(), stage.getPlan());
+                getPlanNodeOutputs(stage.getStageStats().getOperatorSummaries())
+                        .forEach((planNodeId, output) -> outputs.merge(planNodeId, output, OperatorOutput::add));
+            }
+
+            Recording recording = new Recording(fragments.build(), outputs, tablePredicates, session);
+            recording.visit(queryInfo.getOutputStage().get().getPlan().getRoot(), true, false);
+            DateTime recordTime = DateTime.now();
+            for (Map.Entry<String, OperatorOutput> entry : recording.getStatistics().entrySet()) {
+                store.put(new HistoricalPlanStatistics(
+                        entry.getKey(),
+                        entry.getValue().getPositions(),
+                        succinctBytes(entry.getValue().getBytes()),
+                        queryInfo.getQueryId(),
+                        recordTime));
+            }
+        }
+        catch (RuntimeException e) {
+            log.warn(e, "Failed to record history based statistics of query %s", queryInfo.getQueryId());
+        }
+    }
+
+    /**
+     * Computes the output of the plan nodes of a stage from its operators, like {@link io.trino.sql.planner.planprinter.PlanNodeStatsSummarizer}
+     * does for the tasks. The output of a plan node, which is executed by several operators of a pipeline, is the
+     * output of the last of them.
+     */
+    private static Map<PlanNodeId, OperatorOutput> getPlanNodeOutputs(List<OperatorStats> operatorSummaries)
+    {
+        Map<PlanNodeId, OperatorOutput> outputs = new HashMap<>();
+        Collection<List<OperatorStats>> pipelines = operatorSummaries.stream()
+                .collect(groupingBy(OperatorStats::getPipelineId))
+                .values();
+        for (List<OperatorStats> pipeline : pipelines) {
+            Set<PlanNodeId> processedNodes = new HashSet<>();
+            List<OperatorStats> operators = pipeline.stream()
+                    .sorted(comparingInt(OperatorStats::getOperatorId))
+                    .collect(toImmutableList());
+            for (OperatorStats operator : reverse(operators)) {
+                if (processedNodes.add(operator.getPlanNodeId())) {
+                    outputs.merge(
+                            operator.getPlanNodeId(),
+                            new OperatorOutput(operator.getOutputPositions(), operator.getOutputDataSize().toBytes()),
+                            OperatorOutput::add);
+                }
+            }
+        }
+        return outputs;
+    }
+
+    private static class Recording
+    {
+        private final Map<PlanFragmentId, PlanFragment> fragments;
+        private final Map<PlanNodeId, OperatorOutput> outputs;
+        private final PlanCanonicalizer canonicalizer;
+        private final Session session;
+        // roots of the fragments, which send some rows to several consumers, so their output is overcounted
+        private final Set<PlanNodeId> replicatingRoots;
+        // the topmost plan node of every canonical plan is recorded
+        private final Map<String, OperatorOutput> statistics = new LinkedHashMap<>();
+
+        public Recording(Map<PlanFragmentId, PlanFragment> fragments, Map<PlanNodeId, OperatorOutput> outputs, Map<PlanNodeId, TupleDomain<ColumnHandle>> tablePredicates, Session session)
+        {
+            this.fragments = requireNonNull(fragments, "fragments is null");
+            this.outputs = requireNonNull(outputs, "outputs is null");
+            this.canonicalizer = PlanCanonicalizer.forFragments(fragments, tablePredicates);
+            this.session = requireNonNull(session, "session is null");
+            this.replicatingRoots = fragments.values().stream()
+                    .filter(fragment -> fragment.getPartitioningScheme().isReplicateNullsAndAny() || fragment.getPartitioningScheme().getSkewedKeys().isPresent())
+                    .map(fragment -> fragment.getRoot().getId())
+                    .collect(toImmutableSet());
+        }
+
+        public Map<String, OperatorOutput> getStatistics()
+        {
+            return statistics;
+        }
+
+        /**
+         * @param complete whether the node is read to the end
+         * @param replicated whether the node is executed by every task of a stage, with the same input
+         */
+        public void visit(PlanNode node, boolean complete, boolean replicated)
+        {
+            OperatorOutput output = outputs.get(node.getId());
+            // the output of an exchange is counted by every task receiving it
+            if (complete && !replicated && output != null && !replicatingRoots.contains(node.getId()) && !(node instanceof ExchangeNode) && !(node instanceof RemoteSourceNode)) {
+                canonicalizer.canonicalize(node, session)
+                        .filter(canonical -> !canonical.isDynamicallyFiltered())
+                        .ifPresent(canonical -> statistics.putIfAbsent(canonical.getPlan(), output));
+            }
+
+            if (node instanceof RemoteSourceNode) {
+                for (PlanFragmentId fragmentId : ((RemoteSourceNode) node).getSourceFragmentIds()) {
+                    visit(fragments.get(fragmentId).getRoot(), complete, false);
+                }
+                return;
+            }
+            if (node instanceof LimitNode || node instanceof DistinctLimitNode) {
+                visitSources(node.getSources(), false, replicated);
+                return;
+            }
+            if (node instanceof JoinNode) {
+                JoinNode join = (JoinNode) node;
+                // the probe side is not read to the end, when the build side is empty
+                boolean emptyOutput = output == null || output.getPositions() == 0;
+                visit(join.getLeft(), complete && !(emptyOutput && (join.getType() == INNER || join.getType() == RIGHT)), replicated);
+                visit(join.getRight(), complete, replicated || join.getDistributionType().equals(Optional.of(REPLICATED)));
+                return;
+            }
+            if (node instanceof SemiJoinNode) {
+                SemiJoinNode semiJoin = (SemiJoinNode) node;
+                visit(semiJoin.getSource(), complete, replicated);
+                visit(semiJoin.getFilteringSource(), complete, replicated || semiJoin.getDistributionType().equals(Optional.of(SemiJoinNode.DistributionType.REPLICATED)));
+                return;
+            }
+            if (node instanceof SpatialJoinNode) {
+                SpatialJoinNode spatialJoin = (SpatialJoinNode) node;
+                visit(spatialJoin.getLeft(), complete, replicated);
+                visit(spatialJoin.getRight(), complete, replicated || spatialJoin.getDistributionType() == SpatialJoinNode.DistributionType.REPLICATED);
+                return;
+            }
+            if (node instanceof IndexJoinNode) {
+                // the index source is looked up, not read
+                IndexJoinNode indexJoin = (IndexJoinNode) node;
+                visit(indexJoin.getProbeSource(), complete, replicated);
+                visit(indexJoin.getIndexSource(), false, replicated);
+                return;
+            }
+            visitSources(node.getSources(), complete, replicated);
+        }
+
+        private void visitSources(List<PlanNode> sources, boolean complete, boolean replicated)
+        {
+            for (PlanNode source : sources) {
+                visit(source, complete, replicated);
+            }
+        }
+    }
+
+    private static class OperatorOutput
+    {
+        private final long positions;
+        private final long bytes;
+
+        public OperatorOutput(long positions, long bytes)
+        {
+            this.positions = positions;
+            this.bytes = bytes;
+        }
+
+        public long getPositions()
+        {
+            return positions;
+        }
+
+        public long getBytes()
+        {
+            return bytes;
+        }
+
+        public OperatorOutput add(OperatorOutput other)
+        {
+            return new OperatorOutput(positions + other.positions, bytes + other.bytes);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost.history;
+
+import java.util.Optional;
+
+/**
+ * Keeps the actual output of plan subtrees of completed queries, keyed by the canonical form of the subtree.
+ * Implementations are called by the optimizer for every plan node, while the statistics are computed, so
+ * lookups are expected to be cheap.
+ */
+public interface HistoryBasedStatisticsStore
+{
+    Optional<HistoricalPlanStatistics> get(String canonicalPlan);
+
+    /**
+     * Stores the statistics, replacing the statistics of the same canonical plan.
+     */
+    void put(HistoricalPlanStatistics statistics);
+}
@@ -0,0 +1,691 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost.history;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import io.trino.Session;
+import io.trino.metadata.Metadata;
+import io.trino.metadata.TableHandle;
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.predicate.Domain;
+import io.trino.spi.predicate.TupleDomain;
+import io.trino.sql.DynamicFilters;
+import io.trino.sql.planner.OrderingScheme;
+import io.trino.sql.planner.PlanFragment;
+import io.trino.sql.planner.SubPlan;
+import io.trino.sql.planner.Symbol;
+import io.trino.sql.planner.iterative.Lookup;
+import io.trino.sql.planner.plan.AggregationNode;
+import io.trino.sql.planner.plan.AssignUniqueId;
+import io.trino.sql.planner.plan.DistinctLimitNode;
+import io.trino.sql.planner.plan.DynamicFilterId;
+import io.trino.sql.planner.plan.EnforceSingleRowNode;
+import io.trino.sql.planner.plan.ExchangeNode;
+import io.trino.sql.planner.plan.FilterNode;
+import io.trino.sql.planner.plan.JoinNode;
+import io.trino.sql.planner.plan.LimitNode;
+import io.trino.sql.planner.plan.MarkDistinctNode;
+import io.trino.sql.planner.plan.OutputNode;
+import io.trino.sql.planner.plan.PlanFragmentId;
+import io.trino.sql.planner.plan.PlanNode;
+import io.trino.sql.planner.plan.PlanNodeId;
+import io.trino.sql.planner.plan.PlanVisitor;
+import io.trino.sql.planner.plan.ProjectNode;
+import io.trino.sql.planner.plan.RemoteSourceNode;
+import io.trino.sql.planner.plan.SemiJoinNode;
+import io.trino.sql.planner.plan.SortNode;
+import io.trino.sql.planner.plan.TableScanNode;
+import io.trino.sql.planner.plan.TopNNode;
+import io.trino.sql.planner.plan.UnionNode;
+import io.trino.sql.planner.plan.ValuesNode;
+import io.trino.sql.planner.plan.WindowNode;
+import io.trino.sql.tree.Expression;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Sets.difference;
+import static com.google.common.collect.Sets.union;
+import static io.trino.sql.planner.ExpressionSymbolInliner.inlineSymbols;
+import static io.trino.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static io.trino.sql.planner.plan.AggregationNode.Step.FINAL;
+import static io.trino.sql.planner.plan.AggregationNode.Step.SINGLE;
+import static io.trino.sql.planner.plan.JoinNode.Type.FULL;
+import static io.trino.sql.planner.plan.JoinNode.Type.INNER;
+import static io.trino.sql.planner.plan.JoinNode.Type.LEFT;
+import static io.trino.sql.planner.plan.JoinNode.Type.RIGHT;
+import static io.trino.sql.tree.BooleanLiteral.TRUE_LITERAL;
+import static java.lang.String.format;
+import static java.lang.String.join;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Describes the rows produced by a plan subtree in a form, which does not depend on the way the subtree is
+ * executed. Exchanges, projections, partial steps of aggregations and dynamic filters are left out, and the
+ * projected expressions are inlined into the expressions using them, so the same subtree is described the same
+ * way in the plans seen by the optimizer, and in the fragmented plan of the query.
+ */
+public final class PlanCanonicalizer
+{
+    private final Function<PlanFragmentId, Optional<PlanFragment>> fragments;
+    private final BiFunction<TableScanNode, Session, TupleDomain<ColumnHandle>> tablePredicates;
+    // the plan nodes are compared by identity, and are not retained once they are no longer a part of the plan
+    private final Cache<PlanNode, CanonicalForm> canonicalForms = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    private PlanCanonicalizer(Function<PlanFragmentId, Optional<PlanFragment>> fragments, BiFunction<TableScanNode, Session, TupleDomain<ColumnHandle>> tablePredicates)
+    {
+        this.fragments = requireNonNull(fragments, "fragments is null");
+        this.tablePredicates = requireNonNull(tablePredicates, "tablePredicates is null");
+    }
+
+    /**
+     * Returns a canonicalizer of the plans of a query being optimized. The predicates guaranteed by the tables
+     * are resolved once for every table of the query.
+     */
+    public static PlanCanonicalizer forPlan(Metadata metadata)
+    {
+        Map<TableHandle, TupleDomain<ColumnHandle>> predicates = new ConcurrentHashMap<>();
+        return new PlanCanonicalizer(
+                fragmentId -> Optional.empty(),
+                (tableScan, session) -> predicates.computeIfAbsent(tableScan.getTable(), table -> metadata.getTableProperties(session, table).getPredicate()));
+    }
+
+    /**
+     * Returns a canonicalizer of the fragmented plan of a query, which follows the remote sources to the fragments
+     * producing their data. The predicates guaranteed by the tables are resolved while the transaction of the query
+     * is active, with {@link #getTablePredicates(SubPlan, Metadata, Session)}.
+     */
+    public static PlanCanonicalizer forFragments(Map<PlanFragmentId, PlanFragment> fragments, Map<PlanNodeId, TupleDomain<ColumnHandle>> tablePredicates)
+    {
+        return new PlanCanonicalizer(
+                fragmentId -> Optional.ofNullable(fragments.get(fragmentId)),
+                (tableScan, session) -> tablePredicates.getOrDefault(tableScan.getId(), TupleDomain.all()));
+    }
+
+    /**
+     * Returns the predicates guaranteed by the tables of the table scans of a fragmented plan.
+     */
+    public static Map<PlanNodeId, TupleDomain<ColumnHandle>> getTablePredicates(SubPlan plan, Metadata metadata, Session session)
+    {
+        return plan.getAllFragments().stream()
+                .flatMap(fragment -> searchFrom(fragment.getRoot())
+                        .where(TableScanNode.class::isInstance)
+                        .<TableScanNode>findAll()
+                        .stream())
+                .collect(toImmutableMap(TableScanNode::getId, tableScan -> metadata.getTableProperties(session, tableScan.getTable()).getPredicate()));
+    }
+
+    public Optional<CanonicalPlan> canonicalize(PlanNode node, Session session)
+    {
+        return canonicalize(node, Lookup.noLookup(), session);
+    }
+
+    /**
+     * Describes a subtree of the plan. The canonical form of a plan node is computed once, and is reused while the
+     * canonical forms of its sources do not change, as the groups of the memo of the iterative optimizer are replaced.
+     */
+    public Optional<CanonicalPlan> canonicalize(PlanNode node, Lookup lookup, Session session)
+    {
+        return new Visitor(fragments, tablePredicates, canonicalForms, lookup, session).canonicalize(node)
+                .filter(canonical -> !canonical.isPartial())
+                .map(canonical -> new CanonicalPlan(canonical.getPlan(), !canonical.getDynamicFilters().isEmpty()));
+    }
+
+    private static Expression inline(Map<Symbol, Expression> definitions, Expression expression)
+    {
+        return inlineSymbols(symbol -> definitions.getOrDefault(symbol, symbol.toSymbolReference()), expression);
+    }
+
+    public static class CanonicalPlan
+    {
+        private final String plan;
+        private final boolean dynamicallyFiltered;
+
+        private CanonicalPlan(String plan, boolean dynamicallyFiltered)
+        {
+            this.plan = requireNonNull(plan, "plan is null");
+            this.dynamicallyFiltered = dynamicallyFiltered;
+        }
+
+        public String getPlan()
+        {
+            return plan;
+        }
+
+        /**
+         * Returns true, if the rows of the subtree are filtered by dynamic filters collected outside of it,
+         * so the actual number of rows produced by the subtree is smaller than the number of rows described.
+         */
+        public boolean isDynamicallyFiltered()
+        {
+            return dynamicallyFiltered;
+        }
+    }
+
+    private static class Canonical
+    {
+        private final String plan;
+        // expressions of the output symbols, which are computed by projections left out of the plan
+        private final Map<Symbol, Expression> definitions;
+        // dynamic filters consumed in the subtree, and collected outside of it
+        private final Set<DynamicFilterId> dynamicFilters;
+        // whether the subtree contains a partial step of an operation, which is completed outside of it
+        private final boolean partial;
+
+        public Canonical(String plan, Map<Symbol, Expression> definitions, Set<DynamicFilterId> dynamicFilters, boolean partial)
+        {
+            this.plan = requireNonNull(plan, "plan is null");
+            this.definitions = ImmutableMap.copyOf(requireNonNull(definitions, "definitions is null"));
+            this.dynamicFilters = ImmutableSet.copyOf(requireNonNull(dynamicFilters, "dynamicFilters is null"));
+            this.partial = partial;
+        }
+
+        public String getPlan()
+        {
+            return plan;
+        }
+
+        public Map<Symbol, Expression> getDefinitions()
+        {
+            return definitions;
+        }
+
+        public Set<DynamicFilterId> getDynamicFilters()
+        {
+            return dynamicFilters;
+        }
+
+        public boolean isPartial()
+        {
+            return partial;
+        }
+
+        public Expression inline(Expression expression)
+        {
+            return PlanCanonicalizer.inline(definitions, expression);
+        }
+
+        public String inline(Symbol symbol)
+        {
+            return inline(symbol.toSymbolReference()).toString();
+        }
+
+        public Canonical withDefinitions(Map<Symbol, Expression> definitions)
+        {
+            return new Canonical(plan, definitions, dynamicFilters, partial);
+        }
+
+        public Canonical withPartial(boolean partial)
+        {
+            return new Canonical(plan, definitions, dynamicFilters, partial);
+        }
+    }
+
+    private static class CanonicalForm
+    {
+        private final List<Optional<Canonical>> sources;
+        private final Optional<Canonical> canonical;
+
+        public CanonicalForm(List<Optional<Canonical>> sources, Optional<Canonical> canonical)
+        {
+            this.sources = ImmutableList.copyOf(requireNonNull(sources, "sources is null"));
+            this.canonical = requireNonNull(canonical, "canonical is null");
+        }
+
+        public boolean hasSources(List<Optional<Canonical>> sources)
+        {
+            // the canonical forms are compared by identity, as an unchanged source reuses its canonical form
+            return this.sources.equals(sources);
+        }
+
+        public Optional<Canonical> getCanonical()
+        {
+            return canonical;
+        }
+    }
+
+    private static class Visitor
+            extends PlanVisitor<Optional<Canonical>, Void>
+    {
+        private final Function<PlanFragmentId, Optional<PlanFragment>> fragments;
+        private final BiFunction<TableScanNode, Session, TupleDomain<ColumnHandle>> tablePredicates;
+        private final Cache<PlanNode, CanonicalForm> canonicalForms;
+        private final Lookup lookup;
+        private final Session session;
+        private final ConnectorSession connectorSession;
+        // the canonical forms of the plan nodes, which are up to date in this call
+        private final Map<PlanNode, Optional<Canonical>> visited = new IdentityHashMap<>();
+
+        public Visitor(
+                Function<PlanFragmentId, Optional<PlanFragment>> fragments,
+                BiFunction<TableScanNode, Session, TupleDomain<ColumnHandle>> tablePredicates,
+                Cache<PlanNode, CanonicalForm> canonicalForms,
+                Lookup lookup,
+                Session session)
+        {
+            this.fragments = requireNonNull(fragments, "fragments is null");
+            this.tablePredicates = requireNonNull(tablePredicates, "tablePredicates is null");
+            this.canonicalForms = requireNonNull(canonicalForms, "canonicalForms is null");
+            this.lookup = requireNonNull(lookup, "lookup is null");
+            this.session = requireNonNull(session, "session is null");
+            this.connectorSession = session.toConnectorSession();
+        }
+
+        public Optional<Canonical> canonicalize(PlanNode node)
+        {
+            PlanNode resolved = lookup.resolve(node);
+            Optional<Canonical> canonical = visited.get(resolved);
+            if (canonical != null) {
+                return canonical;
+            }
+
+            List<Optional<Canonical>> sources = resolved.getSources().stream()
+                    .map(this::canonicalize)
+                    .collect(toImmutableList());
+            CanonicalForm canonicalForm = canonicalForms.getIfPresent(resolved);
+            if (canonicalForm == null || !canonicalForm.hasSources(sources)) {
+                canonicalForm = new CanonicalForm(sources, resolved.accept(this, null));
+                canonicalForms.put(resolved, canonicalForm);
+            }
+            visited.put(resolved, canonicalForm.getCanonical());
+            return canonicalForm.getCanonical();
+        }
+
+        @Override
+        protected Optional<Canonical> visitPlan(PlanNode node, Void context)
+        {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Canonical> visitTableScan(TableScanNode node, Void context)
+        {
+            StringBuilder plan = new StringBuilder("TableScan[").append(node.getTable());
+            node.getTable().getLayout().ifPresent(layout -> plan.append(", layout = ").append(layout));
+            // the handles of some connectors do not describe the predicates pushed into them
+            TupleDomain<ColumnHandle> predicate = tablePredicates.apply(node, session);
+            if (!predicate.isAll()) {
+                plan.append(", predicate = ").append(formatConstraint(predicate));
+            }
+            if (!node.getEnforcedConstraint().isAll()) {
+                plan.append(", constraint = ").append(formatConstraint(node.getEnforcedConstraint()));
+            }
+            plan.append("]");
+            return Optional.of(new Canonical(plan.toString(), ImmutableMap.of(), ImmutableSet.of(), false));
+        }
+
+        @Override
+        public Optional<Canonical> visitValues(ValuesNode node, Void context)
+        {
+            String rows = node.getRows()
+                    .map(Object::toString)
+                    .orElseGet(() -> String.valueOf(node.getRowCount()));
+            return Optional.of(new Canonical(format("Values[%s]", rows), ImmutableMap.of(), ImmutableSet.of(), false));
+        }
+
+        @Override
+        public Optional<Canonical> visitFilter(FilterNode node, Void context)
+        {
+            Optional<Canonical> source = canonicalize(node.getSource());
+            if (source.isEmpty()) {
+                return Optional.empty();
+            }
+
+            DynamicFilters.ExtractResult predicate = DynamicFilters.extractDynamicFilters(node.getPredicate());
+            Set<DynamicFilterId> dynamicFilters = union(
+                    source.get().getDynamicFilters(),
+                    predicate.getDynamicConjuncts().stream()
+                            .map(DynamicFilters.Descriptor::getId)
+                            .collect(toImmutableSet()));
+            List<String> conjuncts = predicate.getStaticConjuncts().stream()
+                    .filter(conjunct -> !conjunct.equals(TRUE_LITERAL))
+                    .map(conjunct -> source.get().inline(conjunct).toString())
+                    .sorted()
+                    .collect(toImmutableList());
+            if (conjuncts.isEmpty()) {
+                return Optional.of(new Canonical(source.get().getPlan(), source.get().getDefinitions(), dynamicFilters, source.get().isPartial()));
+            }
+            return Optional.of(new Canonical(
+                    format("Filter[%s](%s)", join(" AND ", conjuncts), source.get().getPlan()),
+                    source.get().getDefinitions(),
+                    dynamicFilters,
+                    source.get().isPartial()));
+        }
+
+        @Override
+        public Optional<Canonical> visitProject(ProjectNode node, Void context)
+        {
+            return canonicalize(node.getSource())
+                    .map(source -> {
+                        Map<Symbol, Expression> definitions = new HashMap<>();
+                        node.getAssignments().forEach((symbol, expression) -> {
+                            Expression definition = source.inline(expression);
+                            if (!definition.equals(symbol.toSymbolReference())) {
+                                definitions.put(symbol, definition);
+                            }
+                        });
+                        return source.withDefinitions(definitions);
+                    });
+        }
+
+        @Override
+        public Optional<Canonical> visitExchange(ExchangeNode node, Void context)
+        {
+            if (node.getSources().size() == 1) {
+                return canonicalize(node.getSources().get(0))
+                        .map(source -> mapOutputs(source, node.getOutputSymbols(), node.getInputs().get(0)));
+            }
+            return visitUnion(node.getSources(), context);
+        }
+
+        @Override
+        public Optional<Canonical> visitRemoteSource(RemoteSourceNode node, Void context)
+        {
+            ImmutableList.Builder<Canonical> sources = ImmutableList.builder();
+            for (PlanFragmentId fragmentId : node.getSourceFragmentIds()) {
+                Optional<PlanFragment> fragment = fragments.apply(fragmentId);
+                if (fragment.isEmpty()) {
+                    return Optional.empty();
+                }
+                Optional<Canonical> source = canonicalize(fragment.get().getRoot());
+                if (source.isEmpty()) {
+                    return Optional.empty();
+                }
+                sources.add(mapOutputs(source.get(), node.getOutputSymbols(), fragment.get().getPartitioningScheme().getOutputLayout()));
+            }
+            return Optional.of(unionOf(sources.build()));
+        }
+
+        @Override
+        public Optional<Canonical> visitUnion(UnionNode node, Void context)
+        {
+            return visitUnion(node.getSources(), context);
+        }
+
+        @Override
+        public Optional<Canonical> visitJoin(JoinNode node, Void context)
+        {
+            Optional<Canonical> left = canonicalize(node.getLeft());
+            Optional<Canonical> right = canonicalize(node.getRight());
+            if (left.isEmpty() || right.isEmpty()) {
+                return Optional.empty();
+            }
+
+            JoinNode.Type type = node.getType();
+            List<List<String>> criteria = node.getCriteria().stream()
+                    .map(clause -> ImmutableList.of(left.get().inline(clause.getLeft()), right.get().inline(clause.getRight())))
+                    .collect(toImmutableList());
+            List<Canonical> sources = ImmutableList.of(left.get(), right.get());
+            if (type == RIGHT) {
+                type = LEFT;
+                sources = Lists.reverse(sources);
+                criteria = criteria.stream()
+                        .map(Lists::reverse)
+                        .collect(toImmutableList());
+            }
+            if (type == INNER || type == FULL) {
+                // the sides of inner and full joins may be flipped
+                sources = sources.stream()
+                        .sorted((first, second) -> first.getPlan().compareTo(second.getPlan()))
+                        .collect(toImmutableList());
+                criteria = criteria.stream()
+                        .map(clause -> clause.stream().sorted().collect(toImmutableList()))
+                        .collect(toImmutableList());
+            }
+
+            Map<Symbol, Expression> definitions = new HashMap<>(left.get().getDefinitions());
+            definitions.putAll(right.get().getDefinitions());
+            StringBuilder plan = new StringBuilder("Join[").append(type)
+                    .append(", ")
+                    .append(criteria.stream()
+                            .map(clause -> join(" = ", clause))
+                            .sorted()
+                            .collect(toImmutableList()));
+            node.getFilter().ifPresent(filter -> plan.append(", ").append(inline(definitions, filter)));
+            plan.append("](").append(sources.get(0).getPlan()).append(", ").append(sources.get(1).getPlan()).append(")");
+
+            return Optional.of(new Canonical(
+                    plan.toString(),
+                    definitions,
+                    difference(union(left.get().getDynamicFilters(), right.get().getDynamicFilters()), node.getDynamicFilters().keySet()),
+                    left.get().isPartial() || right.get().isPartial()));
+        }
+
+        @Override
+        public Optional<Canonical> visitSemiJoin(SemiJoinNode node, Void context)
+        {
+            Optional<Canonical> source = canonicalize(node.getSource());
+            Optional<Canonical> filteringSource = canonicalize(node.getFilteringSource());
+            if (source.isEmpty() || filteringSource.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(new Canonical(
+                    format(
+                            "SemiJoin[%s = %s, %s](%s, %s)",
+                            source.get().inline(node.getSourceJoinSymbol()),
+                            filteringSource.get().inline(node.getFilteringSourceJoinSymbol()),
+                            node.getSemiJoinOutput(),
+                            source.get().getPlan(),
+                            filteringSource.get().getPlan()),
+                    source.get().getDefinitions(),
+                    difference(union(source.get().getDynamicFilters(), filteringSource.get().getDynamicFilters()), node.getDynamicFilterId().map(ImmutableSet::of).orElse(ImmutableSet.of())),
+                    source.get().isPartial() || filteringSource.get().isPartial()));
+        }
+
+        @Override
+        public Optional<Canonical> visitAggregation(AggregationNode node, Void context)
+        {
+            Optional<Canonical> source = canonicalize(node.getSource());
+            if (source.isEmpty()) {
+                return Optional.empty();
+            }
+            if (node.getStep() != SINGLE && node.getStep() != FINAL) {
+                return Optional.of(source.get().withPartial(true));
+            }
+            return Optional.of(new Canonical(
+                    format(
+                            "Aggregation[%s, sets = %s, global = %s](%s)",
+                            inlineSorted(source.get(), node.getGroupingKeys()),
+                            node.getGroupingSetCount(),
+                            node.getGlobalGroupingSets(),
+                            source.get().getPlan()),
+                    source.get().getDefinitions(),
+                    source.get().getDynamicFilters(),
+                    false));
+        }
+
+        @Override
+        public Optional<Canonical> visitLimit(LimitNode node, Void context)
+        {
+            Optional<Canonical> source = canonicalize(node.getSource());
+            if (source.isEmpty()) {
+                return Optional.empty();
+            }
+            if (node.isPartial()) {
+                return Optional.of(source.get().withPartial(true));
+            }
+            String ties = node.getTiesResolvingScheme()
+                    .map(scheme -> ", ties = " + formatOrdering(source.get(), scheme))
+                    .orElse("");
+            return Optional.of(new Canonical(
+                    format("Limit[%s%s](%s)", node.getCount(), ties, source.get().getPlan()),
+                    source.get().getDefinitions(),
+                    source.get().getDynamicFilters(),
+                    false));
+        }
+
+        @Override
+        public Optional<Canonical> visitTopN(TopNNode node, Void context)
+        {
+            Optional<Canonical> source = canonicalize(node.getSource());
+            if (source.isEmpty()) {
+                return Optional.empty();
+            }
+            if (node.getStep() == TopNNode.Step.PARTIAL) {
+                return Optional.of(source.get().withPartial(true));
+            }
+            return Optional.of(new Canonical(
+                    format("TopN[%s, %s](%s)", node.getCount(), formatOrdering(source.get(), node.getOrderingScheme()), source.get().getPlan()),
+                    source.get().getDefinitions(),
+                    source.get().getDynamicFilters(),
+                    false));
+        }
+
+        @Override
+        public Optional<Canonical> visitDistinctLimit(DistinctLimitNode node, Void context)
+        {
+            Optional<Canonical> source = canonicalize(node.getSource());
+            if (source.isEmpty()) {
+                return Optional.empty();
+            }
+            if (node.isPartial()) {
+                return Optional.of(source.get().withPartial(true));
+            }
+            return Optional.of(new Canonical(
+                    format("DistinctLimit[%s, %s](%s)", node.getLimit(), inlineSorted(source.get(), node.getDistinctSymbols()), source.get().getPlan()),
+                    source.get().getDefinitions(),
+                    source.get().getDynamicFilters(),
+                    false));
+        }
+
+        @Override
+        public Optional<Canonical> visitOutput(OutputNode node, Void context)
+        {
+            return canonicalize(node.getSource());
+        }
+
+        @Override
+        public Optional<Canonical> visitSort(SortNode node, Void context)
+        {
+            return canonicalize(node.getSource());
+        }
+
+        @Override
+        public Optional<Canonical> visitWindow(WindowNode node, Void context)
+        {
+            return canonicalize(node.getSource());
+        }
+
+        @Override
+        public Optional<Canonical> visitMarkDistinct(MarkDistinctNode node, Void context)
+        {
+            return canonicalize(node.getSource());
+        }
+
+        @Override
+        public Optional<Canonical> visitAssignUniqueId(AssignUniqueId node, Void context)
+        {
+            return canonicalize(node.getSource());
+        }
+
+        @Override
+        public Optional<Canonical> visitEnforceSingleRow(EnforceSingleRowNode node, Void context)
+        {
+            return canonicalize(node.getSource());
+        }
+
+        private Optional<Canonical> visitUnion(List<PlanNode> sources, Void context)
+        {
+            ImmutableList.Builder<Canonical> canonicalSources = ImmutableList.builder();
+            for (PlanNode source : sources) {
+                Optional<Canonical> canonicalSource = canonicalize(source);
+                if (canonicalSource.isEmpty()) {
+                    return Optional.empty();
+                }
+                canonicalSources.add(canonicalSource.get());
+            }
+            return Optional.of(unionOf(canonicalSources.build()));
+        }
+
+        private static Canonical unionOf(List<Canonical> sources)
+        {
+            if (sources.size() == 1) {
+                return sources.get(0);
+            }
+            // the output symbols of a union are not the symbols of its sources
+            return new Canonical(
+                    format("Union(%s)", sources.stream()
+                            .map(Canonical::getPlan)
+                            .sorted()
+                            .collect(joining(", "))),
+                    ImmutableMap.of(),
+                    sources.stream()
+                            .flatMap(source -> source.getDynamicFilters().stream())
+                            .collect(toImmutableSet()),
+                    sources.stream().anyMatch(Canonical::isPartial));
+        }
+
+        private static Canonical mapOutputs(Canonical source, List<Symbol> outputs, List<Symbol> inputs)
+        {
+            Map<Symbol, Expression> definitions = new HashMap<>();
+            for (int i = 0; i < outputs.size(); i++) {
+                Expression definition = source.inline(inputs.get(i).toSymbolReference());
+                if (!definition.equals(outputs.get(i).toSymbolReference())) {
+                    definitions.put(outputs.get(i), definition);
+                }
+            }
+            return source.withDefinitions(definitions);
+        }
+
+        private static List<String> inlineSorted(Canonical source, List<Symbol> symbols)
+        {
+            return symbols.stream()
+                    .map(source::inline)
+                    .sorted()
+                    .collect(toImmutableList());
+        }
+
+        private static String formatOrdering(Canonical source, OrderingScheme orderingScheme)
+        {
+            return orderingScheme.getOrderBy().stream()
+                    .map(symbol -> source.inline(symbol) + " " + orderingScheme.getOrdering(symbol))
+                    .collect(joining(", ", "[", "]"));
+        }
+
+        private String formatConstraint(TupleDomain<ColumnHandle> constraint)
+        {
+            if (constraint.isNone()) {
+                return "NONE";
+            }
+            return constraint.getDomains().orElseThrow().entrySet().stream()
+                    .map(entry -> formatDomain(entry.getKey(), entry.getValue()))
+                    .sorted()
+                    .collect(joining(", ", "{", "}"));
+        }
+
+        private String formatDomain(ColumnHandle column, Domain domain)
+        {
+            return column + " = " + domain.toString(connectorSession);
+        }
+    }
+}
@@ -51,6 +51,10 @@ public class DynamicFilterConfig
     private DataSize largePartitionedMaxSizePerDriver = DataSize.of(50, KILOBYTE);
     private int largePartitionedRangeRowLimitPerDriver = 1_000;
 
+    private boolean enableBloomFilters;
+    private DataSize bloomFilterSizePerDriver = DataSize.of(256, KILOBYTE);
+    private boolean enableTopNDynamicFilters;
+
     public boolean isEnableDynamicFiltering()
     {
         return enableDynamicFiltering;
@@ -244,4 +248,41 @@ public class DynamicFilterConfig
         this.largePartitionedRangeRowLimitPerDriver = largePartitionedRangeRowLimitPerDriver;
         return this;
     }
+
+    public boolean isEnableBloomFilters()
+    {
+        return enableBloomFilters;
+    }
+
+    @Config("dynamic-filtering.bloom-filters.enabled")
+    public DynamicFilterConfig setEnableBloomFilters(boolean enableBloomFilters)
+    {
+        this.enableBloomFilters = enableBloomFilters;
+        return this;
+    }
+
+    @MaxDataSize("16MB")
+    public DataSize getBloomFilterSizePerDriver()
+    {
+        return bloomFilterSizePerDriver;
+    }
+
+    @Config("dynamic-filtering.bloom-filters.size-per-driver")
+    public DynamicFilterConfig setBloomFilterSizePerDriver(DataSize bloomFilterSizePerDriver)
+    {
+        this.bloomFilterSizePerDriver = bloomFilterSizePerDriver;
+        return this;
+    }
+
+    public boolean isEnableTopNDynamicFilters()
+    {
+        return enableTopNDynamicFilters;
+    }
+
+    @Config("dynamic-filtering.top-n.enabled")
+    public DynamicFilterConfig setEnableTopNDynamicFilters(boolean enableTopNDynamicFilters)
+    {
+        this.enableTopNDynamicFilters = enableTopNDynamicFilters;
+        return this;
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution;
+
+import javax.annotation.concurrent.Immutable;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The number of partitioned splits, and the sum of their weights.
+ */
+@Immutable
+public final class PartitionedSplitsInfo
+{
+    private static final PartitionedSplitsInfo NO_SPLITS_INFO = new PartitionedSplitsInfo(0, 0);
+
+    private final int splitCount;
+    private final long weightSum;
+
+    private PartitionedSplitsInfo(int splitCount, long weightSum)
+    {
+        checkArgument(splitCount >= 0, "splitCount is negative");
+        checkArgument(weightSum >= 0, "weightSum is negative");
+        this.splitCount = splitCount;
+        this.weightSum = weightSum;
+    }
+
+    public int getCount()
+    {
+        return splitCount;
+    }
+
+    public long getWeightSum()
+    {
+        return weightSum;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PartitionedSplitsInfo that = (PartitionedSplitsInfo) o;
+        return splitCount == that.splitCount && weightSum == that.weightSum;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(splitCount, weightSum);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("splitCount", splitCount)
+                .add("weightSum", weightSum)
+                .toString();
+    }
+
+    public static PartitionedSplitsInfo forSplitCountAndWeightSum(int splitCount, long weightSum)
+    {
+        // Avoid allocating for the "no splits" case, also mask potential race condition between
+        // the count and weight updates that might yield a positive weight with a count of 0
+        return splitCount == 0 ? NO_SPLITS_INFO : new PartitionedSplitsInfo(splitCount, weightSum);
+    }
+
+    public static PartitionedSplitsInfo forZeroSplits()
+    {
+        return NO_SPLITS_INFO;
+    }
+}
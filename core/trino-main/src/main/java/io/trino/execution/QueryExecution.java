@@ -21,6 +21,8 @@ import io.airlift.units.Duration;
 import io.trino.execution.QueryPreparer.PreparedQuery;
 import io.trino.execution.QueryTracker.TrackedQuery;
 import io.trino.execution.StateMachine.StateChangeListener;
+import io.trino.execution.resultcache.CachedQueryResult;
+import io.trino.execution.resultcache.QueryResultCacheKey;
 import io.trino.execution.warnings.WarningCollector;
 import io.trino.memory.VersionedMemoryPoolId;
 import io.trino.server.BasicQueryInfo;
@@ -30,6 +32,7 @@ import io.trino.sql.planner.Plan;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -98,13 +101,23 @@ public interface QueryExecution
         private final List<Type> columnTypes;
         private final Set<URI> bufferLocations;
         private final boolean noMoreBufferLocations;
-
-        public QueryOutputInfo(List<String> columnNames, List<Type> columnTypes, Set<URI> bufferLocations, boolean noMoreBufferLocations)
+        private final Optional<QueryResultCacheKey> resultCacheKey;
+        private final Optional<CachedQueryResult> cachedResult;
+
+        public QueryOutputInfo(
+                List<String> columnNames,
+                List<Type> columnTypes,
+                Set<URI> bufferLocations,
+                boolean noMoreBufferLocations,
+                Optional<QueryResultCacheKey> resultCacheKey,
+                Optional<CachedQueryResult> cachedResult)
         {
             this.columnNames = ImmutableList.copyOf(requireNonNull(columnNames, "columnNames is null"));
             this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
             this.bufferLocations = ImmutableSet.copyOf(requireNonNull(bufferLocations, "bufferLocations is null"));
             this.noMoreBufferLocations = noMoreBufferLocations;
+            this.resultCacheKey = requireNonNull(resultCacheKey, "resultCacheKey is null");
+            this.cachedResult = requireNonNull(cachedResult, "cachedResult is null");
         }
 
         public List<String> getColumnNames()
@@ -126,5 +139,21 @@ public interface QueryExecution
         {
             return noMoreBufferLocations;
         }
+
+        /**
+         * Key under which the results of the query are cached, once they are consumed by the client.
+         */
+        public Optional<QueryResultCacheKey> getResultCacheKey()
+        {
+            return resultCacheKey;
+        }
+
+        /**
+         * Results of the query served from the cache, instead of from the buffers of the output stage.
+         */
+        public Optional<CachedQueryResult> getCachedResult()
+        {
+            return cachedResult;
+        }
     }
 }
@@ -28,6 +28,8 @@ import javax.validation.constraints.NotNull;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
 @DefunctConfig({
         "query.max-pending-splits-per-node",
         "query.queue-config-file",
@@ -57,6 +59,7 @@ public class QueryManagerConfig
 
     private Duration remoteTaskMaxErrorDuration = new Duration(5, TimeUnit.MINUTES);
     private int remoteTaskMaxCallbackThreads = 1000;
+    private boolean remoteTaskSmileEncodingEnabled;
 
     private String queryExecutionPolicy = "all-at-once";
     private Duration queryMaxRunTime = new Duration(100, TimeUnit.DAYS);
@@ -67,6 +70,13 @@ public class QueryManagerConfig
     private int requiredWorkers = 1;
     private Duration requiredWorkersMaxWait = new Duration(5, TimeUnit.MINUTES);
 
+    private boolean resultCacheEnabled;
+    private DataSize resultCacheMaxSize = DataSize.of(256, MEGABYTE);
+    private DataSize resultCacheMaxEntrySize = DataSize.of(16, MEGABYTE);
+
+    private boolean planCacheEnabled;
+    private int planCacheMaxEntries = 1000;
+
     @Min(1)
     public int getScheduleSplitBatchSize()
     {
@@ -324,6 +334,19 @@ public class QueryManagerConfig
         return this;
     }
 
+    public boolean isRemoteTaskSmileEncodingEnabled()
+    {
+        return remoteTaskSmileEncodingEnabled;
+    }
+
+    @Config("query.remote-task.smile-encoding-enabled")
+    @ConfigDescription("Encode the task updates sent to the workers, and the task status and information received from them, in the binary SMILE format rather than JSON")
+    public QueryManagerConfig setRemoteTaskSmileEncodingEnabled(boolean remoteTaskSmileEncodingEnabled)
+    {
+        this.remoteTaskSmileEncodingEnabled = remoteTaskSmileEncodingEnabled;
+        return this;
+    }
+
     @NotNull
     public String getQueryExecutionPolicy()
     {
@@ -364,4 +387,72 @@ public class QueryManagerConfig
         this.requiredWorkersMaxWait = requiredWorkersMaxWait;
         return this;
     }
+
+    public boolean isResultCacheEnabled()
+    {
+        return resultCacheEnabled;
+    }
+
+    @Config("query.result-cache.enabled")
+    @ConfigDescription("Cache the results of queries on the coordinator")
+    public QueryManagerConfig setResultCacheEnabled(boolean resultCacheEnabled)
+    {
+        this.resultCacheEnabled = resultCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getResultCacheMaxSize()
+    {
+        return resultCacheMaxSize;
+    }
+
+    @Config("query.result-cache.max-size")
+    @ConfigDescription("Maximum size of the cached query results")
+    public QueryManagerConfig setResultCacheMaxSize(DataSize resultCacheMaxSize)
+    {
+        this.resultCacheMaxSize = resultCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getResultCacheMaxEntrySize()
+    {
+        return resultCacheMaxEntrySize;
+    }
+
+    @Config("query.result-cache.max-entry-size")
+    @ConfigDescription("Maximum size of the results of a single query to cache")
+    public QueryManagerConfig setResultCacheMaxEntrySize(DataSize resultCacheMaxEntrySize)
+    {
+        this.resultCacheMaxEntrySize = resultCacheMaxEntrySize;
+        return this;
+    }
+
+    public boolean isPlanCacheEnabled()
+    {
+        return planCacheEnabled;
+    }
+
+    @Config("query.plan-cache.enabled")
+    @ConfigDescription("Cache the optimized plans of queries on the coordinator")
+    public QueryManagerConfig setPlanCacheEnabled(boolean planCacheEnabled)
+    {
+        this.planCacheEnabled = planCacheEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getPlanCacheMaxEntries()
+    {
+        return planCacheMaxEntries;
+    }
+
+    @Config("query.plan-cache.max-entries")
+    @ConfigDescription("Maximum number of cached query plans")
+    public QueryManagerConfig setPlanCacheMaxEntries(int planCacheMaxEntries)
+    {
+        this.planCacheMaxEntries = planCacheMaxEntries;
+        return this;
+    }
 }
@@ -27,6 +27,8 @@ import io.airlift.units.Duration;
 import io.trino.Session;
 import io.trino.execution.QueryExecution.QueryOutputInfo;
 import io.trino.execution.StateMachine.StateChangeListener;
+import io.trino.execution.resultcache.CachedQueryResult;
+import io.trino.execution.resultcache.QueryResultCacheKey;
 import io.trino.execution.warnings.WarningCollector;
 import io.trino.memory.VersionedMemoryPoolId;
 import io.trino.metadata.Metadata;
@@ -129,6 +131,7 @@ public class QueryStateMachine
     private final AtomicLong peakTaskTotalMemory = new AtomicLong();
 
     private final QueryStateTimer queryStateTimer;
+    private final AtomicReference<Duration> planningTimeSaved = new AtomicReference<>(new Duration(0, MILLISECONDS));
 
     private final StateMachine<QueryState> queryState;
     private final AtomicBoolean queryCleanedUp = new AtomicBoolean();
@@ -572,6 +575,7 @@ public class QueryStateMachine
                 queryStateTimer.getExecutionTime(),
                 queryStateTimer.getAnalysisTime(),
                 queryStateTimer.getPlanningTime(),
+                planningTimeSaved.get(),
                 queryStateTimer.getFinishingTime(),
 
                 totalTasks,
@@ -650,6 +654,21 @@ public class QueryStateMachine
         outputManager.updateOutputLocations(newExchangeLocations, noMoreExchangeLocations);
     }
 
+    public void setResultCacheKey(QueryResultCacheKey resultCacheKey)
+    {
+        outputManager.setResultCacheKey(resultCacheKey);
+    }
+
+    public void setCachedResult(CachedQueryResult cachedResult)
+    {
+        outputManager.setCachedResult(cachedResult);
+    }
+
+    public void setPlanningTimeSaved(Duration planningTimeSaved)
+    {
+        this.planningTimeSaved.set(requireNonNull(planningTimeSaved, "planningTimeSaved is null"));
+    }
+
     public void setInputs(List<Input> inputs)
     {
         requireNonNull(inputs, "inputs is null");
@@ -1120,6 +1139,7 @@ public class QueryStateMachine
                 queryStats.getExecutionTime(),
                 queryStats.getAnalysisTime(),
                 queryStats.getPlanningTime(),
+                queryStats.getPlanningTimeSaved(),
                 queryStats.getFinishingTime(),
                 queryStats.getTotalTasks(),
                 queryStats.getRunningTasks(),
@@ -1178,6 +1198,10 @@ public class QueryStateMachine
         private final Set<URI> exchangeLocations = new LinkedHashSet<>();
         @GuardedBy("this")
         private boolean noMoreExchangeLocations;
+        @GuardedBy("this")
+        private Optional<QueryResultCacheKey> resultCacheKey = Optional.empty();
+        @GuardedBy("this")
+        private Optional<CachedQueryResult> cachedResult = Optional.empty();
 
         public QueryOutputManager(Executor executor)
         {
@@ -1215,6 +1239,20 @@ public class QueryStateMachine
             queryOutputInfo.ifPresent(info -> fireStateChanged(info, outputInfoListeners));
         }
 
+        public synchronized void setResultCacheKey(QueryResultCacheKey resultCacheKey)
+        {
+            requireNonNull(resultCacheKey, "resultCacheKey is null");
+            checkState(columnNames == null, "result cache key must be set before output fields");
+            this.resultCacheKey = Optional.of(resultCacheKey);
+        }
+
+        public synchronized void setCachedResult(CachedQueryResult cachedResult)
+        {
+            requireNonNull(cachedResult, "cachedResult is null");
+            checkState(columnNames == null, "cached result must be set before output fields");
+            this.cachedResult = Optional.of(cachedResult);
+        }
+
         public void updateOutputLocations(Set<URI> newExchangeLocations, boolean noMoreExchangeLocations)
         {
             requireNonNull(newExchangeLocations, "newExchangeLocations is null");
@@ -1240,7 +1278,7 @@ public class QueryStateMachine
             if (columnNames == null || columnTypes == null) {
                 return Optional.empty();
             }
-            return Optional.of(new QueryOutputInfo(columnNames, columnTypes, exchangeLocations, noMoreExchangeLocations));
+            return Optional.of(new QueryOutputInfo(columnNames, columnTypes, exchangeLocations, noMoreExchangeLocations, resultCacheKey, cachedResult));
         }
 
         private void fireStateChanged(QueryOutputInfo queryOutputInfo, List<Consumer<QueryOutputInfo>> outputInfoListeners)
@@ -52,6 +52,7 @@ public class QueryStats
     private final Duration executionTime;
     private final Duration analysisTime;
     private final Duration planningTime;
+    private final Duration planningTimeSaved;
     private final Duration finishingTime;
 
     private final int totalTasks;
@@ -121,6 +122,7 @@ public class QueryStats
             @JsonProperty("executionTime") Duration executionTime,
             @JsonProperty("analysisTime") Duration analysisTime,
             @JsonProperty("planningTime") Duration planningTime,
+            @JsonProperty("planningTimeSaved") Duration planningTimeSaved,
             @JsonProperty("finishingTime") Duration finishingTime,
 
             @JsonProperty("totalTasks") int totalTasks,
@@ -188,6 +190,7 @@ public class QueryStats
         this.executionTime = requireNonNull(executionTime, "executionTime is null");
         this.analysisTime = requireNonNull(analysisTime, "analysisTime is null");
         this.planningTime = requireNonNull(planningTime, "planningTime is null");
+        this.planningTimeSaved = requireNonNull(planningTimeSaved, "planningTimeSaved is null");
         this.finishingTime = requireNonNull(finishingTime, "finishingTime is null");
 
         checkArgument(totalTasks >= 0, "totalTasks is negative");
@@ -323,6 +326,15 @@ public class QueryStats
         return planningTime;
     }
 
+    /**
+     * Time the planning of the query would have taken, if its plan had not been served from the plan cache.
+     */
+    @JsonProperty
+    public Duration getPlanningTimeSaved()
+    {
+        return planningTimeSaved;
+    }
+
     @JsonProperty
     public Duration getFinishingTime()
     {
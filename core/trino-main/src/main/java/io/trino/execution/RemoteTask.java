@@ -55,15 +55,19 @@ public interface RemoteTask
      */
     void addFinalTaskInfoListener(StateChangeListener<TaskInfo> stateChangeListener);
 
-    ListenableFuture<?> whenSplitQueueHasSpace(int threshold);
+    /**
+     * Returns a future, which completes when the sum of the weights of the partitioned splits queued
+     * in the task is below the given threshold.
+     */
+    ListenableFuture<?> whenSplitQueueHasSpace(long weightThreshold);
 
     void cancel();
 
     void abort();
 
-    int getPartitionedSplitCount();
+    PartitionedSplitsInfo getPartitionedSplitsInfo();
 
-    int getQueuedPartitionedSplitCount();
+    PartitionedSplitsInfo getQueuedPartitionedSplitsInfo();
 
     int getUnacknowledgedPartitionedSplitCount();
 }
@@ -0,0 +1,181 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import io.airlift.stats.CounterStat;
+import io.airlift.units.DataSize;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Pages kept in memory by key. The entries are bounded by their retained size, and the least
+ * recently used entries are evicted first.
+ */
+@ThreadSafe
+public abstract class SizeBoundedPageCache<K, P>
+{
+    private final long maxEntrySizeInBytes;
+    private final ToLongFunction<K> keyRetainedSize;
+    private final ToLongFunction<P> pageRetainedSize;
+    private final Cache<K, Entry<P>> cache;
+    private final AtomicLong sizeInBytes = new AtomicLong();
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat puts = new CounterStat();
+    private final CounterStat evictions = new CounterStat();
+
+    protected SizeBoundedPageCache(DataSize maxSize, DataSize maxEntrySize, ToLongFunction<K> keyRetainedSize, ToLongFunction<P> pageRetainedSize)
+    {
+        requireNonNull(maxSize, "maxSize is null");
+        requireNonNull(maxEntrySize, "maxEntrySize is null");
+        checkArgument(maxEntrySize.compareTo(maxSize) <= 0, "maxEntrySize must not be greater than maxSize");
+        this.maxEntrySizeInBytes = maxEntrySize.toBytes();
+        this.keyRetainedSize = requireNonNull(keyRetainedSize, "keyRetainedSize is null");
+        this.pageRetainedSize = requireNonNull(pageRetainedSize, "pageRetainedSize is null");
+        // a single segment, so that the least recently used entries of the whole cache are evicted
+        this.cache = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(maxSize.toBytes())
+                .<K, Entry<P>>weigher((key, entry) -> Ints.saturatedCast(entry.getRetainedSizeInBytes()))
+                .removalListener(this::entryRemoved)
+                .build();
+    }
+
+    protected Optional<List<P>> getPages(K key)
+    {
+        Entry<P> entry = cache.getIfPresent(key);
+        if (entry == null) {
+            misses.update(1);
+            return Optional.empty();
+        }
+        hits.update(1);
+        return Optional.of(entry.getPages());
+    }
+
+    public void put(K key, List<P> pages)
+    {
+        List<P> entryPages = ImmutableList.copyOf(requireNonNull(pages, "pages is null"));
+        long retainedSizeInBytes = Entry.INSTANCE_SIZE +
+                keyRetainedSize.applyAsLong(key) +
+                entryPages.stream().mapToLong(pageRetainedSize).sum();
+        if (!isCacheable(retainedSizeInBytes)) {
+            return;
+        }
+        sizeInBytes.addAndGet(retainedSizeInBytes);
+        cache.put(key, new Entry<>(entryPages, retainedSizeInBytes));
+        puts.update(1);
+    }
+
+    /**
+     * Returns true if pages of the specified size can be cached.
+     */
+    public boolean isCacheable(long retainedSizeInBytes)
+    {
+        return retainedSizeInBytes <= maxEntrySizeInBytes;
+    }
+
+    private void entryRemoved(RemovalNotification<K, Entry<P>> notification)
+    {
+        sizeInBytes.addAndGet(-notification.getValue().getRetainedSizeInBytes());
+        if (notification.wasEvicted()) {
+            evictions.update(1);
+        }
+    }
+
+    @Managed
+    public void invalidateAll()
+    {
+        cache.invalidateAll();
+    }
+
+    @Managed
+    public long getEntryCount()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public long getSizeInBytes()
+    {
+        return sizeInBytes.get();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getPuts()
+    {
+        return puts;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getEvictions()
+    {
+        return evictions;
+    }
+
+    private static class Entry<P>
+    {
+        private static final int INSTANCE_SIZE = 64;
+
+        private final List<P> pages;
+        private final long retainedSizeInBytes;
+
+        public Entry(List<P> pages, long retainedSizeInBytes)
+        {
+            this.pages = requireNonNull(pages, "pages is null");
+            this.retainedSizeInBytes = retainedSizeInBytes;
+        }
+
+        public List<P> getPages()
+        {
+            return pages;
+        }
+
+        public long getRetainedSizeInBytes()
+        {
+            return retainedSizeInBytes;
+        }
+    }
+}
@@ -13,6 +13,9 @@
  */
 package io.trino.execution;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
 import io.airlift.log.Logger;
@@ -22,11 +25,21 @@ import io.trino.Session;
 import io.trino.SystemSessionProperties;
 import io.trino.connector.CatalogName;
 import io.trino.cost.CostCalculator;
+import io.trino.cost.PlanNodeStatsEstimate;
 import io.trino.cost.StatsCalculator;
+import io.trino.cost.history.HistoryBasedStatisticsRecorder;
+import io.trino.cost.history.PlanCanonicalizer;
 import io.trino.execution.QueryPreparer.PreparedQuery;
 import io.trino.execution.StateMachine.StateChangeListener;
 import io.trino.execution.buffer.OutputBuffers;
 import io.trino.execution.buffer.OutputBuffers.OutputBufferId;
+import io.trino.execution.plancache.CachedPlan;
+import io.trino.execution.plancache.PlanCache;
+import io.trino.execution.plancache.PlanCacheKey;
+import io.trino.execution.resultcache.CachedQueryResult;
+import io.trino.execution.resultcache.QueryResultCache;
+import io.trino.execution.resultcache.QueryResultCacheKey;
+import io.trino.execution.scheduler.AdaptiveJoinDistribution;
 import io.trino.execution.scheduler.ExecutionPolicy;
 import io.trino.execution.scheduler.NodeScheduler;
 import io.trino.execution.scheduler.SplitSchedulerStats;
@@ -43,6 +56,9 @@ import io.trino.server.DynamicFilterService;
 import io.trino.server.protocol.Slug;
 import io.trino.spi.QueryId;
 import io.trino.spi.TrinoException;
+import io.trino.spi.TrinoWarning;
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.predicate.TupleDomain;
 import io.trino.spi.security.GroupProvider;
 import io.trino.spi.type.TypeOperators;
 import io.trino.split.SplitManager;
@@ -57,14 +73,28 @@ import io.trino.sql.planner.LogicalPlanner;
 import io.trino.sql.planner.NodePartitioningManager;
 import io.trino.sql.planner.PartitioningHandle;
 import io.trino.sql.planner.Plan;
+import io.trino.sql.planner.PlanFragment;
 import io.trino.sql.planner.PlanFragmenter;
 import io.trino.sql.planner.PlanNodeIdAllocator;
 import io.trino.sql.planner.PlanOptimizers;
 import io.trino.sql.planner.StageExecutionPlan;
 import io.trino.sql.planner.SubPlan;
+import io.trino.sql.planner.Symbol;
 import io.trino.sql.planner.TypeAnalyzer;
+import io.trino.sql.planner.TypeProvider;
 import io.trino.sql.planner.optimizations.PlanOptimizer;
+import io.trino.sql.planner.plan.DynamicFilterId;
+import io.trino.sql.planner.plan.ExchangeNode;
+import io.trino.sql.planner.plan.JoinNode;
+import io.trino.sql.planner.plan.OutputNode;
+import io.trino.sql.planner.plan.PlanFragmentId;
+import io.trino.sql.planner.plan.PlanNode;
+import io.trino.sql.planner.plan.PlanNodeId;
+import io.trino.sql.planner.plan.ProjectNode;
+import io.trino.sql.planner.plan.RemoteSourceNode;
+import io.trino.sql.planner.plan.SemiJoinNode;
 import io.trino.sql.tree.Explain;
+import io.trino.sql.tree.Expression;
 import io.trino.sql.tree.Query;
 import io.trino.sql.tree.Statement;
 import org.joda.time.DateTime;
@@ -73,25 +103,52 @@ import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.units.DataSize.succinctBytes;
+import static io.airlift.units.Duration.nanosSince;
+import static io.trino.SystemSessionProperties.JOIN_MAX_BROADCAST_TABLE_SIZE;
+import static io.trino.SystemSessionProperties.getJoinDistributionType;
+import static io.trino.SystemSessionProperties.getJoinMaxBroadcastTableSize;
+import static io.trino.SystemSessionProperties.isAdaptiveJoinDistributionEnabled;
+import static io.trino.SystemSessionProperties.isCollectPlanStatisticsForAllQueries;
 import static io.trino.SystemSessionProperties.isEnableDynamicFiltering;
+import static io.trino.SystemSessionProperties.isPlanCacheEnabled;
+import static io.trino.SystemSessionProperties.isResultCacheEnabled;
+import static io.trino.SystemSessionProperties.isUseHistoryBasedStatistics;
 import static io.trino.execution.buffer.OutputBuffers.BROADCAST_PARTITION_ID;
 import static io.trino.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
+import static io.trino.execution.plancache.CachedPlan.createCachedPlan;
+import static io.trino.execution.plancache.ParameterBinder.bindParameters;
+import static io.trino.execution.plancache.ParameterBinder.createPlaceholders;
+import static io.trino.execution.plancache.ParameterBinder.evaluateParameters;
+import static io.trino.execution.plancache.ParameterBinder.getTableFilterParameters;
+import static io.trino.execution.plancache.ParameterBinder.hasSameTableScans;
 import static io.trino.execution.scheduler.SqlQueryScheduler.createSqlQueryScheduler;
 import static io.trino.server.DynamicFilterService.DynamicFiltersStats;
 import static io.trino.spi.StandardErrorCode.NOT_SUPPORTED;
+import static io.trino.spi.connector.StandardWarningCode.ADAPTIVE_PLAN_CHANGE;
 import static io.trino.sql.ParameterUtils.parameterExtractor;
+import static io.trino.sql.analyzer.FeaturesConfig.JoinDistributionType.AUTOMATIC;
+import static io.trino.sql.planner.LogicalPlanner.Stage.OPTIMIZED_AND_VALIDATED;
+import static io.trino.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static io.trino.sql.planner.plan.ExchangeNode.Type.REPLICATE;
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -128,6 +185,15 @@ public class SqlQueryExecution
     private final StatsCalculator statsCalculator;
     private final CostCalculator costCalculator;
     private final DynamicFilterService dynamicFilterService;
+    private final QueryResultCache resultCache;
+    private final PlanCache planCache;
+    private final Optional<PlanCacheKey> planCacheKey;
+    private final List<Expression> parameters;
+    // the values of the parameters, which are planned as placeholders, by their positions
+    private final Map<Integer, Expression> parameterValues;
+    private final HistoryBasedStatisticsRecorder historyBasedStatisticsRecorder;
+    // the predicates of the tables are resolved while the transaction is active, and used when the query completes
+    private final Map<PlanNodeId, TupleDomain<ColumnHandle>> tablePredicates = new ConcurrentHashMap<>();
 
     private SqlQueryExecution(
             PreparedQuery preparedQuery,
@@ -155,6 +221,9 @@ public class SqlQueryExecution
             StatsCalculator statsCalculator,
             CostCalculator costCalculator,
             DynamicFilterService dynamicFilterService,
+            QueryResultCache resultCache,
+            PlanCache planCache,
+            HistoryBasedStatisticsRecorder historyBasedStatisticsRecorder,
             WarningCollector warningCollector)
     {
         try (SetThreadName ignored = new SetThreadName("Query-%s", stateMachine.getQueryId())) {
@@ -176,6 +245,9 @@ public class SqlQueryExecution
             this.statsCalculator = requireNonNull(statsCalculator, "statsCalculator is null");
             this.costCalculator = requireNonNull(costCalculator, "costCalculator is null");
             this.dynamicFilterService = requireNonNull(dynamicFilterService, "dynamicFilterService is null");
+            this.resultCache = requireNonNull(resultCache, "resultCache is null");
+            this.planCache = requireNonNull(planCache, "planCache is null");
+            this.historyBasedStatisticsRecorder = requireNonNull(historyBasedStatisticsRecorder, "historyBasedStatisticsRecorder is null");
 
             checkArgument(scheduleSplitBatchSize > 0, "scheduleSplitBatchSize must be greater than 0");
             this.scheduleSplitBatchSize = scheduleSplitBatchSize;
@@ -185,6 +257,22 @@ public class SqlQueryExecution
             // analyze query
             this.analysis = analyze(preparedQuery, stateMachine, metadata, groupProvider, accessControl, sqlParser, queryExplainer, warningCollector);
 
+            if (isPlanCacheEnabled(stateMachine.getSession())) {
+                this.planCacheKey = PlanCacheKey.createKey(preparedQuery, analysis, stateMachine.getSession(), metadata);
+            }
+            else {
+                this.planCacheKey = Optional.empty();
+            }
+            this.parameters = preparedQuery.getParameters();
+            if (planCacheKey.isPresent()) {
+                // the plan does not depend on the values of the parameters, so that it can be reused with other values
+                analysis.setParameterPlaceholders(createPlaceholders(analysis, metadata, ImmutableSet.of()));
+                this.parameterValues = evaluateParameters(analysis, stateMachine.getSession(), metadata, accessControl);
+            }
+            else {
+                this.parameterValues = ImmutableMap.of();
+            }
+
             stateMachine.addStateChangeListener(state -> {
                 if (!state.isDone()) {
                     return;
@@ -193,6 +281,10 @@ public class SqlQueryExecution
                         dynamicFilterService.getDynamicFilteringStats(stateMachine.getQueryId(), stateMachine.getSession()));
             });
 
+            if (isUseHistoryBasedStatistics(stateMachine.getSession())) {
+                stateMachine.addQueryInfoStateChangeListener(finalQueryInfo -> historyBasedStatisticsRecorder.record(finalQueryInfo, tablePredicates, stateMachine.getSession()));
+            }
+
             // when the query finishes cache the final query info, and clear the reference to the output stage
             AtomicReference<SqlQueryScheduler> queryScheduler = this.queryScheduler;
             stateMachine.addStateChangeListener(state -> {
@@ -380,10 +472,21 @@ public class SqlQueryExecution
                 }
 
                 PlanRoot plan = planQuery();
+
+                if (plan.getResultCacheKey().isPresent()) {
+                    QueryResultCacheKey resultCacheKey = plan.getResultCacheKey().get();
+                    Optional<CachedQueryResult> cachedResult = resultCache.get(resultCacheKey);
+                    if (cachedResult.isPresent()) {
+                        startWithCachedResult(plan, cachedResult.get());
+                        return;
+                    }
+                    stateMachine.setResultCacheKey(resultCacheKey);
+                }
+
                 // DynamicFilterService needs plan for query to be registered.
                 // Query should be registered before dynamic filter suppliers are requested in distribution planning.
                 registerDynamicFilteringQuery(plan);
-                planDistribution(plan);
+                planDistribution(plan, 0, createAdaptiveJoinDistribution(plan));
 
                 if (!stateMachine.transitionToStarting()) {
                     // query already started or finished
@@ -404,6 +507,21 @@ public class SqlQueryExecution
         }
     }
 
+    private void startWithCachedResult(PlanRoot plan, CachedQueryResult cachedResult)
+    {
+        // the results are served by the protocol directly, so no stages are scheduled
+        PlanFragment rootFragment = plan.getRoot().getFragment();
+        stateMachine.setCachedResult(cachedResult);
+        stateMachine.setColumns(((OutputNode) rootFragment.getRoot()).getColumnNames(), rootFragment.getTypes());
+
+        if (!stateMachine.transitionToStarting()) {
+            // query already started or finished
+            return;
+        }
+        stateMachine.transitionToRunning();
+        cachedResult.getConsumedFuture().addListener(stateMachine::transitionToFinishing, queryExecutor);
+    }
+
     @Override
     public void addStateChangeListener(StateChangeListener<QueryState> stateChangeListener)
     {
@@ -436,22 +554,49 @@ public class SqlQueryExecution
 
     private PlanRoot doPlanQuery()
     {
-        // plan query
-        PlanNodeIdAllocator idAllocator = new PlanNodeIdAllocator();
-        LogicalPlanner logicalPlanner = new LogicalPlanner(stateMachine.getSession(),
-                planOptimizers,
-                idAllocator,
-                metadata,
-                typeOperators,
-                new TypeAnalyzer(sqlParser, metadata),
-                statsCalculator,
-                costCalculator,
-                stateMachine.getWarningCollector());
-        Plan plan = logicalPlanner.plan(analysis);
+        // reuse the plan of the same query, or plan the query
+        Optional<CachedPlan> cachedPlan = planCacheKey.flatMap(key -> planCache.get(key, parameters));
+        Plan plan;
+        if (cachedPlan.isPresent()) {
+            plan = cachedPlan.get().getPlan(analysis.getTables(), parameterValues);
+            stateMachine.setPlanningTimeSaved(cachedPlan.get().getPlanningTime());
+        }
+        else {
+            long planningStart = System.nanoTime();
+            Optional<Set<Integer>> knownPushedDownParameters = planCacheKey.flatMap(planCache::getPushedDownParameters);
+            knownPushedDownParameters.ifPresent(this::setPushedDownParameters);
+            Plan unboundPlan = createUnboundPlan(stateMachine.getSession(), new PlanNodeIdAllocator());
+            Set<Integer> pushedDownParameters = knownPushedDownParameters.orElse(ImmutableSet.of());
+            if (planCacheKey.isPresent() && knownPushedDownParameters.isEmpty()) {
+                // the filters on the parameters are planned again with their values, and if the connectors accept them,
+                // the plan is cached for these values, so that the point lookups do not lose the pushdown
+                Set<Integer> filterParameters = getTableFilterParameters(unboundPlan.getRoot());
+                if (!filterParameters.isEmpty()) {
+                    setPushedDownParameters(filterParameters);
+                    Plan pushedDownPlan = createUnboundPlan(stateMachine.getSession(), new PlanNodeIdAllocator());
+                    if (hasSameTableScans(unboundPlan.getRoot(), pushedDownPlan.getRoot())) {
+                        setPushedDownParameters(ImmutableSet.of());
+                    }
+                    else {
+                        unboundPlan = pushedDownPlan;
+                        pushedDownParameters = filterParameters;
+                    }
+                }
+            }
+            Duration planningTime = nanosSince(planningStart);
+            if (planCacheKey.isPresent()) {
+                Optional<CachedPlan> newCachedPlan = createCachedPlan(unboundPlan, planningTime, analysis.getTables(), parameters);
+                if (newCachedPlan.isPresent()) {
+                    planCache.put(planCacheKey.get(), pushedDownParameters, parameters, newCachedPlan.get());
+                }
+            }
+            plan = bindParameters(unboundPlan, parameterValues);
+        }
         queryPlan.set(plan);
 
         // fragment the plan
         SubPlan fragmentedPlan = planFragmenter.createSubPlans(stateMachine.getSession(), plan, false, stateMachine.getWarningCollector());
+        collectTablePredicates(fragmentedPlan);
 
         // extract inputs
         List<Input> inputs = new InputExtractor(metadata, stateMachine.getSession()).extractInputs(fragmentedPlan);
@@ -459,11 +604,57 @@ public class SqlQueryExecution
 
         stateMachine.setOutput(analysis.getTarget());
 
+        Optional<QueryResultCacheKey> resultCacheKey = Optional.empty();
+        if (isResultCacheEnabled(stateMachine.getSession()) && analysis.getStatement() instanceof Query && analysis.getUpdateType() == null) {
+            resultCacheKey = QueryResultCacheKey.createKey(plan, stateMachine.getSession(), metadata);
+        }
+
         boolean explainAnalyze = analysis.getStatement() instanceof Explain && ((Explain) analysis.getStatement()).isAnalyze();
-        return new PlanRoot(fragmentedPlan, !explainAnalyze);
+        return new PlanRoot(fragmentedPlan, !explainAnalyze, resultCacheKey);
+    }
+
+    private void collectTablePredicates(SubPlan fragmentedPlan)
+    {
+        if (isUseHistoryBasedStatistics(stateMachine.getSession())) {
+            tablePredicates.putAll(PlanCanonicalizer.getTablePredicates(fragmentedPlan, metadata, stateMachine.getSession()));
+        }
+    }
+
+    /**
+     * Plans the parameters at the positions as values, so the filters on them can be pushed down into the connectors.
+     */
+    private void setPushedDownParameters(Set<Integer> positions)
+    {
+        analysis.setParameterPlaceholders(createPlaceholders(analysis, metadata, positions));
+    }
+
+    private Plan createPlan(Session session, PlanNodeIdAllocator idAllocator)
+    {
+        return bindParameters(createUnboundPlan(session, idAllocator), parameterValues);
+    }
+
+    /**
+     * Plans the query with the parameters as placeholders, if the plan may be reused.
+     */
+    private Plan createUnboundPlan(Session session, PlanNodeIdAllocator idAllocator)
+    {
+        LogicalPlanner logicalPlanner = new LogicalPlanner(session,
+                planOptimizers,
+                idAllocator,
+                metadata,
+                typeOperators,
+                new TypeAnalyzer(sqlParser, metadata),
+                statsCalculator,
+                costCalculator,
+                stateMachine.getWarningCollector());
+        // the estimates of the build sides of the broadcast joins are compared with their actual sizes
+        boolean collectPlanStatistics = analysis.getStatement() instanceof Explain ||
+                isCollectPlanStatisticsForAllQueries(session) ||
+                isAdaptiveJoinDistributionEnabled(session);
+        return logicalPlanner.plan(analysis, OPTIMIZED_AND_VALIDATED, collectPlanStatistics);
     }
 
-    private void planDistribution(PlanRoot plan)
+    private void planDistribution(PlanRoot plan, int firstStageId, AdaptiveJoinDistribution adaptiveJoinDistribution)
     {
         // plan the execution on the active nodes
         DistributedExecutionPlanner distributedPlanner = new DistributedExecutionPlanner(splitManager, metadata, dynamicFilterService);
@@ -481,8 +672,10 @@ public class SqlQueryExecution
             return;
         }
 
-        // record output field
-        stateMachine.setColumns(outputStageExecutionPlan.getFieldNames(), outputStageExecutionPlan.getFragment().getTypes());
+        // record output field, unless the query is planned again, and the fields are already recorded
+        if (firstStageId == 0) {
+            stateMachine.setColumns(outputStageExecutionPlan.getFieldNames(), outputStageExecutionPlan.getFragment().getTypes());
+        }
 
         PartitioningHandle partitioningHandle = plan.getRoot().getFragment().getPartitioningScheme().getPartitioning().getHandle();
         OutputBuffers rootOutputBuffers = createInitialEmptyOutputBuffers(partitioningHandle)
@@ -506,7 +699,9 @@ public class SqlQueryExecution
                 nodeTaskMap,
                 executionPolicy,
                 schedulerStats,
-                dynamicFilterService);
+                dynamicFilterService,
+                firstStageId,
+                adaptiveJoinDistribution);
 
         queryScheduler.set(scheduler);
 
@@ -518,6 +713,141 @@ public class SqlQueryExecution
         }
     }
 
+    private AdaptiveJoinDistribution createAdaptiveJoinDistribution(PlanRoot plan)
+    {
+        Session session = stateMachine.getSession();
+        if (!isAdaptiveJoinDistributionEnabled(session) || getJoinDistributionType(session) != AUTOMATIC) {
+            return AdaptiveJoinDistribution.disabled();
+        }
+        Map<PlanFragmentId, Double> estimatedBuildSizes = getEstimatedBroadcastBuildSizes(plan.getRoot());
+        if (estimatedBuildSizes.isEmpty()) {
+            return AdaptiveJoinDistribution.disabled();
+        }
+        return new AdaptiveJoinDistribution(
+                estimatedBuildSizes.keySet(),
+                getJoinMaxBroadcastTableSize(session),
+                (buildFragment, outputSize) -> replan(plan, estimatedBuildSizes.get(buildFragment), outputSize));
+    }
+
+    /**
+     * Plans the query again after its stages were aborted, because the build side of a broadcast join
+     * turned out to be larger than the maximum broadcast table size. The maximum broadcast table size is
+     * lowered below the estimated size of the build side, so that the join is distributed differently.
+     * The query is planned again at most once.
+     */
+    private void replan(PlanRoot abortedPlan, double estimatedBuildSize, DataSize buildSize)
+    {
+        try (SetThreadName ignored = new SetThreadName("Query-%s", stateMachine.getQueryId())) {
+            Session session = stateMachine.getSession();
+            long maxBroadcastTableSize = Math.max(0, Math.min(getJoinMaxBroadcastTableSize(session).toBytes(), (long) estimatedBuildSize) - 1);
+            Session replanSession = session.withSystemProperty(JOIN_MAX_BROADCAST_TABLE_SIZE, DataSize.ofBytes(maxBroadcastTableSize).toString());
+
+            // the ids of the dynamic filters of the aborted plan must not be reused, because its tasks may still report them
+            Plan plan = createPlan(replanSession, new PlanNodeIdAllocator(getNextPlanNodeId(queryPlan.get().getRoot())));
+            queryPlan.set(plan);
+            SubPlan fragmentedPlan = planFragmenter.createSubPlans(replanSession, plan, false, stateMachine.getWarningCollector());
+            collectTablePredicates(fragmentedPlan);
+            stateMachine.setInputs(new InputExtractor(metadata, session).extractInputs(fragmentedPlan));
+            PlanRoot planRoot = new PlanRoot(fragmentedPlan, abortedPlan.isSummarizeTaskInfos(), abortedPlan.getResultCacheKey());
+
+            stateMachine.getWarningCollector().add(new TrinoWarning(
+                    ADAPTIVE_PLAN_CHANGE,
+                    format("Query was planned again with %s set to %s, because the build side of a broadcast join produced %s of data, while %s was estimated",
+                            JOIN_MAX_BROADCAST_TABLE_SIZE,
+                            succinctBytes(maxBroadcastTableSize),
+                            buildSize.succinct(),
+                            succinctBytes((long) estimatedBuildSize))));
+
+            dynamicFilterService.removeQuery(stateMachine.getQueryId());
+            registerDynamicFilteringQuery(planRoot);
+            planDistribution(planRoot, abortedPlan.getRoot().getAllFragments().size(), AdaptiveJoinDistribution.disabled());
+
+            SqlQueryScheduler scheduler = queryScheduler.get();
+            if (scheduler != null && !stateMachine.isDone()) {
+                scheduler.start();
+            }
+        }
+    }
+
+    /**
+     * Returns the estimated sizes of the build sides of the broadcast equi-joins and semi-joins, which are distributed
+     * based on the estimates, by the fragments producing them. The sizes are estimated the same way as they are by
+     * the optimizer, so without the precomputed hash symbols. Build sides with unknown estimates are skipped.
+     */
+    private static Map<PlanFragmentId, Double> getEstimatedBroadcastBuildSizes(SubPlan root)
+    {
+        Map<PlanFragmentId, Double> estimatedSizes = new HashMap<>();
+        for (PlanFragment fragment : root.getAllFragments()) {
+            List<PlanNode> joins = searchFrom(fragment.getRoot())
+                    .where(node -> isReplicatedEquiJoin(node) || isReplicatedSemiJoin(node))
+                    .findAll();
+            for (PlanNode join : joins) {
+                PlanNode buildSide;
+                Optional<Symbol> buildHashSymbol;
+                if (join instanceof JoinNode) {
+                    buildSide = ((JoinNode) join).getRight();
+                    buildHashSymbol = ((JoinNode) join).getRightHashSymbol();
+                }
+                else {
+                    buildSide = ((SemiJoinNode) join).getFilteringSource();
+                    buildHashSymbol = ((SemiJoinNode) join).getFilteringSourceHashSymbol();
+                }
+                PlanNodeStatsEstimate stats = fragment.getStatsAndCosts().getStats().get(buildSide.getId());
+                if (stats == null) {
+                    continue;
+                }
+                List<Symbol> buildSymbols = buildSide.getOutputSymbols().stream()
+                        .filter(symbol -> buildHashSymbol.isEmpty() || !symbol.equals(buildHashSymbol.get()))
+                        .collect(toImmutableList());
+                double estimatedSize = stats.getOutputSizeInBytes(buildSymbols, TypeProvider.copyOf(fragment.getSymbols()));
+                if (Double.isNaN(estimatedSize)) {
+                    continue;
+                }
+                searchFrom(buildSide)
+                        .where(node -> node instanceof RemoteSourceNode && ((RemoteSourceNode) node).getExchangeType() == REPLICATE)
+                        .recurseOnlyWhen(node -> node instanceof ExchangeNode || node instanceof ProjectNode)
+                        .<RemoteSourceNode>findAll().stream()
+                        .flatMap(remoteSource -> remoteSource.getSourceFragmentIds().stream())
+                        .forEach(fragmentId -> estimatedSizes.put(fragmentId, estimatedSize));
+            }
+        }
+        return estimatedSizes;
+    }
+
+    private static boolean isReplicatedEquiJoin(PlanNode node)
+    {
+        return node instanceof JoinNode &&
+                ((JoinNode) node).getDistributionType().equals(Optional.of(JoinNode.DistributionType.REPLICATED)) &&
+                !((JoinNode) node).getCriteria().isEmpty();
+    }
+
+    private static boolean isReplicatedSemiJoin(PlanNode node)
+    {
+        return node instanceof SemiJoinNode &&
+                ((SemiJoinNode) node).getDistributionType().equals(Optional.of(SemiJoinNode.DistributionType.REPLICATED));
+    }
+
+    private static int getNextPlanNodeId(PlanNode root)
+    {
+        // the ids of the dynamic filters are allocated together with the ids of the plan nodes
+        return searchFrom(root).findAll().stream()
+                .flatMap(node -> {
+                    Stream<String> ids = Stream.of(node.getId().toString());
+                    if (node instanceof JoinNode) {
+                        ids = Stream.concat(ids, ((JoinNode) node).getDynamicFilters().keySet().stream().map(DynamicFilterId::toString));
+                    }
+                    if (node instanceof SemiJoinNode) {
+                        ids = Stream.concat(ids, ((SemiJoinNode) node).getDynamicFilterId().stream().map(DynamicFilterId::toString));
+                    }
+                    return ids;
+                })
+                .map(id -> Ints.tryParse(id.startsWith("df_") ? id.substring("df_".length()) : id))
+                .filter(Objects::nonNull)
+                .mapToInt(id -> id + 1)
+                .max()
+                .orElse(0);
+    }
+
     private static void closeSplitSources(StageExecutionPlan plan)
     {
         for (SplitSource source : plan.getSplitSources().values()) {
@@ -660,11 +990,13 @@ public class SqlQueryExecution
     {
         private final SubPlan root;
         private final boolean summarizeTaskInfos;
+        private final Optional<QueryResultCacheKey> resultCacheKey;
 
-        public PlanRoot(SubPlan root, boolean summarizeTaskInfos)
+        public PlanRoot(SubPlan root, boolean summarizeTaskInfos, Optional<QueryResultCacheKey> resultCacheKey)
         {
             this.root = requireNonNull(root, "root is null");
             this.summarizeTaskInfos = summarizeTaskInfos;
+            this.resultCacheKey = requireNonNull(resultCacheKey, "resultCacheKey is null");
         }
 
         public SubPlan getRoot()
@@ -676,6 +1008,11 @@ public class SqlQueryExecution
         {
             return summarizeTaskInfos;
         }
+
+        public Optional<QueryResultCacheKey> getResultCacheKey()
+        {
+            return resultCacheKey;
+        }
     }
 
     public static class SqlQueryExecutionFactory
@@ -703,6 +1040,9 @@ public class SqlQueryExecution
         private final StatsCalculator statsCalculator;
         private final CostCalculator costCalculator;
         private final DynamicFilterService dynamicFilterService;
+        private final QueryResultCache resultCache;
+        private final PlanCache planCache;
+        private final HistoryBasedStatisticsRecorder historyBasedStatisticsRecorder;
 
         @Inject
         SqlQueryExecutionFactory(
@@ -727,7 +1067,10 @@ public class SqlQueryExecution
                 SplitSchedulerStats schedulerStats,
                 StatsCalculator statsCalculator,
                 CostCalculator costCalculator,
-                DynamicFilterService dynamicFilterService)
+                DynamicFilterService dynamicFilterService,
+                QueryResultCache resultCache,
+                PlanCache planCache,
+                HistoryBasedStatisticsRecorder historyBasedStatisticsRecorder)
         {
             requireNonNull(config, "config is null");
             this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
@@ -752,6 +1095,9 @@ public class SqlQueryExecution
             this.statsCalculator = requireNonNull(statsCalculator, "statsCalculator is null");
             this.costCalculator = requireNonNull(costCalculator, "costCalculator is null");
             this.dynamicFilterService = requireNonNull(dynamicFilterService, "dynamicFilterService is null");
+            this.resultCache = requireNonNull(resultCache, "resultCache is null");
+            this.planCache = requireNonNull(planCache, "planCache is null");
+            this.historyBasedStatisticsRecorder = requireNonNull(historyBasedStatisticsRecorder, "historyBasedStatisticsRecorder is null");
         }
 
         @Override
@@ -791,6 +1137,9 @@ public class SqlQueryExecution
                     statsCalculator,
                     costCalculator,
                     dynamicFilterService,
+                    resultCache,
+                    planCache,
+                    historyBasedStatisticsRecorder,
                     warningCollector);
         }
     }
@@ -367,7 +367,7 @@ public class SqlTaskManager
     }
 
     @Override
-    public TaskInfo updateTask(Session session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions)
+    public TaskInfo updateTask(Optional<Session> session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions)
     {
         try {
             return embedVersion.embedVersion(() -> doUpdateTask(session, taskId, fragment, sources, outputBuffers, totalPartitions)).call();
@@ -379,7 +379,7 @@ public class SqlTaskManager
         }
     }
 
-    private TaskInfo doUpdateTask(Session session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions)
+    private TaskInfo doUpdateTask(Optional<Session> session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions)
     {
         requireNonNull(session, "session is null");
         requireNonNull(taskId, "taskId is null");
@@ -389,12 +389,13 @@ public class SqlTaskManager
 
         SqlTask sqlTask = tasks.getUnchecked(taskId);
         QueryContext queryContext = sqlTask.getQueryContext();
-        if (!queryContext.isMemoryLimitsInitialized()) {
-            long sessionQueryMaxMemoryPerNode = getQueryMaxMemoryPerNode(session).toBytes();
-            long sessionQueryTotalMaxMemoryPerNode = getQueryMaxTotalMemoryPerNode(session).toBytes();
+        // the session is sent with the first update of the task
+        if (!queryContext.isMemoryLimitsInitialized() && session.isPresent()) {
+            long sessionQueryMaxMemoryPerNode = getQueryMaxMemoryPerNode(session.get()).toBytes();
+            long sessionQueryTotalMaxMemoryPerNode = getQueryMaxTotalMemoryPerNode(session.get()).toBytes();
             // Session properties are only allowed to decrease memory limits, not increase them
             queryContext.initializeMemoryLimits(
-                    resourceOvercommit(session),
+                    resourceOvercommit(session.get()),
                     min(sessionQueryMaxMemoryPerNode, queryMaxMemoryPerNode),
                     min(sessionQueryTotalMaxMemoryPerNode, queryMaxTotalMemoryPerNode));
         }
@@ -414,6 +415,18 @@ public class SqlTaskManager
         return tasks.getUnchecked(taskId).getTaskResults(bufferId, startingSequenceId, maxSize);
     }
 
+    @Override
+    public ListenableFuture<BufferResult> getTaskResults(TaskId taskId, OutputBufferId bufferId, long acknowledgedSequenceId, long startingSequenceId, DataSize maxSize)
+    {
+        requireNonNull(taskId, "taskId is null");
+        requireNonNull(bufferId, "bufferId is null");
+        checkArgument(acknowledgedSequenceId >= 0, "acknowledgedSequenceId is negative");
+        checkArgument(startingSequenceId >= acknowledgedSequenceId, "startingSequenceId is before acknowledgedSequenceId");
+        requireNonNull(maxSize, "maxSize is null");
+
+        return tasks.getUnchecked(taskId).getTaskResults(bufferId, acknowledgedSequenceId, startingSequenceId, maxSize);
+    }
+
     @Override
     public void acknowledgeTaskResults(TaskId taskId, OutputBufferId bufferId, long sequenceId)
     {
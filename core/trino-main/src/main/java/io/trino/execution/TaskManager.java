@@ -86,7 +86,7 @@ public interface TaskManager
      * Updates the task plan, sources and output buffers.  If the task does not
      * already exist, it is created and then updated.
      */
-    TaskInfo updateTask(Session session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions);
+    TaskInfo updateTask(Optional<Session> session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions);
 
     /**
      * Cancels a task.  If the task does not already exist, it is created and then
@@ -110,6 +110,13 @@ public interface TaskManager
      */
     ListenableFuture<BufferResult> getTaskResults(TaskId taskId, OutputBufferId bufferId, long startingSequenceId, DataSize maxSize);
 
+    /**
+     * Gets results from a task starting at the sequence id, but only acknowledges the results
+     * before the acknowledged sequence id, so a client can receive more results, before it
+     * has received the results of its previous requests.
+     */
+    ListenableFuture<BufferResult> getTaskResults(TaskId taskId, OutputBufferId bufferId, long acknowledgedSequenceId, long startingSequenceId, DataSize maxSize);
+
     /**
      * Acknowledges previously received results.
      */
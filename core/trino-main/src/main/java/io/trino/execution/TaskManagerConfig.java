@@ -64,17 +64,23 @@ public class TaskManagerConfig
 
     private Duration statusRefreshMaxWait = new Duration(1, TimeUnit.SECONDS);
     private Duration infoUpdateInterval = new Duration(3, TimeUnit.SECONDS);
+    private Duration infoUpdateIntervalPerTask = new Duration(0, TimeUnit.MILLISECONDS);
 
     private int writerCount = 1;
     private int taskConcurrency = 16;
     private int httpResponseThreads = 100;
     private int httpTimeoutThreads = 3;
+    private int httpStreamingThreads = 50;
 
     private int taskNotificationThreads = 5;
     private int taskYieldThreads = 3;
 
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
 
+    private boolean fragmentCacheEnabled;
+    private DataSize fragmentCacheMaxSize = DataSize.of(256, Unit.MEGABYTE);
+    private DataSize fragmentCacheMaxEntrySize = DataSize.of(4, Unit.MEGABYTE);
+
     @MinDuration("1ms")
     @MaxDuration("10s")
     @NotNull
@@ -106,6 +112,21 @@ public class TaskManagerConfig
         return this;
     }
 
+    @MaxDuration("1s")
+    @NotNull
+    public Duration getInfoUpdateIntervalPerTask()
+    {
+        return infoUpdateIntervalPerTask;
+    }
+
+    @Config("task.info-update-interval-per-task")
+    @ConfigDescription("Interval between updating task data added for every running task of the query, so the queries with many tasks are updated less often")
+    public TaskManagerConfig setInfoUpdateIntervalPerTask(Duration infoUpdateIntervalPerTask)
+    {
+        this.infoUpdateIntervalPerTask = infoUpdateIntervalPerTask;
+        return this;
+    }
+
     public boolean isPerOperatorCpuTimerEnabled()
     {
         return perOperatorCpuTimerEnabled;
@@ -417,6 +438,20 @@ public class TaskManagerConfig
         return this;
     }
 
+    @Min(1)
+    public int getHttpStreamingThreads()
+    {
+        return httpStreamingThreads;
+    }
+
+    @Config("task.http-streaming-threads")
+    @ConfigDescription("Maximum number of threads writing the streams of task results")
+    public TaskManagerConfig setHttpStreamingThreads(int httpStreamingThreads)
+    {
+        this.httpStreamingThreads = httpStreamingThreads;
+        return this;
+    }
+
     @Min(1)
     public int getTaskNotificationThreads()
     {
@@ -444,4 +479,45 @@ public class TaskManagerConfig
         this.taskYieldThreads = taskYieldThreads;
         return this;
     }
+
+    public boolean isFragmentCacheEnabled()
+    {
+        return fragmentCacheEnabled;
+    }
+
+    @Config("task.fragment-cache.enabled")
+    @ConfigDescription("Cache the output of leaf pipelines per split, and reuse it in later queries")
+    public TaskManagerConfig setFragmentCacheEnabled(boolean fragmentCacheEnabled)
+    {
+        this.fragmentCacheEnabled = fragmentCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getFragmentCacheMaxSize()
+    {
+        return fragmentCacheMaxSize;
+    }
+
+    @Config("task.fragment-cache.max-size")
+    @ConfigDescription("Maximum memory used by the cached output of leaf pipelines")
+    public TaskManagerConfig setFragmentCacheMaxSize(DataSize fragmentCacheMaxSize)
+    {
+        this.fragmentCacheMaxSize = fragmentCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getFragmentCacheMaxEntrySize()
+    {
+        return fragmentCacheMaxEntrySize;
+    }
+
+    @Config("task.fragment-cache.max-entry-size")
+    @ConfigDescription("Maximum size of the cached output of a leaf pipeline for a single split")
+    public TaskManagerConfig setFragmentCacheMaxEntrySize(DataSize fragmentCacheMaxEntrySize)
+    {
+        this.fragmentCacheMaxEntrySize = fragmentCacheMaxEntrySize;
+        return this;
+    }
 }
@@ -0,0 +1,216 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.buffer;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.compress.Compressor;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import io.trino.spi.Page;
+import io.trino.spi.block.BlockEncodingSerde;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.trino.block.BlockSerdeUtil.writeBlock;
+import static io.trino.execution.buffer.BlockCompressionCodec.LZ4;
+import static io.trino.execution.buffer.BlockCompressionCodec.NONE;
+import static io.trino.execution.buffer.BlockCompressionCodec.ZSTD;
+import static io.trino.execution.buffer.PagesSerde.MINIMUM_COMPRESSION_RATIO;
+import static io.trino.spi.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+
+/**
+ * Compresses each block of a page with the codec, which worked best for the channel of the block.
+ * <p>
+ * Every {@code SAMPLE_INTERVAL} pages, a block is compressed with all codecs, and the codec which
+ * saves the most, weighing the saved bytes against the time spent compressing them, is used for
+ * the channel until the next sample. Channels, which do not compress well, e.g. hashes or random
+ * identifiers, are not compressed at all between the samples.
+ */
+@NotThreadSafe
+final class AdaptiveBlockCompressor
+{
+    @VisibleForTesting
+    static final int SAMPLE_INTERVAL = 64;
+    // compressing smaller blocks is not worth the overhead of the compressors
+    private static final int MINIMUM_COMPRESSED_BLOCK_SIZE = 128;
+    // shuffles and spills are bound by the network or disk, so a saved byte is worth a few nanoseconds of compression
+    private static final double DEFAULT_NANOS_PER_SAVED_BYTE = 8;
+    private static final int MAX_BUFFER_RETAINED_SIZE = DEFAULT_MAX_PAGE_SIZE_IN_BYTES * 4;
+
+    private final double nanosPerSavedByte;
+    private final Compressor lz4Compressor = new Lz4Compressor();
+    private final Compressor zstdCompressor = new ZstdCompressor();
+
+    private DynamicSliceOutput blockBuffer = new DynamicSliceOutput(0);
+    private byte[] lz4Buffer = new byte[0];
+    private byte[] zstdBuffer = new byte[0];
+
+    private BlockCompressionCodec[] channelCodecs = new BlockCompressionCodec[0];
+    private int[] pagesUntilSample = new int[0];
+
+    public AdaptiveBlockCompressor()
+    {
+        this(DEFAULT_NANOS_PER_SAVED_BYTE);
+    }
+
+    @VisibleForTesting
+    AdaptiveBlockCompressor(double nanosPerSavedByte)
+    {
+        checkArgument(nanosPerSavedByte > 0, "nanosPerSavedByte must be positive");
+        this.nanosPerSavedByte = nanosPerSavedByte;
+    }
+
+    /**
+     * Writes the blocks of the page to the output, each one preceded by its codec, its uncompressed size and its size.
+     *
+     * @return the size of the page, if it was written without compression
+     */
+    public int writePage(Page page, BlockEncodingSerde blockEncodingSerde, SliceOutput output)
+    {
+        if (channelCodecs.length < page.getChannelCount()) {
+            int oldLength = channelCodecs.length;
+            channelCodecs = Arrays.copyOf(channelCodecs, page.getChannelCount());
+            pagesUntilSample = Arrays.copyOf(pagesUntilSample, page.getChannelCount());
+            Arrays.fill(channelCodecs, oldLength, channelCodecs.length, NONE);
+        }
+
+        output.writeInt(page.getChannelCount());
+        int uncompressedSize = Integer.BYTES;
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            blockBuffer.reset();
+            writeBlock(blockEncodingSerde, blockBuffer, page.getBlock(channel));
+            uncompressedSize += blockBuffer.size();
+            compressBlock(channel, blockBuffer.slice(), output);
+        }
+
+        if (blockBuffer.getRetainedSize() > MAX_BUFFER_RETAINED_SIZE) {
+            blockBuffer = new DynamicSliceOutput(0);
+        }
+        if (lz4Buffer.length > MAX_BUFFER_RETAINED_SIZE) {
+            lz4Buffer = new byte[0];
+        }
+        if (zstdBuffer.length > MAX_BUFFER_RETAINED_SIZE) {
+            zstdBuffer = new byte[0];
+        }
+        return uncompressedSize;
+    }
+
+    @VisibleForTesting
+    BlockCompressionCodec getCodec(int channel)
+    {
+        return channelCodecs[channel];
+    }
+
+    private void compressBlock(int channel, Slice block, SliceOutput output)
+    {
+        if (block.length() < MINIMUM_COMPRESSED_BLOCK_SIZE) {
+            writeUncompressed(block, output);
+            return;
+        }
+
+        if (pagesUntilSample[channel] == 0) {
+            pagesUntilSample[channel] = SAMPLE_INTERVAL;
+            sample(channel, block, output);
+        }
+        else {
+            BlockCompressionCodec codec = channelCodecs[channel];
+            if (codec == NONE) {
+                writeUncompressed(block, output);
+            }
+            else {
+                writeCompressed(codec, block, compress(codec, block), output);
+            }
+        }
+        pagesUntilSample[channel]--;
+    }
+
+    private void sample(int channel, Slice block, SliceOutput output)
+    {
+        long start = System.nanoTime();
+        int lz4Size = compress(LZ4, block);
+        long lz4Nanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int zstdSize = compress(ZSTD, block);
+        long zstdNanos = System.nanoTime() - start;
+
+        double lz4Benefit = benefit(block.length(), lz4Size, lz4Nanos);
+        double zstdBenefit = benefit(block.length(), zstdSize, zstdNanos);
+        if (lz4Benefit <= 0 && zstdBenefit <= 0) {
+            channelCodecs[channel] = NONE;
+            writeUncompressed(block, output);
+        }
+        else if (lz4Benefit >= zstdBenefit) {
+            channelCodecs[channel] = LZ4;
+            writeCompressed(LZ4, block, lz4Size, output);
+        }
+        else {
+            channelCodecs[channel] = ZSTD;
+            writeCompressed(ZSTD, block, zstdSize, output);
+        }
+    }
+
+    private double benefit(int uncompressedSize, int compressedSize, long nanos)
+    {
+        if (((double) compressedSize) / uncompressedSize > MINIMUM_COMPRESSION_RATIO) {
+            return 0;
+        }
+        return (uncompressedSize - compressedSize) * nanosPerSavedByte - nanos;
+    }
+
+    private int compress(BlockCompressionCodec codec, Slice block)
+    {
+        if (codec == LZ4) {
+            lz4Buffer = ensureCapacity(lz4Buffer, lz4Compressor.maxCompressedLength(block.length()));
+            return lz4Compressor.compress(block.byteArray(), block.byteArrayOffset(), block.length(), lz4Buffer, 0, lz4Buffer.length);
+        }
+        zstdBuffer = ensureCapacity(zstdBuffer, zstdCompressor.maxCompressedLength(block.length()));
+        return zstdCompressor.compress(block.byteArray(), block.byteArrayOffset(), block.length(), zstdBuffer, 0, zstdBuffer.length);
+    }
+
+    private void writeCompressed(BlockCompressionCodec codec, Slice block, int compressedSize, SliceOutput output)
+    {
+        if (((double) compressedSize) / block.length() > MINIMUM_COMPRESSION_RATIO) {
+            // the data of the channel changed since the last sample
+            writeUncompressed(block, output);
+            return;
+        }
+        output.writeByte(codec.getId());
+        output.writeInt(block.length());
+        output.writeInt(compressedSize);
+        output.writeBytes(codec == LZ4 ? lz4Buffer : zstdBuffer, 0, compressedSize);
+    }
+
+    private static void writeUncompressed(Slice block, SliceOutput output)
+    {
+        output.writeByte(NONE.getId());
+        output.writeInt(block.length());
+        output.writeInt(block.length());
+        output.writeBytes(block);
+    }
+
+    private static byte[] ensureCapacity(byte[] buffer, int capacity)
+    {
+        if (buffer.length < capacity) {
+            return new byte[capacity];
+        }
+        return buffer;
+    }
+}
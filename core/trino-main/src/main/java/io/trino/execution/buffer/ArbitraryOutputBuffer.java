@@ -265,13 +265,13 @@ public class ArbitraryOutputBuffer
     }
 
     @Override
-    public ListenableFuture<BufferResult> get(OutputBufferId bufferId, long startingSequenceId, DataSize maxSize)
+    public ListenableFuture<BufferResult> get(OutputBufferId bufferId, long acknowledgedSequenceId, long startingSequenceId, DataSize maxSize)
     {
         checkState(!Thread.holdsLock(this), "Cannot get pages while holding a lock on this");
         requireNonNull(bufferId, "bufferId is null");
         checkArgument(maxSize.toBytes() > 0, "maxSize must be at least 1 byte");
 
-        return getBuffer(bufferId).getPages(startingSequenceId, maxSize, Optional.of(masterBuffer));
+        return getBuffer(bufferId).getPages(acknowledgedSequenceId, startingSequenceId, maxSize, Optional.of(masterBuffer));
     }
 
     @Override
@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.buffer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Codec of a single block of a {@link SerializedPage} with the {@link PageCodecMarker#BLOCK_COMPRESSED} marker.
+ * The id of the codec is stored in front of each block, so it must never change.
+ */
+public enum BlockCompressionCodec
+{
+    NONE(0),
+    LZ4(1),
+    ZSTD(2);
+
+    private static final BlockCompressionCodec[] CODECS_BY_ID;
+
+    static {
+        BlockCompressionCodec[] values = values();
+        CODECS_BY_ID = new BlockCompressionCodec[values.length];
+        for (BlockCompressionCodec codec : values) {
+            CODECS_BY_ID[codec.getId()] = codec;
+        }
+    }
+
+    private final byte id;
+
+    BlockCompressionCodec(int id)
+    {
+        this.id = (byte) id;
+    }
+
+    public byte getId()
+    {
+        return id;
+    }
+
+    public static BlockCompressionCodec fromId(byte id)
+    {
+        checkArgument(id >= 0 && id < CODECS_BY_ID.length, "Invalid block compression codec: %s", id);
+        return CODECS_BY_ID[id];
+    }
+}
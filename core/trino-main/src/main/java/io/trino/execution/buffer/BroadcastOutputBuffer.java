@@ -264,13 +264,13 @@ public class BroadcastOutputBuffer
     }
 
     @Override
-    public ListenableFuture<BufferResult> get(OutputBufferId outputBufferId, long startingSequenceId, DataSize maxSize)
+    public ListenableFuture<BufferResult> get(OutputBufferId outputBufferId, long acknowledgedSequenceId, long startingSequenceId, DataSize maxSize)
     {
         checkState(!Thread.holdsLock(this), "Cannot get pages while holding a lock on this");
         requireNonNull(outputBufferId, "outputBufferId is null");
         checkArgument(maxSize.toBytes() > 0, "maxSize must be at least 1 byte");
 
-        return getBuffer(outputBufferId).getPages(startingSequenceId, maxSize);
+        return getBuffer(outputBufferId).getPages(acknowledgedSequenceId, startingSequenceId, maxSize);
     }
 
     @Override
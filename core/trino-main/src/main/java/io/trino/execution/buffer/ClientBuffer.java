@@ -14,6 +14,7 @@
 package io.trino.execution.buffer;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.units.DataSize;
@@ -176,11 +177,28 @@ class ClientBuffer
 
     public ListenableFuture<BufferResult> getPages(long sequenceId, DataSize maxSize, Optional<PagesSupplier> pagesSupplier)
     {
+        return getPages(sequenceId, sequenceId, maxSize, pagesSupplier);
+    }
+
+    public ListenableFuture<BufferResult> getPages(long acknowledgedSequenceId, long sequenceId, DataSize maxSize)
+    {
+        return getPages(acknowledgedSequenceId, sequenceId, maxSize, Optional.empty());
+    }
+
+    /**
+     * Gets pages starting at the sequence id, and drops the pages before the acknowledged sequence id.
+     * The pages between the acknowledged and the requested sequence id have been sent to the client,
+     * but they are retained until they are acknowledged, so the client can request them again.
+     */
+    public ListenableFuture<BufferResult> getPages(long acknowledgedSequenceId, long sequenceId, DataSize maxSize, Optional<PagesSupplier> pagesSupplier)
+    {
+        checkArgument(acknowledgedSequenceId <= sequenceId, "acknowledgedSequenceId is after sequenceId");
+
         // acknowledge pages first, out side of locks to not trigger callbacks while holding the lock
-        acknowledgePages(sequenceId);
+        acknowledgePages(acknowledgedSequenceId);
 
         // attempt to load some data before processing the read
-        pagesSupplier.ifPresent(supplier -> loadPagesIfNecessary(supplier, maxSize));
+        pagesSupplier.ifPresent(supplier -> loadPagesIfNecessary(supplier, sequenceId, maxSize));
 
         PendingRead oldPendingRead = null;
         try {
@@ -189,9 +207,9 @@ class ClientBuffer
                 oldPendingRead = this.pendingRead;
                 this.pendingRead = null;
 
-                // Return results immediately if we have data, there will be no more data, or this is
-                // an out of order request
-                if (!pages.isEmpty() || noMorePages || sequenceId != currentSequenceId.get()) {
+                // Return results immediately if we have data after the sequence id, there will be no more data,
+                // or this is an out of order request
+                if (noMorePages || sequenceId != currentSequenceId.get() + pages.size()) {
                     return immediateFuture(processRead(sequenceId, maxSize));
                 }
 
@@ -237,15 +255,17 @@ class ClientBuffer
         // Get the max size from the current pending read, which may not be the
         // same pending read instance by the time pages are loaded but this is
         // safe since the size is rechecked before returning pages.
+        long sequenceId;
         DataSize maxSize;
         synchronized (this) {
             if (pendingRead == null) {
                 return;
             }
+            sequenceId = pendingRead.getSequenceId();
             maxSize = pendingRead.getMaxSize();
         }
 
-        boolean dataAddedOrNoMorePages = loadPagesIfNecessary(pagesSupplier, maxSize);
+        boolean dataAddedOrNoMorePages = loadPagesIfNecessary(pagesSupplier, sequenceId, maxSize);
 
         if (dataAddedOrNoMorePages) {
             PendingRead pendingRead;
@@ -259,9 +279,9 @@ class ClientBuffer
     }
 
     /**
-     * If there no data, attempt to load some from the pages supplier.
+     * If there no data after the sequence id, attempt to load some from the pages supplier.
      */
-    private boolean loadPagesIfNecessary(PagesSupplier pagesSupplier, DataSize maxSize)
+    private boolean loadPagesIfNecessary(PagesSupplier pagesSupplier, long sequenceId, DataSize maxSize)
     {
         assertNotHoldsLock("Cannot load pages while holding a lock on this");
 
@@ -272,7 +292,7 @@ class ClientBuffer
                 return false;
             }
 
-            if (!pages.isEmpty()) {
+            if (hasPagesAfter(sequenceId)) {
                 return false;
             }
 
@@ -344,23 +364,26 @@ class ClientBuffer
 
         // if this buffer is finished, notify the client of this, so the client
         // will destroy this buffer
-        if (pages.isEmpty() && noMorePages) {
+        if (!hasPagesAfter(sequenceId) && noMorePages) {
             return emptyResults(taskInstanceId, currentSequenceId.get(), true);
         }
 
-        // if request is for pages after the current position, there is a bug somewhere
+        // if request is for pages after the buffered pages, there is a bug somewhere
         // a read call is always proceeded by acknowledge pages, which
-        // will advance the sequence id to at least the request position, unless
+        // will advance the sequence id to at least the acknowledged position, unless
         // the buffer is destroyed, and in that case the buffer will be empty with
         // no more pages set, which is checked above
-        verify(sequenceId == currentSequenceId.get(), "Invalid sequence id");
+        // pages between the current position and the request position have been read,
+        // but they have not been acknowledged yet
+        int readPages = toIntExact(sequenceId - currentSequenceId.get());
+        verify(readPages <= pages.size(), "Invalid sequence id");
 
         // read the new pages
         long maxBytes = maxSize.toBytes();
         List<SerializedPage> result = new ArrayList<>();
         long bytes = 0;
 
-        for (SerializedPageReference page : pages) {
+        for (SerializedPageReference page : Iterables.skip(pages, readPages)) {
             bytes += page.getRetainedSizeInBytes();
             // break (and don't add) if this page would exceed the limit
             if (!result.isEmpty() && bytes > maxBytes) {
@@ -371,6 +394,12 @@ class ClientBuffer
         return new BufferResult(taskInstanceId, sequenceId, sequenceId + result.size(), false, result);
     }
 
+    @GuardedBy("this")
+    private boolean hasPagesAfter(long sequenceId)
+    {
+        return currentSequenceId.get() + pages.size() > sequenceId;
+    }
+
     /**
      * Drops pages up to the specified sequence id
      */
@@ -191,7 +191,7 @@ public class LazyOutputBuffer
     }
 
     @Override
-    public ListenableFuture<BufferResult> get(OutputBufferId bufferId, long token, DataSize maxSize)
+    public ListenableFuture<BufferResult> get(OutputBufferId bufferId, long acknowledgedToken, long token, DataSize maxSize)
     {
         OutputBuffer outputBuffer = delegate;
         if (outputBuffer == null) {
@@ -201,14 +201,14 @@ public class LazyOutputBuffer
                         return immediateFuture(emptyResults(taskInstanceId, 0, true));
                     }
 
-                    PendingRead pendingRead = new PendingRead(bufferId, token, maxSize);
+                    PendingRead pendingRead = new PendingRead(bufferId, acknowledgedToken, token, maxSize);
                     pendingReads.add(pendingRead);
                     return pendingRead.getFutureResult();
                 }
                 outputBuffer = delegate;
             }
         }
-        return outputBuffer.get(bufferId, token, maxSize);
+        return outputBuffer.get(bufferId, acknowledgedToken, token, maxSize);
     }
 
     @Override
@@ -347,14 +347,16 @@ public class LazyOutputBuffer
     private static class PendingRead
     {
         private final OutputBufferId bufferId;
+        private final long acknowledgedSequenceId;
         private final long startingSequenceId;
         private final DataSize maxSize;
 
         private final ExtendedSettableFuture<BufferResult> futureResult = ExtendedSettableFuture.create();
 
-        public PendingRead(OutputBufferId bufferId, long startingSequenceId, DataSize maxSize)
+        public PendingRead(OutputBufferId bufferId, long acknowledgedSequenceId, long startingSequenceId, DataSize maxSize)
         {
             this.bufferId = requireNonNull(bufferId, "bufferId is null");
+            this.acknowledgedSequenceId = acknowledgedSequenceId;
             this.startingSequenceId = startingSequenceId;
             this.maxSize = requireNonNull(maxSize, "maxSize is null");
         }
@@ -371,7 +373,7 @@ public class LazyOutputBuffer
             }
 
             try {
-                ListenableFuture<BufferResult> result = delegate.get(bufferId, startingSequenceId, maxSize);
+                ListenableFuture<BufferResult> result = delegate.get(bufferId, acknowledgedSequenceId, startingSequenceId, maxSize);
                 futureResult.setAsync(result);
             }
             catch (Exception e) {
@@ -64,7 +64,18 @@ public interface OutputBuffer
      * If the buffer result is marked as complete, the client must call abort to acknowledge
      * receipt of the final state.
      */
-    ListenableFuture<BufferResult> get(OutputBufferId bufferId, long token, DataSize maxSize);
+    default ListenableFuture<BufferResult> get(OutputBufferId bufferId, long token, DataSize maxSize)
+    {
+        return get(bufferId, token, token, maxSize);
+    }
+
+    /**
+     * Gets pages from the output buffer starting at the token, but only acknowledges the pages
+     * before the acknowledged token. This allows a client to request more pages before it has
+     * received the pages of its previous requests. The unacknowledged pages are retained, so the
+     * client can request them again, if it does not receive them.
+     */
+    ListenableFuture<BufferResult> get(OutputBufferId bufferId, long acknowledgedToken, long token, DataSize maxSize);
 
     /**
      * Acknowledges the previously received pages from the output buffer.
@@ -26,7 +26,9 @@ import static com.google.common.base.Preconditions.checkArgument;
 public enum PageCodecMarker
 {
     COMPRESSED(1),
-    ENCRYPTED(2);
+    ENCRYPTED(2),
+    BLOCK_COMPRESSED(3),
+    CHECKSUMMED(4);
 
     private final int mask;
 
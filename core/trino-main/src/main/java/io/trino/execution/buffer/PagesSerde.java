@@ -15,11 +15,17 @@ package io.trino.execution.buffer;
 
 import io.airlift.compress.Compressor;
 import io.airlift.compress.Decompressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
 import io.airlift.slice.Slices;
+import io.airlift.slice.XxHash64;
 import io.trino.execution.buffer.PageCodecMarker.MarkerSet;
 import io.trino.spi.Page;
+import io.trino.spi.TrinoException;
+import io.trino.spi.block.Block;
 import io.trino.spi.block.BlockEncodingSerde;
 import io.trino.spiller.SpillCipher;
 
@@ -29,10 +35,14 @@ import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.trino.block.BlockSerdeUtil.readBlock;
+import static io.trino.execution.buffer.PageCodecMarker.BLOCK_COMPRESSED;
+import static io.trino.execution.buffer.PageCodecMarker.CHECKSUMMED;
 import static io.trino.execution.buffer.PageCodecMarker.COMPRESSED;
 import static io.trino.execution.buffer.PageCodecMarker.ENCRYPTED;
 import static io.trino.execution.buffer.PagesSerdeUtil.readRawPage;
 import static io.trino.execution.buffer.PagesSerdeUtil.writeRawPage;
+import static io.trino.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.trino.spi.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
@@ -40,20 +50,40 @@ import static java.util.Objects.requireNonNull;
 @NotThreadSafe
 public class PagesSerde
 {
-    private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
+    static final double MINIMUM_COMPRESSION_RATIO = 0.8;
 
     private final BlockEncodingSerde blockEncodingSerde;
     private final Optional<Compressor> compressor;
     private final Optional<Decompressor> decompressor;
     private final Optional<SpillCipher> spillCipher;
+    private final Optional<AdaptiveBlockCompressor> blockCompressor;
+    private final boolean checksumEnabled;
+
+    // created on first use, since pages with compressed blocks can be received regardless of the configuration
+    private Lz4Decompressor lz4BlockDecompressor;
+    private ZstdDecompressor zstdBlockDecompressor;
 
     public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor, Optional<SpillCipher> spillCipher)
+    {
+        this(blockEncodingSerde, compressor, decompressor, spillCipher, false, false);
+    }
+
+    public PagesSerde(
+            BlockEncodingSerde blockEncodingSerde,
+            Optional<Compressor> compressor,
+            Optional<Decompressor> decompressor,
+            Optional<SpillCipher> spillCipher,
+            boolean blockCompressionEnabled,
+            boolean checksumEnabled)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         checkArgument(compressor.isPresent() == decompressor.isPresent(), "compressor and decompressor must both be present or both be absent");
+        checkArgument(compressor.isEmpty() || !blockCompressionEnabled, "compressor must be absent when block compression is enabled");
         this.compressor = requireNonNull(compressor, "compressor is null");
         this.decompressor = requireNonNull(decompressor, "decompressor is null");
         this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
+        this.blockCompressor = blockCompressionEnabled ? Optional.of(new AdaptiveBlockCompressor()) : Optional.empty();
+        this.checksumEnabled = checksumEnabled;
     }
 
     public PagesSerdeContext newContext()
@@ -66,10 +96,17 @@ public class PagesSerde
         DynamicSliceOutput serializationBuffer = context.acquireSliceOutput(toIntExact(page.getSizeInBytes() + Integer.BYTES)); // block length is an int
         byte[] inUseTempBuffer = null;
         try {
-            writeRawPage(page, serializationBuffer, blockEncodingSerde);
-            Slice slice = serializationBuffer.slice();
-            int uncompressedSize = serializationBuffer.size();
             MarkerSet markers = MarkerSet.empty();
+            int uncompressedSize;
+            if (blockCompressor.isPresent()) {
+                uncompressedSize = blockCompressor.get().writePage(page, blockEncodingSerde, serializationBuffer);
+                markers.add(BLOCK_COMPRESSED);
+            }
+            else {
+                writeRawPage(page, serializationBuffer, blockEncodingSerde);
+                uncompressedSize = serializationBuffer.size();
+            }
+            Slice slice = serializationBuffer.slice();
 
             if (compressor.isPresent()) {
                 byte[] compressed = context.acquireBuffer(compressor.get().maxCompressedLength(uncompressedSize));
@@ -92,6 +129,21 @@ public class PagesSerde
                 }
             }
 
+            if (checksumEnabled) {
+                byte[] checksummed = context.acquireBuffer(slice.length() + Long.BYTES);
+                Slice checksummedSlice = Slices.wrappedBuffer(checksummed, 0, slice.length() + Long.BYTES);
+                checksummedSlice.setBytes(0, slice);
+                checksummedSlice.setLong(slice.length(), XxHash64.hash(slice));
+
+                slice = checksummedSlice;
+                markers.add(CHECKSUMMED);
+                //  Previous buffer is no longer in use and can be released
+                if (inUseTempBuffer != null) {
+                    context.releaseBuffer(inUseTempBuffer);
+                }
+                inUseTempBuffer = checksummed;
+            }
+
             if (spillCipher.isPresent()) {
                 byte[] encrypted = context.acquireBuffer(spillCipher.get().encryptedMaxLength(slice.length()));
                 int encryptedSize = spillCipher.get().encrypt(
@@ -150,6 +202,15 @@ public class PagesSerde
             inUseTempBuffer = decrypted;
         }
 
+        if (serializedPage.isChecksummed()) {
+            int payloadLength = slice.length() - Long.BYTES;
+            Slice payload = slice.slice(0, payloadLength);
+            if (XxHash64.hash(payload) != slice.getLong(payloadLength)) {
+                throw new TrinoException(GENERIC_INTERNAL_ERROR, "Checksum verification failure for serialized page");
+            }
+            slice = payload;
+        }
+
         if (serializedPage.isCompressed()) {
             checkState(decompressor.isPresent(), "Page is compressed, but decompressor is missing");
 
@@ -170,9 +231,54 @@ public class PagesSerde
             }
         }
 
+        if (serializedPage.isBlockCompressed()) {
+            return readCompressedBlocks(serializedPage.getPositionCount(), slice.getInput());
+        }
         return readRawPage(serializedPage.getPositionCount(), slice.getInput(), blockEncodingSerde);
     }
 
+    private Page readCompressedBlocks(int positionCount, SliceInput input)
+    {
+        Block[] blocks = new Block[input.readInt()];
+        for (int i = 0; i < blocks.length; i++) {
+            BlockCompressionCodec codec = BlockCompressionCodec.fromId(input.readByte());
+            int uncompressedSize = input.readInt();
+            Slice block = input.readSlice(input.readInt());
+            if (codec != BlockCompressionCodec.NONE) {
+                // Blocks might reference the decompressed buffer, so it can not be reused
+                byte[] decompressed = new byte[uncompressedSize];
+                checkState(getBlockDecompressor(codec).decompress(
+                        block.byteArray(),
+                        block.byteArrayOffset(),
+                        block.length(),
+                        decompressed,
+                        0,
+                        uncompressedSize) == uncompressedSize);
+                block = Slices.wrappedBuffer(decompressed);
+            }
+            blocks[i] = readBlock(blockEncodingSerde, block.getInput());
+        }
+        return new Page(positionCount, blocks);
+    }
+
+    private Decompressor getBlockDecompressor(BlockCompressionCodec codec)
+    {
+        switch (codec) {
+            case LZ4:
+                if (lz4BlockDecompressor == null) {
+                    lz4BlockDecompressor = new Lz4Decompressor();
+                }
+                return lz4BlockDecompressor;
+            case ZSTD:
+                if (zstdBlockDecompressor == null) {
+                    zstdBlockDecompressor = new ZstdDecompressor();
+                }
+                return zstdBlockDecompressor;
+            default:
+                throw new IllegalArgumentException("Unsupported block compression codec: " + codec);
+        }
+    }
+
     public static final class PagesSerdeContext
             implements AutoCloseable
     {
@@ -26,11 +26,24 @@ public class PagesSerdeFactory
 {
     private final BlockEncodingSerde blockEncodingSerde;
     private final boolean compressionEnabled;
+    private final boolean adaptiveCompressionEnabled;
+    private final boolean checksumEnabled;
 
     public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled)
+    {
+        this(blockEncodingSerde, compressionEnabled, false, false);
+    }
+
+    /**
+     * @param adaptiveCompressionEnabled compress each block with the codec chosen for its channel, instead of compressing whole pages with LZ4
+     * @param checksumEnabled append a checksum to each serialized page, which is verified when the page is deserialized
+     */
+    public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled, boolean adaptiveCompressionEnabled, boolean checksumEnabled)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         this.compressionEnabled = compressionEnabled;
+        this.adaptiveCompressionEnabled = adaptiveCompressionEnabled;
+        this.checksumEnabled = checksumEnabled;
     }
 
     public PagesSerde createPagesSerde()
@@ -45,10 +58,10 @@ public class PagesSerdeFactory
 
     private PagesSerde createPagesSerdeInternal(Optional<SpillCipher> spillCipher)
     {
-        if (compressionEnabled) {
-            return new PagesSerde(blockEncodingSerde, Optional.of(new Lz4Compressor()), Optional.of(new Lz4Decompressor()), spillCipher);
+        if (compressionEnabled && !adaptiveCompressionEnabled) {
+            return new PagesSerde(blockEncodingSerde, Optional.of(new Lz4Compressor()), Optional.of(new Lz4Decompressor()), spillCipher, false, checksumEnabled);
         }
 
-        return new PagesSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), spillCipher);
+        return new PagesSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), spillCipher, compressionEnabled, checksumEnabled);
     }
 }
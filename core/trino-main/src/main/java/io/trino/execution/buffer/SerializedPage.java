@@ -18,6 +18,8 @@ import org.openjdk.jol.info.ClassLayout;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
+import static io.trino.execution.buffer.PageCodecMarker.BLOCK_COMPRESSED;
+import static io.trino.execution.buffer.PageCodecMarker.CHECKSUMMED;
 import static io.trino.execution.buffer.PageCodecMarker.COMPRESSED;
 import static io.trino.execution.buffer.PageCodecMarker.ENCRYPTED;
 import static java.util.Objects.requireNonNull;
@@ -38,13 +40,15 @@ public class SerializedPage
         checkArgument(uncompressedSizeInBytes >= 0, "uncompressedSizeInBytes is negative");
         this.uncompressedSizeInBytes = uncompressedSizeInBytes;
         this.pageCodecMarkers = requireNonNull(markers, "markers is null").byteValue();
-        //  Encrypted pages may include arbitrary overhead from ciphers, sanity checks skipped
-        if (!markers.contains(ENCRYPTED)) {
+        //  Encrypted pages may include arbitrary overhead from ciphers, and block compressed pages from the headers
+        //  of the blocks, sanity checks skipped
+        if (!markers.contains(ENCRYPTED) && !markers.contains(BLOCK_COMPRESSED)) {
+            int payloadLength = markers.contains(CHECKSUMMED) ? slice.length() - Long.BYTES : slice.length();
             if (markers.contains(COMPRESSED)) {
-                checkArgument(uncompressedSizeInBytes > slice.length(), "compressed size must be smaller than uncompressed size when compressed");
+                checkArgument(uncompressedSizeInBytes > payloadLength, "compressed size must be smaller than uncompressed size when compressed");
             }
             else {
-                checkArgument(uncompressedSizeInBytes == slice.length(), "uncompressed size must be equal to slice length when uncompressed");
+                checkArgument(uncompressedSizeInBytes == payloadLength, "uncompressed size must be equal to slice length when uncompressed");
             }
         }
     }
@@ -89,6 +93,16 @@ public class SerializedPage
         return ENCRYPTED.isSet(pageCodecMarkers);
     }
 
+    public boolean isBlockCompressed()
+    {
+        return BLOCK_COMPRESSED.isSet(pageCodecMarkers);
+    }
+
+    public boolean isChecksummed()
+    {
+        return CHECKSUMMED.isSet(pageCodecMarkers);
+    }
+
     @Override
     public String toString()
     {
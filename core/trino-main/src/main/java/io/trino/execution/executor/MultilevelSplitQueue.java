@@ -20,40 +20,41 @@ import io.trino.execution.TaskManagerConfig;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
-import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Preconditions.checkState;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+/**
+ * The waiting splits of every level are kept in a concurrent skip list ordered by the level priority,
+ * so the runner threads offer and take splits without a lock. A runner thread waits for a split
+ * on a semaphore, which holds a permit for every waiting split.
+ */
 @ThreadSafe
 public class MultilevelSplitQueue
 {
     static final int[] LEVEL_THRESHOLD_SECONDS = {0, 1, 10, 60, 300};
     static final long LEVEL_CONTRIBUTION_CAP = SECONDS.toNanos(30);
 
-    @GuardedBy("lock")
-    private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits;
+    private final List<NavigableSet<PrioritizedSplitRunner>> levelWaitingSplits;
+    private final AtomicInteger waitingSplitCount = new AtomicInteger();
+    private final Semaphore waitingSplitPermits = new Semaphore(0);
 
     private final AtomicLong[] levelScheduledTime = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
 
     private final AtomicLong[] levelMinPriority;
     private final List<CounterStat> selectedLevelCounters;
 
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Condition notEmpty = lock.newCondition();
-
     private final double levelTimeMultiplier;
 
     @Inject
@@ -65,16 +66,17 @@ public class MultilevelSplitQueue
     public MultilevelSplitQueue(double levelTimeMultiplier)
     {
         this.levelMinPriority = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
-        this.levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
+        ImmutableList.Builder<NavigableSet<PrioritizedSplitRunner>> waitingSplits = ImmutableList.builder();
         ImmutableList.Builder<CounterStat> counters = ImmutableList.builder();
 
         for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
             levelScheduledTime[i] = new AtomicLong();
             levelMinPriority[i] = new AtomicLong(-1);
-            levelWaitingSplits.add(new PriorityQueue<>());
+            waitingSplits.add(new ConcurrentSkipListSet<>());
             counters.add(new CounterStat());
         }
 
+        this.levelWaitingSplits = waitingSplits.build();
         this.selectedLevelCounters = counters.build();
 
         this.levelTimeMultiplier = levelTimeMultiplier;
@@ -101,52 +103,46 @@ public class MultilevelSplitQueue
 
         split.setReady();
         int level = split.getPriority().getLevel();
-        lock.lock();
-        try {
-            if (levelWaitingSplits.get(level).isEmpty()) {
-                // Accesses to levelScheduledTime are not synchronized, so we have a data race
-                // here - our level time math will be off. However, the staleness is bounded by
-                // the fact that only running splits that complete during this computation
-                // can update the level time. Therefore, this is benign.
-                long level0Time = getLevel0TargetTime();
-                long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
-                long delta = levelExpectedTime - levelScheduledTime[level].get();
-                levelScheduledTime[level].addAndGet(delta);
-            }
-
-            levelWaitingSplits.get(level).offer(split);
-            notEmpty.signal();
-        }
-        finally {
-            lock.unlock();
+        NavigableSet<PrioritizedSplitRunner> waitingSplits = levelWaitingSplits.get(level);
+        if (waitingSplits.isEmpty()) {
+            // Accesses to levelScheduledTime are not synchronized, so we have a data race
+            // here - our level time math will be off. However, the staleness is bounded by
+            // the fact that only running splits that complete during this computation
+            // can update the level time. Therefore, this is benign. The same holds for
+            // the splits offered to the level concurrently, which may adjust the time twice.
+            long level0Time = getLevel0TargetTime();
+            long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
+            long delta = levelExpectedTime - levelScheduledTime[level].get();
+            levelScheduledTime[level].addAndGet(delta);
         }
+
+        // count the split before it becomes visible, so a concurrent take does not make the size negative
+        waitingSplitCount.incrementAndGet();
+        waitingSplits.add(split);
+        waitingSplitPermits.release();
     }
 
     public PrioritizedSplitRunner take()
             throws InterruptedException
     {
         while (true) {
-            lock.lockInterruptibly();
-            try {
-                PrioritizedSplitRunner result;
-                while ((result = pollSplit()) == null) {
-                    notEmpty.await();
-                }
+            waitingSplitPermits.acquire();
+            PrioritizedSplitRunner result = pollSplit();
+            if (result == null) {
+                // the split of the permit was removed
+                continue;
+            }
 
-                if (result.updateLevelPriority()) {
-                    offer(result);
-                    continue;
-                }
+            if (result.updateLevelPriority()) {
+                offer(result);
+                continue;
+            }
 
-                int selectedLevel = result.getPriority().getLevel();
-                levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
-                selectedLevelCounters.get(selectedLevel).update(1);
+            int selectedLevel = result.getPriority().getLevel();
+            levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
+            selectedLevelCounters.get(selectedLevel).update(1);
 
-                return result;
-            }
-            finally {
-                lock.unlock();
-            }
+            return result;
         }
     }
 
@@ -157,37 +153,41 @@ public class MultilevelSplitQueue
      * This function selects the level that has the lowest ratio of actual to the target time
      * with the objective of minimizing deviation from the target scheduled time. From this level,
      * we pick the split with the lowest priority.
+     * <p>
+     * The splits are taken concurrently, so the selected level may be emptied by another thread,
+     * in which case the level is selected again.
      */
-    @GuardedBy("lock")
     private PrioritizedSplitRunner pollSplit()
     {
-        long targetScheduledTime = getLevel0TargetTime();
-        double worstRatio = 1;
-        int selectedLevel = -1;
-        for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
-            if (!levelWaitingSplits.get(level).isEmpty()) {
-                long levelTime = levelScheduledTime[level].get();
-                double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
-                if (selectedLevel == -1 || ratio > worstRatio) {
-                    worstRatio = ratio;
-                    selectedLevel = level;
+        while (true) {
+            long targetScheduledTime = getLevel0TargetTime();
+            double worstRatio = 1;
+            int selectedLevel = -1;
+            for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+                if (!levelWaitingSplits.get(level).isEmpty()) {
+                    long levelTime = levelScheduledTime[level].get();
+                    double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
+                    if (selectedLevel == -1 || ratio > worstRatio) {
+                        worstRatio = ratio;
+                        selectedLevel = level;
+                    }
                 }
+
+                targetScheduledTime /= levelTimeMultiplier;
             }
 
-            targetScheduledTime /= levelTimeMultiplier;
-        }
+            if (selectedLevel == -1) {
+                return null;
+            }
 
-        if (selectedLevel == -1) {
-            return null;
+            PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).pollFirst();
+            if (result != null) {
+                waitingSplitCount.decrementAndGet();
+                return result;
+            }
         }
-
-        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
-        checkState(result != null, "pollSplit cannot return null");
-
-        return result;
     }
 
-    @GuardedBy("lock")
     private long getLevel0TargetTime()
     {
         long level0TargetTime = levelScheduledTime[0].get();
@@ -247,30 +247,27 @@ public class MultilevelSplitQueue
     public void remove(PrioritizedSplitRunner split)
     {
         checkArgument(split != null, "split is null");
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.remove(split);
+        for (NavigableSet<PrioritizedSplitRunner> level : levelWaitingSplits) {
+            if (level.remove(split)) {
+                splitRemoved();
             }
         }
-        finally {
-            lock.unlock();
-        }
     }
 
     public void removeAll(Collection<PrioritizedSplitRunner> splits)
     {
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.removeAll(splits);
-            }
-        }
-        finally {
-            lock.unlock();
+        for (PrioritizedSplitRunner split : splits) {
+            remove(split);
         }
     }
 
+    private void splitRemoved()
+    {
+        waitingSplitCount.decrementAndGet();
+        // when a taking thread already acquired the permit of the split, it finds no split and waits again
+        waitingSplitPermits.tryAcquire();
+    }
+
     public long getLevelMinPriority(int level, long taskThreadUsageNanos)
     {
         levelMinPriority[level].compareAndSet(-1, taskThreadUsageNanos);
@@ -279,17 +276,7 @@ public class MultilevelSplitQueue
 
     public int size()
     {
-        lock.lock();
-        try {
-            int total = 0;
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                total += level.size();
-            }
-            return total;
-        }
-        finally {
-            lock.unlock();
-        }
+        return waitingSplitCount.get();
     }
 
     public static int computeLevel(long threadUsageNanos)
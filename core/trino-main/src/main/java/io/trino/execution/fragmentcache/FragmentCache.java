@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.fragmentcache;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.units.DataSize;
+import io.trino.execution.SizeBoundedPageCache;
+import io.trino.execution.TaskManagerConfig;
+import io.trino.spi.Page;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Output pages of leaf pipelines for individual splits, kept on the worker.
+ */
+@ThreadSafe
+public class FragmentCache
+        extends SizeBoundedPageCache<FragmentCacheKey, Page>
+{
+    @Inject
+    public FragmentCache(TaskManagerConfig config)
+    {
+        this(config.getFragmentCacheMaxSize(), config.getFragmentCacheMaxEntrySize());
+    }
+
+    @VisibleForTesting
+    public FragmentCache(DataSize maxSize, DataSize maxEntrySize)
+    {
+        super(maxSize, maxEntrySize, FragmentCacheKey::getRetainedSizeInBytes, Page::getRetainedSizeInBytes);
+    }
+
+    public Optional<List<Page>> get(FragmentCacheKey key)
+    {
+        return getPages(key);
+    }
+}
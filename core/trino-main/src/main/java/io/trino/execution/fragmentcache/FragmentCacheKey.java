@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.fragmentcache;
+
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.airlift.slice.SizeOf.estimatedSizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies the output of a leaf pipeline for a split. The key consists of the signature of
+ * the operators of the pipeline, and the cache key of the split provided by the connector.
+ */
+public final class FragmentCacheKey
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FragmentCacheKey.class).instanceSize();
+
+    private final PipelineSignature pipelineSignature;
+    private final String splitKey;
+
+    public FragmentCacheKey(PipelineSignature pipelineSignature, String splitKey)
+    {
+        this.pipelineSignature = requireNonNull(pipelineSignature, "pipelineSignature is null");
+        this.splitKey = requireNonNull(splitKey, "splitKey is null");
+    }
+
+    /**
+     * Returns the retained size of the key, without the signature of the pipeline,
+     * which is shared by the keys of all the splits processed by the pipeline.
+     */
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + estimatedSizeOf(splitKey);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FragmentCacheKey that = (FragmentCacheKey) o;
+        return pipelineSignature.equals(that.pipelineSignature) &&
+                splitKey.equals(that.splitKey);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(pipelineSignature, splitKey);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("pipelineSignature", pipelineSignature)
+                .add("splitKey", splitKey)
+                .toString();
+    }
+}
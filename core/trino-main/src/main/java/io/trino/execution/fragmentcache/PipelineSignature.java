@@ -0,0 +1,194 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.fragmentcache;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Maps;
+import io.trino.Session;
+import io.trino.connector.CatalogName;
+import io.trino.metadata.Metadata;
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.connector.ConnectorTableHandle;
+import io.trino.sql.planner.Symbol;
+import io.trino.sql.planner.plan.AggregationNode;
+import io.trino.sql.planner.plan.AggregationNode.Aggregation;
+import io.trino.sql.planner.plan.FilterNode;
+import io.trino.sql.planner.plan.PlanNode;
+import io.trino.sql.planner.plan.ProjectNode;
+import io.trino.sql.planner.plan.TableScanNode;
+import io.trino.sql.tree.Expression;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.trino.SystemSessionProperties.ADAPTIVE_PARTIAL_AGGREGATION_ENABLED;
+import static io.trino.SystemSessionProperties.ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS;
+import static io.trino.SystemSessionProperties.ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD;
+import static io.trino.SystemSessionProperties.FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT;
+import static io.trino.SystemSessionProperties.FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_SIZE;
+import static io.trino.execution.resultcache.QueryResultCacheKey.isCacheable;
+import static io.trino.sql.DynamicFilters.extractDynamicFilters;
+import static io.trino.sql.planner.plan.AggregationNode.Step.PARTIAL;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies the operators of a leaf pipeline, which scans a table, filters and projects the rows,
+ * and partially aggregates them. The table and the columns are compared by their handles, and the
+ * other operators by the description of the plan nodes they are planned from, and by the session
+ * properties they depend on.
+ */
+public final class PipelineSignature
+{
+    // system session properties which change the pages produced by the operators of the pipeline
+    private static final Set<String> PIPELINE_SYSTEM_PROPERTIES = ImmutableSet.of(
+            FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_SIZE,
+            FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT,
+            ADAPTIVE_PARTIAL_AGGREGATION_ENABLED,
+            ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS,
+            ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD);
+
+    private final CatalogName catalogName;
+    private final ConnectorTableHandle table;
+    private final List<ColumnHandle> columns;
+    private final String operators;
+    private final int hashCode;
+
+    private PipelineSignature(CatalogName catalogName, ConnectorTableHandle table, List<ColumnHandle> columns, String operators)
+    {
+        this.catalogName = requireNonNull(catalogName, "catalogName is null");
+        this.table = requireNonNull(table, "table is null");
+        this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+        this.operators = requireNonNull(operators, "operators is null");
+        // table handles can be large, so the hash code is computed once for all the splits
+        this.hashCode = Objects.hash(catalogName, table, columns, operators);
+    }
+
+    /**
+     * Returns the signature of the pipeline of the partial aggregation, or empty if its output
+     * for a split can change between queries, or it is not planned over a table scan.
+     */
+    public static Optional<PipelineSignature> createPipelineSignature(AggregationNode aggregation, Session session, Metadata metadata)
+    {
+        if (aggregation.getStep() != PARTIAL) {
+            return Optional.empty();
+        }
+
+        StringBuilder operators = new StringBuilder()
+                .append(session.getTimeZoneKey().getId())
+                .append("\n");
+        PlanNode node = aggregation.getSource();
+        while (node instanceof FilterNode || node instanceof ProjectNode) {
+            if (node instanceof FilterNode) {
+                Expression predicate = ((FilterNode) node).getPredicate();
+                // dynamic filters depend on the data of the other tables of the query
+                if (!extractDynamicFilters(predicate).getDynamicConjuncts().isEmpty() || !isCacheable(predicate, metadata)) {
+                    return Optional.empty();
+                }
+                operators.append("Filter[").append(predicate).append("]\n");
+            }
+            else {
+                Map<Symbol, Expression> assignments = ((ProjectNode) node).getAssignments().getMap();
+                if (!assignments.values().stream().allMatch(expression -> isCacheable(expression, metadata))) {
+                    return Optional.empty();
+                }
+                operators.append("Project").append(assignments).append("\n");
+            }
+            node = node.getSources().get(0);
+        }
+        if (!(node instanceof TableScanNode)) {
+            return Optional.empty();
+        }
+        TableScanNode tableScan = (TableScanNode) node;
+        operators.append("TableScan").append(tableScan.getOutputSymbols()).append("\n");
+        // the connector session properties can change the pages of the table, and the default values are the same for all queries
+        operators.append("ConnectorProperties").append(ImmutableSortedMap.copyOf(session.getConnectorProperties(tableScan.getTable().getCatalogName()))).append("\n");
+        operators.append("SystemProperties").append(Maps.filterKeys(ImmutableSortedMap.copyOf(session.getSystemProperties()), PIPELINE_SYSTEM_PROPERTIES::contains)).append("\n");
+
+        for (Map.Entry<Symbol, Aggregation> entry : aggregation.getAggregations().entrySet()) {
+            Aggregation function = entry.getValue();
+            if (!metadata.getFunctionMetadata(function.getResolvedFunction()).isDeterministic() ||
+                    !function.getArguments().stream().allMatch(argument -> isCacheable(argument, metadata))) {
+                return Optional.empty();
+            }
+            operators.append(entry.getKey()).append(" := ").append(function.getResolvedFunction())
+                    .append(function.getArguments())
+                    .append(function.isDistinct() ? " distinct" : "")
+                    .append(function.getFilter().map(filter -> " filter " + filter).orElse(""))
+                    .append(function.getOrderingScheme().map(orderingScheme -> " " + orderingScheme).orElse(""))
+                    .append(function.getMask().map(mask -> " mask " + mask).orElse(""))
+                    .append("\n");
+        }
+        operators.append("Aggregate[")
+                .append(aggregation.getGroupingKeys())
+                .append(", ").append(aggregation.getGroupingSetCount())
+                .append(", ").append(aggregation.getGlobalGroupingSets())
+                .append(", ").append(aggregation.getHashSymbol())
+                .append(", ").append(aggregation.getGroupIdSymbol())
+                .append("] => ").append(aggregation.getOutputSymbols());
+
+        return Optional.of(new PipelineSignature(
+                tableScan.getTable().getCatalogName(),
+                tableScan.getTable().getConnectorHandle(),
+                tableScan.getOutputSymbols().stream()
+                        .map(tableScan.getAssignments()::get)
+                        .collect(toImmutableList()),
+                operators.toString()));
+    }
+
+    public CatalogName getCatalogName()
+    {
+        return catalogName;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PipelineSignature that = (PipelineSignature) o;
+        return hashCode == that.hashCode &&
+                catalogName.equals(that.catalogName) &&
+                table.equals(that.table) &&
+                columns.equals(that.columns) &&
+                operators.equals(that.operators);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("catalogName", catalogName)
+                .add("table", table)
+                .add("columns", columns)
+                .add("operators", operators)
+                .toString();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.plancache;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import io.trino.connector.CatalogName;
+import io.trino.metadata.TableHandle;
+import io.trino.spi.connector.ConnectorTransactionHandle;
+import io.trino.sql.planner.Plan;
+import io.trino.sql.planner.plan.ExchangeNode;
+import io.trino.sql.planner.plan.IndexSourceNode;
+import io.trino.sql.planner.plan.PlanNode;
+import io.trino.sql.planner.plan.SimplePlanRewriter;
+import io.trino.sql.planner.plan.TableScanNode;
+import io.trino.sql.tree.Expression;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.trino.execution.plancache.ParameterBinder.bindParameters;
+import static io.trino.execution.plancache.ParameterBinder.canBindParameters;
+import static io.trino.execution.plancache.ParameterBinder.getBoundParameters;
+import static io.trino.sql.ExpressionFormatter.formatExpression;
+import static io.trino.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Optimized plan of a query in the {@link PlanCache}. The table handles of the plan belong to the
+ * transaction of the query which planned it, so they are bound to the transaction of every query
+ * which reuses the plan. The parameters used in the expressions of the plan are planned as
+ * placeholders, and they are bound to the values of the parameters of every query which reuses
+ * the plan. The values of the other parameters must be the same.
+ */
+public class CachedPlan
+{
+    private final Plan plan;
+    private final Duration planningTime;
+    private final Map<Integer, String> unboundParameters;
+
+    private CachedPlan(Plan plan, Duration planningTime, Map<Integer, String> unboundParameters)
+    {
+        this.plan = requireNonNull(plan, "plan is null");
+        this.planningTime = requireNonNull(planningTime, "planningTime is null");
+        this.unboundParameters = ImmutableMap.copyOf(requireNonNull(unboundParameters, "unboundParameters is null"));
+    }
+
+    /**
+     * Returns the plan to cache, or empty if the plan can not be reused in other transactions,
+     * because it refers to a transaction in other places than the scanned tables, or scans a table
+     * of a catalog other than the catalogs of the tables referenced by the query, or the placeholders of
+     * the parameters can not be bound in all its expressions.
+     */
+    public static Optional<CachedPlan> createCachedPlan(Plan plan, Duration planningTime, Collection<TableHandle> tables, List<Expression> parameters)
+    {
+        Set<CatalogName> catalogs = tables.stream()
+                .map(TableHandle::getCatalogName)
+                .collect(toImmutableSet());
+        PlanNode root = plan.getRoot();
+        boolean cacheable = !searchFrom(root)
+                .where(node -> node instanceof IndexSourceNode ||
+                        (node instanceof ExchangeNode && ((ExchangeNode) node).getPartitioningScheme().getPartitioning().getHandle().getTransactionHandle().isPresent()) ||
+                        (node instanceof TableScanNode && !catalogs.contains(((TableScanNode) node).getTable().getCatalogName())))
+                .matches();
+        if (!cacheable || !canBindParameters(root)) {
+            return Optional.empty();
+        }
+
+        Set<Integer> boundParameters = getBoundParameters(root);
+        ImmutableMap.Builder<Integer, String> unboundParameters = ImmutableMap.builder();
+        for (int position = 0; position < parameters.size(); position++) {
+            if (!boundParameters.contains(position)) {
+                unboundParameters.put(position, formatExpression(parameters.get(position)));
+            }
+        }
+        return Optional.of(new CachedPlan(plan, planningTime, unboundParameters.build()));
+    }
+
+    /**
+     * Returns true if the plan can be reused with the parameters, that is the parameters which are not
+     * bound to the plan have the same values as the parameters the plan was created with.
+     */
+    public boolean canReuse(List<Expression> parameters)
+    {
+        return unboundParameters.entrySet().stream()
+                .allMatch(entry -> entry.getKey() < parameters.size() && entry.getValue().equals(formatExpression(parameters.get(entry.getKey()))));
+    }
+
+    /**
+     * Time it took to plan the query.
+     */
+    public Duration getPlanningTime()
+    {
+        return planningTime;
+    }
+
+    /**
+     * Returns the plan with the scanned tables bound to the transactions of the tables referenced by the query,
+     * and the placeholders bound to the values of the parameters, by their positions.
+     */
+    public Plan getPlan(Collection<TableHandle> tables, Map<Integer, Expression> parameterValues)
+    {
+        Map<CatalogName, ConnectorTransactionHandle> transactions = tables.stream()
+                .collect(toImmutableMap(TableHandle::getCatalogName, TableHandle::getTransaction, (first, second) -> first));
+        Plan boundPlan = bindParameters(plan, parameterValues);
+        PlanNode root = SimplePlanRewriter.rewriteWith(new TransactionRewriter(transactions), boundPlan.getRoot());
+        return new Plan(root, boundPlan.getTypes(), boundPlan.getStatsAndCosts());
+    }
+
+    private static class TransactionRewriter
+            extends SimplePlanRewriter<Void>
+    {
+        private final Map<CatalogName, ConnectorTransactionHandle> transactions;
+
+        public TransactionRewriter(Map<CatalogName, ConnectorTransactionHandle> transactions)
+        {
+            this.transactions = requireNonNull(transactions, "transactions is null");
+        }
+
+        @Override
+        public PlanNode visitTableScan(TableScanNode node, RewriteContext<Void> context)
+        {
+            TableHandle table = node.getTable();
+            ConnectorTransactionHandle transaction = transactions.get(table.getCatalogName());
+            verify(transaction != null, "No transaction for catalog %s", table.getCatalogName());
+            return new TableScanNode(
+                    node.getId(),
+                    new TableHandle(table.getCatalogName(), table.getConnectorHandle(), transaction, table.getLayout()),
+                    node.getOutputSymbols(),
+                    node.getAssignments(),
+                    node.getEnforcedConstraint(),
+                    node.isUpdateTarget(),
+                    node.getUseConnectorNodePartitioning());
+        }
+    }
+}
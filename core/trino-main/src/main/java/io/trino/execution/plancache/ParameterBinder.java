@@ -0,0 +1,315 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.plancache;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multiset;
+import io.trino.Session;
+import io.trino.metadata.Metadata;
+import io.trino.metadata.ResolvedFunction;
+import io.trino.security.AccessControl;
+import io.trino.spi.type.Type;
+import io.trino.sql.analyzer.Analysis;
+import io.trino.sql.planner.LiteralEncoder;
+import io.trino.sql.planner.Plan;
+import io.trino.sql.planner.Symbol;
+import io.trino.sql.planner.plan.AggregationNode;
+import io.trino.sql.planner.plan.AggregationNode.Aggregation;
+import io.trino.sql.planner.plan.ApplyNode;
+import io.trino.sql.planner.plan.CorrelatedJoinNode;
+import io.trino.sql.planner.plan.FilterNode;
+import io.trino.sql.planner.plan.JoinNode;
+import io.trino.sql.planner.plan.PlanNode;
+import io.trino.sql.planner.plan.ProjectNode;
+import io.trino.sql.planner.plan.SimplePlanRewriter;
+import io.trino.sql.planner.plan.SpatialJoinNode;
+import io.trino.sql.planner.plan.TableScanNode;
+import io.trino.sql.planner.plan.UnnestNode;
+import io.trino.sql.planner.plan.ValuesNode;
+import io.trino.sql.planner.plan.WindowNode;
+import io.trino.sql.tree.Expression;
+import io.trino.sql.tree.NodeRef;
+import io.trino.sql.tree.Parameter;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.ImmutableMultiset.toImmutableMultiset;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.trino.sql.ParameterPlaceholders.bindPlaceholders;
+import static io.trino.sql.ParameterPlaceholders.extractPlaceholderPositions;
+import static io.trino.sql.ParameterPlaceholders.resolvePlaceholderFunction;
+import static io.trino.sql.planner.ExpressionInterpreter.evaluateConstantExpression;
+import static io.trino.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Binds the values of the parameters of a prepared statement to a plan, in which the parameters are
+ * planned as placeholders, so that the plan can be reused with other values of the parameters.
+ *
+ * @see io.trino.sql.ParameterPlaceholders
+ */
+public final class ParameterBinder
+{
+    private ParameterBinder() {}
+
+    /**
+     * Returns the functions of the placeholders of the parameters, which are used in expressions,
+     * except for the parameters which are pushed down into the connectors. The other parameters,
+     * like the row count of a limit, are used by the analyzer directly.
+     */
+    public static Map<NodeRef<Parameter>, ResolvedFunction> createPlaceholders(Analysis analysis, Metadata metadata, Set<Integer> pushedDownParameters)
+    {
+        ImmutableMap.Builder<NodeRef<Parameter>, ResolvedFunction> placeholders = ImmutableMap.builder();
+        for (NodeRef<Parameter> parameter : analysis.getParameters().keySet()) {
+            Type type = analysis.getTypes().get(NodeRef.<Expression>of(parameter.getNode()));
+            if (type != null && !pushedDownParameters.contains(parameter.getNode().getPosition())) {
+                placeholders.put(parameter, resolvePlaceholderFunction(metadata, type));
+            }
+        }
+        return placeholders.build();
+    }
+
+    /**
+     * Returns the values of the parameters with placeholders as literals, by their positions.
+     */
+    public static Map<Integer, Expression> evaluateParameters(Analysis analysis, Session session, Metadata metadata, AccessControl accessControl)
+    {
+        LiteralEncoder literalEncoder = new LiteralEncoder(metadata);
+        ImmutableMap.Builder<Integer, Expression> values = ImmutableMap.builder();
+        for (Map.Entry<NodeRef<Parameter>, Expression> parameter : analysis.getParameters().entrySet()) {
+            if (analysis.getParameterPlaceholder(parameter.getKey().getNode()).isPresent()) {
+                Type type = analysis.getType(parameter.getKey().getNode());
+                Object value = evaluateConstantExpression(parameter.getValue(), type, metadata, session, accessControl, analysis.getParameters());
+                values.put(parameter.getKey().getNode().getPosition(), literalEncoder.toExpression(value, type));
+            }
+        }
+        return values.build();
+    }
+
+    /**
+     * Returns true if the placeholders can be found in all the expressions of the plan. Subqueries are
+     * planned as joins, before the plan is optimized.
+     */
+    public static boolean canBindParameters(PlanNode root)
+    {
+        return !searchFrom(root)
+                .where(node -> node instanceof ApplyNode || node instanceof CorrelatedJoinNode)
+                .matches();
+    }
+
+    /**
+     * Returns the positions of the parameters with placeholders in the plan.
+     */
+    public static Set<Integer> getBoundParameters(PlanNode root)
+    {
+        Set<Integer> positions = new HashSet<>();
+        SimplePlanRewriter.rewriteWith(new ExpressionRewriter(expression -> {
+            positions.addAll(extractPlaceholderPositions(expression));
+            return expression;
+        }), root);
+        return positions;
+    }
+
+    /**
+     * Returns the positions of the parameters with placeholders in the filters of the scanned tables.
+     * The placeholders are not constant folded, so these filters are not pushed down into the connectors.
+     */
+    public static Set<Integer> getTableFilterParameters(PlanNode root)
+    {
+        return searchFrom(root)
+                .where(node -> node instanceof FilterNode && ((FilterNode) node).getSource() instanceof TableScanNode)
+                .<FilterNode>findAll().stream()
+                .flatMap(filter -> extractPlaceholderPositions(filter.getPredicate()).stream())
+                .collect(toImmutableSet());
+    }
+
+    /**
+     * Returns true if the plans scan the same tables with the same constraints, that is the connectors
+     * accepted the same filters in both plans.
+     */
+    public static boolean hasSameTableScans(PlanNode left, PlanNode right)
+    {
+        return getTableScans(left).equals(getTableScans(right));
+    }
+
+    private static Multiset<List<Object>> getTableScans(PlanNode root)
+    {
+        return searchFrom(root)
+                .where(TableScanNode.class::isInstance)
+                .<TableScanNode>findAll().stream()
+                .map(scan -> ImmutableList.<Object>of(scan.getTable(), scan.getEnforcedConstraint()))
+                .collect(toImmutableMultiset());
+    }
+
+    public static Plan bindParameters(Plan plan, Map<Integer, Expression> values)
+    {
+        if (values.isEmpty()) {
+            return plan;
+        }
+        PlanNode root = SimplePlanRewriter.rewriteWith(new ExpressionRewriter(expression -> bindPlaceholders(expression, values)), plan.getRoot());
+        return new Plan(root, plan.getTypes(), plan.getStatsAndCosts());
+    }
+
+    private static class ExpressionRewriter
+            extends SimplePlanRewriter<Void>
+    {
+        private final Function<Expression, Expression> rewriter;
+
+        public ExpressionRewriter(Function<Expression, Expression> rewriter)
+        {
+            this.rewriter = requireNonNull(rewriter, "rewriter is null");
+        }
+
+        @Override
+        public PlanNode visitFilter(FilterNode node, RewriteContext<Void> context)
+        {
+            return new FilterNode(node.getId(), context.rewrite(node.getSource()), rewriter.apply(node.getPredicate()));
+        }
+
+        @Override
+        public PlanNode visitProject(ProjectNode node, RewriteContext<Void> context)
+        {
+            return new ProjectNode(node.getId(), context.rewrite(node.getSource()), node.getAssignments().rewrite(rewriter));
+        }
+
+        @Override
+        public PlanNode visitJoin(JoinNode node, RewriteContext<Void> context)
+        {
+            return new JoinNode(
+                    node.getId(),
+                    node.getType(),
+                    context.rewrite(node.getLeft()),
+                    context.rewrite(node.getRight()),
+                    node.getCriteria(),
+                    node.getLeftOutputSymbols(),
+                    node.getRightOutputSymbols(),
+                    node.isMaySkipOutputDuplicates(),
+                    node.getFilter().map(rewriter),
+                    node.getLeftHashSymbol(),
+                    node.getRightHashSymbol(),
+                    node.getDistributionType(),
+                    node.isSpillable(),
+                    node.getDynamicFilters(),
+                    node.getReorderJoinStatsAndCost());
+        }
+
+        @Override
+        public PlanNode visitSpatialJoin(SpatialJoinNode node, RewriteContext<Void> context)
+        {
+            return new SpatialJoinNode(
+                    node.getId(),
+                    node.getType(),
+                    context.rewrite(node.getLeft()),
+                    context.rewrite(node.getRight()),
+                    node.getOutputSymbols(),
+                    rewriter.apply(node.getFilter()),
+                    node.getLeftPartitionSymbol(),
+                    node.getRightPartitionSymbol(),
+                    node.getKdbTree());
+        }
+
+        @Override
+        public PlanNode visitUnnest(UnnestNode node, RewriteContext<Void> context)
+        {
+            return new UnnestNode(
+                    node.getId(),
+                    context.rewrite(node.getSource()),
+                    node.getReplicateSymbols(),
+                    node.getMappings(),
+                    node.getOrdinalitySymbol(),
+                    node.getJoinType(),
+                    node.getFilter().map(rewriter));
+        }
+
+        @Override
+        public PlanNode visitValues(ValuesNode node, RewriteContext<Void> context)
+        {
+            return new ValuesNode(
+                    node.getId(),
+                    node.getOutputSymbols(),
+                    node.getRowCount(),
+                    node.getRows().map(rows -> rows.stream()
+                            .map(rewriter)
+                            .collect(toImmutableList())));
+        }
+
+        @Override
+        public PlanNode visitAggregation(AggregationNode node, RewriteContext<Void> context)
+        {
+            Map<Symbol, Aggregation> aggregations = node.getAggregations().entrySet().stream()
+                    .collect(toImmutableMap(Map.Entry::getKey, entry -> {
+                        Aggregation aggregation = entry.getValue();
+                        return new Aggregation(
+                                aggregation.getResolvedFunction(),
+                                aggregation.getArguments().stream()
+                                        .map(rewriter)
+                                        .collect(toImmutableList()),
+                                aggregation.isDistinct(),
+                                aggregation.getFilter(),
+                                aggregation.getOrderingScheme(),
+                                aggregation.getMask());
+                    }));
+            return new AggregationNode(
+                    node.getId(),
+                    context.rewrite(node.getSource()),
+                    aggregations,
+                    node.getGroupingSets(),
+                    node.getPreGroupedSymbols(),
+                    node.getStep(),
+                    node.getHashSymbol(),
+                    node.getGroupIdSymbol());
+        }
+
+        @Override
+        public PlanNode visitWindow(WindowNode node, RewriteContext<Void> context)
+        {
+            Map<Symbol, WindowNode.Function> functions = node.getWindowFunctions().entrySet().stream()
+                    .collect(toImmutableMap(Map.Entry::getKey, entry -> {
+                        WindowNode.Function function = entry.getValue();
+                        WindowNode.Frame frame = function.getFrame();
+                        return new WindowNode.Function(
+                                function.getResolvedFunction(),
+                                function.getArguments().stream()
+                                        .map(rewriter)
+                                        .collect(toImmutableList()),
+                                new WindowNode.Frame(
+                                        frame.getType(),
+                                        frame.getStartType(),
+                                        frame.getStartValue(),
+                                        frame.getSortKeyCoercedForFrameStartComparison(),
+                                        frame.getEndType(),
+                                        frame.getEndValue(),
+                                        frame.getSortKeyCoercedForFrameEndComparison(),
+                                        frame.getOriginalStartValue().map(rewriter),
+                                        frame.getOriginalEndValue().map(rewriter)),
+                                function.isIgnoreNulls());
+                    }));
+            return new WindowNode(
+                    node.getId(),
+                    context.rewrite(node.getSource()),
+                    node.getSpecification(),
+                    functions,
+                    node.getHashSymbol(),
+                    node.getPrePartitionedInputs(),
+                    node.getPreSortedOrderPrefix());
+        }
+    }
+}
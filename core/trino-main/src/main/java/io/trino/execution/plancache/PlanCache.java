@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.plancache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.stats.CounterStat;
+import io.trino.execution.QueryManagerConfig;
+import io.trino.sql.tree.Expression;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Optimized plans of queries, kept on the coordinator. The entries are bounded by their count,
+ * and the least recently used entries are evicted first.
+ * <p>
+ * When the connectors accept the filters on the parameters of a query, the plan depends on the values
+ * of these parameters. The positions of these parameters are kept for the query, and its plans are
+ * cached for their values.
+ */
+@ThreadSafe
+public class PlanCache
+{
+    private final Cache<PlanCacheKey, CachedPlan> cache;
+    private final Cache<PlanCacheKey, Set<Integer>> pushedDownParameters;
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat puts = new CounterStat();
+
+    @Inject
+    public PlanCache(QueryManagerConfig config)
+    {
+        this(config.getPlanCacheMaxEntries());
+    }
+
+    @VisibleForTesting
+    public PlanCache(int maxEntries)
+    {
+        checkArgument(maxEntries > 0, "maxEntries must be positive");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .build();
+        this.pushedDownParameters = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    /**
+     * Returns the plan of the query, if it can be reused with the values of the parameters of the query.
+     */
+    public Optional<CachedPlan> get(PlanCacheKey key, List<Expression> parameters)
+    {
+        Set<Integer> positions = pushedDownParameters.getIfPresent(key);
+        CachedPlan plan = positions == null ? null : cache.getIfPresent(key.withParameterValues(positions, parameters));
+        if (plan == null || !plan.canReuse(parameters)) {
+            misses.update(1);
+            return Optional.empty();
+        }
+        hits.update(1);
+        return Optional.of(plan);
+    }
+
+    /**
+     * Returns the positions of the parameters of the query which are pushed down into the connectors,
+     * or empty if the query has not been planned yet.
+     */
+    public Optional<Set<Integer>> getPushedDownParameters(PlanCacheKey key)
+    {
+        return Optional.ofNullable(pushedDownParameters.getIfPresent(key));
+    }
+
+    /**
+     * Caches the plan of the query for the values of the parameters which are pushed down into the connectors.
+     */
+    public void put(PlanCacheKey key, Set<Integer> pushedDownParameters, List<Expression> parameters, CachedPlan plan)
+    {
+        requireNonNull(key, "key is null");
+        requireNonNull(plan, "plan is null");
+        Set<Integer> positions = ImmutableSet.copyOf(requireNonNull(pushedDownParameters, "pushedDownParameters is null"));
+        this.pushedDownParameters.put(key, positions);
+        cache.put(key.withParameterValues(positions, parameters), plan);
+        puts.update(1);
+    }
+
+    @Managed
+    public void invalidateAll()
+    {
+        cache.invalidateAll();
+        pushedDownParameters.invalidateAll();
+    }
+
+    @Managed
+    public long getEntryCount()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getPuts()
+    {
+        return puts;
+    }
+}
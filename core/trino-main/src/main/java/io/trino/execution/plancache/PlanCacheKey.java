@@ -0,0 +1,297 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.plancache;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.trino.Session;
+import io.trino.connector.CatalogName;
+import io.trino.execution.QueryPreparer.PreparedQuery;
+import io.trino.metadata.Metadata;
+import io.trino.metadata.TableHandle;
+import io.trino.spi.connector.ConnectorTableHandle;
+import io.trino.spi.eventlistener.ColumnInfo;
+import io.trino.spi.eventlistener.TableInfo;
+import io.trino.spi.type.TimeZoneKey;
+import io.trino.spi.type.Type;
+import io.trino.sql.analyzer.Analysis;
+import io.trino.sql.tree.CurrentTime;
+import io.trino.sql.tree.Expression;
+import io.trino.sql.tree.NodeRef;
+import io.trino.sql.tree.Parameter;
+import io.trino.sql.tree.Query;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.trino.SystemSessionProperties.PLAN_CACHE_ENABLED;
+import static io.trino.sql.ExpressionFormatter.formatExpression;
+import static io.trino.sql.SqlFormatter.formatSql;
+import static io.trino.sql.planner.DeterminismEvaluator.isQueryStartFunction;
+import static io.trino.sql.util.AstUtils.preOrder;
+import static java.util.Objects.requireNonNull;
+import static java.util.function.Function.identity;
+
+/**
+ * Identifies the optimized plan of a query. The key consists of the text of the statement, the
+ * types of its parameters, the values of the parameters which are pushed down into the connectors,
+ * the versions of the data of the referenced tables, the row filters and column masks applied to
+ * them, and the parts of the session which are used during planning.
+ */
+public final class PlanCacheKey
+{
+    private final String statement;
+    private final List<Type> parameterTypes;
+    private final Map<Integer, String> parameterValues;
+    private final Set<TableVersion> tableVersions;
+    private final List<String> accessControls;
+    private final String user;
+    private final Optional<String> catalog;
+    private final Optional<String> schema;
+    private final Optional<String> path;
+    private final TimeZoneKey timeZoneKey;
+    private final Locale locale;
+    private final Map<String, String> systemProperties;
+    private final Map<CatalogName, Map<String, String>> connectorProperties;
+
+    private PlanCacheKey(
+            String statement,
+            List<Type> parameterTypes,
+            Map<Integer, String> parameterValues,
+            Set<TableVersion> tableVersions,
+            List<String> accessControls,
+            String user,
+            Optional<String> catalog,
+            Optional<String> schema,
+            Optional<String> path,
+            TimeZoneKey timeZoneKey,
+            Locale locale,
+            Map<String, String> systemProperties,
+            Map<CatalogName, Map<String, String>> connectorProperties)
+    {
+        this.statement = requireNonNull(statement, "statement is null");
+        this.parameterTypes = ImmutableList.copyOf(requireNonNull(parameterTypes, "parameterTypes is null"));
+        this.parameterValues = ImmutableMap.copyOf(requireNonNull(parameterValues, "parameterValues is null"));
+        this.tableVersions = ImmutableSet.copyOf(requireNonNull(tableVersions, "tableVersions is null"));
+        this.accessControls = ImmutableList.copyOf(requireNonNull(accessControls, "accessControls is null"));
+        this.user = requireNonNull(user, "user is null");
+        this.catalog = requireNonNull(catalog, "catalog is null");
+        this.schema = requireNonNull(schema, "schema is null");
+        this.path = requireNonNull(path, "path is null");
+        this.timeZoneKey = requireNonNull(timeZoneKey, "timeZoneKey is null");
+        this.locale = requireNonNull(locale, "locale is null");
+        this.systemProperties = ImmutableMap.copyOf(requireNonNull(systemProperties, "systemProperties is null"));
+        this.connectorProperties = ImmutableMap.copyOf(requireNonNull(connectorProperties, "connectorProperties is null"));
+    }
+
+    /**
+     * Returns the key of the plan of the analyzed query, or empty if the plan can not be cached,
+     * because the query is not a plain query, it refers to a view, it depends on the start time of
+     * the query, the version of the data of a referenced table is unknown, or the type of a parameter
+     * is unknown.
+     * <p>
+     * The values of the parameters are not a part of the key. They are bound to the plan when it is
+     * reused, or they are compared with the values the plan was created with (see {@link CachedPlan}).
+     * The values of the parameters pushed down into the connectors are added by {@link #withParameterValues}.
+     */
+    public static Optional<PlanCacheKey> createKey(PreparedQuery preparedQuery, Analysis analysis, Session session, Metadata metadata)
+    {
+        if (!(analysis.getStatement() instanceof Query) || analysis.getUpdateType() != null) {
+            return Optional.empty();
+        }
+        // views are registered without a table handle
+        if (analysis.getReferencedTables().size() != analysis.getTables().size()) {
+            return Optional.empty();
+        }
+        boolean dependsOnStartTime = preOrder(preparedQuery.getStatement()).anyMatch(CurrentTime.class::isInstance) ||
+                preparedQuery.getParameters().stream().anyMatch(parameter -> preOrder(parameter).anyMatch(CurrentTime.class::isInstance)) ||
+                analysis.getRoutines().stream().anyMatch(routine -> isQueryStartFunction(routine.getRoutine()));
+        if (dependsOnStartTime) {
+            return Optional.empty();
+        }
+
+        Type[] parameterTypes = new Type[preparedQuery.getParameters().size()];
+        for (NodeRef<Parameter> parameter : analysis.getParameters().keySet()) {
+            Type type = analysis.getTypes().get(NodeRef.<Expression>of(parameter.getNode()));
+            if (type == null) {
+                return Optional.empty();
+            }
+            parameterTypes[parameter.getNode().getPosition()] = type;
+        }
+        if (Arrays.stream(parameterTypes).anyMatch(Objects::isNull)) {
+            return Optional.empty();
+        }
+
+        ImmutableSet.Builder<TableVersion> tableVersions = ImmutableSet.builder();
+        for (TableHandle table : analysis.getTables()) {
+            Optional<String> dataVersion = metadata.getDataVersion(session, table);
+            if (dataVersion.isEmpty()) {
+                return Optional.empty();
+            }
+            tableVersions.add(new TableVersion(table.getCatalogName(), table.getConnectorHandle(), dataVersion.get()));
+        }
+
+        List<String> accessControls = analysis.getReferencedTables().stream()
+                .map(PlanCacheKey::describeAccessControls)
+                .sorted()
+                .collect(toImmutableList());
+
+        Map<String, String> systemProperties = new HashMap<>(session.getSystemProperties());
+        systemProperties.remove(PLAN_CACHE_ENABLED);
+
+        return Optional.of(new PlanCacheKey(
+                formatSql(preparedQuery.getStatement()),
+                Arrays.asList(parameterTypes),
+                ImmutableMap.of(),
+                tableVersions.build(),
+                accessControls,
+                session.getUser(),
+                session.getCatalog(),
+                session.getSchema(),
+                session.getPath().getRawPath(),
+                session.getTimeZoneKey(),
+                session.getLocale(),
+                systemProperties,
+                session.getConnectorProperties()));
+    }
+
+    /**
+     * Returns the key of the plan in which the parameters at the positions are pushed down into the
+     * connectors, so the plan depends on their values.
+     */
+    public PlanCacheKey withParameterValues(Set<Integer> positions, List<Expression> parameters)
+    {
+        Map<Integer, String> values = positions.stream()
+                .collect(toImmutableMap(identity(), position -> formatExpression(parameters.get(position))));
+        return new PlanCacheKey(
+                statement,
+                parameterTypes,
+                values,
+                tableVersions,
+                accessControls,
+                user,
+                catalog,
+                schema,
+                path,
+                timeZoneKey,
+                locale,
+                systemProperties,
+                connectorProperties);
+    }
+
+    private static String describeAccessControls(TableInfo table)
+    {
+        StringBuilder description = new StringBuilder()
+                .append(table.getCatalog()).append('.').append(table.getSchema()).append('.').append(table.getTable())
+                .append(" filters=").append(table.getFilters());
+        for (ColumnInfo column : table.getColumns()) {
+            description.append(" ").append(column.getColumn()).append("=").append(column.getMasks());
+        }
+        return description.toString();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PlanCacheKey that = (PlanCacheKey) o;
+        return statement.equals(that.statement) &&
+                parameterTypes.equals(that.parameterTypes) &&
+                parameterValues.equals(that.parameterValues) &&
+                tableVersions.equals(that.tableVersions) &&
+                accessControls.equals(that.accessControls) &&
+                user.equals(that.user) &&
+                catalog.equals(that.catalog) &&
+                schema.equals(that.schema) &&
+                path.equals(that.path) &&
+                timeZoneKey.equals(that.timeZoneKey) &&
+                locale.equals(that.locale) &&
+                systemProperties.equals(that.systemProperties) &&
+                connectorProperties.equals(that.connectorProperties);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(statement, parameterTypes, parameterValues, tableVersions, accessControls, user, catalog, schema, path, timeZoneKey, locale, systemProperties, connectorProperties);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("statement", statement)
+                .add("parameterTypes", parameterTypes)
+                .add("parameterValues", parameterValues)
+                .add("tableVersions", tableVersions)
+                .add("user", user)
+                .toString();
+    }
+
+    private static final class TableVersion
+    {
+        private final CatalogName catalogName;
+        private final ConnectorTableHandle connectorHandle;
+        private final String dataVersion;
+
+        public TableVersion(CatalogName catalogName, ConnectorTableHandle connectorHandle, String dataVersion)
+        {
+            this.catalogName = requireNonNull(catalogName, "catalogName is null");
+            this.connectorHandle = requireNonNull(connectorHandle, "connectorHandle is null");
+            this.dataVersion = requireNonNull(dataVersion, "dataVersion is null");
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            TableVersion that = (TableVersion) o;
+            return catalogName.equals(that.catalogName) &&
+                    connectorHandle.equals(that.connectorHandle) &&
+                    dataVersion.equals(that.dataVersion);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(catalogName, connectorHandle, dataVersion);
+        }
+
+        @Override
+        public String toString()
+        {
+            return catalogName + ":" + connectorHandle + "@" + dataVersion;
+        }
+    }
+}
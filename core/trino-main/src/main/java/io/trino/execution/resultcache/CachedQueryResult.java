@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.resultcache;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.trino.execution.buffer.SerializedPage;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Results of a query served from the {@link QueryResultCache}. The query finishes once
+ * all the pages are consumed by the client, like a query whose output buffer is drained.
+ */
+public class CachedQueryResult
+{
+    private final List<SerializedPage> pages;
+    private final SettableFuture<?> consumed = SettableFuture.create();
+
+    public CachedQueryResult(List<SerializedPage> pages)
+    {
+        this.pages = ImmutableList.copyOf(requireNonNull(pages, "pages is null"));
+    }
+
+    public List<SerializedPage> getPages()
+    {
+        return pages;
+    }
+
+    public void setConsumed()
+    {
+        consumed.set(null);
+    }
+
+    public ListenableFuture<?> getConsumedFuture()
+    {
+        return consumed;
+    }
+}
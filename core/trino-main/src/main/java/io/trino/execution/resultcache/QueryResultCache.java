@@ -0,0 +1,50 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.resultcache;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.units.DataSize;
+import io.trino.execution.QueryManagerConfig;
+import io.trino.execution.SizeBoundedPageCache;
+import io.trino.execution.buffer.SerializedPage;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.util.Optional;
+
+/**
+ * Results of queries, kept on the coordinator.
+ */
+@ThreadSafe
+public class QueryResultCache
+        extends SizeBoundedPageCache<QueryResultCacheKey, SerializedPage>
+{
+    @Inject
+    public QueryResultCache(QueryManagerConfig config)
+    {
+        this(config.getResultCacheMaxSize(), config.getResultCacheMaxEntrySize());
+    }
+
+    @VisibleForTesting
+    public QueryResultCache(DataSize maxSize, DataSize maxEntrySize)
+    {
+        super(maxSize, maxEntrySize, QueryResultCacheKey::getRetainedSizeInBytes, SerializedPage::getRetainedSizeInBytes);
+    }
+
+    public Optional<CachedQueryResult> get(QueryResultCacheKey key)
+    {
+        return getPages(key).map(CachedQueryResult::new);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.resultcache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.SizeOf;
+import io.trino.Session;
+import io.trino.connector.CatalogName;
+import io.trino.cost.StatsAndCosts;
+import io.trino.metadata.Metadata;
+import io.trino.spi.type.TimeZoneKey;
+import io.trino.sql.planner.Plan;
+import io.trino.sql.planner.plan.IndexSourceNode;
+import io.trino.sql.planner.plan.OutputNode;
+import io.trino.sql.planner.plan.PlanNode;
+import io.trino.sql.planner.plan.SampleNode;
+import io.trino.sql.planner.plan.TableScanNode;
+import io.trino.sql.tree.Expression;
+import io.trino.sql.tree.FunctionCall;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.airlift.slice.SizeOf.estimatedSizeOf;
+import static io.trino.SystemSessionProperties.RESULT_CACHE_ENABLED;
+import static io.trino.sql.planner.DeterminismEvaluator.isQueryStartFunction;
+import static io.trino.sql.planner.ExpressionExtractor.extractExpressions;
+import static io.trino.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static io.trino.sql.planner.planprinter.PlanPrinter.textLogicalPlan;
+import static io.trino.sql.util.AstUtils.preOrder;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies the results of a query. The key consists of the optimized plan of the query, printed
+ * without estimates, the versions of the data of the scanned tables, and the parts of the session
+ * which can change the results without changing the plan.
+ */
+public final class QueryResultCacheKey
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(QueryResultCacheKey.class).instanceSize();
+
+    private final String plan;
+    private final List<String> dataVersions;
+    private final String user;
+    private final TimeZoneKey timeZoneKey;
+    private final Map<String, String> systemProperties;
+    private final Map<CatalogName, Map<String, String>> connectorProperties;
+
+    @VisibleForTesting
+    QueryResultCacheKey(
+            String plan,
+            List<String> dataVersions,
+            String user,
+            TimeZoneKey timeZoneKey,
+            Map<String, String> systemProperties,
+            Map<CatalogName, Map<String, String>> connectorProperties)
+    {
+        this.plan = requireNonNull(plan, "plan is null");
+        this.dataVersions = ImmutableList.copyOf(requireNonNull(dataVersions, "dataVersions is null"));
+        this.user = requireNonNull(user, "user is null");
+        this.timeZoneKey = requireNonNull(timeZoneKey, "timeZoneKey is null");
+        this.systemProperties = ImmutableMap.copyOf(requireNonNull(systemProperties, "systemProperties is null"));
+        this.connectorProperties = ImmutableMap.copyOf(requireNonNull(connectorProperties, "connectorProperties is null"));
+    }
+
+    /**
+     * Returns the key of the results of the plan, or empty if the results can not be cached, because
+     * the plan is not deterministic, for example it samples the rows, or the version of the data of a
+     * scanned table is unknown.
+     */
+    public static Optional<QueryResultCacheKey> createKey(Plan plan, Session session, Metadata metadata)
+    {
+        PlanNode root = plan.getRoot();
+        if (!(root instanceof OutputNode) || searchFrom(root).where(node -> node instanceof IndexSourceNode || node instanceof SampleNode).matches()) {
+            return Optional.empty();
+        }
+        for (Expression expression : extractExpressions(root)) {
+            if (!isCacheable(expression, metadata)) {
+                return Optional.empty();
+            }
+        }
+
+        ImmutableList.Builder<String> dataVersions = ImmutableList.builder();
+        for (TableScanNode tableScan : searchFrom(root).where(TableScanNode.class::isInstance).<TableScanNode>findAll()) {
+            Optional<String> dataVersion = metadata.getDataVersion(session, tableScan.getTable());
+            if (dataVersion.isEmpty()) {
+                return Optional.empty();
+            }
+            dataVersions.add(dataVersion.get());
+        }
+
+        Map<String, String> systemProperties = new HashMap<>(session.getSystemProperties());
+        systemProperties.remove(RESULT_CACHE_ENABLED);
+
+        return Optional.of(new QueryResultCacheKey(
+                textLogicalPlan(root, plan.getTypes(), metadata, StatsAndCosts.empty(), session, 0, false),
+                dataVersions.build(),
+                session.getUser(),
+                session.getTimeZoneKey(),
+                systemProperties,
+                session.getConnectorProperties()));
+    }
+
+    /**
+     * Returns true if the expression evaluates to the same values in all the queries, that is
+     * it is deterministic, and it does not depend on the start time of the query.
+     */
+    public static boolean isCacheable(Expression expression, Metadata metadata)
+    {
+        return preOrder(expression)
+                .filter(FunctionCall.class::isInstance)
+                .map(FunctionCall.class::cast)
+                .map(functionCall -> metadata.getFunctionMetadata(metadata.decodeFunction(functionCall.getName())))
+                .allMatch(function -> function.isDeterministic() && !isQueryStartFunction(function.getSignature().getName()));
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE +
+                estimatedSizeOf(plan) +
+                estimatedSizeOf(dataVersions, SizeOf::estimatedSizeOf) +
+                estimatedSizeOf(user) +
+                estimatedSizeOf(systemProperties, SizeOf::estimatedSizeOf, SizeOf::estimatedSizeOf) +
+                estimatedSizeOf(connectorProperties, catalog -> estimatedSizeOf(catalog.getCatalogName()), properties -> estimatedSizeOf(properties, SizeOf::estimatedSizeOf, SizeOf::estimatedSizeOf));
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        QueryResultCacheKey that = (QueryResultCacheKey) o;
+        return plan.equals(that.plan) &&
+                dataVersions.equals(that.dataVersions) &&
+                user.equals(that.user) &&
+                timeZoneKey.equals(that.timeZoneKey) &&
+                systemProperties.equals(that.systemProperties) &&
+                connectorProperties.equals(that.connectorProperties);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(plan, dataVersions, user, timeZoneKey, systemProperties, connectorProperties);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("dataVersions", dataVersions)
+                .add("user", user)
+                .add("timeZoneKey", timeZoneKey)
+                .add("systemProperties", systemProperties)
+                .add("connectorProperties", connectorProperties)
+                .toString();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.scheduler;
+
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
+import io.trino.sql.planner.plan.PlanFragmentId;
+
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Fragments producing the build sides of the broadcast joins of a query. The scheduler runs them
+ * before the rest of the query, and when one of them produces more data than may be broadcast,
+ * it aborts the query stages, and the query is planned again with the actual size of the build side.
+ */
+public class AdaptiveJoinDistribution
+{
+    private static final AdaptiveJoinDistribution DISABLED = new AdaptiveJoinDistribution(ImmutableSet.of(), DataSize.ofBytes(0), (fragmentId, outputSize) -> {});
+
+    private final Set<PlanFragmentId> buildFragments;
+    private final DataSize maxBroadcastSize;
+    private final Replanner replanner;
+
+    public AdaptiveJoinDistribution(Set<PlanFragmentId> buildFragments, DataSize maxBroadcastSize, Replanner replanner)
+    {
+        this.buildFragments = ImmutableSet.copyOf(requireNonNull(buildFragments, "buildFragments is null"));
+        this.maxBroadcastSize = requireNonNull(maxBroadcastSize, "maxBroadcastSize is null");
+        this.replanner = requireNonNull(replanner, "replanner is null");
+    }
+
+    public static AdaptiveJoinDistribution disabled()
+    {
+        return DISABLED;
+    }
+
+    public Set<PlanFragmentId> getBuildFragments()
+    {
+        return buildFragments;
+    }
+
+    public DataSize getMaxBroadcastSize()
+    {
+        return maxBroadcastSize;
+    }
+
+    public void replan(PlanFragmentId buildFragment, DataSize outputSize)
+    {
+        replanner.replan(buildFragment, outputSize);
+    }
+
+    public interface Replanner
+    {
+        /**
+         * Plans the query again, after the stages of the current plan were aborted, because the given
+         * build side fragment produced more data than may be broadcast.
+         */
+        void replan(PlanFragmentId buildFragment, DataSize outputSize);
+    }
+}
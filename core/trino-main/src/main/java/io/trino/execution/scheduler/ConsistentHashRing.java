@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.scheduler;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.XxHash64;
+import io.trino.metadata.InternalNode;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.util.Comparator.comparing;
+
+/**
+ * Maps keys to nodes by consistent hashing. Every node is placed at several points of a hash ring,
+ * and a key is mapped to the node of the first point following the hash of the key. Adding or
+ * removing a node only changes the mapping of the keys falling next to the points of that node.
+ */
+public class ConsistentHashRing
+{
+    private static final int DEFAULT_POINTS_PER_NODE = 100;
+
+    private final Set<InternalNode> nodes;
+    private final long[] pointHashes;
+    private final InternalNode[] pointNodes;
+
+    public ConsistentHashRing(Collection<InternalNode> nodes)
+    {
+        this(nodes, DEFAULT_POINTS_PER_NODE);
+    }
+
+    @VisibleForTesting
+    ConsistentHashRing(Collection<InternalNode> nodes, int pointsPerNode)
+    {
+        checkArgument(pointsPerNode > 0, "pointsPerNode must be positive");
+        this.nodes = ImmutableSet.copyOf(nodes);
+
+        // the points are added in the order of the node identifiers, so the colliding points are resolved
+        // in the same way regardless of the order of the nodes
+        TreeMap<Long, InternalNode> ring = new TreeMap<>();
+        this.nodes.stream()
+                .sorted(comparing(InternalNode::getNodeIdentifier))
+                .forEach(node -> {
+                    for (int point = 0; point < pointsPerNode; point++) {
+                        ring.putIfAbsent(hash(node.getNodeIdentifier() + "#" + point), node);
+                    }
+                });
+
+        pointHashes = new long[ring.size()];
+        pointNodes = new InternalNode[ring.size()];
+        int index = 0;
+        for (Map.Entry<Long, InternalNode> entry : ring.entrySet()) {
+            pointHashes[index] = entry.getKey();
+            pointNodes[index] = entry.getValue();
+            index++;
+        }
+    }
+
+    public Set<InternalNode> getNodes()
+    {
+        return nodes;
+    }
+
+    public Optional<InternalNode> getNode(String key)
+    {
+        if (pointHashes.length == 0) {
+            return Optional.empty();
+        }
+        int index = Arrays.binarySearch(pointHashes, hash(key));
+        if (index < 0) {
+            // the first point following the hash of the key, wrapping around the ring
+            index = -index - 1;
+            if (index == pointHashes.length) {
+                index = 0;
+            }
+        }
+        return Optional.of(pointNodes[index]);
+    }
+
+    private static long hash(String value)
+    {
+        return XxHash64.hash(utf8Slice(value));
+    }
+}
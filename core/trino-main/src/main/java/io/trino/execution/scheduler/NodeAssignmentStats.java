@@ -14,8 +14,10 @@
 package io.trino.execution.scheduler;
 
 import io.trino.execution.NodeTaskMap;
+import io.trino.execution.PartitionedSplitsInfo;
 import io.trino.execution.RemoteTask;
 import io.trino.metadata.InternalNode;
+import io.trino.spi.SplitWeight;
 
 import java.util.HashMap;
 import java.util.List;
@@ -23,28 +25,30 @@ import java.util.Map;
 import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.addExact;
+import static java.lang.Math.subtractExact;
 import static java.util.Objects.requireNonNull;
 
 public final class NodeAssignmentStats
 {
     private final NodeTaskMap nodeTaskMap;
-    private final Map<InternalNode, Integer> nodeTotalSplitCount;
+    private final Map<InternalNode, PartitionedSplitsInfo> nodeTotalSplitsInfo;
     private final Map<String, PendingSplitInfo> stageQueuedSplitInfo;
 
     public NodeAssignmentStats(NodeTaskMap nodeTaskMap, NodeMap nodeMap, List<RemoteTask> existingTasks)
     {
         this.nodeTaskMap = requireNonNull(nodeTaskMap, "nodeTaskMap is null");
         int nodeMapSize = requireNonNull(nodeMap, "nodeMap is null").getNodesByHostAndPort().size();
-        this.nodeTotalSplitCount = new HashMap<>(nodeMapSize);
+        this.nodeTotalSplitsInfo = new HashMap<>(nodeMapSize);
         this.stageQueuedSplitInfo = new HashMap<>(nodeMapSize);
 
         for (RemoteTask task : existingTasks) {
-            checkArgument(stageQueuedSplitInfo.put(task.getNodeId(), new PendingSplitInfo(task.getQueuedPartitionedSplitCount(), task.getUnacknowledgedPartitionedSplitCount())) == null, "A single stage may not have multiple tasks running on the same node");
+            checkArgument(stageQueuedSplitInfo.put(task.getNodeId(), new PendingSplitInfo(task.getQueuedPartitionedSplitsInfo(), task.getUnacknowledgedPartitionedSplitCount())) == null, "A single stage may not have multiple tasks running on the same node");
         }
 
         // pre-populate the assignment counts with zeros
         if (existingTasks.size() < nodeMapSize) {
-            Function<String, PendingSplitInfo> createEmptySplitInfo = (ignored) -> new PendingSplitInfo(0, 0);
+            Function<String, PendingSplitInfo> createEmptySplitInfo = (ignored) -> new PendingSplitInfo(PartitionedSplitsInfo.forZeroSplits(), 0);
             for (InternalNode node : nodeMap.getNodesByHostAndPort().values()) {
                 stageQueuedSplitInfo.computeIfAbsent(node.getNodeIdentifier(), createEmptySplitInfo);
             }
@@ -53,31 +57,49 @@ public final class NodeAssignmentStats
 
     public int getTotalSplitCount(InternalNode node)
     {
-        int nodeTotalSplits = nodeTotalSplitCount.computeIfAbsent(node, nodeTaskMap::getPartitionedSplitsOnNode);
+        int nodeTotalSplits = getNodeTotalSplitsInfo(node).getCount();
         PendingSplitInfo stageInfo = stageQueuedSplitInfo.get(node.getNodeIdentifier());
         return nodeTotalSplits + (stageInfo == null ? 0 : stageInfo.getAssignedSplitCount());
     }
 
+    public long getTotalSplitsWeight(InternalNode node)
+    {
+        long nodeTotalSplitsWeight = getNodeTotalSplitsInfo(node).getWeightSum();
+        PendingSplitInfo stageInfo = stageQueuedSplitInfo.get(node.getNodeIdentifier());
+        return addExact(nodeTotalSplitsWeight, stageInfo == null ? 0 : stageInfo.getAssignedSplitsWeight());
+    }
+
     public int getQueuedSplitCountForStage(InternalNode node)
     {
         PendingSplitInfo stageInfo = stageQueuedSplitInfo.get(node.getNodeIdentifier());
         return stageInfo == null ? 0 : stageInfo.getQueuedSplitCount();
     }
 
+    public long getQueuedSplitsWeightForStage(InternalNode node)
+    {
+        PendingSplitInfo stageInfo = stageQueuedSplitInfo.get(node.getNodeIdentifier());
+        return stageInfo == null ? 0 : stageInfo.getQueuedSplitsWeight();
+    }
+
     public int getUnacknowledgedSplitCountForStage(InternalNode node)
     {
         PendingSplitInfo stageInfo = stageQueuedSplitInfo.get(node.getNodeIdentifier());
         return stageInfo == null ? 0 : stageInfo.getUnacknowledgedSplitCount();
     }
 
-    public void addAssignedSplit(InternalNode node)
+    public void addAssignedSplit(InternalNode node, SplitWeight splitWeight)
     {
-        getOrCreateStageSplitInfo(node).addAssignedSplit();
+        getOrCreateStageSplitInfo(node).addAssignedSplit(splitWeight);
     }
 
-    public void removeAssignedSplit(InternalNode node)
+    public void removeAssignedSplit(InternalNode node, SplitWeight splitWeight)
     {
-        getOrCreateStageSplitInfo(node).removeAssignedSplit();
+        getOrCreateStageSplitInfo(node).removeAssignedSplit(splitWeight);
+    }
+
+    private PartitionedSplitsInfo getNodeTotalSplitsInfo(InternalNode node)
+    {
+        return nodeTotalSplitsInfo.computeIfAbsent(node, nodeTaskMap::getPartitionedSplitsOnNode);
     }
 
     private PendingSplitInfo getOrCreateStageSplitInfo(InternalNode node)
@@ -86,7 +108,7 @@ public final class NodeAssignmentStats
         // Avoids the extra per-invocation lambda allocation of computeIfAbsent since assigning a split to an existing task more common than creating a new task
         PendingSplitInfo stageInfo = stageQueuedSplitInfo.get(nodeId);
         if (stageInfo == null) {
-            stageInfo = new PendingSplitInfo(0, 0);
+            stageInfo = new PendingSplitInfo(PartitionedSplitsInfo.forZeroSplits(), 0);
             stageQueuedSplitInfo.put(nodeId, stageInfo);
         }
         return stageInfo;
@@ -94,13 +116,14 @@ public final class NodeAssignmentStats
 
     private static final class PendingSplitInfo
     {
-        private final int queuedSplitCount;
+        private final PartitionedSplitsInfo queuedSplitsInfo;
         private final int unacknowledgedSplitCount;
         private int assignedSplits;
+        private long assignedSplitsWeight;
 
-        private PendingSplitInfo(int queuedSplitCount, int unacknowledgedSplitCount)
+        private PendingSplitInfo(PartitionedSplitsInfo queuedSplitsInfo, int unacknowledgedSplitCount)
         {
-            this.queuedSplitCount = queuedSplitCount;
+            this.queuedSplitsInfo = requireNonNull(queuedSplitsInfo, "queuedSplitsInfo is null");
             this.unacknowledgedSplitCount = unacknowledgedSplitCount;
         }
 
@@ -109,9 +132,19 @@ public final class NodeAssignmentStats
             return assignedSplits;
         }
 
+        public long getAssignedSplitsWeight()
+        {
+            return assignedSplitsWeight;
+        }
+
         public int getQueuedSplitCount()
         {
-            return queuedSplitCount + assignedSplits;
+            return queuedSplitsInfo.getCount() + assignedSplits;
+        }
+
+        public long getQueuedSplitsWeight()
+        {
+            return addExact(queuedSplitsInfo.getWeightSum(), assignedSplitsWeight);
         }
 
         public int getUnacknowledgedSplitCount()
@@ -119,14 +152,16 @@ public final class NodeAssignmentStats
             return unacknowledgedSplitCount + assignedSplits;
         }
 
-        public void addAssignedSplit()
+        public void addAssignedSplit(SplitWeight splitWeight)
         {
             assignedSplits++;
+            assignedSplitsWeight = addExact(assignedSplitsWeight, splitWeight.getRawValue());
         }
 
-        public void removeAssignedSplit()
+        public void removeAssignedSplit(SplitWeight splitWeight)
         {
             assignedSplits--;
+            assignedSplitsWeight = subtractExact(assignedSplitsWeight, splitWeight.getRawValue());
         }
     }
 }
@@ -18,24 +18,30 @@ import io.trino.metadata.InternalNode;
 import io.trino.spi.HostAddress;
 
 import java.net.InetAddress;
+import java.util.Optional;
 import java.util.Set;
 
+import static java.util.Objects.requireNonNull;
+
 public class NodeMap
 {
     private final SetMultimap<HostAddress, InternalNode> nodesByHostAndPort;
     private final SetMultimap<InetAddress, InternalNode> nodesByHost;
     private final SetMultimap<NetworkLocation, InternalNode> workersByNetworkPath;
     private final Set<String> coordinatorNodeIds;
+    private final Optional<ConsistentHashRing> affinityRing;
 
     public NodeMap(SetMultimap<HostAddress, InternalNode> nodesByHostAndPort,
             SetMultimap<InetAddress, InternalNode> nodesByHost,
             SetMultimap<NetworkLocation, InternalNode> workersByNetworkPath,
-            Set<String> coordinatorNodeIds)
+            Set<String> coordinatorNodeIds,
+            Optional<ConsistentHashRing> affinityRing)
     {
         this.nodesByHostAndPort = nodesByHostAndPort;
         this.nodesByHost = nodesByHost;
         this.workersByNetworkPath = workersByNetworkPath;
         this.coordinatorNodeIds = coordinatorNodeIds;
+        this.affinityRing = requireNonNull(affinityRing, "affinityRing is null");
     }
 
     public SetMultimap<HostAddress, InternalNode> getNodesByHostAndPort()
@@ -57,4 +63,12 @@ public class NodeMap
     {
         return coordinatorNodeIds;
     }
+
+    /**
+     * Returns the ring of the nodes splits may be assigned to, when soft affinity scheduling is enabled.
+     */
+    public Optional<ConsistentHashRing> getAffinityRing()
+    {
+        return affinityRing;
+    }
 }
@@ -148,8 +148,8 @@ public class NodeScheduler
     public static SplitPlacementResult selectDistributionNodes(
             NodeMap nodeMap,
             NodeTaskMap nodeTaskMap,
-            int maxSplitsPerNode,
-            int maxPendingSplitsPerTask,
+            long maxSplitsWeightPerNode,
+            long maxPendingSplitsWeightPerTask,
             int maxUnacknowledgedSplitsPerTask,
             Set<Split> splits,
             List<RemoteTask> existingTasks,
@@ -165,25 +165,25 @@ public class NodeScheduler
 
             // if node is full, don't schedule now, which will push back on the scheduling of splits
             if (assignmentStats.getUnacknowledgedSplitCountForStage(node) < maxUnacknowledgedSplitsPerTask &&
-                    (assignmentStats.getTotalSplitCount(node) < maxSplitsPerNode || assignmentStats.getQueuedSplitCountForStage(node) < maxPendingSplitsPerTask)) {
+                    (assignmentStats.getTotalSplitsWeight(node) < maxSplitsWeightPerNode || assignmentStats.getQueuedSplitsWeightForStage(node) < maxPendingSplitsWeightPerTask)) {
                 assignments.put(node, split);
-                assignmentStats.addAssignedSplit(node);
+                assignmentStats.addAssignedSplit(node, split.getSplitWeight());
             }
             else {
                 blockedNodes.add(node);
             }
         }
 
-        ListenableFuture<?> blocked = toWhenHasSplitQueueSpaceFuture(blockedNodes, existingTasks, calculateLowWatermark(maxPendingSplitsPerTask));
+        ListenableFuture<?> blocked = toWhenHasSplitQueueSpaceFuture(blockedNodes, existingTasks, calculateLowWatermark(maxPendingSplitsWeightPerTask));
         return new SplitPlacementResult(blocked, ImmutableMultimap.copyOf(assignments));
     }
 
-    public static int calculateLowWatermark(int maxPendingSplitsPerTask)
+    public static long calculateLowWatermark(long maxPendingSplitsWeightPerTask)
     {
-        return (int) Math.ceil(maxPendingSplitsPerTask / 2.0);
+        return (long) Math.ceil(maxPendingSplitsWeightPerTask / 2.0);
     }
 
-    public static ListenableFuture<?> toWhenHasSplitQueueSpaceFuture(Set<InternalNode> blockedNodes, List<RemoteTask> existingTasks, int spaceThreshold)
+    public static ListenableFuture<?> toWhenHasSplitQueueSpaceFuture(Set<InternalNode> blockedNodes, List<RemoteTask> existingTasks, long weightSpaceThreshold)
     {
         if (blockedNodes.isEmpty()) {
             return immediateFuture(null);
@@ -196,7 +196,7 @@ public class NodeScheduler
                 .map(InternalNode::getNodeIdentifier)
                 .map(nodeToTaskMap::get)
                 .filter(Objects::nonNull)
-                .map(remoteTask -> remoteTask.whenSplitQueueHasSpace(spaceThreshold))
+                .map(remoteTask -> remoteTask.whenSplitQueueHasSpace(weightSpaceThreshold))
                 .collect(toImmutableList());
         if (blockedFutures.isEmpty()) {
             return immediateFuture(null);
@@ -204,13 +204,13 @@ public class NodeScheduler
         return whenAnyCompleteCancelOthers(blockedFutures);
     }
 
-    public static ListenableFuture<?> toWhenHasSplitQueueSpaceFuture(List<RemoteTask> existingTasks, int spaceThreshold)
+    public static ListenableFuture<?> toWhenHasSplitQueueSpaceFuture(List<RemoteTask> existingTasks, long weightSpaceThreshold)
     {
         if (existingTasks.isEmpty()) {
             return immediateFuture(null);
         }
         List<ListenableFuture<?>> stateChangeFutures = existingTasks.stream()
-                .map(remoteTask -> remoteTask.whenSplitQueueHasSpace(spaceThreshold))
+                .map(remoteTask -> remoteTask.whenSplitQueueHasSpace(weightSpaceThreshold))
                 .collect(toImmutableList());
         return whenAnyCompleteCancelOthers(stateChangeFutures);
     }
@@ -38,6 +38,7 @@ public class NodeSchedulerConfig
     private NodeSchedulerPolicy nodeSchedulerPolicy = NodeSchedulerPolicy.UNIFORM;
     private boolean optimizedLocalScheduling = true;
     private int maxUnacknowledgedSplitsPerTask = 500;
+    private boolean softAffinitySchedulingEnabled;
 
     @NotNull
     public NodeSchedulerPolicy getNodeSchedulerPolicy()
@@ -143,4 +144,17 @@ public class NodeSchedulerConfig
         this.optimizedLocalScheduling = optimizedLocalScheduling;
         return this;
     }
+
+    public boolean isSoftAffinitySchedulingEnabled()
+    {
+        return softAffinitySchedulingEnabled;
+    }
+
+    @Config("node-scheduler.soft-affinity-scheduling-enabled")
+    @ConfigDescription("Prefer scheduling the splits reading the same data on the same node, so that the node caches are reused")
+    public NodeSchedulerConfig setSoftAffinitySchedulingEnabled(boolean softAffinitySchedulingEnabled)
+    {
+        this.softAffinitySchedulingEnabled = softAffinitySchedulingEnabled;
+        return this;
+    }
 }
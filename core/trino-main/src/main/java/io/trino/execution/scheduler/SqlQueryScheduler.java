@@ -23,6 +23,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.concurrent.SetThreadName;
 import io.airlift.stats.TimeStat;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.trino.Session;
 import io.trino.connector.CatalogName;
@@ -36,6 +37,7 @@ import io.trino.execution.SqlStageExecution;
 import io.trino.execution.StageId;
 import io.trino.execution.StageInfo;
 import io.trino.execution.StageState;
+import io.trino.execution.TaskState;
 import io.trino.execution.TaskStatus;
 import io.trino.execution.buffer.OutputBuffers;
 import io.trino.execution.buffer.OutputBuffers.OutputBufferId;
@@ -121,7 +123,9 @@ public class SqlQueryScheduler
     private final SplitSchedulerStats schedulerStats;
     private final boolean summarizeTaskInfo;
     private final DynamicFilterService dynamicFilterService;
+    private final AdaptiveJoinDistribution adaptiveJoinDistribution;
     private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean replanned = new AtomicBoolean();
 
     public static SqlQueryScheduler createSqlQueryScheduler(
             QueryStateMachine queryStateMachine,
@@ -139,7 +143,9 @@ public class SqlQueryScheduler
             NodeTaskMap nodeTaskMap,
             ExecutionPolicy executionPolicy,
             SplitSchedulerStats schedulerStats,
-            DynamicFilterService dynamicFilterService)
+            DynamicFilterService dynamicFilterService,
+            int firstStageId,
+            AdaptiveJoinDistribution adaptiveJoinDistribution)
     {
         SqlQueryScheduler sqlQueryScheduler = new SqlQueryScheduler(
                 queryStateMachine,
@@ -157,7 +163,9 @@ public class SqlQueryScheduler
                 nodeTaskMap,
                 executionPolicy,
                 schedulerStats,
-                dynamicFilterService);
+                dynamicFilterService,
+                firstStageId,
+                adaptiveJoinDistribution);
         sqlQueryScheduler.initialize();
         return sqlQueryScheduler;
     }
@@ -178,13 +186,16 @@ public class SqlQueryScheduler
             NodeTaskMap nodeTaskMap,
             ExecutionPolicy executionPolicy,
             SplitSchedulerStats schedulerStats,
-            DynamicFilterService dynamicFilterService)
+            DynamicFilterService dynamicFilterService,
+            int firstStageId,
+            AdaptiveJoinDistribution adaptiveJoinDistribution)
     {
         this.queryStateMachine = requireNonNull(queryStateMachine, "queryStateMachine is null");
         this.executionPolicy = requireNonNull(executionPolicy, "schedulerPolicyFactory is null");
         this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
         this.summarizeTaskInfo = summarizeTaskInfo;
         this.dynamicFilterService = requireNonNull(dynamicFilterService, "dynamicFilterService is null");
+        this.adaptiveJoinDistribution = requireNonNull(adaptiveJoinDistribution, "adaptiveJoinDistribution is null");
 
         // todo come up with a better way to build this, or eliminate this map
         ImmutableMap.Builder<StageId, StageScheduler> stageSchedulers = ImmutableMap.builder();
@@ -196,7 +207,7 @@ public class SqlQueryScheduler
         OutputBufferId rootBufferId = Iterables.getOnlyElement(rootOutputBuffers.getBuffers().keySet());
         List<SqlStageExecution> stages = createStages(
                 (fragmentId, tasks, noMoreExchangeLocations) -> updateQueryOutputLocations(queryStateMachine, rootBufferId, tasks, noMoreExchangeLocations),
-                new AtomicInteger(),
+                new AtomicInteger(firstStageId),
                 plan.withBucketToPartition(Optional.of(new int[1])),
                 nodeScheduler,
                 remoteTaskFactory,
@@ -240,7 +251,8 @@ public class SqlQueryScheduler
 
         for (SqlStageExecution stage : stages.values()) {
             stage.addStateChangeListener(state -> {
-                if (queryStateMachine.isDone()) {
+                if (queryStateMachine.isDone() || replanned.get()) {
+                    // stages of a replanned query are aborted, and replaced by the stages of the new plan
                     return;
                 }
                 if (state == FAILED) {
@@ -261,12 +273,16 @@ public class SqlQueryScheduler
 
         // when query is done or any time a stage completes, attempt to transition query to "final query info ready"
         queryStateMachine.addStateChangeListener(newState -> {
-            if (newState.isDone()) {
+            if (newState.isDone() && !replanned.get()) {
                 queryStateMachine.updateQueryInfo(Optional.ofNullable(getStageInfo()));
             }
         });
         for (SqlStageExecution stage : stages.values()) {
-            stage.addFinalStageInfoListener(status -> queryStateMachine.updateQueryInfo(Optional.ofNullable(getStageInfo())));
+            stage.addFinalStageInfoListener(status -> {
+                if (!replanned.get()) {
+                    queryStateMachine.updateQueryInfo(Optional.ofNullable(getStageInfo()));
+                }
+            });
         }
     }
 
@@ -539,64 +555,14 @@ public class SqlQueryScheduler
     {
         try (SetThreadName ignored = new SetThreadName("Query-%s", queryStateMachine.getQueryId())) {
             Set<StageId> completedStages = new HashSet<>();
+            if (!adaptiveJoinDistribution.getBuildFragments().isEmpty() && scheduleBroadcastBuildSides(completedStages)) {
+                // the query was planned again, and the stages of this scheduler were aborted
+                return;
+            }
+
             ExecutionSchedule executionSchedule = executionPolicy.createExecutionSchedule(stages.values());
             while (!executionSchedule.isFinished()) {
-                List<ListenableFuture<?>> blockedStages = new ArrayList<>();
-                for (SqlStageExecution stage : executionSchedule.getStagesToSchedule()) {
-                    stage.beginScheduling();
-
-                    // perform some scheduling work
-                    ScheduleResult result = stageSchedulers.get(stage.getStageId())
-                            .schedule();
-
-                    // modify parent and children based on the results of the scheduling
-                    if (result.isFinished()) {
-                        stage.schedulingComplete();
-                    }
-                    else if (!result.getBlocked().isDone()) {
-                        blockedStages.add(result.getBlocked());
-                    }
-                    stageLinkages.get(stage.getStageId())
-                            .processScheduleResults(stage.getState(), result.getNewTasks());
-                    schedulerStats.getSplitsScheduledPerIteration().add(result.getSplitsScheduled());
-                    if (result.getBlockedReason().isPresent()) {
-                        switch (result.getBlockedReason().get()) {
-                            case WRITER_SCALING:
-                                // no-op
-                                break;
-                            case WAITING_FOR_SOURCE:
-                                schedulerStats.getWaitingForSource().update(1);
-                                break;
-                            case SPLIT_QUEUES_FULL:
-                                schedulerStats.getSplitQueuesFull().update(1);
-                                break;
-                            case MIXED_SPLIT_QUEUES_FULL_AND_WAITING_FOR_SOURCE:
-                            case NO_ACTIVE_DRIVER_GROUP:
-                                break;
-                            default:
-                                throw new UnsupportedOperationException("Unknown blocked reason: " + result.getBlockedReason().get());
-                        }
-                    }
-                }
-
-                // make sure to update stage linkage at least once per loop to catch async state changes (e.g., partial cancel)
-                for (SqlStageExecution stage : stages.values()) {
-                    if (!completedStages.contains(stage.getStageId()) && stage.getState().isDone()) {
-                        stageLinkages.get(stage.getStageId())
-                                .processScheduleResults(stage.getState(), ImmutableSet.of());
-                        completedStages.add(stage.getStageId());
-                    }
-                }
-
-                // wait for a state change and then schedule again
-                if (!blockedStages.isEmpty()) {
-                    try (TimeStat.BlockTimer timer = schedulerStats.getSleepTime().time()) {
-                        tryGetFutureValue(whenAnyComplete(blockedStages), 1, SECONDS);
-                    }
-                    for (ListenableFuture<?> blockedStage : blockedStages) {
-                        blockedStage.cancel(true);
-                    }
-                }
+                scheduleStages(executionSchedule, completedStages);
             }
 
             for (SqlStageExecution stage : stages.values()) {
@@ -630,6 +596,122 @@ public class SqlQueryScheduler
         }
     }
 
+    /**
+     * Schedules the build sides of the broadcast joins before the rest of the query, and plans the
+     * query again, when a build side produces more data than may be broadcast. The size of a build side
+     * is known when all its tasks finished processing, or when their output buffers are full, because
+     * the stages consuming the build side are not scheduled yet.
+     *
+     * @return true if the query was planned again
+     */
+    private boolean scheduleBroadcastBuildSides(Set<StageId> completedStages)
+    {
+        List<SqlStageExecution> buildStages = stages.values().stream()
+                .filter(stage -> adaptiveJoinDistribution.getBuildFragments().contains(stage.getFragment().getId()))
+                .collect(toImmutableList());
+        Set<SqlStageExecution> buildSideStages = new HashSet<>();
+        buildStages.forEach(stage -> addStageWithDescendants(stage.getStageId(), buildSideStages));
+
+        ExecutionSchedule executionSchedule = executionPolicy.createExecutionSchedule(buildSideStages);
+        long maxBroadcastBytes = adaptiveJoinDistribution.getMaxBroadcastSize().toBytes();
+        while (!queryStateMachine.isDone()) {
+            if (!executionSchedule.isFinished()) {
+                scheduleStages(executionSchedule, completedStages);
+            }
+            else {
+                tryGetFutureValue(queryStateMachine.getStateChange(queryStateMachine.getQueryState()), 100, MILLISECONDS);
+            }
+
+            boolean buildSidesKnown = true;
+            for (SqlStageExecution stage : buildStages) {
+                StageInfo stageInfo = stage.getStageInfo();
+                DataSize outputSize = stageInfo.getStageStats().getOutputDataSize();
+                if (outputSize.toBytes() > maxBroadcastBytes) {
+                    replanned.set(true);
+                    abort();
+                    adaptiveJoinDistribution.replan(stage.getFragment().getId(), outputSize);
+                    return true;
+                }
+                // the statistics of the tasks are up to date, when the state of the task info reflects the state of the task
+                buildSidesKnown &= stageInfo.getState().isDone() ||
+                        (stageInfo.getState() == FLUSHING && stageInfo.getTasks().stream().allMatch(task -> task.getTaskStatus().getState() == TaskState.FLUSHING || task.getTaskStatus().getState().isDone())) ||
+                        stageInfo.getTasks().stream().anyMatch(task -> task.getTaskStatus().isOutputBufferOverutilized());
+            }
+            if (buildSidesKnown) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void addStageWithDescendants(StageId stageId, Set<SqlStageExecution> result)
+    {
+        result.add(stages.get(stageId));
+        for (StageId childStageId : stageLinkages.get(stageId).getChildStageIds()) {
+            addStageWithDescendants(childStageId, result);
+        }
+    }
+
+    private void scheduleStages(ExecutionSchedule executionSchedule, Set<StageId> completedStages)
+    {
+        List<ListenableFuture<?>> blockedStages = new ArrayList<>();
+        for (SqlStageExecution stage : executionSchedule.getStagesToSchedule()) {
+            stage.beginScheduling();
+
+            // perform some scheduling work
+            ScheduleResult result = stageSchedulers.get(stage.getStageId())
+                    .schedule();
+
+            // modify parent and children based on the results of the scheduling
+            if (result.isFinished()) {
+                stage.schedulingComplete();
+            }
+            else if (!result.getBlocked().isDone()) {
+                blockedStages.add(result.getBlocked());
+            }
+            stageLinkages.get(stage.getStageId())
+                    .processScheduleResults(stage.getState(), result.getNewTasks());
+            schedulerStats.getSplitsScheduledPerIteration().add(result.getSplitsScheduled());
+            if (result.getBlockedReason().isPresent()) {
+                switch (result.getBlockedReason().get()) {
+                    case WRITER_SCALING:
+                        // no-op
+                        break;
+                    case WAITING_FOR_SOURCE:
+                        schedulerStats.getWaitingForSource().update(1);
+                        break;
+                    case SPLIT_QUEUES_FULL:
+                        schedulerStats.getSplitQueuesFull().update(1);
+                        break;
+                    case MIXED_SPLIT_QUEUES_FULL_AND_WAITING_FOR_SOURCE:
+                    case NO_ACTIVE_DRIVER_GROUP:
+                        break;
+                    default:
+                        throw new UnsupportedOperationException("Unknown blocked reason: " + result.getBlockedReason().get());
+                }
+            }
+        }
+
+        // make sure to update stage linkage at least once per loop to catch async state changes (e.g., partial cancel)
+        for (SqlStageExecution stage : stages.values()) {
+            if (!completedStages.contains(stage.getStageId()) && stage.getState().isDone()) {
+                stageLinkages.get(stage.getStageId())
+                        .processScheduleResults(stage.getState(), ImmutableSet.of());
+                completedStages.add(stage.getStageId());
+            }
+        }
+
+        // wait for a state change and then schedule again
+        if (!blockedStages.isEmpty()) {
+            try (TimeStat.BlockTimer timer = schedulerStats.getSleepTime().time()) {
+                tryGetFutureValue(whenAnyComplete(blockedStages), 1, SECONDS);
+            }
+            for (ListenableFuture<?> blockedStage : blockedStages) {
+                blockedStage.cancel(true);
+            }
+        }
+    }
+
     public void cancelStage(StageId stageId)
     {
         try (SetThreadName ignored = new SetThreadName("Query-%s", queryStateMachine.getQueryId())) {
@@ -58,8 +58,8 @@ public class TopologyAwareNodeSelector
     private final boolean includeCoordinator;
     private final AtomicReference<Supplier<NodeMap>> nodeMap;
     private final int minCandidates;
-    private final int maxSplitsPerNode;
-    private final int maxPendingSplitsPerTask;
+    private final long maxSplitsWeightPerNode;
+    private final long maxPendingSplitsWeightPerTask;
     private final int maxUnacknowledgedSplitsPerTask;
     private final List<CounterStat> topologicalSplitCounters;
     private final NetworkTopology networkTopology;
@@ -70,8 +70,8 @@ public class TopologyAwareNodeSelector
             boolean includeCoordinator,
             Supplier<NodeMap> nodeMap,
             int minCandidates,
-            int maxSplitsPerNode,
-            int maxPendingSplitsPerTask,
+            long maxSplitsWeightPerNode,
+            long maxPendingSplitsWeightPerTask,
             int maxUnacknowledgedSplitsPerTask,
             List<CounterStat> topologicalSplitCounters,
             NetworkTopology networkTopology)
@@ -81,8 +81,8 @@ public class TopologyAwareNodeSelector
         this.includeCoordinator = includeCoordinator;
         this.nodeMap = new AtomicReference<>(nodeMap);
         this.minCandidates = minCandidates;
-        this.maxSplitsPerNode = maxSplitsPerNode;
-        this.maxPendingSplitsPerTask = maxPendingSplitsPerTask;
+        this.maxSplitsWeightPerNode = maxSplitsWeightPerNode;
+        this.maxPendingSplitsWeightPerTask = maxPendingSplitsWeightPerTask;
         this.maxUnacknowledgedSplitsPerTask = maxUnacknowledgedSplitsPerTask;
         checkArgument(maxUnacknowledgedSplitsPerTask > 0, "maxUnacknowledgedSplitsPerTask must be > 0, found: %s", maxUnacknowledgedSplitsPerTask);
         this.topologicalSplitCounters = requireNonNull(topologicalSplitCounters, "topologicalSplitCounters is null");
@@ -132,10 +132,10 @@ public class TopologyAwareNodeSelector
                     log.debug("No nodes available to schedule %s. Available nodes %s", split, nodeMap.getNodesByHost().keys());
                     throw new TrinoException(NO_NODES_AVAILABLE, "No nodes available to run query");
                 }
-                InternalNode chosenNode = bestNodeSplitCount(candidateNodes.iterator(), minCandidates, maxPendingSplitsPerTask, assignmentStats);
+                InternalNode chosenNode = bestNodeSplitCount(candidateNodes.iterator(), minCandidates, maxPendingSplitsWeightPerTask, assignmentStats);
                 if (chosenNode != null) {
                     assignment.put(chosenNode, split);
-                    assignmentStats.addAssignedSplit(chosenNode);
+                    assignmentStats.addAssignedSplit(chosenNode, split.getSplitWeight());
                 }
                 // Exact node set won't matter, if a split is waiting for any node
                 else if (!splitWaitingForAnyNode) {
@@ -169,7 +169,7 @@ public class TopologyAwareNodeSelector
                         continue;
                     }
                     Set<InternalNode> nodes = nodeMap.getWorkersByNetworkPath().get(location);
-                    chosenNode = bestNodeSplitCount(new ResettableRandomizedIterator<>(nodes), minCandidates, calculateMaxPendingSplits(i, depth), assignmentStats);
+                    chosenNode = bestNodeSplitCount(new ResettableRandomizedIterator<>(nodes), minCandidates, calculateMaxPendingSplitsWeight(i, depth), assignmentStats);
                     if (chosenNode != null) {
                         chosenDepth = i;
                         break;
@@ -179,7 +179,7 @@ public class TopologyAwareNodeSelector
             }
             if (chosenNode != null) {
                 assignment.put(chosenNode, split);
-                assignmentStats.addAssignedSplit(chosenNode);
+                assignmentStats.addAssignedSplit(chosenNode, split.getSplitWeight());
                 topologicCounters[chosenDepth]++;
             }
             else {
@@ -193,7 +193,7 @@ public class TopologyAwareNodeSelector
         }
 
         ListenableFuture<?> blocked;
-        int maxPendingForWildcardNetworkAffinity = calculateMaxPendingSplits(0, topologicalSplitCounters.size() - 1);
+        long maxPendingForWildcardNetworkAffinity = calculateMaxPendingSplitsWeight(0, topologicalSplitCounters.size() - 1);
         if (splitWaitingForAnyNode) {
             blocked = toWhenHasSplitQueueSpaceFuture(existingTasks, calculateLowWatermark(maxPendingForWildcardNetworkAffinity));
         }
@@ -208,40 +208,40 @@ public class TopologyAwareNodeSelector
      * splitAffinity. A split with zero affinity can only fill half the queue, whereas one that matches
      * exactly can fill the entire queue.
      */
-    private int calculateMaxPendingSplits(int splitAffinity, int totalDepth)
+    private long calculateMaxPendingSplitsWeight(int splitAffinity, int totalDepth)
     {
         if (totalDepth == 0) {
-            return maxPendingSplitsPerTask;
+            return maxPendingSplitsWeightPerTask;
         }
         // Use half the queue for any split
         // Reserve the other half for splits that have some amount of network affinity
         double queueFraction = 0.5 * (1.0 + splitAffinity / (double) totalDepth);
-        return (int) Math.ceil(maxPendingSplitsPerTask * queueFraction);
+        return (long) Math.ceil(maxPendingSplitsWeightPerTask * queueFraction);
     }
 
     @Override
     public SplitPlacementResult computeAssignments(Set<Split> splits, List<RemoteTask> existingTasks, BucketNodeMap bucketNodeMap)
     {
-        return selectDistributionNodes(nodeMap.get().get(), nodeTaskMap, maxSplitsPerNode, maxPendingSplitsPerTask, maxUnacknowledgedSplitsPerTask, splits, existingTasks, bucketNodeMap);
+        return selectDistributionNodes(nodeMap.get().get(), nodeTaskMap, maxSplitsWeightPerNode, maxPendingSplitsWeightPerTask, maxUnacknowledgedSplitsPerTask, splits, existingTasks, bucketNodeMap);
     }
 
     @Nullable
-    private InternalNode bestNodeSplitCount(Iterator<InternalNode> candidates, int minCandidatesWhenFull, int maxPendingSplitsPerTask, NodeAssignmentStats assignmentStats)
+    private InternalNode bestNodeSplitCount(Iterator<InternalNode> candidates, int minCandidatesWhenFull, long maxPendingSplitsWeightPerTask, NodeAssignmentStats assignmentStats)
     {
         InternalNode bestQueueNotFull = null;
-        int min = Integer.MAX_VALUE;
+        long minWeight = Long.MAX_VALUE;
         int fullCandidatesConsidered = 0;
 
         while (candidates.hasNext() && (fullCandidatesConsidered < minCandidatesWhenFull || bestQueueNotFull == null)) {
             InternalNode node = candidates.next();
             boolean hasUnacknowledgedSplitSpace = assignmentStats.getUnacknowledgedSplitCountForStage(node) < maxUnacknowledgedSplitsPerTask;
-            if (hasUnacknowledgedSplitSpace && assignmentStats.getTotalSplitCount(node) < maxSplitsPerNode) {
+            if (hasUnacknowledgedSplitSpace && assignmentStats.getTotalSplitsWeight(node) < maxSplitsWeightPerNode) {
                 return node;
             }
             fullCandidatesConsidered++;
-            int totalSplitCount = assignmentStats.getQueuedSplitCountForStage(node);
-            if (hasUnacknowledgedSplitSpace && totalSplitCount < min && totalSplitCount < maxPendingSplitsPerTask) {
-                min = totalSplitCount;
+            long queuedSplitsWeight = assignmentStats.getQueuedSplitsWeightForStage(node);
+            if (hasUnacknowledgedSplitSpace && queuedSplitsWeight < minWeight && queuedSplitsWeight < maxPendingSplitsWeightPerTask) {
+                minWeight = queuedSplitsWeight;
                 bestQueueNotFull = node;
             }
         }
@@ -28,6 +28,7 @@ import io.trino.metadata.InternalNode;
 import io.trino.metadata.InternalNodeManager;
 import io.trino.metadata.Split;
 import io.trino.spi.HostAddress;
+import io.trino.spi.SplitWeight;
 import io.trino.spi.TrinoException;
 
 import java.net.InetAddress;
@@ -51,7 +52,7 @@ import static io.trino.execution.scheduler.NodeScheduler.selectExactNodes;
 import static io.trino.execution.scheduler.NodeScheduler.selectNodes;
 import static io.trino.execution.scheduler.NodeScheduler.toWhenHasSplitQueueSpaceFuture;
 import static io.trino.spi.StandardErrorCode.NO_NODES_AVAILABLE;
-import static java.util.Comparator.comparingInt;
+import static java.util.Comparator.comparingLong;
 import static java.util.Objects.requireNonNull;
 
 public class UniformNodeSelector
@@ -64,8 +65,8 @@ public class UniformNodeSelector
     private final boolean includeCoordinator;
     private final AtomicReference<Supplier<NodeMap>> nodeMap;
     private final int minCandidates;
-    private final int maxSplitsPerNode;
-    private final int maxPendingSplitsPerTask;
+    private final long maxSplitsWeightPerNode;
+    private final long maxPendingSplitsWeightPerTask;
     private final int maxUnacknowledgedSplitsPerTask;
     private final boolean optimizedLocalScheduling;
 
@@ -75,8 +76,8 @@ public class UniformNodeSelector
             boolean includeCoordinator,
             Supplier<NodeMap> nodeMap,
             int minCandidates,
-            int maxSplitsPerNode,
-            int maxPendingSplitsPerTask,
+            long maxSplitsWeightPerNode,
+            long maxPendingSplitsWeightPerTask,
             int maxUnacknowledgedSplitsPerTask,
             boolean optimizedLocalScheduling)
     {
@@ -85,8 +86,8 @@ public class UniformNodeSelector
         this.includeCoordinator = includeCoordinator;
         this.nodeMap = new AtomicReference<>(nodeMap);
         this.minCandidates = minCandidates;
-        this.maxSplitsPerNode = maxSplitsPerNode;
-        this.maxPendingSplitsPerTask = maxPendingSplitsPerTask;
+        this.maxSplitsWeightPerNode = maxSplitsWeightPerNode;
+        this.maxPendingSplitsWeightPerTask = maxPendingSplitsWeightPerTask;
         this.maxUnacknowledgedSplitsPerTask = maxUnacknowledgedSplitsPerTask;
         checkArgument(maxUnacknowledgedSplitsPerTask > 0, "maxUnacknowledgedSplitsPerTask must be > 0, found: %s", maxUnacknowledgedSplitsPerTask);
         this.optimizedLocalScheduling = optimizedLocalScheduling;
@@ -138,12 +139,12 @@ public class UniformNodeSelector
                     List<InternalNode> candidateNodes = selectExactNodes(nodeMap, split.getAddresses(), includeCoordinator);
 
                     Optional<InternalNode> chosenNode = candidateNodes.stream()
-                            .filter(ownerNode -> assignmentStats.getTotalSplitCount(ownerNode) < maxSplitsPerNode && assignmentStats.getUnacknowledgedSplitCountForStage(ownerNode) < maxUnacknowledgedSplitsPerTask)
-                            .min(comparingInt(assignmentStats::getTotalSplitCount));
+                            .filter(ownerNode -> assignmentStats.getTotalSplitsWeight(ownerNode) < maxSplitsWeightPerNode && assignmentStats.getUnacknowledgedSplitCountForStage(ownerNode) < maxUnacknowledgedSplitsPerTask)
+                            .min(comparingLong(assignmentStats::getTotalSplitsWeight));
 
                     if (chosenNode.isPresent()) {
                         assignment.put(chosenNode.get(), split);
-                        assignmentStats.addAssignedSplit(chosenNode.get());
+                        assignmentStats.addAssignedSplit(chosenNode.get(), split.getSplitWeight());
                         splitsToBeRedistributed = true;
                         continue;
                     }
@@ -156,6 +157,18 @@ public class UniformNodeSelector
         }
 
         for (Split split : remainingSplits) {
+            // soft affinity prefers the node the split is mapped to by its affinity key, unless the node is saturated
+            if (split.isRemotelyAccessible() && split.getAffinityKey().isPresent() && nodeMap.getAffinityRing().isPresent()) {
+                Optional<InternalNode> preferredNode = nodeMap.getAffinityRing().get().getNode(split.getAffinityKey().get());
+                if (preferredNode.isPresent()
+                        && assignmentStats.getTotalSplitsWeight(preferredNode.get()) < maxSplitsWeightPerNode
+                        && assignmentStats.getUnacknowledgedSplitCountForStage(preferredNode.get()) < maxUnacknowledgedSplitsPerTask) {
+                    assignment.put(preferredNode.get(), split);
+                    assignmentStats.addAssignedSplit(preferredNode.get(), split.getSplitWeight());
+                    continue;
+                }
+            }
+
             randomCandidates.reset();
 
             List<InternalNode> candidateNodes;
@@ -171,28 +184,28 @@ public class UniformNodeSelector
             }
 
             InternalNode chosenNode = null;
-            int min = Integer.MAX_VALUE;
+            long minWeight = Long.MAX_VALUE;
 
             for (InternalNode node : candidateNodes) {
-                int totalSplitCount = assignmentStats.getTotalSplitCount(node);
-                if (totalSplitCount < min && totalSplitCount < maxSplitsPerNode && assignmentStats.getUnacknowledgedSplitCountForStage(node) < maxUnacknowledgedSplitsPerTask) {
+                long totalSplitsWeight = assignmentStats.getTotalSplitsWeight(node);
+                if (totalSplitsWeight < minWeight && totalSplitsWeight < maxSplitsWeightPerNode && assignmentStats.getUnacknowledgedSplitCountForStage(node) < maxUnacknowledgedSplitsPerTask) {
                     chosenNode = node;
-                    min = totalSplitCount;
+                    minWeight = totalSplitsWeight;
                 }
             }
             if (chosenNode == null) {
-                // min is guaranteed to be MAX_VALUE at this line
+                // minWeight is guaranteed to be MAX_VALUE at this line
                 for (InternalNode node : candidateNodes) {
-                    int totalSplitCount = assignmentStats.getQueuedSplitCountForStage(node);
-                    if (totalSplitCount < min && totalSplitCount < maxPendingSplitsPerTask && assignmentStats.getUnacknowledgedSplitCountForStage(node) < maxUnacknowledgedSplitsPerTask) {
+                    long queuedSplitsWeight = assignmentStats.getQueuedSplitsWeightForStage(node);
+                    if (queuedSplitsWeight < minWeight && queuedSplitsWeight < maxPendingSplitsWeightPerTask && assignmentStats.getUnacknowledgedSplitCountForStage(node) < maxUnacknowledgedSplitsPerTask) {
                         chosenNode = node;
-                        min = totalSplitCount;
+                        minWeight = queuedSplitsWeight;
                     }
                 }
             }
             if (chosenNode != null) {
                 assignment.put(chosenNode, split);
-                assignmentStats.addAssignedSplit(chosenNode);
+                assignmentStats.addAssignedSplit(chosenNode, split.getSplitWeight());
             }
             else {
                 if (split.isRemotelyAccessible()) {
@@ -207,10 +220,10 @@ public class UniformNodeSelector
 
         ListenableFuture<?> blocked;
         if (splitWaitingForAnyNode) {
-            blocked = toWhenHasSplitQueueSpaceFuture(existingTasks, calculateLowWatermark(maxPendingSplitsPerTask));
+            blocked = toWhenHasSplitQueueSpaceFuture(existingTasks, calculateLowWatermark(maxPendingSplitsWeightPerTask));
         }
         else {
-            blocked = toWhenHasSplitQueueSpaceFuture(blockedExactNodes, existingTasks, calculateLowWatermark(maxPendingSplitsPerTask));
+            blocked = toWhenHasSplitQueueSpaceFuture(blockedExactNodes, existingTasks, calculateLowWatermark(maxPendingSplitsWeightPerTask));
         }
 
         if (splitsToBeRedistributed) {
@@ -222,12 +235,12 @@ public class UniformNodeSelector
     @Override
     public SplitPlacementResult computeAssignments(Set<Split> splits, List<RemoteTask> existingTasks, BucketNodeMap bucketNodeMap)
     {
-        return selectDistributionNodes(nodeMap.get().get(), nodeTaskMap, maxSplitsPerNode, maxPendingSplitsPerTask, maxUnacknowledgedSplitsPerTask, splits, existingTasks, bucketNodeMap);
+        return selectDistributionNodes(nodeMap.get().get(), nodeTaskMap, maxSplitsWeightPerNode, maxPendingSplitsWeightPerTask, maxUnacknowledgedSplitsPerTask, splits, existingTasks, bucketNodeMap);
     }
 
     /**
      * The method tries to make the distribution of splits more uniform. All nodes are arranged into a maxHeap and a minHeap
-     * based on the number of splits that are assigned to them. Splits are redistributed, one at a time, from a maxNode to a
+     * based on the weight of the splits that are assigned to them. Splits are redistributed, one at a time, from a maxNode to a
      * minNode until we have as uniform a distribution as possible.
      *
      * @param assignment the node-splits multimap after the first and the second stage
@@ -250,12 +263,12 @@ public class UniformNodeSelector
 
         IndexedPriorityQueue<InternalNode> maxNodes = new IndexedPriorityQueue<>();
         for (InternalNode node : assignment.keySet()) {
-            maxNodes.addOrUpdate(node, assignmentStats.getTotalSplitCount(node));
+            maxNodes.addOrUpdate(node, assignmentStats.getTotalSplitsWeight(node));
         }
 
         IndexedPriorityQueue<InternalNode> minNodes = new IndexedPriorityQueue<>();
         for (InternalNode node : allNodes) {
-            minNodes.addOrUpdate(node, Long.MAX_VALUE - assignmentStats.getTotalSplitCount(node));
+            minNodes.addOrUpdate(node, Long.MAX_VALUE - assignmentStats.getTotalSplitsWeight(node));
         }
 
         while (true) {
@@ -271,27 +284,27 @@ public class UniformNodeSelector
             // among nodes in a cluster won't be fully uniform (e.g because hash function with non-uniform
             // distribution is used like consistent hashing). In such case it makes sense to assign splits to nodes
             // with data because of potential savings in network throughput and CPU time.
-            // The difference of 5 between node with maximum and minimum splits is a tradeoff between ratio of
-            // misassigned splits and assignment uniformity. Using larger numbers doesn't reduce the number of
+            // The difference of the weight of 5 standard splits between node with maximum and minimum splits is a tradeoff
+            // between ratio of misassigned splits and assignment uniformity. Using larger numbers doesn't reduce the number of
             // misassigned splits greatly (in absolute values).
-            if (assignmentStats.getTotalSplitCount(maxNode) - assignmentStats.getTotalSplitCount(minNode) <= 5) {
+            if (assignmentStats.getTotalSplitsWeight(maxNode) - assignmentStats.getTotalSplitsWeight(minNode) <= SplitWeight.rawValueForStandardSplitCount(5)) {
                 return;
             }
 
             // move split from max to min
-            redistributeSplit(assignment, maxNode, minNode, nodeMap.getNodesByHost());
-            assignmentStats.removeAssignedSplit(maxNode);
-            assignmentStats.addAssignedSplit(minNode);
+            Split redistributedSplit = redistributeSplit(assignment, maxNode, minNode, nodeMap.getNodesByHost());
+            assignmentStats.removeAssignedSplit(maxNode, redistributedSplit.getSplitWeight());
+            assignmentStats.addAssignedSplit(minNode, redistributedSplit.getSplitWeight());
 
             // add max back into maxNodes only if it still has assignments
             if (assignment.containsKey(maxNode)) {
-                maxNodes.addOrUpdate(maxNode, assignmentStats.getTotalSplitCount(maxNode));
+                maxNodes.addOrUpdate(maxNode, assignmentStats.getTotalSplitsWeight(maxNode));
             }
 
             // Add or update both the Priority Queues with the updated node priorities
-            maxNodes.addOrUpdate(minNode, assignmentStats.getTotalSplitCount(minNode));
-            minNodes.addOrUpdate(minNode, Long.MAX_VALUE - assignmentStats.getTotalSplitCount(minNode));
-            minNodes.addOrUpdate(maxNode, Long.MAX_VALUE - assignmentStats.getTotalSplitCount(maxNode));
+            maxNodes.addOrUpdate(minNode, assignmentStats.getTotalSplitsWeight(minNode));
+            minNodes.addOrUpdate(minNode, Long.MAX_VALUE - assignmentStats.getTotalSplitsWeight(minNode));
+            minNodes.addOrUpdate(maxNode, Long.MAX_VALUE - assignmentStats.getTotalSplitsWeight(maxNode));
         }
     }
 
@@ -299,9 +312,11 @@ public class UniformNodeSelector
      * The method selects and removes a split from the fromNode and assigns it to the toNode. There is an attempt to
      * redistribute a Non-local split if possible. This case is possible when there are multiple queries running
      * simultaneously. If a Non-local split cannot be found in the maxNode, any split is selected randomly and reassigned.
+     *
+     * @return the redistributed split
      */
     @VisibleForTesting
-    public static void redistributeSplit(Multimap<InternalNode, Split> assignment, InternalNode fromNode, InternalNode toNode, SetMultimap<InetAddress, InternalNode> nodesByHost)
+    public static Split redistributeSplit(Multimap<InternalNode, Split> assignment, InternalNode fromNode, InternalNode toNode, SetMultimap<InetAddress, InternalNode> nodesByHost)
     {
         Iterator<Split> splitIterator = assignment.get(fromNode).iterator();
         Split splitToBeRedistributed = null;
@@ -320,6 +335,7 @@ public class UniformNodeSelector
         }
         splitIterator.remove();
         assignment.put(toNode, splitToBeRedistributed);
+        return splitToBeRedistributed;
     }
 
     /**
@@ -26,6 +26,7 @@ import io.trino.execution.NodeTaskMap;
 import io.trino.metadata.InternalNode;
 import io.trino.metadata.InternalNodeManager;
 import io.trino.spi.HostAddress;
+import io.trino.spi.SplitWeight;
 
 import javax.inject.Inject;
 
@@ -52,13 +53,18 @@ public class UniformNodeSelectorFactory
     private final Cache<InternalNode, Boolean> inaccessibleNodeLogCache = CacheBuilder.newBuilder()
             .expireAfterWrite(30, TimeUnit.SECONDS)
             .build();
+    // the rings are shared by the node maps with the same nodes, since the node maps are recreated frequently
+    private final Cache<Set<InternalNode>, ConsistentHashRing> affinityRings = CacheBuilder.newBuilder()
+            .maximumSize(100)
+            .build();
 
     private final InternalNodeManager nodeManager;
     private final int minCandidates;
     private final boolean includeCoordinator;
-    private final int maxSplitsPerNode;
-    private final int maxPendingSplitsPerTask;
+    private final long maxSplitsWeightPerNode;
+    private final long maxPendingSplitsWeightPerTask;
     private final boolean optimizedLocalScheduling;
+    private final boolean softAffinitySchedulingEnabled;
     private final NodeTaskMap nodeTaskMap;
     private final Duration nodeMapMemoizationDuration;
 
@@ -85,11 +91,15 @@ public class UniformNodeSelectorFactory
         this.nodeManager = nodeManager;
         this.minCandidates = config.getMinCandidates();
         this.includeCoordinator = config.isIncludeCoordinator();
-        this.maxSplitsPerNode = config.getMaxSplitsPerNode();
-        this.maxPendingSplitsPerTask = config.getMaxPendingSplitsPerTask();
+        int maxSplitsPerNode = config.getMaxSplitsPerNode();
+        int maxPendingSplitsPerTask = config.getMaxPendingSplitsPerTask();
         this.optimizedLocalScheduling = config.getOptimizedLocalScheduling();
+        this.softAffinitySchedulingEnabled = config.isSoftAffinitySchedulingEnabled();
         this.nodeTaskMap = requireNonNull(nodeTaskMap, "nodeTaskMap is null");
         checkArgument(maxSplitsPerNode >= maxPendingSplitsPerTask, "maxSplitsPerNode must be > maxPendingSplitsPerTask");
+        // the limits are configured as the number of standard splits
+        this.maxSplitsWeightPerNode = SplitWeight.rawValueForStandardSplitCount(maxSplitsPerNode);
+        this.maxPendingSplitsWeightPerTask = SplitWeight.rawValueForStandardSplitCount(maxPendingSplitsPerTask);
         this.nodeMapMemoizationDuration = nodeMapMemoizationDuration;
     }
 
@@ -116,8 +126,8 @@ public class UniformNodeSelectorFactory
                 includeCoordinator,
                 nodeMap,
                 minCandidates,
-                maxSplitsPerNode,
-                maxPendingSplitsPerTask,
+                maxSplitsWeightPerNode,
+                maxPendingSplitsWeightPerTask,
                 getMaxUnacknowledgedSplitsPerTask(session),
                 optimizedLocalScheduling);
     }
@@ -149,6 +159,14 @@ public class UniformNodeSelectorFactory
             }
         }
 
-        return new NodeMap(byHostAndPort.build(), byHost.build(), ImmutableSetMultimap.of(), coordinatorNodeIds);
+        Optional<ConsistentHashRing> affinityRing = Optional.empty();
+        if (softAffinitySchedulingEnabled) {
+            Set<InternalNode> affinityNodes = nodes.stream()
+                    .filter(node -> includeCoordinator || !coordinatorNodeIds.contains(node.getNodeIdentifier()))
+                    .collect(toImmutableSet());
+            affinityRing = Optional.of(affinityRings.asMap().computeIfAbsent(affinityNodes, ConsistentHashRing::new));
+        }
+
+        return new NodeMap(byHostAndPort.build(), byHost.build(), ImmutableSetMultimap.of(), coordinatorNodeIds, affinityRing);
     }
 }
@@ -233,6 +233,7 @@ import io.trino.spi.function.InvocationConvention;
 import io.trino.spi.function.OperatorType;
 import io.trino.spi.type.TypeOperators;
 import io.trino.sql.DynamicFilters;
+import io.trino.sql.ParameterPlaceholders;
 import io.trino.sql.analyzer.FeaturesConfig;
 import io.trino.sql.tree.QualifiedName;
 import io.trino.type.BigintOperators;
@@ -545,6 +546,7 @@ public class FunctionRegistry
                 .scalar(TryFunction.class)
                 .scalar(ConcatWsFunction.ConcatArrayWs.class)
                 .scalar(DynamicFilters.Function.class)
+                .scalar(ParameterPlaceholders.Function.class)
                 .functions(ZIP_WITH_FUNCTION, MAP_ZIP_WITH_FUNCTION)
                 .functions(ZIP_FUNCTIONS)
                 .functions(ARRAY_JOIN, ARRAY_JOIN_WITH_NULL_REPLACEMENT)
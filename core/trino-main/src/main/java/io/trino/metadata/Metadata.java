@@ -126,6 +126,11 @@ public interface Metadata
      */
     TableStatistics getTableStatistics(Session session, TableHandle tableHandle, Constraint constraint);
 
+    /**
+     * Returns the version of the data of the specified table, or empty if it is unknown.
+     */
+    Optional<String> getDataVersion(Session session, TableHandle tableHandle);
+
     /**
      * Get the names that match the specified table prefix (never null).
      */
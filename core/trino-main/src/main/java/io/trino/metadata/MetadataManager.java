@@ -526,6 +526,14 @@ public final class MetadataManager
         return metadata.getTableStatistics(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), constraint);
     }
 
+    @Override
+    public Optional<String> getDataVersion(Session session, TableHandle tableHandle)
+    {
+        CatalogName catalogName = tableHandle.getCatalogName();
+        ConnectorMetadata metadata = getMetadata(session, catalogName);
+        return metadata.getDataVersion(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle());
+    }
+
     @Override
     public Map<String, ColumnHandle> getColumnHandles(Session session, TableHandle tableHandle)
     {
@@ -22,6 +22,8 @@ import io.trino.spi.PageBuilder;
 import io.trino.spi.TrinoException;
 import io.trino.spi.block.Block;
 import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.block.DictionaryBlock;
+import io.trino.spi.block.RunLengthEncodedBlock;
 import io.trino.spi.type.AbstractLongType;
 import io.trino.spi.type.BigintType;
 import io.trino.spi.type.Type;
@@ -51,6 +53,7 @@ public class BigintGroupByHash
 
     private final int hashChannel;
     private final boolean outputRawHash;
+    private final boolean processDictionary;
 
     private int hashCapacity;
     private int maxFill;
@@ -67,6 +70,7 @@ public class BigintGroupByHash
     private final LongBigArray valuesByGroupId;
 
     private int nextGroupId;
+    private DictionaryLookBack dictionaryLookBack;
     private long hashCollisions;
     private double expectedHashCollisions;
 
@@ -75,13 +79,14 @@ public class BigintGroupByHash
     private long preallocatedMemoryInBytes;
     private long currentPageSizeInBytes;
 
-    public BigintGroupByHash(int hashChannel, boolean outputRawHash, int expectedSize, UpdateMemory updateMemory)
+    public BigintGroupByHash(int hashChannel, boolean outputRawHash, int expectedSize, boolean processDictionary, UpdateMemory updateMemory)
     {
         checkArgument(hashChannel >= 0, "hashChannel must be at least zero");
         checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
 
         this.hashChannel = hashChannel;
         this.outputRawHash = outputRawHash;
+        this.processDictionary = processDictionary;
 
         hashCapacity = arraySize(expectedSize, FILL_RATIO);
 
@@ -107,6 +112,7 @@ public class BigintGroupByHash
                 groupIds.sizeOf() +
                 values.sizeOf() +
                 valuesByGroupId.sizeOf() +
+                (dictionaryLookBack == null ? 0 : dictionaryLookBack.getRetainedSizeInBytes()) +
                 preallocatedMemoryInBytes;
     }
 
@@ -161,14 +167,30 @@ public class BigintGroupByHash
     public Work<?> addPage(Page page)
     {
         currentPageSizeInBytes = page.getRetainedSizeInBytes();
-        return new AddPageWork(page.getBlock(hashChannel));
+        Block block = page.getBlock(hashChannel);
+        if (block instanceof RunLengthEncodedBlock) {
+            return new AddRunLengthEncodedPageWork((RunLengthEncodedBlock) block);
+        }
+        if (canProcessDictionary(block)) {
+            return new AddDictionaryPageWork((DictionaryBlock) block);
+        }
+
+        return new AddPageWork(block);
     }
 
     @Override
     public Work<GroupByIdBlock> getGroupIds(Page page)
     {
         currentPageSizeInBytes = page.getRetainedSizeInBytes();
-        return new GetGroupIdsWork(page.getBlock(hashChannel));
+        Block block = page.getBlock(hashChannel);
+        if (block instanceof RunLengthEncodedBlock) {
+            return new GetRunLengthEncodedGroupIdsWork((RunLengthEncodedBlock) block);
+        }
+        if (canProcessDictionary(block)) {
+            return new GetDictionaryGroupIdsWork((DictionaryBlock) block);
+        }
+
+        return new GetGroupIdsWork(block);
     }
 
     @Override
@@ -317,6 +339,29 @@ public class BigintGroupByHash
         return nextGroupId >= maxFill;
     }
 
+    private boolean canProcessDictionary(Block block)
+    {
+        return processDictionary && block instanceof DictionaryBlock;
+    }
+
+    private void updateDictionaryLookBack(Block dictionary)
+    {
+        if (dictionaryLookBack == null || !dictionaryLookBack.isLookBackFor(dictionary)) {
+            dictionaryLookBack = new DictionaryLookBack(dictionary);
+        }
+    }
+
+    private int getGroupId(Block dictionary, int positionInDictionary)
+    {
+        if (dictionaryLookBack.isProcessed(positionInDictionary)) {
+            return dictionaryLookBack.getGroupId(positionInDictionary);
+        }
+
+        int groupId = putIfAbsent(positionInDictionary, dictionary);
+        dictionaryLookBack.setProcessed(positionInDictionary, groupId);
+        return groupId;
+    }
+
     private static long getHashPosition(long rawHash, int mask)
     {
         return murmurHash3(rawHash) & mask;
@@ -422,4 +467,190 @@ public class BigintGroupByHash
             return new GroupByIdBlock(nextGroupId, blockBuilder.build());
         }
     }
+
+    private class AddDictionaryPageWork
+            implements Work<Void>
+    {
+        private final DictionaryBlock block;
+        private final Block dictionary;
+
+        private int lastPosition;
+
+        public AddDictionaryPageWork(DictionaryBlock block)
+        {
+            this.block = requireNonNull(block, "block is null");
+            this.dictionary = block.getDictionary();
+            updateDictionaryLookBack(dictionary);
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = block.getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                getGroupId(dictionary, block.getId(lastPosition));
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class AddRunLengthEncodedPageWork
+            implements Work<Void>
+    {
+        private final RunLengthEncodedBlock block;
+
+        private boolean finished;
+
+        public AddRunLengthEncodedPageWork(RunLengthEncodedBlock block)
+        {
+            this.block = requireNonNull(block, "block is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(!finished);
+            if (block.getPositionCount() == 0) {
+                finished = true;
+                return true;
+            }
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // Only needs to process the first row since it is Run Length Encoded
+            putIfAbsent(0, block.getValue());
+            finished = true;
+
+            return true;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetDictionaryGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final BlockBuilder blockBuilder;
+        private final DictionaryBlock block;
+        private final Block dictionary;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetDictionaryGroupIdsWork(DictionaryBlock block)
+        {
+            this.block = requireNonNull(block, "block is null");
+            this.dictionary = block.getDictionary();
+            updateDictionaryLookBack(dictionary);
+
+            // we know the exact size required for the block
+            this.blockBuilder = BIGINT.createFixedSizeBlockBuilder(block.getPositionCount());
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = block.getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                BIGINT.writeLong(blockBuilder, getGroupId(dictionary, block.getId(lastPosition)));
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == block.getPositionCount(), "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+        }
+    }
+
+    private class GetRunLengthEncodedGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final RunLengthEncodedBlock block;
+
+        int groupId = -1;
+        private boolean processFinished;
+        private boolean resultProduced;
+
+        public GetRunLengthEncodedGroupIdsWork(RunLengthEncodedBlock block)
+        {
+            this.block = requireNonNull(block, "block is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(!processFinished);
+            if (block.getPositionCount() == 0) {
+                processFinished = true;
+                return true;
+            }
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // Only needs to process the first row since it is Run Length Encoded
+            groupId = putIfAbsent(0, block.getValue());
+            processFinished = true;
+            return true;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(processFinished);
+            checkState(!resultProduced);
+            resultProduced = true;
+
+            return new GroupByIdBlock(
+                    nextGroupId,
+                    new RunLengthEncodedBlock(
+                            BIGINT.createFixedSizeBlockBuilder(1).writeLong(groupId).build(),
+                            block.getPositionCount()));
+        }
+    }
 }
@@ -15,6 +15,7 @@ package io.trino.operator;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.trino.memory.context.LocalMemoryContext;
 import io.trino.spi.Page;
 import io.trino.spi.type.Type;
@@ -87,6 +88,18 @@ public class ChannelSet
         private final LocalMemoryContext localMemoryContext;
 
         public ChannelSetBuilder(Type type, Optional<Integer> hashChannel, int expectedPositions, OperatorContext operatorContext, JoinCompiler joinCompiler, BlockTypeOperators blockTypeOperators)
+        {
+            this(type, hashChannel, expectedPositions, operatorContext, operatorContext.localUserMemoryContext(), joinCompiler, blockTypeOperators);
+        }
+
+        public ChannelSetBuilder(
+                Type type,
+                Optional<Integer> hashChannel,
+                int expectedPositions,
+                OperatorContext operatorContext,
+                LocalMemoryContext localMemoryContext,
+                JoinCompiler joinCompiler,
+                BlockTypeOperators blockTypeOperators)
         {
             List<Type> types = ImmutableList.of(type);
             this.hash = createGroupByHash(
@@ -100,12 +113,25 @@ public class ChannelSet
                     this::updateMemoryReservation);
             this.nullBlockPage = new Page(type.createBlockBuilder(null, 1, UNKNOWN.getFixedSize()).appendNull().build());
             this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
-            this.localMemoryContext = operatorContext.localUserMemoryContext();
+            this.localMemoryContext = requireNonNull(localMemoryContext, "localMemoryContext is null");
         }
 
         public ChannelSet build()
         {
-            return new ChannelSet(hash, hash.contains(0, nullBlockPage, HASH_CHANNELS), HASH_CHANNELS);
+            return new ChannelSet(hash, containsNull(), HASH_CHANNELS);
+        }
+
+        public boolean containsNull()
+        {
+            return hash.contains(0, nullBlockPage, HASH_CHANNELS);
+        }
+
+        /**
+         * Spills all values of the set. The set must not be modified until the returned future is done.
+         */
+        ListenableFuture<?> spill(DistinctSpiller spiller)
+        {
+            return spiller.spillDistinctValues(hash, hash.getGroupCount());
         }
 
         public long getEstimatedSize()
@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import io.trino.spi.block.Block;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Remembers the group id of each dictionary entry that has already been
+ * processed, so that every entry of a dictionary is hashed and probed at most once
+ * while the same dictionaries are being used by the input.
+ */
+final class DictionaryLookBack
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DictionaryLookBack.class).instanceSize();
+
+    private final Block[] dictionaries;
+    private final int[] processed;
+
+    public DictionaryLookBack(Block... dictionaries)
+    {
+        this.dictionaries = requireNonNull(dictionaries, "dictionaries is null").clone();
+        this.processed = new int[dictionaries[0].getPositionCount()];
+        Arrays.fill(processed, -1);
+    }
+
+    /**
+     * Returns true if this look back was created for exactly the same dictionary instances.
+     */
+    public boolean isLookBackFor(Block... dictionaries)
+    {
+        if (this.dictionaries.length != dictionaries.length) {
+            return false;
+        }
+        for (int i = 0; i < dictionaries.length; i++) {
+            if (this.dictionaries[i] != dictionaries[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getGroupId(int position)
+    {
+        return processed[position];
+    }
+
+    public boolean isProcessed(int position)
+    {
+        return processed[position] != -1;
+    }
+
+    public void setProcessed(int position, int groupId)
+    {
+        processed[position] = groupId;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(dictionaries) + sizeOf(processed);
+    }
+}
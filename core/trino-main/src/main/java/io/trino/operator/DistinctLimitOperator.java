@@ -16,14 +16,18 @@ package io.trino.operator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.trino.memory.context.LocalMemoryContext;
 import io.trino.spi.Page;
 import io.trino.spi.block.Block;
 import io.trino.spi.type.Type;
+import io.trino.spiller.PartitioningSpillerFactory;
 import io.trino.sql.gen.JoinCompiler;
 import io.trino.sql.planner.plan.PlanNodeId;
 import io.trino.type.BlockTypeOperators;
 
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,8 +35,10 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verifyNotNull;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.trino.SystemSessionProperties.isDictionaryAggregationEnabled;
 import static io.trino.operator.GroupByHash.createGroupByHash;
+import static io.trino.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -51,6 +57,8 @@ public class DistinctLimitOperator
         private boolean closed;
         private final JoinCompiler joinCompiler;
         private final BlockTypeOperators blockTypeOperators;
+        private final boolean spillEnabled;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
 
         public DistinctLimitOperatorFactory(
                 int operatorId,
@@ -61,6 +69,21 @@ public class DistinctLimitOperator
                 Optional<Integer> hashChannel,
                 JoinCompiler joinCompiler,
                 BlockTypeOperators blockTypeOperators)
+        {
+            this(operatorId, planNodeId, sourceTypes, distinctChannels, limit, hashChannel, joinCompiler, blockTypeOperators, false, unsupportedPartitioningSpillerFactory());
+        }
+
+        public DistinctLimitOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                List<Integer> distinctChannels,
+                long limit,
+                Optional<Integer> hashChannel,
+                JoinCompiler joinCompiler,
+                BlockTypeOperators blockTypeOperators,
+                boolean spillEnabled,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -72,6 +95,8 @@ public class DistinctLimitOperator
             this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
             this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
         }
 
         @Override
@@ -82,7 +107,7 @@ public class DistinctLimitOperator
             List<Type> distinctTypes = distinctChannels.stream()
                     .map(sourceTypes::get)
                     .collect(toImmutableList());
-            return new DistinctLimitOperator(operatorContext, distinctChannels, distinctTypes, limit, hashChannel, joinCompiler, blockTypeOperators);
+            return new DistinctLimitOperator(operatorContext, sourceTypes, distinctChannels, distinctTypes, limit, hashChannel, joinCompiler, blockTypeOperators, spillEnabled, partitioningSpillerFactory);
         }
 
         @Override
@@ -94,48 +119,78 @@ public class DistinctLimitOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new DistinctLimitOperatorFactory(operatorId, planNodeId, sourceTypes, distinctChannels, limit, hashChannel, joinCompiler, blockTypeOperators);
+            return new DistinctLimitOperatorFactory(operatorId, planNodeId, sourceTypes, distinctChannels, limit, hashChannel, joinCompiler, blockTypeOperators, spillEnabled, partitioningSpillerFactory);
         }
     }
 
     private final OperatorContext operatorContext;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
 
     private Page inputPage;
     private long remainingLimit;
 
     private boolean finishing;
 
+    private final List<Type> sourceTypes;
+    private final List<Integer> distinctChannels;
+    private final List<Type> distinctTypes;
+    private final Optional<Integer> hashChannel;
+    private final long limit;
+    private final JoinCompiler joinCompiler;
+    private final BlockTypeOperators blockTypeOperators;
+    private final boolean spillEnabled;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
+
     private final List<Integer> outputChannels;
-    private final GroupByHash groupByHash;
+    private GroupByHash groupByHash;
     private long nextDistinctId;
 
     // for yield when memory is not available
     private GroupByIdBlock groupByIds;
     private Work<GroupByIdBlock> unfinishedWork;
 
-    public DistinctLimitOperator(OperatorContext operatorContext, List<Integer> distinctChannels, List<Type> distinctTypes, long limit, Optional<Integer> hashChannel, JoinCompiler joinCompiler, BlockTypeOperators blockTypeOperators)
+    private Optional<DistinctSpiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = NOT_BLOCKED;
+    private Runnable finishMemoryRevoke = () -> {};
+
+    // partition of the spilled input, which is processed after the input is finished
+    private int unspilledPartition = -1;
+    private Iterator<Page> unspilledDistinctValues = Collections.emptyIterator();
+    private Iterator<Page> unspilledInput = Collections.emptyIterator();
+
+    public DistinctLimitOperator(
+            OperatorContext operatorContext,
+            List<Type> sourceTypes,
+            List<Integer> distinctChannels,
+            List<Type> distinctTypes,
+            long limit,
+            Optional<Integer> hashChannel,
+            JoinCompiler joinCompiler,
+            BlockTypeOperators blockTypeOperators,
+            boolean spillEnabled,
+            PartitioningSpillerFactory partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
-        requireNonNull(distinctChannels, "distinctChannels is null");
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
+        this.sourceTypes = ImmutableList.copyOf(requireNonNull(sourceTypes, "sourceTypes is null"));
+        this.distinctChannels = ImmutableList.copyOf(requireNonNull(distinctChannels, "distinctChannels is null"));
+        this.distinctTypes = ImmutableList.copyOf(requireNonNull(distinctTypes, "distinctTypes is null"));
         checkArgument(limit >= 0, "limit must be at least zero");
-        requireNonNull(hashChannel, "hashChannel is null");
+        this.limit = limit;
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
+        this.spillEnabled = spillEnabled;
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
 
         outputChannels = ImmutableList.<Integer>builder()
                 .addAll(distinctChannels)
                 .addAll(hashChannel.map(ImmutableList::of).orElse(ImmutableList.of()))
                 .build();
 
-        this.groupByHash = createGroupByHash(
-                distinctTypes,
-                Ints.toArray(distinctChannels),
-                hashChannel,
-                toIntExact(Math.min(limit, 10_000)),
-                isDictionaryAggregationEnabled(operatorContext.getSession()),
-                joinCompiler,
-                blockTypeOperators,
-                this::updateMemoryReservation);
+        this.groupByHash = createDistinctGroupByHash();
         remainingLimit = limit;
     }
 
@@ -154,13 +209,22 @@ public class DistinctLimitOperator
     @Override
     public boolean isFinished()
     {
-        return !hasUnfinishedInput() && (finishing || remainingLimit == 0);
+        if (hasUnfinishedInput() || !spillInProgress.isDone()) {
+            return false;
+        }
+        return remainingLimit == 0 || (finishing && !hasUnspilledInput());
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return spillInProgress.isDone() ? NOT_BLOCKED : spillInProgress;
     }
 
     @Override
     public boolean needsInput()
     {
-        return !finishing && remainingLimit > 0 && !hasUnfinishedInput();
+        return !finishing && remainingLimit > 0 && !hasUnfinishedInput() && spillInProgress.isDone();
     }
 
     @Override
@@ -168,6 +232,12 @@ public class DistinctLimitOperator
     {
         checkState(needsInput());
 
+        if (spiller.isPresent()) {
+            checkSuccess(spillInProgress, "spilling failed");
+            spillInProgress = spiller.get().spillInput(page);
+            return;
+        }
+
         inputPage = page;
         unfinishedWork = groupByHash.getGroupIds(page);
         processUnfinishedWork();
@@ -177,6 +247,15 @@ public class DistinctLimitOperator
     @Override
     public Page getOutput()
     {
+        if (!spillInProgress.isDone()) {
+            return null;
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (unfinishedWork == null && groupByIds == null && !startUnspilledWork()) {
+            return null;
+        }
+
         if (unfinishedWork != null && !processUnfinishedWork()) {
             return null;
         }
@@ -185,7 +264,14 @@ public class DistinctLimitOperator
             return null;
         }
 
-        verifyNotNull(inputPage);
+        if (inputPage == null) {
+            // the values returned before spilling were added to the hash
+            nextDistinctId = groupByHash.getGroupCount();
+            groupByIds = null;
+            updateMemoryReservation();
+            return null;
+        }
+
         int distinctCount = 0;
         int[] distinctPositions = new int[inputPage.getPositionCount()];
         for (int position = 0; position < groupByIds.getPositionCount(); position++) {
@@ -209,6 +295,52 @@ public class DistinctLimitOperator
         return result;
     }
 
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        if (spiller.isPresent() || groupByHash == null) {
+            return NOT_BLOCKED;
+        }
+
+        if (remainingLimit == 0 || (finishing && !hasUnfinishedInput())) {
+            // the hash is not needed anymore
+            finishMemoryRevoke = this::releaseGroupByHash;
+            return NOT_BLOCKED;
+        }
+
+        spiller = Optional.of(new DistinctSpiller(sourceTypes, distinctChannels, hashChannel, partitioningSpillerFactory, operatorContext, blockTypeOperators));
+        spillInProgress = spiller.get().spillDistinctValues(groupByHash, toIntExact(nextDistinctId));
+        finishMemoryRevoke = () -> {
+            checkSuccess(spillInProgress, "spilling failed");
+            releaseGroupByHash();
+            // the pending input may have added values to the hash, which are not returned yet
+            if (inputPage != null) {
+                Page page = inputPage;
+                inputPage = null;
+                unfinishedWork = null;
+                groupByIds = null;
+                spillInProgress = spiller.get().spillInput(page);
+            }
+        };
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        finishMemoryRevoke.run();
+        finishMemoryRevoke = () -> {};
+    }
+
+    @Override
+    public void close()
+            throws Exception
+    {
+        if (spiller.isPresent()) {
+            spiller.get().close();
+        }
+    }
+
     private Page maskToDistinctOutputPositions(int distinctCount, int[] distinctPositions)
     {
         Page result = null;
@@ -233,11 +365,66 @@ public class DistinctLimitOperator
         return true;
     }
 
+    /**
+     * Starts the work on the next page of the spilled partitions, after the input is finished.
+     */
+    private boolean startUnspilledWork()
+    {
+        if (!finishing || spiller.isEmpty() || remainingLimit == 0) {
+            return false;
+        }
+        while (!unspilledDistinctValues.hasNext() && !unspilledInput.hasNext()) {
+            if (unspilledPartition == DistinctSpiller.PARTITION_COUNT - 1) {
+                return false;
+            }
+            unspilledPartition++;
+            groupByHash = createDistinctGroupByHash();
+            nextDistinctId = 0;
+            unspilledDistinctValues = spiller.get().getDistinctValues(unspilledPartition);
+            unspilledInput = spiller.get().getInput(unspilledPartition);
+        }
+
+        if (unspilledDistinctValues.hasNext()) {
+            // the values returned before spilling must not be returned again
+            unfinishedWork = groupByHash.getGroupIds(unspilledDistinctValues.next());
+        }
+        else {
+            inputPage = unspilledInput.next();
+            unfinishedWork = groupByHash.getGroupIds(inputPage);
+        }
+        return true;
+    }
+
+    private boolean hasUnspilledInput()
+    {
+        return spiller.isPresent() &&
+                (unspilledPartition < DistinctSpiller.PARTITION_COUNT - 1 || unspilledDistinctValues.hasNext() || unspilledInput.hasNext());
+    }
+
     private boolean hasUnfinishedInput()
     {
         return inputPage != null || unfinishedWork != null;
     }
 
+    private GroupByHash createDistinctGroupByHash()
+    {
+        return createGroupByHash(
+                distinctTypes,
+                Ints.toArray(distinctChannels),
+                hashChannel,
+                toIntExact(Math.min(limit, 10_000)),
+                isDictionaryAggregationEnabled(operatorContext.getSession()),
+                joinCompiler,
+                blockTypeOperators,
+                this::updateMemoryReservation);
+    }
+
+    private void releaseGroupByHash()
+    {
+        groupByHash = null;
+        localRevocableMemoryContext.setBytes(0);
+    }
+
     /**
      * Update memory usage.
      *
@@ -248,9 +435,15 @@ public class DistinctLimitOperator
     // The following implementation is a hybrid model, where the push model is going to call the pull model causing reentrancy
     private boolean updateMemoryReservation()
     {
+        long estimatedSize = groupByHash == null ? 0 : groupByHash.getEstimatedSize();
+        if (spillEnabled && spiller.isEmpty()) {
+            // the memory can be revoked by spilling, so the operator does not wait for memory
+            localRevocableMemoryContext.setBytes(estimatedSize);
+            return true;
+        }
         // Operator/driver will be blocked on memory after we call localUserMemoryContext.setBytes().
         // If memory is not available, once we return, this operator will be blocked until memory is available.
-        localUserMemoryContext.setBytes(groupByHash.getEstimatedSize());
+        localUserMemoryContext.setBytes(estimatedSize);
         // If memory is not available, inform the caller that we cannot proceed for allocation.
         return operatorContext.isWaitingForMemory().isDone();
     }
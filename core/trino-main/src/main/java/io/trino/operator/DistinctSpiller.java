@@ -0,0 +1,220 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.slice.XxHash64;
+import io.trino.spi.Page;
+import io.trino.spi.PageBuilder;
+import io.trino.spi.block.Block;
+import io.trino.spi.block.RunLengthEncodedBlock;
+import io.trino.spi.type.Type;
+import io.trino.spiller.PartitioningSpiller;
+import io.trino.spiller.PartitioningSpillerFactory;
+import io.trino.type.BlockTypeOperators;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterators.singletonIterator;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transformAsync;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Spills the state of an operator which finds the distinct rows of its input. When the memory of the
+ * operator is revoked, the values already returned as distinct are partitioned by their hash and spilled,
+ * and all input added afterwards is spilled with the same partitioning. After the input is finished,
+ * the operator processes the partitions one at a time, with a new hash which is first filled with the
+ * values already returned for the partition.
+ */
+final class DistinctSpiller
+        implements Closeable
+{
+    static final int PARTITION_COUNT = 16;
+
+    private final List<Type> inputTypes;
+    // input channels of the values of the hash, which are the distinct channels followed by the hash channel
+    private final int[] valueChannels;
+    private final PartitioningSpiller distinctValuesSpiller;
+    private final PartitioningSpiller inputSpiller;
+    private final Closer closer = Closer.create();
+
+    public DistinctSpiller(
+            List<Type> inputTypes,
+            List<Integer> distinctChannels,
+            Optional<Integer> hashChannel,
+            PartitioningSpillerFactory partitioningSpillerFactory,
+            OperatorContext operatorContext,
+            BlockTypeOperators blockTypeOperators)
+    {
+        this.inputTypes = ImmutableList.copyOf(requireNonNull(inputTypes, "inputTypes is null"));
+        requireNonNull(distinctChannels, "distinctChannels is null");
+        requireNonNull(hashChannel, "hashChannel is null");
+        this.valueChannels = Ints.toArray(ImmutableList.<Integer>builder()
+                .addAll(distinctChannels)
+                .addAll(hashChannel.map(ImmutableList::of).orElse(ImmutableList.of()))
+                .build());
+
+        PartitionFunction partitionFunction = createSpillPartitionFunction(inputTypes, distinctChannels, hashChannel, blockTypeOperators);
+        this.distinctValuesSpiller = closer.register(partitioningSpillerFactory.create(
+                inputTypes,
+                partitionFunction,
+                operatorContext.getSpillContext().newLocalSpillContext(),
+                operatorContext.newAggregateSystemMemoryContext()));
+        this.inputSpiller = closer.register(partitioningSpillerFactory.create(
+                inputTypes,
+                partitionFunction,
+                operatorContext.getSpillContext().newLocalSpillContext(),
+                operatorContext.newAggregateSystemMemoryContext()));
+    }
+
+    /**
+     * Spills the values of the groups of the hash with an id below {@code distinctCount}, which are the values already returned as distinct.
+     * The hash must not be modified until the returned future is done.
+     */
+    public ListenableFuture<?> spillDistinctValues(GroupByHash groupByHash, int distinctCount)
+    {
+        Iterator<Page> pages = new AbstractIterator<>()
+        {
+            private int groupId;
+
+            @Override
+            protected Page computeNext()
+            {
+                if (groupId == distinctCount) {
+                    return endOfData();
+                }
+                PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+                while (!pageBuilder.isFull() && groupId < distinctCount) {
+                    pageBuilder.declarePosition();
+                    groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+                    groupId++;
+                }
+                return toInputLayout(pageBuilder.build());
+            }
+        };
+        return spill(distinctValuesSpiller, pages);
+    }
+
+    public ListenableFuture<?> spillInput(Page page)
+    {
+        return spill(inputSpiller, singletonIterator(page));
+    }
+
+    /**
+     * Returns the values of the partition already returned as distinct, in the layout of the input.
+     * Only the distinct channels and the hash channel hold values.
+     */
+    public Iterator<Page> getDistinctValues(int partition)
+    {
+        return distinctValuesSpiller.getSpilledPages(partition);
+    }
+
+    public Iterator<Page> getInput(int partition)
+    {
+        return inputSpiller.getSpilledPages(partition);
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        closer.close();
+    }
+
+    /**
+     * Returns the partitioning of the spilled rows. Rows spilled by other operators with this partitioning,
+     * and equal values in the given channels, are in the same partition as the rows spilled by this class.
+     */
+    static PartitionFunction createSpillPartitionFunction(List<Type> types, List<Integer> channels, Optional<Integer> hashChannel, BlockTypeOperators blockTypeOperators)
+    {
+        if (hashChannel.isPresent()) {
+            return new SpillPartitionFunction(new PrecomputedHashGenerator(hashChannel.get()));
+        }
+        List<Type> hashTypes = channels.stream()
+                .map(types::get)
+                .collect(toImmutableList());
+        return new SpillPartitionFunction(new InterpretedHashGenerator(hashTypes, channels, blockTypeOperators));
+    }
+
+    private Page toInputLayout(Page values)
+    {
+        int positionCount = values.getPositionCount();
+        Block[] blocks = new Block[inputTypes.size()];
+        for (int channel = 0; channel < valueChannels.length; channel++) {
+            blocks[valueChannels[channel]] = values.getBlock(channel);
+        }
+        for (int channel = 0; channel < blocks.length; channel++) {
+            if (blocks[channel] == null) {
+                blocks[channel] = RunLengthEncodedBlock.create(inputTypes.get(channel), null, positionCount);
+            }
+        }
+        return new Page(positionCount, blocks);
+    }
+
+    private static ListenableFuture<?> spill(PartitioningSpiller spiller, Iterator<Page> pages)
+    {
+        while (pages.hasNext()) {
+            ListenableFuture<?> future = spiller.partitionAndSpill(pages.next(), partition -> true).getSpillingFuture();
+            if (!future.isDone()) {
+                // the next page can be spilled only after the previous spill is finished
+                return transformAsync(future, ignored -> spill(spiller, pages), directExecutor());
+            }
+            getFutureValue(future);
+        }
+        return immediateFuture(null);
+    }
+
+    /**
+     * Partitions the rows by the high bits of the mixed hash. The local exchange distributing the rows between
+     * the drivers of the operator uses the low bits of the same hash, so partitioning by them would send all
+     * rows of a driver to one partition.
+     */
+    private static class SpillPartitionFunction
+            implements PartitionFunction
+    {
+        private static final int PARTITION_BITS = Integer.numberOfTrailingZeros(PARTITION_COUNT);
+
+        private final HashGenerator hashGenerator;
+
+        public SpillPartitionFunction(HashGenerator hashGenerator)
+        {
+            this.hashGenerator = requireNonNull(hashGenerator, "hashGenerator is null");
+        }
+
+        @Override
+        public int getPartitionCount()
+        {
+            return PARTITION_COUNT;
+        }
+
+        @Override
+        public int getPartition(Page page, int position)
+        {
+            long rawHash = hashGenerator.hashPosition(position, page);
+            return (int) (XxHash64.hash(Long.reverse(rawHash)) >>> (Long.SIZE - PARTITION_BITS));
+        }
+    }
+}
@@ -78,13 +78,15 @@ public class DriverContext
 
     private final List<OperatorContext> operatorContexts = new CopyOnWriteArrayList<>();
     private final Lifespan lifespan;
+    private final long splitWeight;
 
     public DriverContext(
             PipelineContext pipelineContext,
             Executor notificationExecutor,
             ScheduledExecutorService yieldExecutor,
             MemoryTrackingContext driverMemoryContext,
-            Lifespan lifespan)
+            Lifespan lifespan,
+            long splitWeight)
     {
         this.pipelineContext = requireNonNull(pipelineContext, "pipelineContext is null");
         this.notificationExecutor = requireNonNull(notificationExecutor, "notificationExecutor is null");
@@ -92,6 +94,8 @@ public class DriverContext
         this.driverMemoryContext = requireNonNull(driverMemoryContext, "driverMemoryContext is null");
         this.lifespan = requireNonNull(lifespan, "lifespan is null");
         this.yieldSignal = new DriverYieldSignal();
+        checkArgument(splitWeight >= 0, "splitWeight must be >= 0, found: %s", splitWeight);
+        this.splitWeight = splitWeight;
     }
 
     public TaskId getTaskId()
@@ -449,6 +453,14 @@ public class DriverContext
         return lifespan;
     }
 
+    /**
+     * @return the raw weight of the partitioned split processed by the driver, or zero if the driver processes no partitioned split
+     */
+    public long getSplitWeight()
+    {
+        return splitWeight;
+    }
+
     public ScheduledExecutorService getYieldExecutor()
     {
         return yieldExecutor;
@@ -16,6 +16,10 @@ package io.trino.operator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 import io.trino.execution.Lifespan;
+import io.trino.execution.fragmentcache.FragmentCacheKey;
+import io.trino.metadata.Split;
+import io.trino.operator.FragmentCacheOperator.FragmentCacheOperatorFactory;
+import io.trino.spi.Page;
 import io.trino.sql.planner.plan.PlanNodeId;
 
 import java.util.HashSet;
@@ -39,12 +43,25 @@ public class DriverFactory
     private final Optional<PlanNodeId> sourceId;
     private final OptionalInt driverInstances;
     private final PipelineExecutionStrategy pipelineExecutionStrategy;
+    private final Optional<FragmentCacheOperatorFactory> fragmentCacheOperatorFactory;
 
     private boolean closed;
     private final Set<Lifespan> encounteredLifespans = new HashSet<>();
     private final Set<Lifespan> closedLifespans = new HashSet<>();
 
     public DriverFactory(int pipelineId, boolean inputDriver, boolean outputDriver, List<OperatorFactory> operatorFactories, OptionalInt driverInstances, PipelineExecutionStrategy pipelineExecutionStrategy)
+    {
+        this(pipelineId, inputDriver, outputDriver, operatorFactories, driverInstances, pipelineExecutionStrategy, Optional.empty());
+    }
+
+    public DriverFactory(
+            int pipelineId,
+            boolean inputDriver,
+            boolean outputDriver,
+            List<OperatorFactory> operatorFactories,
+            OptionalInt driverInstances,
+            PipelineExecutionStrategy pipelineExecutionStrategy,
+            Optional<FragmentCacheOperatorFactory> fragmentCacheOperatorFactory)
     {
         this.pipelineId = pipelineId;
         this.inputDriver = inputDriver;
@@ -53,6 +70,8 @@ public class DriverFactory
         checkArgument(!operatorFactories.isEmpty(), "There must be at least one operator");
         this.driverInstances = requireNonNull(driverInstances, "driverInstances is null");
         this.pipelineExecutionStrategy = requireNonNull(pipelineExecutionStrategy, "pipelineExecutionStrategy is null");
+        this.fragmentCacheOperatorFactory = requireNonNull(fragmentCacheOperatorFactory, "fragmentCacheOperatorFactory is null");
+        fragmentCacheOperatorFactory.ifPresent(factory -> checkArgument(factory.getCachedOperatorCount() < operatorFactories.size(), "Output of all the operators of the pipeline can not be cached"));
 
         List<PlanNodeId> sourceIds = operatorFactories.stream()
                 .filter(SourceOperatorFactory.class::isInstance)
@@ -104,13 +123,39 @@ public class DriverFactory
     }
 
     public synchronized Driver createDriver(DriverContext driverContext)
+    {
+        return createDriver(driverContext, Optional.empty());
+    }
+
+    /**
+     * Creates a driver for the specified partitioned split. When the output of the leading operators
+     * of the pipeline for the split is cached, the driver reads it from the cache instead.
+     */
+    public synchronized Driver createDriver(DriverContext driverContext, Optional<Split> split)
     {
         checkState(!closed, "DriverFactory is already closed");
         requireNonNull(driverContext, "driverContext is null");
+        requireNonNull(split, "split is null");
         checkState(!closedLifespans.contains(driverContext.getLifespan()), "DriverFactory is already closed for driver group %s", driverContext.getLifespan());
         encounteredLifespans.add(driverContext.getLifespan());
         ImmutableList.Builder<Operator> operators = ImmutableList.builder();
-        for (OperatorFactory operatorFactory : operatorFactories) {
+        int operatorIndex = 0;
+        Optional<FragmentCacheKey> cacheKey = fragmentCacheOperatorFactory.flatMap(factory -> split.flatMap(factory::createCacheKey));
+        if (cacheKey.isPresent()) {
+            FragmentCacheOperatorFactory cacheOperatorFactory = fragmentCacheOperatorFactory.get();
+            Optional<List<Page>> cachedPages = cacheOperatorFactory.getCachedPages(cacheKey.get());
+            if (cachedPages.isPresent()) {
+                operators.add(cacheOperatorFactory.createCachedPagesOperator(driverContext, cachedPages.get()));
+            }
+            else {
+                for (OperatorFactory operatorFactory : operatorFactories.subList(0, cacheOperatorFactory.getCachedOperatorCount())) {
+                    operators.add(operatorFactory.createOperator(driverContext));
+                }
+                operators.add(cacheOperatorFactory.createCachingOperator(driverContext, cacheKey.get()));
+            }
+            operatorIndex = cacheOperatorFactory.getCachedOperatorCount();
+        }
+        for (OperatorFactory operatorFactory : operatorFactories.subList(operatorIndex, operatorFactories.size())) {
             Operator operator = operatorFactory.createOperator(driverContext);
             operators.add(operator);
         }
@@ -0,0 +1,137 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import io.airlift.units.DataSize;
+import io.trino.spi.block.Block;
+import io.trino.spi.type.Type;
+import io.trino.type.BlockTypeOperators.BlockPositionHashCode;
+import org.openjdk.jol.info.ClassLayout;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Blocked bloom filter over the values of a dynamic filter. All bits of a value are
+ * set within a single 64 bit word, so that a lookup touches a single cache line.
+ * Values are hashed with the hash code operator of the filter type, and therefore
+ * the filter can only be probed with values of the same type.
+ */
+public final class DynamicFilterBloomFilter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DynamicFilterBloomFilter.class).instanceSize();
+
+    private final Type type;
+    private final BlockPositionHashCode hashCode;
+    private final long[] words;
+    private final int mask;
+
+    public DynamicFilterBloomFilter(Type type, BlockPositionHashCode hashCode, DataSize size)
+    {
+        this(type, hashCode, new long[wordCount(size)]);
+    }
+
+    private DynamicFilterBloomFilter(Type type, BlockPositionHashCode hashCode, long[] words)
+    {
+        this.type = requireNonNull(type, "type is null");
+        this.hashCode = requireNonNull(hashCode, "hashCode is null");
+        this.words = requireNonNull(words, "words is null");
+        this.mask = words.length - 1;
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    /**
+     * Adds the value at the given position, which must not be null.
+     */
+    public void add(Block block, int position)
+    {
+        long hash = mix(hashCode.hashCode(block, position));
+        words[wordIndex(hash)] |= bitMask(hash);
+    }
+
+    /**
+     * Returns false if the value at the given position, which must not be null,
+     * was definitely not added to this filter.
+     */
+    public boolean mightContain(Block block, int position)
+    {
+        long hash = mix(hashCode.hashCode(block, position));
+        long bitMask = bitMask(hash);
+        return (words[wordIndex(hash)] & bitMask) == bitMask;
+    }
+
+    /**
+     * Returns a new filter that contains the values of both filters.
+     */
+    public DynamicFilterBloomFilter union(DynamicFilterBloomFilter other)
+    {
+        checkArgument(type.equals(other.type), "Mismatched types: %s and %s", type, other.type);
+        checkArgument(words.length == other.words.length, "Mismatched sizes: %s and %s words", words.length, other.words.length);
+        long[] union = new long[words.length];
+        for (int i = 0; i < union.length; i++) {
+            union[i] = words[i] | other.words[i];
+        }
+        return new DynamicFilterBloomFilter(type, hashCode, union);
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(words);
+    }
+
+    private int wordIndex(long hash)
+    {
+        return (int) (hash >>> 32) & mask;
+    }
+
+    private static long bitMask(long hash)
+    {
+        // shifts only use the low 6 bits of the distance
+        return (1L << hash) | (1L << (hash >>> 6)) | (1L << (hash >>> 12)) | (1L << (hash >>> 18));
+    }
+
+    private static long mix(long hash)
+    {
+        // finalizer of MurmurHash3, to spread the hash codes of values like small integers
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static int wordCount(DataSize size)
+    {
+        long words = Math.max(1, size.toBytes() / Long.BYTES);
+        // round down to a power of 2, so that the word index can be masked
+        return toIntExact(Long.highestOneBit(words));
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("type", type)
+                .add("sizeInBytes", sizeOf(words))
+                .toString();
+    }
+}
@@ -32,6 +32,8 @@ import io.trino.type.BlockTypeOperators.BlockPositionComparison;
 import javax.annotation.Nullable;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkState;
@@ -51,6 +53,8 @@ import static java.util.stream.Collectors.toSet;
  * The collected pages' value are used for creating a run-time filtering constraint (for probe-side table scan in an inner join).
  * We record all values for the run-time filter only for small build-side pages (which should be the case when using "broadcast" join).
  * For large inputs on build side, we can optionally record the min and max values per channel for orderable types (except Double and Real).
+ * When a bloom filter size is configured, the values of large inputs are also recorded in a bloom filter per channel,
+ * which is used for filtering the rows of probe-side table scans in the same task.
  */
 public class DynamicFilterSourceOperator
         implements Operator
@@ -77,10 +81,12 @@ public class DynamicFilterSourceOperator
         private final int operatorId;
         private final PlanNodeId planNodeId;
         private final Consumer<TupleDomain<DynamicFilterId>> dynamicPredicateConsumer;
+        private final Consumer<Map<DynamicFilterId, DynamicFilterBloomFilter>> bloomFilterConsumer;
         private final List<Channel> channels;
         private final int maxDisinctValues;
         private final DataSize maxFilterSize;
         private final int minMaxCollectionLimit;
+        private final Optional<DataSize> bloomFilterSize;
         private final BlockTypeOperators blockTypeOperators;
 
         private boolean closed;
@@ -89,15 +95,18 @@ public class DynamicFilterSourceOperator
                 int operatorId,
                 PlanNodeId planNodeId,
                 Consumer<TupleDomain<DynamicFilterId>> dynamicPredicateConsumer,
+                Consumer<Map<DynamicFilterId, DynamicFilterBloomFilter>> bloomFilterConsumer,
                 List<Channel> channels,
                 int maxDisinctValues,
                 DataSize maxFilterSize,
                 int minMaxCollectionLimit,
+                Optional<DataSize> bloomFilterSize,
                 BlockTypeOperators blockTypeOperators)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
             this.dynamicPredicateConsumer = requireNonNull(dynamicPredicateConsumer, "dynamicPredicateConsumer is null");
+            this.bloomFilterConsumer = requireNonNull(bloomFilterConsumer, "bloomFilterConsumer is null");
             this.channels = requireNonNull(channels, "channels is null");
             verify(channels.stream().map(channel -> channel.filterId).collect(toSet()).size() == channels.size(),
                     "duplicate dynamic filters are not allowed");
@@ -106,6 +115,7 @@ public class DynamicFilterSourceOperator
             this.maxDisinctValues = maxDisinctValues;
             this.maxFilterSize = maxFilterSize;
             this.minMaxCollectionLimit = minMaxCollectionLimit;
+            this.bloomFilterSize = requireNonNull(bloomFilterSize, "bloomFilterSize is null");
             this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
         }
 
@@ -116,11 +126,13 @@ public class DynamicFilterSourceOperator
             return new DynamicFilterSourceOperator(
                     driverContext.addOperatorContext(operatorId, planNodeId, DynamicFilterSourceOperator.class.getSimpleName()),
                     dynamicPredicateConsumer,
+                    bloomFilterConsumer,
                     channels,
                     planNodeId,
                     maxDisinctValues,
                     maxFilterSize,
                     minMaxCollectionLimit,
+                    bloomFilterSize,
                     blockTypeOperators);
         }
 
@@ -142,8 +154,11 @@ public class DynamicFilterSourceOperator
     private boolean finished;
     private Page current;
     private final Consumer<TupleDomain<DynamicFilterId>> dynamicPredicateConsumer;
+    private final Consumer<Map<DynamicFilterId, DynamicFilterBloomFilter>> bloomFilterConsumer;
     private final int maxDistinctValues;
     private final long maxFilterSizeInBytes;
+    private final Optional<DataSize> bloomFilterSize;
+    private final BlockTypeOperators blockTypeOperators;
 
     private final List<Channel> channels;
     private final List<Integer> minMaxChannels;
@@ -161,21 +176,30 @@ public class DynamicFilterSourceOperator
     @Nullable
     private Block[] maxValues;
 
+    // Created when the predicate becomes too large, if bloom filters are enabled.
+    @Nullable
+    private DynamicFilterBloomFilter[] bloomFilters;
+
     private DynamicFilterSourceOperator(
             OperatorContext context,
             Consumer<TupleDomain<DynamicFilterId>> dynamicPredicateConsumer,
+            Consumer<Map<DynamicFilterId, DynamicFilterBloomFilter>> bloomFilterConsumer,
             List<Channel> channels,
             PlanNodeId planNodeId,
             int maxDistinctValues,
             DataSize maxFilterSize,
             int minMaxCollectionLimit,
+            Optional<DataSize> bloomFilterSize,
             BlockTypeOperators blockTypeOperators)
     {
         this.context = requireNonNull(context, "context is null");
         this.maxDistinctValues = maxDistinctValues;
         this.maxFilterSizeInBytes = maxFilterSize.toBytes();
+        this.bloomFilterSize = requireNonNull(bloomFilterSize, "bloomFilterSize is null");
+        this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
 
         this.dynamicPredicateConsumer = requireNonNull(dynamicPredicateConsumer, "dynamicPredicateConsumer is null");
+        this.bloomFilterConsumer = requireNonNull(bloomFilterConsumer, "bloomFilterConsumer is null");
         this.channels = requireNonNull(channels, "channels is null");
 
         this.blockBuilders = new BlockBuilder[channels.size()];
@@ -227,6 +251,11 @@ public class DynamicFilterSourceOperator
         verify(!finished, "DynamicFilterSourceOperator: addInput() may not be called after finish()");
         current = page;
         if (valueSets == null) {
+            if (bloomFilters != null) {
+                for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+                    addToBloomFilter(bloomFilters[channelIndex], page.getBlock(channels.get(channelIndex).index));
+                }
+            }
             if (minValues == null) {
                 // there are too many rows to collect min/max range
                 return;
@@ -268,9 +297,20 @@ public class DynamicFilterSourceOperator
     private void handleTooLargePredicate()
     {
         // The resulting predicate is too large
+        if (bloomFilterSize.isPresent()) {
+            // keep collecting all values in bloom filters, starting with the values collected so far
+            bloomFilters = new DynamicFilterBloomFilter[channels.size()];
+            for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+                Type type = channels.get(channelIndex).type;
+                bloomFilters[channelIndex] = new DynamicFilterBloomFilter(type, blockTypeOperators.getHashCodeOperator(type), bloomFilterSize.get());
+                addToBloomFilter(bloomFilters[channelIndex], blockBuilders[channelIndex].build());
+            }
+        }
         if (minMaxChannels.isEmpty()) {
-            // allow all probe-side values to be read.
-            dynamicPredicateConsumer.accept(TupleDomain.all());
+            if (bloomFilters == null) {
+                // allow all probe-side values to be read.
+                dynamicPredicateConsumer.accept(TupleDomain.all());
+            }
         }
         else {
             if (minMaxCollectionLimit < 0) {
@@ -293,13 +333,25 @@ public class DynamicFilterSourceOperator
 
     private void handleMinMaxCollectionLimitExceeded()
     {
-        // allow all probe-side values to be read.
-        dynamicPredicateConsumer.accept(TupleDomain.all());
+        if (bloomFilters == null) {
+            // allow all probe-side values to be read.
+            dynamicPredicateConsumer.accept(TupleDomain.all());
+        }
         // Drop references to collected values.
         minValues = null;
         maxValues = null;
     }
 
+    private static void addToBloomFilter(DynamicFilterBloomFilter bloomFilter, Block block)
+    {
+        for (int position = 0; position < block.getPositionCount(); ++position) {
+            // Inner and right join doesn't match rows with null key column values.
+            if (!block.isNull(position)) {
+                bloomFilter.add(block, position);
+            }
+        }
+    }
+
     private void updateMinMaxValues(Block block, int channelIndex, BlockPositionComparison comparison)
     {
         checkState(minValues != null && maxValues != null);
@@ -364,6 +416,20 @@ public class DynamicFilterSourceOperator
         finished = true;
         ImmutableMap.Builder<DynamicFilterId, Domain> domainsBuilder = new ImmutableMap.Builder<>();
         if (valueSets == null) {
+            if (bloomFilters != null) {
+                // bloom filters must be consumed before the predicate, which completes the collection
+                ImmutableMap.Builder<DynamicFilterId, DynamicFilterBloomFilter> bloomFiltersBuilder = ImmutableMap.builder();
+                for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+                    bloomFiltersBuilder.put(channels.get(channelIndex).filterId, bloomFilters[channelIndex]);
+                }
+                bloomFilters = null;
+                bloomFilterConsumer.accept(bloomFiltersBuilder.build());
+                if (minValues == null) {
+                    // there were too many rows to collect min/max range, the bloom filters are the only constraint
+                    dynamicPredicateConsumer.accept(TupleDomain.all());
+                    return;
+                }
+            }
             if (minValues == null) {
                 // there were too many rows to collect min/max range
                 // dynamicPredicateConsumer was notified with 'all' in handleTooLargePredicate if there are no orderable types,
@@ -0,0 +1,151 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.trino.spi.Page;
+import io.trino.spi.block.Block;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Filters the rows of pages produced by a table scan with dynamic filters collected in the same task,
+ * i.e. the bloom filters of joins and the boundaries of TopN operators above the table scan.
+ * Filters which are not collected yet are ignored, so pages are filtered only once the
+ * build side of the join is finished or the TopN operator holds N rows.
+ */
+public final class DynamicRowFilter
+{
+    public static final DynamicRowFilter EMPTY = new DynamicRowFilter(ImmutableList.of());
+
+    private final List<Channel> channels;
+
+    public DynamicRowFilter(List<Channel> channels)
+    {
+        this.channels = ImmutableList.copyOf(requireNonNull(channels, "channels is null"));
+    }
+
+    public DynamicRowFilter withChannel(Channel channel)
+    {
+        return new DynamicRowFilter(ImmutableList.<Channel>builder()
+                .addAll(channels)
+                .add(channel)
+                .build());
+    }
+
+    public Page filter(Page page)
+    {
+        if (channels.isEmpty() || page.getPositionCount() == 0) {
+            return page;
+        }
+
+        int[] positions = null;
+        int positionCount = page.getPositionCount();
+        for (Channel channel : channels) {
+            Optional<ValueFilter> valueFilter = channel.getValueFilter();
+            if (valueFilter.isEmpty()) {
+                continue;
+            }
+            if (positions == null) {
+                positions = new int[positionCount];
+                for (int position = 0; position < positionCount; position++) {
+                    positions[position] = position;
+                }
+            }
+            Block block = page.getBlock(channel.getIndex()).getLoadedBlock();
+            int retainedCount = 0;
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                if (valueFilter.get().test(block, position)) {
+                    positions[retainedCount] = position;
+                    retainedCount++;
+                }
+            }
+            positionCount = retainedCount;
+        }
+
+        if (positions == null || positionCount == page.getPositionCount()) {
+            return page;
+        }
+        return page.getPositions(positions, 0, positionCount);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("channels", channels)
+                .toString();
+    }
+
+    public interface ValueFilter
+    {
+        /**
+         * Returns false if the row with the value at the given position, which can be null, can be filtered out.
+         */
+        boolean test(Block block, int position);
+    }
+
+    public static class Channel
+    {
+        private final int index;
+        private final Supplier<Optional<ValueFilter>> valueFilter;
+
+        public Channel(int index, Supplier<Optional<ValueFilter>> valueFilter)
+        {
+            this.index = index;
+            this.valueFilter = requireNonNull(valueFilter, "valueFilter is null");
+        }
+
+        /**
+         * Creates a channel filtered with the bloom filter, once it is collected.
+         */
+        public static Channel bloomFilterChannel(int index, ListenableFuture<Optional<DynamicFilterBloomFilter>> bloomFilter)
+        {
+            requireNonNull(bloomFilter, "bloomFilter is null");
+            return new Channel(index, () -> {
+                if (!bloomFilter.isDone()) {
+                    return Optional.empty();
+                }
+                // dynamic filters with bloom filters never match nulls
+                return getFutureValue(bloomFilter).map(filter -> (block, position) -> !block.isNull(position) && filter.mightContain(block, position));
+            });
+        }
+
+        public int getIndex()
+        {
+            return index;
+        }
+
+        public Optional<ValueFilter> getValueFilter()
+        {
+            return valueFilter.get();
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("index", index)
+                    .toString();
+        }
+    }
+}
@@ -13,8 +13,10 @@
  */
 package io.trino.operator;
 
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.http.client.HttpClient;
 import io.airlift.units.DataSize;
@@ -36,6 +38,7 @@ import java.util.ArrayList;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -97,6 +100,7 @@ public class ExchangeClient
 
     private final LocalMemoryContext systemMemoryContext;
     private final Executor pageBufferClientCallbackExecutor;
+    private final Optional<ListeningExecutorService> streamingExecutor;
 
     // ExchangeClientStatus.mergeWith assumes all clients have the same bufferCapacity.
     // Please change that method accordingly when this assumption becomes not true.
@@ -112,6 +116,35 @@ public class ExchangeClient
             ScheduledExecutorService scheduler,
             LocalMemoryContext systemMemoryContext,
             Executor pageBufferClientCallbackExecutor)
+    {
+        this(
+                selfAddress,
+                dataIntegrityVerification,
+                bufferCapacity,
+                maxResponseSize,
+                concurrentRequestMultiplier,
+                maxErrorDuration,
+                acknowledgePages,
+                httpClient,
+                scheduler,
+                systemMemoryContext,
+                pageBufferClientCallbackExecutor,
+                Optional.empty());
+    }
+
+    public ExchangeClient(
+            String selfAddress,
+            DataIntegrityVerification dataIntegrityVerification,
+            DataSize bufferCapacity,
+            DataSize maxResponseSize,
+            int concurrentRequestMultiplier,
+            Duration maxErrorDuration,
+            boolean acknowledgePages,
+            HttpClient httpClient,
+            ScheduledExecutorService scheduler,
+            LocalMemoryContext systemMemoryContext,
+            Executor pageBufferClientCallbackExecutor,
+            Optional<ListeningExecutorService> streamingExecutor)
     {
         this.selfAddress = requireNonNull(selfAddress, "selfAddress is null");
         this.dataIntegrityVerification = requireNonNull(dataIntegrityVerification, "dataIntegrityVerification is null");
@@ -125,6 +158,7 @@ public class ExchangeClient
         this.systemMemoryContext = systemMemoryContext;
         this.maxBufferRetainedSizeInBytes = Long.MIN_VALUE;
         this.pageBufferClientCallbackExecutor = requireNonNull(pageBufferClientCallbackExecutor, "pageBufferClientCallbackExecutor is null");
+        this.streamingExecutor = requireNonNull(streamingExecutor, "streamingExecutor is null");
     }
 
     public ExchangeClientStatus getStatus()
@@ -173,7 +207,9 @@ public class ExchangeClient
                 location,
                 new ExchangeClientCallback(),
                 scheduler,
-                pageBufferClientCallbackExecutor);
+                Ticker.systemTicker(),
+                pageBufferClientCallbackExecutor,
+                streamingExecutor);
         allClients.put(location, client);
         queuedClients.add(client);
 
@@ -308,6 +344,9 @@ public class ExchangeClient
         int clientCount = (int) ((1.0 * neededBytes / averageBytesPerRequest) * concurrentRequestMultiplier);
         clientCount = Math.max(clientCount, 1);
 
+        // the free capacity of the buffer is shared by the clients as the credit of their streams of pages
+        DataSize credit = DataSize.ofBytes(Math.max(neededBytes / clientCount, maxResponseSize.toBytes()));
+
         int pendingClients = allClients.size() - queuedClients.size() - completedClients.size();
         clientCount -= pendingClients;
 
@@ -317,7 +356,7 @@ public class ExchangeClient
                 // no more clients available
                 return;
             }
-            client.scheduleRequest();
+            client.scheduleRequest(credit);
         }
     }
 
@@ -14,6 +14,7 @@
 package io.trino.operator;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.http.client.HttpClientConfig;
 import io.airlift.units.DataSize;
 import io.airlift.units.DataSize.Unit;
@@ -35,6 +36,8 @@ public class ExchangeClientConfig
     private int clientThreads = 25;
     private int pageBufferClientMaxCallbackThreads = 25;
     private boolean acknowledgePages = true;
+    private boolean streamingEnabled;
+    private int streamingThreads = 50;
 
     @NotNull
     public DataSize getMaxBufferSize()
@@ -140,4 +143,31 @@ public class ExchangeClientConfig
         this.acknowledgePages = acknowledgePages;
         return this;
     }
+
+    public boolean isStreamingEnabled()
+    {
+        return streamingEnabled;
+    }
+
+    @Config("exchange.streaming-enabled")
+    @ConfigDescription("Read the pages of remote tasks from streams of responses, which are bounded by the free space of the exchange buffer")
+    public ExchangeClientConfig setStreamingEnabled(boolean streamingEnabled)
+    {
+        this.streamingEnabled = streamingEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getStreamingThreads()
+    {
+        return streamingThreads;
+    }
+
+    @Config("exchange.streaming-threads")
+    @ConfigDescription("Maximum number of threads reading the streams of responses of remote tasks")
+    public ExchangeClientConfig setStreamingThreads(int streamingThreads)
+    {
+        this.streamingThreads = streamingThreads;
+        return this;
+    }
 }
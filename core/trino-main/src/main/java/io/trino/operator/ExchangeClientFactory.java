@@ -13,6 +13,7 @@
  */
 package io.trino.operator;
 
+import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.concurrent.ThreadPoolExecutorMBean;
 import io.airlift.http.client.HttpClient;
 import io.airlift.node.NodeInfo;
@@ -27,11 +28,13 @@ import org.weakref.jmx.Nested;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newFixedThreadPool;
@@ -50,6 +53,7 @@ public class ExchangeClientFactory
     private final ScheduledExecutorService scheduler;
     private final ThreadPoolExecutorMBean executorMBean;
     private final ExecutorService pageBufferClientCallbackExecutor;
+    private final Optional<ListeningExecutorService> streamingExecutor;
 
     @Inject
     public ExchangeClientFactory(
@@ -68,6 +72,8 @@ public class ExchangeClientFactory
                 config.getMaxErrorDuration(),
                 config.isAcknowledgePages(),
                 config.getPageBufferClientMaxCallbackThreads(),
+                config.isStreamingEnabled(),
+                config.getStreamingThreads(),
                 httpClient,
                 scheduler);
     }
@@ -81,6 +87,8 @@ public class ExchangeClientFactory
             Duration maxErrorDuration,
             boolean acknowledgePages,
             int pageBufferClientMaxCallbackThreads,
+            boolean streamingEnabled,
+            int streamingThreads,
             HttpClient httpClient,
             ScheduledExecutorService scheduler)
     {
@@ -102,6 +110,8 @@ public class ExchangeClientFactory
 
         this.pageBufferClientCallbackExecutor = newFixedThreadPool(pageBufferClientMaxCallbackThreads, daemonThreadsNamed("page-buffer-client-callback-%s"));
         this.executorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) pageBufferClientCallbackExecutor);
+        // a stream of pages occupies a thread while it is read, and the streams exceeding the pool wait for the earlier ones to end
+        this.streamingExecutor = streamingEnabled ? Optional.of(listeningDecorator(newFixedThreadPool(streamingThreads, daemonThreadsNamed("exchange-streaming-%s")))) : Optional.empty();
 
         checkArgument(maxBufferedBytes.toBytes() > 0, "maxBufferSize must be at least 1 byte: %s", maxBufferedBytes);
         checkArgument(maxResponseSize.toBytes() > 0, "maxResponseSize must be at least 1 byte: %s", maxResponseSize);
@@ -112,6 +122,7 @@ public class ExchangeClientFactory
     public void stop()
     {
         pageBufferClientCallbackExecutor.shutdownNow();
+        streamingExecutor.ifPresent(ExecutorService::shutdownNow);
     }
 
     @Managed
@@ -135,6 +146,7 @@ public class ExchangeClientFactory
                 httpClient,
                 scheduler,
                 systemMemoryContext,
-                pageBufferClientCallbackExecutor);
+                pageBufferClientCallbackExecutor,
+                streamingExecutor);
     }
 }
@@ -27,9 +27,11 @@ import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkState;
+import static io.trino.spi.connector.StandardWarningCode.ADAPTIVE_PLAN_CHANGE;
 import static io.trino.spi.type.VarcharType.VARCHAR;
 import static io.trino.sql.planner.planprinter.PlanPrinter.textDistributedPlan;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
 
 public class ExplainAnalyzeOperator
         implements Operator
@@ -145,7 +147,12 @@ public class ExplainAnalyzeOperator
             return null;
         }
 
-        String plan = textDistributedPlan(queryInfo.getOutputStage().get().getSubStages().get(0), metadata, operatorContext.getSession(), verbose);
+        // the plan of the query might have been changed during the execution
+        String planChanges = queryInfo.getWarnings().stream()
+                .filter(warning -> warning.getWarningCode().equals(ADAPTIVE_PLAN_CHANGE.toWarningCode()))
+                .map(warning -> "Plan change: " + warning.getMessage() + "\n")
+                .collect(joining());
+        String plan = planChanges + textDistributedPlan(queryInfo.getOutputStage().get().getSubStages().get(0), metadata, operatorContext.getSession(), verbose);
         BlockBuilder builder = VARCHAR.createBlockBuilder(null, 1);
         VARCHAR.writeString(builder, plan);
 
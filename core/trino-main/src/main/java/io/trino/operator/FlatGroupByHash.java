@@ -0,0 +1,749 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import io.trino.spi.Page;
+import io.trino.spi.PageBuilder;
+import io.trino.spi.TrinoException;
+import io.trino.spi.block.Block;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.block.DictionaryBlock;
+import io.trino.spi.block.RunLengthEncodedBlock;
+import io.trino.spi.type.Type;
+import io.trino.sql.gen.JoinCompiler;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.trino.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.toIntExact;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Group by hash which stores the keys of each group contiguously in a flat record
+ * next to the raw hash of the group, instead of in per channel block builders.
+ * Variable width values are stored in a separate {@link VariableWidthData} heap and
+ * referenced from the record. Keys are hashed, written, and compared by a generated
+ * {@link FlatGroupByHashStrategy}.
+ */
+// This implementation assumes arrays used in the hash are always a power of 2
+public class FlatGroupByHash
+        implements GroupByHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FlatGroupByHash.class).instanceSize();
+    private static final float FILL_RATIO = 0.75f;
+
+    private static final int RECORDS_PER_CHUNK_SHIFT = 10;
+    private static final int RECORDS_PER_CHUNK = 1 << RECORDS_PER_CHUNK_SHIFT;
+    private static final int RECORDS_PER_CHUNK_MASK = RECORDS_PER_CHUNK - 1;
+
+    // the raw hash of the group is stored at the start of each record
+    private static final int RECORD_HASH_OFFSET = 0;
+    private static final int RECORD_KEY_OFFSET = Long.BYTES;
+
+    private static final VarHandle LONG_HANDLE = MethodHandles.byteArrayViewVarHandle(long[].class, LITTLE_ENDIAN);
+
+    private final List<Type> types;
+    private final List<Type> hashTypes;
+    private final int[] channels;
+    private final Optional<Integer> inputHashChannel;
+    private final boolean processDictionary;
+
+    private final FlatGroupByHashStrategy hashStrategy;
+    private final int recordSize;
+
+    private byte[][] recordChunks = new byte[0][];
+    private long recordChunksRetainedSizeInBytes;
+    private final VariableWidthData variableWidthData = new VariableWidthData();
+
+    private int hashCapacity;
+    private int maxFill;
+    private int mask;
+    private int[] groupIdsByHash;
+    private byte[] rawHashByHashPosition;
+
+    private int nextGroupId;
+    private DictionaryLookBack dictionaryLookBack;
+    private long hashCollisions;
+    private double expectedHashCollisions;
+
+    // reserve enough memory before rehash
+    private final UpdateMemory updateMemory;
+    private long preallocatedMemoryInBytes;
+    private long currentPageSizeInBytes;
+
+    public FlatGroupByHash(
+            List<? extends Type> hashTypes,
+            int[] hashChannels,
+            Optional<Integer> inputHashChannel,
+            int expectedSize,
+            boolean processDictionary,
+            JoinCompiler joinCompiler,
+            UpdateMemory updateMemory)
+    {
+        this.hashTypes = ImmutableList.copyOf(requireNonNull(hashTypes, "hashTypes is null"));
+
+        requireNonNull(joinCompiler, "joinCompiler is null");
+        requireNonNull(hashChannels, "hashChannels is null");
+        checkArgument(hashTypes.size() == hashChannels.length, "hashTypes and hashChannels have different sizes");
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+
+        this.inputHashChannel = requireNonNull(inputHashChannel, "inputHashChannel is null");
+        this.types = inputHashChannel.isPresent() ? ImmutableList.copyOf(Iterables.concat(hashTypes, ImmutableList.of(BIGINT))) : this.hashTypes;
+        this.channels = hashChannels.clone();
+        this.processDictionary = processDictionary;
+
+        this.hashStrategy = joinCompiler.compileFlatGroupByHashStrategy(this.hashTypes);
+        this.recordSize = RECORD_KEY_OFFSET + hashStrategy.getFixedSize();
+
+        // reserve memory for the arrays
+        hashCapacity = arraySize(expectedSize, FILL_RATIO);
+
+        maxFill = calculateMaxFill(hashCapacity);
+        mask = hashCapacity - 1;
+        groupIdsByHash = new int[hashCapacity];
+        Arrays.fill(groupIdsByHash, -1);
+
+        rawHashByHashPosition = new byte[hashCapacity];
+
+        // This interface is used for actively reserving memory (push model) for rehash.
+        // The caller can also query memory usage on this object (pull model)
+        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        return (long) LONG_HANDLE.get(getRecordChunk(groupId), getRecordOffset(groupId) + RECORD_HASH_OFFSET);
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE +
+                sizeOf(recordChunks) +
+                recordChunksRetainedSizeInBytes +
+                variableWidthData.getRetainedSizeInBytes() +
+                sizeOf(groupIdsByHash) +
+                sizeOf(rawHashByHashPosition) +
+                (dictionaryLookBack == null ? 0 : dictionaryLookBack.getRetainedSizeInBytes()) +
+                preallocatedMemoryInBytes;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    @Override
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        byte[] records = getRecordChunk(groupId);
+        int recordOffset = getRecordOffset(groupId);
+        hashStrategy.appendTo(records, recordOffset + RECORD_KEY_OFFSET, variableWidthData, pageBuilder, outputChannelOffset);
+        if (inputHashChannel.isPresent()) {
+            BlockBuilder hashBlockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + channels.length);
+            BIGINT.writeLong(hashBlockBuilder, (long) LONG_HANDLE.get(records, recordOffset + RECORD_HASH_OFFSET));
+        }
+    }
+
+    @Override
+    public Work<?> addPage(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        if (isRunLengthEncoded(page)) {
+            return new AddRunLengthEncodedPageWork(page);
+        }
+        if (canProcessDictionary(page)) {
+            return new AddDictionaryPageWork(page);
+        }
+
+        return new AddPageWork(page);
+    }
+
+    @Override
+    public Work<GroupByIdBlock> getGroupIds(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        if (isRunLengthEncoded(page)) {
+            return new GetRunLengthEncodedGroupIdsWork(page);
+        }
+        if (canProcessDictionary(page)) {
+            return new GetDictionaryGroupIdsWork(page);
+        }
+
+        return new GetGroupIdsWork(page);
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        long rawHash = hashStrategy.hash(page, position, hashChannels);
+        return contains(position, page, hashChannels, rawHash);
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels, long rawHash)
+    {
+        int hashPosition = getHashPosition(rawHash, mask);
+
+        // look for a slot containing this key
+        while (groupIdsByHash[hashPosition] != -1) {
+            if (groupNotDistinctFromCurrentRow(groupIdsByHash[hashPosition], hashPosition, position, page, (byte) rawHash, hashChannels)) {
+                // found an existing slot for this key
+                return true;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+        }
+
+        return false;
+    }
+
+    @VisibleForTesting
+    @Override
+    public int getCapacity()
+    {
+        return hashCapacity;
+    }
+
+    private int putIfAbsent(int position, Page page)
+    {
+        long rawHash;
+        if (inputHashChannel.isPresent()) {
+            rawHash = BIGINT.getLong(page.getBlock(inputHashChannel.get()), position);
+        }
+        else {
+            rawHash = hashStrategy.hash(page, position, channels);
+        }
+        return putIfAbsent(position, page, rawHash);
+    }
+
+    private int putIfAbsent(int position, Page page, long rawHash)
+    {
+        int hashPosition = getHashPosition(rawHash, mask);
+
+        // look for an empty slot or a slot containing this key
+        while (groupIdsByHash[hashPosition] != -1) {
+            int groupId = groupIdsByHash[hashPosition];
+            if (groupNotDistinctFromCurrentRow(groupId, hashPosition, position, page, (byte) rawHash, channels)) {
+                // found an existing slot for this key
+                return groupId;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+            hashCollisions++;
+        }
+
+        return addNewGroup(hashPosition, position, page, rawHash);
+    }
+
+    private int addNewGroup(int hashPosition, int position, Page page, long rawHash)
+    {
+        int groupId = nextGroupId++;
+
+        // append the key to the flat records
+        int chunkIndex = groupId >> RECORDS_PER_CHUNK_SHIFT;
+        if (chunkIndex == recordChunks.length) {
+            recordChunks = Arrays.copyOf(recordChunks, Math.max(recordChunks.length * 2, 16));
+        }
+        if (recordChunks[chunkIndex] == null) {
+            recordChunks[chunkIndex] = new byte[RECORDS_PER_CHUNK * recordSize];
+            recordChunksRetainedSizeInBytes += sizeOf(recordChunks[chunkIndex]);
+        }
+        byte[] records = recordChunks[chunkIndex];
+        int recordOffset = getRecordOffset(groupId);
+        LONG_HANDLE.set(records, recordOffset + RECORD_HASH_OFFSET, rawHash);
+        hashStrategy.writeFlat(page, position, channels, records, recordOffset + RECORD_KEY_OFFSET, variableWidthData);
+
+        // record group id in hash
+        groupIdsByHash[hashPosition] = groupId;
+        rawHashByHashPosition[hashPosition] = (byte) rawHash;
+
+        // increase capacity, if necessary
+        if (needRehash()) {
+            tryRehash();
+        }
+        return groupId;
+    }
+
+    private boolean needRehash()
+    {
+        return nextGroupId >= maxFill;
+    }
+
+    private boolean tryRehash()
+    {
+        long newCapacityLong = hashCapacity * 2L;
+        if (newCapacityLong > Integer.MAX_VALUE) {
+            throw new TrinoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of hash table cannot exceed 1 billion entries");
+        }
+        int newCapacity = toIntExact(newCapacityLong);
+
+        // An estimate of how much extra memory is needed before we can go ahead and expand the hash table.
+        // This includes the new capacity for groupIdsByHash and rawHashByHashPosition as well as the size of the current page
+        preallocatedMemoryInBytes = (newCapacity - hashCapacity) * (long) (Integer.BYTES + Byte.BYTES) +
+                currentPageSizeInBytes;
+        if (!updateMemory.update()) {
+            // reserved memory but has exceeded the limit
+            return false;
+        }
+        preallocatedMemoryInBytes = 0;
+
+        expectedHashCollisions += estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+
+        int newMask = newCapacity - 1;
+        int[] newGroupIdsByHash = new int[newCapacity];
+        Arrays.fill(newGroupIdsByHash, -1);
+        byte[] newRawHashByHashPosition = new byte[newCapacity];
+
+        // the raw hash is stored in the record, so the keys do not need to be rehashed
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            long rawHash = getRawHash(groupId);
+
+            // find an empty slot for the group
+            int pos = getHashPosition(rawHash, newMask);
+            while (newGroupIdsByHash[pos] != -1) {
+                pos = (pos + 1) & newMask;
+                hashCollisions++;
+            }
+
+            // record the mapping
+            newGroupIdsByHash[pos] = groupId;
+            newRawHashByHashPosition[pos] = (byte) rawHash;
+        }
+
+        this.mask = newMask;
+        this.hashCapacity = newCapacity;
+        this.maxFill = calculateMaxFill(newCapacity);
+        this.groupIdsByHash = newGroupIdsByHash;
+        this.rawHashByHashPosition = newRawHashByHashPosition;
+        return true;
+    }
+
+    private boolean groupNotDistinctFromCurrentRow(int groupId, int hashPosition, int position, Page page, byte rawHash, int[] hashChannels)
+    {
+        if (rawHashByHashPosition[hashPosition] != rawHash) {
+            return false;
+        }
+        return hashStrategy.valueNotDistinctFromRow(getRecordChunk(groupId), getRecordOffset(groupId) + RECORD_KEY_OFFSET, variableWidthData, page, position, hashChannels);
+    }
+
+    private byte[] getRecordChunk(int groupId)
+    {
+        return recordChunks[groupId >> RECORDS_PER_CHUNK_SHIFT];
+    }
+
+    private int getRecordOffset(int groupId)
+    {
+        return (groupId & RECORDS_PER_CHUNK_MASK) * recordSize;
+    }
+
+    private static int getHashPosition(long rawHash, int mask)
+    {
+        return (int) (murmurHash3(rawHash) & mask);
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        checkArgument(hashSize > 0, "hashSize must be greater than 0");
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        checkArgument(hashSize > maxFill, "hashSize must be larger than maxFill");
+        return maxFill;
+    }
+
+    private void updateDictionaryLookBack(Page page)
+    {
+        Block[] dictionaries = new Block[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            dictionaries[i] = ((DictionaryBlock) page.getBlock(channels[i])).getDictionary();
+        }
+        if (dictionaryLookBack == null || !dictionaryLookBack.isLookBackFor(dictionaries)) {
+            dictionaryLookBack = new DictionaryLookBack(dictionaries);
+        }
+    }
+
+    // For a page that contains DictionaryBlocks, create a new page in which
+    // the dictionaries from the DictionaryBlocks are extracted into the corresponding channels
+    private Page createPageWithExtractedDictionary(Page page)
+    {
+        Block[] blocks = new Block[page.getChannelCount()];
+        for (int channel : channels) {
+            blocks[channel] = ((DictionaryBlock) page.getBlock(channel)).getDictionary();
+        }
+        if (inputHashChannel.isPresent()) {
+            blocks[inputHashChannel.get()] = ((DictionaryBlock) page.getBlock(inputHashChannel.get())).getDictionary();
+        }
+        return new Page(blocks[channels[0]].getPositionCount(), blocks);
+    }
+
+    private boolean canProcessDictionary(Page page)
+    {
+        if (!processDictionary || !(page.getBlock(channels[0]) instanceof DictionaryBlock)) {
+            return false;
+        }
+
+        // all key channels, and the hash channel, must be projections of the same dictionary source, so they share the dictionary ids
+        DictionaryBlock inputDataBlock = (DictionaryBlock) page.getBlock(channels[0]);
+        for (int i = 1; i < channels.length; i++) {
+            if (!isSameDictionarySource(inputDataBlock, page.getBlock(channels[i]))) {
+                return false;
+            }
+        }
+        return inputHashChannel.isEmpty() || isSameDictionarySource(inputDataBlock, page.getBlock(inputHashChannel.get()));
+    }
+
+    private static boolean isSameDictionarySource(DictionaryBlock dictionaryBlock, Block block)
+    {
+        return block instanceof DictionaryBlock && ((DictionaryBlock) block).getDictionarySourceId().equals(dictionaryBlock.getDictionarySourceId());
+    }
+
+    private int getGroupId(Page dictionaryPage, int positionInDictionary)
+    {
+        if (dictionaryLookBack.isProcessed(positionInDictionary)) {
+            return dictionaryLookBack.getGroupId(positionInDictionary);
+        }
+
+        int groupId = putIfAbsent(positionInDictionary, dictionaryPage);
+        dictionaryLookBack.setProcessed(positionInDictionary, groupId);
+        return groupId;
+    }
+
+    private boolean isRunLengthEncoded(Page page)
+    {
+        for (int i = 0; i < channels.length; i++) {
+            if (!(page.getBlock(channels[i]) instanceof RunLengthEncodedBlock)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class AddPageWork
+            implements Work<Void>
+    {
+        private final Page page;
+
+        private int lastPosition;
+
+        public AddPageWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // get the group for the current row
+                putIfAbsent(lastPosition, page);
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class AddDictionaryPageWork
+            implements Work<Void>
+    {
+        private final Page page;
+        private final Page dictionaryPage;
+        private final DictionaryBlock dictionaryBlock;
+
+        private int lastPosition;
+
+        public AddDictionaryPageWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+            this.dictionaryBlock = (DictionaryBlock) page.getBlock(channels[0]);
+            updateDictionaryLookBack(page);
+            this.dictionaryPage = createPageWithExtractedDictionary(page);
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                getGroupId(dictionaryPage, dictionaryBlock.getId(lastPosition));
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class AddRunLengthEncodedPageWork
+            implements Work<Void>
+    {
+        private final Page page;
+
+        private boolean finished;
+
+        public AddRunLengthEncodedPageWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(!finished);
+            if (page.getPositionCount() == 0) {
+                finished = true;
+                return true;
+            }
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // Only needs to process the first row since it is Run Length Encoded
+            putIfAbsent(0, page);
+            finished = true;
+
+            return true;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final BlockBuilder blockBuilder;
+        private final Page page;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetGroupIdsWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+            // we know the exact size required for the block
+            this.blockBuilder = BIGINT.createFixedSizeBlockBuilder(page.getPositionCount());
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition <= positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // output the group id for this row
+                BIGINT.writeLong(blockBuilder, putIfAbsent(lastPosition, page));
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == page.getPositionCount(), "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+        }
+    }
+
+    private class GetDictionaryGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final BlockBuilder blockBuilder;
+        private final Page page;
+        private final Page dictionaryPage;
+        private final DictionaryBlock dictionaryBlock;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetDictionaryGroupIdsWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+            this.dictionaryBlock = (DictionaryBlock) page.getBlock(channels[0]);
+            updateDictionaryLookBack(page);
+            this.dictionaryPage = createPageWithExtractedDictionary(page);
+
+            // we know the exact size required for the block
+            this.blockBuilder = BIGINT.createFixedSizeBlockBuilder(page.getPositionCount());
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                BIGINT.writeLong(blockBuilder, getGroupId(dictionaryPage, dictionaryBlock.getId(lastPosition)));
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == page.getPositionCount(), "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+        }
+    }
+
+    private class GetRunLengthEncodedGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final Page page;
+
+        int groupId = -1;
+        private boolean processFinished;
+        private boolean resultProduced;
+
+        public GetRunLengthEncodedGroupIdsWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(!processFinished);
+            if (page.getPositionCount() == 0) {
+                processFinished = true;
+                return true;
+            }
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // Only needs to process the first row since it is Run Length Encoded
+            groupId = putIfAbsent(0, page);
+            processFinished = true;
+            return true;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(processFinished);
+            checkState(!resultProduced);
+            resultProduced = true;
+
+            return new GroupByIdBlock(
+                    nextGroupId,
+                    new RunLengthEncodedBlock(
+                            BIGINT.createFixedSizeBlockBuilder(1).writeLong(groupId).build(),
+                            page.getPositionCount()));
+        }
+    }
+}
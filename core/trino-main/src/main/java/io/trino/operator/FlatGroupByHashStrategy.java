@@ -0,0 +1,35 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import io.trino.spi.Page;
+import io.trino.spi.PageBuilder;
+
+/**
+ * Hashes, stores and compares group by keys in a flat, row oriented layout.
+ * Each key occupies {@link #getFixedSize()} bytes in a fixed width record, and
+ * variable width values are stored in a {@link VariableWidthData} heap.
+ */
+public interface FlatGroupByHashStrategy
+{
+    int getFixedSize();
+
+    long hash(Page page, int position, int[] channels);
+
+    void writeFlat(Page page, int position, int[] channels, byte[] fixed, int fixedOffset, VariableWidthData variableWidthData);
+
+    boolean valueNotDistinctFromRow(byte[] fixed, int fixedOffset, VariableWidthData variableWidthData, Page page, int position, int[] channels);
+
+    void appendTo(byte[] fixed, int fixedOffset, VariableWidthData variableWidthData, PageBuilder pageBuilder, int outputChannelOffset);
+}
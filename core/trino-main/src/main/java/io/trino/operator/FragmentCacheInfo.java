@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.trino.util.Mergeable;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+public class FragmentCacheInfo
+        implements Mergeable<FragmentCacheInfo>, OperatorInfo
+{
+    private final long cacheHits;
+    private final long cacheMisses;
+    private final long cacheHitPositions;
+
+    @JsonCreator
+    public FragmentCacheInfo(
+            @JsonProperty("cacheHits") long cacheHits,
+            @JsonProperty("cacheMisses") long cacheMisses,
+            @JsonProperty("cacheHitPositions") long cacheHitPositions)
+    {
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+        this.cacheHitPositions = cacheHitPositions;
+    }
+
+    /**
+     * Number of splits whose output was read from the fragment cache.
+     */
+    @JsonProperty
+    public long getCacheHits()
+    {
+        return cacheHits;
+    }
+
+    /**
+     * Number of splits whose output was computed, and added to the fragment cache.
+     */
+    @JsonProperty
+    public long getCacheMisses()
+    {
+        return cacheMisses;
+    }
+
+    /**
+     * Number of rows read from the fragment cache.
+     */
+    @JsonProperty
+    public long getCacheHitPositions()
+    {
+        return cacheHitPositions;
+    }
+
+    @Override
+    public FragmentCacheInfo mergeWith(FragmentCacheInfo other)
+    {
+        return new FragmentCacheInfo(
+                cacheHits + other.cacheHits,
+                cacheMisses + other.cacheMisses,
+                cacheHitPositions + other.cacheHitPositions);
+    }
+
+    @Override
+    public boolean isFinal()
+    {
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("cacheHits", cacheHits)
+                .add("cacheMisses", cacheMisses)
+                .add("cacheHitPositions", cacheHitPositions)
+                .toString();
+    }
+}
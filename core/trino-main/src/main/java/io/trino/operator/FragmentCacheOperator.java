@@ -0,0 +1,273 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import io.trino.execution.fragmentcache.FragmentCache;
+import io.trino.execution.fragmentcache.FragmentCacheKey;
+import io.trino.execution.fragmentcache.PipelineSignature;
+import io.trino.memory.context.LocalMemoryContext;
+import io.trino.metadata.Split;
+import io.trino.spi.Page;
+import io.trino.spi.connector.UpdatablePageSource;
+import io.trino.sql.planner.plan.PlanNodeId;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Passes through the output of the leading operators of a leaf pipeline, and adds it to
+ * the {@link FragmentCache} once the split of the driver is fully processed.
+ */
+public class FragmentCacheOperator
+        implements Operator
+{
+    /**
+     * Creates the operators which cache the output of the leading operators of a leaf pipeline
+     * for the split of a driver, or replace these operators when their output is already cached.
+     */
+    public static class FragmentCacheOperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final PlanNodeId sourceId;
+        private final int cachedOperatorCount;
+        private final PipelineSignature pipelineSignature;
+        private final FragmentCache fragmentCache;
+
+        public FragmentCacheOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                PlanNodeId sourceId,
+                int cachedOperatorCount,
+                PipelineSignature pipelineSignature,
+                FragmentCache fragmentCache)
+        {
+            checkArgument(cachedOperatorCount > 0, "cachedOperatorCount must be positive");
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.sourceId = requireNonNull(sourceId, "sourceId is null");
+            this.cachedOperatorCount = cachedOperatorCount;
+            this.pipelineSignature = requireNonNull(pipelineSignature, "pipelineSignature is null");
+            this.fragmentCache = requireNonNull(fragmentCache, "fragmentCache is null");
+        }
+
+        /**
+         * Number of the leading operators of the pipeline whose output is cached.
+         */
+        public int getCachedOperatorCount()
+        {
+            return cachedOperatorCount;
+        }
+
+        public Optional<FragmentCacheKey> createCacheKey(Split split)
+        {
+            checkArgument(split.getCatalogName().equals(pipelineSignature.getCatalogName()), "Split is not for the scanned table: %s", split);
+            return split.getConnectorSplit().getCacheKey()
+                    .map(splitKey -> new FragmentCacheKey(pipelineSignature, splitKey));
+        }
+
+        public Optional<List<Page>> getCachedPages(FragmentCacheKey cacheKey)
+        {
+            return fragmentCache.get(cacheKey);
+        }
+
+        public SourceOperator createCachedPagesOperator(DriverContext driverContext, List<Page> pages)
+        {
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, FragmentCacheOperator.class.getSimpleName());
+            return new CachedPagesOperator(operatorContext, sourceId, pages);
+        }
+
+        public Operator createCachingOperator(DriverContext driverContext, FragmentCacheKey cacheKey)
+        {
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, FragmentCacheOperator.class.getSimpleName());
+            return new FragmentCacheOperator(operatorContext, fragmentCache, cacheKey);
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final FragmentCache fragmentCache;
+    private final FragmentCacheKey cacheKey;
+    private final LocalMemoryContext memoryContext;
+
+    // null once the output is too large to be cached
+    private List<Page> cachedPages = new ArrayList<>();
+    private long cachedPagesRetainedSizeInBytes;
+
+    private Page outputPage;
+    private boolean finishing;
+
+    public FragmentCacheOperator(OperatorContext operatorContext, FragmentCache fragmentCache, FragmentCacheKey cacheKey)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.fragmentCache = requireNonNull(fragmentCache, "fragmentCache is null");
+        this.cacheKey = requireNonNull(cacheKey, "cacheKey is null");
+        this.memoryContext = operatorContext.newLocalSystemMemoryContext(FragmentCacheOperator.class.getSimpleName());
+        operatorContext.setInfoSupplier(() -> new FragmentCacheInfo(0, 1, 0));
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finishing && outputPage == null;
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        checkState(needsInput(), "Operator does not need input");
+        outputPage = requireNonNull(page, "page is null");
+
+        if (cachedPages == null) {
+            return;
+        }
+        cachedPagesRetainedSizeInBytes += page.getRetainedSizeInBytes();
+        if (!fragmentCache.isCacheable(cachedPagesRetainedSizeInBytes)) {
+            cachedPages = null;
+            memoryContext.setBytes(0);
+            return;
+        }
+        cachedPages.add(page);
+        memoryContext.setBytes(cachedPagesRetainedSizeInBytes);
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        Page page = outputPage;
+        outputPage = null;
+        return page;
+    }
+
+    @Override
+    public void finish()
+    {
+        if (finishing) {
+            return;
+        }
+        finishing = true;
+
+        // the source operators are finished, so the output for the split is complete
+        if (cachedPages != null) {
+            fragmentCache.put(cacheKey, cachedPages);
+            cachedPages = null;
+            memoryContext.setBytes(0);
+        }
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return finishing && outputPage == null;
+    }
+
+    @Override
+    public void close()
+    {
+        cachedPages = null;
+        memoryContext.close();
+    }
+
+    private static class CachedPagesOperator
+            implements SourceOperator
+    {
+        private final OperatorContext operatorContext;
+        private final PlanNodeId sourceId;
+        private final Iterator<Page> pages;
+
+        public CachedPagesOperator(OperatorContext operatorContext, PlanNodeId sourceId, List<Page> pages)
+        {
+            this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+            this.sourceId = requireNonNull(sourceId, "sourceId is null");
+            this.pages = ImmutableList.copyOf(requireNonNull(pages, "pages is null")).iterator();
+
+            long positions = pages.stream().mapToLong(Page::getPositionCount).sum();
+            operatorContext.setInfoSupplier(() -> new FragmentCacheInfo(1, 0, positions));
+        }
+
+        @Override
+        public OperatorContext getOperatorContext()
+        {
+            return operatorContext;
+        }
+
+        @Override
+        public PlanNodeId getSourceId()
+        {
+            return sourceId;
+        }
+
+        @Override
+        public Supplier<Optional<UpdatablePageSource>> addSplit(Split split)
+        {
+            // the output for the split is read from the cache
+            return Optional::empty;
+        }
+
+        @Override
+        public void noMoreSplits()
+        {
+        }
+
+        @Override
+        public void finish()
+        {
+            // the cached pages are not needed anymore
+            Iterators.advance(pages, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return !pages.hasNext();
+        }
+
+        @Override
+        public boolean needsInput()
+        {
+            return false;
+        }
+
+        @Override
+        public void addInput(Page page)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Page getOutput()
+        {
+            if (!pages.hasNext()) {
+                return null;
+            }
+            Page page = pages.next();
+            operatorContext.recordProcessedInput(page.getSizeInBytes(), page.getPositionCount());
+            return page;
+        }
+    }
+}
@@ -18,6 +18,7 @@ import io.trino.Session;
 import io.trino.spi.Page;
 import io.trino.spi.PageBuilder;
 import io.trino.spi.type.Type;
+import io.trino.sql.gen.FlatGroupByHashStrategyCompiler;
 import io.trino.sql.gen.JoinCompiler;
 import io.trino.type.BlockTypeOperators;
 
@@ -25,6 +26,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static io.trino.SystemSessionProperties.isDictionaryAggregationEnabled;
+import static io.trino.SystemSessionProperties.isFlatGroupByHashEnabled;
 import static io.trino.operator.UpdateMemory.NOOP;
 import static io.trino.spi.type.BigintType.BIGINT;
 
@@ -39,7 +41,16 @@ public interface GroupByHash
             JoinCompiler joinCompiler,
             BlockTypeOperators blockTypeOperators)
     {
-        return createGroupByHash(hashTypes, hashChannels, inputHashChannel, expectedSize, isDictionaryAggregationEnabled(session), joinCompiler, blockTypeOperators, NOOP);
+        return createGroupByHash(
+                hashTypes,
+                hashChannels,
+                inputHashChannel,
+                expectedSize,
+                isDictionaryAggregationEnabled(session),
+                isFlatGroupByHashEnabled(session),
+                joinCompiler,
+                blockTypeOperators,
+                NOOP);
     }
 
     static GroupByHash createGroupByHash(
@@ -51,9 +62,26 @@ public interface GroupByHash
             JoinCompiler joinCompiler,
             BlockTypeOperators blockTypeOperators,
             UpdateMemory updateMemory)
+    {
+        return createGroupByHash(hashTypes, hashChannels, inputHashChannel, expectedSize, processDictionary, false, joinCompiler, blockTypeOperators, updateMemory);
+    }
+
+    static GroupByHash createGroupByHash(
+            List<? extends Type> hashTypes,
+            int[] hashChannels,
+            Optional<Integer> inputHashChannel,
+            int expectedSize,
+            boolean processDictionary,
+            boolean flatGroupByHashEnabled,
+            JoinCompiler joinCompiler,
+            BlockTypeOperators blockTypeOperators,
+            UpdateMemory updateMemory)
     {
         if (hashTypes.size() == 1 && hashTypes.get(0).equals(BIGINT) && hashChannels.length == 1) {
-            return new BigintGroupByHash(hashChannels[0], inputHashChannel.isPresent(), expectedSize, updateMemory);
+            return new BigintGroupByHash(hashChannels[0], inputHashChannel.isPresent(), expectedSize, processDictionary, updateMemory);
+        }
+        if (flatGroupByHashEnabled && hashTypes.stream().allMatch(FlatGroupByHashStrategyCompiler::isSupportedType)) {
+            return new FlatGroupByHash(hashTypes, hashChannels, inputHashChannel, expectedSize, processDictionary, joinCompiler, updateMemory);
         }
         return new MultiChannelGroupByHash(hashTypes, hashChannels, inputHashChannel, expectedSize, processDictionary, joinCompiler, blockTypeOperators, updateMemory);
     }
@@ -118,6 +118,19 @@ public class GroupedTopNRowNumberAccumulator
         return heapSize;
     }
 
+    /**
+     * Returns the row ID of the lowest ranked row of groupId, if the group holds topN rows, or -1 otherwise.
+     * <p>
+     * Rows which do not rank before this row will not be incorporated into the group.
+     */
+    public long peekLowestRankedRowId(long groupId)
+    {
+        if (groupId >= groupIdToHeapBuffer.getTotalGroups() || calculateRootRowNumber(groupId) < topN) {
+            return UNKNOWN_INDEX;
+        }
+        return peekRootRowId(groupId);
+    }
+
     private long calculateRootRowNumber(long groupId)
     {
         return groupIdToHeapBuffer.getHeapSize(groupId);
@@ -86,6 +86,19 @@ public class GroupedTopNRowNumberBuilder
         return new ResultIterator();
     }
 
+    /**
+     * Offers the value in the channel of the lowest ranked row of the group to the dynamic filter,
+     * if the group holds topN rows.
+     */
+    public void updateDynamicFilter(long groupId, int channel, TopNDynamicFilter dynamicFilter)
+    {
+        long rowId = groupedTopNRowNumberAccumulator.peekLowestRankedRowId(groupId);
+        if (rowId < 0) {
+            return;
+        }
+        dynamicFilter.updateBoundary(pageManager.getPage(rowId).getBlock(channel), pageManager.getPosition(rowId));
+    }
+
     @Override
     public long getEstimatedSizeInBytes()
     {
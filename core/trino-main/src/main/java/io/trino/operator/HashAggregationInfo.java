@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public class HashAggregationInfo
+        extends HashCollisionsInfo
+{
+    private final long inputPositionsWithoutPartialAggregation;
+
+    public static HashAggregationInfo createHashAggregationInfo(HashCollisionsInfo hashCollisionsInfo, long inputPositionsWithoutPartialAggregation)
+    {
+        return new HashAggregationInfo(
+                hashCollisionsInfo.getWeightedHashCollisions(),
+                hashCollisionsInfo.getWeightedSumSquaredHashCollisions(),
+                hashCollisionsInfo.getWeightedExpectedHashCollisions(),
+                inputPositionsWithoutPartialAggregation);
+    }
+
+    @JsonCreator
+    public HashAggregationInfo(
+            @JsonProperty(WEIGHTED_HASH_COLLISIONS_PROPERTY) double weightedHashCollisions,
+            @JsonProperty(WEIGHTED_SUM_SQUARED_HASH_COLLISIONS) double weightedSumSquaredHashCollisions,
+            @JsonProperty(WEIGHTED_EXPECTED_HASH_COLLISIONS) double weightedExpectedHashCollisions,
+            @JsonProperty("inputPositionsWithoutPartialAggregation") long inputPositionsWithoutPartialAggregation)
+    {
+        super(weightedHashCollisions, weightedSumSquaredHashCollisions, weightedExpectedHashCollisions);
+        this.inputPositionsWithoutPartialAggregation = inputPositionsWithoutPartialAggregation;
+    }
+
+    /**
+     * Number of input rows that were passed through without being aggregated,
+     * because adaptive partial aggregation turned itself off.
+     */
+    @JsonProperty
+    public long getInputPositionsWithoutPartialAggregation()
+    {
+        return inputPositionsWithoutPartialAggregation;
+    }
+
+    @Override
+    public HashAggregationInfo mergeWith(HashCollisionsInfo other)
+    {
+        checkArgument(other instanceof HashAggregationInfo, "Cannot merge %s with %s", this, other);
+        HashCollisionsInfo merged = super.mergeWith(other);
+        return new HashAggregationInfo(
+                merged.getWeightedHashCollisions(),
+                merged.getWeightedSumSquaredHashCollisions(),
+                merged.getWeightedExpectedHashCollisions(),
+                inputPositionsWithoutPartialAggregation + ((HashAggregationInfo) other).getInputPositionsWithoutPartialAggregation());
+    }
+}
@@ -20,8 +20,10 @@ import io.airlift.units.DataSize;
 import io.trino.memory.context.LocalMemoryContext;
 import io.trino.operator.aggregation.Accumulator;
 import io.trino.operator.aggregation.AccumulatorFactory;
+import io.trino.operator.aggregation.PartialAggregationController;
 import io.trino.operator.aggregation.builder.HashAggregationBuilder;
 import io.trino.operator.aggregation.builder.InMemoryHashAggregationBuilder;
+import io.trino.operator.aggregation.builder.SkipAggregationBuilder;
 import io.trino.operator.aggregation.builder.SpillableHashAggregationBuilder;
 import io.trino.operator.scalar.CombineHashFunction;
 import io.trino.spi.Page;
@@ -36,11 +38,13 @@ import io.trino.type.BlockTypeOperators;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.trino.operator.HashAggregationInfo.createHashAggregationInfo;
 import static io.trino.operator.aggregation.builder.InMemoryHashAggregationBuilder.toTypes;
 import static io.trino.sql.planner.optimizations.HashGenerationOptimizer.INITIAL_HASH_VALUE;
 import static io.trino.type.TypeUtils.NULL_HASH_CODE;
@@ -67,6 +71,7 @@ public class HashAggregationOperator
 
         private final int expectedGroups;
         private final Optional<DataSize> maxPartialMemory;
+        private final Optional<PartialAggregationController> partialAggregationController;
         private final boolean spillEnabled;
         private final DataSize memoryLimitForMerge;
         private final DataSize memoryLimitForMergeWithMemory;
@@ -106,6 +111,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    Optional.empty(),
                     false,
                     DataSize.of(0, MEGABYTE),
                     DataSize.of(0, MEGABYTE),
@@ -130,6 +136,7 @@ public class HashAggregationOperator
                 Optional<Integer> groupIdChannel,
                 int expectedGroups,
                 Optional<DataSize> maxPartialMemory,
+                Optional<PartialAggregationController> partialAggregationController,
                 boolean spillEnabled,
                 DataSize unspillMemoryLimit,
                 SpillerFactory spillerFactory,
@@ -149,6 +156,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    partialAggregationController,
                     spillEnabled,
                     unspillMemoryLimit,
                     DataSize.succinctBytes((long) (unspillMemoryLimit.toBytes() * MERGE_WITH_MEMORY_RATIO)),
@@ -172,6 +180,7 @@ public class HashAggregationOperator
                 Optional<Integer> groupIdChannel,
                 int expectedGroups,
                 Optional<DataSize> maxPartialMemory,
+                Optional<PartialAggregationController> partialAggregationController,
                 boolean spillEnabled,
                 DataSize memoryLimitForMerge,
                 DataSize memoryLimitForMergeWithMemory,
@@ -192,6 +201,7 @@ public class HashAggregationOperator
             this.accumulatorFactories = ImmutableList.copyOf(accumulatorFactories);
             this.expectedGroups = expectedGroups;
             this.maxPartialMemory = requireNonNull(maxPartialMemory, "maxPartialMemory is null");
+            this.partialAggregationController = requireNonNull(partialAggregationController, "partialAggregationController is null");
             this.spillEnabled = spillEnabled;
             this.memoryLimitForMerge = requireNonNull(memoryLimitForMerge, "memoryLimitForMerge is null");
             this.memoryLimitForMergeWithMemory = requireNonNull(memoryLimitForMergeWithMemory, "memoryLimitForMergeWithMemory is null");
@@ -219,6 +229,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    partialAggregationController,
                     spillEnabled,
                     memoryLimitForMerge,
                     memoryLimitForMergeWithMemory,
@@ -251,6 +262,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    partialAggregationController.map(PartialAggregationController::duplicate),
                     spillEnabled,
                     memoryLimitForMerge,
                     memoryLimitForMergeWithMemory,
@@ -272,6 +284,7 @@ public class HashAggregationOperator
     private final Optional<Integer> groupIdChannel;
     private final int expectedGroups;
     private final Optional<DataSize> maxPartialMemory;
+    private final Optional<PartialAggregationController> partialAggregationController;
     private final boolean spillEnabled;
     private final DataSize memoryLimitForMerge;
     private final DataSize memoryLimitForMergeWithMemory;
@@ -282,6 +295,7 @@ public class HashAggregationOperator
 
     private final List<Type> types;
     private final HashCollisionsCounter hashCollisionsCounter;
+    private final AtomicLong inputPositionsWithoutPartialAggregation = new AtomicLong();
 
     private HashAggregationBuilder aggregationBuilder;
     private LocalMemoryContext memoryContext;
@@ -290,6 +304,10 @@ public class HashAggregationOperator
     private boolean finishing;
     private boolean finished;
 
+    // for adaptive partial aggregation
+    private long numberOfInputRowsProcessed;
+    private long numberOfUniqueRowsProduced;
+
     // for yield when memory is not available
     private Work<?> unfinishedWork;
 
@@ -305,6 +323,7 @@ public class HashAggregationOperator
             Optional<Integer> groupIdChannel,
             int expectedGroups,
             Optional<DataSize> maxPartialMemory,
+            Optional<PartialAggregationController> partialAggregationController,
             boolean spillEnabled,
             DataSize memoryLimitForMerge,
             DataSize memoryLimitForMergeWithMemory,
@@ -328,6 +347,7 @@ public class HashAggregationOperator
         this.produceDefaultOutput = produceDefaultOutput;
         this.expectedGroups = expectedGroups;
         this.maxPartialMemory = requireNonNull(maxPartialMemory, "maxPartialMemory is null");
+        this.partialAggregationController = requireNonNull(partialAggregationController, "partialAggregationController is null");
         this.types = toTypes(groupByTypes, step, accumulatorFactories, hashChannel);
         this.spillEnabled = spillEnabled;
         this.memoryLimitForMerge = requireNonNull(memoryLimitForMerge, "memoryLimitForMerge is null");
@@ -336,7 +356,7 @@ public class HashAggregationOperator
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
         this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
         this.hashCollisionsCounter = new HashCollisionsCounter(operatorContext);
-        operatorContext.setInfoSupplier(hashCollisionsCounter);
+        operatorContext.setInfoSupplier(() -> createHashAggregationInfo(hashCollisionsCounter.get(), inputPositionsWithoutPartialAggregation.get()));
         this.useSystemMemory = useSystemMemory;
 
         this.memoryContext = operatorContext.localUserMemoryContext();
@@ -386,8 +406,14 @@ public class HashAggregationOperator
         inputProcessed = true;
 
         if (aggregationBuilder == null) {
+            boolean partialAggregationDisabled = partialAggregationController
+                    .map(PartialAggregationController::isPartialAggregationDisabled)
+                    .orElse(false);
             // TODO: We ignore spillEnabled here if any aggregate has ORDER BY clause or DISTINCT because they are not yet implemented for spilling.
-            if (step.isOutputPartial() || !spillEnabled || hasOrderBy() || hasDistinct()) {
+            if (step.isOutputPartial() && partialAggregationDisabled) {
+                aggregationBuilder = new SkipAggregationBuilder(groupByChannels, hashChannel, accumulatorFactories, memoryContext);
+            }
+            else if (step.isOutputPartial() || !spillEnabled || hasOrderBy() || hasDistinct()) {
                 aggregationBuilder = new InMemoryHashAggregationBuilder(
                         accumulatorFactories,
                         step,
@@ -431,6 +457,13 @@ public class HashAggregationOperator
             checkState(!aggregationBuilder.isFull(), "Aggregation buffer is full");
         }
 
+        if (aggregationBuilder instanceof SkipAggregationBuilder) {
+            inputPositionsWithoutPartialAggregation.getAndAdd(page.getPositionCount());
+        }
+        else {
+            numberOfInputRowsProcessed += page.getPositionCount();
+        }
+
         // process the current page; save the unfinished work if we are waiting for memory
         unfinishedWork = aggregationBuilder.processPage(page);
         if (unfinishedWork.process()) {
@@ -514,7 +547,9 @@ public class HashAggregationOperator
             return null;
         }
 
-        return outputPages.getResult();
+        Page result = outputPages.getResult();
+        numberOfUniqueRowsProduced += result.getPositionCount();
+        return result;
     }
 
     @Override
@@ -540,6 +575,9 @@ public class HashAggregationOperator
             aggregationBuilder = null;
         }
         memoryContext.setBytes(0);
+        partialAggregationController.ifPresent(controller -> controller.onFlush(numberOfInputRowsProcessed, numberOfUniqueRowsProduced));
+        numberOfInputRowsProcessed = 0;
+        numberOfUniqueRowsProduced = 0;
     }
 
     private Page getGlobalAggregationOutput()
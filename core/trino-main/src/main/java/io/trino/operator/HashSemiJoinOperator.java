@@ -24,24 +24,38 @@ import io.trino.operator.WorkProcessor.TransformationState;
 import io.trino.spi.Page;
 import io.trino.spi.block.Block;
 import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.block.RunLengthEncodedBlock;
 import io.trino.spi.type.Type;
+import io.trino.spiller.PartitioningSpiller;
+import io.trino.spiller.PartitioningSpillerFactory;
 import io.trino.sql.planner.plan.PlanNodeId;
+import io.trino.type.BlockTypeOperators;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 import javax.annotation.Nullable;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.trino.operator.BasicWorkProcessorOperatorAdapter.createAdapterOperatorFactory;
+import static io.trino.operator.DistinctSpiller.createSpillPartitionFunction;
+import static io.trino.operator.Operator.NOT_BLOCKED;
 import static io.trino.operator.WorkProcessor.TransformationState.blocked;
 import static io.trino.operator.WorkProcessor.TransformationState.finished;
+import static io.trino.operator.WorkProcessor.TransformationState.needsMoreData;
 import static io.trino.operator.WorkProcessor.TransformationState.ofResult;
 import static io.trino.spi.type.BigintType.BIGINT;
 import static io.trino.spi.type.BooleanType.BOOLEAN;
+import static io.trino.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 public class HashSemiJoinOperator
@@ -55,7 +69,46 @@ public class HashSemiJoinOperator
             int probeJoinChannel,
             Optional<Integer> probeJoinHashChannel)
     {
-        return createAdapterOperatorFactory(new Factory(operatorId, planNodeId, setSupplier, probeTypes, probeJoinChannel, probeJoinHashChannel));
+        return createAdapterOperatorFactory(new Factory(
+                operatorId,
+                planNodeId,
+                setSupplier,
+                probeTypes,
+                probeJoinChannel,
+                probeJoinHashChannel,
+                Optional.empty(),
+                unsupportedPartitioningSpillerFactory()));
+    }
+
+    public static OperatorFactory createOperatorFactory(
+            int operatorId,
+            PlanNodeId planNodeId,
+            SetSupplier setSupplier,
+            List<? extends Type> probeTypes,
+            int probeJoinChannel,
+            Optional<Integer> probeJoinHashChannel,
+            boolean spillEnabled,
+            PartitioningSpillerFactory partitioningSpillerFactory,
+            BlockTypeOperators blockTypeOperators)
+    {
+        Optional<PartitionFunction> spillPartitionFunction = Optional.empty();
+        if (spillEnabled) {
+            // the probe rows are spilled with the partitioning of the spilled set
+            spillPartitionFunction = Optional.of(createSpillPartitionFunction(
+                    ImmutableList.copyOf(probeTypes),
+                    ImmutableList.of(probeJoinChannel),
+                    probeJoinHashChannel,
+                    blockTypeOperators));
+        }
+        return createAdapterOperatorFactory(new Factory(
+                operatorId,
+                planNodeId,
+                setSupplier,
+                probeTypes,
+                probeJoinChannel,
+                probeJoinHashChannel,
+                spillPartitionFunction,
+                partitioningSpillerFactory));
     }
 
     private static class Factory
@@ -67,9 +120,19 @@ public class HashSemiJoinOperator
         private final List<Type> probeTypes;
         private final int probeJoinChannel;
         private final Optional<Integer> probeJoinHashChannel;
+        private final Optional<PartitionFunction> spillPartitionFunction;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
         private boolean closed;
 
-        private Factory(int operatorId, PlanNodeId planNodeId, SetSupplier setSupplier, List<? extends Type> probeTypes, int probeJoinChannel, Optional<Integer> probeJoinHashChannel)
+        private Factory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                SetSupplier setSupplier,
+                List<? extends Type> probeTypes,
+                int probeJoinChannel,
+                Optional<Integer> probeJoinHashChannel,
+                Optional<PartitionFunction> spillPartitionFunction,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -78,13 +141,23 @@ public class HashSemiJoinOperator
             checkArgument(probeJoinChannel >= 0, "probeJoinChannel is negative");
             this.probeJoinChannel = probeJoinChannel;
             this.probeJoinHashChannel = probeJoinHashChannel;
+            this.spillPartitionFunction = requireNonNull(spillPartitionFunction, "spillPartitionFunction is null");
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
         }
 
         @Override
         public WorkProcessorOperator create(ProcessorContext processorContext, WorkProcessor<Page> sourcePages)
         {
             checkState(!closed, "Factory is already closed");
-            return new HashSemiJoinOperator(sourcePages, setSupplier, probeJoinChannel, probeJoinHashChannel, processorContext.getMemoryTrackingContext());
+            return new HashSemiJoinOperator(
+                    sourcePages,
+                    setSupplier,
+                    probeTypes,
+                    probeJoinChannel,
+                    probeJoinHashChannel,
+                    spillPartitionFunction,
+                    partitioningSpillerFactory,
+                    processorContext);
         }
 
         @Override
@@ -114,25 +187,37 @@ public class HashSemiJoinOperator
         @Override
         public Factory duplicate()
         {
-            return new Factory(operatorId, planNodeId, setSupplier, probeTypes, probeJoinChannel, probeJoinHashChannel);
+            checkState(spillPartitionFunction.isEmpty(), "Spilling semi join cannot be duplicated");
+            return new Factory(operatorId, planNodeId, setSupplier, probeTypes, probeJoinChannel, probeJoinHashChannel, spillPartitionFunction, partitioningSpillerFactory);
         }
     }
 
+    private final SemiJoinPages semiJoinPages;
     private final WorkProcessor<Page> pages;
 
     private HashSemiJoinOperator(
             WorkProcessor<Page> sourcePages,
             SetSupplier channelSetFuture,
+            List<Type> probeTypes,
             int probeJoinChannel,
             Optional<Integer> probeHashChannel,
-            MemoryTrackingContext memoryTrackingContext)
+            Optional<PartitionFunction> spillPartitionFunction,
+            PartitioningSpillerFactory partitioningSpillerFactory,
+            ProcessorContext processorContext)
     {
-        pages = sourcePages
-                .transform(new SemiJoinPages(
-                        channelSetFuture,
-                        probeJoinChannel,
-                        probeHashChannel,
-                        requireNonNull(memoryTrackingContext, "memoryTrackingContext is null").aggregateUserMemoryContext()));
+        MemoryTrackingContext memoryTrackingContext = processorContext.getMemoryTrackingContext();
+        semiJoinPages = new SemiJoinPages(
+                channelSetFuture,
+                probeJoinChannel,
+                probeHashChannel,
+                requireNonNull(memoryTrackingContext, "memoryTrackingContext is null").aggregateUserMemoryContext(),
+                spillPartitionFunction.isPresent(),
+                () -> partitioningSpillerFactory.create(
+                        probeTypes,
+                        spillPartitionFunction.get(),
+                        processorContext.getSpillContext().newLocalSpillContext(),
+                        memoryTrackingContext.newAggregateSystemMemoryContext()));
+        pages = sourcePages.transform(semiJoinPages);
     }
 
     @Override
@@ -141,45 +226,173 @@ public class HashSemiJoinOperator
         return pages;
     }
 
+    @Override
+    public void close()
+            throws Exception
+    {
+        semiJoinPages.close();
+    }
+
     private static class SemiJoinPages
-            implements WorkProcessor.Transformation<Page, Page>
+            implements WorkProcessor.Transformation<Page, Page>, Closeable
     {
         private final int probeJoinChannel;
-        private final ListenableFuture<ChannelSet> channelSetFuture;
+        private final SetSupplier setSupplier;
+        private final ListenableFuture<?> setBuilt;
         private final Optional<Integer> probeHashChannel;
         private final LocalMemoryContext localMemoryContext;
+        private final boolean spillEnabled;
+        private final Supplier<PartitioningSpiller> spillerSupplier;
 
         @Nullable
         private ChannelSet channelSet;
 
-        public SemiJoinPages(SetSupplier channelSetFuture, int probeJoinChannel, Optional<Integer> probeHashChannel, AggregatedMemoryContext aggregatedMemoryContext)
+        // the rows are spilled when the set is spilled, and probed one partition at a time after the input is finished
+        private Optional<PartitioningSpiller> spiller = Optional.empty();
+        private ListenableFuture<?> spillInProgress = NOT_BLOCKED;
+        private int releasedPartitions;
+        @Nullable
+        private ListenableFuture<ChannelSet> spilledPartition;
+        private Iterator<Page> unspilledPages = emptyIterator();
+
+        public SemiJoinPages(
+                SetSupplier channelSetFuture,
+                int probeJoinChannel,
+                Optional<Integer> probeHashChannel,
+                AggregatedMemoryContext aggregatedMemoryContext,
+                boolean spillEnabled,
+                Supplier<PartitioningSpiller> spillerSupplier)
         {
             checkArgument(probeJoinChannel >= 0, "probeJoinChannel is negative");
 
-            this.channelSetFuture = requireNonNull(channelSetFuture, "hashProvider is null").getChannelSet();
+            this.setSupplier = requireNonNull(channelSetFuture, "hashProvider is null");
+            this.setBuilt = setSupplier.getSetBuilt();
             this.probeJoinChannel = probeJoinChannel;
             this.probeHashChannel = requireNonNull(probeHashChannel, "hashChannel is null");
             this.localMemoryContext = requireNonNull(aggregatedMemoryContext, "aggregatedMemoryContext is null").newLocalMemoryContext(SemiJoinPages.class.getSimpleName());
+            this.spillEnabled = spillEnabled;
+            this.spillerSupplier = requireNonNull(spillerSupplier, "spillerSupplier is null");
         }
 
         @Override
         public TransformationState<Page> process(Page inputPage)
         {
             if (inputPage == null) {
-                return finished();
+                if (!setSupplier.isSpilled()) {
+                    releaseSpilledPartitions();
+                    return finished();
+                }
+                return processSpilledPartitions();
             }
 
             if (channelSet == null) {
-                if (!channelSetFuture.isDone()) {
+                if (!setBuilt.isDone()) {
                     // This will materialize page but it shouldn't matter for the first page
                     localMemoryContext.setBytes(inputPage.getSizeInBytes());
-                    return blocked(channelSetFuture);
+                    return blocked(setBuilt);
                 }
-                checkSuccess(channelSetFuture, "ChannelSet building failed");
-                channelSet = getFutureValue(channelSetFuture);
+                checkSuccess(setBuilt, "ChannelSet building failed");
                 localMemoryContext.setBytes(0);
+                if (setSupplier.isSpilled()) {
+                    return spill(inputPage);
+                }
+                channelSet = getFutureValue(setSupplier.getChannelSet());
+            }
+
+            return ofResult(semiJoin(inputPage, channelSet, channelSet.containsNull()));
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            releaseSpilledPartitions();
+            if (spiller.isPresent()) {
+                spiller.get().close();
+            }
+        }
+
+        private TransformationState<Page> spill(Page inputPage)
+        {
+            if (!spillInProgress.isDone()) {
+                return blocked(spillInProgress);
             }
+            checkSuccess(spillInProgress, "spilling failed");
 
+            // the spilled set is not empty, so a null value is not known to be in the set or not
+            Block probeJoinBlock = inputPage.getBlock(probeJoinChannel);
+            IntArrayList nullPositions = new IntArrayList();
+            IntArrayList nonNullPositions = new IntArrayList(inputPage.getPositionCount());
+            for (int position = 0; position < inputPage.getPositionCount(); position++) {
+                if (probeJoinBlock.isNull(position)) {
+                    nullPositions.add(position);
+                }
+                else {
+                    nonNullPositions.add(position);
+                }
+            }
+
+            if (!nonNullPositions.isEmpty()) {
+                if (spiller.isEmpty()) {
+                    spiller = Optional.of(spillerSupplier.get());
+                }
+                Page spilledPage = inputPage.getPositions(nonNullPositions.elements(), 0, nonNullPositions.size());
+                spillInProgress = spiller.get().partitionAndSpill(spilledPage, partition -> true).getSpillingFuture();
+            }
+            if (nullPositions.isEmpty()) {
+                return needsMoreData();
+            }
+            Page nullPage = inputPage.getPositions(nullPositions.elements(), 0, nullPositions.size());
+            return ofResult(nullPage.appendColumn(RunLengthEncodedBlock.create(BOOLEAN, null, nullPage.getPositionCount())));
+        }
+
+        private TransformationState<Page> processSpilledPartitions()
+        {
+            if (!spillInProgress.isDone()) {
+                return blocked(spillInProgress);
+            }
+            checkSuccess(spillInProgress, "spilling failed");
+
+            while (releasedPartitions < DistinctSpiller.PARTITION_COUNT) {
+                if (spilledPartition == null) {
+                    unspilledPages = spiller.map(spiller -> spiller.getSpilledPages(releasedPartitions)).orElse(emptyIterator());
+                    if (!unspilledPages.hasNext()) {
+                        releaseSpilledPartition();
+                        continue;
+                    }
+                    spilledPartition = setSupplier.getSpilledPartition(releasedPartitions);
+                }
+                if (!spilledPartition.isDone()) {
+                    return blocked(spilledPartition);
+                }
+                if (unspilledPages.hasNext()) {
+                    ChannelSet partitionChannelSet = getFutureValue(spilledPartition);
+                    return ofResult(semiJoin(unspilledPages.next(), partitionChannelSet, setSupplier.spilledSetContainsNull()), false);
+                }
+                spilledPartition = null;
+                releaseSpilledPartition();
+            }
+            spiller.ifPresent(PartitioningSpiller::verifyAllPartitionsRead);
+            return finished();
+        }
+
+        private void releaseSpilledPartitions()
+        {
+            while (spillEnabled && releasedPartitions < DistinctSpiller.PARTITION_COUNT) {
+                releaseSpilledPartition();
+            }
+        }
+
+        private void releaseSpilledPartition()
+        {
+            if (spillEnabled) {
+                setSupplier.releaseSpilledPartition(releasedPartitions);
+            }
+            releasedPartitions++;
+        }
+
+        private Page semiJoin(Page inputPage, ChannelSet channelSet, boolean setContainsNull)
+        {
             // create the block builder for the new boolean column
             // we know the exact size required for the block
             BlockBuilder blockBuilder = BOOLEAN.createFixedSizeBlockBuilder(inputPage.getPositionCount());
@@ -206,7 +419,7 @@ public class HashSemiJoinOperator
                     else {
                         contains = channelSet.contains(position, probeJoinPage);
                     }
-                    if (!contains && channelSet.containsNull()) {
+                    if (!contains && setContainsNull) {
                         blockBuilder.appendNull();
                     }
                     else {
@@ -215,7 +428,7 @@ public class HashSemiJoinOperator
                 }
             }
             // add the new boolean column to the page
-            return ofResult(inputPage.appendColumn(blockBuilder.build()));
+            return inputPage.appendColumn(blockBuilder.build());
         }
     }
 }
@@ -18,6 +18,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.net.MediaType;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.http.client.HttpClient;
 import io.airlift.http.client.HttpClient.HttpResponseFuture;
 import io.airlift.http.client.HttpStatus;
@@ -47,6 +49,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.concurrent.Executor;
@@ -54,6 +57,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkState;
@@ -68,6 +72,7 @@ import static io.airlift.http.client.StatusResponseHandler.createStatusResponseH
 import static io.trino.TrinoMediaTypes.TRINO_PAGES_TYPE;
 import static io.trino.execution.buffer.PagesSerdeUtil.NO_CHECKSUM;
 import static io.trino.execution.buffer.PagesSerdeUtil.calculateChecksum;
+import static io.trino.execution.buffer.PagesSerdeUtil.readSerializedPage;
 import static io.trino.execution.buffer.PagesSerdeUtil.readSerializedPages;
 import static io.trino.operator.HttpPageBufferClient.PagesResponse.createEmptyPagesResponse;
 import static io.trino.operator.HttpPageBufferClient.PagesResponse.createPagesResponse;
@@ -127,7 +132,7 @@ public final class HttpPageBufferClient
     @GuardedBy("this")
     private boolean closed;
     @GuardedBy("this")
-    private HttpResponseFuture<?> future;
+    private ListenableFuture<?> future;
     @GuardedBy("this")
     private DateTime lastUpdate = DateTime.now();
     @GuardedBy("this")
@@ -150,6 +155,7 @@ public final class HttpPageBufferClient
     private final AtomicInteger requestsFailed = new AtomicInteger();
 
     private final Executor pageBufferClientCallbackExecutor;
+    private final Optional<ListeningExecutorService> streamingExecutor;
 
     public HttpPageBufferClient(
             String selfAddress,
@@ -189,6 +195,39 @@ public final class HttpPageBufferClient
             ScheduledExecutorService scheduler,
             Ticker ticker,
             Executor pageBufferClientCallbackExecutor)
+    {
+        this(
+                selfAddress,
+                httpClient,
+                dataIntegrityVerification,
+                maxResponseSize,
+                maxErrorDuration,
+                acknowledgePages,
+                location,
+                clientCallback,
+                scheduler,
+                ticker,
+                pageBufferClientCallbackExecutor,
+                Optional.empty());
+    }
+
+    /**
+     * @param streamingExecutor if present, the pages are read from a stream of responses of the remote
+     * buffer, and the streams are read on this executor as the http client reads them synchronously
+     */
+    public HttpPageBufferClient(
+            String selfAddress,
+            HttpClient httpClient,
+            DataIntegrityVerification dataIntegrityVerification,
+            DataSize maxResponseSize,
+            Duration maxErrorDuration,
+            boolean acknowledgePages,
+            URI location,
+            ClientCallback clientCallback,
+            ScheduledExecutorService scheduler,
+            Ticker ticker,
+            Executor pageBufferClientCallbackExecutor,
+            Optional<ListeningExecutorService> streamingExecutor)
     {
         this.selfAddress = requireNonNull(selfAddress, "selfAddress is null");
         this.httpClient = requireNonNull(httpClient, "httpClient is null");
@@ -199,6 +238,7 @@ public final class HttpPageBufferClient
         this.clientCallback = requireNonNull(clientCallback, "clientCallback is null");
         this.scheduler = requireNonNull(scheduler, "scheduler is null");
         this.pageBufferClientCallbackExecutor = requireNonNull(pageBufferClientCallbackExecutor, "pageBufferClientCallbackExecutor is null");
+        this.streamingExecutor = requireNonNull(streamingExecutor, "streamingExecutor is null");
         requireNonNull(maxErrorDuration, "maxErrorDuration is null");
         requireNonNull(ticker, "ticker is null");
         this.backoff = new Backoff(maxErrorDuration, ticker);
@@ -223,8 +263,11 @@ public final class HttpPageBufferClient
             state = "queued";
         }
         String httpRequestState = "not scheduled";
-        if (future != null) {
-            httpRequestState = future.getState();
+        if (future instanceof HttpResponseFuture) {
+            httpRequestState = ((HttpResponseFuture<?>) future).getState();
+        }
+        else if (future != null) {
+            httpRequestState = "streaming";
         }
 
         long rejectedRows = rowsRejected.get();
@@ -278,6 +321,18 @@ public final class HttpPageBufferClient
 
     public synchronized void scheduleRequest()
     {
+        scheduleRequest(maxResponseSize);
+    }
+
+    /**
+     * Schedules a request for the pages of the remote buffer.
+     *
+     * @param credit the number of bytes the remote buffer may send in a stream of responses,
+     * this is ignored if the pages are not streamed
+     */
+    public synchronized void scheduleRequest(DataSize credit)
+    {
+        requireNonNull(credit, "credit is null");
         if (closed || (future != null) || scheduled) {
             return;
         }
@@ -289,7 +344,7 @@ public final class HttpPageBufferClient
         long delayNanos = backoff.getBackoffDelayNanos();
         scheduler.schedule(() -> {
             try {
-                initiateRequest();
+                initiateRequest(credit);
             }
             catch (Throwable t) {
                 // should not happen, but be safe and fail the operator
@@ -301,7 +356,7 @@ public final class HttpPageBufferClient
         requestsScheduled.incrementAndGet();
     }
 
-    private synchronized void initiateRequest()
+    private synchronized void initiateRequest(DataSize credit)
     {
         scheduled = false;
         if (closed || (future != null)) {
@@ -311,6 +366,9 @@ public final class HttpPageBufferClient
         if (completed) {
             sendDelete();
         }
+        else if (streamingExecutor.isPresent()) {
+            sendStreamingGetResults(credit);
+        }
         else {
             sendGetResults();
         }
@@ -337,70 +395,8 @@ public final class HttpPageBufferClient
 
                 backoff.success();
 
-                List<SerializedPage> pages;
                 try {
-                    boolean shouldAcknowledge = false;
-                    synchronized (HttpPageBufferClient.this) {
-                        if (taskInstanceId == null) {
-                            taskInstanceId = result.getTaskInstanceId();
-                        }
-
-                        if (!isNullOrEmpty(taskInstanceId) && !result.getTaskInstanceId().equals(taskInstanceId)) {
-                            throw new TrinoException(REMOTE_TASK_MISMATCH, format("%s (%s). Expected taskInstanceId: %s, received taskInstanceId: %s",
-                                    REMOTE_TASK_MISMATCH_ERROR,
-                                    fromUri(uri),
-                                    taskInstanceId,
-                                    result.getTaskInstanceId()));
-                        }
-
-                        if (result.getToken() == token) {
-                            pages = result.getPages();
-                            token = result.getNextToken();
-                            shouldAcknowledge = pages.size() > 0;
-                        }
-                        else {
-                            pages = ImmutableList.of();
-                        }
-                    }
-
-                    if (shouldAcknowledge && acknowledgePages) {
-                        // Acknowledge token without handling the response.
-                        // The next request will also make sure the token is acknowledged.
-                        // This is to fast release the pages on the buffer side.
-                        URI uri = HttpUriBuilder.uriBuilderFrom(location).appendPath(String.valueOf(result.getNextToken())).appendPath("acknowledge").build();
-                        httpClient.executeAsync(prepareGet().setUri(uri).build(), new ResponseHandler<Void, RuntimeException>()
-                        {
-                            @Override
-                            public Void handleException(Request request, Exception exception)
-                            {
-                                log.debug(exception, "Acknowledge request failed: %s", uri);
-                                return null;
-                            }
-
-                            @Override
-                            public Void handle(Request request, Response response)
-                            {
-                                if (familyForStatusCode(response.getStatusCode()) != HttpStatus.Family.SUCCESSFUL) {
-                                    log.debug("Unexpected acknowledge response code: %s", response.getStatusCode());
-                                }
-                                return null;
-                            }
-                        });
-                    }
-
-                    // add pages:
-                    // addPages must be called regardless of whether pages is an empty list because
-                    // clientCallback can keep stats of requests and responses. For example, it may
-                    // keep track of how often a client returns empty response and adjust request
-                    // frequency or buffer size.
-                    if (clientCallback.addPages(HttpPageBufferClient.this, pages)) {
-                        pagesReceived.addAndGet(pages.size());
-                        rowsReceived.addAndGet(pages.stream().mapToLong(SerializedPage::getPositionCount).sum());
-                    }
-                    else {
-                        pagesRejected.addAndGet(pages.size());
-                        rowsRejected.addAndGet(pages.stream().mapToLong(SerializedPage::getPositionCount).sum());
-                    }
+                    processPagesResponse(uri, result);
                 }
                 catch (TrinoException e) {
                     handleFailure(e, resultFuture);
@@ -424,40 +420,159 @@ public final class HttpPageBufferClient
             @Override
             public void onFailure(Throwable t)
             {
-                log.debug("Request to %s failed %s", uri, t);
                 assertNotHoldsLock(this);
+                handleRequestFailure(uri, t, resultFuture);
+            }
+        }, pageBufferClientCallbackExecutor);
+    }
 
-                if (t instanceof ChecksumVerificationException) {
-                    switch (dataIntegrityVerification) {
-                        case NONE:
-                            // In case of NONE, failure is possible in case of inconsistent cluster configuration, so we should not retry.
-                        case ABORT:
-                            // TrinoException will not be retried
-                            t = new TrinoException(GENERIC_INTERNAL_ERROR, format("Checksum verification failure on %s when reading from %s: %s", selfAddress, uri, t.getMessage()), t);
-                            break;
-                        case RETRY:
-                            log.warn("Checksum verification failure on %s when reading from %s, may be retried: %s", selfAddress, uri, t.getMessage());
-                            break;
-                        default:
-                            throw new AssertionError("Unsupported option: " + dataIntegrityVerification);
+    private synchronized void sendStreamingGetResults(DataSize credit)
+    {
+        URI uri = HttpUriBuilder.uriBuilderFrom(location).appendPath(String.valueOf(token)).appendPath("stream").build();
+        Request request = prepareGet()
+                .setHeader(TRINO_MAX_SIZE, credit.toString())
+                .setUri(uri).build();
+        // each response of the stream is processed as it arrives, so the pages can be
+        // consumed before the remote buffer finishes the stream
+        PageStreamResponseHandler responseHandler = new PageStreamResponseHandler(
+                dataIntegrityVerification != DataIntegrityVerification.NONE,
+                result -> {
+                    assertNotHoldsLock(this);
+                    backoff.success();
+                    processPagesResponse(uri, result);
+                });
+        ListenableFuture<PagesResponse> resultFuture = streamingExecutor.get().submit(() -> httpClient.execute(request, responseHandler));
+
+        future = resultFuture;
+        Futures.addCallback(resultFuture, new FutureCallback<>()
+        {
+            @Override
+            public void onSuccess(PagesResponse lastResult)
+            {
+                assertNotHoldsLock(this);
+                synchronized (HttpPageBufferClient.this) {
+                    // client is complete, acknowledge it by sending it a delete in the next request
+                    if (lastResult.isClientComplete()) {
+                        completed = true;
+                    }
+                    if (future == resultFuture) {
+                        future = null;
                     }
+                    lastUpdate = DateTime.now();
                 }
+                requestsCompleted.incrementAndGet();
+                clientCallback.requestComplete(HttpPageBufferClient.this);
+            }
 
-                t = rewriteException(t);
-                if (!(t instanceof TrinoException) && backoff.failure()) {
-                    String message = format("%s (%s - %s failures, failure duration %s, total failed request time %s)",
-                            WORKER_NODE_ERROR,
-                            uri,
-                            backoff.getFailureCount(),
-                            backoff.getFailureDuration().convertTo(SECONDS),
-                            backoff.getFailureRequestTimeTotal().convertTo(SECONDS));
-                    t = new PageTransportTimeoutException(fromUri(uri), message, t);
-                }
-                handleFailure(t, resultFuture);
+            @Override
+            public void onFailure(Throwable t)
+            {
+                assertNotHoldsLock(this);
+                handleRequestFailure(uri, t, resultFuture);
             }
         }, pageBufferClientCallbackExecutor);
     }
 
+    private void processPagesResponse(URI uri, PagesResponse result)
+    {
+        List<SerializedPage> pages;
+        boolean shouldAcknowledge = false;
+        synchronized (this) {
+            if (taskInstanceId == null) {
+                taskInstanceId = result.getTaskInstanceId();
+            }
+
+            if (!isNullOrEmpty(taskInstanceId) && !result.getTaskInstanceId().equals(taskInstanceId)) {
+                throw new TrinoException(REMOTE_TASK_MISMATCH, format("%s (%s). Expected taskInstanceId: %s, received taskInstanceId: %s",
+                        REMOTE_TASK_MISMATCH_ERROR,
+                        fromUri(uri),
+                        taskInstanceId,
+                        result.getTaskInstanceId()));
+            }
+
+            if (result.getToken() == token) {
+                pages = result.getPages();
+                token = result.getNextToken();
+                shouldAcknowledge = pages.size() > 0;
+            }
+            else {
+                pages = ImmutableList.of();
+            }
+        }
+
+        if (shouldAcknowledge && acknowledgePages) {
+            // Acknowledge token without handling the response.
+            // The next request will also make sure the token is acknowledged.
+            // This is to fast release the pages on the buffer side.
+            URI acknowledgeUri = HttpUriBuilder.uriBuilderFrom(location).appendPath(String.valueOf(result.getNextToken())).appendPath("acknowledge").build();
+            httpClient.executeAsync(prepareGet().setUri(acknowledgeUri).build(), new ResponseHandler<Void, RuntimeException>()
+            {
+                @Override
+                public Void handleException(Request request, Exception exception)
+                {
+                    log.debug(exception, "Acknowledge request failed: %s", acknowledgeUri);
+                    return null;
+                }
+
+                @Override
+                public Void handle(Request request, Response response)
+                {
+                    if (familyForStatusCode(response.getStatusCode()) != HttpStatus.Family.SUCCESSFUL) {
+                        log.debug("Unexpected acknowledge response code: %s", response.getStatusCode());
+                    }
+                    return null;
+                }
+            });
+        }
+
+        // add pages:
+        // addPages must be called regardless of whether pages is an empty list because
+        // clientCallback can keep stats of requests and responses. For example, it may
+        // keep track of how often a client returns empty response and adjust request
+        // frequency or buffer size.
+        if (clientCallback.addPages(this, pages)) {
+            pagesReceived.addAndGet(pages.size());
+            rowsReceived.addAndGet(pages.stream().mapToLong(SerializedPage::getPositionCount).sum());
+        }
+        else {
+            pagesRejected.addAndGet(pages.size());
+            rowsRejected.addAndGet(pages.stream().mapToLong(SerializedPage::getPositionCount).sum());
+        }
+    }
+
+    private void handleRequestFailure(URI uri, Throwable t, ListenableFuture<?> resultFuture)
+    {
+        log.debug("Request to %s failed %s", uri, t);
+
+        if (t instanceof ChecksumVerificationException) {
+            switch (dataIntegrityVerification) {
+                case NONE:
+                    // In case of NONE, failure is possible in case of inconsistent cluster configuration, so we should not retry.
+                case ABORT:
+                    // TrinoException will not be retried
+                    t = new TrinoException(GENERIC_INTERNAL_ERROR, format("Checksum verification failure on %s when reading from %s: %s", selfAddress, uri, t.getMessage()), t);
+                    break;
+                case RETRY:
+                    log.warn("Checksum verification failure on %s when reading from %s, may be retried: %s", selfAddress, uri, t.getMessage());
+                    break;
+                default:
+                    throw new AssertionError("Unsupported option: " + dataIntegrityVerification);
+            }
+        }
+
+        t = rewriteException(t);
+        if (!(t instanceof TrinoException) && backoff.failure()) {
+            String message = format("%s (%s - %s failures, failure duration %s, total failed request time %s)",
+                    WORKER_NODE_ERROR,
+                    uri,
+                    backoff.getFailureCount(),
+                    backoff.getFailureDuration().convertTo(SECONDS),
+                    backoff.getFailureRequestTimeTotal().convertTo(SECONDS));
+            t = new PageTransportTimeoutException(fromUri(uri), message, t);
+        }
+        handleFailure(t, resultFuture);
+    }
+
     private synchronized void sendDelete()
     {
         HttpResponseFuture<StatusResponse> resultFuture = httpClient.executeAsync(prepareDelete().setUri(location).build(), createStatusResponseHandler());
@@ -505,7 +620,7 @@ public final class HttpPageBufferClient
         assert !Thread.holdsLock(lock) : "Cannot execute this method while holding a lock";
     }
 
-    private void handleFailure(Throwable t, HttpResponseFuture<?> expectedFuture)
+    private void handleFailure(Throwable t, ListenableFuture<?> expectedFuture)
     {
         // Cannot delegate to other callback while holding a lock on this
         assertNotHoldsLock(this);
@@ -607,34 +722,7 @@ public final class HttpPageBufferClient
                     return createEmptyPagesResponse(getTaskInstanceId(response, uri), getToken(response, uri), getNextToken(response, uri), getComplete(response, uri));
                 }
 
-                // otherwise we must have gotten an OK response, everything else is considered fatal
-                if (response.getStatusCode() != HttpStatus.OK.code()) {
-                    StringBuilder body = new StringBuilder();
-                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.getInputStream(), UTF_8))) {
-                        // Get up to 1000 lines for debugging
-                        for (int i = 0; i < 1000; i++) {
-                            String line = reader.readLine();
-                            // Don't output more than 100KB
-                            if (line == null || body.length() + line.length() > 100 * 1024) {
-                                break;
-                            }
-                            body.append(line + "\n");
-                        }
-                    }
-                    catch (RuntimeException | IOException e) {
-                        // Ignored. Just return whatever message we were able to decode
-                    }
-                    throw new PageTransportErrorException(fromUri(uri), format("Expected response code to be 200, but was %s:%n%s", response.getStatusCode(), body.toString()));
-                }
-
-                // invalid content type can happen when an error page is returned, but is unlikely given the above 200
-                String contentType = response.getHeader(CONTENT_TYPE);
-                if (contentType == null) {
-                    throw new PageTransportErrorException(fromUri(uri), format("%s header is not set: %s", CONTENT_TYPE, response));
-                }
-                if (!mediaTypeMatches(contentType, TRINO_PAGES_TYPE)) {
-                    throw new PageTransportErrorException(fromUri(uri), format("Expected %s response from server but got %s", TRINO_PAGES_TYPE, contentType));
-                }
+                checkPagesResponse(response, uri);
 
                 String taskInstanceId = getTaskInstanceId(response, uri);
                 long token = getToken(response, uri);
@@ -649,7 +737,7 @@ public final class HttpPageBufferClient
                     long checksum = input.readLong();
                     int pagesCount = input.readInt();
                     List<SerializedPage> pages = ImmutableList.copyOf(readSerializedPages(input));
-                    verifyChecksum(checksum, pages);
+                    verifyChecksum(dataIntegrityVerificationEnabled, checksum, pages);
                     checkState(pages.size() == pagesCount, "Wrong number of pages, expected %s, but read %s", pagesCount, pages.size());
                     return createPagesResponse(taskInstanceId, token, nextToken, pages, complete);
                 }
@@ -662,7 +750,39 @@ public final class HttpPageBufferClient
             }
         }
 
-        private void verifyChecksum(long readChecksum, List<SerializedPage> pages)
+        private static void checkPagesResponse(Response response, URI uri)
+        {
+            // otherwise we must have gotten an OK response, everything else is considered fatal
+            if (response.getStatusCode() != HttpStatus.OK.code()) {
+                StringBuilder body = new StringBuilder();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.getInputStream(), UTF_8))) {
+                    // Get up to 1000 lines for debugging
+                    for (int i = 0; i < 1000; i++) {
+                        String line = reader.readLine();
+                        // Don't output more than 100KB
+                        if (line == null || body.length() + line.length() > 100 * 1024) {
+                            break;
+                        }
+                        body.append(line + "\n");
+                    }
+                }
+                catch (RuntimeException | IOException e) {
+                    // Ignored. Just return whatever message we were able to decode
+                }
+                throw new PageTransportErrorException(fromUri(uri), format("Expected response code to be 200, but was %s:%n%s", response.getStatusCode(), body.toString()));
+            }
+
+            // invalid content type can happen when an error page is returned, but is unlikely given the above 200
+            String contentType = response.getHeader(CONTENT_TYPE);
+            if (contentType == null) {
+                throw new PageTransportErrorException(fromUri(uri), format("%s header is not set: %s", CONTENT_TYPE, response));
+            }
+            if (!mediaTypeMatches(contentType, TRINO_PAGES_TYPE)) {
+                throw new PageTransportErrorException(fromUri(uri), format("Expected %s response from server but got %s", TRINO_PAGES_TYPE, contentType));
+            }
+        }
+
+        private static void verifyChecksum(boolean dataIntegrityVerificationEnabled, long readChecksum, List<SerializedPage> pages)
         {
             if (dataIntegrityVerificationEnabled) {
                 long calculatedChecksum = calculateChecksum(pages);
@@ -724,6 +844,72 @@ public final class HttpPageBufferClient
         }
     }
 
+    /**
+     * Reads a stream of responses, which are each encoded with the token, the next token, the completion
+     * flag of the buffer and the pages of the response. Each response is passed to the consumer as soon as
+     * it is read, and the last response is returned once the remote buffer ends the stream.
+     */
+    public static class PageStreamResponseHandler
+            implements ResponseHandler<PagesResponse, RuntimeException>
+    {
+        private final boolean dataIntegrityVerificationEnabled;
+        private final Consumer<PagesResponse> resultConsumer;
+
+        private PageStreamResponseHandler(boolean dataIntegrityVerificationEnabled, Consumer<PagesResponse> resultConsumer)
+        {
+            this.dataIntegrityVerificationEnabled = dataIntegrityVerificationEnabled;
+            this.resultConsumer = requireNonNull(resultConsumer, "resultConsumer is null");
+        }
+
+        @Override
+        public PagesResponse handleException(Request request, Exception exception)
+        {
+            throw propagate(request, exception);
+        }
+
+        @Override
+        public PagesResponse handle(Request request, Response response)
+        {
+            URI uri = request.getUri();
+            try {
+                PageResponseHandler.checkPagesResponse(response, uri);
+                String taskInstanceId = PageResponseHandler.getTaskInstanceId(response, uri);
+
+                PagesResponse lastResult = null;
+                try (SliceInput input = new InputStreamSliceInput(response.getInputStream())) {
+                    while (input.isReadable()) {
+                        long token = input.readLong();
+                        long nextToken = input.readLong();
+                        boolean complete = input.readBoolean();
+                        int magic = input.readInt();
+                        if (magic != SERIALIZED_PAGES_MAGIC) {
+                            throw new IllegalStateException(format("Invalid stream header, expected 0x%08x, but was 0x%08x", SERIALIZED_PAGES_MAGIC, magic));
+                        }
+                        long checksum = input.readLong();
+                        int pagesCount = input.readInt();
+                        ImmutableList.Builder<SerializedPage> pages = ImmutableList.builderWithExpectedSize(pagesCount);
+                        for (int i = 0; i < pagesCount; i++) {
+                            pages.add(readSerializedPage(input));
+                        }
+                        lastResult = createPagesResponse(taskInstanceId, token, nextToken, pages.build(), complete);
+                        PageResponseHandler.verifyChecksum(dataIntegrityVerificationEnabled, checksum, lastResult.getPages());
+                        resultConsumer.accept(lastResult);
+                    }
+                }
+                catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                if (lastResult == null) {
+                    throw new PageTransportErrorException(fromUri(uri), "Stream of pages is empty");
+                }
+                return lastResult;
+            }
+            catch (PageTransportErrorException e) {
+                throw new PageTransportErrorException(fromUri(uri), format("Error fetching %s: %s", request.getUri().toASCIIString(), e.getMessage()), e);
+            }
+        }
+    }
+
     public static class PagesResponse
     {
         public static PagesResponse createPagesResponse(String taskInstanceId, long token, long nextToken, Iterable<SerializedPage> pages, boolean complete)
@@ -92,6 +92,29 @@ public final class JoinHash
         return startJoinPosition(addressIndex, position, allChannelsPage);
     }
 
+    @Override
+    public long[] getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage)
+    {
+        int[] addressIndexes = pagesHash.getAddressIndex(positions, positionCount, hashChannelsPage);
+        return startJoinPositions(addressIndexes, positions, positionCount, allChannelsPage);
+    }
+
+    @Override
+    public long[] getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, long[] rawHashes)
+    {
+        int[] addressIndexes = pagesHash.getAddressIndex(positions, positionCount, hashChannelsPage, rawHashes);
+        return startJoinPositions(addressIndexes, positions, positionCount, allChannelsPage);
+    }
+
+    private long[] startJoinPositions(int[] addressIndexes, int[] positions, int positionCount, Page allProbeChannelsPage)
+    {
+        long[] joinPositions = new long[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            joinPositions[i] = startJoinPosition(addressIndexes[i], positions[i], allProbeChannelsPage);
+        }
+        return joinPositions;
+    }
+
     private long startJoinPosition(int currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
         if (currentJoinPosition == -1) {
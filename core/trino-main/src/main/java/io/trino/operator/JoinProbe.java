@@ -16,6 +16,9 @@ package io.trino.operator;
 import io.trino.spi.Page;
 import io.trino.spi.block.Block;
 
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -53,6 +56,12 @@ public class JoinProbe
 
     private int position = -1;
 
+    // join positions of the probe positions, looked up in a single batch for the lookup source they were computed with
+    @Nullable
+    private long[] joinPositions;
+    @Nullable
+    private LookupSource joinPositionsLookupSource;
+
     private JoinProbe(int[] probeOutputChannels, Page page, List<Integer> probeJoinChannels, OptionalInt probeHashChannel)
     {
         this.probeOutputChannels = probeOutputChannels;
@@ -86,14 +95,45 @@ public class JoinProbe
 
     public long getCurrentJoinPosition(LookupSource lookupSource)
     {
-        if (currentRowContainsNull()) {
-            return -1;
+        if (lookupSource != joinPositionsLookupSource) {
+            lookupJoinPositions(lookupSource);
+        }
+        return joinPositions[position];
+    }
+
+    /**
+     * Looks up the join positions of all remaining probe positions with a single batched call,
+     * which allows the lookup source to reorder the lookups for better cache locality.
+     */
+    private void lookupJoinPositions(LookupSource lookupSource)
+    {
+        int[] positions = new int[positionCount - position];
+        int count = 0;
+        for (int probePosition = position; probePosition < positionCount; probePosition++) {
+            if (!rowContainsNull(probePosition)) {
+                positions[count] = probePosition;
+                count++;
+            }
         }
+
+        long[] batchJoinPositions;
         if (probeHashBlock.isPresent()) {
-            long rawHash = BIGINT.getLong(probeHashBlock.get(), position);
-            return lookupSource.getJoinPosition(position, probePage, page, rawHash);
+            long[] rawHashes = new long[count];
+            for (int i = 0; i < count; i++) {
+                rawHashes[i] = BIGINT.getLong(probeHashBlock.get(), positions[i]);
+            }
+            batchJoinPositions = lookupSource.getJoinPositions(positions, count, probePage, page, rawHashes);
+        }
+        else {
+            batchJoinPositions = lookupSource.getJoinPositions(positions, count, probePage, page);
+        }
+
+        joinPositions = new long[positionCount];
+        Arrays.fill(joinPositions, -1);
+        for (int i = 0; i < count; i++) {
+            joinPositions[positions[i]] = batchJoinPositions[i];
         }
-        return lookupSource.getJoinPosition(position, probePage, page);
+        joinPositionsLookupSource = lookupSource;
     }
 
     public int getPosition()
@@ -106,7 +146,7 @@ public class JoinProbe
         return page;
     }
 
-    private boolean currentRowContainsNull()
+    private boolean rowContainsNull(int position)
     {
         for (Block probeBlock : probeBlocks) {
             if (probeBlock.isNull(position)) {
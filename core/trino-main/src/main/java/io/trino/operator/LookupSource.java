@@ -36,6 +36,30 @@ public interface LookupSource
 
     long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage);
 
+    /**
+     * Returns the join positions of a batch of probe positions, where {@code rawHashes[i]} is
+     * the hash of {@code positions[i]}. The join position at index {@code i} of the result
+     * corresponds to {@code positions[i]}, and is negative if the position has no match.
+     * Implementations can reorder the lookups within the batch to improve cache locality.
+     */
+    default long[] getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, long[] rawHashes)
+    {
+        long[] joinPositions = new long[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            joinPositions[i] = getJoinPosition(positions[i], hashChannelsPage, allChannelsPage, rawHashes[i]);
+        }
+        return joinPositions;
+    }
+
+    default long[] getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage)
+    {
+        long[] joinPositions = new long[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            joinPositions[i] = getJoinPosition(positions[i], hashChannelsPage, allChannelsPage);
+        }
+        return joinPositions;
+    }
+
     long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage);
 
     void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset);
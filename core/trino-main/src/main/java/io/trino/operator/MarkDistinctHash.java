@@ -14,6 +14,7 @@
 package io.trino.operator;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.trino.Session;
 import io.trino.spi.Page;
 import io.trino.spi.block.Block;
@@ -28,6 +29,7 @@ import java.util.Optional;
 import static io.trino.SystemSessionProperties.isDictionaryAggregationEnabled;
 import static io.trino.operator.GroupByHash.createGroupByHash;
 import static io.trino.spi.type.BooleanType.BOOLEAN;
+import static java.lang.Math.toIntExact;
 
 public class MarkDistinctHash
 {
@@ -68,6 +70,14 @@ public class MarkDistinctHash
                 });
     }
 
+    /**
+     * Spills the values marked as distinct so far.
+     */
+    public ListenableFuture<?> spillDistinctValues(DistinctSpiller spiller)
+    {
+        return spiller.spillDistinctValues(groupByHash, toIntExact(nextDistinctId));
+    }
+
     @VisibleForTesting
     public int getCapacity()
     {
@@ -16,21 +16,27 @@ package io.trino.operator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.trino.memory.context.LocalMemoryContext;
 import io.trino.spi.Page;
 import io.trino.spi.block.Block;
 import io.trino.spi.type.Type;
+import io.trino.spiller.PartitioningSpillerFactory;
 import io.trino.sql.gen.JoinCompiler;
 import io.trino.sql.planner.plan.PlanNodeId;
 import io.trino.type.BlockTypeOperators;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.trino.spi.type.BooleanType.BOOLEAN;
+import static io.trino.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
 import static java.util.Objects.requireNonNull;
 
 public class MarkDistinctOperator
@@ -46,6 +52,8 @@ public class MarkDistinctOperator
         private final List<Type> types;
         private final JoinCompiler joinCompiler;
         private final BlockTypeOperators blockTypeOperators;
+        private final boolean spillEnabled;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
         private boolean closed;
 
         public MarkDistinctOperatorFactory(
@@ -56,6 +64,20 @@ public class MarkDistinctOperator
                 Optional<Integer> hashChannel,
                 JoinCompiler joinCompiler,
                 BlockTypeOperators blockTypeOperators)
+        {
+            this(operatorId, planNodeId, sourceTypes, markDistinctChannels, hashChannel, joinCompiler, blockTypeOperators, false, unsupportedPartitioningSpillerFactory());
+        }
+
+        public MarkDistinctOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                Collection<Integer> markDistinctChannels,
+                Optional<Integer> hashChannel,
+                JoinCompiler joinCompiler,
+                BlockTypeOperators blockTypeOperators,
+                boolean spillEnabled,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -64,6 +86,8 @@ public class MarkDistinctOperator
             this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
             this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
             this.types = ImmutableList.<Type>builder()
                     .addAll(sourceTypes)
                     .add(BOOLEAN)
@@ -75,7 +99,7 @@ public class MarkDistinctOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MarkDistinctOperator.class.getSimpleName());
-            return new MarkDistinctOperator(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler, blockTypeOperators);
+            return new MarkDistinctOperator(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler, blockTypeOperators, spillEnabled, partitioningSpillerFactory);
         }
 
         @Override
@@ -87,13 +111,23 @@ public class MarkDistinctOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new MarkDistinctOperatorFactory(operatorId, planNodeId, types.subList(0, types.size() - 1), markDistinctChannels, hashChannel, joinCompiler, blockTypeOperators);
+            return new MarkDistinctOperatorFactory(operatorId, planNodeId, types.subList(0, types.size() - 1), markDistinctChannels, hashChannel, joinCompiler, blockTypeOperators, spillEnabled, partitioningSpillerFactory);
         }
     }
 
     private final OperatorContext operatorContext;
-    private final MarkDistinctHash markDistinctHash;
+    private final List<Type> inputTypes;
+    private final List<Type> distinctTypes;
+    private final List<Integer> markDistinctChannels;
+    private final Optional<Integer> hashChannel;
+    private final JoinCompiler joinCompiler;
+    private final BlockTypeOperators blockTypeOperators;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
+    private final boolean spillEnabled;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
+
+    private MarkDistinctHash markDistinctHash;
 
     private Page inputPage;
     private boolean finishing;
@@ -101,19 +135,44 @@ public class MarkDistinctOperator
     // for yield when memory is not available
     private Work<Block> unfinishedWork;
 
-    public MarkDistinctOperator(OperatorContext operatorContext, List<Type> types, List<Integer> markDistinctChannels, Optional<Integer> hashChannel, JoinCompiler joinCompiler, BlockTypeOperators blockTypeOperators)
+    private Optional<DistinctSpiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = NOT_BLOCKED;
+    private Runnable finishMemoryRevoke = () -> {};
+
+    // partition of the spilled input, which is processed after the input is finished
+    private int unspilledPartition = -1;
+    private Iterator<Page> unspilledDistinctValues = Collections.emptyIterator();
+    private Iterator<Page> unspilledInput = Collections.emptyIterator();
+
+    public MarkDistinctOperator(
+            OperatorContext operatorContext,
+            List<Type> types,
+            List<Integer> markDistinctChannels,
+            Optional<Integer> hashChannel,
+            JoinCompiler joinCompiler,
+            BlockTypeOperators blockTypeOperators,
+            boolean spillEnabled,
+            PartitioningSpillerFactory partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
 
-        requireNonNull(hashChannel, "hashChannel is null");
-        requireNonNull(markDistinctChannels, "markDistinctChannels is null");
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.markDistinctChannels = ImmutableList.copyOf(requireNonNull(markDistinctChannels, "markDistinctChannels is null"));
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
+        this.spillEnabled = spillEnabled;
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
 
+        // the last type is the type of the output marker
+        this.inputTypes = ImmutableList.copyOf(types.subList(0, types.size() - 1));
         ImmutableList.Builder<Type> distinctTypes = ImmutableList.builder();
         for (int channel : markDistinctChannels) {
             distinctTypes.add(types.get(channel));
         }
-        this.markDistinctHash = new MarkDistinctHash(operatorContext.getSession(), distinctTypes.build(), Ints.toArray(markDistinctChannels), hashChannel, joinCompiler, blockTypeOperators, this::updateMemoryReservation);
+        this.distinctTypes = distinctTypes.build();
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
+        this.markDistinctHash = createMarkDistinctHash();
     }
 
     @Override
@@ -131,13 +190,19 @@ public class MarkDistinctOperator
     @Override
     public boolean isFinished()
     {
-        return finishing && !hasUnfinishedInput();
+        return finishing && !hasUnfinishedInput() && spillInProgress.isDone() && !hasUnspilledInput();
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return spillInProgress.isDone() ? NOT_BLOCKED : spillInProgress;
     }
 
     @Override
     public boolean needsInput()
     {
-        return !finishing && !hasUnfinishedInput();
+        return !finishing && !hasUnfinishedInput() && spillInProgress.isDone();
     }
 
     @Override
@@ -146,6 +211,12 @@ public class MarkDistinctOperator
         requireNonNull(page, "page is null");
         checkState(needsInput());
 
+        if (spiller.isPresent()) {
+            checkSuccess(spillInProgress, "spilling failed");
+            spillInProgress = spiller.get().spillInput(page);
+            return;
+        }
+
         inputPage = page;
 
         unfinishedWork = markDistinctHash.markDistinctRows(page);
@@ -155,7 +226,12 @@ public class MarkDistinctOperator
     @Override
     public Page getOutput()
     {
-        if (unfinishedWork == null) {
+        if (!spillInProgress.isDone()) {
+            return null;
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (unfinishedWork == null && !startUnspilledWork()) {
             return null;
         }
 
@@ -163,8 +239,11 @@ public class MarkDistinctOperator
             return null;
         }
 
-        // add the new boolean column to the page
-        Page outputPage = inputPage.appendColumn(unfinishedWork.getResult());
+        // add the new boolean column to the page, unless the work only added the values returned before spilling
+        Page outputPage = null;
+        if (inputPage != null) {
+            outputPage = inputPage.appendColumn(unfinishedWork.getResult());
+        }
 
         unfinishedWork = null;
         inputPage = null;
@@ -173,11 +252,102 @@ public class MarkDistinctOperator
         return outputPage;
     }
 
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        if (spiller.isPresent() || markDistinctHash == null) {
+            return NOT_BLOCKED;
+        }
+
+        if (finishing && !hasUnfinishedInput()) {
+            // the hash is not needed anymore
+            finishMemoryRevoke = this::releaseMarkDistinctHash;
+            return NOT_BLOCKED;
+        }
+
+        spiller = Optional.of(new DistinctSpiller(inputTypes, markDistinctChannels, hashChannel, partitioningSpillerFactory, operatorContext, blockTypeOperators));
+        spillInProgress = markDistinctHash.spillDistinctValues(spiller.get());
+        finishMemoryRevoke = () -> {
+            checkSuccess(spillInProgress, "spilling failed");
+            releaseMarkDistinctHash();
+            // the pending input may have added values to the hash, which are not marked yet
+            if (inputPage != null) {
+                Page page = inputPage;
+                inputPage = null;
+                unfinishedWork = null;
+                spillInProgress = spiller.get().spillInput(page);
+            }
+        };
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        finishMemoryRevoke.run();
+        finishMemoryRevoke = () -> {};
+    }
+
+    @Override
+    public void close()
+            throws Exception
+    {
+        if (spiller.isPresent()) {
+            spiller.get().close();
+        }
+    }
+
+    /**
+     * Starts the work on the next page of the spilled partitions, after the input is finished.
+     */
+    private boolean startUnspilledWork()
+    {
+        if (!finishing || spiller.isEmpty()) {
+            return false;
+        }
+        while (!unspilledDistinctValues.hasNext() && !unspilledInput.hasNext()) {
+            if (unspilledPartition == DistinctSpiller.PARTITION_COUNT - 1) {
+                return false;
+            }
+            unspilledPartition++;
+            markDistinctHash = createMarkDistinctHash();
+            unspilledDistinctValues = spiller.get().getDistinctValues(unspilledPartition);
+            unspilledInput = spiller.get().getInput(unspilledPartition);
+        }
+
+        if (unspilledDistinctValues.hasNext()) {
+            // the values returned before spilling must not be marked again
+            unfinishedWork = markDistinctHash.markDistinctRows(unspilledDistinctValues.next());
+        }
+        else {
+            inputPage = unspilledInput.next();
+            unfinishedWork = markDistinctHash.markDistinctRows(inputPage);
+        }
+        return true;
+    }
+
+    private boolean hasUnspilledInput()
+    {
+        return spiller.isPresent() &&
+                (unspilledPartition < DistinctSpiller.PARTITION_COUNT - 1 || unspilledDistinctValues.hasNext() || unspilledInput.hasNext());
+    }
+
     private boolean hasUnfinishedInput()
     {
         return inputPage != null || unfinishedWork != null;
     }
 
+    private MarkDistinctHash createMarkDistinctHash()
+    {
+        return new MarkDistinctHash(operatorContext.getSession(), distinctTypes, Ints.toArray(markDistinctChannels), hashChannel, joinCompiler, blockTypeOperators, this::updateMemoryReservation);
+    }
+
+    private void releaseMarkDistinctHash()
+    {
+        markDistinctHash = null;
+        localRevocableMemoryContext.setBytes(0);
+    }
+
     /**
      * Update memory usage.
      *
@@ -188,9 +358,15 @@ public class MarkDistinctOperator
     // The following implementation is a hybrid model, where the push model is going to call the pull model causing reentrancy
     private boolean updateMemoryReservation()
     {
+        long estimatedSize = markDistinctHash == null ? 0 : markDistinctHash.getEstimatedSize();
+        if (spillEnabled && spiller.isEmpty()) {
+            // the memory can be revoked by spilling, so the operator does not wait for memory
+            localRevocableMemoryContext.setBytes(estimatedSize);
+            return true;
+        }
         // Operator/driver will be blocked on memory after we call localUserMemoryContext.setBytes().
         // If memory is not available, once we return, this operator will be blocked until memory is available.
-        localUserMemoryContext.setBytes(markDistinctHash.getEstimatedSize());
+        localUserMemoryContext.setBytes(estimatedSize);
         // If memory is not available, inform the caller that we cannot proceed for allocation.
         return operatorContext.isWaitingForMemory().isDone();
     }
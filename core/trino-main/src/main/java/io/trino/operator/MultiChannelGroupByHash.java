@@ -176,6 +176,7 @@ public class MultiChannelGroupByHash
                 sizeOf(groupIdsByHash) +
                 groupAddressByGroupId.sizeOf() +
                 sizeOf(rawHashByHashPosition) +
+                (dictionaryLookBack == null ? 0 : dictionaryLookBack.getRetainedSizeInBytes()) +
                 preallocatedMemoryInBytes;
     }
 
@@ -462,10 +463,14 @@ public class MultiChannelGroupByHash
         return maxFill;
     }
 
-    private void updateDictionaryLookBack(Block dictionary)
+    private void updateDictionaryLookBack(Page page)
     {
-        if (dictionaryLookBack == null || dictionaryLookBack.getDictionary() != dictionary) {
-            dictionaryLookBack = new DictionaryLookBack(dictionary);
+        Block[] dictionaries = new Block[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            dictionaries[i] = ((DictionaryBlock) page.getBlock(channels[i])).getDictionary();
+        }
+        if (dictionaryLookBack == null || !dictionaryLookBack.isLookBackFor(dictionaries)) {
+            dictionaryLookBack = new DictionaryLookBack(dictionaries);
         }
     }
 
@@ -477,8 +482,10 @@ public class MultiChannelGroupByHash
         Block[] blocks = new Block[page.getChannelCount()];
         Block dictionary = ((DictionaryBlock) page.getBlock(channels[0])).getDictionary();
 
-        // extract data dictionary
-        blocks[channels[0]] = dictionary;
+        // extract data dictionaries
+        for (int channel : channels) {
+            blocks[channel] = ((DictionaryBlock) page.getBlock(channel)).getDictionary();
+        }
 
         // extract hash dictionary
         if (inputHashChannel.isPresent()) {
@@ -490,13 +497,21 @@ public class MultiChannelGroupByHash
 
     private boolean canProcessDictionary(Page page)
     {
-        if (!this.processDictionary || channels.length > 1 || !(page.getBlock(channels[0]) instanceof DictionaryBlock)) {
+        if (!this.processDictionary || !(page.getBlock(channels[0]) instanceof DictionaryBlock)) {
             return false;
         }
 
+        DictionaryBlock inputDataBlock = (DictionaryBlock) page.getBlock(channels[0]);
+        for (int i = 1; i < channels.length; i++) {
+            // all key channels must be projections of the same dictionary source, so they share the dictionary ids
+            Block block = page.getBlock(channels[i]);
+            if (!(block instanceof DictionaryBlock) || !((DictionaryBlock) block).getDictionarySourceId().equals(inputDataBlock.getDictionarySourceId())) {
+                return false;
+            }
+        }
+
         if (inputHashChannel.isPresent()) {
             Block inputHashBlock = page.getBlock(inputHashChannel.get());
-            DictionaryBlock inputDataBlock = (DictionaryBlock) page.getBlock(channels[0]);
 
             if (!(inputHashBlock instanceof DictionaryBlock)) {
                 // data channel is dictionary encoded but hash channel is not
@@ -532,39 +547,6 @@ public class MultiChannelGroupByHash
         return groupId;
     }
 
-    private static final class DictionaryLookBack
-    {
-        private final Block dictionary;
-        private final int[] processed;
-
-        public DictionaryLookBack(Block dictionary)
-        {
-            this.dictionary = dictionary;
-            this.processed = new int[dictionary.getPositionCount()];
-            Arrays.fill(processed, -1);
-        }
-
-        public Block getDictionary()
-        {
-            return dictionary;
-        }
-
-        public int getGroupId(int position)
-        {
-            return processed[position];
-        }
-
-        public boolean isProcessed(int position)
-        {
-            return processed[position] != -1;
-        }
-
-        public void setProcessed(int position, int groupId)
-        {
-            processed[position] = groupId;
-        }
-    }
-
     private class AddNonDictionaryPageWork
             implements Work<Void>
     {
@@ -620,7 +602,7 @@ public class MultiChannelGroupByHash
             verify(canProcessDictionary(page), "invalid call to addDictionaryPage");
             this.page = requireNonNull(page, "page is null");
             this.dictionaryBlock = (DictionaryBlock) page.getBlock(channels[0]);
-            updateDictionaryLookBack(dictionaryBlock.getDictionary());
+            updateDictionaryLookBack(page);
             this.dictionaryPage = createPageWithExtractedDictionary(page);
         }
 
@@ -760,7 +742,7 @@ public class MultiChannelGroupByHash
             verify(canProcessDictionary(page), "invalid call to processDictionary");
 
             this.dictionaryBlock = (DictionaryBlock) page.getBlock(channels[0]);
-            updateDictionaryLookBack(dictionaryBlock.getDictionary());
+            updateDictionaryLookBack(page);
             this.dictionaryPage = createPageWithExtractedDictionary(page);
 
             // we know the exact size required for the block
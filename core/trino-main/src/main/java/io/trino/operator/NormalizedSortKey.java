@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import io.airlift.slice.Slice;
+import io.trino.spi.block.Block;
+import io.trino.spi.connector.SortOrder;
+import io.trino.spi.type.DecimalType;
+import io.trino.spi.type.TimestampType;
+import io.trino.spi.type.Type;
+import io.trino.spi.type.VarcharType;
+
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.BooleanType.BOOLEAN;
+import static io.trino.spi.type.DateType.DATE;
+import static io.trino.spi.type.IntegerType.INTEGER;
+import static io.trino.spi.type.SmallintType.SMALLINT;
+import static io.trino.spi.type.TinyintType.TINYINT;
+import static io.trino.spi.type.VarbinaryType.VARBINARY;
+
+/**
+ * Encodes a sort key into a 64 bit normalized key, which can be compared as a signed long.
+ * The encoding preserves the order of the sort key, so a value that sorts before another value
+ * never has a greater normalized key, and equal values have equal normalized keys. Different
+ * values can have equal normalized keys, e.g. strings with a common prefix of 8 bytes, so
+ * rows with equal normalized keys must still be compared with the full comparator.
+ */
+public final class NormalizedSortKey
+{
+    private NormalizedSortKey() {}
+
+    public static boolean isSupportedType(Type type)
+    {
+        return type.equals(BIGINT) ||
+                type.equals(INTEGER) ||
+                type.equals(SMALLINT) ||
+                type.equals(TINYINT) ||
+                type.equals(DATE) ||
+                type.equals(BOOLEAN) ||
+                (type instanceof DecimalType && ((DecimalType) type).isShort()) ||
+                (type instanceof TimestampType && type.getJavaType() == long.class) ||
+                type instanceof VarcharType ||
+                type.equals(VARBINARY);
+    }
+
+    public static long encode(Type type, SortOrder sortOrder, Block block, int position)
+    {
+        if (block.isNull(position)) {
+            // a non-null value can have the same key, which is resolved by the comparator
+            return sortOrder.isNullsFirst() ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+
+        long key;
+        if (type.getJavaType() == long.class) {
+            key = type.getLong(block, position);
+        }
+        else if (type.getJavaType() == boolean.class) {
+            key = type.getBoolean(block, position) ? 1 : 0;
+        }
+        else {
+            key = encodeSlicePrefix(type.getSlice(block, position));
+        }
+        // bitwise negation reverses the order of all values without overflow
+        return sortOrder.isAscending() ? key : ~key;
+    }
+
+    private static long encodeSlicePrefix(Slice slice)
+    {
+        // slices are ordered by their unsigned bytes, so read the first 8 bytes
+        // big endian, padded with zeros, and flip the sign bit to compare as signed
+        long prefix;
+        if (slice.length() >= Long.BYTES) {
+            prefix = Long.reverseBytes(slice.getLong(0));
+        }
+        else {
+            prefix = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                prefix <<= Byte.SIZE;
+                if (i < slice.length()) {
+                    prefix |= slice.getUnsignedByte(i);
+                }
+            }
+        }
+        return prefix ^ Long.MIN_VALUE;
+    }
+}
@@ -28,9 +28,11 @@ import io.trino.operator.exchange.LocalExchangeBufferInfo;
         @JsonSubTypes.Type(value = TableFinishInfo.class, name = "tableFinish"),
         @JsonSubTypes.Type(value = SplitOperatorInfo.class, name = "splitOperator"),
         @JsonSubTypes.Type(value = HashCollisionsInfo.class, name = "hashCollisionsInfo"),
+        @JsonSubTypes.Type(value = HashAggregationInfo.class, name = "hashAggregationInfo"),
         @JsonSubTypes.Type(value = PartitionedOutputInfo.class, name = "partitionedOutput"),
         @JsonSubTypes.Type(value = JoinOperatorInfo.class, name = "joinOperatorInfo"),
         @JsonSubTypes.Type(value = WindowInfo.class, name = "windowInfo"),
+        @JsonSubTypes.Type(value = FragmentCacheInfo.class, name = "fragmentCache"),
         @JsonSubTypes.Type(value = TableWriterInfo.class, name = "tableWriter")})
 public interface OperatorInfo
 {
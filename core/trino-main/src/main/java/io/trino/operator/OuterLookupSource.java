@@ -87,6 +87,18 @@ public final class OuterLookupSource
         return lookupSource.getJoinPosition(position, hashChannelsPage, allChannelsPage);
     }
 
+    @Override
+    public long[] getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, long[] rawHashes)
+    {
+        return lookupSource.getJoinPositions(positions, positionCount, hashChannelsPage, allChannelsPage, rawHashes);
+    }
+
+    @Override
+    public long[] getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage)
+    {
+        return lookupSource.getJoinPositions(positions, positionCount, hashChannelsPage, allChannelsPage);
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
@@ -27,6 +27,7 @@ import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.trino.operator.SyntheticAddress.decodePosition;
 import static io.trino.operator.SyntheticAddress.decodeSliceIndex;
 import static io.trino.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static java.lang.Integer.numberOfTrailingZeros;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -35,6 +36,9 @@ public final class PagesHash
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(PagesHash.class).instanceSize();
     private static final DataSize CACHE_SIZE = DataSize.of(128, KILOBYTE);
+    // size of the hash table slots of a single radix partition, which should fit in the L2 cache
+    private static final DataSize RADIX_PARTITION_SIZE = DataSize.of(256, KILOBYTE);
+    private static final int MAX_RADIX_PARTITION_BITS = 12;
     private final LongArrayList addresses;
     private final PagesHashStrategy pagesHashStrategy;
 
@@ -50,10 +54,15 @@ public final class PagesHash
     private final long hashCollisions;
     private final double expectedHashCollisions;
 
+    // the hash table slots are split into radix partitions by the high bits of the slot index
+    private final int radixPartitionCount;
+    private final int radixPartitionShift;
+
     public PagesHash(
             LongArrayList addresses,
             PagesHashStrategy pagesHashStrategy,
-            PositionLinks.FactoryBuilder positionLinks)
+            PositionLinks.FactoryBuilder positionLinks,
+            boolean radixPartitioned)
     {
         this.addresses = requireNonNull(addresses, "addresses is null");
         this.pagesHashStrategy = requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
@@ -68,6 +77,24 @@ public final class PagesHash
 
         positionToHashes = new byte[addresses.size()];
 
+        int radixPartitionBits = radixPartitioned ? computeRadixPartitionBits(hashSize) : 0;
+        this.radixPartitionCount = 1 << radixPartitionBits;
+        this.radixPartitionShift = numberOfTrailingZeros(hashSize) - radixPartitionBits;
+
+        if (radixPartitionCount > 1) {
+            hashCollisions = buildRadixPartitioned(positionLinks);
+        }
+        else {
+            hashCollisions = build(positionLinks);
+        }
+
+        size = sizeOf(addresses.elements()) + pagesHashStrategy.getSizeInBytes() +
+                sizeOf(key) + sizeOf(positionToHashes);
+        expectedHashCollisions = estimateNumberOfHashCollisions(addresses.size(), hashSize);
+    }
+
+    private long build(PositionLinks.FactoryBuilder positionLinks)
+    {
         // We will process addresses in batches, to save memory on array of hashes.
         int positionsInStep = Math.min(addresses.size() + 1, (int) CACHE_SIZE.toBytes() / Integer.SIZE);
         long[] positionToFullHashes = new long[positionsInStep];
@@ -94,34 +121,89 @@ public final class PagesHash
                 if (isPositionNull(realPosition)) {
                     continue;
                 }
+                hashCollisionsLocal += addPosition(realPosition, positionToFullHashes[position], positionLinks);
+            }
+        }
+        return hashCollisionsLocal;
+    }
 
-                long hash = positionToFullHashes[position];
-                int pos = getHashPosition(hash, mask);
-
-                // look for an empty slot or a slot containing this key
-                while (key[pos] != -1) {
-                    int currentKey = key[pos];
-                    if (((byte) hash) == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, realPosition)) {
-                        // found a slot for this key
-                        // link the new key position to the current key position
-                        realPosition = positionLinks.link(realPosition, currentKey);
-
-                        // key[pos] updated outside of this loop
-                        break;
-                    }
-                    // increment position and mask to handler wrap around
-                    pos = (pos + 1) & mask;
-                    hashCollisionsLocal++;
+    /**
+     * Reorders the addresses by the partition of their slot in the hash table, and then
+     * indexes the partitions one after another, so that the slots visited while indexing
+     * a partition fit in the CPU cache. Reordering requires a temporary array with the hashes
+     * of all positions.
+     */
+    private long buildRadixPartitioned(PositionLinks.FactoryBuilder positionLinks)
+    {
+        int positionCount = addresses.size();
+        long[] hashes = new long[positionCount];
+        int[] partitionOffsets = new int[radixPartitionCount + 1];
+        for (int position = 0; position < positionCount; position++) {
+            long hash = readHashPosition(position);
+            hashes[position] = hash;
+            partitionOffsets[getRadixPartition(hash) + 1]++;
+        }
+        for (int partition = 0; partition < radixPartitionCount; partition++) {
+            partitionOffsets[partition + 1] += partitionOffsets[partition];
+        }
+
+        // permute addresses and hashes in place, so that each partition is a contiguous range of positions
+        long[] addressElements = addresses.elements();
+        int[] nextPositions = Arrays.copyOf(partitionOffsets, radixPartitionCount);
+        for (int partition = 0; partition < radixPartitionCount; partition++) {
+            int endPosition = partitionOffsets[partition + 1];
+            while (nextPositions[partition] < endPosition) {
+                int position = nextPositions[partition];
+                int targetPartition = getRadixPartition(hashes[position]);
+                if (targetPartition == partition) {
+                    nextPositions[partition]++;
+                    continue;
                 }
+                int targetPosition = nextPositions[targetPartition]++;
+                swap(addressElements, position, targetPosition);
+                swap(hashes, position, targetPosition);
+            }
+        }
 
-                key[pos] = realPosition;
+        long hashCollisionsLocal = 0;
+        for (int position = 0; position < positionCount; position++) {
+            positionToHashes[position] = (byte) hashes[position];
+        }
+        for (int position = 0; position < positionCount; position++) {
+            if (isPositionNull(position)) {
+                continue;
             }
+            hashCollisionsLocal += addPosition(position, hashes[position], positionLinks);
         }
+        return hashCollisionsLocal;
+    }
 
-        size = sizeOf(addresses.elements()) + pagesHashStrategy.getSizeInBytes() +
-                sizeOf(key) + sizeOf(positionToHashes);
-        hashCollisions = hashCollisionsLocal;
-        expectedHashCollisions = estimateNumberOfHashCollisions(addresses.size(), hashSize);
+    /**
+     * @return the number of hash collisions
+     */
+    private int addPosition(int position, long hash, PositionLinks.FactoryBuilder positionLinks)
+    {
+        int hashCollisionsLocal = 0;
+        int pos = getHashPosition(hash, mask);
+
+        // look for an empty slot or a slot containing this key
+        while (key[pos] != -1) {
+            int currentKey = key[pos];
+            if (((byte) hash) == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, position)) {
+                // found a slot for this key
+                // link the new key position to the current key position
+                position = positionLinks.link(position, currentKey);
+
+                // key[pos] updated outside of this loop
+                break;
+            }
+            // increment position and mask to handler wrap around
+            pos = (pos + 1) & mask;
+            hashCollisionsLocal++;
+        }
+
+        key[pos] = position;
+        return hashCollisionsLocal;
     }
 
     public final int getChannelCount()
@@ -156,10 +238,47 @@ public final class PagesHash
 
     public int getAddressIndex(int rightPosition, Page hashChannelsPage, long rawHash)
     {
-        int pos = getHashPosition(rawHash, mask);
+        return getAddressIndex(getHashPosition(rawHash, mask), (byte) rawHash, rightPosition, hashChannelsPage);
+    }
 
+    /**
+     * Returns the address indexes of a batch of probe positions. If the hash table is radix partitioned,
+     * the positions are looked up ordered by partition, so that consecutive lookups hit nearby slots.
+     */
+    public int[] getAddressIndex(int[] positions, int positionCount, Page hashChannelsPage)
+    {
+        long[] rawHashes = new long[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            rawHashes[i] = pagesHashStrategy.hashRow(positions[i], hashChannelsPage);
+        }
+        return getAddressIndex(positions, positionCount, hashChannelsPage, rawHashes);
+    }
+
+    public int[] getAddressIndex(int[] positions, int positionCount, Page hashChannelsPage, long[] rawHashes)
+    {
+        int[] hashPositions = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            hashPositions[i] = getHashPosition(rawHashes[i], mask);
+        }
+
+        int[] addressIndexes = new int[positionCount];
+        if (radixPartitionCount == 1) {
+            for (int i = 0; i < positionCount; i++) {
+                addressIndexes[i] = getAddressIndex(hashPositions[i], (byte) rawHashes[i], positions[i], hashChannelsPage);
+            }
+            return addressIndexes;
+        }
+
+        for (int index : orderByRadixPartition(hashPositions, positionCount)) {
+            addressIndexes[index] = getAddressIndex(hashPositions[index], (byte) rawHashes[index], positions[index], hashChannelsPage);
+        }
+        return addressIndexes;
+    }
+
+    private int getAddressIndex(int pos, byte rawHash, int rightPosition, Page hashChannelsPage)
+    {
         while (key[pos] != -1) {
-            if (positionEqualsCurrentRowIgnoreNulls(key[pos], (byte) rawHash, rightPosition, hashChannelsPage)) {
+            if (positionEqualsCurrentRowIgnoreNulls(key[pos], rawHash, rightPosition, hashChannelsPage)) {
                 return key[pos];
             }
             // increment position and mask to handler wrap around
@@ -168,6 +287,22 @@ public final class PagesHash
         return -1;
     }
 
+    private int[] orderByRadixPartition(int[] hashPositions, int positionCount)
+    {
+        int[] partitionOffsets = new int[radixPartitionCount + 1];
+        for (int i = 0; i < positionCount; i++) {
+            partitionOffsets[(hashPositions[i] >>> radixPartitionShift) + 1]++;
+        }
+        for (int partition = 0; partition < radixPartitionCount; partition++) {
+            partitionOffsets[partition + 1] += partitionOffsets[partition];
+        }
+        int[] order = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            order[partitionOffsets[hashPositions[i] >>> radixPartitionShift]++] = i;
+        }
+        return order;
+    }
+
     public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
     {
         long pageAddress = addresses.getLong(toIntExact(position));
@@ -221,6 +356,28 @@ public final class PagesHash
         return pagesHashStrategy.positionEqualsPositionIgnoreNulls(leftBlockIndex, leftBlockPosition, rightBlockIndex, rightBlockPosition);
     }
 
+    private int getRadixPartition(long rawHash)
+    {
+        return getHashPosition(rawHash, mask) >>> radixPartitionShift;
+    }
+
+    private static int computeRadixPartitionBits(int hashSize)
+    {
+        long keyBytes = (long) hashSize * Integer.BYTES;
+        if (keyBytes <= RADIX_PARTITION_SIZE.toBytes()) {
+            return 0;
+        }
+        int bits = numberOfTrailingZeros(toIntExact(keyBytes / RADIX_PARTITION_SIZE.toBytes()));
+        return Math.min(bits, MAX_RADIX_PARTITION_BITS);
+    }
+
+    private static void swap(long[] values, int left, int right)
+    {
+        long value = values[left];
+        values[left] = values[right];
+        values[right] = value;
+    }
+
     private static int getHashPosition(long rawHash, long mask)
     {
         // Avalanches the bits of a long integer by applying the finalisation step of MurmurHash3.
@@ -88,6 +88,7 @@ public class PagesIndex
     private final ObjectArrayList<Block>[] channels;
     private final IntArrayList positionCounts;
     private final boolean eagerCompact;
+    private final boolean normalizedSortKeysEnabled;
 
     private int pageCount;
     private int nextBlockToCompact;
@@ -101,7 +102,8 @@ public class PagesIndex
             BlockTypeOperators blockTypeOperators,
             List<Type> types,
             int expectedPositions,
-            boolean eagerCompact)
+            boolean eagerCompact,
+            boolean normalizedSortKeysEnabled)
     {
         this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
@@ -109,6 +111,7 @@ public class PagesIndex
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.valueAddresses = new LongArrayList(expectedPositions);
         this.eagerCompact = eagerCompact;
+        this.normalizedSortKeysEnabled = normalizedSortKeysEnabled;
 
         //noinspection unchecked
         channels = (ObjectArrayList<Block>[]) new ObjectArrayList[types.size()];
@@ -134,16 +137,23 @@ public class PagesIndex
         private static final JoinCompiler JOIN_COMPILER = new JoinCompiler(TYPE_OPERATORS);
         private static final BlockTypeOperators TYPE_OPERATOR_FACTORY = new BlockTypeOperators(TYPE_OPERATORS);
         private final boolean eagerCompact;
+        private final boolean normalizedSortKeysEnabled;
 
         public TestingFactory(boolean eagerCompact)
+        {
+            this(eagerCompact, false);
+        }
+
+        public TestingFactory(boolean eagerCompact, boolean normalizedSortKeysEnabled)
         {
             this.eagerCompact = eagerCompact;
+            this.normalizedSortKeysEnabled = normalizedSortKeysEnabled;
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, TYPE_OPERATOR_FACTORY, types, expectedPositions, eagerCompact);
+            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, TYPE_OPERATOR_FACTORY, types, expectedPositions, eagerCompact, normalizedSortKeysEnabled);
         }
     }
 
@@ -153,6 +163,7 @@ public class PagesIndex
         private final OrderingCompiler orderingCompiler;
         private final JoinCompiler joinCompiler;
         private final boolean eagerCompact;
+        private final boolean normalizedSortKeysEnabled;
         private final BlockTypeOperators blockTypeOperators;
 
         @Inject
@@ -161,13 +172,14 @@ public class PagesIndex
             this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
             this.eagerCompact = requireNonNull(featuresConfig, "featuresConfig is null").isPagesIndexEagerCompactionEnabled();
+            this.normalizedSortKeysEnabled = featuresConfig.isPagesIndexNormalizedSortKeysEnabled();
             this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(orderingCompiler, joinCompiler, blockTypeOperators, types, expectedPositions, eagerCompact);
+            return new PagesIndex(orderingCompiler, joinCompiler, blockTypeOperators, types, expectedPositions, eagerCompact, normalizedSortKeysEnabled);
         }
     }
 
@@ -390,7 +402,25 @@ public class PagesIndex
 
     public void sort(List<Integer> sortChannels, List<SortOrder> sortOrders, int startPosition, int endPosition)
     {
-        createPagesIndexComparator(sortChannels, sortOrders).sort(this, startPosition, endPosition);
+        PagesIndexOrdering ordering = createPagesIndexComparator(sortChannels, sortOrders);
+        if (normalizedSortKeysEnabled && !sortChannels.isEmpty() && NormalizedSortKey.isSupportedType(types.get(sortChannels.get(0)))) {
+            long[] sortPrefixes = createNormalizedSortKeys(sortChannels.get(0), sortOrders.get(0), startPosition, endPosition);
+            ordering.sort(this, startPosition, endPosition, sortPrefixes);
+            return;
+        }
+        ordering.sort(this, startPosition, endPosition);
+    }
+
+    private long[] createNormalizedSortKeys(int sortChannel, SortOrder sortOrder, int startPosition, int endPosition)
+    {
+        Type type = types.get(sortChannel);
+        long[] sortKeys = new long[endPosition - startPosition];
+        for (int position = startPosition; position < endPosition; position++) {
+            long pageAddress = valueAddresses.getLong(position);
+            Block block = channels[sortChannel].get(decodeSliceIndex(pageAddress));
+            sortKeys[position - startPosition] = NormalizedSortKey.encode(type, sortOrder, block, decodePosition(pageAddress));
+        }
+        return sortKeys;
     }
 
     public boolean positionNotDistinctFromPosition(PagesHashStrategy partitionHashStrategy, int leftPosition, int rightPosition)
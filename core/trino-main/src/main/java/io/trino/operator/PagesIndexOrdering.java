@@ -13,6 +13,9 @@
  */
 package io.trino.operator;
 
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 public class PagesIndexOrdering
@@ -34,7 +37,20 @@ public class PagesIndexOrdering
 
     public void sort(PagesIndex pagesIndex, int startPosition, int endPosition)
     {
-        quickSort(pagesIndex, startPosition, endPosition);
+        quickSort(pagesIndex, null, startPosition, startPosition, endPosition);
+    }
+
+    /**
+     * Sorts the positions using the normalized keys of the leading sort channel, where {@code sortPrefixes[i]}
+     * is the key of position {@code startPosition + i}. Positions with different keys are ordered by
+     * the keys alone, and the comparator is only used for positions with equal keys.
+     *
+     * @see NormalizedSortKey
+     */
+    public void sort(PagesIndex pagesIndex, int startPosition, int endPosition, long[] sortPrefixes)
+    {
+        checkArgument(sortPrefixes.length == endPosition - startPosition, "sortPrefixes does not match the positions to sort");
+        quickSort(pagesIndex, sortPrefixes, startPosition, startPosition, endPosition);
     }
 
     /**
@@ -50,14 +66,14 @@ public class PagesIndexOrdering
      */
     // note this code was forked from Fastutils
     @SuppressWarnings("InnerAssignment")
-    private void quickSort(PagesIndex pagesIndex, int from, int to)
+    private void quickSort(PagesIndex pagesIndex, @Nullable long[] sortPrefixes, int prefixOffset, int from, int to)
     {
         int len = to - from;
         // Insertion sort on smallest arrays
         if (len < SMALL) {
             for (int i = from; i < to; i++) {
-                for (int j = i; j > from && (comparator.compareTo(pagesIndex, j - 1, j) > 0); j--) {
-                    pagesIndex.swap(j, j - 1);
+                for (int j = i; j > from && (compare(pagesIndex, sortPrefixes, prefixOffset, j - 1, j) > 0); j--) {
+                    swap(pagesIndex, sortPrefixes, prefixOffset, j, j - 1);
                 }
             }
             return;
@@ -70,11 +86,11 @@ public class PagesIndexOrdering
             int n = to - 1;
             if (len > MEDIUM) { // Big arrays, pseudomedian of 9
                 int s = len / 8;
-                l = median3(pagesIndex, l, l + s, l + 2 * s);
-                m = median3(pagesIndex, m - s, m, m + s);
-                n = median3(pagesIndex, n - 2 * s, n - s, n);
+                l = median3(pagesIndex, sortPrefixes, prefixOffset, l, l + s, l + 2 * s);
+                m = median3(pagesIndex, sortPrefixes, prefixOffset, m - s, m, m + s);
+                n = median3(pagesIndex, sortPrefixes, prefixOffset, n - 2 * s, n - s, n);
             }
-            m = median3(pagesIndex, l, m, n); // Mid-size, med of 3
+            m = median3(pagesIndex, sortPrefixes, prefixOffset, l, m, n); // Mid-size, med of 3
         }
         // int v = x[m];
 
@@ -85,7 +101,7 @@ public class PagesIndexOrdering
         int d = c;
         while (true) {
             int comparison;
-            while (b <= c && ((comparison = comparator.compareTo(pagesIndex, b, m)) <= 0)) {
+            while (b <= c && ((comparison = compare(pagesIndex, sortPrefixes, prefixOffset, b, m)) <= 0)) {
                 if (comparison == 0) {
                     if (a == m) {
                         m = b; // moving target; DELTA to JDK !!!
@@ -93,11 +109,11 @@ public class PagesIndexOrdering
                     else if (b == m) {
                         m = a; // moving target; DELTA to JDK !!!
                     }
-                    pagesIndex.swap(a++, b);
+                    swap(pagesIndex, sortPrefixes, prefixOffset, a++, b);
                 }
                 b++;
             }
-            while (c >= b && ((comparison = comparator.compareTo(pagesIndex, c, m)) >= 0)) {
+            while (c >= b && ((comparison = compare(pagesIndex, sortPrefixes, prefixOffset, c, m)) >= 0)) {
                 if (comparison == 0) {
                     if (c == m) {
                         m = d; // moving target; DELTA to JDK !!!
@@ -105,7 +121,7 @@ public class PagesIndexOrdering
                     else if (d == m) {
                         m = c; // moving target; DELTA to JDK !!!
                     }
-                    pagesIndex.swap(c, d--);
+                    swap(pagesIndex, sortPrefixes, prefixOffset, c, d--);
                 }
                 c--;
             }
@@ -118,34 +134,34 @@ public class PagesIndexOrdering
             else if (c == m) {
                 m = c; // moving target; DELTA to JDK !!!
             }
-            pagesIndex.swap(b++, c--);
+            swap(pagesIndex, sortPrefixes, prefixOffset, b++, c--);
         }
 
         // Swap partition elements back to middle
         int s;
         int n = to;
         s = Math.min(a - from, b - a);
-        vectorSwap(pagesIndex, from, b - s, s);
+        vectorSwap(pagesIndex, sortPrefixes, prefixOffset, from, b - s, s);
         s = Math.min(d - c, n - d - 1);
-        vectorSwap(pagesIndex, b, n - s, s);
+        vectorSwap(pagesIndex, sortPrefixes, prefixOffset, b, n - s, s);
 
         // Recursively sort non-partition-elements
         if ((s = b - a) > 1) {
-            quickSort(pagesIndex, from, from + s);
+            quickSort(pagesIndex, sortPrefixes, prefixOffset, from, from + s);
         }
         if ((s = d - c) > 1) {
-            quickSort(pagesIndex, n - s, n);
+            quickSort(pagesIndex, sortPrefixes, prefixOffset, n - s, n);
         }
     }
 
     /**
      * Returns the index of the median of the three positions.
      */
-    private int median3(PagesIndex pagesIndex, int a, int b, int c)
+    private int median3(PagesIndex pagesIndex, @Nullable long[] sortPrefixes, int prefixOffset, int a, int b, int c)
     {
-        int ab = comparator.compareTo(pagesIndex, a, b);
-        int ac = comparator.compareTo(pagesIndex, a, c);
-        int bc = comparator.compareTo(pagesIndex, b, c);
+        int ab = compare(pagesIndex, sortPrefixes, prefixOffset, a, b);
+        int ac = compare(pagesIndex, sortPrefixes, prefixOffset, a, c);
+        int bc = compare(pagesIndex, sortPrefixes, prefixOffset, b, c);
         return (ab < 0 ?
                 (bc < 0 ? b : ac < 0 ? c : a) :
                 (bc > 0 ? b : ac > 0 ? c : a));
@@ -154,10 +170,31 @@ public class PagesIndexOrdering
     /**
      * Swaps x[a .. (a+n-1)] with x[b .. (b+n-1)].
      */
-    private static void vectorSwap(PagesIndex pagesIndex, int from, int l, int s)
+    private static void vectorSwap(PagesIndex pagesIndex, @Nullable long[] sortPrefixes, int prefixOffset, int from, int l, int s)
     {
         for (int i = 0; i < s; i++, from++, l++) {
-            pagesIndex.swap(from, l);
+            swap(pagesIndex, sortPrefixes, prefixOffset, from, l);
+        }
+    }
+
+    private int compare(PagesIndex pagesIndex, @Nullable long[] sortPrefixes, int prefixOffset, int leftPosition, int rightPosition)
+    {
+        if (sortPrefixes != null) {
+            int comparison = Long.compare(sortPrefixes[leftPosition - prefixOffset], sortPrefixes[rightPosition - prefixOffset]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return comparator.compareTo(pagesIndex, leftPosition, rightPosition);
+    }
+
+    private static void swap(PagesIndex pagesIndex, @Nullable long[] sortPrefixes, int prefixOffset, int a, int b)
+    {
+        pagesIndex.swap(a, b);
+        if (sortPrefixes != null) {
+            long prefix = sortPrefixes[a - prefixOffset];
+            sortPrefixes[a - prefixOffset] = sortPrefixes[b - prefixOffset];
+            sortPrefixes[b - prefixOffset] = prefix;
         }
     }
 }
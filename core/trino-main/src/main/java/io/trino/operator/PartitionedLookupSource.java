@@ -150,6 +150,63 @@ public class PartitionedLookupSource
         return encodePartitionedJoinPosition(partition, toIntExact(joinPosition));
     }
 
+    @Override
+    public long[] getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage)
+    {
+        long[] rawHashes = new long[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            rawHashes[i] = partitionGenerator.getRawHash(hashChannelsPage, positions[i]);
+        }
+        return getJoinPositions(positions, positionCount, hashChannelsPage, allChannelsPage, rawHashes);
+    }
+
+    @Override
+    public long[] getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, long[] rawHashes)
+    {
+        // group the probe positions by partition, so that each partition is probed with a single batch
+        int[] partitions = new int[positionCount];
+        int[] partitionOffsets = new int[lookupSources.length + 1];
+        for (int i = 0; i < positionCount; i++) {
+            int partition = partitionGenerator.getPartition(rawHashes[i]);
+            partitions[i] = partition;
+            partitionOffsets[partition + 1]++;
+        }
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            partitionOffsets[partition + 1] += partitionOffsets[partition];
+        }
+
+        int[] order = new int[positionCount];
+        int[] partitionPositions = new int[positionCount];
+        long[] partitionRawHashes = new long[positionCount];
+        int[] nextIndexes = Arrays.copyOf(partitionOffsets, lookupSources.length);
+        for (int i = 0; i < positionCount; i++) {
+            int index = nextIndexes[partitions[i]]++;
+            order[index] = i;
+            partitionPositions[index] = positions[i];
+            partitionRawHashes[index] = rawHashes[i];
+        }
+
+        long[] joinPositions = new long[positionCount];
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            int offset = partitionOffsets[partition];
+            int count = partitionOffsets[partition + 1] - offset;
+            if (count == 0) {
+                continue;
+            }
+            long[] partitionJoinPositions = lookupSources[partition].getJoinPositions(
+                    Arrays.copyOfRange(partitionPositions, offset, offset + count),
+                    count,
+                    hashChannelsPage,
+                    allChannelsPage,
+                    Arrays.copyOfRange(partitionRawHashes, offset, offset + count));
+            for (int i = 0; i < count; i++) {
+                long joinPosition = partitionJoinPositions[i];
+                joinPositions[order[offset + i]] = joinPosition < 0 ? joinPosition : encodePartitionedJoinPosition(partition, toIntExact(joinPosition));
+            }
+        }
+        return joinPositions;
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
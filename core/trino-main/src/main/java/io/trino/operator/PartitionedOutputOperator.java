@@ -27,6 +27,8 @@ import io.trino.memory.context.LocalMemoryContext;
 import io.trino.spi.Page;
 import io.trino.spi.PageBuilder;
 import io.trino.spi.block.Block;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.block.DictionaryBlock;
 import io.trino.spi.block.RunLengthEncodedBlock;
 import io.trino.spi.predicate.NullableValue;
 import io.trino.spi.type.Type;
@@ -40,6 +42,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
@@ -64,6 +67,7 @@ public class PartitionedOutputOperator
         private final OutputBuffer outputBuffer;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel;
+        private final Optional<SkewedPartitionKeys> skewedKeys;
         private final DataSize maxMemory;
 
         public PartitionedOutputFactory(
@@ -74,12 +78,26 @@ public class PartitionedOutputOperator
                 OptionalInt nullChannel,
                 OutputBuffer outputBuffer,
                 DataSize maxMemory)
+        {
+            this(partitionFunction, partitionChannels, partitionConstants, replicatesAnyRow, nullChannel, Optional.empty(), outputBuffer, maxMemory);
+        }
+
+        public PartitionedOutputFactory(
+                PartitionFunction partitionFunction,
+                List<Integer> partitionChannels,
+                List<Optional<NullableValue>> partitionConstants,
+                boolean replicatesAnyRow,
+                OptionalInt nullChannel,
+                Optional<SkewedPartitionKeys> skewedKeys,
+                OutputBuffer outputBuffer,
+                DataSize maxMemory)
         {
             this.partitionFunction = requireNonNull(partitionFunction, "partitionFunction is null");
             this.partitionChannels = requireNonNull(partitionChannels, "partitionChannels is null");
             this.partitionConstants = requireNonNull(partitionConstants, "partitionConstants is null");
             this.replicatesAnyRow = replicatesAnyRow;
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
+            this.skewedKeys = requireNonNull(skewedKeys, "skewedKeys is null");
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.maxMemory = requireNonNull(maxMemory, "maxMemory is null");
         }
@@ -102,6 +120,7 @@ public class PartitionedOutputOperator
                     partitionConstants,
                     replicatesAnyRow,
                     nullChannel,
+                    skewedKeys,
                     outputBuffer,
                     serdeFactory,
                     maxMemory);
@@ -120,6 +139,7 @@ public class PartitionedOutputOperator
         private final List<Optional<NullableValue>> partitionConstants;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel;
+        private final Optional<SkewedPartitionKeys> skewedKeys;
         private final OutputBuffer outputBuffer;
         private final PagesSerdeFactory serdeFactory;
         private final DataSize maxMemory;
@@ -134,6 +154,7 @@ public class PartitionedOutputOperator
                 List<Optional<NullableValue>> partitionConstants,
                 boolean replicatesAnyRow,
                 OptionalInt nullChannel,
+                Optional<SkewedPartitionKeys> skewedKeys,
                 OutputBuffer outputBuffer,
                 PagesSerdeFactory serdeFactory,
                 DataSize maxMemory)
@@ -147,6 +168,7 @@ public class PartitionedOutputOperator
             this.partitionConstants = requireNonNull(partitionConstants, "partitionConstants is null");
             this.replicatesAnyRow = replicatesAnyRow;
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
+            this.skewedKeys = requireNonNull(skewedKeys, "skewedKeys is null");
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.serdeFactory = requireNonNull(serdeFactory, "serdeFactory is null");
             this.maxMemory = requireNonNull(maxMemory, "maxMemory is null");
@@ -165,6 +187,7 @@ public class PartitionedOutputOperator
                     partitionConstants,
                     replicatesAnyRow,
                     nullChannel,
+                    skewedKeys,
                     outputBuffer,
                     serdeFactory,
                     maxMemory);
@@ -188,6 +211,7 @@ public class PartitionedOutputOperator
                     partitionConstants,
                     replicatesAnyRow,
                     nullChannel,
+                    skewedKeys,
                     outputBuffer,
                     serdeFactory,
                     maxMemory);
@@ -211,6 +235,7 @@ public class PartitionedOutputOperator
             List<Optional<NullableValue>> partitionConstants,
             boolean replicatesAnyRow,
             OptionalInt nullChannel,
+            Optional<SkewedPartitionKeys> skewedKeys,
             OutputBuffer outputBuffer,
             PagesSerdeFactory serdeFactory,
             DataSize maxMemory)
@@ -223,6 +248,7 @@ public class PartitionedOutputOperator
                 partitionConstants,
                 replicatesAnyRow,
                 nullChannel,
+                skewedKeys,
                 outputBuffer,
                 serdeFactory,
                 sourceTypes,
@@ -307,27 +333,43 @@ public class PartitionedOutputOperator
 
     private static class PagePartitioner
     {
+        private static final int REPLICATED = -1;
+
         private final OutputBuffer outputBuffer;
-        private final List<Type> sourceTypes;
         private final PartitionFunction partitionFunction;
         private final int[] partitionChannels;
         @Nullable
         private final Block[] partitionConstantBlocks; // when null, no constants are present. Only non-null elements are constants
         private final PagesSerde serde;
         private final PageBuilder[] pageBuilders;
+        private final PositionsAppender[] positionsAppenders;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel; // when present, send the position to every partition if this channel is null.
+        @Nullable
+        private final SkewedPartitionKeys skewedKeys;
         private final AtomicLong rowsAdded = new AtomicLong();
         private final AtomicLong pagesAdded = new AtomicLong();
+        private final AtomicLong skewedRows = new AtomicLong();
         private boolean hasAnyRowBeenReplicated;
+        // partition receiving the next spread row with a skewed key
+        private int nextSpreadPartition;
         private final OperatorContext operatorContext;
 
+        // partition of each position of the current page
+        private int[] partitions = new int[0];
+        // positions of the current page grouped by partition, preceded by the replicated positions
+        private int[] partitionedPositions = new int[0];
+        private final int[] partitionStarts;
+        private final int[] partitionEnds;
+        private int[] dictionaryIds = new int[0];
+
         public PagePartitioner(
                 PartitionFunction partitionFunction,
                 List<Integer> partitionChannels,
                 List<Optional<NullableValue>> partitionConstants,
                 boolean replicatesAnyRow,
                 OptionalInt nullChannel,
+                Optional<SkewedPartitionKeys> skewedKeys,
                 OutputBuffer outputBuffer,
                 PagesSerdeFactory serdeFactory,
                 List<Type> sourceTypes,
@@ -347,8 +389,9 @@ public class PartitionedOutputOperator
             }
             this.replicatesAnyRow = replicatesAnyRow;
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
+            this.skewedKeys = requireNonNull(skewedKeys, "skewedKeys is null").orElse(null);
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
-            this.sourceTypes = requireNonNull(sourceTypes, "sourceTypes is null");
+            requireNonNull(sourceTypes, "sourceTypes is null");
             this.serde = requireNonNull(serdeFactory, "serdeFactory is null").createPagesSerde();
             this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
 
@@ -368,6 +411,13 @@ public class PartitionedOutputOperator
             for (int i = 0; i < partitionCount; i++) {
                 pageBuilders[i] = PageBuilder.withMaxPageSize(pageSize, sourceTypes);
             }
+            this.positionsAppenders = sourceTypes.stream()
+                    .map(PositionsAppender::createPositionsAppender)
+                    .toArray(PositionsAppender[]::new);
+            this.partitionStarts = new int[partitionCount];
+            this.partitionEnds = new int[partitionCount];
+            // start at a random partition, so the operators of a stage do not all spread their first rows to the same partitions
+            this.nextSpreadPartition = ThreadLocalRandom.current().nextInt(partitionCount);
         }
 
         public ListenableFuture<?> isFull()
@@ -400,29 +450,133 @@ public class PartitionedOutputOperator
 
         public PartitionedOutputInfo getInfo()
         {
-            return new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), outputBuffer.getPeakMemoryUsage());
+            return new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), skewedRows.get(), outputBuffer.getPeakMemoryUsage());
         }
 
         public void partitionPage(Page page)
         {
             requireNonNull(page, "page is null");
 
+            int positionCount = page.getPositionCount();
+            int replicatedCount = assignPartitions(page);
+
+            // group the positions by partition, so the columns can be copied to each partition in bulk
+            int offset = replicatedCount;
+            for (int partition = 0; partition < pageBuilders.length; partition++) {
+                int partitionSize = partitionEnds[partition];
+                partitionStarts[partition] = offset;
+                partitionEnds[partition] = offset;
+                offset += partitionSize;
+            }
+            partitionedPositions = ensureCapacity(partitionedPositions, positionCount);
+            int replicatedEnd = 0;
+            for (int position = 0; position < positionCount; position++) {
+                int partition = partitions[position];
+                if (partition == REPLICATED) {
+                    partitionedPositions[replicatedEnd++] = position;
+                }
+                else {
+                    partitionedPositions[partitionEnds[partition]++] = position;
+                }
+            }
+
+            for (int partition = 0; partition < pageBuilders.length; partition++) {
+                int start = partitionStarts[partition];
+                int length = partitionEnds[partition] - start;
+                if (length + replicatedCount == 0) {
+                    continue;
+                }
+                PageBuilder pageBuilder = pageBuilders[partition];
+                pageBuilder.declarePositions(length + replicatedCount);
+                for (int channel = 0; channel < positionsAppenders.length; channel++) {
+                    Block block = page.getBlock(channel).getLoadedBlock();
+                    BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(channel);
+                    if (replicatedCount > 0) {
+                        appendPositions(positionsAppenders[channel], block, partitionedPositions, 0, replicatedCount, blockBuilder);
+                    }
+                    if (length > 0) {
+                        appendPositions(positionsAppenders[channel], block, partitionedPositions, start, length, blockBuilder);
+                    }
+                }
+            }
+            flush(false);
+        }
+
+        /**
+         * Computes the partition of every position of the page, and counts the positions of each partition.
+         *
+         * @return the number of positions, which are replicated to all partitions
+         */
+        private int assignPartitions(Page page)
+        {
+            int positionCount = page.getPositionCount();
+            partitions = ensureCapacity(partitions, positionCount);
+            Arrays.fill(partitionEnds, 0);
+
             Page partitionFunctionArgs = getPartitionFunctionArguments(page);
-            for (int position = 0; position < page.getPositionCount(); position++) {
+            Block nullBlock = nullChannel.isPresent() ? page.getBlock(nullChannel.getAsInt()) : null;
+            int replicatedCount = 0;
+            long skewedCount = 0;
+            for (int position = 0; position < positionCount; position++) {
                 boolean shouldReplicate = (replicatesAnyRow && !hasAnyRowBeenReplicated) ||
-                        nullChannel.isPresent() && page.getBlock(nullChannel.getAsInt()).isNull(position);
+                        nullBlock != null && nullBlock.isNull(position);
                 if (shouldReplicate) {
-                    for (PageBuilder pageBuilder : pageBuilders) {
-                        appendRow(pageBuilder, page, position);
-                    }
+                    partitions[position] = REPLICATED;
+                    replicatedCount++;
                     hasAnyRowBeenReplicated = true;
                 }
+                else if (skewedKeys != null && skewedKeys.isSkewed(partitionFunctionArgs, position)) {
+                    skewedCount++;
+                    if (skewedKeys.isReplicated()) {
+                        partitions[position] = REPLICATED;
+                        replicatedCount++;
+                    }
+                    else {
+                        int partition = nextSpreadPartition;
+                        nextSpreadPartition = (partition + 1) % partitionEnds.length;
+                        partitions[position] = partition;
+                        partitionEnds[partition]++;
+                    }
+                }
                 else {
                     int partition = partitionFunction.getPartition(partitionFunctionArgs, position);
-                    appendRow(pageBuilders[partition], page, position);
+                    partitions[position] = partition;
+                    partitionEnds[partition]++;
                 }
             }
-            flush(false);
+            if (skewedCount > 0) {
+                skewedRows.addAndGet(skewedCount);
+            }
+            return replicatedCount;
+        }
+
+        private void appendPositions(PositionsAppender appender, Block block, int[] positions, int offset, int length, BlockBuilder blockBuilder)
+        {
+            if (block instanceof RunLengthEncodedBlock) {
+                appender.appendRle(((RunLengthEncodedBlock) block).getValue(), length, blockBuilder);
+            }
+            else if (block instanceof DictionaryBlock) {
+                // resolve the ids once, and copy the values from the dictionary
+                DictionaryBlock dictionaryBlock = (DictionaryBlock) block;
+                int[] ids = ensureCapacity(dictionaryIds, length);
+                dictionaryIds = ids;
+                for (int i = 0; i < length; i++) {
+                    ids[i] = dictionaryBlock.getId(positions[offset + i]);
+                }
+                // a nested dictionary maps the ids in place
+                appendPositions(appender, dictionaryBlock.getDictionary(), ids, 0, length, blockBuilder);
+            }
+            else {
+                appender.append(positions, offset, length, block, blockBuilder);
+            }
+        }
+
+        private static int[] ensureCapacity(int[] array, int capacity)
+        {
+            if (array.length >= capacity) {
+                return array;
+            }
+            return new int[capacity];
         }
 
         private Page getPartitionFunctionArguments(Page page)
@@ -445,16 +599,6 @@ public class PartitionedOutputOperator
             return new Page(page.getPositionCount(), blocks);
         }
 
-        private void appendRow(PageBuilder pageBuilder, Page page, int position)
-        {
-            pageBuilder.declarePosition();
-
-            for (int channel = 0; channel < sourceTypes.size(); channel++) {
-                Type type = sourceTypes.get(channel);
-                type.appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
-            }
-        }
-
         public void flush(boolean force)
         {
             try (PagesSerde.PagesSerdeContext context = serde.newContext()) {
@@ -491,16 +635,19 @@ public class PartitionedOutputOperator
     {
         private final long rowsAdded;
         private final long pagesAdded;
+        private final long skewedRows;
         private final long outputBufferPeakMemoryUsage;
 
         @JsonCreator
         public PartitionedOutputInfo(
                 @JsonProperty("rowsAdded") long rowsAdded,
                 @JsonProperty("pagesAdded") long pagesAdded,
+                @JsonProperty("skewedRows") long skewedRows,
                 @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage)
         {
             this.rowsAdded = rowsAdded;
             this.pagesAdded = pagesAdded;
+            this.skewedRows = skewedRows;
             this.outputBufferPeakMemoryUsage = outputBufferPeakMemoryUsage;
         }
 
@@ -516,6 +663,16 @@ public class PartitionedOutputOperator
             return pagesAdded;
         }
 
+        /**
+         * Returns the number of input rows with a skewed partitioning key, which were spread across
+         * the partitions, or sent to all of them.
+         */
+        @JsonProperty
+        public long getSkewedRows()
+        {
+            return skewedRows;
+        }
+
         @JsonProperty
         public long getOutputBufferPeakMemoryUsage()
         {
@@ -528,6 +685,7 @@ public class PartitionedOutputOperator
             return new PartitionedOutputInfo(
                     rowsAdded + other.rowsAdded,
                     pagesAdded + other.pagesAdded,
+                    skewedRows + other.skewedRows,
                     Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage));
         }
 
@@ -543,6 +701,7 @@ public class PartitionedOutputOperator
             return toStringHelper(this)
                     .add("rowsAdded", rowsAdded)
                     .add("pagesAdded", pagesAdded)
+                    .add("skewedRows", skewedRows)
                     .add("outputBufferPeakMemoryUsage", outputBufferPeakMemoryUsage)
                     .toString();
         }
@@ -0,0 +1,233 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import io.trino.spi.block.Block;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.block.ByteArrayBlockBuilder;
+import io.trino.spi.block.IntArrayBlockBuilder;
+import io.trino.spi.block.LongArrayBlockBuilder;
+import io.trino.spi.block.ShortArrayBlockBuilder;
+import io.trino.spi.type.Type;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Appends a batch of positions of a block to a block builder. The appenders for the
+ * fixed width representations copy the values directly, instead of going through the
+ * type for every position.
+ */
+interface PositionsAppender
+{
+    /**
+     * Appends {@code length} positions of the array, starting at the offset, from the source to the target.
+     * The source must not be a dictionary or run length encoded block.
+     */
+    void append(int[] positions, int offset, int length, Block source, BlockBuilder target);
+
+    /**
+     * Appends the single position of the value block {@code count} times to the target.
+     */
+    void appendRle(Block value, int count, BlockBuilder target);
+
+    static PositionsAppender createPositionsAppender(Type type)
+    {
+        BlockBuilder blockBuilder = type.createBlockBuilder(null, 0);
+        if (blockBuilder instanceof LongArrayBlockBuilder) {
+            return new LongPositionsAppender();
+        }
+        if (blockBuilder instanceof IntArrayBlockBuilder) {
+            return new IntPositionsAppender();
+        }
+        if (blockBuilder instanceof ShortArrayBlockBuilder) {
+            return new ShortPositionsAppender();
+        }
+        if (blockBuilder instanceof ByteArrayBlockBuilder) {
+            return new BytePositionsAppender();
+        }
+        return new TypedPositionsAppender(type);
+    }
+
+    class LongPositionsAppender
+            implements PositionsAppender
+    {
+        @Override
+        public void append(int[] positions, int offset, int length, Block source, BlockBuilder target)
+        {
+            if (source.mayHaveNull()) {
+                for (int i = offset; i < offset + length; i++) {
+                    int position = positions[i];
+                    if (source.isNull(position)) {
+                        target.appendNull();
+                    }
+                    else {
+                        target.writeLong(source.getLong(position, 0)).closeEntry();
+                    }
+                }
+            }
+            else {
+                for (int i = offset; i < offset + length; i++) {
+                    target.writeLong(source.getLong(positions[i], 0)).closeEntry();
+                }
+            }
+        }
+
+        @Override
+        public void appendRle(Block value, int count, BlockBuilder target)
+        {
+            if (value.isNull(0)) {
+                appendNulls(count, target);
+                return;
+            }
+            long longValue = value.getLong(0, 0);
+            for (int i = 0; i < count; i++) {
+                target.writeLong(longValue).closeEntry();
+            }
+        }
+    }
+
+    class IntPositionsAppender
+            implements PositionsAppender
+    {
+        @Override
+        public void append(int[] positions, int offset, int length, Block source, BlockBuilder target)
+        {
+            if (source.mayHaveNull()) {
+                for (int i = offset; i < offset + length; i++) {
+                    int position = positions[i];
+                    if (source.isNull(position)) {
+                        target.appendNull();
+                    }
+                    else {
+                        target.writeInt(source.getInt(position, 0)).closeEntry();
+                    }
+                }
+            }
+            else {
+                for (int i = offset; i < offset + length; i++) {
+                    target.writeInt(source.getInt(positions[i], 0)).closeEntry();
+                }
+            }
+        }
+
+        @Override
+        public void appendRle(Block value, int count, BlockBuilder target)
+        {
+            if (value.isNull(0)) {
+                appendNulls(count, target);
+                return;
+            }
+            int intValue = value.getInt(0, 0);
+            for (int i = 0; i < count; i++) {
+                target.writeInt(intValue).closeEntry();
+            }
+        }
+    }
+
+    class ShortPositionsAppender
+            implements PositionsAppender
+    {
+        @Override
+        public void append(int[] positions, int offset, int length, Block source, BlockBuilder target)
+        {
+            for (int i = offset; i < offset + length; i++) {
+                int position = positions[i];
+                if (source.isNull(position)) {
+                    target.appendNull();
+                }
+                else {
+                    target.writeShort(source.getShort(position, 0)).closeEntry();
+                }
+            }
+        }
+
+        @Override
+        public void appendRle(Block value, int count, BlockBuilder target)
+        {
+            if (value.isNull(0)) {
+                appendNulls(count, target);
+                return;
+            }
+            short shortValue = value.getShort(0, 0);
+            for (int i = 0; i < count; i++) {
+                target.writeShort(shortValue).closeEntry();
+            }
+        }
+    }
+
+    class BytePositionsAppender
+            implements PositionsAppender
+    {
+        @Override
+        public void append(int[] positions, int offset, int length, Block source, BlockBuilder target)
+        {
+            for (int i = offset; i < offset + length; i++) {
+                int position = positions[i];
+                if (source.isNull(position)) {
+                    target.appendNull();
+                }
+                else {
+                    target.writeByte(source.getByte(position, 0)).closeEntry();
+                }
+            }
+        }
+
+        @Override
+        public void appendRle(Block value, int count, BlockBuilder target)
+        {
+            if (value.isNull(0)) {
+                appendNulls(count, target);
+                return;
+            }
+            byte byteValue = value.getByte(0, 0);
+            for (int i = 0; i < count; i++) {
+                target.writeByte(byteValue).closeEntry();
+            }
+        }
+    }
+
+    class TypedPositionsAppender
+            implements PositionsAppender
+    {
+        private final Type type;
+
+        public TypedPositionsAppender(Type type)
+        {
+            this.type = requireNonNull(type, "type is null");
+        }
+
+        @Override
+        public void append(int[] positions, int offset, int length, Block source, BlockBuilder target)
+        {
+            for (int i = offset; i < offset + length; i++) {
+                type.appendTo(source, positions[i], target);
+            }
+        }
+
+        @Override
+        public void appendRle(Block value, int count, BlockBuilder target)
+        {
+            for (int i = 0; i < count; i++) {
+                type.appendTo(value, 0, target);
+            }
+        }
+    }
+
+    private static void appendNulls(int count, BlockBuilder target)
+    {
+        for (int i = 0; i < count; i++) {
+            target.appendNull();
+        }
+    }
+}
@@ -88,6 +88,7 @@ public class ScanFilterAndProjectOperator
             TableHandle table,
             Iterable<ColumnHandle> columns,
             DynamicFilter dynamicFilter,
+            DynamicRowFilter dynamicRowFilter,
             Iterable<Type> types,
             DataSize minOutputPageSize,
             int minOutputPageRowCount,
@@ -103,6 +104,7 @@ public class ScanFilterAndProjectOperator
                         table,
                         columns,
                         dynamicFilter,
+                        dynamicRowFilter,
                         types,
                         requireNonNull(memoryTrackingContext, "memoryTrackingContext is null").aggregateSystemMemoryContext(),
                         minOutputPageSize,
@@ -190,6 +192,7 @@ public class ScanFilterAndProjectOperator
         final TableHandle table;
         final List<ColumnHandle> columns;
         final DynamicFilter dynamicFilter;
+        final DynamicRowFilter dynamicRowFilter;
         final List<Type> types;
         final LocalMemoryContext memoryContext;
         final AggregatedMemoryContext localAggregatedMemoryContext;
@@ -208,6 +211,7 @@ public class ScanFilterAndProjectOperator
                 TableHandle table,
                 Iterable<ColumnHandle> columns,
                 DynamicFilter dynamicFilter,
+                DynamicRowFilter dynamicRowFilter,
                 Iterable<Type> types,
                 AggregatedMemoryContext aggregatedMemoryContext,
                 DataSize minOutputPageSize,
@@ -222,6 +226,7 @@ public class ScanFilterAndProjectOperator
             this.table = requireNonNull(table, "table is null");
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilterSupplier is null");
+            this.dynamicRowFilter = requireNonNull(dynamicRowFilter, "dynamicRowFilter is null");
             this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
             this.memoryContext = aggregatedMemoryContext.newLocalMemoryContext(ScanFilterAndProjectOperator.class.getSimpleName());
             this.localAggregatedMemoryContext = newSimpleAggregatedMemoryContext();
@@ -277,6 +282,7 @@ public class ScanFilterAndProjectOperator
             return WorkProcessor
                     .create(new ConnectorPageSourceToPages(pageSourceMemoryContext))
                     .yielding(yieldSignal::isSet)
+                    .map(dynamicRowFilter::filter)
                     .flatMap(page -> pageProcessor.createWorkProcessor(
                             session.toConnectorSession(),
                             yieldSignal,
@@ -408,6 +414,7 @@ public class ScanFilterAndProjectOperator
         private final TableHandle table;
         private final List<ColumnHandle> columns;
         private final DynamicFilter dynamicFilter;
+        private final DynamicRowFilter dynamicRowFilter;
         private final List<Type> types;
         private final DataSize minOutputPageSize;
         private final int minOutputPageRowCount;
@@ -423,6 +430,7 @@ public class ScanFilterAndProjectOperator
                 TableHandle table,
                 Iterable<ColumnHandle> columns,
                 DynamicFilter dynamicFilter,
+                DynamicRowFilter dynamicRowFilter,
                 List<Type> types,
                 DataSize minOutputPageSize,
                 int minOutputPageRowCount)
@@ -436,6 +444,7 @@ public class ScanFilterAndProjectOperator
             this.table = requireNonNull(table, "table is null");
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.dynamicFilter = dynamicFilter;
+            this.dynamicRowFilter = requireNonNull(dynamicRowFilter, "dynamicRowFilter is null");
             this.types = requireNonNull(types, "types is null");
             this.minOutputPageSize = requireNonNull(minOutputPageSize, "minOutputPageSize is null");
             this.minOutputPageRowCount = minOutputPageRowCount;
@@ -511,6 +520,7 @@ public class ScanFilterAndProjectOperator
                     table,
                     columns,
                     dynamicFilter,
+                    dynamicRowFilter,
                     types,
                     minOutputPageSize,
                     minOutputPageRowCount,
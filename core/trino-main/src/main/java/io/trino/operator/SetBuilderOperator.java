@@ -14,22 +14,36 @@
 package io.trino.operator;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.trino.memory.context.LocalMemoryContext;
 import io.trino.operator.ChannelSet.ChannelSetBuilder;
 import io.trino.spi.Page;
+import io.trino.spi.block.Block;
 import io.trino.spi.type.Type;
+import io.trino.spiller.PartitioningSpillerFactory;
 import io.trino.sql.gen.JoinCompiler;
 import io.trino.sql.planner.plan.PlanNodeId;
 import io.trino.type.BlockTypeOperators;
 
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterators.concat;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
@@ -40,10 +54,38 @@ public class SetBuilderOperator
     {
         private final Type type;
         private final SettableFuture<ChannelSet> channelSetFuture = SettableFuture.create();
+        private final SettableFuture<?> setBuilt = SettableFuture.create();
+
+        // The partitions of a spilled set are loaded one at a time. A partition is dropped,
+        // and the next one is loaded, after all probe operators released the partition.
+        private final int probeOperatorsCount;
+        @GuardedBy("this")
+        private final SettableFuture<ChannelSet>[] spilledPartitions;
+        @GuardedBy("this")
+        private final int[] spilledPartitionReleases;
+        private final List<SettableFuture<?>> spilledPartitionsReleased;
+        private volatile boolean spilled;
+        private volatile boolean spilledSetContainsNull;
 
         public SetSupplier(Type type)
+        {
+            this(type, 0);
+        }
+
+        @SuppressWarnings("unchecked")
+        public SetSupplier(Type type, int probeOperatorsCount)
         {
             this.type = requireNonNull(type, "type is null");
+            checkArgument(probeOperatorsCount >= 0, "probeOperatorsCount is negative");
+            this.probeOperatorsCount = probeOperatorsCount;
+            this.spilledPartitions = new SettableFuture[DistinctSpiller.PARTITION_COUNT];
+            for (int partition = 0; partition < spilledPartitions.length; partition++) {
+                spilledPartitions[partition] = SettableFuture.create();
+            }
+            this.spilledPartitionReleases = new int[DistinctSpiller.PARTITION_COUNT];
+            this.spilledPartitionsReleased = Stream.generate(SettableFuture::create)
+                    .limit(DistinctSpiller.PARTITION_COUNT)
+                    .collect(toImmutableList());
         }
 
         public Type getType()
@@ -56,10 +98,83 @@ public class SetBuilderOperator
             return channelSetFuture;
         }
 
+        /**
+         * Returns a future completed when the set is built, either in memory or spilled.
+         */
+        public ListenableFuture<?> getSetBuilt()
+        {
+            return setBuilt;
+        }
+
+        public boolean isSpilled()
+        {
+            return spilled;
+        }
+
+        public boolean spilledSetContainsNull()
+        {
+            checkState(spilled, "Set is not spilled");
+            return spilledSetContainsNull;
+        }
+
+        public synchronized ListenableFuture<ChannelSet> getSpilledPartition(int partition)
+        {
+            checkState(spilledPartitions[partition] != null, "Partition %s is already released", partition);
+            return spilledPartitions[partition];
+        }
+
+        /**
+         * Releases the partition of the spilled set. Every probe operator must release every partition, in order,
+         * even if the set is not spilled.
+         */
+        public void releaseSpilledPartition(int partition)
+        {
+            boolean released;
+            synchronized (this) {
+                spilledPartitionReleases[partition]++;
+                checkState(spilledPartitionReleases[partition] <= probeOperatorsCount, "Partition %s released too many times", partition);
+                released = spilledPartitionReleases[partition] == probeOperatorsCount;
+                if (released) {
+                    spilledPartitions[partition] = null;
+                }
+            }
+            if (released) {
+                spilledPartitionsReleased.get(partition).set(null);
+            }
+        }
+
         void setChannelSet(ChannelSet channelSet)
         {
             boolean wasSet = channelSetFuture.set(requireNonNull(channelSet, "channelSet is null"));
             checkState(wasSet, "ChannelSet already set");
+            setBuilt.set(null);
+        }
+
+        void setSpilled(boolean containsNull)
+        {
+            checkState(probeOperatorsCount > 0, "Spilling requires a fixed count of probe operators");
+            spilledSetContainsNull = containsNull;
+            spilled = true;
+            boolean wasSet = setBuilt.set(null);
+            checkState(wasSet, "Set already built");
+        }
+
+        /**
+         * Hands the loaded partition of the spilled set to the probe operators.
+         *
+         * @return a future completed when all probe operators released the partition
+         */
+        ListenableFuture<?> setSpilledPartition(int partition, ChannelSet channelSet)
+        {
+            requireNonNull(channelSet, "channelSet is null");
+            SettableFuture<ChannelSet> spilledPartition;
+            synchronized (this) {
+                spilledPartition = spilledPartitions[partition];
+            }
+            if (spilledPartition != null) {
+                spilledPartition.set(channelSet);
+            }
+            return spilledPartitionsReleased.get(partition);
         }
     }
 
@@ -75,6 +190,8 @@ public class SetBuilderOperator
         private boolean closed;
         private final JoinCompiler joinCompiler;
         private final BlockTypeOperators blockTypeOperators;
+        private final boolean spillEnabled;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
 
         public SetBuilderOperatorFactory(
                 int operatorId,
@@ -85,16 +202,53 @@ public class SetBuilderOperator
                 int expectedPositions,
                 JoinCompiler joinCompiler,
                 BlockTypeOperators blockTypeOperators)
+        {
+            this(operatorId, planNodeId, new SetSupplier(requireNonNull(type, "type is null")), setChannel, hashChannel, expectedPositions, joinCompiler, blockTypeOperators, false, unsupportedPartitioningSpillerFactory());
+        }
+
+        /**
+         * @param probeOperatorsCount the count of the operators probing the set, which must be fixed when spilling is enabled
+         */
+        public SetBuilderOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                Type type,
+                int setChannel,
+                Optional<Integer> hashChannel,
+                int expectedPositions,
+                JoinCompiler joinCompiler,
+                BlockTypeOperators blockTypeOperators,
+                boolean spillEnabled,
+                int probeOperatorsCount,
+                PartitioningSpillerFactory partitioningSpillerFactory)
+        {
+            this(operatorId, planNodeId, new SetSupplier(requireNonNull(type, "type is null"), probeOperatorsCount), setChannel, hashChannel, expectedPositions, joinCompiler, blockTypeOperators, spillEnabled, partitioningSpillerFactory);
+            checkArgument(!spillEnabled || probeOperatorsCount > 0, "A fixed count of probe operators is required when spilling is enabled");
+        }
+
+        private SetBuilderOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                SetSupplier setProvider,
+                int setChannel,
+                Optional<Integer> hashChannel,
+                int expectedPositions,
+                JoinCompiler joinCompiler,
+                BlockTypeOperators blockTypeOperators,
+                boolean spillEnabled,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
             checkArgument(setChannel >= 0, "setChannel is negative");
-            this.setProvider = new SetSupplier(requireNonNull(type, "type is null"));
+            this.setProvider = requireNonNull(setProvider, "setProvider is null");
             this.setChannel = setChannel;
             this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
             this.expectedPositions = expectedPositions;
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
             this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
         }
 
         public SetSupplier getSetProvider()
@@ -107,7 +261,7 @@ public class SetBuilderOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, SetBuilderOperator.class.getSimpleName());
-            return new SetBuilderOperator(operatorContext, setProvider, setChannel, hashChannel, expectedPositions, joinCompiler, blockTypeOperators);
+            return new SetBuilderOperator(operatorContext, setProvider, setChannel, hashChannel, expectedPositions, joinCompiler, blockTypeOperators, spillEnabled, partitioningSpillerFactory);
         }
 
         @Override
@@ -119,6 +273,7 @@ public class SetBuilderOperator
         @Override
         public OperatorFactory duplicate()
         {
+            checkState(!spillEnabled, "Spilling set builder cannot be duplicated");
             return new SetBuilderOperatorFactory(operatorId, planNodeId, setProvider.getType(), setChannel, hashChannel, expectedPositions, joinCompiler, blockTypeOperators);
         }
     }
@@ -126,13 +281,36 @@ public class SetBuilderOperator
     private final OperatorContext operatorContext;
     private final SetSupplier setSupplier;
     private final int[] sourceChannels;
+    private final Optional<Integer> channelSetHashChannel;
+    private final int expectedPositions;
+    private final JoinCompiler joinCompiler;
+    private final BlockTypeOperators blockTypeOperators;
+    private final boolean spillEnabled;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
+    private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
 
-    private final ChannelSetBuilder channelSetBuilder;
+    @Nullable
+    private ChannelSetBuilder channelSetBuilder;
 
     private boolean finished;
 
     @Nullable
     private Work<?> unfinishedWork;  // The pending work for current page.
+    @Nullable
+    private Page unfinishedPage;
+
+    private Optional<DistinctSpiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = NOT_BLOCKED;
+    private Runnable finishMemoryRevoke = () -> {};
+    // the set is spilled, but the memory revoke is not finished yet
+    private boolean revoking;
+    private boolean spilledSetContainsNull;
+
+    // partition of the spilled set which is loaded for the probe operators
+    private int unspilledPartition = -1;
+    private Iterator<Page> unspilledPages = emptyIterator();
+    private ListenableFuture<?> unspilledPartitionReleased = NOT_BLOCKED;
 
     public SetBuilderOperator(
             OperatorContext operatorContext,
@@ -142,6 +320,20 @@ public class SetBuilderOperator
             int expectedPositions,
             JoinCompiler joinCompiler,
             BlockTypeOperators blockTypeOperators)
+    {
+        this(operatorContext, setSupplier, setChannel, hashChannel, expectedPositions, joinCompiler, blockTypeOperators, false, unsupportedPartitioningSpillerFactory());
+    }
+
+    public SetBuilderOperator(
+            OperatorContext operatorContext,
+            SetSupplier setSupplier,
+            int setChannel,
+            Optional<Integer> hashChannel,
+            int expectedPositions,
+            JoinCompiler joinCompiler,
+            BlockTypeOperators blockTypeOperators,
+            boolean spillEnabled,
+            PartitioningSpillerFactory partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.setSupplier = requireNonNull(setSupplier, "setProvider is null");
@@ -153,14 +345,16 @@ public class SetBuilderOperator
             this.sourceChannels = new int[] {setChannel};
         }
         // Set builder is has a single channel which goes in channel 0, if hash is present, add a hachBlock to channel 1
-        Optional<Integer> channelSetHashChannel = hashChannel.isPresent() ? Optional.of(1) : Optional.empty();
-        this.channelSetBuilder = new ChannelSetBuilder(
-                setSupplier.getType(),
-                channelSetHashChannel,
-                expectedPositions,
-                requireNonNull(operatorContext, "operatorContext is null"),
-                requireNonNull(joinCompiler, "joinCompiler is null"),
-                requireNonNull(blockTypeOperators, "blockTypeOperators is null"));
+        this.channelSetHashChannel = hashChannel.isPresent() ? Optional.of(1) : Optional.empty();
+        this.expectedPositions = expectedPositions;
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
+        this.spillEnabled = spillEnabled;
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+        this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
+        // the memory of the set can be revoked by spilling, so the operator does not wait for memory
+        this.channelSetBuilder = createChannelSetBuilder(spillEnabled ? localRevocableMemoryContext : localUserMemoryContext);
     }
 
     @Override
@@ -176,7 +370,16 @@ public class SetBuilderOperator
             return;
         }
 
+        if (spiller.isPresent()) {
+            finishSpilled();
+            return;
+        }
+
         ChannelSet channelSet = channelSetBuilder.build();
+        if (spillEnabled) {
+            localRevocableMemoryContext.setBytes(0);
+            localUserMemoryContext.setBytes(channelSet.getEstimatedSizeInBytes());
+        }
         setSupplier.setChannelSet(channelSet);
         operatorContext.recordOutput(channelSet.getEstimatedSizeInBytes(), channelSet.size());
         finished = true;
@@ -188,13 +391,22 @@ public class SetBuilderOperator
         return finished;
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (!spillInProgress.isDone()) {
+            return spillInProgress;
+        }
+        return unspilledPartitionReleased.isDone() ? NOT_BLOCKED : unspilledPartitionReleased;
+    }
+
     @Override
     public boolean needsInput()
     {
         // Since SetBuilderOperator doesn't produce any output, the getOutput()
         // method may never be called. We need to handle any unfinished work
         // before addInput() can be called again.
-        return !finished && (unfinishedWork == null || processUnfinishedWork());
+        return !finished && !revoking && unspilledPartition < 0 && spillInProgress.isDone() && (unfinishedWork == null || processUnfinishedWork());
     }
 
     @Override
@@ -203,7 +415,16 @@ public class SetBuilderOperator
         requireNonNull(page, "page is null");
         checkState(!isFinished(), "Operator is already finished");
 
-        unfinishedWork = channelSetBuilder.addPage(page.getColumns(sourceChannels));
+        Page setPage = page.getColumns(sourceChannels);
+        if (spiller.isPresent()) {
+            checkSuccess(spillInProgress, "spilling failed");
+            spilledSetContainsNull |= containsNull(setPage.getBlock(0));
+            spillInProgress = spiller.get().spillInput(setPage);
+            return;
+        }
+
+        unfinishedPage = setPage;
+        unfinishedWork = channelSetBuilder.addPage(setPage);
         processUnfinishedWork();
     }
 
@@ -213,6 +434,92 @@ public class SetBuilderOperator
         return null;
     }
 
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        if (finished || spiller.isPresent() || channelSetBuilder.size() == 0) {
+            return NOT_BLOCKED;
+        }
+
+        List<Type> types = channelSetHashChannel.isPresent() ? ImmutableList.of(setSupplier.getType(), BIGINT) : ImmutableList.of(setSupplier.getType());
+        spiller = Optional.of(new DistinctSpiller(types, ImmutableList.of(0), channelSetHashChannel, partitioningSpillerFactory, operatorContext, blockTypeOperators));
+        spilledSetContainsNull = channelSetBuilder.containsNull();
+        spillInProgress = channelSetBuilder.spill(spiller.get());
+        revoking = true;
+        finishMemoryRevoke = () -> {
+            checkSuccess(spillInProgress, "spilling failed");
+            revoking = false;
+            channelSetBuilder = null;
+            localRevocableMemoryContext.setBytes(0);
+            // the values of the pending page which are not in the set yet are spilled with the whole page
+            if (unfinishedPage != null) {
+                Page page = unfinishedPage;
+                unfinishedPage = null;
+                unfinishedWork = null;
+                spilledSetContainsNull |= containsNull(page.getBlock(0));
+                spillInProgress = spiller.get().spillInput(page);
+            }
+        };
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        finishMemoryRevoke.run();
+        finishMemoryRevoke = () -> {};
+    }
+
+    @Override
+    public void close()
+            throws Exception
+    {
+        if (spiller.isPresent()) {
+            spiller.get().close();
+        }
+    }
+
+    /**
+     * Loads the partitions of the spilled set one at a time, after the probe operators released the previous partition.
+     */
+    private void finishSpilled()
+    {
+        if (revoking || !spillInProgress.isDone() || !unspilledPartitionReleased.isDone()) {
+            return;
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (unspilledPartition < 0) {
+            setSupplier.setSpilled(spilledSetContainsNull);
+        }
+
+        while (unfinishedWork == null || processUnfinishedWork()) {
+            if (unspilledPages.hasNext()) {
+                unfinishedWork = channelSetBuilder.addPage(unspilledPages.next());
+                continue;
+            }
+
+            if (channelSetBuilder != null) {
+                ChannelSet channelSet = channelSetBuilder.build();
+                channelSetBuilder = null;
+                operatorContext.recordOutput(channelSet.getEstimatedSizeInBytes(), channelSet.size());
+                unspilledPartitionReleased = setSupplier.setSpilledPartition(unspilledPartition, channelSet);
+                if (!unspilledPartitionReleased.isDone()) {
+                    return;
+                }
+            }
+            localUserMemoryContext.setBytes(0);
+
+            if (unspilledPartition == DistinctSpiller.PARTITION_COUNT - 1) {
+                finished = true;
+                return;
+            }
+            unspilledPartition++;
+            channelSetBuilder = createChannelSetBuilder(localUserMemoryContext);
+            unspilledPages = concat(spiller.get().getDistinctValues(unspilledPartition), spiller.get().getInput(unspilledPartition));
+        }
+    }
+
     private boolean processUnfinishedWork()
     {
         // Processes the unfinishedWork for this page by adding the data to the hash table. If this page
@@ -221,12 +528,38 @@ public class SetBuilderOperator
         boolean done = unfinishedWork.process();
         if (done) {
             unfinishedWork = null;
+            unfinishedPage = null;
         }
         // We need to update the memory reservation again since the page builder memory may also be increasing.
         channelSetBuilder.updateMemoryReservation();
         return done;
     }
 
+    private ChannelSetBuilder createChannelSetBuilder(LocalMemoryContext localMemoryContext)
+    {
+        return new ChannelSetBuilder(
+                setSupplier.getType(),
+                channelSetHashChannel,
+                expectedPositions,
+                operatorContext,
+                localMemoryContext,
+                joinCompiler,
+                blockTypeOperators);
+    }
+
+    private static boolean containsNull(Block block)
+    {
+        if (!block.mayHaveNull()) {
+            return false;
+        }
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @VisibleForTesting
     public int getCapacity()
     {
@@ -0,0 +1,66 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import io.trino.spi.Page;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Partitioning keys, which are spread across all partitions, or sent to all of them,
+ * instead of being sent to the partition computed from them.
+ */
+public class SkewedPartitionKeys
+{
+    private final HashGenerator hashGenerator;
+    private final LongSet keyHashes;
+    private final boolean replicated;
+
+    /**
+     * @param hashGenerator computes the hash of the partitioning key from the arguments of the partition function
+     * @param keyHashes the hashes of the skewed keys
+     * @param replicated whether the rows with a skewed key are sent to all partitions, rather than spread across them
+     */
+    public SkewedPartitionKeys(HashGenerator hashGenerator, Set<Long> keyHashes, boolean replicated)
+    {
+        this.hashGenerator = requireNonNull(hashGenerator, "hashGenerator is null");
+        this.keyHashes = new LongOpenHashSet(requireNonNull(keyHashes, "keyHashes is null"));
+        this.replicated = replicated;
+    }
+
+    public boolean isSkewed(Page partitionFunctionArguments, int position)
+    {
+        return keyHashes.contains(hashGenerator.hashPosition(position, partitionFunctionArguments));
+    }
+
+    public boolean isReplicated()
+    {
+        return replicated;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("hashGenerator", hashGenerator)
+                .add("keyHashes", keyHashes)
+                .add("replicated", replicated)
+                .toString();
+    }
+}
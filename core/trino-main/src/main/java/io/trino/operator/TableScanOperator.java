@@ -56,6 +56,7 @@ public class TableScanOperator
         private final TableHandle table;
         private final List<ColumnHandle> columns;
         private final DynamicFilter dynamicFilter;
+        private final DynamicRowFilter dynamicRowFilter;
         private boolean closed;
 
         public TableScanOperatorFactory(
@@ -64,7 +65,8 @@ public class TableScanOperator
                 PageSourceProvider pageSourceProvider,
                 TableHandle table,
                 Iterable<ColumnHandle> columns,
-                DynamicFilter dynamicFilter)
+                DynamicFilter dynamicFilter,
+                DynamicRowFilter dynamicRowFilter)
         {
             this.operatorId = operatorId;
             this.sourceId = requireNonNull(sourceId, "sourceId is null");
@@ -72,6 +74,7 @@ public class TableScanOperator
             this.table = requireNonNull(table, "table is null");
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+            this.dynamicRowFilter = requireNonNull(dynamicRowFilter, "dynamicRowFilter is null");
         }
 
         @Override
@@ -109,7 +112,8 @@ public class TableScanOperator
                     pageSourceProvider,
                     table,
                     columns,
-                    dynamicFilter);
+                    dynamicFilter,
+                    dynamicRowFilter);
         }
 
         @Override
@@ -126,7 +130,8 @@ public class TableScanOperator
                     pageSourceProvider,
                     table,
                     columns,
-                    dynamicFilter);
+                    dynamicFilter,
+                    dynamicRowFilter);
         }
 
         @Override
@@ -142,6 +147,7 @@ public class TableScanOperator
     private final TableHandle table;
     private final List<ColumnHandle> columns;
     private final DynamicFilter dynamicFilter;
+    private final DynamicRowFilter dynamicRowFilter;
     private final LocalMemoryContext systemMemoryContext;
     private final SettableFuture<?> blocked = SettableFuture.create();
 
@@ -161,7 +167,8 @@ public class TableScanOperator
             PageSourceProvider pageSourceProvider,
             TableHandle table,
             Iterable<ColumnHandle> columns,
-            DynamicFilter dynamicFilter)
+            DynamicFilter dynamicFilter,
+            DynamicRowFilter dynamicRowFilter)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -169,6 +176,7 @@ public class TableScanOperator
         this.table = requireNonNull(table, "table is null");
         this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
         this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+        this.dynamicRowFilter = requireNonNull(dynamicRowFilter, "dynamicRowFilter is null");
         this.systemMemoryContext = operatorContext.newLocalSystemMemoryContext(TableScanOperator.class.getSimpleName());
     }
 
@@ -310,6 +318,8 @@ public class TableScanOperator
             operatorContext.recordProcessedInput(page.getSizeInBytes(), page.getPositionCount());
             completedBytes = endCompletedBytes;
             readTimeNanos = endReadTimeNanos;
+
+            page = dynamicRowFilter.filter(page);
         }
 
         // updating system memory usage should happen after page is loaded.
@@ -60,7 +60,8 @@ public class TableScanWorkProcessorOperator
             PageSourceProvider pageSourceProvider,
             TableHandle table,
             Iterable<ColumnHandle> columns,
-            DynamicFilter dynamicFilter)
+            DynamicFilter dynamicFilter,
+            DynamicRowFilter dynamicRowFilter)
     {
         this.splitToPages = new SplitToPages(
                 session,
@@ -68,6 +69,7 @@ public class TableScanWorkProcessorOperator
                 table,
                 columns,
                 dynamicFilter,
+                dynamicRowFilter,
                 memoryTrackingContext.aggregateSystemMemoryContext());
         this.pages = splits.flatTransform(splitToPages);
     }
@@ -134,6 +136,7 @@ public class TableScanWorkProcessorOperator
         final TableHandle table;
         final List<ColumnHandle> columns;
         final DynamicFilter dynamicFilter;
+        final DynamicRowFilter dynamicRowFilter;
         final AggregatedMemoryContext aggregatedMemoryContext;
 
         long processedBytes;
@@ -149,6 +152,7 @@ public class TableScanWorkProcessorOperator
                 TableHandle table,
                 Iterable<ColumnHandle> columns,
                 DynamicFilter dynamicFilter,
+                DynamicRowFilter dynamicRowFilter,
                 AggregatedMemoryContext aggregatedMemoryContext)
         {
             this.session = requireNonNull(session, "session is null");
@@ -156,6 +160,7 @@ public class TableScanWorkProcessorOperator
             this.table = requireNonNull(table, "table is null");
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+            this.dynamicRowFilter = requireNonNull(dynamicRowFilter, "dynamicRowFilter is null");
             this.aggregatedMemoryContext = requireNonNull(aggregatedMemoryContext, "aggregatedMemoryContext is null");
         }
 
@@ -182,7 +187,7 @@ public class TableScanWorkProcessorOperator
                             .map(page -> {
                                 processedPositions += page.getPositionCount();
                                 recordMaterializedBytes(page, sizeInBytes -> processedBytes += sizeInBytes);
-                                return page;
+                                return dynamicRowFilter.filter(page);
                             }));
         }
 
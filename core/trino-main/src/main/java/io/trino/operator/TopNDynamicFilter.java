@@ -0,0 +1,191 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import com.google.common.collect.ImmutableMap;
+import io.trino.operator.DynamicRowFilter.ValueFilter;
+import io.trino.spi.TrinoException;
+import io.trino.spi.block.Block;
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.connector.DynamicFilter;
+import io.trino.spi.connector.SortOrder;
+import io.trino.spi.predicate.Domain;
+import io.trino.spi.predicate.Range;
+import io.trino.spi.predicate.TupleDomain;
+import io.trino.spi.predicate.ValueSet;
+import io.trino.spi.type.Type;
+import io.trino.spi.type.TypeOperators;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static io.trino.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static io.trino.spi.function.InvocationConvention.InvocationArgumentConvention.BLOCK_POSITION;
+import static io.trino.spi.function.InvocationConvention.InvocationReturnConvention.FAIL_ON_NULL;
+import static io.trino.spi.function.InvocationConvention.simpleConvention;
+import static io.trino.spi.type.DoubleType.DOUBLE;
+import static io.trino.spi.type.RealType.REAL;
+import static io.trino.spi.type.TypeUtils.readNativeValue;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Dynamic filter on the leading sort key of a TopN operator, which is applied to the table scan below the operator.
+ * Once the operator holds N rows, a row which sorts after the last of these rows in the leading sort key
+ * can not be part of the result anymore. This boundary tightens while the operator processes more rows.
+ * <p>
+ * The filter is shared by all drivers of the operator in a task. It keeps the tightest boundary of all drivers,
+ * as each driver holds N rows which sort before any row after its own boundary.
+ */
+@ThreadSafe
+public class TopNDynamicFilter
+{
+    private final ColumnHandle column;
+    private final Type type;
+    private final SortOrder sortOrder;
+    private final MethodHandle orderingOperator;
+
+    @Nullable
+    private volatile Block boundary;
+    private volatile TupleDomain<ColumnHandle> currentPredicate = TupleDomain.all();
+
+    public TopNDynamicFilter(ColumnHandle column, Type type, SortOrder sortOrder, TypeOperators typeOperators)
+    {
+        this.column = requireNonNull(column, "column is null");
+        this.type = requireNonNull(type, "type is null");
+        this.sortOrder = requireNonNull(sortOrder, "sortOrder is null");
+        this.orderingOperator = typeOperators.getOrderingOperator(type, sortOrder, simpleConvention(FAIL_ON_NULL, BLOCK_POSITION, BLOCK_POSITION));
+    }
+
+    public ColumnHandle getColumn()
+    {
+        return column;
+    }
+
+    public static boolean isSupportedType(Type type)
+    {
+        return type.isOrderable();
+    }
+
+    /**
+     * Offers the last row of N rows held by a TopN operator as the new boundary of the filter.
+     * The boundary is only updated, if the value sorts before the current boundary.
+     */
+    public void updateBoundary(Block block, int position)
+    {
+        Block currentBoundary = boundary;
+        if (currentBoundary != null && compare(block, position, currentBoundary, 0) >= 0) {
+            return;
+        }
+        synchronized (this) {
+            if (boundary != null && compare(block, position, boundary, 0) >= 0) {
+                return;
+            }
+            Block newBoundary = block.getSingleValueBlock(position);
+            currentPredicate = createPredicate(newBoundary);
+            boundary = newBoundary;
+        }
+    }
+
+    /**
+     * Returns the filter for the rows of the table scan, or empty if the TopN operator does not hold N rows yet.
+     */
+    public Optional<ValueFilter> getValueFilter()
+    {
+        Block currentBoundary = boundary;
+        if (currentBoundary == null) {
+            return Optional.empty();
+        }
+        // rows which sort equal to the boundary might still sort before it in the remaining sort keys
+        return Optional.of((block, position) -> compare(block, position, currentBoundary, 0) <= 0);
+    }
+
+    /**
+     * Returns the dynamic filter for the connector, which is the intersection of the given dynamic filter
+     * with the range of values up to the current boundary.
+     */
+    public DynamicFilter intersect(DynamicFilter dynamicFilter)
+    {
+        requireNonNull(dynamicFilter, "dynamicFilter is null");
+        return new DynamicFilter()
+        {
+            @Override
+            public CompletableFuture<?> isBlocked()
+            {
+                return dynamicFilter.isBlocked();
+            }
+
+            @Override
+            public boolean isComplete()
+            {
+                // the boundary can be updated until the TopN operator is finished
+                return false;
+            }
+
+            @Override
+            public boolean isAwaitable()
+            {
+                return dynamicFilter.isAwaitable();
+            }
+
+            @Override
+            public TupleDomain<ColumnHandle> getCurrentPredicate()
+            {
+                return dynamicFilter.getCurrentPredicate().intersect(currentPredicate);
+            }
+        };
+    }
+
+    private TupleDomain<ColumnHandle> createPredicate(Block boundary)
+    {
+        if (boundary.isNull(0)) {
+            // all values sort before a null boundary, if nulls are last
+            return sortOrder.isNullsFirst() ? TupleDomain.withColumnDomains(ImmutableMap.of(column, Domain.onlyNull(type))) : TupleDomain.all();
+        }
+        if (type.equals(DOUBLE) || type.equals(REAL)) {
+            // NaN sorts as the largest value, but it is not contained in any range of the predicate
+            return TupleDomain.all();
+        }
+        Object value = readNativeValue(type, boundary, 0);
+        Range range = sortOrder.isAscending() ? Range.lessThanOrEqual(type, value) : Range.greaterThanOrEqual(type, value);
+        return TupleDomain.withColumnDomains(ImmutableMap.of(column, Domain.create(ValueSet.ofRanges(range), sortOrder.isNullsFirst())));
+    }
+
+    private int compare(Block left, int leftPosition, Block right, int rightPosition)
+    {
+        try {
+            return (int) orderingOperator.invokeExact(left, leftPosition, right, rightPosition);
+        }
+        catch (Throwable throwable) {
+            throwIfUnchecked(throwable);
+            throw new TrinoException(GENERIC_INTERNAL_ERROR, throwable);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("column", column)
+                .add("type", type)
+                .add("sortOrder", sortOrder)
+                .add("currentPredicate", currentPredicate)
+                .toString();
+    }
+}
@@ -46,7 +46,20 @@ public class TopNOperator
             List<SortOrder> sortOrders,
             TypeOperators typeOperators)
     {
-        return createAdapterOperatorFactory(new Factory(operatorId, planNodeId, types, n, sortChannels, sortOrders, typeOperators));
+        return createOperatorFactory(operatorId, planNodeId, types, n, sortChannels, sortOrders, typeOperators, Optional.empty());
+    }
+
+    public static OperatorFactory createOperatorFactory(
+            int operatorId,
+            PlanNodeId planNodeId,
+            List<? extends Type> types,
+            int n,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrders,
+            TypeOperators typeOperators,
+            Optional<TopNDynamicFilter> dynamicFilter)
+    {
+        return createAdapterOperatorFactory(new Factory(operatorId, planNodeId, types, n, sortChannels, sortOrders, typeOperators, dynamicFilter));
     }
 
     private static class Factory
@@ -59,6 +72,7 @@ public class TopNOperator
         private final List<Integer> sortChannels;
         private final List<SortOrder> sortOrders;
         private final TypeOperators typeOperators;
+        private final Optional<TopNDynamicFilter> dynamicFilter;
         private boolean closed;
 
         private Factory(
@@ -68,7 +82,8 @@ public class TopNOperator
                 int n,
                 List<Integer> sortChannels,
                 List<SortOrder> sortOrders,
-                TypeOperators typeOperators)
+                TypeOperators typeOperators,
+                Optional<TopNDynamicFilter> dynamicFilter)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -77,6 +92,7 @@ public class TopNOperator
             this.sortChannels = ImmutableList.copyOf(requireNonNull(sortChannels, "sortChannels is null"));
             this.sortOrders = ImmutableList.copyOf(requireNonNull(sortOrders, "sortOrders is null"));
             this.typeOperators = typeOperators;
+            this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
         }
 
         @Override
@@ -92,7 +108,8 @@ public class TopNOperator
                     n,
                     sortChannels,
                     sortOrders,
-                    typeOperators);
+                    typeOperators,
+                    dynamicFilter);
         }
 
         @Override
@@ -106,7 +123,8 @@ public class TopNOperator
                     n,
                     sortChannels,
                     sortOrders,
-                    typeOperators);
+                    typeOperators,
+                    dynamicFilter);
         }
 
         @Override
@@ -136,7 +154,7 @@ public class TopNOperator
         @Override
         public Factory duplicate()
         {
-            return new Factory(operatorId, planNodeId, sourceTypes, n, sortChannels, sortOrders, typeOperators);
+            return new Factory(operatorId, planNodeId, sourceTypes, n, sortChannels, sortOrders, typeOperators, dynamicFilter);
         }
     }
 
@@ -151,7 +169,8 @@ public class TopNOperator
             int n,
             List<Integer> sortChannels,
             List<SortOrder> sortOrders,
-            TypeOperators typeOperators)
+            TypeOperators typeOperators,
+            Optional<TopNDynamicFilter> dynamicFilter)
     {
         this.topNProcessor = new TopNProcessor(
                 requireNonNull(memoryTrackingContext, "memoryTrackingContext is null").aggregateUserMemoryContext(),
@@ -159,7 +178,8 @@ public class TopNOperator
                 n,
                 sortChannels,
                 sortOrders,
-                typeOperators);
+                typeOperators,
+                dynamicFilter);
 
         if (n == 0) {
             pages = WorkProcessor.of();
@@ -24,6 +24,7 @@ import javax.annotation.Nullable;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
@@ -36,9 +37,11 @@ import static java.util.Objects.requireNonNull;
 public class TopNProcessor
 {
     private final LocalMemoryContext localUserMemoryContext;
+    private final Optional<TopNDynamicFilter> dynamicFilter;
+    private final int dynamicFilterChannel;
 
     @Nullable
-    private GroupedTopNBuilder topNBuilder;
+    private GroupedTopNRowNumberBuilder topNBuilder;
     private Iterator<Page> outputIterator;
 
     public TopNProcessor(
@@ -46,11 +49,17 @@ public class TopNProcessor
             List<Type> types,
             int n,
             List<Integer> sortChannels,
-            List<SortOrder> sortOrders, TypeOperators typeOperators)
+            List<SortOrder> sortOrders,
+            TypeOperators typeOperators,
+            Optional<TopNDynamicFilter> dynamicFilter)
     {
         requireNonNull(aggregatedMemoryContext, "aggregatedMemoryContext is null");
         this.localUserMemoryContext = aggregatedMemoryContext.newLocalMemoryContext(TopNProcessor.class.getSimpleName());
         checkArgument(n >= 0, "n must be positive");
+        this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+        checkArgument(dynamicFilter.isEmpty() || !sortChannels.isEmpty(), "dynamic filter requires a sort channel");
+        // the dynamic filter is on the leading sort key
+        this.dynamicFilterChannel = sortChannels.isEmpty() ? -1 : sortChannels.get(0);
 
         if (n == 0) {
             outputIterator = emptyIterator();
@@ -71,6 +80,7 @@ public class TopNProcessor
         boolean done = topNBuilder.processPage(requireNonNull(page, "page is null")).process();
         // there is no grouping so work will always be done
         verify(done);
+        dynamicFilter.ifPresent(filter -> topNBuilder.updateDynamicFilter(0, dynamicFilterChannel, filter));
         updateMemoryReservation();
     }
 
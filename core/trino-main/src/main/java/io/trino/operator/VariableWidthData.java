@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Append-only heap for the variable width part of values stored in flat
+ * (row-oriented) memory. A value is referenced from the fixed width part of
+ * a row by a {@link #POINTER_SIZE} byte pointer holding the value length, the
+ * chunk index and the offset within the chunk.
+ */
+public final class VariableWidthData
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(VariableWidthData.class).instanceSize();
+
+    public static final int POINTER_SIZE = Integer.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private static final int MIN_CHUNK_SIZE = 1024;
+    private static final int MAX_CHUNK_SIZE = 1024 * 1024;
+
+    private static final VarHandle INT_HANDLE = MethodHandles.byteArrayViewVarHandle(int[].class, LITTLE_ENDIAN);
+
+    private final ObjectArrayList<byte[]> chunks = new ObjectArrayList<>();
+    private byte[] openChunk = new byte[0];
+    private int openChunkOffset;
+
+    private long chunksRetainedSizeInBytes;
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE +
+                sizeOf(chunks.elements()) +
+                chunksRetainedSizeInBytes;
+    }
+
+    /**
+     * Copies the value into this heap, and writes the pointer to the value at the specified offset of the fixed width part.
+     */
+    public void write(byte[] fixed, int fixedOffset, Slice value)
+    {
+        int length = value.length();
+        if (openChunk.length - openChunkOffset < length) {
+            // grow the chunk size geometrically, but never allocate less than the value needs
+            int chunkSize = max(min(openChunk.length * 2, MAX_CHUNK_SIZE), MIN_CHUNK_SIZE);
+            openChunk = new byte[max(chunkSize, length)];
+            openChunkOffset = 0;
+            chunks.add(openChunk);
+            chunksRetainedSizeInBytes += sizeOf(openChunk);
+        }
+
+        int chunkIndex = chunks.size() - 1;
+        value.getBytes(0, openChunk, openChunkOffset, length);
+
+        INT_HANDLE.set(fixed, fixedOffset, length);
+        INT_HANDLE.set(fixed, fixedOffset + Integer.BYTES, chunkIndex);
+        INT_HANDLE.set(fixed, fixedOffset + Integer.BYTES + Integer.BYTES, openChunkOffset);
+        openChunkOffset += length;
+    }
+
+    /**
+     * Returns the value referenced by the pointer at the specified offset of the fixed width part.
+     * The returned slice is a view over the internal chunk and must not be modified.
+     */
+    public Slice read(byte[] fixed, int fixedOffset)
+    {
+        int length = (int) INT_HANDLE.get(fixed, fixedOffset);
+        if (length == 0) {
+            return Slices.EMPTY_SLICE;
+        }
+        int chunkIndex = (int) INT_HANDLE.get(fixed, fixedOffset + Integer.BYTES);
+        int chunkOffset = (int) INT_HANDLE.get(fixed, fixedOffset + Integer.BYTES + Integer.BYTES);
+        return Slices.wrappedBuffer(chunks.get(chunkIndex), chunkOffset, length);
+    }
+}
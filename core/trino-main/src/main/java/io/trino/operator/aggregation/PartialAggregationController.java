@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator.aggregation;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Decides whether partial aggregation should be skipped, based on the reduction
+ * of rows observed by all partial aggregation operators sharing this controller.
+ * Once enough input rows were processed and the ratio of produced groups to input
+ * rows is above the threshold, partial aggregation is disabled for good and the
+ * operators pass input rows directly to the final aggregation.
+ */
+@ThreadSafe
+public class PartialAggregationController
+{
+    private final long minNumberOfRowsProcessed;
+    private final double uniqueRowsRatioThreshold;
+
+    private volatile boolean partialAggregationDisabled;
+    @GuardedBy("this")
+    private long totalRowsProcessed;
+    @GuardedBy("this")
+    private long totalUniqueRowsProduced;
+
+    public PartialAggregationController(long minNumberOfRowsProcessed, double uniqueRowsRatioThreshold)
+    {
+        checkArgument(minNumberOfRowsProcessed >= 0, "minNumberOfRowsProcessed is negative");
+        checkArgument(uniqueRowsRatioThreshold >= 0 && uniqueRowsRatioThreshold <= 1, "uniqueRowsRatioThreshold must be between 0 and 1");
+        this.minNumberOfRowsProcessed = minNumberOfRowsProcessed;
+        this.uniqueRowsRatioThreshold = uniqueRowsRatioThreshold;
+    }
+
+    public boolean isPartialAggregationDisabled()
+    {
+        return partialAggregationDisabled;
+    }
+
+    public synchronized void onFlush(long rowsProcessed, long uniqueRowsProduced)
+    {
+        if (partialAggregationDisabled) {
+            return;
+        }
+
+        totalRowsProcessed += rowsProcessed;
+        totalUniqueRowsProduced += uniqueRowsProduced;
+        if (shouldDisablePartialAggregation()) {
+            partialAggregationDisabled = true;
+        }
+    }
+
+    @GuardedBy("this")
+    private boolean shouldDisablePartialAggregation()
+    {
+        return totalRowsProcessed > 0
+                && totalRowsProcessed >= minNumberOfRowsProcessed
+                && ((double) totalUniqueRowsProduced / totalRowsProcessed) > uniqueRowsRatioThreshold;
+    }
+
+    public PartialAggregationController duplicate()
+    {
+        return new PartialAggregationController(minNumberOfRowsProcessed, uniqueRowsRatioThreshold);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator.aggregation.builder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.trino.memory.context.LocalMemoryContext;
+import io.trino.operator.CompletedWork;
+import io.trino.operator.GroupByIdBlock;
+import io.trino.operator.HashCollisionsCounter;
+import io.trino.operator.Work;
+import io.trino.operator.WorkProcessor;
+import io.trino.operator.aggregation.AccumulatorFactory;
+import io.trino.operator.aggregation.GroupedAccumulator;
+import io.trino.spi.Page;
+import io.trino.spi.block.Block;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.block.LongArrayBlock;
+
+import javax.annotation.Nullable;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link HashAggregationBuilder} that does not aggregate at all. Every input row
+ * is treated as a separate group and is immediately converted to the intermediate
+ * aggregation output, leaving all of the aggregation work to the final step.
+ * Used when partial aggregation does not reduce the number of rows.
+ */
+public class SkipAggregationBuilder
+        implements HashAggregationBuilder
+{
+    private final LocalMemoryContext memoryContext;
+    private final List<AccumulatorFactory> accumulatorFactories;
+    private final int[] outputChannels;
+
+    @Nullable
+    private Page currentPage;
+
+    public SkipAggregationBuilder(
+            List<Integer> groupByChannels,
+            Optional<Integer> hashChannel,
+            List<AccumulatorFactory> accumulatorFactories,
+            LocalMemoryContext memoryContext)
+    {
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+        this.accumulatorFactories = ImmutableList.copyOf(requireNonNull(accumulatorFactories, "accumulatorFactories is null"));
+        requireNonNull(groupByChannels, "groupByChannels is null");
+        requireNonNull(hashChannel, "hashChannel is null");
+
+        this.outputChannels = new int[groupByChannels.size() + (hashChannel.isPresent() ? 1 : 0)];
+        for (int i = 0; i < groupByChannels.size(); i++) {
+            outputChannels[i] = groupByChannels.get(i);
+        }
+        hashChannel.ifPresent(channel -> outputChannels[groupByChannels.size()] = channel);
+    }
+
+    @Override
+    public Work<?> processPage(Page page)
+    {
+        checkArgument(currentPage == null, "currentPage must be null");
+        currentPage = buildOutputPage(page);
+        return new CompletedWork<>(currentPage);
+    }
+
+    @Override
+    public WorkProcessor<Page> buildResult()
+    {
+        if (currentPage == null) {
+            return WorkProcessor.of();
+        }
+
+        Page result = currentPage;
+        currentPage = null;
+        return WorkProcessor.of(result);
+    }
+
+    @Override
+    public boolean isFull()
+    {
+        return currentPage != null;
+    }
+
+    @Override
+    public void updateMemory()
+    {
+        if (currentPage != null) {
+            memoryContext.setBytes(currentPage.getSizeInBytes());
+        }
+    }
+
+    @Override
+    public void recordHashCollisions(HashCollisionsCounter hashCollisionsCounter)
+    {
+        // no hash table is built
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        throw new UnsupportedOperationException("startMemoryRevoke not supported for SkipAggregationBuilder");
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        throw new UnsupportedOperationException("finishMemoryRevoke not supported for SkipAggregationBuilder");
+    }
+
+    private Page buildOutputPage(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        Block[] outputBlocks = new Block[outputChannels.length + accumulatorFactories.size()];
+        for (int i = 0; i < outputChannels.length; i++) {
+            outputBlocks[i] = page.getBlock(outputChannels[i]);
+        }
+
+        // each input position is a separate group
+        GroupByIdBlock groupIds = new GroupByIdBlock(positionCount, consecutiveGroupIds(positionCount));
+        for (int i = 0; i < accumulatorFactories.size(); i++) {
+            GroupedAccumulator accumulator = accumulatorFactories.get(i).createGroupedAccumulator();
+            accumulator.addInput(groupIds, page);
+
+            BlockBuilder output = accumulator.getIntermediateType().createBlockBuilder(null, positionCount);
+            for (int position = 0; position < positionCount; position++) {
+                accumulator.evaluateIntermediate(position, output);
+            }
+            outputBlocks[outputChannels.length + i] = output.build();
+        }
+        return new Page(positionCount, outputBlocks);
+    }
+
+    private static Block consecutiveGroupIds(int positionCount)
+    {
+        long[] groupIds = new long[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            groupIds[i] = i;
+        }
+        return new LongArrayBlock(positionCount, Optional.empty(), groupIds);
+    }
+}
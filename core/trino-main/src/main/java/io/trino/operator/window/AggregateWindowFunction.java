@@ -33,11 +33,16 @@ import static java.util.Objects.requireNonNull;
 public class AggregateWindowFunction
         implements WindowFunction
 {
+    // frames of fewer rows are cheaper to aggregate directly than with the segment tree
+    private static final int MIN_SEGMENT_TREE_FRAME_SIZE = 4 * AggregationSegmentTree.FANOUT;
+
     private final List<Integer> argumentChannels;
     private final AccumulatorFactory accumulatorFactory;
     private final boolean accumulatorHasRemoveInput;
 
     private WindowIndex windowIndex;
+    // built for the partition, once a frame cannot be computed incrementally
+    private AggregationSegmentTree segmentTree;
     private Accumulator accumulator;
     private int currentStart;
     private int currentEnd;
@@ -65,6 +70,7 @@ public class AggregateWindowFunction
     public void reset(WindowIndex windowIndex)
     {
         this.windowIndex = windowIndex;
+        this.segmentTree = null;
         resetAccumulator();
     }
 
@@ -119,6 +125,18 @@ public class AggregateWindowFunction
                 return;
             }
         }
+        else if (frameEnd - frameStart + 1 >= MIN_SEGMENT_TREE_FRAME_SIZE) {
+            // The accumulation cannot be modified, so aggregate the frame from the intermediate states of the segment tree,
+            // which combines O(log n) states instead of adding all rows of the frame.
+            if (segmentTree == null) {
+                segmentTree = new AggregationSegmentTree(accumulatorFactory, windowIndex, argumentChannels);
+            }
+            accumulator = accumulatorFactory.createAccumulator();
+            segmentTree.aggregate(accumulator, frameStart, frameEnd);
+            currentStart = frameStart;
+            currentEnd = frameEnd;
+            return;
+        }
 
         // We couldn't or didn't want to modify the accumulation: instead, discard the current accumulation and start fresh.
         resetAccumulator();
@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator.window;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.operator.aggregation.Accumulator;
+import io.trino.operator.aggregation.AccumulatorFactory;
+import io.trino.spi.block.Block;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.function.WindowIndex;
+import io.trino.spi.type.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Segment tree of intermediate aggregation states over the rows of a window partition.
+ * Each node of the first level holds the state of {@code FANOUT} consecutive rows, and each
+ * node of the higher levels holds the combined state of {@code FANOUT} consecutive nodes of
+ * the level below. A frame is aggregated from the rows at its ends and the largest nodes
+ * contained in it, so that at most {@code 2 * FANOUT} inputs are added per level.
+ * <p>
+ * Rows and states are added to the accumulator in the order of the rows, so aggregations
+ * which depend on the order of the input, like {@code array_agg}, are supported.
+ */
+final class AggregationSegmentTree
+{
+    static final int FANOUT = 16;
+
+    private final WindowIndex windowIndex;
+    private final List<Integer> argumentChannels;
+    // states of the nodes of level i + 1
+    private final List<Block> levels;
+
+    // ranges of the right end of a frame at each level, which are added after the larger nodes
+    private final int[] suffixStarts;
+    private final int[] suffixEnds;
+
+    public AggregationSegmentTree(AccumulatorFactory accumulatorFactory, WindowIndex windowIndex, List<Integer> argumentChannels)
+    {
+        requireNonNull(accumulatorFactory, "accumulatorFactory is null");
+        this.windowIndex = requireNonNull(windowIndex, "windowIndex is null");
+        this.argumentChannels = ImmutableList.copyOf(requireNonNull(argumentChannels, "argumentChannels is null"));
+
+        Type intermediateType = accumulatorFactory.createAccumulator().getIntermediateType();
+        List<Block> levels = new ArrayList<>();
+        int count = windowIndex.size();
+        while (count > FANOUT) {
+            int parentCount = (count + FANOUT - 1) / FANOUT;
+            BlockBuilder states = intermediateType.createBlockBuilder(null, parentCount);
+            for (int parent = 0; parent < parentCount; parent++) {
+                Accumulator accumulator = accumulatorFactory.createAccumulator();
+                add(accumulator, levels, levels.size(), parent * FANOUT, min((parent + 1) * FANOUT, count));
+                accumulator.evaluateIntermediate(states);
+            }
+            levels.add(states.build());
+            count = parentCount;
+        }
+        this.levels = ImmutableList.copyOf(levels);
+        this.suffixStarts = new int[levels.size()];
+        this.suffixEnds = new int[levels.size()];
+    }
+
+    /**
+     * Adds the rows from start to end, inclusive on both ends, to the accumulator.
+     */
+    public void aggregate(Accumulator accumulator, int start, int end)
+    {
+        checkPositionIndexes(start, end + 1, windowIndex.size());
+        int level = 0;
+        int levelStart = start;
+        int levelEnd = end + 1;
+        while (level < levels.size()) {
+            // nodes of the next level, which are contained in the range
+            int parentStart = (levelStart + FANOUT - 1) / FANOUT;
+            int parentEnd = levelEnd / FANOUT;
+            if (parentStart >= parentEnd) {
+                break;
+            }
+            add(accumulator, levels, level, levelStart, parentStart * FANOUT);
+            suffixStarts[level] = parentEnd * FANOUT;
+            suffixEnds[level] = levelEnd;
+            levelStart = parentStart;
+            levelEnd = parentEnd;
+            level++;
+        }
+        add(accumulator, levels, level, levelStart, levelEnd);
+        for (level--; level >= 0; level--) {
+            add(accumulator, levels, level, suffixStarts[level], suffixEnds[level]);
+        }
+    }
+
+    private void add(Accumulator accumulator, List<Block> levels, int level, int start, int end)
+    {
+        if (start >= end) {
+            return;
+        }
+        if (level == 0) {
+            accumulator.addInput(windowIndex, argumentChannels, start, end - 1);
+        }
+        else {
+            accumulator.addIntermediate(levels.get(level - 1).getRegion(start, end - start));
+        }
+    }
+}
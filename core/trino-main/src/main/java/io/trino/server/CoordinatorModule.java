@@ -55,9 +55,11 @@ import io.trino.execution.RemoteTaskFactory;
 import io.trino.execution.SqlQueryManager;
 import io.trino.execution.TaskInfo;
 import io.trino.execution.TaskManagerConfig;
+import io.trino.execution.plancache.PlanCache;
 import io.trino.execution.resourcegroups.InternalResourceGroupManager;
 import io.trino.execution.resourcegroups.LegacyResourceGroupConfigurationManager;
 import io.trino.execution.resourcegroups.ResourceGroupManager;
+import io.trino.execution.resultcache.QueryResultCache;
 import io.trino.execution.scheduler.AllAtOnceExecutionPolicy;
 import io.trino.execution.scheduler.ExecutionPolicy;
 import io.trino.execution.scheduler.PhasedExecutionPolicy;
@@ -250,6 +252,11 @@ public class CoordinatorModule
         binder.bind(SplitSchedulerStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(SplitSchedulerStats.class).withGeneratedName();
 
+        binder.bind(QueryResultCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(QueryResultCache.class).withGeneratedName();
+        binder.bind(PlanCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(PlanCache.class).withGeneratedName();
+
         MapBinder<String, ExecutionPolicy> executionPolicyBinder = newMapBinder(binder, String.class, ExecutionPolicy.class);
         executionPolicyBinder.addBinding("all-at-once").to(AllAtOnceExecutionPolicy.class);
         executionPolicyBinder.addBinding("phased").to(PhasedExecutionPolicy.class);
@@ -13,6 +13,9 @@
  */
 package io.trino.server;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ConcurrentHashMultiset;
 import com.google.common.collect.Multimap;
 import io.airlift.concurrent.BoundedExecutor;
 import io.airlift.concurrent.ThreadPoolExecutorMBean;
@@ -36,6 +39,7 @@ import io.trino.metadata.Split;
 import io.trino.operator.ForScheduler;
 import io.trino.server.remotetask.HttpRemoteTask;
 import io.trino.server.remotetask.RemoteTaskStats;
+import io.trino.spi.QueryId;
 import io.trino.sql.planner.PlanFragment;
 import io.trino.sql.planner.plan.PlanNodeId;
 import org.weakref.jmx.Managed;
@@ -44,16 +48,20 @@ import org.weakref.jmx.Nested;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
+import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class HttpRemoteTaskFactory
         implements RemoteTaskFactory
@@ -61,12 +69,18 @@ public class HttpRemoteTaskFactory
     private final HttpClient httpClient;
     private final LocationFactory locationFactory;
     private final JsonCodec<TaskStatus> taskStatusCodec;
+    private final Optional<SmileCodec<TaskStatus>> taskStatusSmileCodec;
     private final JsonCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec;
     private final JsonCodec<TaskInfo> taskInfoCodec;
+    private final Optional<SmileCodec<TaskInfo>> taskInfoSmileCodec;
     private final JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec;
+    private final Optional<SmileCodec<TaskUpdateRequest>> taskUpdateRequestSmileCodec;
     private final Duration maxErrorDuration;
     private final Duration taskStatusRefreshMaxWait;
     private final Duration taskInfoUpdateInterval;
+    private final Duration taskInfoUpdateIntervalPerTask;
+    // the running tasks of every query, which lengthen the task info update interval of the query
+    private final ConcurrentHashMultiset<QueryId> runningTasks = ConcurrentHashMultiset.create();
     private final ExecutorService coreExecutor;
     private final Executor executor;
     private final ThreadPoolExecutorMBean executorMBean;
@@ -85,6 +99,7 @@ public class HttpRemoteTaskFactory
             JsonCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec,
             JsonCodec<TaskInfo> taskInfoCodec,
             JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec,
+            ObjectMapper objectMapper,
             RemoteTaskStats stats,
             DynamicFilterService dynamicFilterService)
     {
@@ -94,9 +109,20 @@ public class HttpRemoteTaskFactory
         this.dynamicFilterDomainsCodec = dynamicFilterDomainsCodec;
         this.taskInfoCodec = taskInfoCodec;
         this.taskUpdateRequestCodec = taskUpdateRequestCodec;
+        if (config.isRemoteTaskSmileEncodingEnabled()) {
+            this.taskStatusSmileCodec = Optional.of(new SmileCodec<>(objectMapper, TaskStatus.class));
+            this.taskInfoSmileCodec = Optional.of(new SmileCodec<>(objectMapper, TaskInfo.class));
+            this.taskUpdateRequestSmileCodec = Optional.of(new SmileCodec<>(objectMapper, TaskUpdateRequest.class));
+        }
+        else {
+            this.taskStatusSmileCodec = Optional.empty();
+            this.taskInfoSmileCodec = Optional.empty();
+            this.taskUpdateRequestSmileCodec = Optional.empty();
+        }
         this.maxErrorDuration = config.getRemoteTaskMaxErrorDuration();
         this.taskStatusRefreshMaxWait = taskConfig.getStatusRefreshMaxWait();
         this.taskInfoUpdateInterval = taskConfig.getInfoUpdateInterval();
+        this.taskInfoUpdateIntervalPerTask = taskConfig.getInfoUpdateIntervalPerTask();
         this.coreExecutor = newCachedThreadPool(daemonThreadsNamed("remote-task-callback-%s"));
         this.executor = new BoundedExecutor(coreExecutor, config.getRemoteTaskMaxCallbackThreads());
         this.executorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) coreExecutor);
@@ -134,7 +160,14 @@ public class HttpRemoteTaskFactory
             PartitionedSplitCountTracker partitionedSplitCountTracker,
             boolean summarizeTaskInfo)
     {
-        return new HttpRemoteTask(session,
+        QueryId queryId = taskId.getQueryId();
+        boolean adaptiveTaskInfoUpdateInterval = taskInfoUpdateIntervalPerTask.toMillis() > 0;
+        Supplier<Duration> infoUpdateInterval = () -> taskInfoUpdateInterval;
+        if (adaptiveTaskInfoUpdateInterval) {
+            infoUpdateInterval = () -> getTaskInfoUpdateInterval(queryId);
+        }
+
+        HttpRemoteTask task = new HttpRemoteTask(session,
                 taskId,
                 node.getNodeIdentifier(),
                 locationFactory.createTaskLocation(node, taskId),
@@ -148,14 +181,38 @@ public class HttpRemoteTaskFactory
                 errorScheduledExecutor,
                 maxErrorDuration,
                 taskStatusRefreshMaxWait,
-                taskInfoUpdateInterval,
+                infoUpdateInterval,
                 summarizeTaskInfo,
                 taskStatusCodec,
+                taskStatusSmileCodec,
                 dynamicFilterDomainsCodec,
                 taskInfoCodec,
+                taskInfoSmileCodec,
                 taskUpdateRequestCodec,
+                taskUpdateRequestSmileCodec,
                 partitionedSplitCountTracker,
                 stats,
                 dynamicFilterService);
+
+        if (adaptiveTaskInfoUpdateInterval) {
+            runningTasks.add(queryId);
+            AtomicBoolean done = new AtomicBoolean();
+            task.addStateChangeListener(taskStatus -> {
+                if (taskStatus.getState().isDone() && done.compareAndSet(false, true)) {
+                    runningTasks.remove(queryId);
+                }
+            });
+        }
+        return task;
+    }
+
+    @VisibleForTesting
+    Duration getTaskInfoUpdateInterval(QueryId queryId)
+    {
+        long intervalMillis = taskInfoUpdateIntervalPerTask.toMillis() * runningTasks.count(queryId);
+        if (intervalMillis <= taskInfoUpdateInterval.toMillis()) {
+            return taskInfoUpdateInterval;
+        }
+        return new Duration(intervalMillis, MILLISECONDS);
     }
 }
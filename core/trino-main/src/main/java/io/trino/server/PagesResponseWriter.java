@@ -16,6 +16,7 @@ package io.trino.server;
 import com.google.common.reflect.TypeToken;
 import io.airlift.slice.OutputStreamSliceOutput;
 import io.airlift.slice.SliceOutput;
+import io.trino.execution.buffer.BufferResult;
 import io.trino.execution.buffer.SerializedPage;
 import io.trino.sql.analyzer.FeaturesConfig;
 import io.trino.sql.analyzer.FeaturesConfig.DataIntegrityVerification;
@@ -96,10 +97,7 @@ public class PagesResponseWriter
     {
         try {
             SliceOutput sliceOutput = new OutputStreamSliceOutput(output);
-            sliceOutput.writeInt(SERIALIZED_PAGES_MAGIC);
-            sliceOutput.writeLong(dataIntegrityVerificationEnabled ? calculateChecksum(serializedPages) : NO_CHECKSUM);
-            sliceOutput.writeInt(serializedPages.size());
-            writeSerializedPages(sliceOutput, serializedPages);
+            writePages(sliceOutput, serializedPages, dataIntegrityVerificationEnabled);
             // We use flush instead of close, because the underlying stream would be closed and that is not allowed.
             sliceOutput.flush();
         }
@@ -111,4 +109,24 @@ public class PagesResponseWriter
             }
         }
     }
+
+    /**
+     * Writes a frame of a stream of pages, which holds the tokens, the completion flag
+     * and the pages of a buffer result, in the same format as a response of pages.
+     */
+    public static void writePagesFrame(SliceOutput output, BufferResult result, boolean dataIntegrityVerificationEnabled)
+    {
+        output.writeLong(result.getToken());
+        output.writeLong(result.getNextToken());
+        output.writeBoolean(result.isBufferComplete());
+        writePages(output, result.getSerializedPages(), dataIntegrityVerificationEnabled);
+    }
+
+    private static void writePages(SliceOutput output, List<SerializedPage> serializedPages, boolean dataIntegrityVerificationEnabled)
+    {
+        output.writeInt(SERIALIZED_PAGES_MAGIC);
+        output.writeLong(dataIntegrityVerificationEnabled ? calculateChecksum(serializedPages) : NO_CHECKSUM);
+        output.writeInt(serializedPages.size());
+        writeSerializedPages(output, serializedPages);
+    }
 }
@@ -36,6 +36,7 @@ import io.trino.client.NodeVersion;
 import io.trino.client.ServerInfo;
 import io.trino.connector.ConnectorManager;
 import io.trino.connector.system.SystemConnectorModule;
+import io.trino.cost.history.HistoryBasedEstimates;
 import io.trino.dispatcher.DispatchManager;
 import io.trino.event.SplitMonitor;
 import io.trino.execution.DynamicFilterConfig;
@@ -55,6 +56,7 @@ import io.trino.execution.TaskManagerConfig;
 import io.trino.execution.TaskStatus;
 import io.trino.execution.executor.MultilevelSplitQueue;
 import io.trino.execution.executor.TaskExecutor;
+import io.trino.execution.fragmentcache.FragmentCache;
 import io.trino.execution.scheduler.NodeScheduler;
 import io.trino.execution.scheduler.NodeSchedulerConfig;
 import io.trino.execution.scheduler.TopologyAwareNodeSelectorModule;
@@ -111,6 +113,7 @@ import io.trino.spiller.PartitioningSpillerFactory;
 import io.trino.spiller.SingleStreamSpillerFactory;
 import io.trino.spiller.SpillerFactory;
 import io.trino.spiller.SpillerStats;
+import io.trino.spiller.SpillerStatsExporter;
 import io.trino.split.PageSinkManager;
 import io.trino.split.PageSinkProvider;
 import io.trino.split.PageSourceManager;
@@ -119,6 +122,7 @@ import io.trino.split.SplitManager;
 import io.trino.sql.SqlEnvironmentConfig;
 import io.trino.sql.analyzer.FeaturesConfig;
 import io.trino.sql.gen.ExpressionCompiler;
+import io.trino.sql.gen.GeneratedClassCache;
 import io.trino.sql.gen.JoinCompiler;
 import io.trino.sql.gen.JoinFilterFunctionCompiler;
 import io.trino.sql.gen.OrderingCompiler;
@@ -285,7 +289,11 @@ public class ServerMainModule
         binder.bind(MultilevelSplitQueue.class).in(Scopes.SINGLETON);
         newExporter(binder).export(MultilevelSplitQueue.class).withGeneratedName();
         binder.bind(LocalExecutionPlanner.class).in(Scopes.SINGLETON);
+        binder.bind(FragmentCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(FragmentCache.class).withGeneratedName();
         configBinder(binder).bindConfig(CompilerConfig.class);
+        binder.bind(GeneratedClassCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(GeneratedClassCache.class).withGeneratedName();
         binder.bind(ExpressionCompiler.class).in(Scopes.SINGLETON);
         newExporter(binder).export(ExpressionCompiler.class).withGeneratedName();
         binder.bind(PageFunctionCompiler.class).in(Scopes.SINGLETON);
@@ -437,6 +445,8 @@ public class ServerMainModule
         binder.bind(SingleStreamSpillerFactory.class).to(FileSingleStreamSpillerFactory.class).in(Scopes.SINGLETON);
         binder.bind(PartitioningSpillerFactory.class).to(GenericPartitioningSpillerFactory.class).in(Scopes.SINGLETON);
         binder.bind(SpillerStats.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(SpillerStats.class).withGeneratedName();
+        binder.bind(SpillerStatsExporter.class).in(Scopes.SINGLETON);
         newExporter(binder).export(SpillerFactory.class).withGeneratedName();
         binder.bind(LocalSpillManager.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(NodeSpillConfig.class);
@@ -448,9 +458,10 @@ public class ServerMainModule
         // TODO remove dispatcher fromm ServerMainModule, and bind dependent components only on coordinators
         OptionalBinder.newOptionalBinder(binder, DispatchManager.class);
 
-        // Added for RuleStatsSystemTable
+        // Added for RuleStatsSystemTable and HistoryBasedEstimatesSystemTable
         // TODO: remove this when system tables are bound separately for coordinator and worker
         OptionalBinder.newOptionalBinder(binder, RuleStatsRecorder.class);
+        OptionalBinder.newOptionalBinder(binder, HistoryBasedEstimates.class);
 
         // cleanup
         binder.bind(ExecutorCleanup.class).in(Scopes.SINGLETON);
@@ -487,6 +498,15 @@ public class ServerMainModule
         return new BoundedExecutor(coreExecutor, config.getHttpResponseThreads());
     }
 
+    @Provides
+    @Singleton
+    @ForStreamingResults
+    public static BoundedExecutor createStreamingResultsExecutor(@ForAsyncHttp ExecutorService coreExecutor, TaskManagerConfig config)
+    {
+        // a stream of task results occupies a thread while it is written, so the streams do not delay the other responses
+        return new BoundedExecutor(coreExecutor, config.getHttpStreamingThreads());
+    }
+
     @Provides
     @Singleton
     @ForAsyncHttp
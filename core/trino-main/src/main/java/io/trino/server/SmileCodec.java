@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Encodes objects in the binary SMILE format with the object mapper of the JSON codecs, so the
+ * objects are encoded like the JSON ones. Unlike the SMILE mapper of the JAX-RS resources, the
+ * parsers have the object mapper as their codec, which some of the deserializers require.
+ */
+public class SmileCodec<T>
+{
+    public static final String SMILE_MEDIA_TYPE = "application/x-jackson-smile";
+
+    private final Class<T> type;
+    private final SmileFactory smileFactory;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+
+    public SmileCodec(ObjectMapper objectMapper, Class<T> type)
+    {
+        requireNonNull(objectMapper, "objectMapper is null");
+        this.type = requireNonNull(type, "type is null");
+        // the plan fragments repeat the same symbol names, so the repeated string values are written once
+        this.smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        smileFactory.setCodec(objectMapper);
+        this.writer = objectMapper.writerFor(type);
+        this.reader = objectMapper.readerFor(type);
+    }
+
+    public byte[] toSmileBytes(T instance)
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonGenerator generator = smileFactory.createGenerator(output)) {
+            writer.writeValue(generator, instance);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException(format("%s could not be converted to SMILE", type.getName()), e);
+        }
+        return output.toByteArray();
+    }
+
+    public T fromSmile(byte[] smile)
+    {
+        try (JsonParser parser = smileFactory.createParser(smile)) {
+            return reader.readValue(parser);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException(format("Invalid SMILE bytes for %s", type.getName()), e);
+        }
+    }
+}
@@ -13,11 +13,14 @@
  */
 package io.trino.server;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.reflect.TypeToken;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.BoundedExecutor;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceOutput;
 import io.airlift.stats.TimeStat;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
@@ -32,6 +35,8 @@ import io.trino.execution.buffer.OutputBuffers.OutputBufferId;
 import io.trino.execution.buffer.SerializedPage;
 import io.trino.metadata.SessionPropertyManager;
 import io.trino.server.security.ResourceSecurity;
+import io.trino.sql.analyzer.FeaturesConfig;
+import io.trino.sql.analyzer.FeaturesConfig.DataIntegrityVerification;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
@@ -51,15 +56,22 @@ import javax.ws.rs.container.CompletionCallback;
 import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
+import java.io.EOFException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
 
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
@@ -73,9 +85,12 @@ import static io.trino.server.InternalHeaders.TRINO_MAX_WAIT;
 import static io.trino.server.InternalHeaders.TRINO_PAGE_NEXT_TOKEN;
 import static io.trino.server.InternalHeaders.TRINO_PAGE_TOKEN;
 import static io.trino.server.InternalHeaders.TRINO_TASK_INSTANCE_ID;
+import static io.trino.server.PagesResponseWriter.writePagesFrame;
+import static io.trino.server.SmileCodec.SMILE_MEDIA_TYPE;
 import static io.trino.server.security.ResourceSecurity.AccessType.INTERNAL_ONLY;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -86,11 +101,17 @@ public class TaskResource
 {
     private static final Duration ADDITIONAL_WAIT_TIME = new Duration(5, SECONDS);
     private static final Duration DEFAULT_MAX_WAIT_TIME = new Duration(2, SECONDS);
+    private static final MediaType SMILE_TYPE = MediaType.valueOf(SMILE_MEDIA_TYPE);
 
     private final TaskManager taskManager;
     private final SessionPropertyManager sessionPropertyManager;
+    private final SmileCodec<TaskUpdateRequest> taskUpdateRequestSmileCodec;
+    private final SmileCodec<TaskInfo> taskInfoSmileCodec;
+    private final SmileCodec<TaskStatus> taskStatusSmileCodec;
     private final Executor responseExecutor;
+    private final Executor streamingExecutor;
     private final ScheduledExecutorService timeoutExecutor;
+    private final boolean dataIntegrityVerificationEnabled;
     private final TimeStat readFromOutputBufferTime = new TimeStat();
     private final TimeStat resultsRequestTime = new TimeStat();
 
@@ -99,12 +120,20 @@ public class TaskResource
             TaskManager taskManager,
             SessionPropertyManager sessionPropertyManager,
             @ForAsyncHttp BoundedExecutor responseExecutor,
-            @ForAsyncHttp ScheduledExecutorService timeoutExecutor)
+            @ForStreamingResults BoundedExecutor streamingExecutor,
+            @ForAsyncHttp ScheduledExecutorService timeoutExecutor,
+            FeaturesConfig featuresConfig,
+            ObjectMapper objectMapper)
     {
         this.taskManager = requireNonNull(taskManager, "taskManager is null");
         this.sessionPropertyManager = requireNonNull(sessionPropertyManager, "sessionPropertyManager is null");
+        this.taskUpdateRequestSmileCodec = new SmileCodec<>(objectMapper, TaskUpdateRequest.class);
+        this.taskInfoSmileCodec = new SmileCodec<>(objectMapper, TaskInfo.class);
+        this.taskStatusSmileCodec = new SmileCodec<>(objectMapper, TaskStatus.class);
         this.responseExecutor = requireNonNull(responseExecutor, "responseExecutor is null");
+        this.streamingExecutor = requireNonNull(streamingExecutor, "streamingExecutor is null");
         this.timeoutExecutor = requireNonNull(timeoutExecutor, "timeoutExecutor is null");
+        this.dataIntegrityVerificationEnabled = featuresConfig.getExchangeDataIntegrityVerification() != DataIntegrityVerification.NONE;
     }
 
     @ResourceSecurity(INTERNAL_ONLY)
@@ -123,12 +152,39 @@ public class TaskResource
     @POST
     @Path("{taskId}")
     @Consumes(MediaType.APPLICATION_JSON)
-    @Produces(MediaType.APPLICATION_JSON)
-    public Response createOrUpdateTask(@PathParam("taskId") TaskId taskId, TaskUpdateRequest taskUpdateRequest, @Context UriInfo uriInfo)
+    @Produces({MediaType.APPLICATION_JSON, SMILE_MEDIA_TYPE})
+    public Response createOrUpdateTask(@PathParam("taskId") TaskId taskId, TaskUpdateRequest taskUpdateRequest, @Context UriInfo uriInfo, @Context HttpHeaders httpHeaders)
     {
         requireNonNull(taskUpdateRequest, "taskUpdateRequest is null");
+        return updateTask(taskId, taskUpdateRequest, uriInfo, httpHeaders);
+    }
 
-        Session session = taskUpdateRequest.getSession().toSession(sessionPropertyManager, taskUpdateRequest.getExtraCredentials());
+    @ResourceSecurity(INTERNAL_ONLY)
+    @POST
+    @Path("{taskId}")
+    @Consumes(SMILE_MEDIA_TYPE)
+    @Produces({MediaType.APPLICATION_JSON, SMILE_MEDIA_TYPE})
+    public Response createOrUpdateTaskSmile(@PathParam("taskId") TaskId taskId, byte[] taskUpdateRequest, @Context UriInfo uriInfo, @Context HttpHeaders httpHeaders)
+    {
+        requireNonNull(taskUpdateRequest, "taskUpdateRequest is null");
+        // the SMILE mapper of the JAX-RS resources cannot decode the plan fragments, so the request is decoded here
+        TaskUpdateRequest request;
+        try {
+            request = taskUpdateRequestSmileCodec.fromSmile(taskUpdateRequest);
+        }
+        catch (IllegalArgumentException e) {
+            return Response.status(Status.BAD_REQUEST)
+                    .type(MediaType.TEXT_PLAIN)
+                    .entity(e.getMessage())
+                    .build();
+        }
+        return updateTask(taskId, request, uriInfo, httpHeaders);
+    }
+
+    private Response updateTask(TaskId taskId, TaskUpdateRequest taskUpdateRequest, UriInfo uriInfo, HttpHeaders httpHeaders)
+    {
+        Optional<Session> session = taskUpdateRequest.getSession()
+                .map(sessionRepresentation -> sessionRepresentation.toSession(sessionPropertyManager, taskUpdateRequest.getExtraCredentials()));
         TaskInfo taskInfo = taskManager.updateTask(session,
                 taskId,
                 taskUpdateRequest.getFragment(),
@@ -140,28 +196,33 @@ public class TaskResource
             taskInfo = taskInfo.summarize();
         }
 
+        if (isSmileAccepted(httpHeaders)) {
+            return smileResponse(taskInfo, taskInfoSmileCodec);
+        }
         return Response.ok().entity(taskInfo).build();
     }
 
     @ResourceSecurity(INTERNAL_ONLY)
     @GET
     @Path("{taskId}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, SMILE_MEDIA_TYPE})
     public void getTaskInfo(
             @PathParam("taskId") TaskId taskId,
             @HeaderParam(TRINO_CURRENT_VERSION) Long currentVersion,
             @HeaderParam(TRINO_MAX_WAIT) Duration maxWait,
             @Context UriInfo uriInfo,
+            @Context HttpHeaders httpHeaders,
             @Suspended AsyncResponse asyncResponse)
     {
         requireNonNull(taskId, "taskId is null");
+        boolean smileAccepted = isSmileAccepted(httpHeaders);
 
         if (currentVersion == null || maxWait == null) {
             TaskInfo taskInfo = taskManager.getTaskInfo(taskId);
             if (shouldSummarize(uriInfo)) {
                 taskInfo = taskInfo.summarize();
             }
-            asyncResponse.resume(taskInfo);
+            asyncResponse.resume(smileAccepted ? smileResponse(taskInfo, taskInfoSmileCodec) : taskInfo);
             return;
         }
 
@@ -176,28 +237,36 @@ public class TaskResource
             futureTaskInfo = Futures.transform(futureTaskInfo, TaskInfo::summarize, directExecutor());
         }
 
+        ListenableFuture<?> futureResponse = futureTaskInfo;
+        if (smileAccepted) {
+            // encode on the response executor rather than on the thread completing the task state change
+            futureResponse = Futures.transform(futureTaskInfo, taskInfo -> smileResponse(taskInfo, taskInfoSmileCodec), responseExecutor);
+        }
+
         // For hard timeout, add an additional time to max wait for thread scheduling contention and GC
         Duration timeout = new Duration(waitTime.toMillis() + ADDITIONAL_WAIT_TIME.toMillis(), MILLISECONDS);
-        bindAsyncResponse(asyncResponse, futureTaskInfo, responseExecutor)
+        bindAsyncResponse(asyncResponse, futureResponse, responseExecutor)
                 .withTimeout(timeout);
     }
 
     @ResourceSecurity(INTERNAL_ONLY)
     @GET
     @Path("{taskId}/status")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, SMILE_MEDIA_TYPE})
     public void getTaskStatus(
             @PathParam("taskId") TaskId taskId,
             @HeaderParam(TRINO_CURRENT_VERSION) Long currentVersion,
             @HeaderParam(TRINO_MAX_WAIT) Duration maxWait,
             @Context UriInfo uriInfo,
+            @Context HttpHeaders httpHeaders,
             @Suspended AsyncResponse asyncResponse)
     {
         requireNonNull(taskId, "taskId is null");
+        boolean smileAccepted = isSmileAccepted(httpHeaders);
 
         if (currentVersion == null || maxWait == null) {
             TaskStatus taskStatus = taskManager.getTaskStatus(taskId);
-            asyncResponse.resume(taskStatus);
+            asyncResponse.resume(smileAccepted ? smileResponse(taskStatus, taskStatusSmileCodec) : taskStatus);
             return;
         }
 
@@ -211,9 +280,14 @@ public class TaskResource
                 waitTime,
                 timeoutExecutor);
 
+        ListenableFuture<?> futureResponse = futureTaskStatus;
+        if (smileAccepted) {
+            futureResponse = Futures.transform(futureTaskStatus, taskStatus -> smileResponse(taskStatus, taskStatusSmileCodec), responseExecutor);
+        }
+
         // For hard timeout, add an additional time to max wait for thread scheduling contention and GC
         Duration timeout = new Duration(waitTime.toMillis() + ADDITIONAL_WAIT_TIME.toMillis(), MILLISECONDS);
-        bindAsyncResponse(asyncResponse, futureTaskStatus, responseExecutor)
+        bindAsyncResponse(asyncResponse, futureResponse, responseExecutor)
                 .withTimeout(timeout);
     }
 
@@ -316,6 +390,109 @@ public class TaskResource
         asyncResponse.register((CompletionCallback) throwable -> resultsRequestTime.add(Duration.nanosSince(start)));
     }
 
+    /**
+     * Streams the results of the buffer as a sequence of frames, until the buffer is complete, the results
+     * are not available within the wait time, or the size of the sent pages exceeds the credit of the client.
+     * The sent pages are not acknowledged by the stream, so the client can retry from the token of any frame it
+     * has received, and the pages are released by the acknowledgement of the client or its next request.
+     */
+    @ResourceSecurity(INTERNAL_ONLY)
+    @GET
+    @Path("{taskId}/results/{bufferId}/{token}/stream")
+    @Produces(TRINO_PAGES)
+    public void streamResults(
+            @PathParam("taskId") TaskId taskId,
+            @PathParam("bufferId") OutputBufferId bufferId,
+            @PathParam("token") long token,
+            @HeaderParam(TRINO_MAX_SIZE) DataSize credit,
+            @Suspended AsyncResponse asyncResponse)
+    {
+        requireNonNull(taskId, "taskId is null");
+        requireNonNull(bufferId, "bufferId is null");
+        requireNonNull(credit, "credit is null");
+
+        long start = System.nanoTime();
+        ListenableFuture<BufferResult> bufferResultFuture = taskManager.getTaskResults(taskId, bufferId, token, credit);
+        Duration waitTime = randomizeWaitTime(DEFAULT_MAX_WAIT_TIME);
+        bufferResultFuture = addTimeout(
+                bufferResultFuture,
+                () -> BufferResult.emptyResults(taskManager.getTaskInstanceId(taskId), token, false),
+                waitTime,
+                timeoutExecutor);
+
+        long deadline = start + waitTime.roundTo(NANOSECONDS);
+        ListenableFuture<Response> responseFuture = Futures.transform(
+                bufferResultFuture,
+                result -> createStreamResponse(taskId, bufferId, result, credit.toBytes(), deadline),
+                directExecutor());
+
+        // For hard timeout, add an additional time to max wait for thread scheduling contention and GC
+        Duration timeout = new Duration(waitTime.toMillis() + ADDITIONAL_WAIT_TIME.toMillis(), MILLISECONDS);
+        // the stream is written on the thread resuming the response, and waits there for the next results
+        bindAsyncResponse(asyncResponse, responseFuture, streamingExecutor)
+                .withTimeout(timeout, () -> createStreamResponse(
+                        taskId,
+                        bufferId,
+                        BufferResult.emptyResults(taskManager.getTaskInstanceId(taskId), token, false),
+                        credit.toBytes(),
+                        deadline));
+
+        responseFuture.addListener(() -> readFromOutputBufferTime.add(Duration.nanosSince(start)), directExecutor());
+        asyncResponse.register((CompletionCallback) throwable -> resultsRequestTime.add(Duration.nanosSince(start)));
+    }
+
+    private Response createStreamResponse(TaskId taskId, OutputBufferId bufferId, BufferResult firstResult, long credit, long deadline)
+    {
+        StreamingOutput output = outputStream -> {
+            SliceOutput sliceOutput = new OutputStreamSliceOutput(outputStream);
+            try {
+                BufferResult result = firstResult;
+                long remainingCredit = credit;
+                while (true) {
+                    writePagesFrame(sliceOutput, result, dataIntegrityVerificationEnabled);
+                    sliceOutput.flush();
+
+                    remainingCredit -= result.getSerializedPages().stream()
+                            .mapToLong(SerializedPage::getRetainedSizeInBytes)
+                            .sum();
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (result.isEmpty() || result.isBufferComplete() || remainingCredit <= 0 || remainingNanos <= 0) {
+                        break;
+                    }
+
+                    ListenableFuture<BufferResult> nextResult = taskManager.getTaskResults(
+                            taskId,
+                            bufferId,
+                            firstResult.getToken(),
+                            result.getNextToken(),
+                            DataSize.ofBytes(remainingCredit));
+                    try {
+                        result = nextResult.get(remainingNanos, NANOSECONDS);
+                    }
+                    catch (TimeoutException | ExecutionException e) {
+                        // the client continues with a new request, which reports a failure of the buffer
+                        nextResult.cancel(true);
+                        break;
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            catch (UncheckedIOException e) {
+                // EOF exception occurs when the client disconnects while writing data
+                // This is not a "server" problem so we don't want to log this
+                if (!(e.getCause() instanceof EOFException)) {
+                    throw e;
+                }
+            }
+        };
+        return Response.ok(output)
+                .header(TRINO_TASK_INSTANCE_ID, firstResult.getTaskInstanceId())
+                .build();
+    }
+
     @ResourceSecurity(INTERNAL_ONLY)
     @GET
     @Path("{taskId}/results/{bufferId}/{token}/acknowledge")
@@ -361,6 +538,18 @@ public class TaskResource
         return uriInfo.getQueryParameters().containsKey("summarize");
     }
 
+    private static boolean isSmileAccepted(HttpHeaders httpHeaders)
+    {
+        return httpHeaders.getAcceptableMediaTypes().stream()
+                .anyMatch(mediaType -> mediaType.getType().equalsIgnoreCase(SMILE_TYPE.getType()) && mediaType.getSubtype().equalsIgnoreCase(SMILE_TYPE.getSubtype()));
+    }
+
+    // like the task updates, the responses are not encoded by the SMILE mapper of the JAX-RS resources
+    private static <T> Response smileResponse(T value, SmileCodec<T> smileCodec)
+    {
+        return Response.ok(smileCodec.toSmileBytes(value), SMILE_MEDIA_TYPE).build();
+    }
+
     private static Duration randomizeWaitTime(Duration waitTime)
     {
         // Randomize in [T/2, T], so wait is not near zero and the client-supplied max wait time is respected
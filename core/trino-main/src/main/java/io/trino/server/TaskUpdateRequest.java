@@ -31,7 +31,8 @@ import static java.util.Objects.requireNonNull;
 
 public class TaskUpdateRequest
 {
-    private final SessionRepresentation session;
+    // the session is only sent with the fragment, since the worker only needs it to create the task
+    private final Optional<SessionRepresentation> session;
     // extraCredentials is stored separately from SessionRepresentation to avoid being leaked
     private final Map<String, String> extraCredentials;
     private final Optional<PlanFragment> fragment;
@@ -41,7 +42,7 @@ public class TaskUpdateRequest
 
     @JsonCreator
     public TaskUpdateRequest(
-            @JsonProperty("session") SessionRepresentation session,
+            @JsonProperty("session") Optional<SessionRepresentation> session,
             @JsonProperty("extraCredentials") Map<String, String> extraCredentials,
             @JsonProperty("fragment") Optional<PlanFragment> fragment,
             @JsonProperty("sources") List<TaskSource> sources,
@@ -64,7 +65,7 @@ public class TaskUpdateRequest
     }
 
     @JsonProperty
-    public SessionRepresentation getSession()
+    public Optional<SessionRepresentation> getSession()
     {
         return session;
     }
@@ -24,6 +24,7 @@ import io.trino.Session;
 import io.trino.client.ProtocolHeaders;
 import io.trino.client.QueryResults;
 import io.trino.execution.QueryManager;
+import io.trino.execution.resultcache.QueryResultCache;
 import io.trino.memory.context.SimpleLocalMemoryContext;
 import io.trino.operator.ExchangeClient;
 import io.trino.operator.ExchangeClientSupplier;
@@ -86,6 +87,7 @@ public class ExecutingStatementResource
     private final QueryManager queryManager;
     private final ExchangeClientSupplier exchangeClientSupplier;
     private final BlockEncodingSerde blockEncodingSerde;
+    private final QueryResultCache resultCache;
     private final BoundedExecutor responseExecutor;
     private final ScheduledExecutorService timeoutExecutor;
 
@@ -100,7 +102,8 @@ public class ExecutingStatementResource
             BlockEncodingSerde blockEncodingSerde,
             @ForStatementResource BoundedExecutor responseExecutor,
             @ForStatementResource ScheduledExecutorService timeoutExecutor,
-            ServerConfig serverConfig)
+            ServerConfig serverConfig,
+            QueryResultCache resultCache)
     {
         this.queryManager = requireNonNull(queryManager, "queryManager is null");
         this.exchangeClientSupplier = requireNonNull(exchangeClientSupplier, "exchangeClientSupplier is null");
@@ -108,6 +111,7 @@ public class ExecutingStatementResource
         this.responseExecutor = requireNonNull(responseExecutor, "responseExecutor is null");
         this.timeoutExecutor = requireNonNull(timeoutExecutor, "timeoutExecutor is null");
         this.compressionEnabled = requireNonNull(serverConfig, "serverConfig is null").isQueryResultsCompressionEnabled();
+        this.resultCache = requireNonNull(resultCache, "resultCache is null");
 
         queryPurger.scheduleWithFixedDelay(
                 () -> {
@@ -188,7 +192,8 @@ public class ExecutingStatementResource
                     exchangeClient,
                     responseExecutor,
                     timeoutExecutor,
-                    blockEncodingSerde);
+                    blockEncodingSerde,
+                    resultCache);
         });
         return query;
     }
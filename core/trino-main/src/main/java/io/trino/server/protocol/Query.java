@@ -48,6 +48,9 @@ import io.trino.execution.TaskInfo;
 import io.trino.execution.buffer.PagesSerde;
 import io.trino.execution.buffer.PagesSerdeFactory;
 import io.trino.execution.buffer.SerializedPage;
+import io.trino.execution.resultcache.CachedQueryResult;
+import io.trino.execution.resultcache.QueryResultCache;
+import io.trino.execution.resultcache.QueryResultCacheKey;
 import io.trino.operator.ExchangeClient;
 import io.trino.spi.ErrorCode;
 import io.trino.spi.Page;
@@ -79,7 +82,9 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -99,6 +104,7 @@ import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.concurrent.MoreFutures.addTimeout;
 import static io.trino.SystemSessionProperties.isExchangeCompressionEnabled;
 import static io.trino.execution.QueryState.FAILED;
+import static io.trino.execution.QueryState.FINISHED;
 import static io.trino.server.protocol.QueryResultRows.queryResultRowsBuilder;
 import static io.trino.server.protocol.Slug.Context.EXECUTING_QUERY;
 import static io.trino.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
@@ -132,6 +138,24 @@ class Query
     private final PagesSerde serde;
     private final boolean supportsParametricDateTime;
 
+    private final QueryResultCache resultCache;
+
+    @GuardedBy("this")
+    private Optional<QueryResultCacheKey> resultCacheKey = Optional.empty();
+
+    // pages of the results consumed so far, which are cached when the query finishes
+    @GuardedBy("this")
+    private List<SerializedPage> resultPages;
+
+    @GuardedBy("this")
+    private long resultPagesRetainedSizeInBytes;
+
+    @GuardedBy("this")
+    private CachedQueryResult cachedResult;
+
+    @GuardedBy("this")
+    private Iterator<SerializedPage> cachedPages;
+
     @GuardedBy("this")
     private OptionalLong nextToken = OptionalLong.of(0);
 
@@ -190,9 +214,10 @@ class Query
             ExchangeClient exchangeClient,
             Executor dataProcessorExecutor,
             ScheduledExecutorService timeoutExecutor,
-            BlockEncodingSerde blockEncodingSerde)
+            BlockEncodingSerde blockEncodingSerde,
+            QueryResultCache resultCache)
     {
-        Query result = new Query(session, slug, queryManager, exchangeClient, dataProcessorExecutor, timeoutExecutor, blockEncodingSerde);
+        Query result = new Query(session, slug, queryManager, exchangeClient, dataProcessorExecutor, timeoutExecutor, blockEncodingSerde, resultCache);
 
         result.queryManager.addOutputInfoListener(result.getQueryId(), result::setQueryOutputInfo);
 
@@ -213,7 +238,8 @@ class Query
             ExchangeClient exchangeClient,
             Executor resultsProcessorExecutor,
             ScheduledExecutorService timeoutExecutor,
-            BlockEncodingSerde blockEncodingSerde)
+            BlockEncodingSerde blockEncodingSerde,
+            QueryResultCache resultCache)
     {
         requireNonNull(session, "session is null");
         requireNonNull(slug, "slug is null");
@@ -222,6 +248,7 @@ class Query
         requireNonNull(resultsProcessorExecutor, "resultsProcessorExecutor is null");
         requireNonNull(timeoutExecutor, "timeoutExecutor is null");
         requireNonNull(blockEncodingSerde, "serde is null");
+        requireNonNull(resultCache, "resultCache is null");
 
         this.queryManager = queryManager;
 
@@ -233,6 +260,7 @@ class Query
         this.timeoutExecutor = timeoutExecutor;
         this.supportsParametricDateTime = session.getClientCapabilities().contains(ClientCapabilities.PARAMETRIC_DATETIME.toString());
         serde = new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session)).createPagesSerde();
+        this.resultCache = resultCache;
     }
 
     public void cancel()
@@ -255,6 +283,7 @@ class Query
     public synchronized void dispose()
     {
         exchangeClient.close();
+        resultPages = null;
     }
 
     public QueryId getQueryId()
@@ -348,6 +377,11 @@ class Query
 
     private synchronized ListenableFuture<?> getFutureStateChange()
     {
+        // cached results are available immediately
+        if (cachedPages != null && cachedPages.hasNext()) {
+            return immediateFuture(null);
+        }
+
         // if the exchange client is open, wait for data
         if (!exchangeClient.isClosed()) {
             return exchangeClient.isBlocked();
@@ -437,6 +471,11 @@ class Query
         }
         else {
             nextToken = OptionalLong.empty();
+            // all the results were consumed by the client
+            if (queryInfo.getState() == FINISHED && resultPages != null) {
+                resultCache.put(resultCacheKey.orElseThrow(), resultPages);
+                resultPages = null;
+            }
         }
 
         URI nextResultsUri = null;
@@ -492,7 +531,7 @@ class Query
     private synchronized QueryResultRows removePagesFromExchange(QueryInfo queryInfo, long targetResultBytes)
     {
         // For queries with no output, return a fake boolean result for clients that require it.
-        if ((queryInfo.getState() == QueryState.FINISHED) && queryInfo.getOutputStage().isEmpty()) {
+        if ((queryInfo.getState() == QueryState.FINISHED) && queryInfo.getOutputStage().isEmpty() && cachedResult == null) {
             return queryResultRowsBuilder(session)
                     .withSingleBooleanValue(createColumn("result", BooleanType.BOOLEAN), true)
                     .build();
@@ -512,7 +551,7 @@ class Query
         try (PagesSerde.PagesSerdeContext context = serde.newContext()) {
             long bytes = 0;
             while (bytes < targetResultBytes) {
-                SerializedPage serializedPage = exchangeClient.pollPage();
+                SerializedPage serializedPage = pollPage();
                 if (serializedPage == null) {
                     break;
                 }
@@ -529,6 +568,31 @@ class Query
         return resultBuilder.build();
     }
 
+    private synchronized SerializedPage pollPage()
+    {
+        if (cachedPages != null) {
+            if (cachedPages.hasNext()) {
+                return cachedPages.next();
+            }
+            // the query finishes once the client consumed all the results
+            cachedResult.setConsumed();
+            return null;
+        }
+
+        SerializedPage serializedPage = exchangeClient.pollPage();
+        if (serializedPage != null && resultPages != null) {
+            resultPagesRetainedSizeInBytes += serializedPage.getRetainedSizeInBytes();
+            if (resultCache.isCacheable(resultPagesRetainedSizeInBytes)) {
+                resultPages.add(serializedPage);
+            }
+            else {
+                // too large to be cached
+                resultPages = null;
+            }
+        }
+        return serializedPage;
+    }
+
     private synchronized void closeExchangeClientIfNecessary(QueryInfo queryInfo)
     {
         // Close the exchange client if the query has failed, or if the query
@@ -569,6 +633,17 @@ class Query
             }
             columns = list.build();
             types = outputInfo.getColumnTypes();
+
+            if (outputInfo.getCachedResult().isPresent()) {
+                // results are not read from the output stage
+                cachedResult = outputInfo.getCachedResult().get();
+                cachedPages = cachedResult.getPages().iterator();
+                exchangeClient.close();
+            }
+            else if (outputInfo.getResultCacheKey().isPresent()) {
+                resultCacheKey = outputInfo.getResultCacheKey();
+                resultPages = new ArrayList<>();
+            }
         }
 
         for (URI outputLocation : outputInfo.getBufferLocations()) {
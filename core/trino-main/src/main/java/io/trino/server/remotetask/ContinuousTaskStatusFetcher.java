@@ -16,7 +16,6 @@ package io.trino.server.remotetask;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
-import io.airlift.http.client.FullJsonResponseHandler;
 import io.airlift.http.client.HttpClient;
 import io.airlift.http.client.Request;
 import io.airlift.json.JsonCodec;
@@ -25,11 +24,14 @@ import io.airlift.units.Duration;
 import io.trino.execution.StateMachine;
 import io.trino.execution.TaskId;
 import io.trino.execution.TaskStatus;
+import io.trino.server.SmileCodec;
+import io.trino.server.remotetask.FullTaskResponseHandler.TaskResponse;
 import io.trino.spi.HostAddress;
 import io.trino.spi.TrinoException;
 
 import javax.annotation.concurrent.GuardedBy;
 
+import java.util.Optional;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -37,14 +39,15 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.net.HttpHeaders.ACCEPT;
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
 import static com.google.common.net.MediaType.JSON_UTF_8;
-import static io.airlift.http.client.FullJsonResponseHandler.createFullJsonResponseHandler;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.airlift.http.client.Request.Builder.prepareGet;
 import static io.airlift.units.Duration.nanosSince;
 import static io.trino.server.InternalHeaders.TRINO_CURRENT_VERSION;
 import static io.trino.server.InternalHeaders.TRINO_MAX_WAIT;
+import static io.trino.server.remotetask.FullTaskResponseHandler.createFullTaskResponseHandler;
 import static io.trino.spi.StandardErrorCode.REMOTE_TASK_MISMATCH;
 import static io.trino.util.Failures.REMOTE_TASK_MISMATCH_ERROR;
 import static java.lang.String.format;
@@ -58,7 +61,7 @@ class ContinuousTaskStatusFetcher
     private final TaskId taskId;
     private final Consumer<Throwable> onFail;
     private final StateMachine<TaskStatus> taskStatus;
-    private final JsonCodec<TaskStatus> taskStatusCodec;
+    private final FullTaskResponseHandler<TaskStatus> taskStatusResponseHandler;
     private final DynamicFiltersFetcher dynamicFiltersFetcher;
 
     private final Duration refreshMaxWait;
@@ -73,13 +76,14 @@ class ContinuousTaskStatusFetcher
     private boolean running;
 
     @GuardedBy("this")
-    private ListenableFuture<FullJsonResponseHandler.JsonResponse<TaskStatus>> future;
+    private ListenableFuture<TaskResponse<TaskStatus>> future;
 
     public ContinuousTaskStatusFetcher(
             Consumer<Throwable> onFail,
             TaskStatus initialTaskStatus,
             Duration refreshMaxWait,
             JsonCodec<TaskStatus> taskStatusCodec,
+            Optional<SmileCodec<TaskStatus>> taskStatusSmileCodec,
             DynamicFiltersFetcher dynamicFiltersFetcher,
             Executor executor,
             HttpClient httpClient,
@@ -94,7 +98,7 @@ class ContinuousTaskStatusFetcher
         this.taskStatus = new StateMachine<>("task-" + taskId, executor, initialTaskStatus);
 
         this.refreshMaxWait = requireNonNull(refreshMaxWait, "refreshMaxWait is null");
-        this.taskStatusCodec = requireNonNull(taskStatusCodec, "taskStatusCodec is null");
+        this.taskStatusResponseHandler = createFullTaskResponseHandler(taskStatusCodec, taskStatusSmileCodec);
         this.dynamicFiltersFetcher = requireNonNull(dynamicFiltersFetcher, "dynamicFiltersFetcher is null");
 
         this.executor = requireNonNull(executor, "executor is null");
@@ -148,12 +152,13 @@ class ContinuousTaskStatusFetcher
         Request request = prepareGet()
                 .setUri(uriBuilderFrom(taskStatus.getSelf()).appendPath("status").build())
                 .setHeader(CONTENT_TYPE, JSON_UTF_8.toString())
+                .setHeader(ACCEPT, taskStatusResponseHandler.getAcceptedMediaType())
                 .setHeader(TRINO_CURRENT_VERSION, Long.toString(taskStatus.getVersion()))
                 .setHeader(TRINO_MAX_WAIT, refreshMaxWait.toString())
                 .build();
 
         errorTracker.startRequest();
-        future = httpClient.executeAsync(request, createFullJsonResponseHandler(taskStatusCodec));
+        future = httpClient.executeAsync(request, taskStatusResponseHandler);
         currentRequestStartNanos.set(System.nanoTime());
         Futures.addCallback(future, new SimpleHttpResponseHandler<>(this, request.getUri(), stats), executor);
     }
@@ -15,7 +15,6 @@ package io.trino.server.remotetask;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
-import io.airlift.http.client.FullJsonResponseHandler.JsonResponse;
 import io.airlift.http.client.HttpClient;
 import io.airlift.http.client.Request;
 import io.airlift.json.JsonCodec;
@@ -23,10 +22,12 @@ import io.airlift.units.Duration;
 import io.trino.execution.DynamicFiltersCollector.VersionedDynamicFilterDomains;
 import io.trino.execution.TaskId;
 import io.trino.server.DynamicFilterService;
+import io.trino.server.remotetask.FullTaskResponseHandler.TaskResponse;
 
 import javax.annotation.concurrent.GuardedBy;
 
 import java.net.URI;
+import java.util.Optional;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
@@ -35,13 +36,13 @@ import java.util.function.Consumer;
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
 import static com.google.common.net.MediaType.JSON_UTF_8;
 import static com.google.common.util.concurrent.Futures.addCallback;
-import static io.airlift.http.client.FullJsonResponseHandler.createFullJsonResponseHandler;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.airlift.http.client.Request.Builder.prepareGet;
 import static io.airlift.units.Duration.nanosSince;
 import static io.trino.execution.DynamicFiltersCollector.INITIAL_DYNAMIC_FILTERS_VERSION;
 import static io.trino.server.InternalHeaders.TRINO_CURRENT_VERSION;
 import static io.trino.server.InternalHeaders.TRINO_MAX_WAIT;
+import static io.trino.server.remotetask.FullTaskResponseHandler.createFullTaskResponseHandler;
 import static java.util.Objects.requireNonNull;
 
 class DynamicFiltersFetcher
@@ -66,7 +67,7 @@ class DynamicFiltersFetcher
     @GuardedBy("this")
     private boolean running;
     @GuardedBy("this")
-    private ListenableFuture<JsonResponse<VersionedDynamicFilterDomains>> future;
+    private ListenableFuture<TaskResponse<VersionedDynamicFilterDomains>> future;
 
     public DynamicFiltersFetcher(
             Consumer<Throwable> onFail,
@@ -157,7 +158,7 @@ class DynamicFiltersFetcher
                 .build();
 
         errorTracker.startRequest();
-        future = httpClient.executeAsync(request, createFullJsonResponseHandler(dynamicFilterDomainsCodec));
+        future = httpClient.executeAsync(request, createFullTaskResponseHandler(dynamicFilterDomainsCodec, Optional.empty()));
         currentRequestStartNanos.set(System.nanoTime());
         addCallback(future, new SimpleHttpResponseHandler<>(this, request.getUri(), stats), executor);
     }
@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.server.remotetask;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.net.MediaType;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.Response;
+import io.airlift.http.client.ResponseHandler;
+import io.airlift.json.JsonCodec;
+import io.trino.server.SmileCodec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.net.MediaType.JSON_UTF_8;
+import static io.airlift.http.client.ResponseHandlerUtils.propagate;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Like {@link io.airlift.http.client.FullJsonResponseHandler}, but also decodes the responses of the workers
+ * encoded in the binary SMILE format, when the SMILE codec is present.
+ */
+public class FullTaskResponseHandler<T>
+        implements ResponseHandler<FullTaskResponseHandler.TaskResponse<T>, RuntimeException>
+{
+    private static final MediaType MEDIA_TYPE_JSON = MediaType.create("application", "json");
+    private static final MediaType MEDIA_TYPE_SMILE = MediaType.parse(SmileCodec.SMILE_MEDIA_TYPE);
+
+    private final JsonCodec<T> jsonCodec;
+    private final Optional<SmileCodec<T>> smileCodec;
+
+    public static <T> FullTaskResponseHandler<T> createFullTaskResponseHandler(JsonCodec<T> jsonCodec, Optional<SmileCodec<T>> smileCodec)
+    {
+        return new FullTaskResponseHandler<>(jsonCodec, smileCodec);
+    }
+
+    private FullTaskResponseHandler(JsonCodec<T> jsonCodec, Optional<SmileCodec<T>> smileCodec)
+    {
+        this.jsonCodec = requireNonNull(jsonCodec, "jsonCodec is null");
+        this.smileCodec = requireNonNull(smileCodec, "smileCodec is null");
+    }
+
+    /**
+     * The media type to request from the workers in the Accept header.
+     */
+    public String getAcceptedMediaType()
+    {
+        return smileCodec.isPresent() ? SmileCodec.SMILE_MEDIA_TYPE : JSON_UTF_8.toString();
+    }
+
+    @Override
+    public TaskResponse<T> handleException(Request request, Exception exception)
+    {
+        throw propagate(request, exception);
+    }
+
+    @Override
+    public TaskResponse<T> handle(Request request, Response response)
+    {
+        byte[] bytes = readResponseBytes(response);
+        String contentType = response.getHeader(CONTENT_TYPE);
+        if (contentType == null) {
+            return new TaskResponse<>(response.getStatusCode(), bytes, null, null);
+        }
+        MediaType mediaType = MediaType.parse(contentType);
+        try {
+            if (mediaType.is(MEDIA_TYPE_JSON)) {
+                return new TaskResponse<>(response.getStatusCode(), bytes, jsonCodec.fromJson(bytes), null);
+            }
+            if (mediaType.is(MEDIA_TYPE_SMILE) && smileCodec.isPresent()) {
+                return new TaskResponse<>(response.getStatusCode(), bytes, smileCodec.get().fromSmile(bytes), null);
+            }
+        }
+        catch (IllegalArgumentException e) {
+            return new TaskResponse<>(response.getStatusCode(), bytes, null, e);
+        }
+        return new TaskResponse<>(response.getStatusCode(), bytes, null, null);
+    }
+
+    private static byte[] readResponseBytes(Response response)
+    {
+        try (InputStream inputStream = response.getInputStream()) {
+            return ByteStreams.toByteArray(inputStream);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Error reading response from server", e);
+        }
+    }
+
+    public static class TaskResponse<T>
+    {
+        private final int statusCode;
+        private final byte[] responseBytes;
+        private final T value;
+        private final IllegalArgumentException exception;
+
+        public TaskResponse(int statusCode, byte[] responseBytes, T value, IllegalArgumentException exception)
+        {
+            this.statusCode = statusCode;
+            this.responseBytes = requireNonNull(responseBytes, "responseBytes is null");
+            this.value = value;
+            this.exception = exception;
+        }
+
+        public int getStatusCode()
+        {
+            return statusCode;
+        }
+
+        public boolean hasValue()
+        {
+            return value != null;
+        }
+
+        public T getValue()
+        {
+            if (!hasValue()) {
+                throw new IllegalStateException("Response does not contain a value", exception);
+            }
+            return value;
+        }
+
+        public int getResponseSize()
+        {
+            return responseBytes.length;
+        }
+
+        public String getResponseBody()
+        {
+            return new String(responseBytes, UTF_8);
+        }
+
+        public IllegalArgumentException getException()
+        {
+            return exception;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("statusCode", statusCode)
+                    .add("responseSize", responseBytes.length)
+                    .add("hasValue", hasValue())
+                    .toString();
+        }
+    }
+}
@@ -16,6 +16,7 @@ package io.trino.server.remotetask;
 import com.google.common.base.Ticker;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
 import com.google.common.net.HttpHeaders;
@@ -36,6 +37,7 @@ import io.trino.execution.DynamicFiltersCollector.VersionedDynamicFilterDomains;
 import io.trino.execution.FutureStateChange;
 import io.trino.execution.Lifespan;
 import io.trino.execution.NodeTaskMap.PartitionedSplitCountTracker;
+import io.trino.execution.PartitionedSplitsInfo;
 import io.trino.execution.RemoteTask;
 import io.trino.execution.ScheduledSplit;
 import io.trino.execution.StateMachine.StateChangeListener;
@@ -50,7 +52,10 @@ import io.trino.execution.buffer.PageBufferInfo;
 import io.trino.metadata.Split;
 import io.trino.operator.TaskStats;
 import io.trino.server.DynamicFilterService;
+import io.trino.server.SmileCodec;
 import io.trino.server.TaskUpdateRequest;
+import io.trino.server.remotetask.FullTaskResponseHandler.TaskResponse;
+import io.trino.spi.SplitWeight;
 import io.trino.sql.planner.PlanFragment;
 import io.trino.sql.planner.plan.PlanNode;
 import io.trino.sql.planner.plan.PlanNodeId;
@@ -67,6 +72,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
@@ -76,6 +82,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -93,8 +100,11 @@ import static io.trino.execution.TaskInfo.createInitialTask;
 import static io.trino.execution.TaskState.ABORTED;
 import static io.trino.execution.TaskState.FAILED;
 import static io.trino.execution.TaskStatus.failWith;
+import static io.trino.server.SmileCodec.SMILE_MEDIA_TYPE;
+import static io.trino.server.remotetask.FullTaskResponseHandler.createFullTaskResponseHandler;
 import static io.trino.server.remotetask.RequestErrorTracker.logError;
 import static io.trino.util.Failures.toFailure;
+import static java.lang.Math.addExact;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
@@ -130,6 +140,8 @@ public final class HttpRemoteTask
     @GuardedBy("this")
     private volatile int pendingSourceSplitCount;
     @GuardedBy("this")
+    private volatile long pendingSourceSplitsWeight;
+    @GuardedBy("this")
     private final SetMultimap<PlanNodeId, Lifespan> pendingNoMoreSplitsForLifespan = HashMultimap.create();
     @GuardedBy("this")
     // The keys of this map represent all plan nodes that have "no more splits".
@@ -141,7 +153,7 @@ public final class HttpRemoteTask
     @GuardedBy("this")
     private boolean splitQueueHasSpace = true;
     @GuardedBy("this")
-    private OptionalInt whenSplitQueueHasSpaceThreshold = OptionalInt.empty();
+    private OptionalLong whenSplitQueueHasSpaceThreshold = OptionalLong.empty();
 
     private final boolean summarizeTaskInfo;
 
@@ -150,7 +162,9 @@ public final class HttpRemoteTask
     private final ScheduledExecutorService errorScheduledExecutor;
 
     private final JsonCodec<TaskInfo> taskInfoCodec;
+    private final FullTaskResponseHandler<TaskInfo> taskInfoResponseHandler;
     private final JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec;
+    private final Optional<SmileCodec<TaskUpdateRequest>> taskUpdateRequestSmileCodec;
 
     private final RequestErrorTracker updateErrorTracker;
 
@@ -176,12 +190,15 @@ public final class HttpRemoteTask
             ScheduledExecutorService errorScheduledExecutor,
             Duration maxErrorDuration,
             Duration taskStatusRefreshMaxWait,
-            Duration taskInfoUpdateInterval,
+            Supplier<Duration> taskInfoUpdateInterval,
             boolean summarizeTaskInfo,
             JsonCodec<TaskStatus> taskStatusCodec,
+            Optional<SmileCodec<TaskStatus>> taskStatusSmileCodec,
             JsonCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec,
             JsonCodec<TaskInfo> taskInfoCodec,
+            Optional<SmileCodec<TaskInfo>> taskInfoSmileCodec,
             JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec,
+            Optional<SmileCodec<TaskUpdateRequest>> taskUpdateRequestSmileCodec,
             PartitionedSplitCountTracker partitionedSplitCountTracker,
             RemoteTaskStats stats,
             DynamicFilterService dynamicFilterService)
@@ -197,7 +214,9 @@ public final class HttpRemoteTask
         requireNonNull(executor, "executor is null");
         requireNonNull(taskStatusCodec, "taskStatusCodec is null");
         requireNonNull(taskInfoCodec, "taskInfoCodec is null");
+        requireNonNull(taskInfoSmileCodec, "taskInfoSmileCodec is null");
         requireNonNull(taskUpdateRequestCodec, "taskUpdateRequestCodec is null");
+        requireNonNull(taskUpdateRequestSmileCodec, "taskUpdateRequestSmileCodec is null");
         requireNonNull(partitionedSplitCountTracker, "partitionedSplitCountTracker is null");
         requireNonNull(stats, "stats is null");
 
@@ -213,7 +232,9 @@ public final class HttpRemoteTask
             this.errorScheduledExecutor = errorScheduledExecutor;
             this.summarizeTaskInfo = summarizeTaskInfo;
             this.taskInfoCodec = taskInfoCodec;
+            this.taskInfoResponseHandler = createFullTaskResponseHandler(taskInfoCodec, taskInfoSmileCodec);
             this.taskUpdateRequestCodec = taskUpdateRequestCodec;
+            this.taskUpdateRequestSmileCodec = taskUpdateRequestSmileCodec;
             this.updateErrorTracker = new RequestErrorTracker(taskId, location, maxErrorDuration, errorScheduledExecutor, "updating task");
             this.partitionedSplitCountTracker = requireNonNull(partitionedSplitCountTracker, "partitionedSplitCountTracker is null");
             this.stats = stats;
@@ -226,6 +247,10 @@ public final class HttpRemoteTask
                     .filter(initialSplits::containsKey)
                     .mapToInt(partitionedSource -> initialSplits.get(partitionedSource).size())
                     .sum();
+            pendingSourceSplitsWeight = planFragment.getPartitionedSources().stream()
+                    .filter(initialSplits::containsKey)
+                    .mapToLong(partitionedSource -> SplitWeight.rawValueSum(initialSplits.get(partitionedSource), Split::getSplitWeight))
+                    .sum();
             maxUnacknowledgedSplits = getMaxUnacknowledgedSplitsPerTask(session);
 
             List<BufferInfo> bufferStates = outputBuffers.getBuffers()
@@ -253,6 +278,7 @@ public final class HttpRemoteTask
                     initialTask.getTaskStatus(),
                     taskStatusRefreshMaxWait,
                     taskStatusCodec,
+                    taskStatusSmileCodec,
                     dynamicFiltersFetcher,
                     executor,
                     httpClient,
@@ -266,6 +292,7 @@ public final class HttpRemoteTask
                     httpClient,
                     taskInfoUpdateInterval,
                     taskInfoCodec,
+                    taskInfoSmileCodec,
                     maxErrorDuration,
                     summarizeTaskInfo,
                     executor,
@@ -279,12 +306,12 @@ public final class HttpRemoteTask
                     cleanUpTask();
                 }
                 else {
-                    partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+                    partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
                     updateSplitQueueSpace();
                 }
             });
 
-            partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+            partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
             updateSplitQueueSpace();
         }
     }
@@ -343,14 +370,17 @@ public final class HttpRemoteTask
 
             checkState(!noMoreSplits.containsKey(sourceId), "noMoreSplits has already been set for %s", sourceId);
             int added = 0;
+            long addedWeight = 0;
             for (Split split : splits) {
                 if (pendingSplits.put(sourceId, new ScheduledSplit(nextSplitId.getAndIncrement(), sourceId, split))) {
                     added++;
+                    addedWeight = addExact(addedWeight, split.getSplitWeight().getRawValue());
                 }
             }
             if (planFragment.isPartitionedSources(sourceId)) {
                 pendingSourceSplitCount += added;
-                partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+                pendingSourceSplitsWeight = addExact(pendingSourceSplitsWeight, addedWeight);
+                partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
             }
             needsUpdate = true;
         }
@@ -398,23 +428,29 @@ public final class HttpRemoteTask
     }
 
     @Override
-    public int getPartitionedSplitCount()
+    public PartitionedSplitsInfo getPartitionedSplitsInfo()
     {
         TaskStatus taskStatus = getTaskStatus();
         if (taskStatus.getState().isDone()) {
-            return 0;
+            return PartitionedSplitsInfo.forZeroSplits();
         }
-        return getPendingSourceSplitCount() + taskStatus.getQueuedPartitionedDrivers() + taskStatus.getRunningPartitionedDrivers();
+        PartitionedSplitsInfo unacknowledgedSplitsInfo = getUnacknowledgedPartitionedSplitsInfo();
+        int count = unacknowledgedSplitsInfo.getCount() + taskStatus.getQueuedPartitionedDrivers() + taskStatus.getRunningPartitionedDrivers();
+        long weight = unacknowledgedSplitsInfo.getWeightSum() + taskStatus.getQueuedPartitionedSplitsWeight() + taskStatus.getRunningPartitionedSplitsWeight();
+        return PartitionedSplitsInfo.forSplitCountAndWeightSum(count, weight);
     }
 
     @Override
-    public int getQueuedPartitionedSplitCount()
+    public PartitionedSplitsInfo getQueuedPartitionedSplitsInfo()
     {
         TaskStatus taskStatus = getTaskStatus();
         if (taskStatus.getState().isDone()) {
-            return 0;
+            return PartitionedSplitsInfo.forZeroSplits();
         }
-        return getPendingSourceSplitCount() + taskStatus.getQueuedPartitionedDrivers();
+        PartitionedSplitsInfo unacknowledgedSplitsInfo = getUnacknowledgedPartitionedSplitsInfo();
+        int count = unacknowledgedSplitsInfo.getCount() + taskStatus.getQueuedPartitionedDrivers();
+        long weight = unacknowledgedSplitsInfo.getWeightSum() + taskStatus.getQueuedPartitionedSplitsWeight();
+        return PartitionedSplitsInfo.forSplitCountAndWeightSum(count, weight);
     }
 
     @Override
@@ -429,6 +465,13 @@ public final class HttpRemoteTask
         return pendingSourceSplitCount;
     }
 
+    @SuppressWarnings("FieldAccessNotGuarded")
+    private PartitionedSplitsInfo getUnacknowledgedPartitionedSplitsInfo()
+    {
+        // the fields are read without synchronization, so the count and the weight may be slightly out of sync
+        return PartitionedSplitsInfo.forSplitCountAndWeightSum(pendingSourceSplitCount, pendingSourceSplitsWeight);
+    }
+
     @Override
     public void addStateChangeListener(StateChangeListener<TaskStatus> stateChangeListener)
     {
@@ -444,13 +487,13 @@ public final class HttpRemoteTask
     }
 
     @Override
-    public synchronized ListenableFuture<?> whenSplitQueueHasSpace(int threshold)
+    public synchronized ListenableFuture<?> whenSplitQueueHasSpace(long weightThreshold)
     {
         if (whenSplitQueueHasSpaceThreshold.isPresent()) {
-            checkArgument(threshold == whenSplitQueueHasSpaceThreshold.getAsInt(), "Multiple split queue space notification thresholds not supported");
+            checkArgument(weightThreshold == whenSplitQueueHasSpaceThreshold.getAsLong(), "Multiple split queue space notification thresholds not supported");
         }
         else {
-            whenSplitQueueHasSpaceThreshold = OptionalInt.of(threshold);
+            whenSplitQueueHasSpaceThreshold = OptionalLong.of(weightThreshold);
             updateSplitQueueSpace();
         }
         if (splitQueueHasSpace) {
@@ -463,7 +506,7 @@ public final class HttpRemoteTask
     {
         // Must check whether the unacknowledged split count threshold is reached even without listeners registered yet
         splitQueueHasSpace = getUnacknowledgedPartitionedSplitCount() < maxUnacknowledgedSplits &&
-                (whenSplitQueueHasSpaceThreshold.isEmpty() || getQueuedPartitionedSplitCount() < whenSplitQueueHasSpaceThreshold.getAsInt());
+                (whenSplitQueueHasSpaceThreshold.isEmpty() || getQueuedPartitionedSplitsInfo().getWeightSum() < whenSplitQueueHasSpaceThreshold.getAsLong());
         // Only trigger notifications if a listener might be registered
         if (splitQueueHasSpace && whenSplitQueueHasSpaceThreshold.isPresent()) {
             whenSplitQueueHasSpace.complete(null, executor);
@@ -478,9 +521,11 @@ public final class HttpRemoteTask
         for (TaskSource source : sources) {
             PlanNodeId planNodeId = source.getPlanNodeId();
             int removed = 0;
+            long removedWeight = 0;
             for (ScheduledSplit split : source.getSplits()) {
                 if (pendingSplits.remove(planNodeId, split)) {
                     removed++;
+                    removedWeight = addExact(removedWeight, split.getSplit().getSplitWeight().getRawValue());
                 }
             }
             if (source.isNoMoreSplits()) {
@@ -491,11 +536,12 @@ public final class HttpRemoteTask
             }
             if (planFragment.isPartitionedSources(planNodeId)) {
                 pendingSourceSplitCount -= removed;
+                pendingSourceSplitsWeight -= removedWeight;
             }
         }
         updateSplitQueueSpace();
 
-        partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+        partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
     }
 
     private void updateTaskInfo(TaskInfo taskInfo)
@@ -533,28 +579,39 @@ public final class HttpRemoteTask
 
         // Workers don't need the embedded JSON representation when the fragment is sent
         Optional<PlanFragment> fragment = sendPlan.get() ? Optional.of(planFragment.withoutEmbeddedJsonRepresentation()) : Optional.empty();
+        // Workers only need the session to create the task, so it is sent along with the fragment
         TaskUpdateRequest updateRequest = new TaskUpdateRequest(
-                session.toSessionRepresentation(),
-                session.getIdentity().getExtraCredentials(),
+                fragment.map(ignored -> session.toSessionRepresentation()),
+                fragment.isPresent() ? session.getIdentity().getExtraCredentials() : ImmutableMap.of(),
                 fragment,
                 sources,
                 outputBuffers.get(),
                 totalPartitions);
-        byte[] taskUpdateRequestJson = taskUpdateRequestCodec.toJsonBytes(updateRequest);
+        byte[] taskUpdateRequestBytes;
+        String contentType;
+        if (taskUpdateRequestSmileCodec.isPresent()) {
+            taskUpdateRequestBytes = taskUpdateRequestSmileCodec.get().toSmileBytes(updateRequest);
+            contentType = SMILE_MEDIA_TYPE;
+        }
+        else {
+            taskUpdateRequestBytes = taskUpdateRequestCodec.toJsonBytes(updateRequest);
+            contentType = MediaType.JSON_UTF_8.toString();
+        }
         if (fragment.isPresent()) {
-            stats.updateWithPlanBytes(taskUpdateRequestJson.length);
+            stats.updateWithPlanBytes(taskUpdateRequestBytes.length);
         }
 
         HttpUriBuilder uriBuilder = getHttpUriBuilder(taskStatus);
         Request request = preparePost()
                 .setUri(uriBuilder.build())
-                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.JSON_UTF_8.toString())
-                .setBodyGenerator(createStaticBodyGenerator(taskUpdateRequestJson))
+                .setHeader(HttpHeaders.CONTENT_TYPE, contentType)
+                .setHeader(HttpHeaders.ACCEPT, taskInfoResponseHandler.getAcceptedMediaType())
+                .setBodyGenerator(createStaticBodyGenerator(taskUpdateRequestBytes))
                 .build();
 
         updateErrorTracker.startRequest();
 
-        ListenableFuture<JsonResponse<TaskInfo>> future = httpClient.executeAsync(request, createFullJsonResponseHandler(taskInfoCodec));
+        ListenableFuture<TaskResponse<TaskInfo>> future = httpClient.executeAsync(request, taskInfoResponseHandler);
         currentRequest = future;
         currentRequestStartNanos = System.nanoTime();
 
@@ -614,7 +671,8 @@ public final class HttpRemoteTask
         // clear pending splits to free memory
         pendingSplits.clear();
         pendingSourceSplitCount = 0;
-        partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+        pendingSourceSplitsWeight = 0;
+        partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
         splitQueueHasSpace = true;
         whenSplitQueueHasSpace.complete(null, executor);
 
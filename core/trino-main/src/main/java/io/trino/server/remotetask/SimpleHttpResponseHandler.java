@@ -14,8 +14,8 @@
 package io.trino.server.remotetask;
 
 import com.google.common.util.concurrent.FutureCallback;
-import io.airlift.http.client.FullJsonResponseHandler;
 import io.airlift.http.client.HttpStatus;
+import io.trino.server.remotetask.FullTaskResponseHandler.TaskResponse;
 import io.trino.spi.TrinoException;
 
 import java.net.URI;
@@ -25,7 +25,7 @@ import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
 public class SimpleHttpResponseHandler<T>
-        implements FutureCallback<FullJsonResponseHandler.JsonResponse<T>>
+        implements FutureCallback<TaskResponse<T>>
 {
     private final SimpleHttpResponseCallback<T> callback;
 
@@ -40,7 +40,7 @@ public class SimpleHttpResponseHandler<T>
     }
 
     @Override
-    public void onSuccess(FullJsonResponseHandler.JsonResponse<T> response)
+    public void onSuccess(TaskResponse<T> response)
     {
         stats.updateSuccess();
         stats.responseSize(response.getResponseSize());
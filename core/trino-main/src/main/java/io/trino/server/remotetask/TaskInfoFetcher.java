@@ -16,7 +16,6 @@ package io.trino.server.remotetask;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
-import io.airlift.http.client.FullJsonResponseHandler;
 import io.airlift.http.client.HttpClient;
 import io.airlift.http.client.HttpUriBuilder;
 import io.airlift.http.client.Request;
@@ -27,6 +26,8 @@ import io.trino.execution.StateMachine.StateChangeListener;
 import io.trino.execution.TaskId;
 import io.trino.execution.TaskInfo;
 import io.trino.execution.TaskStatus;
+import io.trino.server.SmileCodec;
+import io.trino.server.remotetask.FullTaskResponseHandler.TaskResponse;
 
 import javax.annotation.concurrent.GuardedBy;
 
@@ -38,13 +39,15 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+import static com.google.common.net.HttpHeaders.ACCEPT;
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
 import static com.google.common.net.MediaType.JSON_UTF_8;
-import static io.airlift.http.client.FullJsonResponseHandler.createFullJsonResponseHandler;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.airlift.http.client.Request.Builder.prepareGet;
 import static io.airlift.units.Duration.nanosSince;
+import static io.trino.server.remotetask.FullTaskResponseHandler.createFullTaskResponseHandler;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
@@ -55,9 +58,9 @@ public class TaskInfoFetcher
     private final Consumer<Throwable> onFail;
     private final StateMachine<TaskInfo> taskInfo;
     private final StateMachine<Optional<TaskInfo>> finalTaskInfo;
-    private final JsonCodec<TaskInfo> taskInfoCodec;
+    private final FullTaskResponseHandler<TaskInfo> taskInfoResponseHandler;
 
-    private final long updateIntervalMillis;
+    private final Supplier<Duration> updateInterval;
     private final AtomicLong lastUpdateNanos = new AtomicLong();
     private final ScheduledExecutorService updateScheduledExecutor;
 
@@ -79,14 +82,15 @@ public class TaskInfoFetcher
     private ScheduledFuture<?> scheduledFuture;
 
     @GuardedBy("this")
-    private ListenableFuture<FullJsonResponseHandler.JsonResponse<TaskInfo>> future;
+    private ListenableFuture<TaskResponse<TaskInfo>> future;
 
     public TaskInfoFetcher(
             Consumer<Throwable> onFail,
             TaskInfo initialTask,
             HttpClient httpClient,
-            Duration updateInterval,
+            Supplier<Duration> updateInterval,
             JsonCodec<TaskInfo> taskInfoCodec,
+            Optional<SmileCodec<TaskInfo>> taskInfoSmileCodec,
             Duration maxErrorDuration,
             boolean summarizeTaskInfo,
             Executor executor,
@@ -101,9 +105,9 @@ public class TaskInfoFetcher
         this.onFail = requireNonNull(onFail, "onFail is null");
         this.taskInfo = new StateMachine<>("task " + taskId, executor, initialTask);
         this.finalTaskInfo = new StateMachine<>("task-" + taskId, executor, Optional.empty());
-        this.taskInfoCodec = requireNonNull(taskInfoCodec, "taskInfoCodec is null");
+        this.taskInfoResponseHandler = createFullTaskResponseHandler(taskInfoCodec, taskInfoSmileCodec);
 
-        this.updateIntervalMillis = requireNonNull(updateInterval, "updateInterval is null").toMillis();
+        this.updateInterval = requireNonNull(updateInterval, "updateInterval is null");
         this.updateScheduledExecutor = requireNonNull(updateScheduledExecutor, "updateScheduledExecutor is null");
         this.errorTracker = new RequestErrorTracker(taskId, initialTask.getTaskStatus().getSelf(), maxErrorDuration, errorScheduledExecutor, "getting info for task");
 
@@ -168,7 +172,7 @@ public class TaskInfoFetcher
                     return;
                 }
             }
-            if (nanosSince(lastUpdateNanos.get()).toMillis() >= updateIntervalMillis) {
+            if (nanosSince(lastUpdateNanos.get()).toMillis() >= updateInterval.get().toMillis()) {
                 sendNextRequest();
             }
         }, 0, 100, MILLISECONDS);
@@ -205,10 +209,11 @@ public class TaskInfoFetcher
         Request request = prepareGet()
                 .setUri(uri)
                 .setHeader(CONTENT_TYPE, JSON_UTF_8.toString())
+                .setHeader(ACCEPT, taskInfoResponseHandler.getAcceptedMediaType())
                 .build();
 
         errorTracker.startRequest();
-        future = httpClient.executeAsync(request, createFullJsonResponseHandler(taskInfoCodec));
+        future = httpClient.executeAsync(request, taskInfoResponseHandler);
         currentRequestStartNanos.set(System.nanoTime());
         Futures.addCallback(future, new SimpleHttpResponseHandler<>(this, request.getUri(), stats), executor);
     }
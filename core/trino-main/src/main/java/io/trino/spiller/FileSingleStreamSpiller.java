@@ -20,30 +20,46 @@ import com.google.common.io.Closer;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.InputStreamSliceInput;
-import io.airlift.slice.OutputStreamSliceOutput;
-import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
 import io.trino.execution.buffer.PagesSerde;
-import io.trino.execution.buffer.PagesSerdeUtil;
 import io.trino.execution.buffer.SerializedPage;
 import io.trino.memory.context.LocalMemoryContext;
 import io.trino.operator.SpillContext;
 import io.trino.spi.Page;
 import io.trino.spi.TrinoException;
+import io.trino.spiller.SpillerStats.SpillPathStats;
 
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Throwables.propagateIfPossible;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterators.transform;
+import static com.google.common.util.concurrent.MoreExecutors.newSequentialExecutor;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.trino.execution.buffer.PagesSerdeUtil.readSerializedPage;
 import static io.trino.execution.buffer.PagesSerdeUtil.writeSerializedPage;
 import static io.trino.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.trino.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
@@ -51,6 +67,12 @@ import static io.trino.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
 import static java.nio.file.StandardOpenOption.APPEND;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Spiller writing the pages to one spill file, or to one spill file per spill path when the pages are striped
+ * over several spill paths. Pages are serialized into a buffer per spill file, while the previous buffer of
+ * the file is written by the I/O executor. When reading, up to {@code prefetchPages} pages are read ahead by
+ * the I/O executor, while the pages are deserialized on the reading thread.
+ */
 @NotThreadSafe
 public class FileSingleStreamSpiller
         implements SingleStreamSpiller
@@ -58,7 +80,7 @@ public class FileSingleStreamSpiller
     @VisibleForTesting
     static final int BUFFER_SIZE = 4 * 1024;
 
-    private final FileHolder targetFile;
+    private final List<Stripe> stripes;
     private final Closer closer = Closer.create();
     private final PagesSerde serde;
     private final SpillerStats spillerStats;
@@ -66,9 +88,19 @@ public class FileSingleStreamSpiller
     private final LocalMemoryContext memoryContext;
 
     private final ListeningExecutorService executor;
+    private final ListeningExecutorService ioExecutor;
+    private final int bufferSize;
+    private final int prefetchPages;
+    private final long minReservedBytes;
+
+    @GuardedBy("this")
+    private long bufferedBytes;
+    @GuardedBy("this")
+    private boolean closed;
 
     private boolean writable = true;
     private long spilledPagesInMemorySize;
+    private long spilledPagesCount;
     private ListenableFuture<?> spillInProgress = Futures.immediateFuture(null);
 
     private final Runnable fileSystemErrorHandler;
@@ -82,9 +114,32 @@ public class FileSingleStreamSpiller
             LocalMemoryContext memoryContext,
             Optional<SpillCipher> spillCipher,
             Runnable fileSystemErrorHandler)
+    {
+        this(serde, executor, executor, ImmutableList.of(spillPath), BUFFER_SIZE, 0, spillerStats, spillContext, memoryContext, spillCipher, fileSystemErrorHandler);
+    }
+
+    public FileSingleStreamSpiller(
+            PagesSerde serde,
+            ListeningExecutorService executor,
+            ListeningExecutorService ioExecutor,
+            List<Path> spillPaths,
+            int bufferSize,
+            int prefetchPages,
+            SpillerStats spillerStats,
+            SpillContext spillContext,
+            LocalMemoryContext memoryContext,
+            Optional<SpillCipher> spillCipher,
+            Runnable fileSystemErrorHandler)
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
+        this.ioExecutor = requireNonNull(ioExecutor, "ioExecutor is null");
+        requireNonNull(spillPaths, "spillPaths is null");
+        checkArgument(!spillPaths.isEmpty(), "spillPaths is empty");
+        checkArgument(bufferSize > 0, "bufferSize must be positive");
+        checkArgument(prefetchPages >= 0, "prefetchPages is negative");
+        this.bufferSize = bufferSize;
+        this.prefetchPages = prefetchPages;
         this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
         this.localSpillContext = spillContext.newLocalSpillContext();
         this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
@@ -101,10 +156,19 @@ public class FileSingleStreamSpiller
         // This means we start accounting for the memory before the spiller thread allocates it, and we release the memory reservation
         // before/after the spiller thread allocates that memory -- -- whether before or after depends on whether writePages() is in the
         // middle of execution when close() is called (note that this applies to both readPages() and writePages() methods).
-        this.memoryContext.setBytes(BUFFER_SIZE);
+        // Every spill file uses two buffers, the one being filled and the one being written. The buffers grow
+        // to the size of the pages, and the prefetched pages are held in memory too, so the reservation is
+        // raised above this minimum by updateBufferedBytes(), which may be called by the I/O threads.
+        this.minReservedBytes = 2L * bufferSize * spillPaths.size();
+        this.memoryContext.setBytes(minReservedBytes);
         this.fileSystemErrorHandler = requireNonNull(fileSystemErrorHandler, "filesystemErrorHandler is null");
         try {
-            this.targetFile = closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX)));
+            ImmutableList.Builder<Stripe> stripes = ImmutableList.builder();
+            for (Path spillPath : spillPaths) {
+                FileHolder file = closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX)));
+                stripes.add(new Stripe(file, spillerStats.getSpillPathStats(spillPath)));
+            }
+            this.stripes = stripes.build();
         }
         catch (IOException e) {
             this.fileSystemErrorHandler.run();
@@ -143,8 +207,12 @@ public class FileSingleStreamSpiller
     private void writePages(Iterator<Page> pageIterator)
     {
         checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
-        try (SliceOutput output = new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE);
+        try (Closer writersCloser = Closer.create();
                 PagesSerde.PagesSerdeContext context = serde.newContext()) {
+            List<StripeWriter> writers = new ArrayList<>(stripes.size());
+            for (Stripe stripe : stripes) {
+                writers.add(writersCloser.register(new StripeWriter(stripe)));
+            }
             while (pageIterator.hasNext()) {
                 Page page = pageIterator.next();
                 spilledPagesInMemorySize += page.getSizeInBytes();
@@ -152,7 +220,12 @@ public class FileSingleStreamSpiller
                 long pageSize = serializedPage.getSizeInBytes();
                 localSpillContext.updateBytes(pageSize);
                 spillerStats.addToTotalSpilledBytes(pageSize);
-                writeSerializedPage(output, serializedPage);
+                // pages are assigned to the stripes in turn, so that they can be read back in the same order
+                writers.get((int) (spilledPagesCount % writers.size())).write(serializedPage);
+                spilledPagesCount++;
+            }
+            for (StripeWriter writer : writers) {
+                writer.finish();
             }
         }
         catch (UncheckedIOException | IOException e) {
@@ -167,9 +240,19 @@ public class FileSingleStreamSpiller
         writable = false;
 
         try {
-            InputStream input = closer.register(targetFile.newInputStream());
-            Iterator<Page> pages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
-            return closeWhenExhausted(pages, input);
+            List<StripeReader> readers = new ArrayList<>(stripes.size());
+            for (Stripe stripe : stripes) {
+                InputStream input = closer.register(stripe.getFile().newInputStream());
+                readers.add(new StripeReader(stripe, new InputStreamSliceInput(input, bufferSize), input));
+            }
+            Iterator<SerializedPage> serializedPages;
+            if (prefetchPages == 0) {
+                serializedPages = readSerializedPages(readers);
+            }
+            else {
+                serializedPages = prefetchSerializedPages(readers);
+            }
+            return transform(serializedPages, serde::deserialize);
         }
         catch (IOException e) {
             fileSystemErrorHandler.run();
@@ -177,11 +260,97 @@ public class FileSingleStreamSpiller
         }
     }
 
+    private Iterator<SerializedPage> readSerializedPages(List<StripeReader> readers)
+    {
+        long pagesCount = spilledPagesCount;
+        return new AbstractIterator<>()
+        {
+            private long readPagesCount;
+
+            @Override
+            protected SerializedPage computeNext()
+            {
+                if (readPagesCount == pagesCount) {
+                    closeReaders(readers);
+                    return endOfData();
+                }
+                SerializedPage page = readers.get((int) (readPagesCount % readers.size())).read();
+                readPagesCount++;
+                return page;
+            }
+        };
+    }
+
+    private Iterator<SerializedPage> prefetchSerializedPages(List<StripeReader> readers)
+    {
+        long pagesCount = spilledPagesCount;
+        // reads of the same spill file must not run concurrently
+        List<Executor> readExecutors = readers.stream()
+                .map(reader -> newSequentialExecutor(ioExecutor))
+                .collect(toImmutableList());
+        Deque<ListenableFuture<SerializedPage>> prefetchedPages = new ArrayDeque<>(prefetchPages);
+        closer.register(() -> prefetchedPages.forEach(future -> future.cancel(false)));
+        return new AbstractIterator<>()
+        {
+            private long requestedPagesCount;
+
+            @Override
+            protected SerializedPage computeNext()
+            {
+                while (prefetchedPages.size() < prefetchPages && requestedPagesCount < pagesCount) {
+                    int stripe = (int) (requestedPagesCount % readers.size());
+                    StripeReader reader = readers.get(stripe);
+                    prefetchedPages.add(Futures.submit(
+                            () -> {
+                                SerializedPage page = reader.read();
+                                updateBufferedBytes(page.getRetainedSizeInBytes());
+                                return page;
+                            },
+                            readExecutors.get(stripe)));
+                    requestedPagesCount++;
+                }
+                if (prefetchedPages.isEmpty()) {
+                    closeReaders(readers);
+                    return endOfData();
+                }
+                SerializedPage page = getFutureValue(prefetchedPages.poll());
+                updateBufferedBytes(-page.getRetainedSizeInBytes());
+                return page;
+            }
+        };
+    }
+
+    private static void closeReaders(List<StripeReader> readers)
+    {
+        try (Closer readersCloser = Closer.create()) {
+            readers.forEach(readersCloser::register);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized void updateBufferedBytes(long delta)
+    {
+        // the I/O threads may finish after the spiller is closed, and they must not reserve the memory again
+        if (closed) {
+            return;
+        }
+        bufferedBytes += delta;
+        memoryContext.setBytes(Math.max(minReservedBytes, bufferedBytes));
+    }
+
+    private synchronized void releaseMemory()
+    {
+        closed = true;
+        memoryContext.setBytes(0);
+    }
+
     @Override
     public void close()
     {
         closer.register(localSpillContext);
-        closer.register(() -> memoryContext.setBytes(0));
+        closer.register(this::releaseMemory);
         try {
             closer.close();
         }
@@ -196,27 +365,159 @@ public class FileSingleStreamSpiller
         checkState(spillInProgress.isDone(), "spill in progress");
     }
 
-    private static <T> Iterator<T> closeWhenExhausted(Iterator<T> iterator, Closeable resource)
+    private static class Stripe
     {
-        requireNonNull(iterator, "iterator is null");
-        requireNonNull(resource, "resource is null");
+        private final FileHolder file;
+        private final SpillPathStats stats;
 
-        return new AbstractIterator<>()
+        public Stripe(FileHolder file, SpillPathStats stats)
         {
-            @Override
-            protected T computeNext()
-            {
-                if (iterator.hasNext()) {
-                    return iterator.next();
-                }
+            this.file = requireNonNull(file, "file is null");
+            this.stats = requireNonNull(stats, "stats is null");
+        }
+
+        public FileHolder getFile()
+        {
+            return file;
+        }
+
+        public SpillPathStats getStats()
+        {
+            return stats;
+        }
+    }
+
+    private class StripeWriter
+            implements Closeable
+    {
+        private final Stripe stripe;
+        private final OutputStream output;
+        private DynamicSliceOutput buffer;
+        private long bufferRetainedSize;
+        private ListenableFuture<?> pendingWrite = Futures.immediateFuture(null);
+
+        public StripeWriter(Stripe stripe)
+                throws IOException
+        {
+            this.stripe = requireNonNull(stripe, "stripe is null");
+            this.output = stripe.getFile().newOutputStream(APPEND);
+            this.buffer = newBuffer();
+        }
+
+        public void write(SerializedPage page)
+                throws IOException
+        {
+            writeSerializedPage(buffer, page);
+            updateBufferedBytes(buffer.getRetainedSize() - bufferRetainedSize);
+            bufferRetainedSize = buffer.getRetainedSize();
+            if (buffer.size() >= bufferSize) {
+                flush();
+            }
+        }
+
+        public void finish()
+                throws IOException
+        {
+            if (buffer.size() > 0) {
+                flush();
+            }
+            waitForPendingWrite();
+        }
+
+        private void flush()
+                throws IOException
+        {
+            // only one buffer is written at a time, while the next buffer is filled
+            waitForPendingWrite();
+            Slice data = buffer.slice();
+            long dataRetainedSize = bufferRetainedSize;
+            buffer = newBuffer();
+            long submitted = System.nanoTime();
+            pendingWrite = ioExecutor.submit(() -> {
                 try {
-                    resource.close();
+                    long start = System.nanoTime();
+                    output.write(data.byteArray(), data.byteArrayOffset(), data.length());
+                    stripe.getStats().addWrite(data.length(), start - submitted, System.nanoTime() - start);
+                    return null;
                 }
-                catch (IOException e) {
-                    throw new UncheckedIOException(e);
+                finally {
+                    updateBufferedBytes(-dataRetainedSize);
                 }
-                return endOfData();
+            });
+        }
+
+        private DynamicSliceOutput newBuffer()
+        {
+            DynamicSliceOutput sliceOutput = new DynamicSliceOutput(bufferSize);
+            bufferRetainedSize = sliceOutput.getRetainedSize();
+            updateBufferedBytes(bufferRetainedSize);
+            return sliceOutput;
+        }
+
+        private void waitForPendingWrite()
+                throws IOException
+        {
+            try {
+                pendingWrite.get();
             }
-        };
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while writing spill file");
+            }
+            catch (ExecutionException e) {
+                propagateIfPossible(e.getCause(), IOException.class);
+                throw new IOException(e.getCause());
+            }
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            // the pending write must not race with closing the file, its failure is reported by finish()
+            try {
+                pendingWrite.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException ignored) {
+            }
+            finally {
+                updateBufferedBytes(-bufferRetainedSize);
+                output.close();
+            }
+        }
+    }
+
+    private static class StripeReader
+            implements Closeable
+    {
+        private final Stripe stripe;
+        private final SliceInput input;
+        private final Closeable resource;
+
+        public StripeReader(Stripe stripe, SliceInput input, Closeable resource)
+        {
+            this.stripe = requireNonNull(stripe, "stripe is null");
+            this.input = requireNonNull(input, "input is null");
+            this.resource = requireNonNull(resource, "resource is null");
+        }
+
+        public SerializedPage read()
+        {
+            long start = System.nanoTime();
+            long position = input.position();
+            SerializedPage page = readSerializedPage(input);
+            stripe.getStats().addRead(input.position() - position, System.nanoTime() - start);
+            return page;
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            resource.close();
+        }
     }
 }
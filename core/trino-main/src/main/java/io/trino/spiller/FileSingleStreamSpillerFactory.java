@@ -42,10 +42,13 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.trino.spi.StandardErrorCode.OUT_OF_SPILL_SPACE;
 import static io.trino.sql.analyzer.FeaturesConfig.SPILLER_SPILL_PATH;
+import static java.lang.Math.max;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.createTempFile;
@@ -72,11 +75,15 @@ public class FileSingleStreamSpillerFactory
     private static final Duration SPILL_PATH_HEALTH_EXPIRY_INTERVAL = Duration.ofMinutes(5);
 
     private final ListeningExecutorService executor;
+    private final ListeningExecutorService ioExecutor;
     private final PagesSerdeFactory serdeFactory;
     private final List<Path> spillPaths;
     private final SpillerStats spillerStats;
     private final double maxUsedSpaceThreshold;
     private final boolean spillEncryptionEnabled;
+    private final boolean spillStripingEnabled;
+    private final int spillBufferSize;
+    private final int spillPrefetchPages;
     private int roundRobinIndex;
     private final LoadingCache<Path, Boolean> spillPathHealthCache;
 
@@ -92,7 +99,16 @@ public class FileSingleStreamSpillerFactory
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillerSpillPaths(),
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillMaxUsedSpaceThreshold(),
                 requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillCompressionEnabled(),
-                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled());
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillAdaptiveCompressionEnabled(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillChecksumEnabled(),
+                listeningDecorator(newFixedThreadPool(
+                        // every spiller thread may write to all spill paths at the same time
+                        featuresConfig.getSpillerThreads() * max(1, featuresConfig.getSpillerSpillPaths().size()),
+                        daemonThreadsNamed("binary-spiller-io-%s"))),
+                nodeSpillConfig.isSpillStripingEnabled(),
+                toIntExact(nodeSpillConfig.getSpillBufferSize().toBytes()),
+                nodeSpillConfig.getSpillPrefetchPages());
     }
 
     @VisibleForTesting
@@ -105,8 +121,60 @@ public class FileSingleStreamSpillerFactory
             boolean spillCompressionEnabled,
             boolean spillEncryptionEnabled)
     {
-        this.serdeFactory = new PagesSerdeFactory(blockEncodingSerde, spillCompressionEnabled);
+        this(executor, blockEncodingSerde, spillerStats, spillPaths, maxUsedSpaceThreshold, spillCompressionEnabled, spillEncryptionEnabled, false, false);
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            boolean spillCompressionEnabled,
+            boolean spillEncryptionEnabled,
+            boolean spillAdaptiveCompressionEnabled,
+            boolean spillChecksumEnabled)
+    {
+        this(
+                executor,
+                blockEncodingSerde,
+                spillerStats,
+                spillPaths,
+                maxUsedSpaceThreshold,
+                spillCompressionEnabled,
+                spillEncryptionEnabled,
+                spillAdaptiveCompressionEnabled,
+                spillChecksumEnabled,
+                executor,
+                false,
+                FileSingleStreamSpiller.BUFFER_SIZE,
+                0);
+    }
+
+    /**
+     * @param ioExecutor executor writing and reading the spill files, which must not be the {@code executor}
+     * when it is bounded, as the spilling threads wait for the writes to complete
+     */
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            boolean spillCompressionEnabled,
+            boolean spillEncryptionEnabled,
+            boolean spillAdaptiveCompressionEnabled,
+            boolean spillChecksumEnabled,
+            ListeningExecutorService ioExecutor,
+            boolean spillStripingEnabled,
+            int spillBufferSize,
+            int spillPrefetchPages)
+    {
+        this.serdeFactory = new PagesSerdeFactory(blockEncodingSerde, spillCompressionEnabled, spillAdaptiveCompressionEnabled, spillChecksumEnabled);
         this.executor = requireNonNull(executor, "executor is null");
+        this.ioExecutor = requireNonNull(ioExecutor, "ioExecutor is null");
         this.spillerStats = requireNonNull(spillerStats, "spillerStats cannot be null");
         requireNonNull(spillPaths, "spillPaths is null");
         this.spillPaths = ImmutableList.copyOf(spillPaths);
@@ -123,6 +191,11 @@ public class FileSingleStreamSpillerFactory
         });
         this.maxUsedSpaceThreshold = maxUsedSpaceThreshold;
         this.spillEncryptionEnabled = spillEncryptionEnabled;
+        this.spillStripingEnabled = spillStripingEnabled;
+        checkArgument(spillBufferSize > 0, "spillBufferSize must be positive");
+        this.spillBufferSize = spillBufferSize;
+        checkArgument(spillPrefetchPages >= 0, "spillPrefetchPages is negative");
+        this.spillPrefetchPages = spillPrefetchPages;
         this.roundRobinIndex = 0;
 
         this.spillPathHealthCache = CacheBuilder.newBuilder()
@@ -140,6 +213,7 @@ public class FileSingleStreamSpillerFactory
     public void destroy()
     {
         executor.shutdownNow();
+        ioExecutor.shutdownNow();
     }
 
     private static void cleanupOldSpillFiles(Path path)
@@ -171,7 +245,10 @@ public class FileSingleStreamSpillerFactory
         return new FileSingleStreamSpiller(
                 serde,
                 executor,
-                getNextSpillPath(),
+                ioExecutor,
+                spillStripingEnabled ? getSpillPaths() : ImmutableList.of(getNextSpillPath()),
+                spillBufferSize,
+                spillPrefetchPages,
                 spillerStats,
                 spillContext,
                 memoryContext,
@@ -196,6 +273,30 @@ public class FileSingleStreamSpillerFactory
         throw new TrinoException(OUT_OF_SPILL_SPACE, "No free or healthy space available for spill");
     }
 
+    /**
+     * Returns all paths eligible for spilling, starting at the next path in turn.
+     */
+    private synchronized List<Path> getSpillPaths()
+    {
+        ImmutableList.Builder<Path> paths = ImmutableList.builder();
+        int spillPathsCount = spillPaths.size();
+        for (int i = 0; i < spillPathsCount; ++i) {
+            Path path = spillPaths.get((roundRobinIndex + i) % spillPathsCount);
+            if (hasEnoughDiskSpace(path) && spillPathHealthCache.getUnchecked(path)) {
+                paths.add(path);
+            }
+        }
+        List<Path> result = paths.build();
+        if (result.isEmpty()) {
+            if (spillPaths.isEmpty()) {
+                throw new TrinoException(OUT_OF_SPILL_SPACE, "No spill paths configured");
+            }
+            throw new TrinoException(OUT_OF_SPILL_SPACE, "No free or healthy space available for spill");
+        }
+        roundRobinIndex = (roundRobinIndex + 1) % spillPathsCount;
+        return result;
+    }
+
     private boolean hasEnoughDiskSpace(Path path)
     {
         try {
@@ -14,9 +14,13 @@
 package io.trino.spiller;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.LegacyConfig;
 import io.airlift.units.DataSize;
+import io.airlift.units.MaxDataSize;
+import io.airlift.units.MinDataSize;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 public class NodeSpillConfig
@@ -26,6 +30,11 @@ public class NodeSpillConfig
 
     private boolean spillCompressionEnabled;
     private boolean spillEncryptionEnabled;
+    private boolean spillAdaptiveCompressionEnabled;
+    private boolean spillChecksumEnabled;
+    private boolean spillStripingEnabled;
+    private DataSize spillBufferSize = DataSize.of(4, DataSize.Unit.KILOBYTE);
+    private int spillPrefetchPages;
 
     @NotNull
     public DataSize getMaxSpillPerNode()
@@ -80,4 +89,71 @@ public class NodeSpillConfig
         this.spillEncryptionEnabled = spillEncryptionEnabled;
         return this;
     }
+
+    public boolean isSpillAdaptiveCompressionEnabled()
+    {
+        return spillAdaptiveCompressionEnabled;
+    }
+
+    @Config("spill-adaptive-compression-enabled")
+    public NodeSpillConfig setSpillAdaptiveCompressionEnabled(boolean spillAdaptiveCompressionEnabled)
+    {
+        this.spillAdaptiveCompressionEnabled = spillAdaptiveCompressionEnabled;
+        return this;
+    }
+
+    public boolean isSpillChecksumEnabled()
+    {
+        return spillChecksumEnabled;
+    }
+
+    @Config("spill-checksum-enabled")
+    public NodeSpillConfig setSpillChecksumEnabled(boolean spillChecksumEnabled)
+    {
+        this.spillChecksumEnabled = spillChecksumEnabled;
+        return this;
+    }
+
+    public boolean isSpillStripingEnabled()
+    {
+        return spillStripingEnabled;
+    }
+
+    @Config("spill-striping-enabled")
+    @ConfigDescription("Spread the pages of a spill file over all spill paths")
+    public NodeSpillConfig setSpillStripingEnabled(boolean spillStripingEnabled)
+    {
+        this.spillStripingEnabled = spillStripingEnabled;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("4kB")
+    @MaxDataSize("16MB")
+    public DataSize getSpillBufferSize()
+    {
+        return spillBufferSize;
+    }
+
+    @Config("spill-buffer-size")
+    @ConfigDescription("Size of the buffers used to write and read a spill file")
+    public NodeSpillConfig setSpillBufferSize(DataSize spillBufferSize)
+    {
+        this.spillBufferSize = spillBufferSize;
+        return this;
+    }
+
+    @Min(0)
+    public int getSpillPrefetchPages()
+    {
+        return spillPrefetchPages;
+    }
+
+    @Config("spill-prefetch-pages")
+    @ConfigDescription("Number of spilled pages read ahead while the spilled pages are consumed")
+    public NodeSpillConfig setSpillPrefetchPages(int spillPrefetchPages)
+    {
+        this.spillPrefetchPages = spillPrefetchPages;
+        return this;
+    }
 }
@@ -13,13 +13,30 @@
  */
 package io.trino.spiller;
 
+import com.google.common.collect.ImmutableMap;
+import io.airlift.stats.TimeStat;
 import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 public class SpillerStats
 {
     protected final AtomicLong totalSpilledBytes = new AtomicLong();
+    private final AtomicLong totalWrittenBytes = new AtomicLong();
+    private final AtomicLong totalReadBytes = new AtomicLong();
+    private final TimeStat writeQueuedTime = new TimeStat(MILLISECONDS);
+    private final TimeStat writeTime = new TimeStat(MILLISECONDS);
+    private final TimeStat readTime = new TimeStat(MILLISECONDS);
+    private final ConcurrentMap<Path, SpillPathStats> spillPathStats = new ConcurrentHashMap<>();
 
     @Managed
     public long getTotalSpilledBytes()
@@ -31,4 +48,130 @@ public class SpillerStats
     {
         totalSpilledBytes.addAndGet(delta);
     }
+
+    @Managed
+    public long getTotalWrittenBytes()
+    {
+        return totalWrittenBytes.get();
+    }
+
+    @Managed
+    public long getTotalReadBytes()
+    {
+        return totalReadBytes.get();
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getWriteQueuedTime()
+    {
+        return writeQueuedTime;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getWriteTime()
+    {
+        return writeTime;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getReadTime()
+    {
+        return readTime;
+    }
+
+    /**
+     * Returns the I/O statistics of the spill files written to the spill path. These are exported
+     * by {@link SpillerStatsExporter} for the spill paths of the node.
+     */
+    public SpillPathStats getSpillPathStats(Path spillPath)
+    {
+        return spillPathStats.computeIfAbsent(spillPath, path -> new SpillPathStats());
+    }
+
+    public Map<Path, SpillPathStats> getSpillPathStats()
+    {
+        return ImmutableMap.copyOf(spillPathStats);
+    }
+
+    public class SpillPathStats
+    {
+        private final AtomicLong writtenBytes = new AtomicLong();
+        private final AtomicLong writeQueuedNanos = new AtomicLong();
+        private final AtomicLong writeNanos = new AtomicLong();
+        private final AtomicLong readBytes = new AtomicLong();
+        private final AtomicLong readNanos = new AtomicLong();
+
+        private SpillPathStats() {}
+
+        public void addWrite(long bytes, long queuedNanos, long nanos)
+        {
+            writtenBytes.addAndGet(bytes);
+            writeQueuedNanos.addAndGet(queuedNanos);
+            writeNanos.addAndGet(nanos);
+            totalWrittenBytes.addAndGet(bytes);
+            writeQueuedTime.add(queuedNanos, NANOSECONDS);
+            writeTime.add(nanos, NANOSECONDS);
+        }
+
+        public void addRead(long bytes, long nanos)
+        {
+            readBytes.addAndGet(bytes);
+            readNanos.addAndGet(nanos);
+            totalReadBytes.addAndGet(bytes);
+            readTime.add(nanos, NANOSECONDS);
+        }
+
+        @Managed
+        public long getWrittenBytes()
+        {
+            return writtenBytes.get();
+        }
+
+        @Managed
+        public long getWriteQueuedNanos()
+        {
+            return writeQueuedNanos.get();
+        }
+
+        @Managed
+        public long getWriteNanos()
+        {
+            return writeNanos.get();
+        }
+
+        @Managed
+        public double getWriteBytesPerSecond()
+        {
+            return bytesPerSecond(writtenBytes.get(), writeNanos.get());
+        }
+
+        @Managed
+        public long getReadBytes()
+        {
+            return readBytes.get();
+        }
+
+        @Managed
+        public long getReadNanos()
+        {
+            return readNanos.get();
+        }
+
+        @Managed
+        public double getReadBytesPerSecond()
+        {
+            return bytesPerSecond(readBytes.get(), readNanos.get());
+        }
+
+        private double bytesPerSecond(long bytes, long nanos)
+        {
+            if (nanos == 0) {
+                return 0;
+            }
+            return bytes * (double) SECONDS.toNanos(1) / nanos;
+        }
+    }
 }
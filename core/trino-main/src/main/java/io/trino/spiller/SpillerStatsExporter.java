@@ -0,0 +1,69 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spiller;
+
+import com.google.common.collect.ImmutableMap;
+import io.trino.sql.analyzer.FeaturesConfig;
+import org.weakref.jmx.JmxException;
+import org.weakref.jmx.MBeanExport;
+import org.weakref.jmx.MBeanExporter;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.GuardedBy;
+import javax.inject.Inject;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Exports the I/O statistics of every spill path of the node.
+ */
+public final class SpillerStatsExporter
+{
+    @GuardedBy("this")
+    private final List<MBeanExport> mbeanExports = new ArrayList<>();
+
+    @Inject
+    public SpillerStatsExporter(SpillerStats spillerStats, FeaturesConfig featuresConfig, MBeanExporter exporter)
+    {
+        requireNonNull(spillerStats, "spillerStats is null");
+        requireNonNull(featuresConfig, "featuresConfig is null");
+        requireNonNull(exporter, "exporter is null");
+        for (Path spillPath : featuresConfig.getSpillerSpillPaths()) {
+            try {
+                mbeanExports.add(exporter.exportWithGeneratedName(spillerStats.getSpillPathStats(spillPath), SpillerStats.class, ImmutableMap.of("name", "SpillerStats", "path", spillPath.toString())));
+            }
+            catch (JmxException e) {
+                // ignored
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void destroy()
+    {
+        for (MBeanExport mbeanExport : mbeanExports) {
+            try {
+                mbeanExport.unexport();
+            }
+            catch (JmxException e) {
+                // ignored
+            }
+        }
+        mbeanExports.clear();
+    }
+}
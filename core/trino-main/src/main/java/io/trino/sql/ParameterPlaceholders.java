@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.metadata.Metadata;
+import io.trino.metadata.ResolvedFunction;
+import io.trino.spi.function.ScalarFunction;
+import io.trino.spi.function.SqlNullable;
+import io.trino.spi.function.SqlType;
+import io.trino.spi.function.TypeParameter;
+import io.trino.spi.type.StandardTypes;
+import io.trino.spi.type.Type;
+import io.trino.sql.tree.Expression;
+import io.trino.sql.tree.ExpressionRewriter;
+import io.trino.sql.tree.ExpressionTreeRewriter;
+import io.trino.sql.tree.FunctionCall;
+import io.trino.sql.tree.LongLiteral;
+import io.trino.sql.tree.QualifiedName;
+
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.trino.spi.type.IntegerType.INTEGER;
+import static io.trino.sql.analyzer.TypeSignatureProvider.fromTypes;
+import static io.trino.sql.util.AstUtils.preOrder;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Placeholders of the parameters of a prepared statement in a plan, which is planned once and executed
+ * with other values of the parameters. A placeholder returns the value of the parameter the plan was
+ * created with, but it is not constant folded, so that the optimizers do not make the plan depend on the
+ * value. The placeholders are replaced with the values of the parameters before the plan is executed.
+ */
+public final class ParameterPlaceholders
+{
+    private ParameterPlaceholders() {}
+
+    public static ResolvedFunction resolvePlaceholderFunction(Metadata metadata, Type type)
+    {
+        return metadata.resolveFunction(QualifiedName.of(Function.NAME), fromTypes(type, INTEGER));
+    }
+
+    public static Expression createPlaceholder(ResolvedFunction placeholderFunction, Expression value, int position)
+    {
+        return new FunctionCall(placeholderFunction.toQualifiedName(), ImmutableList.of(value, new LongLiteral(String.valueOf(position))));
+    }
+
+    public static boolean isPlaceholder(Expression expression)
+    {
+        return expression instanceof FunctionCall &&
+                ResolvedFunction.extractFunctionName(((FunctionCall) expression).getName()).equals(Function.NAME);
+    }
+
+    public static Set<Integer> extractPlaceholderPositions(Expression expression)
+    {
+        return preOrder(expression)
+                .filter(Expression.class::isInstance)
+                .map(Expression.class::cast)
+                .filter(ParameterPlaceholders::isPlaceholder)
+                .map(ParameterPlaceholders::getPosition)
+                .collect(toImmutableSet());
+    }
+
+    /**
+     * Replaces the placeholders with the values of the parameters, by their positions.
+     */
+    public static Expression bindPlaceholders(Expression expression, Map<Integer, Expression> values)
+    {
+        requireNonNull(values, "values is null");
+        return ExpressionTreeRewriter.rewriteWith(new ExpressionRewriter<Void>()
+        {
+            @Override
+            public Expression rewriteFunctionCall(FunctionCall node, Void context, ExpressionTreeRewriter<Void> treeRewriter)
+            {
+                if (!isPlaceholder(node)) {
+                    return treeRewriter.defaultRewrite(node, context);
+                }
+                int position = getPosition(node);
+                Expression value = values.get(position);
+                checkArgument(value != null, "No value of parameter %s", position);
+                return value;
+            }
+        }, expression);
+    }
+
+    private static int getPosition(Expression placeholder)
+    {
+        Expression position = ((FunctionCall) placeholder).getArguments().get(1);
+        checkArgument(position instanceof LongLiteral, "Position of placeholder is not a literal: %s", position);
+        return toIntExact(((LongLiteral) position).getValue());
+    }
+
+    @ScalarFunction(value = Function.NAME, hidden = true)
+    public static final class Function
+    {
+        private Function() {}
+
+        private static final String NAME = "$internal$parameter_placeholder";
+
+        @TypeParameter("T")
+        @SqlNullable
+        @SqlType("T")
+        public static Object placeholder(@SqlNullable @SqlType("T") Object value, @SqlType(StandardTypes.INTEGER) long position)
+        {
+            return value;
+        }
+
+        @TypeParameter("T")
+        @SqlNullable
+        @SqlType("T")
+        public static Long placeholder(@SqlNullable @SqlType("T") Long value, @SqlType(StandardTypes.INTEGER) long position)
+        {
+            return value;
+        }
+
+        @TypeParameter("T")
+        @SqlNullable
+        @SqlType("T")
+        public static Boolean placeholder(@SqlNullable @SqlType("T") Boolean value, @SqlType(StandardTypes.INTEGER) long position)
+        {
+            return value;
+        }
+
+        @TypeParameter("T")
+        @SqlNullable
+        @SqlType("T")
+        public static Double placeholder(@SqlNullable @SqlType("T") Double value, @SqlType(StandardTypes.INTEGER) long position)
+        {
+            return value;
+        }
+    }
+}
@@ -99,6 +99,8 @@ public class Analysis
     @Nullable
     private final Statement root;
     private final Map<NodeRef<Parameter>, Expression> parameters;
+    // functions of the placeholders, which the parameters are planned as, when the plan is reused with other values
+    private final Map<NodeRef<Parameter>, ResolvedFunction> parameterPlaceholders = new LinkedHashMap<>();
     private String updateType;
     private Optional<UpdateTarget> target = Optional.empty();
     private boolean skipMaterializedViewRefresh;
@@ -811,6 +813,17 @@ public class Analysis
         return parameters;
     }
 
+    public void setParameterPlaceholders(Map<NodeRef<Parameter>, ResolvedFunction> parameterPlaceholders)
+    {
+        this.parameterPlaceholders.clear();
+        this.parameterPlaceholders.putAll(parameterPlaceholders);
+    }
+
+    public Optional<ResolvedFunction> getParameterPlaceholder(Parameter parameter)
+    {
+        return Optional.ofNullable(parameterPlaceholders.get(NodeRef.of(parameter)));
+    }
+
     public boolean isDescribe()
     {
         return isDescribe;
@@ -89,15 +89,19 @@ public class FeaturesConfig
     private boolean pushTableWriteThroughUnion = true;
     private DataIntegrityVerification exchangeDataIntegrityVerification = DataIntegrityVerification.ABORT;
     private boolean exchangeCompressionEnabled;
+    private boolean exchangeAdaptiveCompressionEnabled;
     private boolean optimizeMixedDistinctAggregations;
     private boolean unwrapCasts = true;
     private boolean forceSingleNodeOutput = true;
     private boolean pagesIndexEagerCompactionEnabled;
+    private boolean pagesIndexNormalizedSortKeysEnabled;
     private boolean distributedSort = true;
     private boolean omitDateTimeTypePrecision;
     private int maxRecursionDepth = 10;
 
-    private boolean dictionaryAggregation;
+    private boolean dictionaryAggregation = true;
+    private boolean flatGroupByHashEnabled;
+    private boolean radixPartitionedJoinHashEnabled;
 
     private int re2JDfaStatesLimit = Integer.MAX_VALUE;
     private int re2JDfaRetries = 5;
@@ -132,6 +136,14 @@ public class FeaturesConfig
     private boolean useLegacyWindowFilterPushdown;
     private boolean useTableScanNodePartitioning = true;
     private double tableScanNodePartitioningMinBucketToTaskRatio = 0.5;
+    private boolean adaptivePartialAggregationEnabled = true;
+    private long adaptivePartialAggregationMinRows = 100_000;
+    private double adaptivePartialAggregationUniqueRowsRatioThreshold = 0.8;
+    private boolean adaptiveJoinDistributionEnabled;
+    private boolean skewedJoinHandlingEnabled;
+    private double skewedJoinHandlingMinKeyFraction = 0.1;
+    private int skewedJoinHandlingSampleRows = 10_000;
+    private boolean useHistoryBasedStatistics;
 
     private Duration iterativeOptimizerTimeout = new Duration(3, MINUTES); // by default let optimizer wait a long time in case it retrieves some data from ConnectorMetadata
     private DataSize filterAndProjectMinOutputPageSize = DataSize.of(500, KILOBYTE);
@@ -500,6 +512,32 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isFlatGroupByHashEnabled()
+    {
+        return flatGroupByHashEnabled;
+    }
+
+    @Config("flat-group-by-hash.enabled")
+    @ConfigDescription("Store multi-column group by keys in a flat row oriented hash table")
+    public FeaturesConfig setFlatGroupByHashEnabled(boolean flatGroupByHashEnabled)
+    {
+        this.flatGroupByHashEnabled = flatGroupByHashEnabled;
+        return this;
+    }
+
+    public boolean isRadixPartitionedJoinHashEnabled()
+    {
+        return radixPartitionedJoinHashEnabled;
+    }
+
+    @Config("radix-partitioned-join-hash.enabled")
+    @ConfigDescription("Build join hash tables larger than the CPU cache in cache sized partitions")
+    public FeaturesConfig setRadixPartitionedJoinHashEnabled(boolean radixPartitionedJoinHashEnabled)
+    {
+        this.radixPartitionedJoinHashEnabled = radixPartitionedJoinHashEnabled;
+        return this;
+    }
+
     @Min(2)
     public int getRe2JDfaStatesLimit()
     {
@@ -775,6 +813,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isExchangeAdaptiveCompressionEnabled()
+    {
+        return exchangeAdaptiveCompressionEnabled;
+    }
+
+    @Config("exchange.adaptive-compression-enabled")
+    @ConfigDescription("Compress each column of exchanged pages with a codec chosen by the observed compression ratio and cost")
+    public FeaturesConfig setExchangeAdaptiveCompressionEnabled(boolean exchangeAdaptiveCompressionEnabled)
+    {
+        this.exchangeAdaptiveCompressionEnabled = exchangeAdaptiveCompressionEnabled;
+        return this;
+    }
+
     public DataIntegrityVerification getExchangeDataIntegrityVerification()
     {
         return exchangeDataIntegrityVerification;
@@ -860,6 +911,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isPagesIndexNormalizedSortKeysEnabled()
+    {
+        return pagesIndexNormalizedSortKeysEnabled;
+    }
+
+    @Config("pages-index.normalized-sort-keys-enabled")
+    @ConfigDescription("Sort by normalized keys of the leading sort column before comparing full rows")
+    public FeaturesConfig setPagesIndexNormalizedSortKeysEnabled(boolean pagesIndexNormalizedSortKeysEnabled)
+    {
+        this.pagesIndexNormalizedSortKeysEnabled = pagesIndexNormalizedSortKeysEnabled;
+        return this;
+    }
+
     @MaxDataSize("1MB")
     public DataSize getFilterAndProjectMinOutputPageSize()
     {
@@ -1048,4 +1112,114 @@ public class FeaturesConfig
         this.tableScanNodePartitioningMinBucketToTaskRatio = tableScanNodePartitioningMinBucketToTaskRatio;
         return this;
     }
+
+    public boolean isAdaptivePartialAggregationEnabled()
+    {
+        return adaptivePartialAggregationEnabled;
+    }
+
+    @Config("adaptive-partial-aggregation.enabled")
+    @ConfigDescription("Disable partial aggregation at runtime when it does not reduce the number of rows")
+    public FeaturesConfig setAdaptivePartialAggregationEnabled(boolean adaptivePartialAggregationEnabled)
+    {
+        this.adaptivePartialAggregationEnabled = adaptivePartialAggregationEnabled;
+        return this;
+    }
+
+    @Min(0)
+    public long getAdaptivePartialAggregationMinRows()
+    {
+        return adaptivePartialAggregationMinRows;
+    }
+
+    @Config("adaptive-partial-aggregation.min-rows")
+    @ConfigDescription("Minimum number of processed rows before partial aggregation might be adaptively turned off")
+    public FeaturesConfig setAdaptivePartialAggregationMinRows(long adaptivePartialAggregationMinRows)
+    {
+        this.adaptivePartialAggregationMinRows = adaptivePartialAggregationMinRows;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getAdaptivePartialAggregationUniqueRowsRatioThreshold()
+    {
+        return adaptivePartialAggregationUniqueRowsRatioThreshold;
+    }
+
+    @Config("adaptive-partial-aggregation.unique-rows-ratio-threshold")
+    @ConfigDescription("Ratio between aggregation output and input rows above which partial aggregation might be adaptively turned off")
+    public FeaturesConfig setAdaptivePartialAggregationUniqueRowsRatioThreshold(double adaptivePartialAggregationUniqueRowsRatioThreshold)
+    {
+        this.adaptivePartialAggregationUniqueRowsRatioThreshold = adaptivePartialAggregationUniqueRowsRatioThreshold;
+        return this;
+    }
+
+    public boolean isAdaptiveJoinDistributionEnabled()
+    {
+        return adaptiveJoinDistributionEnabled;
+    }
+
+    @Config("adaptive-join-distribution.enabled")
+    @ConfigDescription("Plan the query again when the build side of a broadcast join turns out to be larger than the maximum broadcast table size")
+    public FeaturesConfig setAdaptiveJoinDistributionEnabled(boolean adaptiveJoinDistributionEnabled)
+    {
+        this.adaptiveJoinDistributionEnabled = adaptiveJoinDistributionEnabled;
+        return this;
+    }
+
+    public boolean isSkewedJoinHandlingEnabled()
+    {
+        return skewedJoinHandlingEnabled;
+    }
+
+    @Config("skewed-join-handling.enabled")
+    @ConfigDescription("Spread the probe rows of the most common join keys across all partitions of a partitioned join, and send the matching build rows to all of them")
+    public FeaturesConfig setSkewedJoinHandlingEnabled(boolean skewedJoinHandlingEnabled)
+    {
+        this.skewedJoinHandlingEnabled = skewedJoinHandlingEnabled;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getSkewedJoinHandlingMinKeyFraction()
+    {
+        return skewedJoinHandlingMinKeyFraction;
+    }
+
+    @Config("skewed-join-handling.min-key-fraction")
+    @ConfigDescription("Minimum fraction of the probe rows holding a join key, for the key to be handled as skewed")
+    public FeaturesConfig setSkewedJoinHandlingMinKeyFraction(double skewedJoinHandlingMinKeyFraction)
+    {
+        this.skewedJoinHandlingMinKeyFraction = skewedJoinHandlingMinKeyFraction;
+        return this;
+    }
+
+    @Min(0)
+    public int getSkewedJoinHandlingSampleRows()
+    {
+        return skewedJoinHandlingSampleRows;
+    }
+
+    @Config("skewed-join-handling.sample-rows")
+    @ConfigDescription("Number of rows of the probe table sampled for the most common join keys, when the connector does not report them")
+    public FeaturesConfig setSkewedJoinHandlingSampleRows(int skewedJoinHandlingSampleRows)
+    {
+        this.skewedJoinHandlingSampleRows = skewedJoinHandlingSampleRows;
+        return this;
+    }
+
+    public boolean isUseHistoryBasedStatistics()
+    {
+        return useHistoryBasedStatistics;
+    }
+
+    @Config("optimizer.use-history-based-statistics")
+    @ConfigDescription("Record the actual output of plan subtrees of completed queries, and use it instead of the estimated output of the same subtrees")
+    public FeaturesConfig setUseHistoryBasedStatistics(boolean useHistoryBasedStatistics)
+    {
+        this.useHistoryBasedStatistics = useHistoryBasedStatistics;
+        return this;
+    }
 }
@@ -48,22 +48,30 @@ import static io.airlift.bytecode.ParameterizedType.type;
 import static io.trino.spi.StandardErrorCode.COMPILER_ERROR;
 import static io.trino.spi.type.BooleanType.BOOLEAN;
 import static io.trino.sql.gen.BytecodeUtils.invoke;
+import static io.trino.sql.gen.GeneratedClassCache.disabledGeneratedClassCache;
+import static io.trino.sql.gen.GeneratedClassKeys.rowExpressionsKey;
 import static io.trino.sql.relational.Expressions.constant;
-import static io.trino.util.CompilerUtils.defineClass;
 import static io.trino.util.CompilerUtils.makeClassName;
 import static java.util.Objects.requireNonNull;
 
 public class ExpressionCompiler
 {
     private final PageFunctionCompiler pageFunctionCompiler;
+    private final GeneratedClassCache generatedClassCache;
     private final LoadingCache<CacheKey, Class<? extends CursorProcessor>> cursorProcessors;
     private final CacheStatsMBean cacheStatsMBean;
 
-    @Inject
     public ExpressionCompiler(Metadata metadata, PageFunctionCompiler pageFunctionCompiler)
+    {
+        this(metadata, pageFunctionCompiler, disabledGeneratedClassCache());
+    }
+
+    @Inject
+    public ExpressionCompiler(Metadata metadata, PageFunctionCompiler pageFunctionCompiler, GeneratedClassCache generatedClassCache)
     {
         requireNonNull(metadata, "metadata is null");
         this.pageFunctionCompiler = requireNonNull(pageFunctionCompiler, "pageFunctionCompiler is null");
+        this.generatedClassCache = requireNonNull(generatedClassCache, "generatedClassCache is null");
         this.cursorProcessors = CacheBuilder.newBuilder()
                 .recordStats()
                 .maximumSize(1000)
@@ -164,7 +172,12 @@ public class ExpressionCompiler
                         .add("projections", projections)
                         .toString());
 
-        return defineClass(classDefinition, superType, callSiteBinder.getBindings(), getClass().getClassLoader());
+        return generatedClassCache.defineCachedClass(
+                rowExpressionsKey(ImmutableList.<RowExpression>builder().add(filter).addAll(projections).build()).map(key -> superType.getSimpleName() + key),
+                classDefinition,
+                superType,
+                callSiteBinder.getBindings(),
+                getClass().getClassLoader());
     }
 
     private static void generateToString(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, String string)
@@ -0,0 +1,441 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql.gen;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.bytecode.BytecodeBlock;
+import io.airlift.bytecode.BytecodeNode;
+import io.airlift.bytecode.ClassDefinition;
+import io.airlift.bytecode.MethodDefinition;
+import io.airlift.bytecode.Parameter;
+import io.airlift.bytecode.Scope;
+import io.airlift.bytecode.Variable;
+import io.airlift.bytecode.control.IfStatement;
+import io.airlift.bytecode.expression.BytecodeExpression;
+import io.airlift.slice.Slice;
+import io.trino.annotation.UsedByGeneratedCode;
+import io.trino.operator.FlatGroupByHashStrategy;
+import io.trino.operator.VariableWidthData;
+import io.trino.operator.scalar.CombineHashFunction;
+import io.trino.spi.Page;
+import io.trino.spi.PageBuilder;
+import io.trino.spi.block.Block;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.type.Type;
+import io.trino.spi.type.TypeOperators;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.bytecode.Access.FINAL;
+import static io.airlift.bytecode.Access.PUBLIC;
+import static io.airlift.bytecode.Access.a;
+import static io.airlift.bytecode.Parameter.arg;
+import static io.airlift.bytecode.ParameterizedType.type;
+import static io.airlift.bytecode.expression.BytecodeExpressions.add;
+import static io.airlift.bytecode.expression.BytecodeExpressions.constantFalse;
+import static io.airlift.bytecode.expression.BytecodeExpressions.constantInt;
+import static io.airlift.bytecode.expression.BytecodeExpressions.constantLong;
+import static io.airlift.bytecode.expression.BytecodeExpressions.constantTrue;
+import static io.airlift.bytecode.expression.BytecodeExpressions.invokeDynamic;
+import static io.airlift.bytecode.expression.BytecodeExpressions.invokeStatic;
+import static io.trino.spi.function.InvocationConvention.InvocationArgumentConvention.BLOCK_POSITION;
+import static io.trino.spi.function.InvocationConvention.InvocationArgumentConvention.NEVER_NULL;
+import static io.trino.spi.function.InvocationConvention.InvocationReturnConvention.FAIL_ON_NULL;
+import static io.trino.spi.function.InvocationConvention.simpleConvention;
+import static io.trino.sql.gen.Bootstrap.BOOTSTRAP_METHOD;
+import static io.trino.sql.gen.SqlTypeBytecodeExpression.constantType;
+import static io.trino.sql.planner.optimizations.HashGenerationOptimizer.INITIAL_HASH_VALUE;
+import static io.trino.util.CompilerUtils.defineClass;
+import static io.trino.util.CompilerUtils.makeClassName;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Generates a {@link FlatGroupByHashStrategy} for a list of key types. Each key
+ * channel is stored as a null flag byte followed by the value: 8 bytes for
+ * {@code long} and {@code double}, 1 byte for {@code boolean}, and a
+ * {@link VariableWidthData} pointer for {@link Slice} values.
+ */
+public final class FlatGroupByHashStrategyCompiler
+{
+    private static final VarHandle LONG_HANDLE = MethodHandles.byteArrayViewVarHandle(long[].class, LITTLE_ENDIAN);
+    private static final VarHandle DOUBLE_HANDLE = MethodHandles.byteArrayViewVarHandle(double[].class, LITTLE_ENDIAN);
+
+    private FlatGroupByHashStrategyCompiler() {}
+
+    public static boolean isSupportedType(Type type)
+    {
+        Class<?> javaType = type.getJavaType();
+        return javaType == long.class || javaType == double.class || javaType == boolean.class || javaType == Slice.class;
+    }
+
+    public static FlatGroupByHashStrategy compileFlatGroupByHashStrategy(List<Type> types, TypeOperators typeOperators)
+    {
+        checkArgument(types.stream().allMatch(FlatGroupByHashStrategyCompiler::isSupportedType), "Unsupported types: %s", types);
+
+        List<KeyField> keyFields = layoutKeyFields(types);
+        int fixedSize = keyFields.isEmpty() ? 0 : keyFields.get(keyFields.size() - 1).getEndOffset();
+
+        CallSiteBinder callSiteBinder = new CallSiteBinder();
+        ClassDefinition classDefinition = new ClassDefinition(
+                a(PUBLIC, FINAL),
+                makeClassName("FlatGroupByHashStrategy"),
+                type(Object.class),
+                type(FlatGroupByHashStrategy.class));
+
+        classDefinition.declareDefaultConstructor(a(PUBLIC));
+
+        classDefinition.declareMethod(a(PUBLIC), "getFixedSize", type(int.class))
+                .getBody()
+                .append(constantInt(fixedSize).ret());
+
+        generateHashMethod(classDefinition, callSiteBinder, typeOperators, keyFields);
+        generateWriteFlatMethod(classDefinition, callSiteBinder, keyFields);
+        generateValueNotDistinctFromRowMethod(classDefinition, callSiteBinder, typeOperators, keyFields);
+        generateAppendToMethod(classDefinition, callSiteBinder, keyFields);
+
+        Class<? extends FlatGroupByHashStrategy> strategyClass = defineClass(classDefinition, FlatGroupByHashStrategy.class, callSiteBinder.getBindings(), FlatGroupByHashStrategyCompiler.class.getClassLoader());
+        try {
+            return strategyClass.getConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static List<KeyField> layoutKeyFields(List<Type> types)
+    {
+        ImmutableList.Builder<KeyField> keyFields = ImmutableList.builder();
+        int offset = 0;
+        for (int index = 0; index < types.size(); index++) {
+            Type type = types.get(index);
+            KeyField keyField = new KeyField(index, type, offset, offset + 1, getFlatValueSize(type));
+            keyFields.add(keyField);
+            offset = keyField.getEndOffset();
+        }
+        return keyFields.build();
+    }
+
+    private static int getFlatValueSize(Type type)
+    {
+        Class<?> javaType = type.getJavaType();
+        if (javaType == long.class) {
+            return Long.BYTES;
+        }
+        if (javaType == double.class) {
+            return Double.BYTES;
+        }
+        if (javaType == boolean.class) {
+            return Byte.BYTES;
+        }
+        return VariableWidthData.POINTER_SIZE;
+    }
+
+    private static void generateHashMethod(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, TypeOperators typeOperators, List<KeyField> keyFields)
+    {
+        Parameter page = arg("page", Page.class);
+        Parameter position = arg("position", int.class);
+        Parameter channels = arg("channels", int[].class);
+        MethodDefinition hashMethod = classDefinition.declareMethod(a(PUBLIC), "hash", type(long.class), page, position, channels);
+
+        Scope scope = hashMethod.getScope();
+        BytecodeBlock body = hashMethod.getBody();
+        Variable block = scope.declareVariable(Block.class, "block");
+        Variable result = scope.declareVariable(long.class, "result");
+        body.append(result.set(constantLong(INITIAL_HASH_VALUE)));
+
+        for (KeyField keyField : keyFields) {
+            MethodHandle hashCodeOperator = typeOperators.getHashCodeOperator(keyField.getType(), simpleConvention(FAIL_ON_NULL, BLOCK_POSITION));
+            body.append(block.set(page.invoke("getBlock", Block.class, channels.getElement(keyField.getIndex()))))
+                    .getVariable(result)
+                    .append(new IfStatement()
+                            .condition(block.invoke("isNull", boolean.class, position))
+                            .ifTrue(constantLong(0L))
+                            .ifFalse(invokeDynamic(
+                                    BOOTSTRAP_METHOD,
+                                    ImmutableList.of(callSiteBinder.bind(hashCodeOperator).getBindingId()),
+                                    "hash",
+                                    hashCodeOperator.type(),
+                                    block,
+                                    position)))
+                    .invokeStatic(CombineHashFunction.class, "getHash", long.class, long.class, long.class)
+                    .putVariable(result);
+        }
+
+        body.append(result.ret());
+    }
+
+    private static void generateWriteFlatMethod(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, List<KeyField> keyFields)
+    {
+        Parameter page = arg("page", Page.class);
+        Parameter position = arg("position", int.class);
+        Parameter channels = arg("channels", int[].class);
+        Parameter fixed = arg("fixed", byte[].class);
+        Parameter fixedOffset = arg("fixedOffset", int.class);
+        Parameter variableWidthData = arg("variableWidthData", VariableWidthData.class);
+        MethodDefinition writeFlatMethod = classDefinition.declareMethod(
+                a(PUBLIC),
+                "writeFlat",
+                type(void.class),
+                page,
+                position,
+                channels,
+                fixed,
+                fixedOffset,
+                variableWidthData);
+
+        Scope scope = writeFlatMethod.getScope();
+        BytecodeBlock body = writeFlatMethod.getBody();
+        Variable block = scope.declareVariable(Block.class, "block");
+
+        for (KeyField keyField : keyFields) {
+            body.append(block.set(page.invoke("getBlock", Block.class, channels.getElement(keyField.getIndex()))));
+            body.append(new IfStatement()
+                    .condition(block.invoke("isNull", boolean.class, position))
+                    .ifTrue(invokeStatic(FlatGroupByHashStrategyCompiler.class, "writeNull", void.class, fixed, add(fixedOffset, constantInt(keyField.getNullOffset()))))
+                    .ifFalse(writeFlatValue(
+                            keyField.getType(),
+                            fixed,
+                            add(fixedOffset, constantInt(keyField.getValueOffset())),
+                            variableWidthData,
+                            constantType(callSiteBinder, keyField.getType()).getValue(block, position))));
+        }
+
+        body.ret();
+    }
+
+    private static void generateValueNotDistinctFromRowMethod(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, TypeOperators typeOperators, List<KeyField> keyFields)
+    {
+        Parameter fixed = arg("fixed", byte[].class);
+        Parameter fixedOffset = arg("fixedOffset", int.class);
+        Parameter variableWidthData = arg("variableWidthData", VariableWidthData.class);
+        Parameter page = arg("page", Page.class);
+        Parameter position = arg("position", int.class);
+        Parameter channels = arg("channels", int[].class);
+        MethodDefinition valueNotDistinctFromRowMethod = classDefinition.declareMethod(
+                a(PUBLIC),
+                "valueNotDistinctFromRow",
+                type(boolean.class),
+                fixed,
+                fixedOffset,
+                variableWidthData,
+                page,
+                position,
+                channels);
+
+        Scope scope = valueNotDistinctFromRowMethod.getScope();
+        BytecodeBlock body = valueNotDistinctFromRowMethod.getBody();
+        Variable rightBlock = scope.declareVariable(Block.class, "rightBlock");
+        Variable rightIsNull = scope.declareVariable(boolean.class, "rightIsNull");
+
+        for (KeyField keyField : keyFields) {
+            Type type = keyField.getType();
+            MethodHandle distinctFromOperator = typeOperators.getDistinctFromOperator(type, simpleConvention(FAIL_ON_NULL, NEVER_NULL, NEVER_NULL));
+            BytecodeExpression distinctFrom = invokeDynamic(
+                    BOOTSTRAP_METHOD,
+                    ImmutableList.of(callSiteBinder.bind(distinctFromOperator).getBindingId()),
+                    "distinctFrom",
+                    distinctFromOperator.type(),
+                    readFlatValue(type, fixed, add(fixedOffset, constantInt(keyField.getValueOffset())), variableWidthData),
+                    constantType(callSiteBinder, type).getValue(rightBlock, position));
+
+            body.append(rightBlock.set(page.invoke("getBlock", Block.class, channels.getElement(keyField.getIndex()))));
+            body.append(rightIsNull.set(rightBlock.invoke("isNull", boolean.class, position)));
+            body.append(new IfStatement()
+                    .condition(invokeStatic(FlatGroupByHashStrategyCompiler.class, "isNull", boolean.class, fixed, add(fixedOffset, constantInt(keyField.getNullOffset()))))
+                    .ifTrue(new IfStatement()
+                            .condition(rightIsNull)
+                            .ifFalse(constantFalse().ret()))
+                    .ifFalse(new IfStatement()
+                            .condition(rightIsNull)
+                            .ifTrue(constantFalse().ret())
+                            .ifFalse(new IfStatement()
+                                    .condition(distinctFrom)
+                                    .ifTrue(constantFalse().ret()))));
+        }
+
+        body.append(constantTrue().ret());
+    }
+
+    private static void generateAppendToMethod(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, List<KeyField> keyFields)
+    {
+        Parameter fixed = arg("fixed", byte[].class);
+        Parameter fixedOffset = arg("fixedOffset", int.class);
+        Parameter variableWidthData = arg("variableWidthData", VariableWidthData.class);
+        Parameter pageBuilder = arg("pageBuilder", PageBuilder.class);
+        Parameter outputChannelOffset = arg("outputChannelOffset", int.class);
+        MethodDefinition appendToMethod = classDefinition.declareMethod(
+                a(PUBLIC),
+                "appendTo",
+                type(void.class),
+                fixed,
+                fixedOffset,
+                variableWidthData,
+                pageBuilder,
+                outputChannelOffset);
+
+        Scope scope = appendToMethod.getScope();
+        BytecodeBlock body = appendToMethod.getBody();
+        Variable blockBuilder = scope.declareVariable(BlockBuilder.class, "blockBuilder");
+
+        for (KeyField keyField : keyFields) {
+            Type type = keyField.getType();
+            body.append(blockBuilder.set(pageBuilder.invoke("getBlockBuilder", BlockBuilder.class, add(outputChannelOffset, constantInt(keyField.getIndex())))));
+            body.append(new IfStatement()
+                    .condition(invokeStatic(FlatGroupByHashStrategyCompiler.class, "isNull", boolean.class, fixed, add(fixedOffset, constantInt(keyField.getNullOffset()))))
+                    .ifTrue(blockBuilder.invoke("appendNull", BlockBuilder.class).pop())
+                    .ifFalse(constantType(callSiteBinder, type).writeValue(
+                            blockBuilder,
+                            readFlatValue(type, fixed, add(fixedOffset, constantInt(keyField.getValueOffset())), variableWidthData))));
+        }
+
+        body.ret();
+    }
+
+    private static BytecodeExpression readFlatValue(Type type, BytecodeExpression fixed, BytecodeExpression offset, BytecodeExpression variableWidthData)
+    {
+        Class<?> javaType = type.getJavaType();
+        if (javaType == long.class) {
+            return invokeStatic(FlatGroupByHashStrategyCompiler.class, "readLong", long.class, fixed, offset);
+        }
+        if (javaType == double.class) {
+            return invokeStatic(FlatGroupByHashStrategyCompiler.class, "readDouble", double.class, fixed, offset);
+        }
+        if (javaType == boolean.class) {
+            return invokeStatic(FlatGroupByHashStrategyCompiler.class, "readBoolean", boolean.class, fixed, offset);
+        }
+        return invokeStatic(FlatGroupByHashStrategyCompiler.class, "readSlice", Slice.class, fixed, offset, variableWidthData);
+    }
+
+    private static BytecodeNode writeFlatValue(Type type, BytecodeExpression fixed, BytecodeExpression offset, BytecodeExpression variableWidthData, BytecodeExpression value)
+    {
+        Class<?> javaType = type.getJavaType();
+        if (javaType == long.class) {
+            return invokeStatic(FlatGroupByHashStrategyCompiler.class, "writeLong", void.class, fixed, offset, value);
+        }
+        if (javaType == double.class) {
+            return invokeStatic(FlatGroupByHashStrategyCompiler.class, "writeDouble", void.class, fixed, offset, value);
+        }
+        if (javaType == boolean.class) {
+            return invokeStatic(FlatGroupByHashStrategyCompiler.class, "writeBoolean", void.class, fixed, offset, value);
+        }
+        return invokeStatic(FlatGroupByHashStrategyCompiler.class, "writeSlice", void.class, fixed, offset, variableWidthData, value);
+    }
+
+    @UsedByGeneratedCode
+    public static boolean isNull(byte[] fixed, int offset)
+    {
+        return fixed[offset] != 0;
+    }
+
+    @UsedByGeneratedCode
+    public static void writeNull(byte[] fixed, int offset)
+    {
+        fixed[offset] = 1;
+    }
+
+    @UsedByGeneratedCode
+    public static long readLong(byte[] fixed, int offset)
+    {
+        return (long) LONG_HANDLE.get(fixed, offset);
+    }
+
+    @UsedByGeneratedCode
+    public static void writeLong(byte[] fixed, int offset, long value)
+    {
+        LONG_HANDLE.set(fixed, offset, value);
+    }
+
+    @UsedByGeneratedCode
+    public static double readDouble(byte[] fixed, int offset)
+    {
+        return (double) DOUBLE_HANDLE.get(fixed, offset);
+    }
+
+    @UsedByGeneratedCode
+    public static void writeDouble(byte[] fixed, int offset, double value)
+    {
+        DOUBLE_HANDLE.set(fixed, offset, value);
+    }
+
+    @UsedByGeneratedCode
+    public static boolean readBoolean(byte[] fixed, int offset)
+    {
+        return fixed[offset] != 0;
+    }
+
+    @UsedByGeneratedCode
+    public static void writeBoolean(byte[] fixed, int offset, boolean value)
+    {
+        fixed[offset] = (byte) (value ? 1 : 0);
+    }
+
+    @UsedByGeneratedCode
+    public static Slice readSlice(byte[] fixed, int offset, VariableWidthData variableWidthData)
+    {
+        return variableWidthData.read(fixed, offset);
+    }
+
+    @UsedByGeneratedCode
+    public static void writeSlice(byte[] fixed, int offset, VariableWidthData variableWidthData, Slice value)
+    {
+        variableWidthData.write(fixed, offset, value);
+    }
+
+    private static class KeyField
+    {
+        private final int index;
+        private final Type type;
+        private final int nullOffset;
+        private final int valueOffset;
+        private final int valueSize;
+
+        private KeyField(int index, Type type, int nullOffset, int valueOffset, int valueSize)
+        {
+            this.index = index;
+            this.type = type;
+            this.nullOffset = nullOffset;
+            this.valueOffset = valueOffset;
+            this.valueSize = valueSize;
+        }
+
+        public int getIndex()
+        {
+            return index;
+        }
+
+        public Type getType()
+        {
+            return type;
+        }
+
+        public int getNullOffset()
+        {
+            return nullOffset;
+        }
+
+        public int getValueOffset()
+        {
+            return valueOffset;
+        }
+
+        public int getEndOffset()
+        {
+            return valueOffset + valueSize;
+        }
+    }
+}
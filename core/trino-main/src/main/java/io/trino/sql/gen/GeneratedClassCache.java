@@ -0,0 +1,465 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql.gen;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import com.google.common.io.MoreFiles;
+import com.google.common.reflect.Reflection;
+import io.airlift.bytecode.ClassDefinition;
+import io.airlift.bytecode.CompilationException;
+import io.airlift.bytecode.DynamicClassLoader;
+import io.airlift.bytecode.SmartClassWriter;
+import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
+import io.airlift.units.DataSize;
+import io.trino.client.NodeVersion;
+import io.trino.sql.planner.CompilerConfig;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.hash.Hashing.sha256;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.bytecode.ClassInfoLoader.createClassInfoLoader;
+import static io.trino.util.CompilerUtils.defineClass;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.Map.Entry.comparingByKey;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Bytecode of generated classes, kept on local disk, so that it survives restarts of the server.
+ * The compilers still build the definitions of the classes, as building them creates the call
+ * site bindings, which can not be stored. The translation of the definitions to bytecode, which
+ * is the costly part of generating a class, is skipped when the bytecode of the class is on disk.
+ * <p>
+ * Classes are identified by a key, which describes all the inputs of the compiler that the
+ * bytecode depends on, and by the version of the server. The entries of other versions are
+ * removed, when the cache is created. When the cache is full, the least recently used
+ * classes are removed first.
+ */
+@ThreadSafe
+public class GeneratedClassCache
+{
+    private static final Logger log = Logger.get(GeneratedClassCache.class);
+
+    private static final int MAGIC = 0x54434c53;
+    private static final String FILE_SUFFIX = ".class";
+    // only the directories with this prefix are removed, as the directory of the cache may contain other files
+    private static final String VERSION_DIRECTORY_PREFIX = "version-";
+
+    private final Optional<Path> directory;
+    private final long maxSizeInBytes;
+    @GuardedBy("this")
+    private long sizeInBytes;
+    // the sizes of the files, from the least to the most recently used
+    @GuardedBy("this")
+    private final Map<Path, Long> fileSizes = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat evictions = new CounterStat();
+    private final CounterStat failures = new CounterStat();
+    private final TimeStat generationTime = new TimeStat(MILLISECONDS);
+    private final TimeStat loadTime = new TimeStat(MILLISECONDS);
+
+    @Inject
+    public GeneratedClassCache(CompilerConfig config, NodeVersion nodeVersion)
+    {
+        this(
+                Optional.ofNullable(config.getClassCacheDirectory()).map(File::toPath),
+                config.getClassCacheMaxSize(),
+                nodeVersion.getVersion());
+    }
+
+    @VisibleForTesting
+    public GeneratedClassCache(Optional<Path> directory, DataSize maxSize, String serverVersion)
+    {
+        requireNonNull(directory, "directory is null");
+        requireNonNull(serverVersion, "serverVersion is null");
+        this.maxSizeInBytes = requireNonNull(maxSize, "maxSize is null").toBytes();
+        this.directory = directory.flatMap(path -> initializeDirectory(path, VERSION_DIRECTORY_PREFIX + serverVersion.replaceAll("[^a-zA-Z0-9._-]", "_")));
+    }
+
+    /**
+     * Returns a cache which does not keep any classes.
+     */
+    public static GeneratedClassCache disabledGeneratedClassCache()
+    {
+        return new GeneratedClassCache(Optional.empty(), DataSize.ofBytes(0), "");
+    }
+
+    private Optional<Path> initializeDirectory(Path directory, String versionDirectoryName)
+    {
+        Path versionDirectory = directory.resolve(versionDirectoryName);
+        try {
+            Files.createDirectories(versionDirectory);
+            try (Stream<Path> paths = Files.list(directory)) {
+                for (Path path : paths.collect(toImmutableList())) {
+                    if (path.getFileName().toString().startsWith(VERSION_DIRECTORY_PREFIX) && !path.equals(versionDirectory)) {
+                        MoreFiles.deleteRecursively(path, ALLOW_INSECURE);
+                    }
+                }
+            }
+            List<Path> files;
+            try (Stream<Path> paths = Files.list(versionDirectory)) {
+                files = paths.collect(toImmutableList());
+            }
+            Map<Path, FileTime> lastUsedTimes = new HashMap<>();
+            for (Path file : files) {
+                if (file.getFileName().toString().endsWith(FILE_SUFFIX)) {
+                    lastUsedTimes.put(file, Files.getLastModifiedTime(file));
+                }
+                else {
+                    // a leftover of an interrupted write
+                    Files.deleteIfExists(file);
+                }
+            }
+            synchronized (this) {
+                for (Path file : Ordering.natural().onResultOf(lastUsedTimes::get).sortedCopy(lastUsedTimes.keySet())) {
+                    long size = Files.size(file);
+                    fileSizes.put(file, size);
+                    sizeInBytes += size;
+                }
+                // the maximum size may be lower than before the restart
+                evictLeastRecentlyUsed();
+            }
+            return Optional.of(versionDirectory);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to initialize generated class cache in %s, generated classes will not be cached", directory);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Defines the class, and keeps its bytecode on disk, if the key is present. The key has to
+     * describe all the inputs of the compiler, which the bytecode of the class depends on.
+     * Values which are bound to the call sites of the class are not part of the bytecode.
+     */
+    public <T> Class<? extends T> defineCachedClass(Optional<String> key, ClassDefinition classDefinition, Class<T> superType, Map<Long, MethodHandle> callSiteBindings, ClassLoader parentClassLoader)
+    {
+        if (directory.isEmpty() || key.isEmpty()) {
+            return defineClass(classDefinition, superType, callSiteBindings, parentClassLoader);
+        }
+
+        Path file = directory.get().resolve(sha256().hashString(key.get(), UTF_8) + FILE_SUFFIX);
+        List<String> bindingTypes = callSiteBindings.entrySet().stream()
+                .sorted(comparingByKey())
+                .map(binding -> binding.getValue().type().toMethodDescriptorString())
+                .collect(toImmutableList());
+
+        Optional<CachedClass> cachedClass = readCachedClass(file, key.get(), bindingTypes);
+        if (cachedClass.isPresent()) {
+            markUsed(file);
+            long start = System.nanoTime();
+            try {
+                Class<?> definedClass = new DynamicClassLoader(parentClassLoader, callSiteBindings).defineClass(cachedClass.get().getClassName(), cachedClass.get().getBytecode());
+                Reflection.initialize(definedClass);
+                hits.update(1);
+                loadTime.add(System.nanoTime() - start, NANOSECONDS);
+                return definedClass.asSubclass(superType);
+            }
+            catch (LinkageError | ClassCastException e) {
+                log.warn(e, "Failed to load cached class %s, generating it again", cachedClass.get().getClassName());
+                failures.update(1);
+            }
+        }
+        misses.update(1);
+
+        long start = System.nanoTime();
+        DynamicClassLoader classLoader = new DynamicClassLoader(parentClassLoader, callSiteBindings);
+        byte[] bytecode = generateBytecode(classDefinition, classLoader);
+        String className = classDefinition.getType().getJavaClassName();
+        Class<?> definedClass = classLoader.defineClass(className, bytecode);
+        Reflection.initialize(definedClass);
+        generationTime.add(System.nanoTime() - start, NANOSECONDS);
+
+        writeCachedClass(file, new CachedClass(key.get(), className, bindingTypes, bytecode));
+        return definedClass.asSubclass(superType);
+    }
+
+    private static byte[] generateBytecode(ClassDefinition classDefinition, ClassLoader classLoader)
+    {
+        SmartClassWriter writer = new SmartClassWriter(createClassInfoLoader(ImmutableList.of(classDefinition), classLoader));
+        try {
+            classDefinition.visit(writer);
+            return writer.toByteArray();
+        }
+        catch (RuntimeException e) {
+            throw new CompilationException("Error compiling class: " + classDefinition.getName(), e);
+        }
+    }
+
+    private Optional<CachedClass> readCachedClass(Path file, String key, List<String> bindingTypes)
+    {
+        byte[] data;
+        try {
+            data = Files.readAllBytes(file);
+        }
+        catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to read cached class from %s", file);
+            failures.update(1);
+            return Optional.empty();
+        }
+
+        try {
+            CachedClass cachedClass = CachedClass.deserialize(data);
+            // the bindings are created by the same generator, so they only differ on a hash collision, or a key which misses some input
+            if (cachedClass.getKey().equals(key) && cachedClass.getBindingTypes().equals(bindingTypes)) {
+                return Optional.of(cachedClass);
+            }
+        }
+        catch (IOException e) {
+            log.warn(e, "Invalid cached class in %s", file);
+        }
+        failures.update(1);
+        return Optional.empty();
+    }
+
+    private void writeCachedClass(Path file, CachedClass cachedClass)
+    {
+        byte[] data = cachedClass.serialize();
+        if (data.length > maxSizeInBytes) {
+            return;
+        }
+        try {
+            // write to a temporary file first, so that the readers never see a partially written file
+            Path temporaryFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(temporaryFile, data);
+            Files.move(temporaryFile, file, ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to write cached class to %s", file);
+            failures.update(1);
+            return;
+        }
+        synchronized (this) {
+            Long previousSize = fileSizes.put(file, (long) data.length);
+            sizeInBytes += data.length - (previousSize == null ? 0 : previousSize);
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    private void markUsed(Path file)
+    {
+        synchronized (this) {
+            // moves the file to the end of the access order
+            fileSizes.get(file);
+        }
+        try {
+            // the modification time keeps the order of use across restarts
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        }
+        catch (IOException e) {
+            log.debug(e, "Failed to update modification time of %s", file);
+        }
+    }
+
+    @GuardedBy("this")
+    private void evictLeastRecentlyUsed()
+    {
+        Iterator<Map.Entry<Path, Long>> iterator = fileSizes.entrySet().iterator();
+        while (sizeInBytes > maxSizeInBytes && iterator.hasNext()) {
+            Map.Entry<Path, Long> entry = iterator.next();
+            try {
+                Files.deleteIfExists(entry.getKey());
+            }
+            catch (IOException e) {
+                log.warn(e, "Failed to remove cached class %s", entry.getKey());
+                failures.update(1);
+            }
+            sizeInBytes -= entry.getValue();
+            iterator.remove();
+            evictions.update(1);
+        }
+    }
+
+    @Managed
+    public synchronized long getSizeInBytes()
+    {
+        return sizeInBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getEvictions()
+    {
+        return evictions;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getFailures()
+    {
+        return failures;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getGenerationTime()
+    {
+        return generationTime;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getLoadTime()
+    {
+        return loadTime;
+    }
+
+    private static class CachedClass
+    {
+        private final String key;
+        private final String className;
+        private final List<String> bindingTypes;
+        private final byte[] bytecode;
+
+        public CachedClass(String key, String className, List<String> bindingTypes, byte[] bytecode)
+        {
+            this.key = requireNonNull(key, "key is null");
+            this.className = requireNonNull(className, "className is null");
+            this.bindingTypes = ImmutableList.copyOf(requireNonNull(bindingTypes, "bindingTypes is null"));
+            this.bytecode = requireNonNull(bytecode, "bytecode is null");
+        }
+
+        public String getKey()
+        {
+            return key;
+        }
+
+        public String getClassName()
+        {
+            return className;
+        }
+
+        public List<String> getBindingTypes()
+        {
+            return bindingTypes;
+        }
+
+        public byte[] getBytecode()
+        {
+            return bytecode;
+        }
+
+        public byte[] serialize()
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(bytecode.length + key.length() + 1024);
+            try (DataOutputStream output = new DataOutputStream(bytes)) {
+                output.writeInt(MAGIC);
+                writeString(output, key);
+                writeString(output, className);
+                output.writeInt(bindingTypes.size());
+                for (String bindingType : bindingTypes) {
+                    writeString(output, bindingType);
+                }
+                output.writeInt(bytecode.length);
+                output.write(bytecode);
+            }
+            catch (IOException e) {
+                throw new AssertionError("writing to a byte array can not fail", e);
+            }
+            return bytes.toByteArray();
+        }
+
+        public static CachedClass deserialize(byte[] data)
+                throws IOException
+        {
+            try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(data))) {
+                if (input.readInt() != MAGIC) {
+                    throw new IOException("Invalid header");
+                }
+                String key = readString(input);
+                String className = readString(input);
+                int bindingCount = input.readInt();
+                ImmutableList.Builder<String> bindingTypes = ImmutableList.builder();
+                for (int i = 0; i < bindingCount; i++) {
+                    bindingTypes.add(readString(input));
+                }
+                byte[] bytecode = new byte[input.readInt()];
+                input.readFully(bytecode);
+                if (input.read() != -1) {
+                    throw new IOException("Unexpected data after the bytecode");
+                }
+                return new CachedClass(key, className, bindingTypes.build(), bytecode);
+            }
+            catch (RuntimeException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private static void writeString(DataOutputStream output, String value)
+                throws IOException
+        {
+            byte[] bytes = value.getBytes(UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+
+        private static String readString(DataInputStream input)
+                throws IOException
+        {
+            byte[] bytes = new byte[input.readInt()];
+            input.readFully(bytes);
+            return new String(bytes, UTF_8);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql.gen;
+
+import com.google.common.io.BaseEncoding;
+import io.airlift.slice.Slice;
+import io.trino.metadata.ResolvedFunction;
+import io.trino.spi.type.Type;
+import io.trino.sql.relational.CallExpression;
+import io.trino.sql.relational.ConstantExpression;
+import io.trino.sql.relational.InputReferenceExpression;
+import io.trino.sql.relational.LambdaDefinitionExpression;
+import io.trino.sql.relational.RowExpression;
+import io.trino.sql.relational.RowExpressionVisitor;
+import io.trino.sql.relational.SpecialForm;
+import io.trino.sql.relational.VariableReferenceExpression;
+
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Keys of the classes in {@link GeneratedClassCache}. Unlike {@code toString}, the keys
+ * describe the types of all the expressions, and the exact values of the constants.
+ */
+final class GeneratedClassKeys
+{
+    private GeneratedClassKeys() {}
+
+    public static String typesKey(List<? extends Type> types)
+    {
+        return types.stream()
+                .map(type -> type.getTypeSignature().toString())
+                .collect(joining(", ", "[", "]"));
+    }
+
+    /**
+     * Returns the key of the expressions, or empty if a constant can not be described exactly.
+     */
+    public static Optional<String> rowExpressionsKey(List<RowExpression> expressions)
+    {
+        StringBuilder key = new StringBuilder();
+        for (RowExpression expression : expressions) {
+            if (!expression.accept(new KeyBuilder(), key)) {
+                return Optional.empty();
+            }
+            key.append(";");
+        }
+        return Optional.of(key.toString());
+    }
+
+    private static class KeyBuilder
+            implements RowExpressionVisitor<Boolean, StringBuilder>
+    {
+        @Override
+        public Boolean visitCall(CallExpression call, StringBuilder key)
+        {
+            appendFunction(call.getResolvedFunction(), key);
+            return visitArguments(call.getArguments(), key);
+        }
+
+        @Override
+        public Boolean visitSpecialForm(SpecialForm specialForm, StringBuilder key)
+        {
+            key.append(specialForm.getForm()).append(":").append(specialForm.getType().getTypeSignature()).append("{");
+            for (ResolvedFunction function : specialForm.getFunctionDependencies()) {
+                appendFunction(function, key);
+                key.append(",");
+            }
+            key.append("}");
+            return visitArguments(specialForm.getArguments(), key);
+        }
+
+        @Override
+        public Boolean visitInputReference(InputReferenceExpression reference, StringBuilder key)
+        {
+            key.append("#").append(reference.getField()).append(":").append(reference.getType().getTypeSignature());
+            return true;
+        }
+
+        @Override
+        public Boolean visitConstant(ConstantExpression literal, StringBuilder key)
+        {
+            Object value = literal.getValue();
+            key.append("constant:").append(literal.getType().getTypeSignature()).append(":");
+            if (value == null) {
+                key.append("null");
+            }
+            else if (value instanceof Boolean || value instanceof Long || value instanceof Double) {
+                key.append(value);
+            }
+            else if (value instanceof String) {
+                key.append(((String) value).length()).append("'").append(value).append("'");
+            }
+            else if (value instanceof Slice) {
+                key.append("x'").append(BaseEncoding.base16().encode(((Slice) value).getBytes())).append("'");
+            }
+            else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public Boolean visitLambda(LambdaDefinitionExpression lambda, StringBuilder key)
+        {
+            key.append("lambda(");
+            for (int i = 0; i < lambda.getArguments().size(); i++) {
+                key.append(lambda.getArguments().get(i)).append(":").append(lambda.getArgumentTypes().get(i).getTypeSignature()).append(",");
+            }
+            key.append(")->");
+            return lambda.getBody().accept(this, key);
+        }
+
+        @Override
+        public Boolean visitVariableReference(VariableReferenceExpression reference, StringBuilder key)
+        {
+            key.append("$").append(reference.getName()).append(":").append(reference.getType().getTypeSignature());
+            return true;
+        }
+
+        private Boolean visitArguments(List<RowExpression> arguments, StringBuilder key)
+        {
+            key.append("(");
+            for (RowExpression argument : arguments) {
+                if (!argument.accept(this, key)) {
+                    return false;
+                }
+                key.append(",");
+            }
+            key.append(")");
+            return true;
+        }
+
+        private static void appendFunction(ResolvedFunction function, StringBuilder key)
+        {
+            key.append(function.getFunctionId()).append(":").append(function.getSignature());
+        }
+    }
+}
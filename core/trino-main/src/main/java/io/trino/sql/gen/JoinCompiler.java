@@ -34,6 +34,7 @@ import io.airlift.bytecode.expression.BytecodeExpressions;
 import io.airlift.bytecode.instruction.LabelNode;
 import io.airlift.jmx.CacheStatsMBean;
 import io.trino.Session;
+import io.trino.operator.FlatGroupByHashStrategy;
 import io.trino.operator.JoinHash;
 import io.trino.operator.JoinHashSupplier;
 import io.trino.operator.LookupSourceSupplier;
@@ -85,14 +86,16 @@ import static io.trino.spi.function.InvocationConvention.InvocationReturnConvent
 import static io.trino.spi.function.InvocationConvention.InvocationReturnConvention.NULLABLE_RETURN;
 import static io.trino.spi.function.InvocationConvention.simpleConvention;
 import static io.trino.sql.gen.Bootstrap.BOOTSTRAP_METHOD;
+import static io.trino.sql.gen.GeneratedClassCache.disabledGeneratedClassCache;
+import static io.trino.sql.gen.GeneratedClassKeys.typesKey;
 import static io.trino.sql.gen.SqlTypeBytecodeExpression.constantType;
-import static io.trino.util.CompilerUtils.defineClass;
 import static io.trino.util.CompilerUtils.makeClassName;
 import static java.util.Objects.requireNonNull;
 
 public class JoinCompiler
 {
     private final TypeOperators typeOperators;
+    private final GeneratedClassCache generatedClassCache;
 
     private final LoadingCache<CacheKey, LookupSourceSupplierFactory> lookupSourceFactories = CacheBuilder.newBuilder()
             .recordStats()
@@ -106,10 +109,21 @@ public class JoinCompiler
             .build(CacheLoader.from(key ->
                     internalCompileHashStrategy(key.getTypes(), key.getOutputChannels(), key.getJoinChannels(), key.getSortChannel())));
 
-    @Inject
+    private final LoadingCache<List<Type>, FlatGroupByHashStrategy> flatGroupByHashStrategies = CacheBuilder.newBuilder()
+            .recordStats()
+            .maximumSize(1000)
+            .build(CacheLoader.from(this::internalCompileFlatGroupByHashStrategy));
+
     public JoinCompiler(TypeOperators typeOperators)
+    {
+        this(typeOperators, disabledGeneratedClassCache());
+    }
+
+    @Inject
+    public JoinCompiler(TypeOperators typeOperators, GeneratedClassCache generatedClassCache)
     {
         this.typeOperators = requireNonNull(typeOperators, "typeOperators is null");
+        this.generatedClassCache = requireNonNull(generatedClassCache, "generatedClassCache is null");
     }
 
     @Managed
@@ -126,6 +140,13 @@ public class JoinCompiler
         return new CacheStatsMBean(hashStrategies);
     }
 
+    @Managed
+    @Nested
+    public CacheStatsMBean getFlatGroupByHashStrategiesStats()
+    {
+        return new CacheStatsMBean(flatGroupByHashStrategies);
+    }
+
     public LookupSourceSupplierFactory compileLookupSourceFactory(List<? extends Type> types, List<Integer> joinChannels, Optional<Integer> sortChannel, Optional<List<Integer>> outputChannels)
     {
         return lookupSourceFactories.getUnchecked(new CacheKey(
@@ -153,6 +174,17 @@ public class JoinCompiler
                 Optional.empty())));
     }
 
+    public FlatGroupByHashStrategy compileFlatGroupByHashStrategy(List<Type> types)
+    {
+        requireNonNull(types, "types is null");
+        return flatGroupByHashStrategies.getUnchecked(ImmutableList.copyOf(types));
+    }
+
+    private FlatGroupByHashStrategy internalCompileFlatGroupByHashStrategy(List<Type> types)
+    {
+        return FlatGroupByHashStrategyCompiler.compileFlatGroupByHashStrategy(types, typeOperators);
+    }
+
     private List<Integer> rangeList(int endExclusive)
     {
         return IntStream.range(0, endExclusive)
@@ -234,7 +266,12 @@ public class JoinCompiler
         generateCompareSortChannelPositionsMethod(classDefinition, callSiteBinder, types, channelFields, sortChannel);
         generateIsSortChannelPositionNull(classDefinition, channelFields, sortChannel);
 
-        return defineClass(classDefinition, PagesHashStrategy.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+        return generatedClassCache.defineCachedClass(
+                Optional.of("PagesHashStrategy" + typesKey(types) + outputChannels + joinChannels + sortChannel),
+                classDefinition,
+                PagesHashStrategy.class,
+                callSiteBinder.getBindings(),
+                getClass().getClassLoader());
     }
 
     private static void generateConstructor(
@@ -50,6 +50,7 @@ import javax.inject.Inject;
 import java.lang.invoke.MethodHandle;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 import static io.airlift.bytecode.Access.FINAL;
 import static io.airlift.bytecode.Access.PUBLIC;
@@ -63,7 +64,8 @@ import static io.trino.spi.function.InvocationConvention.InvocationArgumentConve
 import static io.trino.spi.function.InvocationConvention.InvocationReturnConvention.FAIL_ON_NULL;
 import static io.trino.spi.function.InvocationConvention.simpleConvention;
 import static io.trino.sql.gen.Bootstrap.BOOTSTRAP_METHOD;
-import static io.trino.util.CompilerUtils.defineClass;
+import static io.trino.sql.gen.GeneratedClassCache.disabledGeneratedClassCache;
+import static io.trino.sql.gen.GeneratedClassKeys.typesKey;
 import static io.trino.util.CompilerUtils.makeClassName;
 import static java.util.Objects.requireNonNull;
 
@@ -82,11 +84,18 @@ public class OrderingCompiler
             .build(CacheLoader.from(key -> internalCompilePageWithPositionComparator(key.getSortTypes(), key.getSortChannels(), key.getSortOrders())));
 
     private final TypeOperators typeOperators;
+    private final GeneratedClassCache generatedClassCache;
 
-    @Inject
     public OrderingCompiler(TypeOperators typeOperators)
+    {
+        this(typeOperators, disabledGeneratedClassCache());
+    }
+
+    @Inject
+    public OrderingCompiler(TypeOperators typeOperators, GeneratedClassCache generatedClassCache)
     {
         this.typeOperators = requireNonNull(typeOperators, "typeOperators is null");
+        this.generatedClassCache = requireNonNull(generatedClassCache, "generatedClassCache is null");
     }
 
     @Managed
@@ -148,7 +157,12 @@ public class OrderingCompiler
         classDefinition.declareDefaultConstructor(a(PUBLIC));
         generatePageIndexCompareTo(classDefinition, callSiteBinder, sortTypes, sortChannels, sortOrders);
 
-        return defineClass(classDefinition, PagesIndexComparator.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+        return generatedClassCache.defineCachedClass(
+                Optional.of(cacheKey("PagesIndexComparator", sortTypes, sortChannels, sortOrders)),
+                classDefinition,
+                PagesIndexComparator.class,
+                callSiteBinder.getBindings(),
+                getClass().getClassLoader());
     }
 
     private void generatePageIndexCompareTo(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, List<Type> sortTypes, List<Integer> sortChannels, List<SortOrder> sortOrders)
@@ -289,7 +303,17 @@ public class OrderingCompiler
 
         generateMergeSortCompareTo(classDefinition, callSiteBinder, sortTypes, sortChannels, sortOrders);
 
-        return defineClass(classDefinition, PageWithPositionComparator.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+        return generatedClassCache.defineCachedClass(
+                Optional.of(cacheKey("PageWithPositionComparator", sortTypes, sortChannels, sortOrders)),
+                classDefinition,
+                PageWithPositionComparator.class,
+                callSiteBinder.getBindings(),
+                getClass().getClassLoader());
+    }
+
+    private static String cacheKey(String className, List<Type> sortTypes, List<Integer> sortChannels, List<SortOrder> sortOrders)
+    {
+        return className + typesKey(sortTypes) + sortChannels + sortOrders;
     }
 
     private void generateMergeSortCompareTo(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, List<Type> types, List<Integer> sortChannels, List<SortOrder> sortOrders)
@@ -92,8 +92,9 @@ import static io.trino.operator.project.PageFieldsToInputParametersRewriter.rewr
 import static io.trino.spi.StandardErrorCode.COMPILER_ERROR;
 import static io.trino.sql.gen.BytecodeUtils.generateWrite;
 import static io.trino.sql.gen.BytecodeUtils.invoke;
+import static io.trino.sql.gen.GeneratedClassCache.disabledGeneratedClassCache;
+import static io.trino.sql.gen.GeneratedClassKeys.rowExpressionsKey;
 import static io.trino.sql.gen.LambdaExpressionExtractor.extractLambdaExpressions;
-import static io.trino.util.CompilerUtils.defineClass;
 import static io.trino.util.CompilerUtils.makeClassName;
 import static io.trino.util.Reflection.constructorMethodHandle;
 import static java.util.Objects.requireNonNull;
@@ -102,6 +103,7 @@ public class PageFunctionCompiler
 {
     private final Metadata metadata;
     private final DeterminismEvaluator determinismEvaluator;
+    private final GeneratedClassCache generatedClassCache;
 
     private final LoadingCache<RowExpression, Supplier<PageProjection>> projectionCache;
     private final LoadingCache<RowExpression, Supplier<PageFilter>> filterCache;
@@ -110,15 +112,21 @@ public class PageFunctionCompiler
     private final CacheStatsMBean filterCacheStats;
 
     @Inject
-    public PageFunctionCompiler(Metadata metadata, CompilerConfig config)
+    public PageFunctionCompiler(Metadata metadata, CompilerConfig config, GeneratedClassCache generatedClassCache)
     {
-        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize());
+        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize(), generatedClassCache);
     }
 
     public PageFunctionCompiler(Metadata metadata, int expressionCacheSize)
+    {
+        this(metadata, expressionCacheSize, disabledGeneratedClassCache());
+    }
+
+    public PageFunctionCompiler(Metadata metadata, int expressionCacheSize, GeneratedClassCache generatedClassCache)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
         this.determinismEvaluator = new DeterminismEvaluator(metadata);
+        this.generatedClassCache = requireNonNull(generatedClassCache, "generatedClassCache is null");
 
         if (expressionCacheSize > 0) {
             projectionCache = CacheBuilder.newBuilder()
@@ -194,7 +202,12 @@ public class PageFunctionCompiler
 
         Class<?> pageProjectionWorkClass;
         try {
-            pageProjectionWorkClass = defineClass(pageProjectionWorkDefinition, Work.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+            pageProjectionWorkClass = generatedClassCache.defineCachedClass(
+                    rowExpressionsKey(ImmutableList.of(result.getRewrittenExpression())).map(key -> "PageProjectionWork" + key),
+                    pageProjectionWorkDefinition,
+                    Work.class,
+                    callSiteBinder.getBindings(),
+                    getClass().getClassLoader());
         }
         catch (Exception e) {
             if (Throwables.getRootCause(e) instanceof MethodTooLargeException) {
@@ -383,7 +396,12 @@ public class PageFunctionCompiler
 
         Class<? extends PageFilter> functionClass;
         try {
-            functionClass = defineClass(classDefinition, PageFilter.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+            functionClass = generatedClassCache.defineCachedClass(
+                    rowExpressionsKey(ImmutableList.of(result.getRewrittenExpression())).map(key -> "PageFilter" + key),
+                    classDefinition,
+                    PageFilter.class,
+                    callSiteBinder.getBindings(),
+                    getClass().getClassLoader());
         }
         catch (Exception e) {
             if (Throwables.getRootCause(e) instanceof MethodTooLargeException) {
@@ -14,15 +14,24 @@
 package io.trino.sql.planner;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
+import io.airlift.units.DataSize;
 import io.trino.spi.function.Description;
 
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import java.io.File;
+
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
 
 @DefunctConfig("compiler.interpreter-enabled")
 public class CompilerConfig
 {
     private int expressionCacheSize = 10_000;
+    private File classCacheDirectory;
+    private DataSize classCacheMaxSize = DataSize.of(1, GIGABYTE);
 
     @Min(0)
     public int getExpressionCacheSize()
@@ -37,4 +46,31 @@ public class CompilerConfig
         this.expressionCacheSize = expressionCacheSize;
         return this;
     }
+
+    public File getClassCacheDirectory()
+    {
+        return classCacheDirectory;
+    }
+
+    @Config("compiler.class-cache-directory")
+    @ConfigDescription("Directory on local disk where generated classes are kept across restarts of the server")
+    public CompilerConfig setClassCacheDirectory(File classCacheDirectory)
+    {
+        this.classCacheDirectory = classCacheDirectory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getClassCacheMaxSize()
+    {
+        return classCacheMaxSize;
+    }
+
+    @Config("compiler.class-cache-max-size")
+    @ConfigDescription("Maximum size of the generated classes kept on local disk")
+    public CompilerConfig setClassCacheMaxSize(DataSize classCacheMaxSize)
+    {
+        this.classCacheMaxSize = classCacheMaxSize;
+        return this;
+    }
 }
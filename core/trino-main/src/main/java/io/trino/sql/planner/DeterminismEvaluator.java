@@ -13,12 +13,14 @@
  */
 package io.trino.sql.planner;
 
+import com.google.common.collect.ImmutableSet;
 import io.trino.metadata.FunctionMetadata;
 import io.trino.metadata.Metadata;
 import io.trino.sql.tree.DefaultExpressionTraversalVisitor;
 import io.trino.sql.tree.Expression;
 import io.trino.sql.tree.FunctionCall;
 
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
@@ -29,8 +31,26 @@ import static java.util.Objects.requireNonNull;
  */
 public final class DeterminismEvaluator
 {
+    // functions which are evaluated to the start time of the query
+    private static final Set<String> QUERY_START_FUNCTIONS = ImmutableSet.of(
+            "now",
+            "current_date",
+            "$current_time",
+            "$current_timestamp",
+            "$localtime",
+            "$localtimestamp");
+
     private DeterminismEvaluator() {}
 
+    /**
+     * Returns true if the function returns the start time of the query. Such a function is deterministic
+     * within a query, but it returns different values in different queries.
+     */
+    public static boolean isQueryStartFunction(String functionName)
+    {
+        return QUERY_START_FUNCTIONS.contains(functionName);
+    }
+
     public static boolean isDeterministic(Expression expression, Metadata metadata)
     {
         return isDeterministic(expression, functionCall -> metadata.getFunctionMetadata(metadata.decodeFunction(functionCall.getName())));
@@ -17,6 +17,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.trino.operator.DynamicFilterBloomFilter;
+import io.trino.spi.block.Block;
 import io.trino.spi.predicate.Domain;
 import io.trino.spi.predicate.TupleDomain;
 import io.trino.spi.type.Type;
@@ -24,6 +26,8 @@ import io.trino.sql.planner.plan.DynamicFilterId;
 import io.trino.sql.planner.plan.JoinNode;
 import io.trino.sql.planner.plan.PlanNode;
 
+import javax.annotation.concurrent.GuardedBy;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -36,6 +40,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.trino.spi.predicate.Utils.nativeValueToBlock;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Function.identity;
 
@@ -49,12 +54,17 @@ public class LocalDynamicFilterConsumer
 
     private final SettableFuture<TupleDomain<DynamicFilterId>> resultFuture;
 
+    private final SettableFuture<Map<DynamicFilterId, DynamicFilterBloomFilter>> bloomFiltersFuture;
+
     // Number of build-side partitions to be collected.
     private final int partitionCount;
 
     // The resulting predicates from each build-side partition.
     private final List<TupleDomain<DynamicFilterId>> partitions;
 
+    // The union of bloom filters from the build-side partitions which exceeded the distinct values limits.
+    private final Map<DynamicFilterId, DynamicFilterBloomFilter> bloomFilters = new HashMap<>();
+
     public LocalDynamicFilterConsumer(Map<DynamicFilterId, Integer> buildChannels, Map<DynamicFilterId, Type> filterBuildTypes, int partitionCount)
     {
         this.buildChannels = requireNonNull(buildChannels, "buildChannels is null");
@@ -62,6 +72,7 @@ public class LocalDynamicFilterConsumer
         verify(buildChannels.keySet().equals(filterBuildTypes.keySet()), "filterBuildTypes and buildChannels must have same keys");
 
         this.resultFuture = SettableFuture.create();
+        this.bloomFiltersFuture = SettableFuture.create();
 
         this.partitionCount = partitionCount;
         this.partitions = new ArrayList<>(partitionCount);
@@ -72,26 +83,80 @@ public class LocalDynamicFilterConsumer
         return Futures.transform(resultFuture, this::convertTupleDomain, directExecutor());
     }
 
+    /**
+     * Bloom filters are available only when all build-side partitions have been collected,
+     * and only for dynamic filters with a partition which exceeded the distinct values limits.
+     */
+    public ListenableFuture<Map<DynamicFilterId, DynamicFilterBloomFilter>> getBloomFilters()
+    {
+        return bloomFiltersFuture;
+    }
+
     private void addPartition(TupleDomain<DynamicFilterId> tupleDomain)
     {
         TupleDomain<DynamicFilterId> result = null;
+        Map<DynamicFilterId, DynamicFilterBloomFilter> bloomFiltersResult = null;
         synchronized (this) {
             // Called concurrently by each DynamicFilterSourceOperator instance (when collection is over).
             verify(partitions.size() < partitionCount);
             // NOTE: may result in a bit more relaxed constraint if there are multiple columns and multiple rows.
             // See the comment at TupleDomain::columnWiseUnion() for more details.
             partitions.add(tupleDomain);
-            if (partitions.size() == partitionCount || tupleDomain.isAll()) {
+            if (partitions.size() == partitionCount) {
                 // No more partitions are left to be processed.
                 result = TupleDomain.columnWiseUnion(partitions);
+                bloomFiltersResult = mergeBloomFilters();
+            }
+            else if (tupleDomain.isAll() && bloomFilters.isEmpty()) {
+                // Bloom filters are not collected, so the result can't be more selective than 'all'.
+                result = TupleDomain.all();
+                bloomFiltersResult = ImmutableMap.of();
             }
         }
 
         if (result != null) {
+            bloomFiltersFuture.set(bloomFiltersResult);
             resultFuture.set(result);
         }
     }
 
+    private synchronized void addBloomFilters(Map<DynamicFilterId, DynamicFilterBloomFilter> partitionBloomFilters)
+    {
+        // Called by DynamicFilterSourceOperator instances before the predicate of the same partition is added.
+        verify(partitions.size() < partitionCount);
+        partitionBloomFilters.forEach((filterId, bloomFilter) -> bloomFilters.merge(filterId, bloomFilter, DynamicFilterBloomFilter::union));
+    }
+
+    @GuardedBy("this")
+    private Map<DynamicFilterId, DynamicFilterBloomFilter> mergeBloomFilters()
+    {
+        // Partitions which didn't exceed the distinct values limits only collected discrete values,
+        // which are added to the bloom filters of the partitions which did.
+        // Partitions with bloom filters may only collect ranges, which are skipped.
+        ImmutableMap.Builder<DynamicFilterId, DynamicFilterBloomFilter> result = ImmutableMap.builder();
+        for (Map.Entry<DynamicFilterId, DynamicFilterBloomFilter> entry : bloomFilters.entrySet()) {
+            DynamicFilterId filterId = entry.getKey();
+            DynamicFilterBloomFilter bloomFilter = entry.getValue();
+            Type type = filterBuildTypes.get(filterId);
+            for (TupleDomain<DynamicFilterId> partition : partitions) {
+                if (partition.isNone()) {
+                    continue;
+                }
+                Domain domain = partition.getDomains().get().get(filterId);
+                if (domain == null || !domain.getValues().isDiscreteSet()) {
+                    continue;
+                }
+                for (Object value : domain.getValues().getDiscreteSet()) {
+                    Block block = nativeValueToBlock(type, value);
+                    bloomFilter.add(block, 0);
+                }
+            }
+            result.put(filterId, bloomFilter);
+        }
+        bloomFilters.clear();
+        return result.build();
+    }
+
     private Map<DynamicFilterId, Domain> convertTupleDomain(TupleDomain<DynamicFilterId> result)
     {
         if (result.isNone()) {
@@ -147,6 +212,11 @@ public class LocalDynamicFilterConsumer
         return this::addPartition;
     }
 
+    public Consumer<Map<DynamicFilterId, DynamicFilterBloomFilter>> getBloomFilterConsumer()
+    {
+        return this::addBloomFilters;
+    }
+
     @Override
     public String toString()
     {
@@ -154,6 +224,7 @@ public class LocalDynamicFilterConsumer
                 .add("buildChannels", buildChannels)
                 .add("partitionCount", partitionCount)
                 .add("partitions", partitions)
+                .add("bloomFilters", bloomFilters)
                 .toString();
     }
 }
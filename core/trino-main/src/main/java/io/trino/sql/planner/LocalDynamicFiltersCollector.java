@@ -13,12 +13,15 @@
  */
 package io.trino.sql.planner;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.trino.Session;
 import io.trino.metadata.Metadata;
+import io.trino.operator.DynamicFilterBloomFilter;
+import io.trino.operator.DynamicRowFilter;
 import io.trino.spi.connector.ColumnHandle;
 import io.trino.spi.connector.DynamicFilter;
 import io.trino.spi.predicate.Domain;
@@ -26,6 +29,7 @@ import io.trino.spi.predicate.TupleDomain;
 import io.trino.spi.type.Type;
 import io.trino.spi.type.TypeOperators;
 import io.trino.sql.planner.plan.DynamicFilterId;
+import io.trino.sql.tree.SymbolReference;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
@@ -33,6 +37,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
@@ -45,6 +50,7 @@ import static io.airlift.concurrent.MoreFutures.unmodifiableFuture;
 import static io.trino.sql.DynamicFilters.Descriptor;
 import static io.trino.sql.DynamicFilters.extractSourceSymbols;
 import static io.trino.sql.planner.DomainCoercer.applySaturatedCasts;
+import static io.trino.sql.tree.ComparisonExpression.Operator.EQUAL;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
@@ -56,6 +62,8 @@ class LocalDynamicFiltersCollector
     private final Session session;
     // Each future blocks until its dynamic filter is collected.
     private final Map<DynamicFilterId, SettableFuture<Domain>> futures = new HashMap<>();
+    // Each future blocks until its dynamic filter is collected, and is never completed for dynamic filters without a bloom filter.
+    private final Map<DynamicFilterId, SettableFuture<DynamicFilterBloomFilter>> bloomFilterFutures = new HashMap<>();
 
     public LocalDynamicFiltersCollector(Metadata metadata, TypeOperators typeOperators, Session session)
     {
@@ -70,6 +78,7 @@ class LocalDynamicFiltersCollector
         filterIds.forEach(filterId -> verify(
                 futures.put(filterId, SettableFuture.create()) == null,
                 "LocalDynamicFiltersCollector: duplicate filter %s", filterId));
+        filterIds.forEach(filterId -> bloomFilterFutures.put(filterId, SettableFuture.create()));
     }
 
     // Used during execution (after build-side dynamic filter collection is over).
@@ -87,6 +96,43 @@ class LocalDynamicFiltersCollector
                 });
     }
 
+    // Used during execution (after build-side dynamic filter collection is over).
+    // No need to be synchronized as the futures map doesn't change.
+    public void collectDynamicFilterBloomFilters(Map<DynamicFilterId, DynamicFilterBloomFilter> bloomFilters)
+    {
+        bloomFilters.forEach((filterId, bloomFilter) -> {
+            SettableFuture<DynamicFilterBloomFilter> future = bloomFilterFutures.get(filterId);
+            // Skip dynamic filters that are not applied locally.
+            if (future != null) {
+                verify(future.set(bloomFilter), "Bloom filter of dynamic filter %s already collected", filterId);
+            }
+        });
+    }
+
+    // Called during TableScan planning (no need to be synchronized as local planning is single threaded)
+    public DynamicRowFilter createDynamicRowFilter(List<Descriptor> descriptors, Map<Symbol, ColumnHandle> columnsMap, List<ColumnHandle> columns, TypeProvider typeProvider)
+    {
+        ImmutableList.Builder<DynamicRowFilter.Channel> channels = ImmutableList.builder();
+        for (Descriptor descriptor : descriptors) {
+            SettableFuture<DynamicFilterBloomFilter> future = bloomFilterFutures.get(descriptor.getId());
+            // Bloom filters can only be probed for equality with values of the build-side type, so casts are not supported.
+            if (future == null || !(descriptor.getInput() instanceof SymbolReference) || descriptor.getOperator() != EQUAL || descriptor.isNullAllowed()) {
+                continue;
+            }
+            Symbol probeSymbol = Symbol.from(descriptor.getInput());
+            int index = columns.indexOf(requireNonNull(columnsMap.get(probeSymbol), () -> format("Missing probe column for %s", probeSymbol)));
+            verify(index >= 0, "Probe column for %s is not read", probeSymbol);
+            Type probeType = typeProvider.get(probeSymbol);
+            channels.add(DynamicRowFilter.Channel.bloomFilterChannel(
+                    index,
+                    Futures.transform(
+                            future,
+                            bloomFilter -> bloomFilter.getType().equals(probeType) ? Optional.of(bloomFilter) : Optional.empty(),
+                            directExecutor())));
+        }
+        return new DynamicRowFilter(channels.build());
+    }
+
     // Called during TableScan planning (no need to be synchronized as local planning is single threaded)
     public DynamicFilter createDynamicFilter(List<Descriptor> descriptors, Map<Symbol, ColumnHandle> columnsMap, TypeProvider typeProvider)
     {
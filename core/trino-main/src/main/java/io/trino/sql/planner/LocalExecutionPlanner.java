@@ -38,6 +38,8 @@ import io.trino.execution.TaskId;
 import io.trino.execution.TaskManagerConfig;
 import io.trino.execution.buffer.OutputBuffer;
 import io.trino.execution.buffer.PagesSerdeFactory;
+import io.trino.execution.fragmentcache.FragmentCache;
+import io.trino.execution.fragmentcache.PipelineSignature;
 import io.trino.index.IndexManager;
 import io.trino.metadata.Metadata;
 import io.trino.metadata.ResolvedFunction;
@@ -47,17 +49,22 @@ import io.trino.operator.AssignUniqueIdOperator;
 import io.trino.operator.DeleteOperator.DeleteOperatorFactory;
 import io.trino.operator.DevNullOperator.DevNullOperatorFactory;
 import io.trino.operator.DriverFactory;
+import io.trino.operator.DynamicFilterBloomFilter;
 import io.trino.operator.DynamicFilterSourceOperator;
 import io.trino.operator.DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory;
+import io.trino.operator.DynamicRowFilter;
 import io.trino.operator.EnforceSingleRowOperator;
 import io.trino.operator.ExchangeClientSupplier;
 import io.trino.operator.ExchangeOperator.ExchangeOperatorFactory;
 import io.trino.operator.ExplainAnalyzeOperator.ExplainAnalyzeOperatorFactory;
 import io.trino.operator.FilterAndProjectOperator;
+import io.trino.operator.FragmentCacheOperator.FragmentCacheOperatorFactory;
 import io.trino.operator.GroupIdOperator;
 import io.trino.operator.HashAggregationOperator.HashAggregationOperatorFactory;
 import io.trino.operator.HashBuilderOperator.HashBuilderOperatorFactory;
+import io.trino.operator.HashGenerator;
 import io.trino.operator.HashSemiJoinOperator;
+import io.trino.operator.InterpretedHashGenerator;
 import io.trino.operator.JoinBridgeManager;
 import io.trino.operator.JoinOperatorFactory;
 import io.trino.operator.JoinOperatorFactory.OuterOperatorFactoryResult;
@@ -79,10 +86,12 @@ import io.trino.operator.PartitionFunction;
 import io.trino.operator.PartitionedLookupSourceFactory;
 import io.trino.operator.PartitionedOutputOperator.PartitionedOutputFactory;
 import io.trino.operator.PipelineExecutionStrategy;
+import io.trino.operator.PrecomputedHashGenerator;
 import io.trino.operator.RowNumberOperator;
 import io.trino.operator.ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory;
 import io.trino.operator.SetBuilderOperator.SetBuilderOperatorFactory;
 import io.trino.operator.SetBuilderOperator.SetSupplier;
+import io.trino.operator.SkewedPartitionKeys;
 import io.trino.operator.SourceOperatorFactory;
 import io.trino.operator.SpatialIndexBuilderOperator.SpatialIndexBuilderOperatorFactory;
 import io.trino.operator.SpatialIndexBuilderOperator.SpatialPredicate;
@@ -94,6 +103,7 @@ import io.trino.operator.TableDeleteOperator.TableDeleteOperatorFactory;
 import io.trino.operator.TableScanOperator.TableScanOperatorFactory;
 import io.trino.operator.TaskContext;
 import io.trino.operator.TaskOutputOperator.TaskOutputFactory;
+import io.trino.operator.TopNDynamicFilter;
 import io.trino.operator.TopNOperator;
 import io.trino.operator.TopNRankingOperator;
 import io.trino.operator.UpdateOperator.UpdateOperatorFactory;
@@ -104,6 +114,7 @@ import io.trino.operator.WorkProcessorPipelineSourceOperator;
 import io.trino.operator.aggregation.AccumulatorFactory;
 import io.trino.operator.aggregation.InternalAggregationFunction;
 import io.trino.operator.aggregation.LambdaProvider;
+import io.trino.operator.aggregation.PartialAggregationController;
 import io.trino.operator.exchange.LocalExchange.LocalExchangeFactory;
 import io.trino.operator.exchange.LocalExchangeSinkOperator.LocalExchangeSinkOperatorFactory;
 import io.trino.operator.exchange.LocalExchangeSourceOperator.LocalExchangeSourceOperatorFactory;
@@ -238,17 +249,25 @@ import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Range.closedOpen;
 import static io.airlift.concurrent.MoreFutures.addSuccessCallback;
+import static io.trino.SystemSessionProperties.getAdaptivePartialAggregationMinRows;
+import static io.trino.SystemSessionProperties.getAdaptivePartialAggregationUniqueRowsRatioThreshold;
 import static io.trino.SystemSessionProperties.getAggregationOperatorUnspillMemoryLimit;
 import static io.trino.SystemSessionProperties.getFilterAndProjectMinOutputPageRowCount;
 import static io.trino.SystemSessionProperties.getFilterAndProjectMinOutputPageSize;
 import static io.trino.SystemSessionProperties.getTaskConcurrency;
 import static io.trino.SystemSessionProperties.getTaskWriterCount;
+import static io.trino.SystemSessionProperties.isAdaptivePartialAggregationEnabled;
+import static io.trino.SystemSessionProperties.isDynamicFilteringBloomFiltersEnabled;
+import static io.trino.SystemSessionProperties.isDynamicFilteringTopNEnabled;
 import static io.trino.SystemSessionProperties.isEnableLargeDynamicFilters;
+import static io.trino.SystemSessionProperties.isExchangeAdaptiveCompressionEnabled;
 import static io.trino.SystemSessionProperties.isExchangeCompressionEnabled;
+import static io.trino.SystemSessionProperties.isFragmentCacheEnabled;
 import static io.trino.SystemSessionProperties.isLateMaterializationEnabled;
 import static io.trino.SystemSessionProperties.isSpillEnabled;
 import static io.trino.SystemSessionProperties.isSpillOrderBy;
 import static io.trino.SystemSessionProperties.isSpillWindowOperator;
+import static io.trino.execution.fragmentcache.PipelineSignature.createPipelineSignature;
 import static io.trino.operator.DistinctLimitOperator.DistinctLimitOperatorFactory;
 import static io.trino.operator.JoinUtils.isBuildSideReplicated;
 import static io.trino.operator.NestedLoopBuildOperator.NestedLoopBuildOperatorFactory;
@@ -273,10 +292,12 @@ import static io.trino.sql.ExpressionUtils.combineConjuncts;
 import static io.trino.sql.gen.LambdaBytecodeGenerator.compileLambdaProvider;
 import static io.trino.sql.planner.ExpressionExtractor.extractExpressions;
 import static io.trino.sql.planner.ExpressionNodeInliner.replaceExpression;
+import static io.trino.sql.planner.SkewedKeys.Distribution.REPLICATE;
 import static io.trino.sql.planner.SortExpressionExtractor.extractSortExpression;
 import static io.trino.sql.planner.SystemPartitioningHandle.COORDINATOR_DISTRIBUTION;
 import static io.trino.sql.planner.SystemPartitioningHandle.FIXED_ARBITRARY_DISTRIBUTION;
 import static io.trino.sql.planner.SystemPartitioningHandle.FIXED_BROADCAST_DISTRIBUTION;
+import static io.trino.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
 import static io.trino.sql.planner.SystemPartitioningHandle.SCALED_WRITER_DISTRIBUTION;
 import static io.trino.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
 import static io.trino.sql.planner.plan.AggregationNode.Step.FINAL;
@@ -334,6 +355,7 @@ public class LocalExecutionPlanner
     private final DynamicFilterConfig dynamicFilterConfig;
     private final TypeOperators typeOperators;
     private final BlockTypeOperators blockTypeOperators;
+    private final FragmentCache fragmentCache;
 
     @Inject
     public LocalExecutionPlanner(
@@ -359,7 +381,8 @@ public class LocalExecutionPlanner
             OrderingCompiler orderingCompiler,
             DynamicFilterConfig dynamicFilterConfig,
             TypeOperators typeOperators,
-            BlockTypeOperators blockTypeOperators)
+            BlockTypeOperators blockTypeOperators,
+            FragmentCache fragmentCache)
     {
         this.explainAnalyzeContext = requireNonNull(explainAnalyzeContext, "explainAnalyzeContext is null");
         this.pageSourceProvider = requireNonNull(pageSourceProvider, "pageSourceProvider is null");
@@ -387,6 +410,7 @@ public class LocalExecutionPlanner
         this.dynamicFilterConfig = requireNonNull(dynamicFilterConfig, "dynamicFilterConfig is null");
         this.typeOperators = requireNonNull(typeOperators, "typeOperators is null");
         this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
+        this.fragmentCache = requireNonNull(fragmentCache, "fragmentCache is null");
     }
 
     public LocalExecutionPlan plan(
@@ -454,6 +478,11 @@ public class LocalExecutionPlanner
             nullChannel = OptionalInt.of(outputLayout.indexOf(getOnlyElement(partitioningColumns)));
         }
 
+        Optional<SkewedPartitionKeys> skewedKeys = partitioningScheme.getSkewedKeys().map(keys -> new SkewedPartitionKeys(
+                createSkewedKeyHashGenerator(partitioningScheme, partitionChannelTypes),
+                keys.getKeyHashes(),
+                keys.getDistribution() == REPLICATE));
+
         return plan(
                 taskContext,
                 stageExecutionDescriptor,
@@ -467,10 +496,21 @@ public class LocalExecutionPlanner
                         partitionConstants,
                         partitioningScheme.isReplicateNullsAndAny(),
                         nullChannel,
+                        skewedKeys,
                         outputBuffer,
                         maxPagePartitioningBufferSize));
     }
 
+    private HashGenerator createSkewedKeyHashGenerator(PartitioningScheme partitioningScheme, List<Type> partitionChannelTypes)
+    {
+        // skewed keys are identified by the hash, which the partition function computes from its arguments
+        checkArgument(partitioningScheme.getPartitioning().getHandle().equals(FIXED_HASH_DISTRIBUTION), "Skewed keys are only supported for hash partitioning");
+        if (partitioningScheme.getHashColumn().isPresent()) {
+            return new PrecomputedHashGenerator(0);
+        }
+        return new InterpretedHashGenerator(partitionChannelTypes, range(0, partitionChannelTypes.size()).toArray(), blockTypeOperators);
+    }
+
     public LocalExecutionPlan plan(
             TaskContext taskContext,
             StageExecutionDescriptor stageExecutionDescriptor,
@@ -500,7 +540,11 @@ public class LocalExecutionPlanner
                                 plan.getId(),
                                 outputTypes,
                                 pagePreprocessor,
-                                new PagesSerdeFactory(metadata.getBlockEncodingSerde(), isExchangeCompressionEnabled(session))),
+                                new PagesSerdeFactory(
+                                        metadata.getBlockEncodingSerde(),
+                                        isExchangeCompressionEnabled(session),
+                                        isExchangeAdaptiveCompressionEnabled(session),
+                                        false)),
                         physicalOperation),
                 context.getDriverInstanceCount());
 
@@ -529,6 +573,9 @@ public class LocalExecutionPlanner
         // this is shared with all subContexts
         private final AtomicInteger nextPipelineId;
 
+        // TopN operators are planned in the same pipeline as the table scans they filter
+        private final Map<PlanNodeId, TopNDynamicFilter> topNDynamicFilters = new HashMap<>();
+
         private int nextOperatorId;
         private boolean inputDriver = true;
         private OptionalInt driverInstanceCount = OptionalInt.empty();
@@ -565,10 +612,13 @@ public class LocalExecutionPlanner
             List<OperatorFactory> operatorFactories = physicalOperation.getOperatorFactories();
             validateFirstOperatorFactory(inputDriver, operatorFactories.get(0), physicalOperation.getPipelineExecutionStrategy());
             addLookupOuterDrivers(outputDriver, operatorFactories);
+            Optional<FragmentCacheOperatorFactory> fragmentCacheOperatorFactory = physicalOperation.getFragmentCacheOperatorFactory();
             if (isLateMaterializationEnabled(taskContext.getSession())) {
                 operatorFactories = handleLateMaterialization(operatorFactories);
+                // the operators are merged, so their output can not be cached
+                fragmentCacheOperatorFactory = Optional.empty();
             }
-            driverFactories.add(new DriverFactory(getNextPipelineId(), inputDriver, outputDriver, operatorFactories, driverInstances, physicalOperation.getPipelineExecutionStrategy()));
+            driverFactories.add(new DriverFactory(getNextPipelineId(), inputDriver, outputDriver, operatorFactories, driverInstances, physicalOperation.getPipelineExecutionStrategy(), fragmentCacheOperatorFactory));
         }
 
         private List<OperatorFactory> handleLateMaterialization(List<OperatorFactory> operatorFactories)
@@ -651,11 +701,26 @@ public class LocalExecutionPlanner
             dynamicFiltersCollector.collectDynamicFilterDomains(dynamicTupleDomain);
         }
 
+        private void addLocalDynamicFilterBloomFilters(Map<DynamicFilterId, DynamicFilterBloomFilter> bloomFilters)
+        {
+            dynamicFiltersCollector.collectDynamicFilterBloomFilters(bloomFilters);
+        }
+
         private void addCoordinatorDynamicFilters(Map<DynamicFilterId, Domain> dynamicTupleDomain)
         {
             taskContext.updateDomains(dynamicTupleDomain);
         }
 
+        private void addTopNDynamicFilter(PlanNodeId tableScanNodeId, TopNDynamicFilter dynamicFilter)
+        {
+            checkState(topNDynamicFilters.put(tableScanNodeId, dynamicFilter) == null, "Duplicate TopN dynamic filter for %s", tableScanNodeId);
+        }
+
+        private Optional<TopNDynamicFilter> getTopNDynamicFilter(PlanNodeId tableScanNodeId)
+        {
+            return Optional.ofNullable(topNDynamicFilters.get(tableScanNodeId));
+        }
+
         public Optional<IndexSourceContext> getIndexSourceContext()
         {
             return indexSourceContext;
@@ -1062,6 +1127,8 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitTopN(TopNNode node, LocalExecutionPlanContext context)
         {
+            // the dynamic filter must be registered before the table scan is planned
+            Optional<TopNDynamicFilter> dynamicFilter = createTopNDynamicFilter(node, context);
             PhysicalOperation source = node.getSource().accept(this, context);
 
             List<Symbol> orderBySymbols = node.getOrderingScheme().getOrderBy();
@@ -1080,11 +1147,53 @@ public class LocalExecutionPlanner
                     (int) node.getCount(),
                     sortChannels,
                     sortOrders,
-                    typeOperators);
+                    typeOperators,
+                    dynamicFilter);
 
             return new PhysicalOperation(operator, source.getLayout(), context, source);
         }
 
+        private Optional<TopNDynamicFilter> createTopNDynamicFilter(TopNNode node, LocalExecutionPlanContext context)
+        {
+            if (!isDynamicFilteringTopNEnabled(session) || node.getCount() == 0) {
+                return Optional.empty();
+            }
+
+            // follow the leading sort key through filters and projections to the table scan
+            Symbol orderBySymbol = node.getOrderingScheme().getOrderBy().get(0);
+            Symbol symbol = orderBySymbol;
+            PlanNode source = node.getSource();
+            while (!(source instanceof TableScanNode)) {
+                if (source instanceof FilterNode) {
+                    source = ((FilterNode) source).getSource();
+                }
+                else if (source instanceof ProjectNode) {
+                    Expression expression = ((ProjectNode) source).getAssignments().get(symbol);
+                    if (!(expression instanceof SymbolReference)) {
+                        return Optional.empty();
+                    }
+                    symbol = Symbol.from(expression);
+                    source = ((ProjectNode) source).getSource();
+                }
+                else {
+                    return Optional.empty();
+                }
+            }
+
+            TableScanNode tableScan = (TableScanNode) source;
+            Type type = context.getTypes().get(symbol);
+            if (!TopNDynamicFilter.isSupportedType(type)) {
+                return Optional.empty();
+            }
+            TopNDynamicFilter dynamicFilter = new TopNDynamicFilter(
+                    tableScan.getAssignments().get(symbol),
+                    type,
+                    node.getOrderingScheme().getOrdering(orderBySymbol),
+                    typeOperators);
+            context.addTopNDynamicFilter(tableScan.getId(), dynamicFilter);
+            return Optional.of(dynamicFilter);
+        }
+
         @Override
         public PhysicalOperation visitSort(SortNode node, LocalExecutionPlanContext context)
         {
@@ -1150,7 +1259,9 @@ public class LocalExecutionPlanner
                     node.getLimit(),
                     hashChannel,
                     joinCompiler,
-                    blockTypeOperators);
+                    blockTypeOperators,
+                    isSpillEnabled(session),
+                    partitioningSpillerFactory);
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, source);
         }
 
@@ -1209,14 +1320,45 @@ public class LocalExecutionPlanner
         {
             PhysicalOperation source = node.getSource().accept(this, context);
 
+            PhysicalOperation operation;
             if (node.getGroupingKeys().isEmpty()) {
-                return planGlobalAggregation(node, source, context);
+                operation = planGlobalAggregation(node, source, context);
+            }
+            else {
+                boolean spillEnabled = isSpillEnabled(session);
+                DataSize unspillMemoryLimit = getAggregationOperatorUnspillMemoryLimit(session);
+
+                operation = planGroupByAggregation(node, source, spillEnabled, unspillMemoryLimit, context);
             }
 
-            boolean spillEnabled = isSpillEnabled(session);
-            DataSize unspillMemoryLimit = getAggregationOperatorUnspillMemoryLimit(session);
+            if (isFragmentCacheEnabled(session) && node.getStep() == PARTIAL && context.getIndexSourceContext().isEmpty()) {
+                return planFragmentCache(node, operation, context);
+            }
+            return operation;
+        }
 
-            return planGroupByAggregation(node, source, spillEnabled, unspillMemoryLimit, context);
+        private PhysicalOperation planFragmentCache(AggregationNode node, PhysicalOperation operation, LocalExecutionPlanContext context)
+        {
+            // the output of a partial aggregation of a table scan for a split does not depend on the other splits
+            Optional<PipelineSignature> pipelineSignature = createPipelineSignature(node, session, metadata);
+            if (pipelineSignature.isEmpty()) {
+                return operation;
+            }
+            OperatorFactory firstOperatorFactory = operation.getOperatorFactories().get(0);
+            if (!(firstOperatorFactory instanceof SourceOperatorFactory)) {
+                return operation;
+            }
+            PlanNodeId sourceId = ((SourceOperatorFactory) firstOperatorFactory).getSourceId();
+            if (context.getTopNDynamicFilter(sourceId).isPresent()) {
+                return operation;
+            }
+            return operation.withFragmentCacheOperatorFactory(new FragmentCacheOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    sourceId,
+                    operation.getOperatorFactories().size(),
+                    pipelineSignature.get(),
+                    fragmentCache));
         }
 
         @Override
@@ -1226,7 +1368,16 @@ public class LocalExecutionPlanner
 
             List<Integer> channels = getChannelsForSymbols(node.getDistinctSymbols(), source.getLayout());
             Optional<Integer> hashChannel = node.getHashSymbol().map(channelGetter(source));
-            MarkDistinctOperatorFactory operator = new MarkDistinctOperatorFactory(context.getNextOperatorId(), node.getId(), source.getTypes(), channels, hashChannel, joinCompiler, blockTypeOperators);
+            MarkDistinctOperatorFactory operator = new MarkDistinctOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    source.getTypes(),
+                    channels,
+                    hashChannel,
+                    joinCompiler,
+                    blockTypeOperators,
+                    isSpillEnabled(session),
+                    partitioningSpillerFactory);
             return new PhysicalOperation(operator, makeLayout(node), context, source);
         }
 
@@ -1335,10 +1486,12 @@ public class LocalExecutionPlanner
             Map<Symbol, Integer> outputMappings = outputMappingsBuilder.build();
 
             Optional<Expression> staticFilters = filterExpression.flatMap(this::getStaticFilter);
-            DynamicFilter dynamicFilter = filterExpression
-                    .filter(expression -> sourceNode instanceof TableScanNode)
-                    .map(expression -> getDynamicFilter((TableScanNode) sourceNode, expression, context))
-                    .orElse(DynamicFilter.EMPTY);
+            DynamicFilter dynamicFilter = DynamicFilter.EMPTY;
+            DynamicRowFilter dynamicRowFilter = DynamicRowFilter.EMPTY;
+            if (sourceNode instanceof TableScanNode) {
+                dynamicFilter = getDynamicFilter((TableScanNode) sourceNode, filterExpression.orElse(TRUE_LITERAL), context);
+                dynamicRowFilter = getDynamicRowFilter((TableScanNode) sourceNode, filterExpression.orElse(TRUE_LITERAL), context);
+            }
 
             List<Expression> projections = new ArrayList<>();
             for (Symbol symbol : outputSymbols) {
@@ -1370,6 +1523,7 @@ public class LocalExecutionPlanner
                             table,
                             columns,
                             dynamicFilter,
+                            dynamicRowFilter,
                             getTypes(projections, expressionTypes),
                             getFilterAndProjectMinOutputPageSize(session),
                             getFilterAndProjectMinOutputPageRowCount(session));
@@ -1417,7 +1571,8 @@ public class LocalExecutionPlanner
             }
 
             DynamicFilter dynamicFilter = getDynamicFilter(node, filterExpression, context);
-            OperatorFactory operatorFactory = new TableScanOperatorFactory(context.getNextOperatorId(), node.getId(), pageSourceProvider, node.getTable(), columns, dynamicFilter);
+            DynamicRowFilter dynamicRowFilter = getDynamicRowFilter(node, filterExpression, context);
+            OperatorFactory operatorFactory = new TableScanOperatorFactory(context.getNextOperatorId(), node.getId(), pageSourceProvider, node.getTable(), columns, dynamicFilter, dynamicRowFilter);
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, stageExecutionDescriptor.isScanGroupedExecution(node.getId()) ? GROUPED_EXECUTION : UNGROUPED_EXECUTION);
         }
 
@@ -1438,12 +1593,41 @@ public class LocalExecutionPlanner
         {
             DynamicFilters.ExtractResult extractDynamicFilterResult = extractDynamicFilters(filterExpression);
             List<DynamicFilters.Descriptor> dynamicFilters = extractDynamicFilterResult.getDynamicConjuncts();
-            if (dynamicFilters.isEmpty()) {
-                return DynamicFilter.EMPTY;
+            DynamicFilter dynamicFilter = DynamicFilter.EMPTY;
+            if (!dynamicFilters.isEmpty()) {
+                log.debug("[TableScan] Dynamic filters: %s", dynamicFilters);
+                dynamicFilter = context.getDynamicFiltersCollector().createDynamicFilter(dynamicFilters, tableScanNode.getAssignments(), context.getTypes());
+            }
+
+            Optional<TopNDynamicFilter> topNDynamicFilter = context.getTopNDynamicFilter(tableScanNode.getId());
+            if (topNDynamicFilter.isPresent()) {
+                return topNDynamicFilter.get().intersect(dynamicFilter);
+            }
+            return dynamicFilter;
+        }
+
+        private DynamicRowFilter getDynamicRowFilter(
+                TableScanNode tableScanNode,
+                Expression filterExpression,
+                LocalExecutionPlanContext context)
+        {
+            List<ColumnHandle> columns = tableScanNode.getOutputSymbols().stream()
+                    .map(tableScanNode.getAssignments()::get)
+                    .collect(toImmutableList());
+
+            DynamicRowFilter dynamicRowFilter = DynamicRowFilter.EMPTY;
+            List<DynamicFilters.Descriptor> dynamicFilters = extractDynamicFilters(filterExpression).getDynamicConjuncts();
+            if (isDynamicFilteringBloomFiltersEnabled(session) && !dynamicFilters.isEmpty()) {
+                dynamicRowFilter = context.getDynamicFiltersCollector().createDynamicRowFilter(dynamicFilters, tableScanNode.getAssignments(), columns, context.getTypes());
             }
 
-            log.debug("[TableScan] Dynamic filters: %s", dynamicFilters);
-            return context.getDynamicFiltersCollector().createDynamicFilter(dynamicFilters, tableScanNode.getAssignments(), context.getTypes());
+            Optional<TopNDynamicFilter> topNDynamicFilter = context.getTopNDynamicFilter(tableScanNode.getId());
+            if (topNDynamicFilter.isPresent()) {
+                int index = columns.indexOf(topNDynamicFilter.get().getColumn());
+                verify(index >= 0, "Column of TopN dynamic filter is not read: %s", topNDynamicFilter.get());
+                dynamicRowFilter = dynamicRowFilter.withChannel(new DynamicRowFilter.Channel(index, topNDynamicFilter.get()::getValueFilter));
+            }
+            return dynamicRowFilter;
         }
 
         @Override
@@ -1952,7 +2136,7 @@ public class LocalExecutionPlanner
             int operatorId = buildContext.getNextOperatorId();
             Optional<LocalDynamicFilterConsumer> localDynamicFilter = createDynamicFilter(buildSource, node, context, partitionCount, localDynamicFilters);
             if (localDynamicFilter.isPresent()) {
-                buildSource = createDynamicFilterSourceOperatorFactory(operatorId, localDynamicFilter.get(), node, buildSource, buildContext);
+                buildSource = createDynamicFilterSourceOperatorFactory(operatorId, localDynamicFilter.get(), node, buildSource, buildContext, !localDynamicFilters.isEmpty());
             }
 
             context.addDriverFactory(
@@ -2204,7 +2388,7 @@ public class LocalExecutionPlanner
             int operatorId = buildContext.getNextOperatorId();
             Optional<LocalDynamicFilterConsumer> localDynamicFilter = createDynamicFilter(buildSource, node, context, partitionCount, localDynamicFilters);
             if (localDynamicFilter.isPresent()) {
-                buildSource = createDynamicFilterSourceOperatorFactory(operatorId, localDynamicFilter.get(), node, buildSource, buildContext);
+                buildSource = createDynamicFilterSourceOperatorFactory(operatorId, localDynamicFilter.get(), node, buildSource, buildContext, !localDynamicFilters.isEmpty());
             }
 
             HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(
@@ -2236,7 +2420,8 @@ public class LocalExecutionPlanner
                 LocalDynamicFilterConsumer dynamicFilter,
                 JoinNode node,
                 PhysicalOperation buildSource,
-                LocalExecutionPlanContext context)
+                LocalExecutionPlanContext context,
+                boolean collectBloomFilters)
         {
             List<DynamicFilterSourceOperator.Channel> filterBuildChannels = dynamicFilter.getBuildChannels().entrySet().stream()
                     .map(entry -> {
@@ -2252,10 +2437,12 @@ public class LocalExecutionPlanner
                             operatorId,
                             node.getId(),
                             dynamicFilter.getTupleDomainConsumer(),
+                            dynamicFilter.getBloomFilterConsumer(),
                             filterBuildChannels,
                             getDynamicFilteringMaxDistinctValuesPerDriver(session, isReplicatedJoin),
                             getDynamicFilteringMaxSizePerDriver(session, isReplicatedJoin),
                             getDynamicFilteringRangeRowLimitPerDriver(session, isReplicatedJoin),
+                            getDynamicFilteringBloomFilterSizePerDriver(session, collectBloomFilters),
                             blockTypeOperators),
                     buildSource.getLayout(),
                     context,
@@ -2284,6 +2471,7 @@ public class LocalExecutionPlanner
             LocalDynamicFilterConsumer filterConsumer = LocalDynamicFilterConsumer.create(node, buildSource.getTypes(), partitionCount, collectedDynamicFilters);
             ListenableFuture<Map<DynamicFilterId, Domain>> domainsFuture = filterConsumer.getDynamicFilterDomains();
             if (!localDynamicFilters.isEmpty()) {
+                addSuccessCallback(filterConsumer.getBloomFilters(), context::addLocalDynamicFilterBloomFilters);
                 addSuccessCallback(domainsFuture, context::addLocalDynamicFilters);
             }
             if (!coordinatorDynamicFilters.isEmpty()) {
@@ -2418,6 +2606,7 @@ public class LocalExecutionPlanner
                         partitionCount);
                 ListenableFuture<Map<DynamicFilterId, Domain>> domainsFuture = filterConsumer.getDynamicFilterDomains();
                 if (isLocalDynamicFilter) {
+                    addSuccessCallback(filterConsumer.getBloomFilters(), context::addLocalDynamicFilterBloomFilters);
                     addSuccessCallback(domainsFuture, context::addLocalDynamicFilters);
                 }
                 if (isCoordinatorDynamicFilter) {
@@ -2429,10 +2618,12 @@ public class LocalExecutionPlanner
                                 operatorId,
                                 node.getId(),
                                 filterConsumer.getTupleDomainConsumer(),
+                                filterConsumer.getBloomFilterConsumer(),
                                 ImmutableList.of(new DynamicFilterSourceOperator.Channel(filterId, buildSource.getTypes().get(buildChannel), buildChannel)),
                                 getDynamicFilteringMaxDistinctValuesPerDriver(session, isReplicatedJoin),
                                 getDynamicFilteringMaxSizePerDriver(session, isReplicatedJoin),
                                 getDynamicFilteringRangeRowLimitPerDriver(session, isReplicatedJoin),
+                                getDynamicFilteringBloomFilterSizePerDriver(session, isLocalDynamicFilter),
                                 blockTypeOperators),
                         buildSource.getLayout(),
                         buildContext,
@@ -2442,6 +2633,12 @@ public class LocalExecutionPlanner
             Optional<Integer> buildHashChannel = node.getFilteringSourceHashSymbol().map(channelGetter(buildSource));
             Optional<Integer> probeHashChannel = node.getSourceHashSymbol().map(channelGetter(probeSource));
 
+            // the partitions of a spilled set are released by a fixed count of probe operators
+            OptionalInt probeOperatorsCount = context.getDriverInstanceCount();
+            boolean spillEnabled = isSpillEnabled(session) &&
+                    probeOperatorsCount.isPresent() &&
+                    probeSource.getPipelineExecutionStrategy() == UNGROUPED_EXECUTION;
+
             SetBuilderOperatorFactory setBuilderOperatorFactory = new SetBuilderOperatorFactory(
                     buildContext.getNextOperatorId(),
                     node.getId(),
@@ -2450,7 +2647,10 @@ public class LocalExecutionPlanner
                     buildHashChannel,
                     10_000,
                     joinCompiler,
-                    blockTypeOperators);
+                    blockTypeOperators,
+                    spillEnabled,
+                    probeOperatorsCount.orElse(0),
+                    partitioningSpillerFactory);
             SetSupplier setProvider = setBuilderOperatorFactory.getSetProvider();
             context.addDriverFactory(
                     buildContext.isInputDriver(),
@@ -2464,7 +2664,16 @@ public class LocalExecutionPlanner
                     .put(node.getSemiJoinOutput(), probeSource.getLayout().size())
                     .build();
 
-            OperatorFactory operator = HashSemiJoinOperator.createOperatorFactory(context.getNextOperatorId(), node.getId(), setProvider, probeSource.getTypes(), probeChannel, probeHashChannel);
+            OperatorFactory operator = HashSemiJoinOperator.createOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    setProvider,
+                    probeSource.getTypes(),
+                    probeChannel,
+                    probeHashChannel,
+                    spillEnabled,
+                    partitioningSpillerFactory,
+                    blockTypeOperators);
             return new PhysicalOperation(operator, outputMappings, context, probeSource);
         }
 
@@ -3116,6 +3325,15 @@ public class LocalExecutionPlanner
             }
             else {
                 Optional<Integer> hashChannel = hashSymbol.map(channelGetter(source));
+                Optional<PartialAggregationController> partialAggregationController = Optional.empty();
+                if (step == PARTIAL &&
+                        maxPartialAggregationMemorySize.isPresent() &&
+                        isAdaptivePartialAggregationEnabled(session) &&
+                        accumulatorFactories.stream().noneMatch(factory -> factory.hasOrderBy() || factory.hasDistinct())) {
+                    partialAggregationController = Optional.of(new PartialAggregationController(
+                            getAdaptivePartialAggregationMinRows(session),
+                            getAdaptivePartialAggregationUniqueRowsRatioThreshold(session)));
+                }
                 return new HashAggregationOperatorFactory(
                         context.getNextOperatorId(),
                         planNodeId,
@@ -3129,6 +3347,7 @@ public class LocalExecutionPlanner
                         groupIdChannel,
                         expectedGroups,
                         maxPartialAggregationMemorySize,
+                        partialAggregationController,
                         spillEnabled,
                         unspillMemoryLimit,
                         spillerFactory,
@@ -3181,6 +3400,15 @@ public class LocalExecutionPlanner
         return dynamicFilterConfig.getSmallPartitionedRangeRowLimitPerDriver();
     }
 
+    private Optional<DataSize> getDynamicFilteringBloomFilterSizePerDriver(Session session, boolean hasLocalDynamicFilters)
+    {
+        // bloom filters are only used by table scans in the same task
+        if (hasLocalDynamicFilters && isDynamicFilteringBloomFiltersEnabled(session)) {
+            return Optional.of(dynamicFilterConfig.getBloomFilterSizePerDriver());
+        }
+        return Optional.empty();
+    }
+
     private static List<Type> getTypes(List<Expression> expressions, Map<NodeRef<Expression>, Type> expressionTypes)
     {
         return expressions.stream()
@@ -3274,6 +3502,7 @@ public class LocalExecutionPlanner
         private final List<Type> types;
 
         private final PipelineExecutionStrategy pipelineExecutionStrategy;
+        private final Optional<FragmentCacheOperatorFactory> fragmentCacheOperatorFactory;
 
         public PhysicalOperation(OperatorFactory operatorFactory, Map<Symbol, Integer> layout, LocalExecutionPlanContext context, PipelineExecutionStrategy pipelineExecutionStrategy)
         {
@@ -3310,6 +3539,25 @@ public class LocalExecutionPlanner
             this.layout = ImmutableMap.copyOf(layout);
             this.types = toTypes(layout, typeProvider);
             this.pipelineExecutionStrategy = pipelineExecutionStrategy;
+            this.fragmentCacheOperatorFactory = source.flatMap(PhysicalOperation::getFragmentCacheOperatorFactory);
+        }
+
+        private PhysicalOperation(PhysicalOperation operation, FragmentCacheOperatorFactory fragmentCacheOperatorFactory)
+        {
+            checkArgument(operation.getFragmentCacheOperatorFactory().isEmpty(), "Output of the operators of the pipeline is already cached");
+            this.operatorFactories = operation.getOperatorFactories();
+            this.layout = operation.getLayout();
+            this.types = operation.getTypes();
+            this.pipelineExecutionStrategy = operation.getPipelineExecutionStrategy();
+            this.fragmentCacheOperatorFactory = Optional.of(requireNonNull(fragmentCacheOperatorFactory, "fragmentCacheOperatorFactory is null"));
+        }
+
+        /**
+         * Returns the operation, with the output of its operators cached for the splits of the pipeline.
+         */
+        public PhysicalOperation withFragmentCacheOperatorFactory(FragmentCacheOperatorFactory fragmentCacheOperatorFactory)
+        {
+            return new PhysicalOperation(this, fragmentCacheOperatorFactory);
         }
 
         private static List<Type> toTypes(Map<Symbol, Integer> layout, TypeProvider typeProvider)
@@ -3352,6 +3600,11 @@ public class LocalExecutionPlanner
         {
             return pipelineExecutionStrategy;
         }
+
+        public Optional<FragmentCacheOperatorFactory> getFragmentCacheOperatorFactory()
+        {
+            return fragmentCacheOperatorFactory;
+        }
     }
 
     private static class DriverFactoryParameters
@@ -34,6 +34,7 @@ public class PartitioningScheme
     private final Optional<Symbol> hashColumn;
     private final boolean replicateNullsAndAny;
     private final Optional<int[]> bucketToPartition;
+    private final Optional<SkewedKeys> skewedKeys;
 
     public PartitioningScheme(Partitioning partitioning, List<Symbol> outputLayout)
     {
@@ -55,13 +56,30 @@ public class PartitioningScheme
                 Optional.empty());
     }
 
+    public PartitioningScheme(
+            Partitioning partitioning,
+            List<Symbol> outputLayout,
+            Optional<Symbol> hashColumn,
+            boolean replicateNullsAndAny,
+            Optional<int[]> bucketToPartition)
+    {
+        this(
+                partitioning,
+                outputLayout,
+                hashColumn,
+                replicateNullsAndAny,
+                bucketToPartition,
+                Optional.empty());
+    }
+
     @JsonCreator
     public PartitioningScheme(
             @JsonProperty("partitioning") Partitioning partitioning,
             @JsonProperty("outputLayout") List<Symbol> outputLayout,
             @JsonProperty("hashColumn") Optional<Symbol> hashColumn,
             @JsonProperty("replicateNullsAndAny") boolean replicateNullsAndAny,
-            @JsonProperty("bucketToPartition") Optional<int[]> bucketToPartition)
+            @JsonProperty("bucketToPartition") Optional<int[]> bucketToPartition,
+            @JsonProperty("skewedKeys") Optional<SkewedKeys> skewedKeys)
     {
         this.partitioning = requireNonNull(partitioning, "partitioning is null");
         this.outputLayout = ImmutableList.copyOf(requireNonNull(outputLayout, "outputLayout is null"));
@@ -77,6 +95,8 @@ public class PartitioningScheme
         checkArgument(!replicateNullsAndAny || columns.size() <= 1, "Must have at most one partitioning column when nullPartition is REPLICATE.");
         this.replicateNullsAndAny = replicateNullsAndAny;
         this.bucketToPartition = requireNonNull(bucketToPartition, "bucketToPartition is null");
+        this.skewedKeys = requireNonNull(skewedKeys, "skewedKeys is null");
+        checkArgument(skewedKeys.isEmpty() || !replicateNullsAndAny, "Skewed keys cannot be used when nullPartition is REPLICATE.");
     }
 
     @JsonProperty
@@ -109,9 +129,15 @@ public class PartitioningScheme
         return bucketToPartition;
     }
 
+    @JsonProperty
+    public Optional<SkewedKeys> getSkewedKeys()
+    {
+        return skewedKeys;
+    }
+
     public PartitioningScheme withBucketToPartition(Optional<int[]> bucketToPartition)
     {
-        return new PartitioningScheme(partitioning, outputLayout, hashColumn, replicateNullsAndAny, bucketToPartition);
+        return new PartitioningScheme(partitioning, outputLayout, hashColumn, replicateNullsAndAny, bucketToPartition, skewedKeys);
     }
 
     public PartitioningScheme translateOutputLayout(List<Symbol> newOutputLayout)
@@ -126,7 +152,7 @@ public class PartitioningScheme
                 .map(outputLayout::indexOf)
                 .map(newOutputLayout::get);
 
-        return new PartitioningScheme(newPartitioning, newOutputLayout, newHashSymbol, replicateNullsAndAny, bucketToPartition);
+        return new PartitioningScheme(newPartitioning, newOutputLayout, newHashSymbol, replicateNullsAndAny, bucketToPartition, skewedKeys);
     }
 
     @Override
@@ -142,13 +168,14 @@ public class PartitioningScheme
         return Objects.equals(partitioning, that.partitioning) &&
                 Objects.equals(outputLayout, that.outputLayout) &&
                 replicateNullsAndAny == that.replicateNullsAndAny &&
-                Objects.equals(bucketToPartition, that.bucketToPartition);
+                Objects.equals(bucketToPartition, that.bucketToPartition) &&
+                Objects.equals(skewedKeys, that.skewedKeys);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(partitioning, outputLayout, replicateNullsAndAny, bucketToPartition);
+        return Objects.hash(partitioning, outputLayout, replicateNullsAndAny, bucketToPartition, skewedKeys);
     }
 
     @Override
@@ -160,6 +187,7 @@ public class PartitioningScheme
                 .add("hashChannel", hashColumn)
                 .add("replicateNullsAndAny", replicateNullsAndAny)
                 .add("bucketToPartition", bucketToPartition)
+                .add("skewedKeys", skewedKeys)
                 .toString();
     }
 }
@@ -19,6 +19,19 @@ public class PlanNodeIdAllocator
 {
     private int nextId;
 
+    public PlanNodeIdAllocator()
+    {
+        this(0);
+    }
+
+    /**
+     * Allocates the ids starting from the given id, so that they do not collide with the ids of another plan of the query.
+     */
+    public PlanNodeIdAllocator(int firstId)
+    {
+        this.nextId = firstId;
+    }
+
     public PlanNodeId getNextId()
     {
         return new PlanNodeId(Integer.toString(nextId++));
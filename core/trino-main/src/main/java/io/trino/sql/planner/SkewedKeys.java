@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql.planner;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Objects;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Partitioning keys, which are too frequent to be sent to a single partition. The keys are identified
+ * by the hash, which the partitioning computes from them, so a key colliding with a skewed key is
+ * handled the same way on both sides of a join.
+ */
+public class SkewedKeys
+{
+    public enum Distribution
+    {
+        /**
+         * Rows with a skewed key are spread across all partitions.
+         */
+        SPREAD,
+        /**
+         * Rows with a skewed key are sent to all partitions.
+         */
+        REPLICATE,
+    }
+
+    private final Set<Long> keyHashes;
+    private final Distribution distribution;
+
+    @JsonCreator
+    public SkewedKeys(
+            @JsonProperty("keyHashes") Set<Long> keyHashes,
+            @JsonProperty("distribution") Distribution distribution)
+    {
+        this.keyHashes = ImmutableSet.copyOf(requireNonNull(keyHashes, "keyHashes is null"));
+        checkArgument(!keyHashes.isEmpty(), "keyHashes is empty");
+        this.distribution = requireNonNull(distribution, "distribution is null");
+    }
+
+    @JsonProperty
+    public Set<Long> getKeyHashes()
+    {
+        return keyHashes;
+    }
+
+    @JsonProperty
+    public Distribution getDistribution()
+    {
+        return distribution;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SkewedKeys that = (SkewedKeys) o;
+        return Objects.equals(keyHashes, that.keyHashes) &&
+                distribution == that.distribution;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(keyHashes, distribution);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("keyHashes", keyHashes)
+                .add("distribution", distribution)
+                .toString();
+    }
+}
@@ -45,6 +45,7 @@ import java.util.Optional;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
+import static io.trino.sql.ParameterPlaceholders.createPlaceholder;
 import static io.trino.sql.planner.ScopeAware.scopeAwareKey;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -270,7 +271,12 @@ class TranslationMap
                 }
 
                 checkState(analysis.getParameters().size() > node.getPosition(), "Too few parameter values");
-                return coerceIfNecessary(node, treeRewriter.rewrite(analysis.getParameters().get(NodeRef.of(node)), null));
+                Expression value = treeRewriter.rewrite(analysis.getParameters().get(NodeRef.of(node)), null);
+                Optional<ResolvedFunction> placeholder = analysis.getParameterPlaceholder(node);
+                if (placeholder.isPresent()) {
+                    value = createPlaceholder(placeholder.get(), value, node.getPosition());
+                }
+                return coerceIfNecessary(node, value);
             }
 
             @Override
@@ -16,21 +16,41 @@ package io.trino.sql.planner.optimizations;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.SetMultimap;
 import io.trino.Session;
 import io.trino.SystemSessionProperties;
+import io.trino.execution.Lifespan;
 import io.trino.execution.warnings.WarningCollector;
 import io.trino.metadata.Metadata;
+import io.trino.metadata.Split;
+import io.trino.metadata.TableHandle;
+import io.trino.operator.HashGenerator;
+import io.trino.operator.InterpretedHashGenerator;
+import io.trino.spi.Page;
+import io.trino.spi.block.Block;
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.connector.ConnectorPageSource;
+import io.trino.spi.connector.Constraint;
+import io.trino.spi.connector.DynamicFilter;
 import io.trino.spi.connector.GroupingProperty;
 import io.trino.spi.connector.LocalProperty;
 import io.trino.spi.connector.SortingProperty;
+import io.trino.spi.statistics.ColumnStatistics;
+import io.trino.spi.statistics.TableStatistics;
+import io.trino.spi.type.Type;
 import io.trino.spi.type.TypeOperators;
+import io.trino.split.PageSourceManager;
+import io.trino.split.SplitManager;
+import io.trino.split.SplitSource;
+import io.trino.split.SplitSource.SplitBatch;
 import io.trino.sql.planner.DomainTranslator;
 import io.trino.sql.planner.Partitioning;
 import io.trino.sql.planner.PartitioningScheme;
 import io.trino.sql.planner.PlanNodeIdAllocator;
+import io.trino.sql.planner.SkewedKeys;
 import io.trino.sql.planner.Symbol;
 import io.trino.sql.planner.SymbolAllocator;
 import io.trino.sql.planner.TypeAnalyzer;
@@ -73,11 +93,15 @@ import io.trino.sql.planner.plan.ValuesNode;
 import io.trino.sql.planner.plan.WindowNode;
 import io.trino.sql.tree.Expression;
 import io.trino.sql.tree.SymbolReference;
+import io.trino.type.BlockTypeOperators;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
@@ -85,13 +109,25 @@ import java.util.function.Function;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.trino.SystemSessionProperties.getSkewedJoinHandlingMinKeyFraction;
+import static io.trino.SystemSessionProperties.getSkewedJoinHandlingSampleRows;
 import static io.trino.SystemSessionProperties.ignoreDownStreamPreferences;
 import static io.trino.SystemSessionProperties.isColocatedJoinEnabled;
 import static io.trino.SystemSessionProperties.isDistributedSortEnabled;
 import static io.trino.SystemSessionProperties.isForceSingleNodeOutput;
+import static io.trino.SystemSessionProperties.isSkewedJoinHandlingEnabled;
+import static io.trino.spi.connector.ConnectorSplitManager.SplitSchedulingStrategy.UNGROUPED_SCHEDULING;
+import static io.trino.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
+import static io.trino.spi.predicate.Utils.nativeValueToBlock;
+import static io.trino.spi.type.TypeUtils.readNativeValue;
 import static io.trino.sql.planner.FragmentTableScanCounter.countSources;
 import static io.trino.sql.planner.FragmentTableScanCounter.hasMultipleSources;
+import static io.trino.sql.planner.SkewedKeys.Distribution.REPLICATE;
+import static io.trino.sql.planner.SkewedKeys.Distribution.SPREAD;
 import static io.trino.sql.planner.SystemPartitioningHandle.FIXED_ARBITRARY_DISTRIBUTION;
 import static io.trino.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
 import static io.trino.sql.planner.SystemPartitioningHandle.SCALED_WRITER_DISTRIBUTION;
@@ -108,22 +144,33 @@ import static io.trino.sql.planner.plan.ExchangeNode.mergingExchange;
 import static io.trino.sql.planner.plan.ExchangeNode.partitionedExchange;
 import static io.trino.sql.planner.plan.ExchangeNode.replicatedExchange;
 import static io.trino.sql.planner.plan.ExchangeNode.roundRobinExchange;
+import static io.trino.sql.planner.plan.JoinNode.Type.INNER;
+import static io.trino.sql.planner.plan.JoinNode.Type.LEFT;
 import static io.trino.sql.tree.BooleanLiteral.TRUE_LITERAL;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
 public class AddExchanges
         implements PlanOptimizer
 {
+    private static final int SAMPLE_SPLIT_BATCH_SIZE = 10;
+
     private final TypeAnalyzer typeAnalyzer;
     private final Metadata metadata;
     private final TypeOperators typeOperators;
+    private final BlockTypeOperators blockTypeOperators;
     private final DomainTranslator domainTranslator;
+    private final SplitManager splitManager;
+    private final PageSourceManager pageSourceManager;
 
-    public AddExchanges(Metadata metadata, TypeOperators typeOperators, TypeAnalyzer typeAnalyzer)
+    public AddExchanges(Metadata metadata, TypeOperators typeOperators, TypeAnalyzer typeAnalyzer, SplitManager splitManager, PageSourceManager pageSourceManager)
     {
         this.metadata = metadata;
+        this.splitManager = splitManager;
+        this.pageSourceManager = pageSourceManager;
         this.typeOperators = typeOperators;
+        this.blockTypeOperators = new BlockTypeOperators(typeOperators);
         this.domainTranslator = new DomainTranslator(metadata);
         this.typeAnalyzer = typeAnalyzer;
     }
@@ -146,6 +193,8 @@ public class AddExchanges
         private final boolean preferStreamingOperators;
         private final boolean redistributeWrites;
         private final boolean scaleWriters;
+        private final Map<TableHandle, TableStatistics> tableStatistics = new HashMap<>();
+        private final Map<TableColumn, Map<Object, Double>> sampledValues = new HashMap<>();
 
         public Rewriter(PlanNodeIdAllocator idAllocator, SymbolAllocator symbolAllocator, Session session)
         {
@@ -713,6 +762,18 @@ public class AddExchanges
                             left.getProperties());
                 }
                 else {
+                    Optional<Set<Long>> skewedKeyHashes = getSkewedKeyHashes(node);
+                    if (skewedKeyHashes.isPresent()) {
+                        // spread the probe rows of the skewed keys across all partitions, and send the matching build rows to all of them
+                        left = withDerivedProperties(
+                                partitionedExchange(idAllocator.getNextId(), REMOTE, left.getNode(), skewedPartitioningScheme(left.getNode(), leftSymbols, new SkewedKeys(skewedKeyHashes.get(), SPREAD))),
+                                left.getProperties());
+                        right = withDerivedProperties(
+                                partitionedExchange(idAllocator.getNextId(), REMOTE, right.getNode(), skewedPartitioningScheme(right.getNode(), rightSymbols, new SkewedKeys(skewedKeyHashes.get(), REPLICATE))),
+                                right.getProperties());
+                        return buildJoin(node, left, right, JoinNode.DistributionType.PARTITIONED);
+                    }
+
                     left = withDerivedProperties(
                             partitionedExchange(idAllocator.getNextId(), REMOTE, left.getNode(), leftSymbols, Optional.empty()),
                             left.getProperties());
@@ -735,6 +796,139 @@ public class AddExchanges
             return buildJoin(node, left, right, JoinNode.DistributionType.PARTITIONED);
         }
 
+        private PartitioningScheme skewedPartitioningScheme(PlanNode source, List<Symbol> partitioningColumns, SkewedKeys skewedKeys)
+        {
+            return new PartitioningScheme(
+                    Partitioning.create(FIXED_HASH_DISTRIBUTION, partitioningColumns),
+                    source.getOutputSymbols(),
+                    Optional.empty(),
+                    false,
+                    Optional.empty(),
+                    Optional.of(skewedKeys));
+        }
+
+        /**
+         * Returns the hashes of the join keys, which the statistics of the probe side table report
+         * to be too frequent to be handled by a single partition.
+         */
+        private Optional<Set<Long>> getSkewedKeyHashes(JoinNode node)
+        {
+            // replicating the build rows is only correct when the unmatched build rows are not produced
+            if (!isSkewedJoinHandlingEnabled(session) || node.getCriteria().size() != 1 || (node.getType() != INNER && node.getType() != LEFT)) {
+                return Optional.empty();
+            }
+
+            Symbol probeSymbol = getOnlyElement(node.getCriteria()).getLeft();
+            Type type = types.get(probeSymbol);
+            double minKeyFraction = getSkewedJoinHandlingMinKeyFraction(session);
+            Set<Long> keyHashes = getMostCommonValues(node.getLeft(), probeSymbol, type).entrySet().stream()
+                    .filter(entry -> entry.getValue() >= minKeyFraction)
+                    .map(entry -> skewedKeyHashGenerator(type).hashPosition(0, new Page(nativeValueToBlock(type, entry.getKey()))))
+                    .collect(toImmutableSet());
+            if (keyHashes.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(keyHashes);
+        }
+
+        private HashGenerator skewedKeyHashGenerator(Type type)
+        {
+            // the same hash as the one computed by the partitioning, whether the hash is precomputed or not
+            return new InterpretedHashGenerator(ImmutableList.of(type), new int[] {0}, blockTypeOperators);
+        }
+
+        private Map<Object, Double> getMostCommonValues(PlanNode node, Symbol symbol, Type type)
+        {
+            // follow the symbol through projections and filters to the table column producing it
+            while (true) {
+                if (node instanceof ProjectNode) {
+                    Expression expression = ((ProjectNode) node).getAssignments().get(symbol);
+                    if (!(expression instanceof SymbolReference)) {
+                        return ImmutableMap.of();
+                    }
+                    symbol = Symbol.from(expression);
+                    node = ((ProjectNode) node).getSource();
+                }
+                else if (node instanceof FilterNode) {
+                    node = ((FilterNode) node).getSource();
+                }
+                else if (node instanceof TableScanNode) {
+                    TableScanNode tableScan = (TableScanNode) node;
+                    ColumnHandle column = tableScan.getAssignments().get(symbol);
+                    // a table is joined on the same column by several joins of a query, so its statistics are fetched once
+                    ColumnStatistics columnStatistics = tableStatistics.computeIfAbsent(
+                            tableScan.getTable(),
+                            table -> metadata.getTableStatistics(session, table, Constraint.alwaysTrue()))
+                            .getColumnStatistics()
+                            .get(column);
+                    if (columnStatistics != null && !columnStatistics.getMostCommonValues().isEmpty()) {
+                        return columnStatistics.getMostCommonValues();
+                    }
+                    return sampledValues.computeIfAbsent(
+                            new TableColumn(tableScan.getTable(), column),
+                            tableColumn -> sampleMostCommonValues(tableColumn.getTable(), tableColumn.getColumn(), type));
+                }
+                else {
+                    return ImmutableMap.of();
+                }
+            }
+        }
+
+        /**
+         * Reads the column from the first splits of the table, for connectors which do not report the most common values.
+         * The sample is not random, so a key clustered in the first splits is overestimated.
+         */
+        private Map<Object, Double> sampleMostCommonValues(TableHandle table, ColumnHandle column, Type type)
+        {
+            int maxRows = getSkewedJoinHandlingSampleRows(session);
+            // the values of structural types are not comparable in a map
+            if (maxRows == 0 || type.getJavaType() == Block.class) {
+                return ImmutableMap.of();
+            }
+
+            Map<Object, Long> valueCounts = new HashMap<>();
+            long rows = 0;
+            try (SplitSource splitSource = splitManager.getSplits(session, table, UNGROUPED_SCHEDULING, DynamicFilter.EMPTY)) {
+                while (rows < maxRows && !splitSource.isFinished()) {
+                    SplitBatch splitBatch = getFutureValue(splitSource.getNextBatch(NOT_PARTITIONED, Lifespan.taskWide(), SAMPLE_SPLIT_BATCH_SIZE));
+                    for (Split split : splitBatch.getSplits()) {
+                        if (rows >= maxRows) {
+                            break;
+                        }
+                        try (ConnectorPageSource pageSource = pageSourceManager.createPageSource(session, split, table, ImmutableList.of(column), DynamicFilter.EMPTY)) {
+                            while (rows < maxRows && !pageSource.isFinished()) {
+                                getFutureValue(pageSource.isBlocked());
+                                Page page = pageSource.getNextPage();
+                                if (page == null) {
+                                    continue;
+                                }
+                                Block block = page.getBlock(0).getLoadedBlock();
+                                for (int position = 0; position < block.getPositionCount() && rows < maxRows; position++) {
+                                    rows++;
+                                    // null keys never match, so they are not skewed keys
+                                    if (!block.isNull(position)) {
+                                        valueCounts.merge(readNativeValue(type, block, position), 1L, Long::sum);
+                                    }
+                                }
+                            }
+                        }
+                        catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                    if (splitBatch.isLastBatch()) {
+                        break;
+                    }
+                }
+            }
+
+            long sampledRows = rows;
+            double minKeyFraction = getSkewedJoinHandlingMinKeyFraction(session);
+            return valueCounts.entrySet().stream()
+                    .filter(entry -> (double) entry.getValue() / sampledRows >= minKeyFraction)
+                    .collect(toImmutableMap(Map.Entry::getKey, entry -> (double) entry.getValue() / sampledRows));
+        }
+
         private PlanWithProperties planReplicatedJoin(JoinNode node, PlanWithProperties left)
         {
             // Broadcast Join
@@ -1288,4 +1482,46 @@ public class AddExchanges
             return properties;
         }
     }
+
+    private static class TableColumn
+    {
+        private final TableHandle table;
+        private final ColumnHandle column;
+
+        public TableColumn(TableHandle table, ColumnHandle column)
+        {
+            this.table = requireNonNull(table, "table is null");
+            this.column = requireNonNull(column, "column is null");
+        }
+
+        public TableHandle getTable()
+        {
+            return table;
+        }
+
+        public ColumnHandle getColumn()
+        {
+            return column;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            TableColumn that = (TableColumn) o;
+            return table.equals(that.table) &&
+                    column.equals(that.column);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(table, column);
+        }
+    }
 }
@@ -95,6 +95,7 @@ import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static io.trino.spi.predicate.TupleDomain.extractFixedValues;
+import static io.trino.sql.planner.SkewedKeys.Distribution.SPREAD;
 import static io.trino.sql.planner.SystemPartitioningHandle.ARBITRARY_DISTRIBUTION;
 import static io.trino.sql.planner.optimizations.ActualProperties.Global.arbitraryPartition;
 import static io.trino.sql.planner.optimizations.ActualProperties.Global.coordinatorSingleStreamPartition;
@@ -603,6 +604,13 @@ public final class PropertyDerivations
                             .constants(constants)
                             .build();
                 case REPARTITION:
+                    if (node.getPartitioningScheme().getSkewedKeys().map(skewedKeys -> skewedKeys.getDistribution() == SPREAD).orElse(false)) {
+                        // rows with a skewed key can end up in any partition
+                        return ActualProperties.builder()
+                                .global(arbitraryPartition())
+                                .constants(constants)
+                                .build();
+                    }
                     return ActualProperties.builder()
                             .global(partitionedOn(
                                     node.getPartitioningScheme().getPartitioning(),
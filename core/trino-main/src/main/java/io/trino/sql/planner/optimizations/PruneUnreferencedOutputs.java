@@ -182,7 +182,8 @@ public class PruneUnreferencedOutputs
                     newOutputSymbols,
                     node.getPartitioningScheme().getHashColumn(),
                     node.getPartitioningScheme().isReplicateNullsAndAny(),
-                    node.getPartitioningScheme().getBucketToPartition());
+                    node.getPartitioningScheme().getBucketToPartition(),
+                    node.getPartitioningScheme().getSkewedKeys());
 
             ImmutableList.Builder<PlanNode> rewrittenSources = ImmutableList.builder();
             for (int i = 0; i < node.getSources().size(); i++) {
@@ -313,7 +313,8 @@ public class SymbolMapper
                 mapAndDistinct(sourceLayout),
                 scheme.getHashColumn().map(this::map),
                 scheme.isReplicateNullsAndAny(),
-                scheme.getBucketToPartition());
+                scheme.getBucketToPartition(),
+                scheme.getSkewedKeys());
     }
 
     public TableFinishNode map(TableFinishNode node, PlanNode source)
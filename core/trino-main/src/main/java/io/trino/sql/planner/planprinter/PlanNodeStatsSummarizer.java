@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableMap;
 import io.airlift.units.Duration;
 import io.trino.execution.StageInfo;
 import io.trino.execution.TaskInfo;
+import io.trino.operator.HashAggregationInfo;
 import io.trino.operator.HashCollisionsInfo;
 import io.trino.operator.OperatorStats;
 import io.trino.operator.PipelineStats;
@@ -80,6 +81,7 @@ public final class PlanNodeStatsSummarizer
 
         Map<PlanNodeId, Map<String, OperatorInputStats>> operatorInputStats = new HashMap<>();
         Map<PlanNodeId, Map<String, OperatorHashCollisionsStats>> operatorHashCollisionsStats = new HashMap<>();
+        Map<PlanNodeId, Long> planNodeInputPositionsWithoutPartialAggregation = new HashMap<>();
         Map<PlanNodeId, WindowOperatorStats> windowNodeStats = new HashMap<>();
 
         for (PipelineStats pipelineStats : taskStats.getPipelines()) {
@@ -160,6 +162,11 @@ public final class PlanNodeStatsSummarizer
                             (map1, map2) -> mergeMaps(map1, map2, OperatorHashCollisionsStats::merge));
                 }
 
+                if (operatorStats.getInfo() instanceof HashAggregationInfo) {
+                    HashAggregationInfo hashAggregationInfo = (HashAggregationInfo) operatorStats.getInfo();
+                    planNodeInputPositionsWithoutPartialAggregation.merge(planNodeId, hashAggregationInfo.getInputPositionsWithoutPartialAggregation(), Long::sum);
+                }
+
                 // The only statistics we have for Window Functions are very low level, thus displayed only in VERBOSE mode
                 if (operatorStats.getInfo() instanceof WindowInfo) {
                     WindowInfo windowInfo = (WindowInfo) operatorStats.getInfo();
@@ -182,7 +189,20 @@ public final class PlanNodeStatsSummarizer
             // and therefore only have scheduled time, but no output stats
             long outputPositions = planNodeOutputPositions.getOrDefault(planNodeId, 0L);
 
-            if (operatorHashCollisionsStats.containsKey(planNodeId)) {
+            if (planNodeInputPositionsWithoutPartialAggregation.containsKey(planNodeId)) {
+                nodeStats = new HashAggregationPlanNodeStats(
+                        planNodeId,
+                        new Duration(planNodeScheduledMillis.get(planNodeId), MILLISECONDS),
+                        new Duration(planNodeCpuMillis.get(planNodeId), MILLISECONDS),
+                        planNodeInputPositions.get(planNodeId),
+                        succinctBytes(planNodeInputBytes.get(planNodeId)),
+                        outputPositions,
+                        succinctBytes(planNodeOutputBytes.getOrDefault(planNodeId, 0L)),
+                        operatorInputStats.get(planNodeId),
+                        operatorHashCollisionsStats.get(planNodeId),
+                        planNodeInputPositionsWithoutPartialAggregation.get(planNodeId));
+            }
+            else if (operatorHashCollisionsStats.containsKey(planNodeId)) {
                 nodeStats = new HashCollisionPlanNodeStats(
                         planNodeId,
                         new Duration(planNodeScheduledMillis.get(planNodeId), MILLISECONDS),
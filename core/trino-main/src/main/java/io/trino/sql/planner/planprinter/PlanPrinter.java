@@ -43,6 +43,7 @@ import io.trino.sql.planner.OrderingScheme;
 import io.trino.sql.planner.Partitioning;
 import io.trino.sql.planner.PartitioningScheme;
 import io.trino.sql.planner.PlanFragment;
+import io.trino.sql.planner.SkewedKeys;
 import io.trino.sql.planner.SubPlan;
 import io.trino.sql.planner.Symbol;
 import io.trino.sql.planner.TypeProvider;
@@ -140,6 +141,7 @@ import static io.trino.sql.planner.planprinter.TextRenderer.indentString;
 import static io.trino.sql.tree.BooleanLiteral.TRUE_LITERAL;
 import static java.lang.String.format;
 import static java.util.Arrays.stream;
+import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.joining;
@@ -324,6 +326,15 @@ public class PlanPrinter
                     Joiner.on(", ").join(arguments),
                     formatHash(partitioningScheme.getHashColumn())));
         }
+        else if (partitioningScheme.getSkewedKeys().isPresent()) {
+            SkewedKeys skewedKeys = partitioningScheme.getSkewedKeys().get();
+            builder.append(format("Output partitioning: %s (%s %s skewed keys) [%s]%s\n",
+                    partitioningScheme.getPartitioning().getHandle(),
+                    skewedKeys.getDistribution().name().toLowerCase(ENGLISH),
+                    skewedKeys.getKeyHashes().size(),
+                    Joiner.on(", ").join(arguments),
+                    formatHash(partitioningScheme.getHashColumn())));
+        }
         else {
             builder.append(format("Output partitioning: %s [%s]%s\n",
                     partitioningScheme.getPartitioning().getHandle(),
@@ -1101,9 +1112,12 @@ public class PlanPrinter
             else {
                 addNode(node,
                         format("%sExchange", UPPER_UNDERSCORE.to(CaseFormat.UPPER_CAMEL, node.getScope().toString())),
-                        format("[%s%s]%s",
+                        format("[%s%s%s]%s",
                                 node.getType(),
                                 node.getPartitioningScheme().isReplicateNullsAndAny() ? " - REPLICATE NULLS AND ANY" : "",
+                                node.getPartitioningScheme().getSkewedKeys()
+                                        .map(skewedKeys -> format(" - %s %s SKEWED KEYS", skewedKeys.getDistribution(), skewedKeys.getKeyHashes().size()))
+                                        .orElse(""),
                                 formatHash(node.getPartitioningScheme().getHashColumn())));
             }
             return processChildren(node, context);
@@ -133,6 +133,7 @@ public class TextRenderer
 
         printDistributions(output, nodeStats);
         printCollisions(output, nodeStats);
+        printPartialAggregationStats(output, nodeStats);
 
         if (nodeStats instanceof WindowPlanNodeStats) {
             printWindowOperatorStats(output, ((WindowPlanNodeStats) nodeStats).getWindowOperatorStats());
@@ -183,6 +184,22 @@ public class TextRenderer
         }
     }
 
+    private void printPartialAggregationStats(StringBuilder output, PlanNodeStats stats)
+    {
+        if (!(stats instanceof HashAggregationPlanNodeStats)) {
+            return;
+        }
+
+        long inputPositionsWithoutPartialAggregation = ((HashAggregationPlanNodeStats) stats).getInputPositionsWithoutPartialAggregation();
+        if (inputPositionsWithoutPartialAggregation == 0) {
+            return;
+        }
+
+        output.append(format(Locale.US, "Input rows processed without partial aggregation: %s (%s%%)\n",
+                formatPositions(inputPositionsWithoutPartialAggregation),
+                formatDouble(100.0d * inputPositionsWithoutPartialAggregation / stats.getPlanNodeInputPositions())));
+    }
+
     private void printWindowOperatorStats(StringBuilder output, WindowOperatorStats stats)
     {
         if (!verbose) {
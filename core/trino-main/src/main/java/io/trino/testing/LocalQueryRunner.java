@@ -69,6 +69,7 @@ import io.trino.execution.SetSessionTask;
 import io.trino.execution.StartTransactionTask;
 import io.trino.execution.TaskManagerConfig;
 import io.trino.execution.TaskSource;
+import io.trino.execution.fragmentcache.FragmentCache;
 import io.trino.execution.resourcegroups.NoOpResourceGroupManager;
 import io.trino.execution.scheduler.NodeScheduler;
 import io.trino.execution.scheduler.NodeSchedulerConfig;
@@ -259,6 +260,7 @@ public class LocalQueryRunner
     private final ImmutableMap<Class<? extends Statement>, DataDefinitionTask<?>> dataDefinitionTask;
 
     private final TaskManagerConfig taskManagerConfig;
+    private final FragmentCache fragmentCache;
     private final boolean alwaysRevokeMemory;
     private final NodeSpillConfig nodeSpillConfig;
     private final FeaturesConfig featuresConfig;
@@ -290,6 +292,7 @@ public class LocalQueryRunner
         checkArgument(defaultSession.getTransactionId().isEmpty() || !withInitialTransaction, "Already in transaction");
 
         this.taskManagerConfig = new TaskManagerConfig().setTaskConcurrency(4);
+        this.fragmentCache = new FragmentCache(taskManagerConfig);
         this.nodeSpillConfig = requireNonNull(nodeSpillConfig, "nodeSpillConfig is null");
         this.alwaysRevokeMemory = alwaysRevokeMemory;
         this.notificationExecutor = newCachedThreadPool(daemonThreadsNamed("local-query-runner-executor-%s"));
@@ -507,6 +510,11 @@ public class LocalQueryRunner
         return pageSourceManager;
     }
 
+    public FragmentCache getFragmentCache()
+    {
+        return fragmentCache;
+    }
+
     @Override
     public SplitManager getSplitManager()
     {
@@ -761,7 +769,8 @@ public class LocalQueryRunner
                 new OrderingCompiler(typeOperators),
                 new DynamicFilterConfig(),
                 typeOperators,
-                blockTypeOperators);
+                blockTypeOperators,
+                fragmentCache);
 
         // plan query
         StageExecutionDescriptor stageExecutionDescriptor = subplan.getFragment().getStageExecutionDescriptor();
@@ -820,7 +829,7 @@ public class LocalQueryRunner
             boolean partitioned = partitionedSources.contains(driverFactory.getSourceId().get());
             for (ScheduledSplit split : source.getSplits()) {
                 DriverContext driverContext = taskContext.addPipelineContext(driverFactory.getPipelineId(), driverFactory.isInputDriver(), driverFactory.isOutputDriver(), partitioned).addDriverContext();
-                Driver driver = driverFactory.createDriver(driverContext);
+                Driver driver = driverFactory.createDriver(driverContext, Optional.of(split.getSplit()));
                 driver.updateSource(new TaskSource(split.getPlanNodeId(), ImmutableSet.of(split), true));
                 drivers.add(driver);
             }
@@ -56,7 +56,7 @@ public class BenchmarkPagesIndexPageSorter
     @Benchmark
     public int runBenchmark(BenchmarkData data)
     {
-        PageSorter pageSorter = new PagesIndexPageSorter(new PagesIndex.TestingFactory(false));
+        PageSorter pageSorter = new PagesIndexPageSorter(new PagesIndex.TestingFactory(false, data.normalizedSortKeys));
         long[] addresses = pageSorter.sort(data.types, data.pages, data.sortChannels, nCopies(data.sortChannels.size(), ASC_NULLS_FIRST), 10_000);
         return addresses.length;
     }
@@ -99,6 +99,9 @@ public class BenchmarkPagesIndexPageSorter
         @Param({"BIGINT", "VARCHAR", "DOUBLE", "BOOLEAN"})
         private String sortChannelType;
 
+        @Param({"false", "true"})
+        private boolean normalizedSortKeys;
+
         private List<Page> pages;
         private final int maxPages = 500;
 
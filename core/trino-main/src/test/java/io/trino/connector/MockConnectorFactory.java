@@ -45,6 +45,7 @@ import io.trino.spi.eventlistener.EventListener;
 import io.trino.spi.expression.ConnectorExpression;
 import io.trino.spi.security.RoleGrant;
 import io.trino.spi.security.ViewExpression;
+import io.trino.spi.statistics.TableStatistics;
 
 import java.util.List;
 import java.util.Map;
@@ -77,6 +78,7 @@ public class MockConnectorFactory
     private final BiFunction<ConnectorSession, SchemaTableName, Optional<ConnectorNewTableLayout>> getInsertLayout;
     private final BiFunction<ConnectorSession, ConnectorTableMetadata, Optional<ConnectorNewTableLayout>> getNewTableLayout;
     private final BiFunction<ConnectorSession, ConnectorTableHandle, ConnectorTableProperties> getTableProperties;
+    private final BiFunction<ConnectorSession, ConnectorTableHandle, TableStatistics> getTableStatistics;
     private final Supplier<Iterable<EventListener>> eventListeners;
     private final ListRoleGrants roleGrants;
     private final MockConnectorAccessControl accessControl;
@@ -96,6 +98,7 @@ public class MockConnectorFactory
             BiFunction<ConnectorSession, SchemaTableName, Optional<ConnectorNewTableLayout>> getInsertLayout,
             BiFunction<ConnectorSession, ConnectorTableMetadata, Optional<ConnectorNewTableLayout>> getNewTableLayout,
             BiFunction<ConnectorSession, ConnectorTableHandle, ConnectorTableProperties> getTableProperties,
+            BiFunction<ConnectorSession, ConnectorTableHandle, TableStatistics> getTableStatistics,
             Supplier<Iterable<EventListener>> eventListeners,
             ListRoleGrants roleGrants,
             MockConnectorAccessControl accessControl)
@@ -114,6 +117,7 @@ public class MockConnectorFactory
         this.getInsertLayout = requireNonNull(getInsertLayout, "getInsertLayout is null");
         this.getNewTableLayout = requireNonNull(getNewTableLayout, "getNewTableLayout is null");
         this.getTableProperties = requireNonNull(getTableProperties, "getTableProperties is null");
+        this.getTableStatistics = requireNonNull(getTableStatistics, "getTableStatistics is null");
         this.eventListeners = requireNonNull(eventListeners, "eventListeners is null");
         this.roleGrants = requireNonNull(roleGrants, "roleGrants is null");
         this.accessControl = requireNonNull(accessControl, "accessControl is null");
@@ -149,6 +153,7 @@ public class MockConnectorFactory
                 getInsertLayout,
                 getNewTableLayout,
                 getTableProperties,
+                getTableStatistics,
                 eventListeners,
                 roleGrants,
                 accessControl);
@@ -235,6 +240,7 @@ public class MockConnectorFactory
         private BiFunction<ConnectorSession, SchemaTableName, Optional<ConnectorNewTableLayout>> getInsertLayout = defaultGetInsertLayout();
         private BiFunction<ConnectorSession, ConnectorTableMetadata, Optional<ConnectorNewTableLayout>> getNewTableLayout = defaultGetNewTableLayout();
         private BiFunction<ConnectorSession, ConnectorTableHandle, ConnectorTableProperties> getTableProperties = defaultGetTableProperties();
+        private BiFunction<ConnectorSession, ConnectorTableHandle, TableStatistics> getTableStatistics = (session, tableHandle) -> TableStatistics.empty();
         private Supplier<Iterable<EventListener>> eventListeners = ImmutableList::of;
         private ListRoleGrants roleGrants = defaultRoleAuthorizations();
         private ApplyTopN applyTopN = (session, handle, topNCount, sortItems, assignments) -> Optional.empty();
@@ -335,6 +341,12 @@ public class MockConnectorFactory
             return this;
         }
 
+        public Builder withGetTableStatistics(BiFunction<ConnectorSession, ConnectorTableHandle, TableStatistics> getTableStatistics)
+        {
+            this.getTableStatistics = requireNonNull(getTableStatistics, "getTableStatistics is null");
+            return this;
+        }
+
         public Builder withEventListener(EventListener listener)
         {
             requireNonNull(listener, "listener is null");
@@ -392,6 +404,7 @@ public class MockConnectorFactory
                     getInsertLayout,
                     getNewTableLayout,
                     getTableProperties,
+                    getTableStatistics,
                     eventListeners,
                     roleGrants,
                     new MockConnectorAccessControl(schemaGrants, tableGrants, rowFilter, columnMask));
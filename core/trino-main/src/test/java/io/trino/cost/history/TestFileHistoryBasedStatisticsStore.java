@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost.history;
+
+import io.airlift.json.JsonCodec;
+import io.airlift.units.Duration;
+import io.trino.spi.QueryId;
+import org.joda.time.DateTime;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.airlift.units.DataSize.succinctBytes;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static org.joda.time.DateTimeZone.UTC;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestFileHistoryBasedStatisticsStore
+{
+    private static final JsonCodec<HistoricalPlanStatistics> CODEC = jsonCodec(HistoricalPlanStatistics.class);
+    private static final DateTime RECORD_TIME = DateTime.now(UTC);
+
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        directory = createTempDirectory("history-based-statistics");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testPutAndGet()
+    {
+        FileHistoryBasedStatisticsStore store = createStore();
+        assertEquals(store.get("TableScan[a]"), Optional.empty());
+
+        HistoricalPlanStatistics statistics = statistics("TableScan[a]", 42);
+        store.put(statistics);
+        assertEquals(store.get("TableScan[a]"), Optional.of(statistics));
+        assertEquals(store.get("TableScan[b]"), Optional.empty());
+        assertEquals(store.getWrites().getTotalCount(), 1);
+
+        // the statistics are read from disk by another store
+        FileHistoryBasedStatisticsStore otherStore = createStore();
+        assertEquals(otherStore.get("TableScan[a]"), Optional.of(statistics));
+        assertEquals(otherStore.getReads().getTotalCount(), 1);
+
+        // the latest statistics replace the previous ones
+        HistoricalPlanStatistics newStatistics = statistics("TableScan[a]", 7);
+        store.put(newStatistics);
+        assertEquals(store.get("TableScan[a]"), Optional.of(newStatistics));
+        assertEquals(otherStore.get("TableScan[a]"), Optional.of(statistics));
+        otherStore.invalidateCache();
+        assertEquals(otherStore.get("TableScan[a]"), Optional.of(newStatistics));
+    }
+
+    @Test
+    public void testCorruptedFile()
+            throws IOException
+    {
+        FileHistoryBasedStatisticsStore store = createStore();
+        store.put(statistics("TableScan[a]", 42));
+        try (Stream<Path> files = Files.list(directory)) {
+            Path file = files.findFirst().orElseThrow();
+            Files.write(file, "corrupted".getBytes(UTF_8));
+        }
+
+        FileHistoryBasedStatisticsStore otherStore = createStore();
+        assertEquals(otherStore.get("TableScan[a]"), Optional.empty());
+        assertEquals(otherStore.getFailures().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testExpiration()
+            throws IOException
+    {
+        FileHistoryBasedStatisticsStore store = createStore();
+        store.put(statistics("TableScan[a]", 42, DateTime.now(UTC).minusDays(8)));
+        assertEquals(store.get("TableScan[a]"), Optional.empty());
+        assertEquals(createStore().get("TableScan[a]"), Optional.empty());
+
+        // the files are removed by their modification time
+        store.put(statistics("TableScan[b]", 7));
+        Path expiredFile = Files.write(directory.resolve("expired.json"), new byte[0]);
+        Files.setLastModifiedTime(expiredFile, FileTime.fromMillis(System.currentTimeMillis() - DAYS.toMillis(8)));
+        Path otherFile = Files.write(directory.resolve("other.txt"), new byte[0]);
+        Files.setLastModifiedTime(otherFile, FileTime.fromMillis(System.currentTimeMillis() - DAYS.toMillis(8)));
+        store.removeExpiredFiles();
+        assertFalse(Files.exists(expiredFile));
+        assertTrue(Files.exists(otherFile));
+        assertEquals(store.getRemovals().getTotalCount(), 1);
+        assertEquals(createStore().get("TableScan[b]"), Optional.of(statistics("TableScan[b]", 7)));
+    }
+
+    private FileHistoryBasedStatisticsStore createStore()
+    {
+        return new FileHistoryBasedStatisticsStore(directory, 10, new Duration(7, DAYS), CODEC);
+    }
+
+    private static HistoricalPlanStatistics statistics(String canonicalPlan, long outputRowCount)
+    {
+        return statistics(canonicalPlan, outputRowCount, RECORD_TIME);
+    }
+
+    private static HistoricalPlanStatistics statistics(String canonicalPlan, long outputRowCount, DateTime recordTime)
+    {
+        return new HistoricalPlanStatistics(
+                canonicalPlan,
+                outputRowCount,
+                succinctBytes(outputRowCount * 1024),
+                new QueryId("query_" + outputRowCount),
+                recordTime);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost.history;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Map;
+
+import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.HOURS;
+
+public class TestHistoryBasedStatisticsConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(HistoryBasedStatisticsConfig.class)
+                .setDirectory(new File("var/history-based-statistics"))
+                .setCacheSize(10_000)
+                .setMaxAge(new Duration(7, DAYS)));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("history-based-statistics.directory", "/tmp/history")
+                .put("history-based-statistics.cache-size", "42")
+                .put("history-based-statistics.max-age", "1h")
+                .build();
+
+        HistoryBasedStatisticsConfig expected = new HistoryBasedStatisticsConfig()
+                .setDirectory(new File("/tmp/history"))
+                .setCacheSize(42)
+                .setMaxAge(new Duration(1, HOURS));
+
+        assertFullMapping(properties, expected);
+    }
+}
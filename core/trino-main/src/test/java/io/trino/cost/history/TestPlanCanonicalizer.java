@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.cost.history;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.trino.Session;
+import io.trino.connector.CatalogName;
+import io.trino.cost.history.PlanCanonicalizer.CanonicalPlan;
+import io.trino.metadata.AbstractMockMetadata;
+import io.trino.metadata.Metadata;
+import io.trino.metadata.TableHandle;
+import io.trino.metadata.TableProperties;
+import io.trino.spi.connector.ConnectorTableProperties;
+import io.trino.sql.planner.PlanNodeIdAllocator;
+import io.trino.sql.planner.Symbol;
+import io.trino.sql.planner.iterative.GroupReference;
+import io.trino.sql.planner.iterative.Lookup;
+import io.trino.sql.planner.iterative.Memo;
+import io.trino.sql.planner.iterative.rule.test.PlanBuilder;
+import io.trino.sql.planner.plan.PlanNode;
+import io.trino.testing.TestingMetadata.TestingColumnHandle;
+import io.trino.testing.TestingMetadata.TestingTableHandle;
+import io.trino.testing.TestingTransactionHandle;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static io.trino.SessionTestUtils.TEST_SESSION;
+import static io.trino.sql.planner.iterative.rule.test.PlanBuilder.expression;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class TestPlanCanonicalizer
+{
+    private static final TableHandle TABLE_HANDLE = new TableHandle(
+            new CatalogName("test_catalog"),
+            new TestingTableHandle(),
+            TestingTransactionHandle.create(),
+            Optional.empty());
+
+    @Test
+    public void testMemoizedCanonicalForms()
+    {
+        AtomicInteger tablePropertiesCalls = new AtomicInteger();
+        PlanCanonicalizer canonicalizer = PlanCanonicalizer.forPlan(createMetadata(tablePropertiesCalls));
+        PlanBuilder p = new PlanBuilder(new PlanNodeIdAllocator(), createMetadata(new AtomicInteger()));
+        Symbol a = p.symbol("a");
+        PlanNode tableScan = p.tableScan(TABLE_HANDLE, ImmutableList.of(a), ImmutableMap.of(a, new TestingColumnHandle("a")));
+        Memo memo = new Memo(new PlanNodeIdAllocator(), p.filter(expression("a > 1"), p.filter(expression("a < 10"), tableScan)));
+        Lookup lookup = Lookup.from(groupReference -> Stream.of(memo.resolve(groupReference)));
+        PlanNode root = memo.getNode(memo.getRootGroup());
+
+        CanonicalPlan canonical = canonicalizer.canonicalize(root, lookup, TEST_SESSION).orElseThrow();
+        assertThat(canonical.getPlan()).contains("(\"a\" < 10)");
+        // the canonical form is reused, and the table predicate is resolved once
+        assertSame(canonicalizer.canonicalize(root, lookup, TEST_SESSION).orElseThrow().getPlan(), canonical.getPlan());
+        canonicalizer.canonicalize(root.getSources().get(0), lookup, TEST_SESSION);
+        assertEquals(tablePropertiesCalls.get(), 1);
+
+        // the canonical form of a node changes, when a group below it is replaced
+        memo.replace(((GroupReference) root.getSources().get(0)).getGroupId(), p.filter(expression("a < 20"), tableScan), "test");
+        CanonicalPlan newCanonical = canonicalizer.canonicalize(root, lookup, TEST_SESSION).orElseThrow();
+        assertEquals(newCanonical.getPlan(), canonical.getPlan().replace("(\"a\" < 10)", "(\"a\" < 20)"));
+        assertEquals(tablePropertiesCalls.get(), 1);
+    }
+
+    private static Metadata createMetadata(AtomicInteger tablePropertiesCalls)
+    {
+        return new AbstractMockMetadata()
+        {
+            @Override
+            public TableProperties getTableProperties(Session session, TableHandle handle)
+            {
+                tablePropertiesCalls.incrementAndGet();
+                return new TableProperties(handle.getCatalogName(), handle.getTransaction(), new ConnectorTableProperties());
+            }
+        };
+    }
+}
@@ -173,6 +173,7 @@ public class MockManagedQueryExecution
                         new Duration(8, NANOSECONDS),
 
                         new Duration(100, NANOSECONDS),
+                        new Duration(150, NANOSECONDS),
                         new Duration(200, NANOSECONDS),
 
                         9,
@@ -37,6 +37,7 @@ import io.trino.metadata.InternalNode;
 import io.trino.metadata.Split;
 import io.trino.operator.TaskContext;
 import io.trino.operator.TaskStats;
+import io.trino.spi.SplitWeight;
 import io.trino.spi.memory.MemoryPoolId;
 import io.trino.spiller.SpillSpaceTracker;
 import io.trino.sql.planner.Partitioning;
@@ -85,6 +86,7 @@ import static io.trino.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
 import static io.trino.sql.planner.SystemPartitioningHandle.SOURCE_DISTRIBUTION;
 import static io.trino.testing.TestingHandles.TEST_TABLE_HANDLE;
 import static io.trino.util.Failures.toFailures;
+import static java.lang.Math.addExact;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
@@ -218,7 +220,7 @@ public class MockRemoteTaskFactory
             this.nodeId = requireNonNull(nodeId, "nodeId is null");
             splits.putAll(initialSplits);
             this.partitionedSplitCountTracker = requireNonNull(partitionedSplitCountTracker, "partitionedSplitCountTracker is null");
-            partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+            partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
             updateSplitQueueSpace();
         }
 
@@ -255,6 +257,8 @@ public class MockRemoteTaskFactory
                             failures,
                             0,
                             0,
+                            0L,
+                            0L,
                             isOutputBufferOverUtilized,
                             DataSize.ofBytes(0),
                             DataSize.ofBytes(0),
@@ -284,6 +288,8 @@ public class MockRemoteTaskFactory
                     ImmutableList.of(),
                     stats.getQueuedPartitionedDrivers(),
                     stats.getRunningPartitionedDrivers(),
+                    stats.getQueuedPartitionedSplitsWeight(),
+                    stats.getRunningPartitionedSplitsWeight(),
                     isOutputBufferOverUtilized,
                     stats.getPhysicalWrittenDataSize(),
                     stats.getUserMemoryReservation(),
@@ -296,7 +302,7 @@ public class MockRemoteTaskFactory
 
         private synchronized void updateSplitQueueSpace()
         {
-            if (unacknowledgedSplits < maxUnacknowledgedSplits && getQueuedPartitionedSplitCount() < 9) {
+            if (unacknowledgedSplits < maxUnacknowledgedSplits && getQueuedPartitionedSplitsInfo().getCount() < 9) {
                 if (!whenSplitQueueHasSpace.isDone()) {
                     whenSplitQueueHasSpace.set(null);
                 }
@@ -325,7 +331,7 @@ public class MockRemoteTaskFactory
         {
             unacknowledgedSplits = 0;
             splits.clear();
-            partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+            partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
             runningDrivers = 0;
             updateSplitQueueSpace();
         }
@@ -372,7 +378,7 @@ public class MockRemoteTaskFactory
             synchronized (this) {
                 this.splits.putAll(splits);
             }
-            partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+            partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
             updateSplitQueueSpace();
         }
 
@@ -423,7 +429,7 @@ public class MockRemoteTaskFactory
         }
 
         @Override
-        public synchronized ListenableFuture<?> whenSplitQueueHasSpace(int threshold)
+        public synchronized ListenableFuture<?> whenSplitQueueHasSpace(long weightThreshold)
         {
             return nonCancellationPropagating(whenSplitQueueHasSpace);
         }
@@ -442,28 +448,34 @@ public class MockRemoteTaskFactory
         }
 
         @Override
-        public int getPartitionedSplitCount()
+        public PartitionedSplitsInfo getPartitionedSplitsInfo()
         {
             if (taskStateMachine.getState().isDone()) {
-                return 0;
+                return PartitionedSplitsInfo.forZeroSplits();
             }
             synchronized (this) {
                 int count = 0;
+                long weight = 0;
                 for (PlanNodeId partitionedSource : fragment.getPartitionedSources()) {
                     Collection<Split> partitionedSplits = splits.get(partitionedSource);
                     count += partitionedSplits.size();
+                    weight = addExact(weight, SplitWeight.rawValueSum(partitionedSplits, Split::getSplitWeight));
                 }
-                return count;
+                return PartitionedSplitsInfo.forSplitCountAndWeightSum(count, weight);
             }
         }
 
         @Override
-        public synchronized int getQueuedPartitionedSplitCount()
+        public synchronized PartitionedSplitsInfo getQueuedPartitionedSplitsInfo()
         {
             if (taskStateMachine.getState().isDone()) {
-                return 0;
+                return PartitionedSplitsInfo.forZeroSplits();
             }
-            return getPartitionedSplitCount() - runningDrivers;
+            PartitionedSplitsInfo partitionedSplitsInfo = getPartitionedSplitsInfo();
+            // the running splits are assumed to have the standard weight
+            return PartitionedSplitsInfo.forSplitCountAndWeightSum(
+                    partitionedSplitsInfo.getCount() - runningDrivers,
+                    Math.max(partitionedSplitsInfo.getWeightSum() - SplitWeight.rawValueForStandardSplitCount(runningDrivers), 0));
         }
 
         @Override
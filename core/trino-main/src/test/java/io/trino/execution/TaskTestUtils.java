@@ -23,6 +23,7 @@ import io.trino.eventlistener.EventListenerConfig;
 import io.trino.eventlistener.EventListenerManager;
 import io.trino.execution.TestSqlTaskManager.MockExchangeClientSupplier;
 import io.trino.execution.buffer.OutputBuffers;
+import io.trino.execution.fragmentcache.FragmentCache;
 import io.trino.execution.scheduler.NodeScheduler;
 import io.trino.execution.scheduler.NodeSchedulerConfig;
 import io.trino.execution.scheduler.UniformNodeSelectorFactory;
@@ -151,12 +152,13 @@ public final class TaskTestUtils
                 new OrderingCompiler(typeOperators),
                 new DynamicFilterConfig(),
                 typeOperators,
-                blockTypeOperators);
+                blockTypeOperators,
+                new FragmentCache(new TaskManagerConfig()));
     }
 
     public static TaskInfo updateTask(SqlTask sqlTask, List<TaskSource> taskSources, OutputBuffers outputBuffers)
     {
-        return sqlTask.updateTask(TEST_SESSION, Optional.of(PLAN_FRAGMENT), taskSources, outputBuffers, OptionalInt.empty());
+        return sqlTask.updateTask(Optional.of(TEST_SESSION), Optional.of(PLAN_FRAGMENT), taskSources, outputBuffers, OptionalInt.empty());
     }
 
     public static SplitMonitor createTestSplitMonitor()
@@ -23,6 +23,7 @@ import static io.airlift.configuration.testing.ConfigAssertions.assertFullMappin
 import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class TestDynamicFilterConfig
 {
@@ -44,7 +45,10 @@ public class TestDynamicFilterConfig
                 .setLargeBroadcastRangeRowLimitPerDriver(10_000)
                 .setLargePartitionedMaxDistinctValuesPerDriver(500)
                 .setLargePartitionedMaxSizePerDriver(DataSize.of(50, KILOBYTE))
-                .setLargePartitionedRangeRowLimitPerDriver(1_000));
+                .setLargePartitionedRangeRowLimitPerDriver(1_000)
+                .setEnableBloomFilters(false)
+                .setBloomFilterSizePerDriver(DataSize.of(256, KILOBYTE))
+                .setEnableTopNDynamicFilters(false));
     }
 
     @Test
@@ -66,6 +70,9 @@ public class TestDynamicFilterConfig
                 .put("dynamic-filtering.large-partitioned.max-distinct-values-per-driver", "256")
                 .put("dynamic-filtering.large-partitioned.max-size-per-driver", "64kB")
                 .put("dynamic-filtering.large-partitioned.range-row-limit-per-driver", "100000")
+                .put("dynamic-filtering.bloom-filters.enabled", "true")
+                .put("dynamic-filtering.bloom-filters.size-per-driver", "1MB")
+                .put("dynamic-filtering.top-n.enabled", "true")
                 .build();
 
         DynamicFilterConfig expected = new DynamicFilterConfig()
@@ -83,7 +90,10 @@ public class TestDynamicFilterConfig
                 .setLargeBroadcastRangeRowLimitPerDriver(100000)
                 .setLargePartitionedMaxDistinctValuesPerDriver(256)
                 .setLargePartitionedMaxSizePerDriver(DataSize.of(64, KILOBYTE))
-                .setLargePartitionedRangeRowLimitPerDriver(100000);
+                .setLargePartitionedRangeRowLimitPerDriver(100000)
+                .setEnableBloomFilters(true)
+                .setBloomFilterSizePerDriver(DataSize.of(1, MEGABYTE))
+                .setEnableTopNDynamicFilters(true);
 
         assertFullMapping(properties, expected);
     }
@@ -42,6 +42,7 @@ import io.trino.metadata.InMemoryNodeManager;
 import io.trino.metadata.InternalNode;
 import io.trino.metadata.Split;
 import io.trino.spi.HostAddress;
+import io.trino.spi.SplitWeight;
 import io.trino.spi.connector.ConnectorSplit;
 import io.trino.sql.planner.plan.PlanNodeId;
 import io.trino.testing.TestingSession;
@@ -81,6 +82,7 @@ import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
@@ -341,7 +343,119 @@ public class TestNodeScheduler
         remoteTask1.abort();
         remoteTask2.abort();
 
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(newNode), 0);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(newNode).getCount(), 0);
+    }
+
+    @Test
+    public void testMaxSplitsWeightPerNode()
+    {
+        setUpNodes();
+        InternalNode newNode = new InternalNode("other4", URI.create("http://10.0.0.1:14"), NodeVersion.UNKNOWN, false);
+        nodeManager.addNode(CONNECTOR_ID, newNode);
+
+        // each split weighs twice the standard split, so 10 splits reach the limit of 20 standard splits
+        SplitWeight splitWeight = SplitWeight.fromProportion(2.0);
+        ImmutableList.Builder<Split> initialSplits = ImmutableList.builder();
+        for (int i = 0; i < 5; i++) {
+            initialSplits.add(new Split(CONNECTOR_ID, new TestSplitRemote(splitWeight), Lifespan.taskWide()));
+        }
+
+        MockRemoteTaskFactory remoteTaskFactory = new MockRemoteTaskFactory(remoteTaskExecutor, remoteTaskScheduledExecutor);
+        TaskId taskId1 = new TaskId("test", 1, 1);
+        RemoteTask remoteTask1 = remoteTaskFactory.createTableScanTask(taskId1, newNode, initialSplits.build(), nodeTaskMap.createPartitionedSplitCountTracker(newNode, taskId1));
+        nodeTaskMap.addTask(newNode, remoteTask1);
+
+        TaskId taskId2 = new TaskId("test", 1, 2);
+        RemoteTask remoteTask2 = remoteTaskFactory.createTableScanTask(taskId2, newNode, initialSplits.build(), nodeTaskMap.createPartitionedSplitCountTracker(newNode, taskId2));
+        nodeTaskMap.addTask(newNode, remoteTask2);
+
+        PartitionedSplitsInfo splitsOnNode = nodeTaskMap.getPartitionedSplitsOnNode(newNode);
+        assertEquals(splitsOnNode.getCount(), 10);
+        assertEquals(splitsOnNode.getWeightSum(), 10 * splitWeight.getRawValue());
+
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            splits.add(new Split(CONNECTOR_ID, new TestSplitRemote(), Lifespan.taskWide()));
+        }
+        Multimap<InternalNode, Split> assignments = nodeSelector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values())).getAssignments();
+
+        // no split should be assigned to the newNode, as the weight of its splits reaches maxSplitsPerNode standard splits
+        assertFalse(assignments.keySet().contains(newNode));
+
+        remoteTask1.abort();
+        remoteTask2.abort();
+
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(newNode), PartitionedSplitsInfo.forZeroSplits());
+    }
+
+    @Test
+    public void testSoftAffinityScheduling()
+    {
+        setUpNodes();
+        NodeSchedulerConfig nodeSchedulerConfig = new NodeSchedulerConfig()
+                .setMaxSplitsPerNode(20)
+                .setIncludeCoordinator(false)
+                .setMaxPendingSplitsPerTask(10)
+                .setSoftAffinitySchedulingEnabled(true);
+        NodeScheduler nodeScheduler = new NodeScheduler(new UniformNodeSelectorFactory(nodeManager, nodeSchedulerConfig, nodeTaskMap));
+
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 15; i++) {
+            splits.add(new Split(CONNECTOR_ID, new TestSplitWithAffinity("file" + i), Lifespan.taskWide()));
+        }
+
+        // the splits are assigned to the same nodes by every query
+        Map<Split, InternalNode> assignments = getSplitAssignments(nodeScheduler.createNodeSelector(session, Optional.of(CONNECTOR_ID)), splits);
+        assertEquals(assignments.size(), 15);
+        assertEquals(getSplitAssignments(nodeScheduler.createNodeSelector(session, Optional.of(CONNECTOR_ID)), splits), assignments);
+
+        // the splits which move, move to the new node
+        InternalNode newNode = new InternalNode("other4", URI.create("http://10.0.0.1:14"), NodeVersion.UNKNOWN, false);
+        nodeManager.addNode(CONNECTOR_ID, newNode);
+        Map<Split, InternalNode> newAssignments = getSplitAssignments(nodeScheduler.createNodeSelector(session, Optional.of(CONNECTOR_ID)), splits);
+        for (Split split : splits) {
+            if (!newAssignments.get(split).equals(assignments.get(split))) {
+                assertEquals(newAssignments.get(split), newNode);
+            }
+        }
+    }
+
+    @Test
+    public void testSoftAffinitySchedulingWhenPreferredNodeIsSaturated()
+    {
+        setUpNodes();
+        NodeSchedulerConfig nodeSchedulerConfig = new NodeSchedulerConfig()
+                .setMaxSplitsPerNode(20)
+                .setIncludeCoordinator(false)
+                .setMaxPendingSplitsPerTask(10)
+                .setSoftAffinitySchedulingEnabled(true);
+        NodeScheduler nodeScheduler = new NodeScheduler(new UniformNodeSelectorFactory(nodeManager, nodeSchedulerConfig, nodeTaskMap));
+
+        Split split = new Split(CONNECTOR_ID, new TestSplitWithAffinity("file"), Lifespan.taskWide());
+        InternalNode preferredNode = getSplitAssignments(nodeScheduler.createNodeSelector(session, Optional.of(CONNECTOR_ID)), ImmutableSet.of(split)).get(split);
+
+        // max out number of splits on the preferred node
+        ImmutableList.Builder<Split> initialSplits = ImmutableList.builder();
+        for (int i = 0; i < 20; i++) {
+            initialSplits.add(new Split(CONNECTOR_ID, new TestSplitRemote(), Lifespan.taskWide()));
+        }
+        MockRemoteTaskFactory remoteTaskFactory = new MockRemoteTaskFactory(remoteTaskExecutor, remoteTaskScheduledExecutor);
+        TaskId taskId = new TaskId("test", 1, 1);
+        RemoteTask remoteTask = remoteTaskFactory.createTableScanTask(taskId, preferredNode, initialSplits.build(), nodeTaskMap.createPartitionedSplitCountTracker(preferredNode, taskId));
+        nodeTaskMap.addTask(preferredNode, remoteTask);
+
+        InternalNode assignedNode = getSplitAssignments(nodeScheduler.createNodeSelector(session, Optional.of(CONNECTOR_ID)), ImmutableSet.of(split)).get(split);
+        assertNotEquals(assignedNode, preferredNode);
+
+        remoteTask.abort();
+    }
+
+    private Map<Split, InternalNode> getSplitAssignments(NodeSelector nodeSelector, Set<Split> splits)
+    {
+        Map<Split, InternalNode> splitAssignments = new HashMap<>();
+        nodeSelector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values())).getAssignments()
+                .forEach((node, split) -> splitAssignments.put(split, node));
+        return splitAssignments;
     }
 
     @Test
@@ -407,7 +521,7 @@ public class TestNodeScheduler
         for (RemoteTask task : tasks) {
             task.abort();
         }
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(newNode), 0);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(newNode).getCount(), 0);
     }
 
     @Test
@@ -424,13 +538,13 @@ public class TestNodeScheduler
                 ImmutableList.of(new Split(CONNECTOR_ID, new TestSplitRemote(), Lifespan.taskWide())),
                 nodeTaskMap.createPartitionedSplitCountTracker(chosenNode, taskId));
         nodeTaskMap.addTask(chosenNode, remoteTask);
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode), 1);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode).getCount(), 1);
         remoteTask.abort();
         MILLISECONDS.sleep(100); // Sleep until cache expires
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode), 0);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode).getCount(), 0);
 
         remoteTask.abort();
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode), 0);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode).getCount(), 0);
     }
 
     @Test
@@ -457,12 +571,12 @@ public class TestNodeScheduler
 
         nodeTaskMap.addTask(chosenNode, remoteTask1);
         nodeTaskMap.addTask(chosenNode, remoteTask2);
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode), 3);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode).getCount(), 3);
 
         remoteTask1.abort();
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode), 1);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode).getCount(), 1);
         remoteTask2.abort();
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode), 0);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode).getCount(), 0);
     }
 
     @Test
@@ -933,19 +1047,31 @@ public class TestNodeScheduler
             implements ConnectorSplit
     {
         private final List<HostAddress> hosts;
+        private final SplitWeight splitWeight;
 
         TestSplitRemote()
+        {
+            this(SplitWeight.standard());
+        }
+
+        TestSplitRemote(SplitWeight splitWeight)
         {
             this(HostAddress.fromString(format("10.%s.%s.%s:%s",
                     ThreadLocalRandom.current().nextInt(0, 255),
                     ThreadLocalRandom.current().nextInt(0, 255),
                     ThreadLocalRandom.current().nextInt(0, 255),
-                    ThreadLocalRandom.current().nextInt(15, 5000))));
+                    ThreadLocalRandom.current().nextInt(15, 5000))), splitWeight);
         }
 
         TestSplitRemote(HostAddress host)
+        {
+            this(host, SplitWeight.standard());
+        }
+
+        TestSplitRemote(HostAddress host, SplitWeight splitWeight)
         {
             this.hosts = ImmutableList.of(requireNonNull(host, "host is null"));
+            this.splitWeight = requireNonNull(splitWeight, "splitWeight is null");
         }
 
         @Override
@@ -960,6 +1086,47 @@ public class TestNodeScheduler
             return hosts;
         }
 
+        @Override
+        public SplitWeight getSplitWeight()
+        {
+            return splitWeight;
+        }
+
+        @Override
+        public Object getInfo()
+        {
+            return this;
+        }
+    }
+
+    private static class TestSplitWithAffinity
+            implements ConnectorSplit
+    {
+        private final String affinityKey;
+
+        TestSplitWithAffinity(String affinityKey)
+        {
+            this.affinityKey = requireNonNull(affinityKey, "affinityKey is null");
+        }
+
+        @Override
+        public boolean isRemotelyAccessible()
+        {
+            return true;
+        }
+
+        @Override
+        public List<HostAddress> getAddresses()
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public Optional<String> getAffinityKey()
+        {
+            return Optional.of(affinityKey);
+        }
+
         @Override
         public Object getInfo()
         {
@@ -36,7 +36,8 @@ public class TestNodeSchedulerConfig
                 .setMaxPendingSplitsPerTask(10)
                 .setMaxUnacknowledgedSplitsPerTask(500)
                 .setIncludeCoordinator(true)
-                .setOptimizedLocalScheduling(true));
+                .setOptimizedLocalScheduling(true)
+                .setSoftAffinitySchedulingEnabled(false));
     }
 
     @Test
@@ -50,6 +51,7 @@ public class TestNodeSchedulerConfig
                 .put("node-scheduler.max-splits-per-node", "101")
                 .put("node-scheduler.max-unacknowledged-splits-per-task", "501")
                 .put("node-scheduler.optimized-local-scheduling", "false")
+                .put("node-scheduler.soft-affinity-scheduling-enabled", "true")
                 .build();
 
         NodeSchedulerConfig expected = new NodeSchedulerConfig()
@@ -59,7 +61,8 @@ public class TestNodeSchedulerConfig
                 .setMaxPendingSplitsPerTask(11)
                 .setMaxUnacknowledgedSplitsPerTask(501)
                 .setMinCandidates(11)
-                .setOptimizedLocalScheduling(false);
+                .setOptimizedLocalScheduling(false)
+                .setSoftAffinitySchedulingEnabled(true);
 
         assertFullMapping(properties, expected);
     }
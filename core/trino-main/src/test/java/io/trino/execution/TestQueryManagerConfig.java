@@ -24,7 +24,9 @@ import java.util.concurrent.TimeUnit;
 import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class TestQueryManagerConfig
 {
@@ -47,13 +49,19 @@ public class TestQueryManagerConfig
                 .setRemoteTaskMinErrorDuration(new Duration(5, TimeUnit.MINUTES))
                 .setRemoteTaskMaxErrorDuration(new Duration(5, TimeUnit.MINUTES))
                 .setRemoteTaskMaxCallbackThreads(1000)
+                .setRemoteTaskSmileEncodingEnabled(false)
                 .setQueryExecutionPolicy("all-at-once")
                 .setQueryMaxRunTime(new Duration(100, TimeUnit.DAYS))
                 .setQueryMaxExecutionTime(new Duration(100, TimeUnit.DAYS))
                 .setQueryMaxCpuTime(new Duration(1_000_000_000, TimeUnit.DAYS))
                 .setQueryMaxScanPhysicalBytes(null)
                 .setRequiredWorkers(1)
-                .setRequiredWorkersMaxWait(new Duration(5, TimeUnit.MINUTES)));
+                .setRequiredWorkersMaxWait(new Duration(5, TimeUnit.MINUTES))
+                .setResultCacheEnabled(false)
+                .setResultCacheMaxSize(DataSize.of(256, MEGABYTE))
+                .setResultCacheMaxEntrySize(DataSize.of(16, MEGABYTE))
+                .setPlanCacheEnabled(false)
+                .setPlanCacheMaxEntries(1000));
     }
 
     @Test
@@ -75,6 +83,7 @@ public class TestQueryManagerConfig
                 .put("query.remote-task.min-error-duration", "30s")
                 .put("query.remote-task.max-error-duration", "60s")
                 .put("query.remote-task.max-callback-threads", "10")
+                .put("query.remote-task.smile-encoding-enabled", "true")
                 .put("query.execution-policy", "phased")
                 .put("query.max-run-time", "2h")
                 .put("query.max-execution-time", "3h")
@@ -82,6 +91,11 @@ public class TestQueryManagerConfig
                 .put("query.max-scan-physical-bytes", "1kB")
                 .put("query-manager.required-workers", "333")
                 .put("query-manager.required-workers-max-wait", "33m")
+                .put("query.result-cache.enabled", "true")
+                .put("query.result-cache.max-size", "1GB")
+                .put("query.result-cache.max-entry-size", "64MB")
+                .put("query.plan-cache.enabled", "true")
+                .put("query.plan-cache.max-entries", "50")
                 .build();
 
         QueryManagerConfig expected = new QueryManagerConfig()
@@ -100,13 +114,19 @@ public class TestQueryManagerConfig
                 .setRemoteTaskMinErrorDuration(new Duration(60, TimeUnit.SECONDS))
                 .setRemoteTaskMaxErrorDuration(new Duration(60, TimeUnit.SECONDS))
                 .setRemoteTaskMaxCallbackThreads(10)
+                .setRemoteTaskSmileEncodingEnabled(true)
                 .setQueryExecutionPolicy("phased")
                 .setQueryMaxRunTime(new Duration(2, TimeUnit.HOURS))
                 .setQueryMaxExecutionTime(new Duration(3, TimeUnit.HOURS))
                 .setQueryMaxCpuTime(new Duration(2, TimeUnit.DAYS))
                 .setQueryMaxScanPhysicalBytes(DataSize.of(1, KILOBYTE))
                 .setRequiredWorkers(333)
-                .setRequiredWorkersMaxWait(new Duration(33, TimeUnit.MINUTES));
+                .setRequiredWorkersMaxWait(new Duration(33, TimeUnit.MINUTES))
+                .setResultCacheEnabled(true)
+                .setResultCacheMaxSize(DataSize.of(1, GIGABYTE))
+                .setResultCacheMaxEntrySize(DataSize.of(64, MEGABYTE))
+                .setPlanCacheEnabled(true)
+                .setPlanCacheMaxEntries(50);
 
         assertFullMapping(properties, expected);
     }
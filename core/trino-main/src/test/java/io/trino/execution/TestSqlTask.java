@@ -115,7 +115,7 @@ public class TestSqlTask
     {
         SqlTask sqlTask = createInitialTask();
 
-        TaskInfo taskInfo = sqlTask.updateTask(TEST_SESSION,
+        TaskInfo taskInfo = sqlTask.updateTask(Optional.of(TEST_SESSION),
                 Optional.of(PLAN_FRAGMENT),
                 ImmutableList.of(),
                 createInitialEmptyOutputBuffers(PARTITIONED)
@@ -128,7 +128,7 @@ public class TestSqlTask
         assertEquals(taskInfo.getTaskStatus().getState(), TaskState.RUNNING);
         assertEquals(taskInfo.getTaskStatus().getVersion(), STARTING_VERSION);
 
-        taskInfo = sqlTask.updateTask(TEST_SESSION,
+        taskInfo = sqlTask.updateTask(Optional.of(TEST_SESSION),
                 Optional.of(PLAN_FRAGMENT),
                 ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.of(), true)),
                 createInitialEmptyOutputBuffers(PARTITIONED)
@@ -148,7 +148,7 @@ public class TestSqlTask
 
         assertEquals(sqlTask.getTaskStatus().getState(), TaskState.RUNNING);
         assertEquals(sqlTask.getTaskStatus().getVersion(), STARTING_VERSION);
-        sqlTask.updateTask(TEST_SESSION,
+        sqlTask.updateTask(Optional.of(TEST_SESSION),
                 Optional.of(PLAN_FRAGMENT),
                 ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.of(SPLIT), true)),
                 createInitialEmptyOutputBuffers(PARTITIONED).withBuffer(OUT, 0).withNoMoreBufferIds(),
@@ -190,7 +190,7 @@ public class TestSqlTask
     {
         SqlTask sqlTask = createInitialTask();
 
-        TaskInfo taskInfo = sqlTask.updateTask(TEST_SESSION,
+        TaskInfo taskInfo = sqlTask.updateTask(Optional.of(TEST_SESSION),
                 Optional.of(PLAN_FRAGMENT),
                 ImmutableList.of(),
                 createInitialEmptyOutputBuffers(PARTITIONED)
@@ -221,7 +221,7 @@ public class TestSqlTask
 
         assertEquals(sqlTask.getTaskStatus().getState(), TaskState.RUNNING);
         assertEquals(sqlTask.getTaskStatus().getVersion(), STARTING_VERSION);
-        sqlTask.updateTask(TEST_SESSION,
+        sqlTask.updateTask(Optional.of(TEST_SESSION),
                 Optional.of(PLAN_FRAGMENT),
                 ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.of(SPLIT), true)),
                 createInitialEmptyOutputBuffers(PARTITIONED).withBuffer(OUT, 0).withNoMoreBufferIds(),
@@ -316,7 +316,7 @@ public class TestSqlTask
             throws Exception
     {
         SqlTask sqlTask = createInitialTask();
-        sqlTask.updateTask(TEST_SESSION,
+        sqlTask.updateTask(Optional.of(TEST_SESSION),
                 Optional.of(PLAN_FRAGMENT),
                 ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.of(SPLIT), false)),
                 createInitialEmptyOutputBuffers(PARTITIONED)
@@ -260,10 +260,10 @@ public class TestSqlTaskManager
 
             // memory limits reduced by session properties
             sqlTaskManager.updateTask(
-                    testSessionBuilder()
+                    Optional.of(testSessionBuilder()
                             .setSystemProperty(QUERY_MAX_MEMORY_PER_NODE, "1B")
                             .setSystemProperty(QUERY_MAX_TOTAL_MEMORY_PER_NODE, "2B")
-                            .build(),
+                            .build()),
                     reduceLimitsId,
                     Optional.of(PLAN_FRAGMENT),
                     ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.of(SPLIT), true)),
@@ -275,10 +275,10 @@ public class TestSqlTaskManager
 
             // memory limits not increased by session properties
             sqlTaskManager.updateTask(
-                    testSessionBuilder()
+                    Optional.of(testSessionBuilder()
                             .setSystemProperty(QUERY_MAX_MEMORY_PER_NODE, "10B")
                             .setSystemProperty(QUERY_MAX_TOTAL_MEMORY_PER_NODE, "10B")
-                            .build(),
+                            .build()),
                     increaseLimitsId,
                     Optional.of(PLAN_FRAGMENT),
                     ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.of(SPLIT), true)),
@@ -315,7 +315,7 @@ public class TestSqlTaskManager
 
     private TaskInfo createTask(SqlTaskManager sqlTaskManager, TaskId taskId, ImmutableSet<ScheduledSplit> splits, OutputBuffers outputBuffers)
     {
-        return sqlTaskManager.updateTask(TEST_SESSION,
+        return sqlTaskManager.updateTask(Optional.of(TEST_SESSION),
                 taskId,
                 Optional.of(PLAN_FRAGMENT),
                 ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, splits, true)),
@@ -327,7 +327,7 @@ public class TestSqlTaskManager
     {
         sqlTaskManager.getQueryContext(taskId.getQueryId())
                 .addTaskContext(new TaskStateMachine(taskId, directExecutor()), testSessionBuilder().build(), () -> {}, false, false, OptionalInt.empty());
-        return sqlTaskManager.updateTask(TEST_SESSION,
+        return sqlTaskManager.updateTask(Optional.of(TEST_SESSION),
                 taskId,
                 Optional.of(PLAN_FRAGMENT),
                 ImmutableList.of(),
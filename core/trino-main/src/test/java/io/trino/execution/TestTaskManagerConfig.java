@@ -37,6 +37,7 @@ public class TestTaskManagerConfig
                 .setSplitConcurrencyAdjustmentInterval(new Duration(100, TimeUnit.MILLISECONDS))
                 .setStatusRefreshMaxWait(new Duration(1, TimeUnit.SECONDS))
                 .setInfoUpdateInterval(new Duration(3, TimeUnit.SECONDS))
+                .setInfoUpdateIntervalPerTask(new Duration(0, TimeUnit.MILLISECONDS))
                 .setPerOperatorCpuTimerEnabled(true)
                 .setTaskCpuTimerEnabled(true)
                 .setMaxWorkerThreads(Runtime.getRuntime().availableProcessors() * 2)
@@ -56,10 +57,14 @@ public class TestTaskManagerConfig
                 .setTaskConcurrency(16)
                 .setHttpResponseThreads(100)
                 .setHttpTimeoutThreads(3)
+                .setHttpStreamingThreads(50)
                 .setTaskNotificationThreads(5)
                 .setTaskYieldThreads(3)
                 .setLevelTimeMultiplier(new BigDecimal("2"))
-                .setStatisticsCpuTimerEnabled(true));
+                .setStatisticsCpuTimerEnabled(true)
+                .setFragmentCacheEnabled(false)
+                .setFragmentCacheMaxSize(DataSize.of(256, Unit.MEGABYTE))
+                .setFragmentCacheMaxEntrySize(DataSize.of(4, Unit.MEGABYTE)));
     }
 
     @Test
@@ -70,6 +75,7 @@ public class TestTaskManagerConfig
                 .put("task.split-concurrency-adjustment-interval", "1s")
                 .put("task.status-refresh-max-wait", "2s")
                 .put("task.info-update-interval", "2s")
+                .put("task.info-update-interval-per-task", "10ms")
                 .put("task.per-operator-cpu-timer-enabled", "false")
                 .put("task.cpu-timer-enabled", "false")
                 .put("task.max-index-memory", "512MB")
@@ -89,10 +95,14 @@ public class TestTaskManagerConfig
                 .put("task.concurrency", "8")
                 .put("task.http-response-threads", "4")
                 .put("task.http-timeout-threads", "10")
+                .put("task.http-streaming-threads", "7")
                 .put("task.task-notification-threads", "13")
                 .put("task.task-yield-threads", "8")
                 .put("task.level-time-multiplier", "2.1")
                 .put("task.statistics-cpu-timer-enabled", "false")
+                .put("task.fragment-cache.enabled", "true")
+                .put("task.fragment-cache.max-size", "1GB")
+                .put("task.fragment-cache.max-entry-size", "16MB")
                 .build();
 
         TaskManagerConfig expected = new TaskManagerConfig()
@@ -100,6 +110,7 @@ public class TestTaskManagerConfig
                 .setSplitConcurrencyAdjustmentInterval(new Duration(1, TimeUnit.SECONDS))
                 .setStatusRefreshMaxWait(new Duration(2, TimeUnit.SECONDS))
                 .setInfoUpdateInterval(new Duration(2, TimeUnit.SECONDS))
+                .setInfoUpdateIntervalPerTask(new Duration(10, TimeUnit.MILLISECONDS))
                 .setPerOperatorCpuTimerEnabled(false)
                 .setTaskCpuTimerEnabled(false)
                 .setMaxIndexMemoryUsage(DataSize.of(512, Unit.MEGABYTE))
@@ -119,10 +130,14 @@ public class TestTaskManagerConfig
                 .setTaskConcurrency(8)
                 .setHttpResponseThreads(4)
                 .setHttpTimeoutThreads(10)
+                .setHttpStreamingThreads(7)
                 .setTaskNotificationThreads(13)
                 .setTaskYieldThreads(8)
                 .setLevelTimeMultiplier(new BigDecimal("2.1"))
-                .setStatisticsCpuTimerEnabled(false);
+                .setStatisticsCpuTimerEnabled(false)
+                .setFragmentCacheEnabled(true)
+                .setFragmentCacheMaxSize(DataSize.of(1, Unit.GIGABYTE))
+                .setFragmentCacheMaxEntrySize(DataSize.of(16, Unit.MEGABYTE));
 
         assertFullMapping(properties, expected);
     }
@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.buffer;
+
+import io.airlift.slice.DynamicSliceOutput;
+import io.trino.spi.Page;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.block.BlockEncodingSerde;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static io.trino.block.BlockAssertions.createLongRepeatBlock;
+import static io.trino.execution.buffer.BlockCompressionCodec.NONE;
+import static io.trino.metadata.MetadataManager.createTestMetadataManager;
+import static io.trino.spi.type.VarbinaryType.VARBINARY;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+public class TestAdaptiveBlockCompressor
+{
+    private static final BlockEncodingSerde BLOCK_ENCODING_SERDE = createTestMetadataManager().getBlockEncodingSerde();
+
+    @Test
+    public void testCodecSelection()
+    {
+        // weigh saved bytes high enough that the compression time does not matter
+        AdaptiveBlockCompressor compressor = new AdaptiveBlockCompressor(1_000_000);
+        Random random = new Random(42);
+        for (int i = 0; i < AdaptiveBlockCompressor.SAMPLE_INTERVAL + 1; i++) {
+            BlockBuilder randomBlockBuilder = VARBINARY.createBlockBuilder(null, 1000);
+            for (int position = 0; position < 1000; position++) {
+                randomBlockBuilder.writeLong(random.nextLong()).closeEntry();
+            }
+            Page page = new Page(createLongRepeatBlock(i, 1000), randomBlockBuilder.build());
+            compressor.writePage(page, BLOCK_ENCODING_SERDE, new DynamicSliceOutput(0));
+
+            assertNotEquals(compressor.getCodec(0), NONE);
+            assertEquals(compressor.getCodec(1), NONE);
+        }
+    }
+
+    @Test
+    public void testSmallBlocksAreNotSampled()
+    {
+        AdaptiveBlockCompressor compressor = new AdaptiveBlockCompressor(1_000_000);
+        DynamicSliceOutput output = new DynamicSliceOutput(0);
+        int uncompressedSize = compressor.writePage(new Page(createLongRepeatBlock(1, 1)), BLOCK_ENCODING_SERDE, output);
+
+        assertEquals(compressor.getCodec(0), NONE);
+        // channel count, and codec, uncompressed size and size of the block
+        assertEquals(output.size(), uncompressedSize + Byte.BYTES + Integer.BYTES * 2);
+    }
+}
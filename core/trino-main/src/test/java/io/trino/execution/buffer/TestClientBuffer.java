@@ -208,6 +208,42 @@ public class TestClientBuffer
         assertBufferInfo(buffer, 0, 3);
     }
 
+    @Test
+    public void testReadAheadOfAcknowledgedPages()
+    {
+        ClientBuffer buffer = new ClientBuffer(TASK_INSTANCE_ID, BUFFER_ID, NOOP_RELEASE_LISTENER);
+
+        // add three pages
+        for (int i = 0; i < 3; i++) {
+            addPage(buffer, createPage(i));
+        }
+
+        // read the pages one at a time without acknowledging them
+        assertBufferResultEquals(TYPES, getBufferResult(buffer, 0, 0, sizeOfPages(1)), bufferResult(0, createPage(0)));
+        assertBufferResultEquals(TYPES, getBufferResult(buffer, 0, 1, sizeOfPages(1)), bufferResult(1, createPage(1)));
+        // pages not acknowledged yet so state is the same
+        assertBufferInfo(buffer, 3, 0);
+
+        // the read pages can be read again
+        assertBufferResultEquals(TYPES, getBufferResult(buffer, 0, 0, sizeOfPages(10)), bufferResult(0, createPage(0), createPage(1), createPage(2)));
+
+        // acknowledge the first page while reading ahead
+        assertBufferResultEquals(TYPES, getBufferResult(buffer, 1, 2, sizeOfPages(10)), bufferResult(2, createPage(2)));
+        assertBufferInfo(buffer, 2, 1);
+
+        // read ahead of all pages blocks until more pages are added
+        ListenableFuture<BufferResult> pendingRead = buffer.getPages(1, 3, sizeOfPages(10));
+        assertFalse(pendingRead.isDone());
+        addPage(buffer, createPage(3));
+        assertBufferResultEquals(TYPES, getFuture(pendingRead, NO_WAIT), bufferResult(3, createPage(3)));
+        assertBufferInfo(buffer, 3, 1);
+
+        // buffer is finished only when there are no pages after the read position
+        buffer.setNoMorePages();
+        assertBufferResultEquals(TYPES, getBufferResult(buffer, 1, 1, sizeOfPages(10)), bufferResult(1, createPage(1), createPage(2), createPage(3)));
+        assertBufferResultEquals(TYPES, getBufferResult(buffer, 1, 4, sizeOfPages(10)), emptyResults(TASK_INSTANCE_ID, 1, true));
+    }
+
     @Test
     public void testAddAfterNoMorePages()
     {
@@ -414,6 +450,12 @@ public class TestClientBuffer
         return getFuture(future, maxWait);
     }
 
+    private static BufferResult getBufferResult(ClientBuffer buffer, long acknowledgedSequenceId, long sequenceId, DataSize maxSize)
+    {
+        ListenableFuture<BufferResult> future = buffer.getPages(acknowledgedSequenceId, sequenceId, maxSize);
+        return getFuture(future, NO_WAIT);
+    }
+
     private static BufferResult getBufferResult(ClientBuffer buffer, PagesSupplier supplier, long sequenceId, DataSize maxSize, Duration maxWait)
     {
         ListenableFuture<BufferResult> future = buffer.getPages(sequenceId, maxSize, Optional.of(supplier));
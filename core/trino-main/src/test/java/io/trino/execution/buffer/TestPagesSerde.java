@@ -16,7 +16,9 @@ package io.trino.execution.buffer;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
 import io.trino.spi.Page;
+import io.trino.spi.TrinoException;
 import io.trino.spi.block.Block;
 import io.trino.spi.block.BlockBuilder;
 import io.trino.spi.type.Type;
@@ -24,15 +26,20 @@ import org.testng.annotations.Test;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
+import static io.trino.block.BlockAssertions.createLongRepeatBlock;
+import static io.trino.block.BlockAssertions.createLongsBlock;
 import static io.trino.execution.buffer.PagesSerdeUtil.readPages;
 import static io.trino.execution.buffer.PagesSerdeUtil.writePages;
+import static io.trino.metadata.MetadataManager.createTestMetadataManager;
 import static io.trino.operator.PageAssertions.assertPageEquals;
 import static io.trino.spi.type.BigintType.BIGINT;
 import static io.trino.spi.type.VarcharType.VARCHAR;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestPagesSerde
 {
@@ -60,6 +67,52 @@ public class TestPagesSerde
         assertFalse(pageIterator.hasNext());
     }
 
+    @Test
+    public void testRoundTripWithAdaptiveCompression()
+    {
+        PagesSerde serde = new PagesSerdeFactory(createTestMetadataManager().getBlockEncodingSerde(), true, true, true).createPagesSerde();
+        List<Type> types = ImmutableList.of(BIGINT, BIGINT, VARCHAR);
+        Random random = new Random(42);
+        try (PagesSerde.PagesSerdeContext context = serde.newContext()) {
+            for (int i = 0; i < AdaptiveBlockCompressor.SAMPLE_INTERVAL * 2; i++) {
+                BlockBuilder varcharBlockBuilder = VARCHAR.createBlockBuilder(null, 1000);
+                ImmutableList.Builder<Long> randomLongs = ImmutableList.builder();
+                for (int position = 0; position < 1000; position++) {
+                    VARCHAR.writeString(varcharBlockBuilder, "value" + (position % 10));
+                    randomLongs.add(random.nextLong());
+                }
+                Page page = new Page(createLongRepeatBlock(i, 1000), createLongsBlock(randomLongs.build()), varcharBlockBuilder.build());
+
+                SerializedPage serializedPage = serde.serialize(context, page);
+                assertTrue(serializedPage.isBlockCompressed());
+                assertTrue(serializedPage.isChecksummed());
+                assertFalse(serializedPage.isCompressed());
+                assertPageEquals(types, serde.deserialize(context, serializedPage), page);
+            }
+        }
+    }
+
+    @Test
+    public void testChecksumMismatch()
+    {
+        PagesSerde serde = new PagesSerdeFactory(createTestMetadataManager().getBlockEncodingSerde(), false, false, true).createPagesSerde();
+        Page page = new Page(createLongsBlock(1L, 2L, 3L));
+        SerializedPage serializedPage = serde.serialize(serde.newContext(), page);
+        assertTrue(serializedPage.isChecksummed());
+        assertPageEquals(ImmutableList.of(BIGINT), serde.deserialize(serializedPage), page);
+
+        Slice corrupted = Slices.copyOf(serializedPage.getSlice());
+        corrupted.setByte(corrupted.length() - Long.BYTES - 1, corrupted.getByte(corrupted.length() - Long.BYTES - 1) + 1);
+        SerializedPage corruptedPage = new SerializedPage(
+                corrupted,
+                PageCodecMarker.MarkerSet.fromByteValue(serializedPage.getPageCodecMarkers()),
+                serializedPage.getPositionCount(),
+                serializedPage.getUncompressedSizeInBytes());
+        assertThatThrownBy(() -> serde.deserialize(corruptedPage))
+                .isInstanceOf(TrinoException.class)
+                .hasMessage("Checksum verification failure for serialized page");
+    }
+
     @Test
     public void testBigintSerializedSize()
     {
@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.executor;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
+import io.airlift.units.Duration;
+import io.trino.execution.SplitRunner;
+import io.trino.execution.TaskId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Measures the throughput of the runner threads taking the next split from the queue and
+ * offering it back, as they do after every quanta, for a growing number of runner threads.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = SECONDS)
+public class BenchmarkMultilevelSplitQueue
+{
+    private static final int TASK_COUNT = 32;
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkData
+    {
+        @Param({"128", "4096"})
+        private int waitingSplits = 128;
+
+        private MultilevelSplitQueue splitQueue;
+
+        @Setup
+        public void setup()
+        {
+            splitQueue = new MultilevelSplitQueue(2);
+            CounterStat globalCpuTimeMicros = new CounterStat();
+            CounterStat globalScheduledTimeMicros = new CounterStat();
+            TimeStat blockedQuantaWallTime = new TimeStat();
+            TimeStat unblockedQuantaWallTime = new TimeStat();
+
+            TaskHandle[] taskHandles = new TaskHandle[TASK_COUNT];
+            for (int task = 0; task < TASK_COUNT; task++) {
+                taskHandles[task] = new TaskHandle(new TaskId("query", 0, task), splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+                // spread the tasks over the levels
+                taskHandles[task].addScheduledNanos(SECONDS.toNanos(task * 10L));
+            }
+            for (int split = 0; split < waitingSplits; split++) {
+                splitQueue.offer(new PrioritizedSplitRunner(
+                        taskHandles[split % TASK_COUNT],
+                        new NoOpSplitRunner(),
+                        Ticker.systemTicker(),
+                        globalCpuTimeMicros,
+                        globalScheduledTimeMicros,
+                        blockedQuantaWallTime,
+                        unblockedQuantaWallTime));
+            }
+        }
+    }
+
+    @Benchmark
+    public PrioritizedSplitRunner takeAndOffer(BenchmarkData data)
+            throws InterruptedException
+    {
+        PrioritizedSplitRunner split = data.splitQueue.take();
+        data.splitQueue.offer(split);
+        return split;
+    }
+
+    @Test
+    public void verify()
+            throws InterruptedException
+    {
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        for (int i = 0; i < 2 * data.waitingSplits; i++) {
+            takeAndOffer(data);
+        }
+        assertEquals(data.splitQueue.size(), data.waitingSplits);
+    }
+
+    private static class NoOpSplitRunner
+            implements SplitRunner
+    {
+        @Override
+        public boolean isFinished()
+        {
+            return false;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            return immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "no-op";
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            Options options = new OptionsBuilder()
+                    .verbosity(VerboseMode.NORMAL)
+                    .threads(threads)
+                    .include(".*" + BenchmarkMultilevelSplitQueue.class.getSimpleName() + ".*")
+                    .build();
+
+            new Runner(options).run();
+        }
+    }
+}
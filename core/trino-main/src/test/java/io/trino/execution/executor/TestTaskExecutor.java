@@ -17,6 +17,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
 import io.airlift.testing.TestingTicker;
 import io.airlift.units.Duration;
 import io.trino.execution.SplitRunner;
@@ -364,6 +366,45 @@ public class TestTaskExecutor
         }
     }
 
+    @Test(timeOut = 30_000)
+    public void testRemoveWaitingSplits()
+            throws InterruptedException
+    {
+        TestingTicker ticker = new TestingTicker();
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2);
+        TaskHandle handle0 = new TaskHandle(new TaskId("test0", 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        TaskHandle handle1 = new TaskHandle(new TaskId("test1", 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        handle0.addScheduledNanos(MILLISECONDS.toNanos(100));
+
+        PrioritizedSplitRunner split0 = createSplitRunner(handle0, ticker);
+        PrioritizedSplitRunner split1 = createSplitRunner(handle1, ticker);
+        PrioritizedSplitRunner split2 = createSplitRunner(handle1, ticker);
+        splitQueue.offer(split0);
+        splitQueue.offer(split1);
+        splitQueue.offer(split2);
+        assertEquals(splitQueue.size(), 3);
+
+        splitQueue.remove(split1);
+        assertEquals(splitQueue.size(), 2);
+
+        // the splits are taken in the order of the priority of their tasks
+        assertEquals(splitQueue.take(), split2);
+        assertEquals(splitQueue.take(), split0);
+        assertEquals(splitQueue.size(), 0);
+    }
+
+    private static PrioritizedSplitRunner createSplitRunner(TaskHandle taskHandle, TestingTicker ticker)
+    {
+        return new PrioritizedSplitRunner(
+                taskHandle,
+                new TestingJob(ticker, new Phaser(), new Phaser(), new Phaser(), 1, 0),
+                ticker,
+                new CounterStat(),
+                new CounterStat(),
+                new TimeStat(),
+                new TimeStat());
+    }
+
     @Test(timeOut = 30_000)
     public void testMinMaxDriversPerTask()
     {
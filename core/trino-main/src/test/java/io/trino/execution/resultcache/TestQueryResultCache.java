@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.resultcache;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import io.trino.execution.buffer.PageCodecMarker.MarkerSet;
+import io.trino.execution.buffer.SerializedPage;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static io.airlift.slice.Slices.allocate;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.trino.spi.type.TimeZoneKey.UTC_KEY;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestQueryResultCache
+{
+    @Test
+    public void testHitAndMiss()
+    {
+        QueryResultCache cache = new QueryResultCache(DataSize.of(100, KILOBYTE), DataSize.of(10, KILOBYTE));
+        List<SerializedPage> pages = ImmutableList.of(createPage(100), createPage(200));
+
+        assertTrue(cache.get(createKey("plan", "1")).isEmpty());
+        cache.put(createKey("plan", "1"), pages);
+
+        Optional<CachedQueryResult> result = cache.get(createKey("plan", "1"));
+        assertTrue(result.isPresent());
+        assertEquals(result.get().getPages().size(), 2);
+        assertSame(result.get().getPages().get(0), pages.get(0));
+        assertFalse(result.get().getConsumedFuture().isDone());
+        result.get().setConsumed();
+        assertTrue(result.get().getConsumedFuture().isDone());
+
+        // another version of the data of the table
+        assertTrue(cache.get(createKey("plan", "2")).isEmpty());
+
+        assertEquals(cache.getHits().getTotalCount(), 1);
+        assertEquals(cache.getMisses().getTotalCount(), 2);
+        assertEquals(cache.getPuts().getTotalCount(), 1);
+        assertEquals(cache.getEntryCount(), 1);
+        assertTrue(cache.getSizeInBytes() > 300);
+    }
+
+    @Test
+    public void testMaxEntrySize()
+    {
+        QueryResultCache cache = new QueryResultCache(DataSize.of(100, KILOBYTE), DataSize.of(10, KILOBYTE));
+        assertTrue(cache.isCacheable(DataSize.of(10, KILOBYTE).toBytes()));
+        assertFalse(cache.isCacheable(DataSize.of(10, KILOBYTE).toBytes() + 1));
+
+        cache.put(createKey("plan", "1"), ImmutableList.of(createPage(20_000)));
+        assertTrue(cache.get(createKey("plan", "1")).isEmpty());
+        assertEquals(cache.getEntryCount(), 0);
+        assertEquals(cache.getSizeInBytes(), 0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction()
+    {
+        QueryResultCache cache = new QueryResultCache(DataSize.of(20, KILOBYTE), DataSize.of(10, KILOBYTE));
+        cache.put(createKey("a", "1"), ImmutableList.of(createPage(8_000)));
+        cache.put(createKey("b", "1"), ImmutableList.of(createPage(8_000)));
+        // access the first entry, so that the second one is the least recently used
+        assertTrue(cache.get(createKey("a", "1")).isPresent());
+
+        cache.put(createKey("c", "1"), ImmutableList.of(createPage(8_000)));
+        assertTrue(cache.get(createKey("a", "1")).isPresent());
+        assertTrue(cache.get(createKey("b", "1")).isEmpty());
+        assertTrue(cache.get(createKey("c", "1")).isPresent());
+        assertEquals(cache.getEvictions().getTotalCount(), 1);
+        assertEquals(cache.getEntryCount(), 2);
+
+        cache.invalidateAll();
+        assertEquals(cache.getEntryCount(), 0);
+        assertEquals(cache.getSizeInBytes(), 0);
+    }
+
+    private static QueryResultCacheKey createKey(String plan, String dataVersion)
+    {
+        return new QueryResultCacheKey(plan, ImmutableList.of(dataVersion), "user", UTC_KEY, ImmutableMap.of(), ImmutableMap.of());
+    }
+
+    private static SerializedPage createPage(int size)
+    {
+        return new SerializedPage(allocate(size), MarkerSet.empty(), 1, size);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.execution.scheduler;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.client.NodeVersion;
+import io.trino.metadata.InternalNode;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.testing.Assertions.assertGreaterThan;
+import static io.airlift.testing.Assertions.assertLessThan;
+import static java.util.stream.IntStream.range;
+import static org.testng.Assert.assertEquals;
+
+public class TestConsistentHashRing
+{
+    private static final int KEY_COUNT = 10_000;
+
+    @Test
+    public void testEmptyRing()
+    {
+        assertEquals(new ConsistentHashRing(ImmutableList.of()).getNode("key"), Optional.empty());
+    }
+
+    @Test
+    public void testOrderOfNodes()
+    {
+        List<InternalNode> nodes = createNodes(5);
+        ConsistentHashRing ring = new ConsistentHashRing(nodes);
+        ConsistentHashRing reversedRing = new ConsistentHashRing(ImmutableList.copyOf(nodes).reverse());
+        for (int key = 0; key < KEY_COUNT; key++) {
+            assertEquals(reversedRing.getNode("key" + key), ring.getNode("key" + key));
+        }
+    }
+
+    @Test
+    public void testBalance()
+    {
+        List<InternalNode> nodes = createNodes(4);
+        ConsistentHashRing ring = new ConsistentHashRing(nodes);
+        Map<InternalNode, Integer> keysPerNode = new HashMap<>();
+        for (int key = 0; key < KEY_COUNT; key++) {
+            keysPerNode.merge(ring.getNode("key" + key).orElseThrow(), 1, Integer::sum);
+        }
+        for (InternalNode node : nodes) {
+            assertGreaterThan(keysPerNode.get(node), KEY_COUNT / 4 * 2 / 3);
+            assertLessThan(keysPerNode.get(node), KEY_COUNT / 4 * 4 / 3);
+        }
+    }
+
+    @Test
+    public void testRemoveNode()
+    {
+        List<InternalNode> nodes = createNodes(5);
+        InternalNode removedNode = nodes.get(2);
+        ConsistentHashRing ring = new ConsistentHashRing(nodes);
+        ConsistentHashRing smallerRing = new ConsistentHashRing(nodes.stream()
+                .filter(node -> !node.equals(removedNode))
+                .collect(toImmutableList()));
+
+        // only the keys of the removed node are mapped to other nodes
+        for (int key = 0; key < KEY_COUNT; key++) {
+            InternalNode node = ring.getNode("key" + key).orElseThrow();
+            if (!node.equals(removedNode)) {
+                assertEquals(smallerRing.getNode("key" + key).orElseThrow(), node);
+            }
+        }
+    }
+
+    private static List<InternalNode> createNodes(int count)
+    {
+        return range(0, count)
+                .mapToObj(index -> new InternalNode("node" + index, URI.create("http://10.0.0.1:" + (10 + index)), NodeVersion.UNKNOWN, false))
+                .collect(toImmutableList());
+    }
+}
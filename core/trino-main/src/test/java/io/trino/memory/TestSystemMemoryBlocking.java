@@ -25,6 +25,7 @@ import io.trino.execution.TaskSource;
 import io.trino.metadata.Split;
 import io.trino.operator.Driver;
 import io.trino.operator.DriverContext;
+import io.trino.operator.DynamicRowFilter;
 import io.trino.operator.TableScanOperator;
 import io.trino.operator.TaskContext;
 import io.trino.spi.HostAddress;
@@ -107,7 +108,8 @@ public class TestSystemMemoryBlocking
                         .build()),
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
-                DynamicFilter.EMPTY);
+                DynamicFilter.EMPTY,
+                DynamicRowFilter.EMPTY);
         PageConsumerOperator sink = createSinkOperator(types);
         Driver driver = Driver.createDriver(driverContext, source, sink);
         assertSame(driver.getDriverContext(), driverContext);
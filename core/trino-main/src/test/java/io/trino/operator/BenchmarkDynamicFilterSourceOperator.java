@@ -45,6 +45,7 @@ import org.testng.annotations.Test;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -97,10 +98,12 @@ public class BenchmarkDynamicFilterSourceOperator
                     1,
                     new PlanNodeId("joinNodeId"),
                     (tupleDomain -> {}),
+                    (bloomFilters -> {}),
                     ImmutableList.of(new DynamicFilterSourceOperator.Channel(new DynamicFilterId("0"), BIGINT, 0)),
                     maxDistinctValuesCount,
                     DataSize.ofBytes(Long.MAX_VALUE),
                     minMaxCollectionLimit,
+                    Optional.empty(),
                     new BlockTypeOperators(new TypeOperators()));
         }
 
@@ -79,7 +79,7 @@ public class BenchmarkGroupByHash
     @OperationsPerInvocation(POSITIONS)
     public Object groupByHashPreCompute(BenchmarkData data)
     {
-        GroupByHash groupByHash = new MultiChannelGroupByHash(data.getTypes(), data.getChannels(), data.getHashChannel(), EXPECTED_SIZE, false, getJoinCompiler(), TYPE_OPERATOR_FACTORY, NOOP);
+        GroupByHash groupByHash = createGroupByHash(data);
         data.getPages().forEach(p -> groupByHash.getGroupIds(p).process());
 
         ImmutableList.Builder<Page> pages = ImmutableList.builder();
@@ -100,7 +100,7 @@ public class BenchmarkGroupByHash
     @OperationsPerInvocation(POSITIONS)
     public Object addPagePreCompute(BenchmarkData data)
     {
-        GroupByHash groupByHash = new MultiChannelGroupByHash(data.getTypes(), data.getChannels(), data.getHashChannel(), EXPECTED_SIZE, false, getJoinCompiler(), TYPE_OPERATOR_FACTORY, NOOP);
+        GroupByHash groupByHash = createGroupByHash(data);
         data.getPages().forEach(p -> groupByHash.addPage(p).process());
 
         ImmutableList.Builder<Page> pages = ImmutableList.builder();
@@ -121,7 +121,7 @@ public class BenchmarkGroupByHash
     @OperationsPerInvocation(POSITIONS)
     public Object bigintGroupByHash(SingleChannelBenchmarkData data)
     {
-        GroupByHash groupByHash = new BigintGroupByHash(0, data.getHashEnabled(), EXPECTED_SIZE, NOOP);
+        GroupByHash groupByHash = new BigintGroupByHash(0, data.getHashEnabled(), EXPECTED_SIZE, false, NOOP);
         data.getPages().forEach(p -> groupByHash.addPage(p).process());
 
         ImmutableList.Builder<Page> pages = ImmutableList.builder();
@@ -336,6 +336,9 @@ public class BenchmarkGroupByHash
         @Param({"VARCHAR", "BIGINT"})
         private String dataType = "VARCHAR";
 
+        @Param({"MULTI_CHANNEL", "FLAT"})
+        private String groupByHashType = "MULTI_CHANNEL";
+
         private List<Page> pages;
         private Optional<Integer> hashChannel;
         private List<Type> types;
@@ -382,6 +385,23 @@ public class BenchmarkGroupByHash
         {
             return channels;
         }
+
+        public String getGroupByHashType()
+        {
+            return groupByHashType;
+        }
+    }
+
+    private static GroupByHash createGroupByHash(BenchmarkData data)
+    {
+        switch (data.getGroupByHashType()) {
+            case "MULTI_CHANNEL":
+                return new MultiChannelGroupByHash(data.getTypes(), data.getChannels(), data.getHashChannel(), EXPECTED_SIZE, false, getJoinCompiler(), TYPE_OPERATOR_FACTORY, NOOP);
+            case "FLAT":
+                return new FlatGroupByHash(data.getTypes(), data.getChannels(), data.getHashChannel(), EXPECTED_SIZE, false, getJoinCompiler(), NOOP);
+            default:
+                throw new UnsupportedOperationException("Unsupported groupByHashType");
+        }
     }
 
     private static JoinCompiler getJoinCompiler()
@@ -18,6 +18,7 @@ import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 import io.trino.RowPagesBuilder;
+import io.trino.Session;
 import io.trino.execution.Lifespan;
 import io.trino.operator.HashBuilderOperator.HashBuilderOperatorFactory;
 import io.trino.operator.exchange.LocalPartitionGenerator;
@@ -62,6 +63,7 @@ import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.trino.RowPagesBuilder.rowPagesBuilder;
 import static io.trino.SessionTestUtils.TEST_SESSION;
+import static io.trino.SystemSessionProperties.RADIX_PARTITIONED_JOIN_HASH_ENABLED;
 import static io.trino.operator.JoinBridgeManager.lookupAllAtOnce;
 import static io.trino.spi.type.BigintType.BIGINT;
 import static io.trino.spi.type.VarcharType.VARCHAR;
@@ -93,7 +95,6 @@ public class BenchmarkHashBuildAndJoinOperators
     public static class BuildContext
     {
         protected static final int ROWS_PER_PAGE = 1024;
-        protected static final int BUILD_ROWS_NUMBER = 8_000_000;
 
         @Param({"varchar", "bigint", "all"})
         protected String hashColumns = "bigint";
@@ -104,6 +105,12 @@ public class BenchmarkHashBuildAndJoinOperators
         @Param({"1", "5"})
         protected int buildRowsRepetition = 1;
 
+        @Param({"8000000", "16000000"})
+        protected int buildRowsNumber = 8_000_000;
+
+        @Param({"false", "true"})
+        protected boolean radixPartitionedJoinHash;
+
         protected ExecutorService executor;
         protected ScheduledExecutorService scheduledExecutor;
         protected List<Page> buildPages;
@@ -135,7 +142,10 @@ public class BenchmarkHashBuildAndJoinOperators
 
         public TaskContext createTaskContext()
         {
-            return TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION, DataSize.of(2, GIGABYTE));
+            Session session = Session.builder(TEST_SESSION)
+                    .setSystemProperty(RADIX_PARTITIONED_JOIN_HASH_ENABLED, String.valueOf(radixPartitionedJoinHash))
+                    .build();
+            return TestingTaskContext.createTaskContext(executor, scheduledExecutor, session, DataSize.of(4, GIGABYTE));
         }
 
         public OptionalInt getHashChannel()
@@ -162,10 +172,10 @@ public class BenchmarkHashBuildAndJoinOperators
         {
             RowPagesBuilder buildPagesBuilder = rowPagesBuilder(buildHashEnabled, hashChannels, ImmutableList.of(VARCHAR, BIGINT, BIGINT));
 
-            int maxValue = BUILD_ROWS_NUMBER / buildRowsRepetition + 40;
+            int maxValue = buildRowsNumber / buildRowsRepetition + 40;
             int rows = 0;
-            while (rows < BUILD_ROWS_NUMBER) {
-                int newRows = Math.min(BUILD_ROWS_NUMBER - rows, ROWS_PER_PAGE);
+            while (rows < buildRowsNumber) {
+                int newRows = Math.min(buildRowsNumber - rows, ROWS_PER_PAGE);
                 buildPagesBuilder.addSequencePage(newRows, (rows + 20) % maxValue, (rows + 30) % maxValue, (rows + 40) % maxValue);
                 buildPagesBuilder.pageBreak();
                 rows += newRows;
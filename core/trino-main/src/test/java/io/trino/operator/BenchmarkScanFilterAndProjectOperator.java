@@ -173,6 +173,7 @@ public class BenchmarkScanFilterAndProjectOperator
                     TEST_TABLE_HANDLE,
                     columnHandles,
                     DynamicFilter.EMPTY,
+                    DynamicRowFilter.EMPTY,
                     types,
                     FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_SIZE,
                     FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT);
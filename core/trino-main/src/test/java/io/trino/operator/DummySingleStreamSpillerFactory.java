@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.trino.memory.context.LocalMemoryContext;
+import io.trino.spi.Page;
+import io.trino.spi.type.Type;
+import io.trino.spiller.SingleStreamSpiller;
+import io.trino.spiller.SingleStreamSpillerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+
+public class DummySingleStreamSpillerFactory
+        implements SingleStreamSpillerFactory
+{
+    private long spillsCount;
+    private long nonEmptySpillersCount;
+
+    @Override
+    public SingleStreamSpiller create(List<Type> types, SpillContext spillContext, LocalMemoryContext memoryContext)
+    {
+        return new SingleStreamSpiller()
+        {
+            private final List<Page> spills = new ArrayList<>();
+
+            @Override
+            public ListenableFuture<?> spill(Iterator<Page> pageIterator)
+            {
+                spillsCount++;
+                boolean empty = spills.isEmpty();
+                Iterators.addAll(spills, pageIterator);
+                if (empty && !spills.isEmpty()) {
+                    nonEmptySpillersCount++;
+                }
+                return immediateFuture(null);
+            }
+
+            @Override
+            public Iterator<Page> getSpilledPages()
+            {
+                return ImmutableList.copyOf(spills).iterator();
+            }
+
+            @Override
+            public long getSpilledPagesInMemorySize()
+            {
+                return spills.stream()
+                        .mapToLong(Page::getSizeInBytes)
+                        .sum();
+            }
+
+            @Override
+            public ListenableFuture<List<Page>> getAllSpilledPages()
+            {
+                return immediateFuture(ImmutableList.copyOf(spills));
+            }
+
+            @Override
+            public void close()
+            {
+                spills.clear();
+            }
+        };
+    }
+
+    public long getSpillsCount()
+    {
+        return spillsCount;
+    }
+
+    public long getNonEmptySpillersCount()
+    {
+        return nonEmptySpillersCount;
+    }
+}
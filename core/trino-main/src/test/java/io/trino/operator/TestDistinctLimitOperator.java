@@ -19,6 +19,7 @@ import io.trino.RowPagesBuilder;
 import io.trino.spi.Page;
 import io.trino.spi.type.Type;
 import io.trino.spi.type.TypeOperators;
+import io.trino.spiller.GenericPartitioningSpillerFactory;
 import io.trino.sql.gen.JoinCompiler;
 import io.trino.sql.planner.plan.PlanNodeId;
 import io.trino.testing.MaterializedResult;
@@ -40,6 +41,7 @@ import static io.trino.SessionTestUtils.TEST_SESSION;
 import static io.trino.operator.GroupByHashYieldAssertion.createPagesWithDistinctHashKeys;
 import static io.trino.operator.GroupByHashYieldAssertion.finishOperatorWithYieldingGroupByHash;
 import static io.trino.operator.OperatorAssertion.assertOperatorEquals;
+import static io.trino.operator.OperatorAssertion.assertOperatorEqualsIgnoreOrder;
 import static io.trino.spi.type.BigintType.BIGINT;
 import static io.trino.spi.type.VarcharType.VARCHAR;
 import static io.trino.testing.MaterializedResult.resultBuilder;
@@ -152,6 +154,44 @@ public class TestDistinctLimitOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected, hashEnabled, ImmutableList.of(1));
     }
 
+    @Test(dataProvider = "hashEnabledValues")
+    public void testDistinctLimitWithSpill(boolean hashEnabled)
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(3, 1)
+                .addSequencePage(5, 2)
+                .addSequencePage(5, 0)
+                .build();
+
+        DummySingleStreamSpillerFactory spillerFactory = new DummySingleStreamSpillerFactory();
+        OperatorFactory operatorFactory = new DistinctLimitOperator.DistinctLimitOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                rowPagesBuilder.getTypes(),
+                Ints.asList(0),
+                10,
+                rowPagesBuilder.getHashChannel(),
+                joinCompiler,
+                blockTypeOperators,
+                true,
+                new GenericPartitioningSpillerFactory(spillerFactory));
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT)
+                .row(0L)
+                .row(1L)
+                .row(2L)
+                .row(3L)
+                .row(4L)
+                .row(5L)
+                .row(6L)
+                .build();
+
+        // the memory is revoked after the first page is processed
+        assertOperatorEqualsIgnoreOrder(operatorFactory, driverContext, input, expected, hashEnabled, Optional.of(1), true);
+        assertGreaterThan(spillerFactory.getSpillsCount(), 0L);
+    }
+
     @Test(dataProvider = "dataType")
     public void testMemoryReservationYield(Type type)
     {
@@ -171,7 +171,8 @@ public class TestDriver
                         .build()),
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
-                DynamicFilter.EMPTY);
+                DynamicFilter.EMPTY,
+                DynamicRowFilter.EMPTY);
 
         PageConsumerOperator sink = createSinkOperator(types);
         Driver driver = Driver.createDriver(driverContext, source, sink);
@@ -431,7 +432,7 @@ public class TestDriver
                 TableHandle table,
                 Iterable<ColumnHandle> columns)
         {
-            super(operatorContext, planNodeId, pageSourceProvider, table, columns, DynamicFilter.EMPTY);
+            super(operatorContext, planNodeId, pageSourceProvider, table, columns, DynamicFilter.EMPTY, DynamicRowFilter.EMPTY);
         }
 
         @Override
@@ -456,7 +457,7 @@ public class TestDriver
                 TableHandle table,
                 Iterable<ColumnHandle> columns)
         {
-            super(operatorContext, planNodeId, pageSourceProvider, table, columns, DynamicFilter.EMPTY);
+            super(operatorContext, planNodeId, pageSourceProvider, table, columns, DynamicFilter.EMPTY, DynamicRowFilter.EMPTY);
         }
 
         @Override
@@ -35,12 +35,15 @@ import org.testng.annotations.Test;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.slice.Slices.utf8Slice;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
@@ -74,6 +77,7 @@ import static io.trino.type.ColorType.COLOR;
 import static java.lang.Float.floatToRawIntBits;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestDynamicFilterSourceOperator
@@ -84,6 +88,7 @@ public class TestDynamicFilterSourceOperator
     private PipelineContext pipelineContext;
 
     private ImmutableList.Builder<TupleDomain<DynamicFilterId>> partitions;
+    private ImmutableList.Builder<Map<DynamicFilterId, DynamicFilterBloomFilter>> bloomFilters;
 
     @BeforeMethod
     public void setUp()
@@ -95,6 +100,7 @@ public class TestDynamicFilterSourceOperator
                 .addPipelineContext(0, true, true, false);
 
         partitions = ImmutableList.builder();
+        bloomFilters = ImmutableList.builder();
     }
 
     @AfterMethod(alwaysRun = true)
@@ -128,15 +134,27 @@ public class TestDynamicFilterSourceOperator
             DataSize maxFilterSize,
             int minMaxCollectionLimit,
             Iterable<DynamicFilterSourceOperator.Channel> buildChannels)
+    {
+        return createOperatorFactory(maxFilterDistinctValues, maxFilterSize, minMaxCollectionLimit, Optional.empty(), buildChannels);
+    }
+
+    private OperatorFactory createOperatorFactory(
+            int maxFilterDistinctValues,
+            DataSize maxFilterSize,
+            int minMaxCollectionLimit,
+            Optional<DataSize> bloomFilterSize,
+            Iterable<DynamicFilterSourceOperator.Channel> buildChannels)
     {
         return new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
                 0,
                 new PlanNodeId("PLAN_NODE_ID"),
                 this::consumePredicate,
+                this::consumeBloomFilters,
                 ImmutableList.copyOf(buildChannels),
                 maxFilterDistinctValues,
                 maxFilterSize,
                 minMaxCollectionLimit,
+                bloomFilterSize,
                 blockTypeOperators);
     }
 
@@ -145,6 +163,11 @@ public class TestDynamicFilterSourceOperator
         partitions.add(partitionPredicate);
     }
 
+    private void consumeBloomFilters(Map<DynamicFilterId, DynamicFilterBloomFilter> partitionBloomFilters)
+    {
+        bloomFilters.add(partitionBloomFilters);
+    }
+
     private Operator createOperator(OperatorFactory operatorFactory)
     {
         return operatorFactory.createOperator(pipelineContext.addDriverContext());
@@ -568,4 +591,81 @@ public class TestDynamicFilterSourceOperator
                         new Page(createLongSequenceBlock(0, maxDistinctValues + 1))),
                 ImmutableList.of(TupleDomain.all()));
     }
+
+    @Test
+    public void testCollectBloomFilterWhenTooManyDistinctValues()
+    {
+        int maxDistinctValues = 100;
+        OperatorFactory operatorFactory = createOperatorFactory(
+                maxDistinctValues,
+                DataSize.of(10, KILOBYTE),
+                1_000_000,
+                Optional.of(DataSize.of(16, KILOBYTE)),
+                ImmutableList.of(channel(0, BIGINT)));
+        verifyPassthrough(createOperator(operatorFactory),
+                ImmutableList.of(BIGINT),
+                new Page(createLongSequenceBlock(0, maxDistinctValues)),
+                new Page(createLongSequenceBlock(maxDistinctValues, 5 * maxDistinctValues)));
+        operatorFactory.noMoreOperators();
+
+        // the range is still collected, and the bloom filter contains all values
+        assertEquals(partitions.build(), ImmutableList.of(TupleDomain.withColumnDomains(ImmutableMap.of(
+                new DynamicFilterId("0"),
+                Domain.create(ValueSet.ofRanges(range(BIGINT, 0L, true, 5L * maxDistinctValues - 1, true)), false)))));
+        List<Map<DynamicFilterId, DynamicFilterBloomFilter>> collectedBloomFilters = bloomFilters.build();
+        assertEquals(collectedBloomFilters.size(), 1);
+        DynamicFilterBloomFilter bloomFilter = collectedBloomFilters.get(0).get(new DynamicFilterId("0"));
+        Block values = createLongSequenceBlock(0, 5 * maxDistinctValues);
+        for (int position = 0; position < values.getPositionCount(); position++) {
+            assertTrue(bloomFilter.mightContain(values, position));
+        }
+        Block otherValues = createLongSequenceBlock(10_000, 11_000);
+        long falsePositives = IntStream.range(0, otherValues.getPositionCount())
+                .filter(position -> bloomFilter.mightContain(otherValues, position))
+                .count();
+        assertTrue(falsePositives < 100, "Too many false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testCollectBloomFilterWhenMinMaxLimitExceeded()
+    {
+        int maxDistinctValues = 100;
+        OperatorFactory operatorFactory = createOperatorFactory(
+                maxDistinctValues,
+                DataSize.of(10, KILOBYTE),
+                2 * maxDistinctValues,
+                Optional.of(DataSize.of(16, KILOBYTE)),
+                ImmutableList.of(channel(0, VARCHAR)));
+        Block values = createStringsBlock(LongStream.range(0, 3 * maxDistinctValues).mapToObj(Long::toString).collect(toImmutableList()));
+        verifyPassthrough(createOperator(operatorFactory),
+                ImmutableList.of(VARCHAR),
+                new Page(values));
+        operatorFactory.noMoreOperators();
+
+        // 'all' is only reported when the bloom filter is complete
+        assertEquals(partitions.build(), ImmutableList.of(TupleDomain.all()));
+        DynamicFilterBloomFilter bloomFilter = getOnlyElement(bloomFilters.build()).get(new DynamicFilterId("0"));
+        for (int position = 0; position < values.getPositionCount(); position++) {
+            assertTrue(bloomFilter.mightContain(values, position));
+        }
+    }
+
+    @Test
+    public void testNoBloomFilterBelowDistinctValuesLimit()
+    {
+        OperatorFactory operatorFactory = createOperatorFactory(
+                100,
+                DataSize.of(10, KILOBYTE),
+                1_000_000,
+                Optional.of(DataSize.of(16, KILOBYTE)),
+                ImmutableList.of(channel(0, BIGINT)));
+        verifyPassthrough(createOperator(operatorFactory),
+                ImmutableList.of(BIGINT),
+                new Page(createLongsBlock(1, 2, 3)));
+        operatorFactory.noMoreOperators();
+
+        assertEquals(partitions.build(), ImmutableList.of(TupleDomain.withColumnDomains(ImmutableMap.of(
+                new DynamicFilterId("0"), Domain.multipleValues(BIGINT, ImmutableList.of(1L, 2L, 3L))))));
+        assertEquals(bloomFilters.build(), ImmutableList.of());
+    }
 }
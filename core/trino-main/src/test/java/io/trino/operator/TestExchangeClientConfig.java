@@ -40,7 +40,9 @@ public class TestExchangeClientConfig
                 .setMaxResponseSize(new HttpClientConfig().getMaxContentLength())
                 .setPageBufferClientMaxCallbackThreads(25)
                 .setClientThreads(25)
-                .setAcknowledgePages(true));
+                .setAcknowledgePages(true)
+                .setStreamingEnabled(false)
+                .setStreamingThreads(50));
     }
 
     @Test
@@ -55,6 +57,8 @@ public class TestExchangeClientConfig
                 .put("exchange.client-threads", "2")
                 .put("exchange.page-buffer-client.max-callback-threads", "16")
                 .put("exchange.acknowledge-pages", "false")
+                .put("exchange.streaming-enabled", "true")
+                .put("exchange.streaming-threads", "10")
                 .build();
 
         ExchangeClientConfig expected = new ExchangeClientConfig()
@@ -65,7 +69,9 @@ public class TestExchangeClientConfig
                 .setMaxResponseSize(DataSize.of(1, Unit.MEGABYTE))
                 .setClientThreads(2)
                 .setPageBufferClientMaxCallbackThreads(16)
-                .setAcknowledgePages(false);
+                .setAcknowledgePages(false)
+                .setStreamingEnabled(true)
+                .setStreamingThreads(10);
 
         assertFullMapping(properties, expected);
     }
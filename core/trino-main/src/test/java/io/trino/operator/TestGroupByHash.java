@@ -21,6 +21,7 @@ import io.trino.spi.PageBuilder;
 import io.trino.spi.block.Block;
 import io.trino.spi.block.DictionaryBlock;
 import io.trino.spi.block.DictionaryId;
+import io.trino.spi.block.RunLengthEncodedBlock;
 import io.trino.spi.type.Type;
 import io.trino.spi.type.TypeOperators;
 import io.trino.sql.gen.JoinCompiler;
@@ -46,6 +47,7 @@ import static io.trino.spi.block.DictionaryId.randomDictionaryId;
 import static io.trino.spi.type.BigintType.BIGINT;
 import static io.trino.spi.type.DoubleType.DOUBLE;
 import static io.trino.spi.type.VarcharType.VARCHAR;
+import static io.trino.testing.TestingConnectorSession.SESSION;
 import static io.trino.type.TypeTestUtils.getHashBlock;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -445,4 +447,144 @@ public class TestGroupByHash
         assertEquals(currentQuota.get(), 10);
         assertEquals(currentQuota.get() / 3, yields);
     }
+
+    @DataProvider
+    public Object[][] booleanValues()
+    {
+        return new Object[][] {{true}, {false}};
+    }
+
+    @Test(dataProvider = "booleanValues")
+    public void testFlatGroupByHash(boolean hashEnabled)
+    {
+        List<Type> types = ImmutableList.of(DOUBLE, VARCHAR, BIGINT);
+        Block doubleBlock = BlockAssertions.createDoublesBlock(1.0, 2.0, null, 1.0, 2.0, null);
+        Block stringBlock = BlockAssertions.createStringsBlock("a", "b", "c", "a", "b", null);
+        Block longBlock = BlockAssertions.createLongsBlock(1L, 2L, 3L, 1L, 2L, 3L);
+        Page page = new Page(doubleBlock, stringBlock, longBlock);
+        if (hashEnabled) {
+            page = page.appendColumn(getHashBlock(types, doubleBlock, stringBlock, longBlock));
+        }
+        int[] hashChannels = {0, 1, 2};
+        GroupByHash groupByHash = createGroupByHash(
+                types,
+                hashChannels,
+                hashEnabled ? Optional.of(3) : Optional.empty(),
+                1,
+                false,
+                true,
+                JOIN_COMPILER,
+                TYPE_OPERATOR_FACTORY,
+                UpdateMemory.NOOP);
+        assertTrue(groupByHash instanceof FlatGroupByHash);
+
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(page);
+        work.process();
+        GroupByIdBlock groupIds = work.getResult();
+        assertEquals(groupByHash.getGroupCount(), 4);
+        assertEquals(groupIds.getGroupCount(), 4);
+        long[] expectedGroupIds = {0, 1, 2, 0, 1, 3};
+        for (int position = 0; position < expectedGroupIds.length; position++) {
+            assertEquals(groupIds.getGroupId(position), expectedGroupIds[position]);
+            assertTrue(groupByHash.contains(position, page, hashChannels));
+        }
+
+        // the stored keys must round trip, including nulls
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+        }
+        Page outputPage = pageBuilder.build();
+        int[] firstPositions = {0, 1, 2, 5};
+        for (int groupId = 0; groupId < firstPositions.length; groupId++) {
+            for (int channel = 0; channel < page.getChannelCount(); channel++) {
+                Type type = groupByHash.getTypes().get(channel);
+                assertEquals(
+                        type.getObjectValue(SESSION, outputPage.getBlock(channel), groupId),
+                        type.getObjectValue(SESSION, page.getBlock(channel), firstPositions[groupId]));
+            }
+        }
+
+        Page missingPage = new Page(
+                BlockAssertions.createDoublesBlock(1.0),
+                BlockAssertions.createStringsBlock("b"),
+                BlockAssertions.createLongsBlock(1L));
+        assertFalse(groupByHash.contains(0, missingPage, hashChannels));
+    }
+
+    @Test
+    public void testFlatGroupByHashForceRehash()
+    {
+        int length = 10_000;
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR);
+        Block longBlock = createLongSequenceBlock(0, length);
+        Block stringBlock = createStringSequenceBlock(0, length);
+        Page page = new Page(longBlock, stringBlock);
+        AtomicInteger rehashCount = new AtomicInteger();
+        GroupByHash groupByHash = new FlatGroupByHash(types, new int[] {0, 1}, Optional.empty(), 1, false, JOIN_COMPILER, () -> {
+            rehashCount.incrementAndGet();
+            return true;
+        });
+        groupByHash.addPage(page).process();
+
+        assertEquals(groupByHash.getGroupCount(), length);
+        assertEquals(rehashCount.get(), log2(length / 0.75, RoundingMode.FLOOR));
+        for (int position = 0; position < length; position++) {
+            assertTrue(groupByHash.contains(position, page, new int[] {0, 1}));
+        }
+    }
+
+    @Test
+    public void testBigintDictionaryAndRunLengthEncoded()
+    {
+        Block dictionary = createLongsBlock(10L, 20L, null);
+        Block valuesBlock = new DictionaryBlock(dictionary, new int[] {0, 1, 2, 0, 1, 2, 2});
+        GroupByHash groupByHash = createGroupByHash(ImmutableList.of(BIGINT), new int[] {0}, Optional.empty(), 100, true, JOIN_COMPILER, TYPE_OPERATOR_FACTORY, UpdateMemory.NOOP);
+        assertTrue(groupByHash instanceof BigintGroupByHash);
+
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(new Page(valuesBlock));
+        work.process();
+        GroupByIdBlock groupIds = work.getResult();
+        assertEquals(groupByHash.getGroupCount(), 3);
+        long[] expectedGroupIds = {0, 1, 2, 0, 1, 2, 2};
+        for (int position = 0; position < expectedGroupIds.length; position++) {
+            assertEquals(groupIds.getGroupId(position), expectedGroupIds[position]);
+        }
+
+        // run length encoded input is probed once for all positions
+        Block runLengthEncodedBlock = new RunLengthEncodedBlock(createLongsBlock(20L), 5);
+        work = groupByHash.getGroupIds(new Page(runLengthEncodedBlock));
+        work.process();
+        groupIds = work.getResult();
+        assertEquals(groupByHash.getGroupCount(), 3);
+        assertEquals(groupIds.getPositionCount(), 5);
+        for (int position = 0; position < 5; position++) {
+            assertEquals(groupIds.getGroupId(position), 1);
+        }
+
+        groupByHash.addPage(new Page(new RunLengthEncodedBlock(createLongsBlock(30L), 5))).process();
+        assertEquals(groupByHash.getGroupCount(), 4);
+    }
+
+    @Test(dataProvider = "booleanValues")
+    public void testMultiChannelDictionary(boolean flatGroupByHash)
+    {
+        List<Type> types = ImmutableList.of(VARCHAR, BIGINT);
+        DictionaryId dictionaryId = randomDictionaryId();
+        int[] ids = {0, 1, 2, 0, 1, 2, 0};
+        Block stringBlock = new DictionaryBlock(ids.length, BlockAssertions.createStringsBlock("a", "b", "a"), ids, dictionaryId);
+        Block longBlock = new DictionaryBlock(ids.length, createLongsBlock(1L, 2L, 1L), ids, dictionaryId);
+        GroupByHash groupByHash = createGroupByHash(types, new int[] {0, 1}, Optional.empty(), 100, true, flatGroupByHash, JOIN_COMPILER, TYPE_OPERATOR_FACTORY, UpdateMemory.NOOP);
+
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(new Page(stringBlock, longBlock));
+        work.process();
+        GroupByIdBlock groupIds = work.getResult();
+        // dictionary entries 0 and 2 hold the same key
+        assertEquals(groupByHash.getGroupCount(), 2);
+        long[] expectedGroupIds = {0, 1, 0, 0, 1, 0, 0};
+        for (int position = 0; position < expectedGroupIds.length; position++) {
+            assertEquals(groupIds.getGroupId(position), expectedGroupIds[position]);
+        }
+    }
 }
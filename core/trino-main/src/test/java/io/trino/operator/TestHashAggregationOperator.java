@@ -25,6 +25,7 @@ import io.trino.memory.context.AggregatedMemoryContext;
 import io.trino.metadata.Metadata;
 import io.trino.operator.HashAggregationOperator.HashAggregationOperatorFactory;
 import io.trino.operator.aggregation.InternalAggregationFunction;
+import io.trino.operator.aggregation.PartialAggregationController;
 import io.trino.operator.aggregation.builder.HashAggregationBuilder;
 import io.trino.operator.aggregation.builder.InMemoryHashAggregationBuilder;
 import io.trino.spi.Page;
@@ -89,6 +90,7 @@ import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
@@ -195,6 +197,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 Optional.of(DataSize.of(16, MEGABYTE)),
+                Optional.empty(),
                 spillEnabled,
                 succinctBytes(memoryLimitForMerge),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -253,6 +256,7 @@ public class TestHashAggregationOperator
                 groupIdChannel,
                 100_000,
                 Optional.of(DataSize.of(16, MEGABYTE)),
+                Optional.empty(),
                 spillEnabled,
                 succinctBytes(memoryLimitForMerge),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -302,6 +306,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 Optional.of(DataSize.of(16, MEGABYTE)),
+                Optional.empty(),
                 spillEnabled,
                 succinctBytes(memoryLimitForMerge),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -386,6 +391,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 Optional.of(DataSize.of(16, MEGABYTE)),
+                Optional.empty(),
                 spillEnabled,
                 succinctBytes(memoryLimitForMerge),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -591,6 +597,67 @@ public class TestHashAggregationOperator
         assertEquals(driverContext.getMemoryUsage(), 0);
     }
 
+    @Test
+    public void testAdaptivePartialAggregation()
+            throws Exception
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        PartialAggregationController partialAggregationController = new PartialAggregationController(5, 0.8);
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                hashChannels,
+                ImmutableList.of(),
+                Step.PARTIAL,
+                false,
+                ImmutableList.of(LONG_MIN.bind(ImmutableList.of(0), Optional.empty())),
+                Optional.empty(),
+                Optional.empty(),
+                100,
+                // flush after each page
+                Optional.of(DataSize.ofBytes(1)),
+                Optional.of(partialAggregationController),
+                false,
+                DataSize.ofBytes(0),
+                spillerFactory,
+                joinCompiler,
+                blockTypeOperators,
+                true);
+
+        // the first page is almost unique, so aggregating it disables partial aggregation
+        List<Page> input = rowPagesBuilder(false, hashChannels, BIGINT)
+                .row(0L).row(1L).row(2L).row(3L).row(4L).row(5L).row(6L).row(7L).row(8L).row(8L)
+                .pageBreak()
+                .row(1L).row(1L).row(1L).row(1L)
+                .build();
+        assertFalse(partialAggregationController.isPartialAggregationDisabled());
+
+        DriverContext driverContext = createDriverContext();
+        try (Operator operator = operatorFactory.createOperator(driverContext)) {
+            List<Page> outputPages = toPages(operator, input.iterator());
+            assertTrue(partialAggregationController.isPartialAggregationDisabled());
+
+            // rows of the second page are passed through without being aggregated
+            MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT)
+                    .row(0L, 0L).row(1L, 1L).row(2L, 2L).row(3L, 3L).row(4L, 4L).row(5L, 5L).row(6L, 6L).row(7L, 7L).row(8L, 8L)
+                    .row(1L, 1L).row(1L, 1L).row(1L, 1L).row(1L, 1L)
+                    .build();
+            MaterializedResult actual = toMaterializedResult(driverContext.getSession(), expected.getTypes(), outputPages);
+            assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+
+            HashAggregationInfo info = (HashAggregationInfo) operator.getOperatorContext().getOperatorStats().getInfo();
+            assertEquals(info.getInputPositionsWithoutPartialAggregation(), 4);
+        }
+
+        // operators created later skip partial aggregation from the first page
+        driverContext = createDriverContext();
+        try (Operator operator = operatorFactory.createOperator(driverContext)) {
+            List<Page> outputPages = toPages(operator, rowPagesBuilder(false, hashChannels, BIGINT).row(2L).row(2L).build().iterator());
+            assertEquals(outputPages.stream().mapToInt(Page::getPositionCount).sum(), 2);
+        }
+    }
+
     @Test
     public void testMergeWithMemorySpill()
     {
@@ -616,6 +683,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 1,
                 Optional.of(DataSize.of(16, MEGABYTE)),
+                Optional.empty(),
                 true,
                 DataSize.ofBytes(smallPagesSpillThresholdSize),
                 succinctBytes(Integer.MAX_VALUE),
@@ -673,6 +741,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 Optional.of(DataSize.of(16, MEGABYTE)),
+                Optional.empty(),
                 true,
                 succinctBytes(8),
                 succinctBytes(Integer.MAX_VALUE),
@@ -22,6 +22,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 import io.trino.ExceededMemoryLimitException;
 import io.trino.RowPagesBuilder;
+import io.trino.Session;
 import io.trino.execution.Lifespan;
 import io.trino.execution.NodeTaskMap;
 import io.trino.execution.TaskId;
@@ -89,6 +90,7 @@ import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
 import static io.trino.RowPagesBuilder.rowPagesBuilder;
 import static io.trino.SessionTestUtils.TEST_SESSION;
+import static io.trino.SystemSessionProperties.RADIX_PARTITIONED_JOIN_HASH_ENABLED;
 import static io.trino.operator.OperatorAssertion.assertOperatorEquals;
 import static io.trino.operator.OperatorAssertion.dropChannel;
 import static io.trino.operator.OperatorAssertion.without;
@@ -214,6 +216,42 @@ public class TestHashJoinOperator
         assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected, true, getHashChannels(probePages, buildPages));
     }
 
+    @Test(dataProvider = "hashJoinTestValues")
+    public void testInnerJoinWithRadixPartitionedJoinHash(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
+    {
+        Session session = Session.builder(TEST_SESSION)
+                .setSystemProperty(RADIX_PARTITIONED_JOIN_HASH_ENABLED, "true")
+                .build();
+        TaskContext taskContext = TestingTaskContext.createTaskContext(executor, scheduledExecutor, session);
+
+        // build side large enough for the hash table to be split into multiple radix partitions
+        int buildRows = 200_000;
+        RowPagesBuilder buildPages = rowPagesBuilder(buildHashEnabled, Ints.asList(0), ImmutableList.of(BIGINT, BIGINT));
+        for (int start = 0; start < buildRows; start += 10_000) {
+            buildPages.addSequencePage(10_000, start, start + 1);
+        }
+        BuildSideSetup buildSideSetup = setupBuildSide(parallelBuild, taskContext, Ints.asList(0), buildPages, Optional.empty(), false, SINGLE_STREAM_SPILLER_FACTORY);
+        JoinBridgeManager<PartitionedLookupSourceFactory> lookupSourceFactory = buildSideSetup.getLookupSourceFactoryManager();
+
+        RowPagesBuilder probePages = rowPagesBuilder(probeHashEnabled, Ints.asList(0), ImmutableList.of(BIGINT, BIGINT));
+        MaterializedResult.Builder expected = MaterializedResult.resultBuilder(taskContext.getSession(), concat(probePages.getTypesWithoutHash(), buildPages.getTypesWithoutHash()));
+        for (int start = -50; start < buildRows + 50; start += 20_000) {
+            probePages.addSequencePage(100, start, -start);
+            for (long value = start; value < start + 100; value++) {
+                if (value >= 0 && value < buildRows) {
+                    expected.row(value, value - 2 * start, value, value + 1);
+                }
+            }
+        }
+        List<Page> probeInput = probePages.build();
+        OperatorFactory joinOperatorFactory = innerJoinOperatorFactory(lookupSourceFactory, probePages, PARTITIONING_SPILLER_FACTORY);
+
+        instantiateBuildDrivers(buildSideSetup, taskContext);
+        buildLookupSource(buildSideSetup);
+
+        assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected.build(), true, getHashChannels(probePages, buildPages));
+    }
+
     @Test
     public void testUnwrapsLazyBlocks()
     {
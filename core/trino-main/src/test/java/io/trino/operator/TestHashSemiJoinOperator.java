@@ -14,14 +14,18 @@
 package io.trino.operator;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.Ints;
 import io.airlift.units.DataSize;
 import io.trino.ExceededMemoryLimitException;
 import io.trino.RowPagesBuilder;
 import io.trino.operator.SetBuilderOperator.SetBuilderOperatorFactory;
+import io.trino.operator.SetBuilderOperator.SetSupplier;
 import io.trino.spi.Page;
 import io.trino.spi.type.Type;
 import io.trino.spi.type.TypeOperators;
+import io.trino.spiller.GenericPartitioningSpillerFactory;
+import io.trino.spiller.PartitioningSpillerFactory;
 import io.trino.sql.gen.JoinCompiler;
 import io.trino.sql.planner.plan.PlanNodeId;
 import io.trino.testing.MaterializedResult;
@@ -33,17 +37,22 @@ import org.testng.annotations.Test;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static com.google.common.collect.Iterables.concat;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
 import static io.airlift.testing.Assertions.assertGreaterThan;
 import static io.airlift.testing.Assertions.assertGreaterThanOrEqual;
 import static io.trino.RowPagesBuilder.rowPagesBuilder;
 import static io.trino.SessionTestUtils.TEST_SESSION;
 import static io.trino.operator.GroupByHashYieldAssertion.createPagesWithDistinctHashKeys;
 import static io.trino.operator.GroupByHashYieldAssertion.finishOperatorWithYieldingGroupByHash;
+import static io.trino.operator.OperatorAssertion.dropChannel;
+import static io.trino.operator.OperatorAssertion.toMaterializedResult;
 import static io.trino.spi.type.BigintType.BIGINT;
 import static io.trino.spi.type.BooleanType.BOOLEAN;
 import static io.trino.spi.type.VarcharType.VARCHAR;
@@ -52,6 +61,8 @@ import static io.trino.testing.TestingTaskContext.createTaskContext;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestHashSemiJoinOperator
@@ -429,6 +440,132 @@ public class TestHashSemiJoinOperator
         OperatorAssertion.assertOperatorEquals(joinOperatorFactory, driverContext, probeInput, expected, hashEnabled, ImmutableList.of(probeTypes.size()));
     }
 
+    @DataProvider
+    public Object[][] spillValues()
+    {
+        return new Object[][] {{true, true}, {true, false}, {false, true}, {false, false}};
+    }
+
+    @Test(dataProvider = "spillValues", timeOut = 30_000)
+    public void testSemiJoinWithSpill(boolean hashEnabled, boolean buildContainsNull)
+            throws Exception
+    {
+        DummySingleStreamSpillerFactory spillerFactory = new DummySingleStreamSpillerFactory();
+        PartitioningSpillerFactory partitioningSpillerFactory = new GenericPartitioningSpillerFactory(spillerFactory);
+
+        // build
+        RowPagesBuilder buildPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT)
+                .row(10L)
+                .row(30L)
+                .row(30L)
+                .pageBreak()
+                .row(35L)
+                .row(36L)
+                .row(50L);
+        if (buildContainsNull) {
+            buildPagesBuilder.row((Object) null);
+        }
+        List<Page> buildInput = buildPagesBuilder.build();
+        SetBuilderOperatorFactory setBuilderOperatorFactory = new SetBuilderOperatorFactory(
+                1,
+                new PlanNodeId("test"),
+                BIGINT,
+                0,
+                buildPagesBuilder.getHashChannel(),
+                10,
+                new JoinCompiler(typeOperators),
+                blockTypeOperators,
+                true,
+                2,
+                partitioningSpillerFactory);
+        SetSupplier setSupplier = setBuilderOperatorFactory.getSetProvider();
+        Operator setBuilderOperator = setBuilderOperatorFactory.createOperator(taskContext.addPipelineContext(0, true, true, false).addDriverContext());
+
+        // the set is spilled after the first page, and the second page is spilled right away
+        setBuilderOperator.addInput(buildInput.get(0));
+        assertGreaterThan(setBuilderOperator.getOperatorContext().getReservedRevocableBytes(), 0L);
+        getFutureValue(setBuilderOperator.startMemoryRevoke());
+        setBuilderOperator.finishMemoryRevoke();
+        assertEquals(setBuilderOperator.getOperatorContext().getReservedRevocableBytes(), 0);
+        setBuilderOperator.addInput(buildInput.get(1));
+        setBuilderOperator.finish();
+        assertTrue(setSupplier.isSpilled());
+        assertFalse(setBuilderOperator.isFinished());
+
+        // probe
+        List<Type> probeTypes = ImmutableList.of(BIGINT, BIGINT);
+        RowPagesBuilder firstProbePagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), probeTypes);
+        List<Page> firstProbeInput = firstProbePagesBuilder
+                .addSequencePage(10, 30, 0)
+                .build();
+        List<Page> secondProbeInput = rowPagesBuilder(hashEnabled, Ints.asList(0), probeTypes)
+                .addSequencePage(10, 45, 10)
+                .row(null, 20L)
+                .build();
+        Optional<Integer> probeHashChannel = hashEnabled ? Optional.of(probeTypes.size()) : Optional.empty();
+        OperatorFactory joinOperatorFactory = HashSemiJoinOperator.createOperatorFactory(
+                2,
+                new PlanNodeId("test"),
+                setSupplier,
+                firstProbePagesBuilder.getTypes(),
+                0,
+                probeHashChannel,
+                true,
+                partitioningSpillerFactory,
+                blockTypeOperators);
+        PipelineContext probePipelineContext = taskContext.addPipelineContext(1, true, true, false);
+        List<Operator> probeOperators = ImmutableList.of(
+                joinOperatorFactory.createOperator(probePipelineContext.addDriverContext()),
+                joinOperatorFactory.createOperator(probePipelineContext.addDriverContext()));
+        List<List<Page>> probeInputs = ImmutableList.of(firstProbeInput, secondProbeInput);
+
+        ImmutableList.Builder<Page> output = ImmutableList.builder();
+        for (int operator = 0; operator < probeOperators.size(); operator++) {
+            Operator probeOperator = probeOperators.get(operator);
+            for (Page page : probeInputs.get(operator)) {
+                assertTrue(probeOperator.needsInput());
+                probeOperator.addInput(page);
+                Page outputPage = probeOperator.getOutput();
+                if (outputPage != null) {
+                    output.add(outputPage);
+                }
+            }
+            probeOperator.finish();
+        }
+
+        // the set builder loads the next partition of the set after both probe operators released the previous one
+        while (!setBuilderOperator.isFinished() || !probeOperators.stream().allMatch(Operator::isFinished)) {
+            setBuilderOperator.finish();
+            for (Operator probeOperator : probeOperators) {
+                Page outputPage = probeOperator.getOutput();
+                if (outputPage != null) {
+                    output.add(outputPage);
+                }
+            }
+        }
+        for (Operator probeOperator : probeOperators) {
+            probeOperator.close();
+        }
+        setBuilderOperator.close();
+
+        // expected
+        Set<Long> set = ImmutableSet.of(10L, 30L, 35L, 36L, 50L);
+        MaterializedResult.Builder expected = resultBuilder(TEST_SESSION, BIGINT, BIGINT, BOOLEAN);
+        for (long position = 0; position < 20; position++) {
+            long value = position < 10 ? 30 + position : 35 + position;
+            expected.row(value, position, set.contains(value) ? Boolean.TRUE : (buildContainsNull ? null : Boolean.FALSE));
+        }
+        expected.row(null, 20L, null);
+
+        List<Page> outputPages = output.build();
+        if (hashEnabled) {
+            outputPages = dropChannel(outputPages, ImmutableList.of(probeTypes.size()));
+        }
+        MaterializedResult actual = toMaterializedResult(TEST_SESSION, ImmutableList.of(BIGINT, BIGINT, BOOLEAN), outputPages);
+        assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.build().getMaterializedRows());
+        assertGreaterThan(spillerFactory.getSpillsCount(), 0L);
+    }
+
     @Test(dataProvider = "hashEnabledValues", expectedExceptions = ExceededMemoryLimitException.class, expectedExceptionsMessageRegExp = "Query exceeded per-node user memory limit of.*")
     public void testMemoryLimit(boolean hashEnabled)
     {
@@ -13,16 +13,20 @@
  */
 package io.trino.operator;
 
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import io.airlift.http.client.HttpStatus;
 import io.airlift.http.client.Request;
 import io.airlift.http.client.Response;
 import io.airlift.http.client.testing.TestingHttpClient;
 import io.airlift.http.client.testing.TestingResponse;
+import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.testing.TestingTicker;
 import io.airlift.units.DataSize;
 import io.airlift.units.DataSize.Unit;
 import io.airlift.units.Duration;
+import io.trino.execution.buffer.BufferResult;
 import io.trino.execution.buffer.PagesSerde;
 import io.trino.execution.buffer.SerializedPage;
 import io.trino.operator.HttpPageBufferClient.ClientCallback;
@@ -39,7 +43,9 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -52,18 +58,23 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.testing.Assertions.assertContains;
 import static io.airlift.testing.Assertions.assertInstanceOf;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.trino.TrinoMediaTypes.TRINO_PAGES;
 import static io.trino.execution.buffer.TestingPagesSerdeFactory.testingPagesSerde;
+import static io.trino.server.InternalHeaders.TRINO_MAX_SIZE;
+import static io.trino.server.InternalHeaders.TRINO_TASK_INSTANCE_ID;
+import static io.trino.server.PagesResponseWriter.writePagesFrame;
 import static io.trino.spi.StandardErrorCode.EXCEEDED_LOCAL_MEMORY_LIMIT;
 import static io.trino.spi.StandardErrorCode.PAGE_TOO_LARGE;
 import static io.trino.spi.StandardErrorCode.PAGE_TRANSPORT_ERROR;
 import static io.trino.spi.StandardErrorCode.PAGE_TRANSPORT_TIMEOUT;
 import static io.trino.spi.type.BigintType.BIGINT;
 import static io.trino.util.Failures.WORKER_NODE_ERROR;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
@@ -184,6 +195,90 @@ public class TestHttpPageBufferClient
         assertStatus(client, location, "closed", 3, 5, 5, 0, "not scheduled");
     }
 
+    @Test
+    public void testStreamingResponses()
+            throws Exception
+    {
+        Page expectedPage = new Page(100);
+        SerializedPage serializedPage;
+        try (PagesSerde.PagesSerdeContext context = PAGES_SERDE.newContext()) {
+            serializedPage = PAGES_SERDE.serialize(context, expectedPage);
+        }
+
+        List<String> requests = new CopyOnWriteArrayList<>();
+        TestingHttpClient.Processor processor = request -> {
+            if (request.getMethod().equalsIgnoreCase("DELETE")) {
+                return new TestingResponse(HttpStatus.NO_CONTENT, ImmutableListMultimap.of(), new byte[0]);
+            }
+            requests.add(request.getUri().getPath());
+            assertEquals(request.getHeader(TRINO_MAX_SIZE), "5MB");
+
+            // the first stream returns two frames with a page each, the second stream completes the buffer
+            DynamicSliceOutput output = new DynamicSliceOutput(64);
+            if (request.getUri().getPath().endsWith("/0/stream")) {
+                writePagesFrame(output, new BufferResult("task-instance-id", 0, 1, false, ImmutableList.of(serializedPage)), true);
+                writePagesFrame(output, new BufferResult("task-instance-id", 1, 2, false, ImmutableList.of(serializedPage)), true);
+            }
+            else {
+                writePagesFrame(output, BufferResult.emptyResults("task-instance-id", 2, true), true);
+            }
+            return new TestingResponse(
+                    HttpStatus.OK,
+                    ImmutableListMultimap.of(CONTENT_TYPE, TRINO_PAGES, TRINO_TASK_INSTANCE_ID, "task-instance-id"),
+                    output.slice().getBytes());
+        };
+
+        CyclicBarrier requestComplete = new CyclicBarrier(2);
+        TestingClientCallback callback = new TestingClientCallback(requestComplete);
+
+        ExecutorService streamingExecutor = newCachedThreadPool(daemonThreadsNamed("test-streaming-%s"));
+        try {
+            URI location = URI.create("http://localhost:8080/v1/task/0.0.0.0/results/0");
+            HttpPageBufferClient client = new HttpPageBufferClient(
+                    "localhost",
+                    new TestingHttpClient(processor, scheduler),
+                    DataIntegrityVerification.ABORT,
+                    DataSize.of(1, MEGABYTE),
+                    new Duration(1, TimeUnit.MINUTES),
+                    false,
+                    location,
+                    callback,
+                    scheduler,
+                    Ticker.systemTicker(),
+                    pageBufferClientCallbackExecutor,
+                    Optional.of(listeningDecorator(streamingExecutor)));
+
+            // both frames of the stream are received by a single request
+            client.scheduleRequest(DataSize.of(5, MEGABYTE));
+            requestComplete.await(10, TimeUnit.SECONDS);
+            assertEquals(callback.getPages().size(), 2);
+            assertPageEquals(expectedPage, callback.getPages().get(0));
+            assertPageEquals(expectedPage, callback.getPages().get(1));
+            assertEquals(callback.getCompletedRequests(), 1);
+            assertEquals(callback.getFailedBuffers(), 0);
+
+            // the next stream starts at the token of the last frame
+            callback.resetStats();
+            client.scheduleRequest(DataSize.of(5, MEGABYTE));
+            requestComplete.await(10, TimeUnit.SECONDS);
+            assertEquals(callback.getPages().size(), 0);
+            assertEquals(callback.getCompletedRequests(), 1);
+
+            // schedule the delete call to the buffer
+            callback.resetStats();
+            client.scheduleRequest(DataSize.of(5, MEGABYTE));
+            requestComplete.await(10, TimeUnit.SECONDS);
+            assertEquals(callback.getFinishedBuffers(), 1);
+            assertEquals(callback.getFailedBuffers(), 0);
+
+            assertEquals(requests, ImmutableList.of("/v1/task/0.0.0.0/results/0/0/stream", "/v1/task/0.0.0.0/results/0/2/stream"));
+            assertStatus(client, location, "closed", 2, 3, 3, 0, "not scheduled");
+        }
+        finally {
+            streamingExecutor.shutdownNow();
+        }
+    }
+
     @Test
     public void testLifecycle()
             throws Exception
@@ -17,9 +17,11 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
 import io.trino.RowPagesBuilder;
 import io.trino.operator.MarkDistinctOperator.MarkDistinctOperatorFactory;
+import io.trino.operator.exchange.LocalPartitionGenerator;
 import io.trino.spi.Page;
 import io.trino.spi.type.Type;
 import io.trino.spi.type.TypeOperators;
+import io.trino.spiller.GenericPartitioningSpillerFactory;
 import io.trino.sql.gen.JoinCompiler;
 import io.trino.sql.planner.plan.PlanNodeId;
 import io.trino.testing.MaterializedResult;
@@ -33,13 +35,18 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.IntStream;
 
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
 import static io.airlift.testing.Assertions.assertGreaterThan;
 import static io.trino.RowPagesBuilder.rowPagesBuilder;
 import static io.trino.SessionTestUtils.TEST_SESSION;
+import static io.trino.block.BlockAssertions.createLongSequenceBlock;
 import static io.trino.operator.GroupByHashYieldAssertion.createPagesWithDistinctHashKeys;
 import static io.trino.operator.GroupByHashYieldAssertion.finishOperatorWithYieldingGroupByHash;
+import static io.trino.operator.OperatorAssertion.toMaterializedResult;
 import static io.trino.spi.type.BigintType.BIGINT;
 import static io.trino.spi.type.BooleanType.BOOLEAN;
 import static io.trino.spi.type.VarcharType.VARCHAR;
@@ -108,6 +115,120 @@ public class TestMarkDistinctOperator
         OperatorAssertion.assertOperatorEqualsIgnoreOrder(operatorFactory, driverContext, input, expected.build(), hashEnabled, Optional.of(1));
     }
 
+    @Test(dataProvider = "hashEnabledValues")
+    public void testMarkDistinctWithSpill(boolean hashEnabled)
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT, VARCHAR);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(100, 0, 0)
+                .addSequencePage(100, 50, 50)
+                .addSequencePage(100, 0, 0)
+                .build();
+
+        DummySingleStreamSpillerFactory spillerFactory = new DummySingleStreamSpillerFactory();
+        OperatorFactory operatorFactory = new MarkDistinctOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                rowPagesBuilder.getTypes(),
+                ImmutableList.of(0),
+                rowPagesBuilder.getHashChannel(),
+                joinCompiler,
+                blockTypeOperators,
+                true,
+                new GenericPartitioningSpillerFactory(spillerFactory));
+
+        MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT, VARCHAR, BOOLEAN);
+        for (long i = 0; i < 150; i++) {
+            expected.row(i, String.valueOf(i), true);
+            if (i >= 50 && i < 100) {
+                expected.row(i, String.valueOf(i), false);
+            }
+            if (i < 100) {
+                expected.row(i, String.valueOf(i), false);
+            }
+        }
+
+        // the memory is revoked after the first page is processed
+        OperatorAssertion.assertOperatorEqualsIgnoreOrder(operatorFactory, driverContext, input, expected.build(), hashEnabled, Optional.of(2), true);
+        assertGreaterThan(spillerFactory.getSpillsCount(), 0L);
+    }
+
+    @Test
+    public void testSpillWithPendingInput()
+            throws Exception
+    {
+        DummySingleStreamSpillerFactory spillerFactory = new DummySingleStreamSpillerFactory();
+        OperatorFactory operatorFactory = new MarkDistinctOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                ImmutableList.of(0),
+                Optional.empty(),
+                joinCompiler,
+                blockTypeOperators,
+                true,
+                new GenericPartitioningSpillerFactory(spillerFactory));
+
+        try (Operator operator = operatorFactory.createOperator(driverContext)) {
+            operator.addInput(new Page(createLongSequenceBlock(0, 10)));
+            ImmutableList.Builder<Page> output = ImmutableList.builder();
+            output.add(operator.getOutput());
+
+            // the pending page added values to the hash, which are not marked yet
+            operator.addInput(new Page(createLongSequenceBlock(5, 15)));
+            getFutureValue(operator.startMemoryRevoke());
+            operator.finishMemoryRevoke();
+            assertEquals(operator.getOperatorContext().getReservedRevocableBytes(), 0);
+            output.addAll(OperatorAssertion.finishOperator(operator));
+
+            MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT, BOOLEAN);
+            for (long i = 0; i < 15; i++) {
+                expected.row(i, true);
+                if (i >= 5 && i < 10) {
+                    expected.row(i, false);
+                }
+            }
+            MaterializedResult actual = toMaterializedResult(driverContext.getSession(), ImmutableList.of(BIGINT, BOOLEAN), output.build());
+            assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.build().getMaterializedRows());
+            assertGreaterThan(spillerFactory.getSpillsCount(), 0L);
+        }
+    }
+
+    @Test
+    public void testSpillPartitionsOfLocalExchangePartition()
+            throws Exception
+    {
+        // with a task concurrency above one, the operator only receives the rows of one partition of the local exchange
+        List<Type> types = ImmutableList.of(BIGINT);
+        Page page = new Page(createLongSequenceBlock(0, 10_000));
+        LocalPartitionGenerator localPartitionGenerator = new LocalPartitionGenerator(new InterpretedHashGenerator(types, new int[] {0}, blockTypeOperators), 4);
+        int[] positions = IntStream.range(0, page.getPositionCount())
+                .filter(position -> localPartitionGenerator.getPartition(page, position) == 0)
+                .toArray();
+
+        DummySingleStreamSpillerFactory spillerFactory = new DummySingleStreamSpillerFactory();
+        OperatorFactory operatorFactory = new MarkDistinctOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                types,
+                ImmutableList.of(0),
+                Optional.empty(),
+                joinCompiler,
+                blockTypeOperators,
+                true,
+                new GenericPartitioningSpillerFactory(spillerFactory));
+
+        try (Operator operator = operatorFactory.createOperator(driverContext)) {
+            operator.addInput(page.getPositions(positions, 0, positions.length));
+            assertEquals(operator.getOutput().getPositionCount(), positions.length);
+            getFutureValue(operator.startMemoryRevoke());
+            operator.finishMemoryRevoke();
+            assertEquals(OperatorAssertion.finishOperator(operator), ImmutableList.of());
+            // the spilled values are flushed when the partitions are read back
+            assertEquals(spillerFactory.getNonEmptySpillersCount(), DistinctSpiller.PARTITION_COUNT);
+        }
+    }
+
     @Test(dataProvider = "dataType")
     public void testMemoryReservationYield(Type type)
     {
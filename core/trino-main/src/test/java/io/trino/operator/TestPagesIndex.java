@@ -14,17 +14,24 @@
 package io.trino.operator;
 
 import com.google.common.collect.ImmutableList;
+import io.trino.RowPagesBuilder;
 import io.trino.spi.Page;
+import io.trino.spi.block.Block;
+import io.trino.spi.connector.SortOrder;
 import io.trino.spi.type.Type;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
+import static io.trino.RowPagesBuilder.rowPagesBuilder;
 import static io.trino.SequencePageBuilder.createSequencePage;
 import static io.trino.spi.type.BigintType.BIGINT;
 import static io.trino.spi.type.VarcharType.VARCHAR;
+import static io.trino.testing.TestingConnectorSession.SESSION;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -109,6 +116,61 @@ public class TestPagesIndex
         assertFalse(pages.hasNext());
     }
 
+    @Test
+    public void testSortWithNormalizedSortKeys()
+    {
+        List<Type> types = ImmutableList.of(VARCHAR, BIGINT, BIGINT);
+        List<String> strings = Arrays.asList(null, "", "a", "a\0", "abcdefgh", "abcdefgh1", "abcdefgh2", "abcdefgi", "\u00e9t\u00e9", "z");
+        List<Long> longs = Arrays.asList(null, Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE);
+
+        Random random = new Random(42);
+        RowPagesBuilder pagesBuilder = rowPagesBuilder(types);
+        for (int position = 0; position < 5000; position++) {
+            if (position > 0 && position % 1000 == 0) {
+                pagesBuilder.pageBreak();
+            }
+            pagesBuilder.row(strings.get(random.nextInt(strings.size())), longs.get(random.nextInt(longs.size())), (long) position);
+        }
+        List<Page> pages = pagesBuilder.build();
+
+        for (SortOrder firstSortOrder : SortOrder.values()) {
+            for (SortOrder secondSortOrder : SortOrder.values()) {
+                List<Integer> sortChannels = ImmutableList.of(0, 1);
+                List<SortOrder> sortOrders = ImmutableList.of(firstSortOrder, secondSortOrder);
+                assertEquals(
+                        sortKeys(sort(pages, types, sortChannels, sortOrders, true), sortChannels),
+                        sortKeys(sort(pages, types, sortChannels, sortOrders, false), sortChannels));
+
+                sortChannels = ImmutableList.of(1, 0);
+                assertEquals(
+                        sortKeys(sort(pages, types, sortChannels, sortOrders, true), sortChannels),
+                        sortKeys(sort(pages, types, sortChannels, sortOrders, false), sortChannels));
+            }
+        }
+    }
+
+    private static PagesIndex sort(List<Page> pages, List<Type> types, List<Integer> sortChannels, List<SortOrder> sortOrders, boolean normalizedSortKeys)
+    {
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false, normalizedSortKeys).newPagesIndex(types, 100);
+        pages.forEach(pagesIndex::addPage);
+        pagesIndex.sort(sortChannels, sortOrders);
+        return pagesIndex;
+    }
+
+    private static List<List<Object>> sortKeys(PagesIndex pagesIndex, List<Integer> sortChannels)
+    {
+        ImmutableList.Builder<List<Object>> sortKeys = ImmutableList.builder();
+        for (int position = 0; position < pagesIndex.getPositionCount(); position++) {
+            List<Object> row = new ArrayList<>();
+            for (int channel : sortChannels) {
+                Block block = pagesIndex.getSingleValueBlock(channel, position);
+                row.add(pagesIndex.getTypes().get(channel).getObjectValue(SESSION, block, 0));
+            }
+            sortKeys.add(row);
+        }
+        return sortKeys.build();
+    }
+
     private static PagesIndex newPagesIndex(List<Type> types, int expectedPositions, boolean eagerCompact)
     {
         return new PagesIndex.TestingFactory(eagerCompact).newPagesIndex(types, expectedPositions);
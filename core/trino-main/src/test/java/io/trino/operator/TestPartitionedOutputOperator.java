@@ -14,15 +14,20 @@
 package io.trino.operator;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import io.trino.execution.StateMachine;
+import io.trino.execution.buffer.BufferResult;
 import io.trino.execution.buffer.OutputBuffers;
+import io.trino.execution.buffer.PagesSerde;
 import io.trino.execution.buffer.PagesSerdeFactory;
 import io.trino.execution.buffer.PartitionedOutputBuffer;
+import io.trino.execution.buffer.SerializedPage;
 import io.trino.memory.context.SimpleLocalMemoryContext;
 import io.trino.operator.exchange.LocalPartitionGenerator;
 import io.trino.spi.Page;
 import io.trino.spi.block.Block;
+import io.trino.spi.block.DictionaryBlock;
 import io.trino.spi.block.RunLengthEncodedBlock;
 import io.trino.spi.type.Type;
 import io.trino.spi.type.TypeOperators;
@@ -33,29 +38,40 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.trino.SessionTestUtils.TEST_SESSION;
+import static io.trino.block.BlockAssertions.createIntsBlock;
 import static io.trino.block.BlockAssertions.createLongDictionaryBlock;
 import static io.trino.block.BlockAssertions.createLongSequenceBlock;
+import static io.trino.block.BlockAssertions.createLongsBlock;
 import static io.trino.block.BlockAssertions.createRLEBlock;
+import static io.trino.block.BlockAssertions.createStringsBlock;
 import static io.trino.execution.buffer.BufferState.OPEN;
 import static io.trino.execution.buffer.BufferState.TERMINAL_BUFFER_STATES;
 import static io.trino.execution.buffer.OutputBuffers.BufferType.PARTITIONED;
 import static io.trino.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.trino.metadata.MetadataManager.createTestMetadataManager;
 import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.IntegerType.INTEGER;
+import static io.trino.spi.type.VarcharType.VARCHAR;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.stream.Collectors.toList;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestPartitionedOutputOperator
 {
@@ -65,6 +81,7 @@ public class TestPartitionedOutputOperator
     private static final int PAGE_COUNT = 10;
     private static final int POSITIONS_PER_PAGE = 1000;
     private static final int PARTITION_COUNT = 512;
+    private static final long SKEWED_KEY = 7;
 
     private static final List<Type> TYPES = ImmutableList.of(BIGINT);
     private static final List<Type> REPLICATION_TYPES = ImmutableList.of(BIGINT, BIGINT);
@@ -179,58 +196,214 @@ public class TestPartitionedOutputOperator
         assertEquals(operatorContext.getOutputPositions().getTotalCount(), PAGE_COUNT * PARTITION_COUNT * TESTING_PAGE_WITH_NULL_BLOCK.getPositionCount());
     }
 
+    @Test
+    public void testPartitionedPagesContent()
+    {
+        int positionCount = 1000;
+        Block keyBlock = createLongSequenceBlock(0, positionCount);
+        Block stringBlock = createStringsBlock(IntStream.range(0, positionCount)
+                .mapToObj(i -> i % 7 == 0 ? null : "value_" + i)
+                .collect(toList()));
+        int[] ids = IntStream.range(0, positionCount).map(i -> i % 10).toArray();
+        Block dictionaryBlock = new DictionaryBlock(createLongSequenceBlock(100, 110), ids);
+        Block runLengthBlock = new RunLengthEncodedBlock(createIntsBlock(42), positionCount);
+
+        PartitionFunction partitionFunction = createPartitionFunction();
+        PartitionedOutputBuffer buffer = createPartitionedOutputBuffer();
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(
+                partitionFunction,
+                buffer,
+                ImmutableList.of(BIGINT, VARCHAR, BIGINT, INTEGER),
+                false,
+                OptionalInt.empty());
+        partitionedOutputOperator.addInput(new Page(keyBlock, stringBlock, dictionaryBlock, runLengthBlock));
+        partitionedOutputOperator.finish();
+        buffer.setNoMorePages();
+
+        // every row is sent to its partition with the values of all columns
+        PagesSerde serde = createPagesSerdeFactory().createPagesSerde();
+        int rows = 0;
+        for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+            BufferResult result = getFutureValue(buffer.get(new OutputBuffers.OutputBufferId(partition), 0, MAX_MEMORY));
+            for (SerializedPage serializedPage : result.getSerializedPages()) {
+                Page page = serde.deserialize(serializedPage);
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    assertEquals(partitionFunction.getPartition(page.getColumns(0), position), partition);
+                    long key = BIGINT.getLong(page.getBlock(0), position);
+                    if (key % 7 == 0) {
+                        assertTrue(page.getBlock(1).isNull(position));
+                    }
+                    else {
+                        assertEquals(VARCHAR.getSlice(page.getBlock(1), position).toStringUtf8(), "value_" + key);
+                    }
+                    assertEquals(BIGINT.getLong(page.getBlock(2), position), 100 + key % 10);
+                    assertEquals(INTEGER.getLong(page.getBlock(3), position), 42);
+                    rows++;
+                }
+            }
+        }
+        assertEquals(rows, positionCount);
+    }
+
+    @Test
+    public void testSpreadSkewedKeys()
+    {
+        // half of the rows have the skewed key
+        Block keyBlock = createLongsBlock(IntStream.range(0, POSITIONS_PER_PAGE)
+                .mapToObj(i -> i % 2 == 0 ? SKEWED_KEY : SKEWED_KEY + i)
+                .collect(toList()));
+
+        PartitionFunction partitionFunction = createPartitionFunction();
+        PartitionedOutputBuffer buffer = createPartitionedOutputBuffer();
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(
+                partitionFunction,
+                buffer,
+                TYPES,
+                false,
+                OptionalInt.empty(),
+                Optional.of(createSkewedPartitionKeys(false)));
+        partitionedOutputOperator.addInput(new Page(keyBlock));
+        partitionedOutputOperator.finish();
+        buffer.setNoMorePages();
+
+        // the rows with the skewed key are sent to any partition, and the other rows to their partition
+        PagesSerde serde = createPagesSerdeFactory().createPagesSerde();
+        Set<Integer> skewedKeyPartitions = new HashSet<>();
+        int rows = 0;
+        for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+            BufferResult result = getFutureValue(buffer.get(new OutputBuffers.OutputBufferId(partition), 0, MAX_MEMORY));
+            for (SerializedPage serializedPage : result.getSerializedPages()) {
+                Page page = serde.deserialize(serializedPage);
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    if (BIGINT.getLong(page.getBlock(0), position) == SKEWED_KEY) {
+                        skewedKeyPartitions.add(partition);
+                    }
+                    else {
+                        assertEquals(partitionFunction.getPartition(page, position), partition);
+                    }
+                    rows++;
+                }
+            }
+        }
+        assertEquals(rows, POSITIONS_PER_PAGE);
+        assertEquals(skewedKeyPartitions.size(), POSITIONS_PER_PAGE / 2);
+        assertEquals(partitionedOutputOperator.getInfo().getSkewedRows(), POSITIONS_PER_PAGE / 2);
+    }
+
+    @Test
+    public void testReplicateSkewedKeys()
+    {
+        PartitionedOutputBuffer buffer = createPartitionedOutputBuffer();
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(
+                createPartitionFunction(),
+                buffer,
+                TYPES,
+                false,
+                OptionalInt.empty(),
+                Optional.of(createSkewedPartitionKeys(true)));
+        partitionedOutputOperator.addInput(TESTING_PAGE);
+        partitionedOutputOperator.finish();
+        buffer.setNoMorePages();
+
+        // the row with the skewed key is sent to all partitions
+        PagesSerde serde = createPagesSerdeFactory().createPagesSerde();
+        int skewedKeyRows = 0;
+        int rows = 0;
+        for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+            BufferResult result = getFutureValue(buffer.get(new OutputBuffers.OutputBufferId(partition), 0, MAX_MEMORY));
+            for (SerializedPage serializedPage : result.getSerializedPages()) {
+                Page page = serde.deserialize(serializedPage);
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    if (BIGINT.getLong(page.getBlock(0), position) == SKEWED_KEY) {
+                        skewedKeyRows++;
+                    }
+                    rows++;
+                }
+            }
+        }
+        assertEquals(skewedKeyRows, PARTITION_COUNT);
+        assertEquals(rows, POSITIONS_PER_PAGE - 1 + PARTITION_COUNT);
+        assertEquals(partitionedOutputOperator.getInfo().getSkewedRows(), 1);
+    }
+
     private PartitionedOutputOperator createPartitionedOutputOperator(boolean shouldReplicate)
     {
-        BlockTypeOperators blockTypeOperators = new BlockTypeOperators(new TypeOperators());
-        PartitionFunction partitionFunction = new LocalPartitionGenerator(
-                new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}, blockTypeOperators),
-                PARTITION_COUNT);
-        PagesSerdeFactory serdeFactory = new PagesSerdeFactory(createTestMetadataManager().getBlockEncodingSerde(), false);
+        if (shouldReplicate) {
+            return createPartitionedOutputOperator(createPartitionFunction(), createPartitionedOutputBuffer(), REPLICATION_TYPES, true, OptionalInt.of(0));
+        }
+        return createPartitionedOutputOperator(createPartitionFunction(), createPartitionedOutputBuffer(), TYPES, false, OptionalInt.empty());
+    }
+
+    private PartitionedOutputOperator createPartitionedOutputOperator(
+            PartitionFunction partitionFunction,
+            PartitionedOutputBuffer buffer,
+            List<Type> types,
+            boolean replicatesAnyRow,
+            OptionalInt nullChannel)
+    {
+        return createPartitionedOutputOperator(partitionFunction, buffer, types, replicatesAnyRow, nullChannel, Optional.empty());
+    }
 
+    private PartitionedOutputOperator createPartitionedOutputOperator(
+            PartitionFunction partitionFunction,
+            PartitionedOutputBuffer buffer,
+            List<Type> types,
+            boolean replicatesAnyRow,
+            OptionalInt nullChannel,
+            Optional<SkewedPartitionKeys> skewedKeys)
+    {
         DriverContext driverContext = TestingTaskContext.builder(executor, scheduledExecutor, TEST_SESSION)
                 .setMemoryPoolSize(MAX_MEMORY)
                 .build()
                 .addPipelineContext(0, true, true, false)
                 .addDriverContext();
 
+        PartitionedOutputOperator.PartitionedOutputFactory operatorFactory = new PartitionedOutputOperator.PartitionedOutputFactory(
+                partitionFunction,
+                ImmutableList.of(0),
+                ImmutableList.of(Optional.empty()),
+                replicatesAnyRow,
+                nullChannel,
+                skewedKeys,
+                buffer,
+                PARTITION_MAX_MEMORY);
+        return (PartitionedOutputOperator) operatorFactory
+                .createOutputOperator(0, new PlanNodeId("plan-node-0"), types, Function.identity(), createPagesSerdeFactory())
+                .createOperator(driverContext);
+    }
+
+    private static PartitionFunction createPartitionFunction()
+    {
+        BlockTypeOperators blockTypeOperators = new BlockTypeOperators(new TypeOperators());
+        return new LocalPartitionGenerator(
+                new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}, blockTypeOperators),
+                PARTITION_COUNT);
+    }
+
+    private static SkewedPartitionKeys createSkewedPartitionKeys(boolean replicated)
+    {
+        InterpretedHashGenerator hashGenerator = new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}, new BlockTypeOperators(new TypeOperators()));
+        long keyHash = hashGenerator.hashPosition(0, new Page(createLongsBlock(SKEWED_KEY)));
+        return new SkewedPartitionKeys(hashGenerator, ImmutableSet.of(keyHash), replicated);
+    }
+
+    private static PagesSerdeFactory createPagesSerdeFactory()
+    {
+        return new PagesSerdeFactory(createTestMetadataManager().getBlockEncodingSerde(), false);
+    }
+
+    private PartitionedOutputBuffer createPartitionedOutputBuffer()
+    {
         OutputBuffers buffers = OutputBuffers.createInitialEmptyOutputBuffers(PARTITIONED);
         for (int partition = 0; partition < PARTITION_COUNT; partition++) {
             buffers = buffers.withBuffer(new OutputBuffers.OutputBufferId(partition), partition);
         }
-        PartitionedOutputBuffer buffer = new PartitionedOutputBuffer(
+        return new PartitionedOutputBuffer(
                 "task-instance-id",
                 new StateMachine<>("bufferState", scheduledExecutor, OPEN, TERMINAL_BUFFER_STATES),
                 buffers.withNoMoreBufferIds(),
                 DataSize.ofBytes(Long.MAX_VALUE),
                 () -> new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
                 scheduledExecutor);
-
-        PartitionedOutputOperator.PartitionedOutputFactory operatorFactory;
-        if (shouldReplicate) {
-            operatorFactory = new PartitionedOutputOperator.PartitionedOutputFactory(
-                    partitionFunction,
-                    ImmutableList.of(0),
-                    ImmutableList.of(Optional.empty()),
-                    true,
-                    OptionalInt.of(0),
-                    buffer,
-                    PARTITION_MAX_MEMORY);
-            return (PartitionedOutputOperator) operatorFactory
-                    .createOutputOperator(0, new PlanNodeId("plan-node-0"), REPLICATION_TYPES, Function.identity(), serdeFactory)
-                    .createOperator(driverContext);
-        }
-        else {
-            operatorFactory = new PartitionedOutputOperator.PartitionedOutputFactory(
-                    partitionFunction,
-                    ImmutableList.of(0),
-                    ImmutableList.of(Optional.empty(), Optional.empty()),
-                    false,
-                    OptionalInt.empty(),
-                    buffer,
-                    PARTITION_MAX_MEMORY);
-            return (PartitionedOutputOperator) operatorFactory
-                    .createOutputOperator(0, new PlanNodeId("plan-node-0"), TYPES, Function.identity(), serdeFactory)
-                    .createOperator(driverContext);
-        }
     }
 }
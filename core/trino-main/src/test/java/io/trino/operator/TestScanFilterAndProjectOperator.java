@@ -114,6 +114,7 @@ public class TestScanFilterAndProjectOperator
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
                 DynamicFilter.EMPTY,
+                DynamicRowFilter.EMPTY,
                 ImmutableList.of(VARCHAR),
                 DataSize.ofBytes(0),
                 0);
@@ -157,6 +158,7 @@ public class TestScanFilterAndProjectOperator
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
                 DynamicFilter.EMPTY,
+                DynamicRowFilter.EMPTY,
                 ImmutableList.of(BIGINT),
                 DataSize.of(64, KILOBYTE),
                 2);
@@ -202,6 +204,7 @@ public class TestScanFilterAndProjectOperator
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
                 DynamicFilter.EMPTY,
+                DynamicRowFilter.EMPTY,
                 ImmutableList.of(BIGINT),
                 DataSize.ofBytes(0),
                 0);
@@ -237,6 +240,7 @@ public class TestScanFilterAndProjectOperator
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
                 DynamicFilter.EMPTY,
+                DynamicRowFilter.EMPTY,
                 ImmutableList.of(VARCHAR),
                 DataSize.ofBytes(0),
                 0);
@@ -290,6 +294,7 @@ public class TestScanFilterAndProjectOperator
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
                 DynamicFilter.EMPTY,
+                DynamicRowFilter.EMPTY,
                 ImmutableList.of(BIGINT),
                 DataSize.ofBytes(0),
                 0);
@@ -355,6 +360,7 @@ public class TestScanFilterAndProjectOperator
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
                 DynamicFilter.EMPTY,
+                DynamicRowFilter.EMPTY,
                 ImmutableList.of(BIGINT),
                 DataSize.ofBytes(0),
                 0);
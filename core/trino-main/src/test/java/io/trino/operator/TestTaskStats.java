@@ -40,8 +40,10 @@ public class TestTaskStats
             6,
             7,
             5,
+            1L,
             8,
             6,
+            2L,
             24,
             10,
 
@@ -102,8 +104,10 @@ public class TestTaskStats
         assertEquals(actual.getTotalDrivers(), 6);
         assertEquals(actual.getQueuedDrivers(), 7);
         assertEquals(actual.getQueuedPartitionedDrivers(), 5);
+        assertEquals(actual.getQueuedPartitionedSplitsWeight(), 1L);
         assertEquals(actual.getRunningDrivers(), 8);
         assertEquals(actual.getRunningPartitionedDrivers(), 6);
+        assertEquals(actual.getRunningPartitionedSplitsWeight(), 2L);
         assertEquals(actual.getBlockedDrivers(), 24);
         assertEquals(actual.getCompletedDrivers(), 10);
 
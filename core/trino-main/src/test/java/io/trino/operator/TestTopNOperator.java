@@ -14,10 +14,18 @@
 package io.trino.operator;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.units.DataSize;
 import io.trino.ExceededMemoryLimitException;
 import io.trino.spi.Page;
+import io.trino.spi.block.Block;
+import io.trino.spi.connector.DynamicFilter;
 import io.trino.spi.connector.SortOrder;
+import io.trino.spi.connector.TestingColumnHandle;
+import io.trino.spi.predicate.Domain;
+import io.trino.spi.predicate.Range;
+import io.trino.spi.predicate.TupleDomain;
+import io.trino.spi.predicate.ValueSet;
 import io.trino.spi.type.Type;
 import io.trino.spi.type.TypeOperators;
 import io.trino.sql.planner.plan.PlanNodeId;
@@ -27,13 +35,16 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.trino.RowPagesBuilder.rowPagesBuilder;
 import static io.trino.SessionTestUtils.TEST_SESSION;
+import static io.trino.block.BlockAssertions.createLongsBlock;
 import static io.trino.operator.OperatorAssertion.assertOperatorEquals;
+import static io.trino.spi.connector.SortOrder.ASC_NULLS_FIRST;
 import static io.trino.spi.connector.SortOrder.ASC_NULLS_LAST;
 import static io.trino.spi.connector.SortOrder.DESC_NULLS_LAST;
 import static io.trino.spi.type.BigintType.BIGINT;
@@ -44,6 +55,7 @@ import static io.trino.testing.TestingTaskContext.createTaskContext;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
@@ -103,6 +115,87 @@ public class TestTopNOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected);
     }
 
+    @Test
+    public void testDynamicFilter()
+    {
+        List<Page> input = rowPagesBuilder(BIGINT, DOUBLE)
+                .row(1L, 0.1)
+                .row(2L, 0.2)
+                .pageBreak()
+                .row(-1L, -0.1)
+                .row(4L, 0.4)
+                .pageBreak()
+                .row(5L, 0.5)
+                .row(4L, 0.41)
+                .row(6L, 0.6)
+                .build();
+
+        TestingColumnHandle column = new TestingColumnHandle("column");
+        TopNDynamicFilter dynamicFilter = new TopNDynamicFilter(column, BIGINT, DESC_NULLS_LAST, typeOperators);
+        DynamicFilter connectorDynamicFilter = dynamicFilter.intersect(DynamicFilter.EMPTY);
+        assertTrue(dynamicFilter.getValueFilter().isEmpty());
+        assertTrue(connectorDynamicFilter.getCurrentPredicate().isAll());
+
+        OperatorFactory operatorFactory = TopNOperator.createOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT, DOUBLE),
+                2,
+                ImmutableList.of(0),
+                ImmutableList.of(DESC_NULLS_LAST),
+                typeOperators,
+                Optional.of(dynamicFilter));
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT, DOUBLE)
+                .row(6L, 0.6)
+                .row(5L, 0.5)
+                .build();
+
+        assertOperatorEquals(operatorFactory, driverContext, input, expected);
+
+        // the boundary is the last of the top rows
+        assertFalse(connectorDynamicFilter.isComplete());
+        assertEquals(
+                connectorDynamicFilter.getCurrentPredicate(),
+                TupleDomain.withColumnDomains(ImmutableMap.of(column, Domain.create(ValueSet.ofRanges(Range.greaterThanOrEqual(BIGINT, 5L)), false))));
+        Block values = createLongsBlock(4L, 5L, 6L, null);
+        DynamicRowFilter.ValueFilter valueFilter = dynamicFilter.getValueFilter().orElseThrow();
+        assertFalse(valueFilter.test(values, 0));
+        assertTrue(valueFilter.test(values, 1));
+        assertTrue(valueFilter.test(values, 2));
+        assertFalse(valueFilter.test(values, 3));
+
+        // the boundary is only updated with values which sort before it
+        dynamicFilter.updateBoundary(values, 0);
+        assertFalse(dynamicFilter.getValueFilter().orElseThrow().test(values, 0));
+        dynamicFilter.updateBoundary(values, 2);
+        assertFalse(dynamicFilter.getValueFilter().orElseThrow().test(values, 1));
+        assertEquals(
+                connectorDynamicFilter.getCurrentPredicate(),
+                TupleDomain.withColumnDomains(ImmutableMap.of(column, Domain.create(ValueSet.ofRanges(Range.greaterThanOrEqual(BIGINT, 6L)), false))));
+    }
+
+    @Test
+    public void testDynamicFilterWithNullBoundary()
+    {
+        TestingColumnHandle column = new TestingColumnHandle("column");
+        Block values = createLongsBlock(null, 1L);
+
+        TopNDynamicFilter nullsFirstFilter = new TopNDynamicFilter(column, BIGINT, ASC_NULLS_FIRST, typeOperators);
+        nullsFirstFilter.updateBoundary(values, 0);
+        assertEquals(
+                nullsFirstFilter.intersect(DynamicFilter.EMPTY).getCurrentPredicate(),
+                TupleDomain.withColumnDomains(ImmutableMap.of(column, Domain.onlyNull(BIGINT))));
+        assertTrue(nullsFirstFilter.getValueFilter().orElseThrow().test(values, 0));
+        assertFalse(nullsFirstFilter.getValueFilter().orElseThrow().test(values, 1));
+
+        TopNDynamicFilter nullsLastFilter = new TopNDynamicFilter(column, BIGINT, ASC_NULLS_LAST, typeOperators);
+        nullsLastFilter.updateBoundary(values, 0);
+        assertTrue(nullsLastFilter.intersect(DynamicFilter.EMPTY).getCurrentPredicate().isAll());
+        assertTrue(nullsLastFilter.getValueFilter().orElseThrow().test(values, 0));
+        assertTrue(nullsLastFilter.getValueFilter().orElseThrow().test(values, 1));
+    }
+
     @Test
     public void testMultiFieldKey()
     {
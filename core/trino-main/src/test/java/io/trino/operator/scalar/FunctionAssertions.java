@@ -29,6 +29,7 @@ import io.trino.metadata.Split;
 import io.trino.metadata.TableHandle;
 import io.trino.operator.DriverContext;
 import io.trino.operator.DriverYieldSignal;
+import io.trino.operator.DynamicRowFilter;
 import io.trino.operator.FilterAndProjectOperator;
 import io.trino.operator.Operator;
 import io.trino.operator.OperatorFactory;
@@ -797,6 +798,7 @@ public final class FunctionAssertions
                     TEST_TABLE_HANDLE,
                     ImmutableList.of(),
                     DynamicFilter.EMPTY,
+                    DynamicRowFilter.EMPTY,
                     ImmutableList.of(projection.getType()),
                     DataSize.ofBytes(0),
                     0);
@@ -43,13 +43,18 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.trino.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.trino.metadata.MetadataManager.createTestMetadataManager;
 import static io.trino.spi.type.BigintType.BIGINT;
 import static io.trino.spi.type.DoubleType.DOUBLE;
 import static io.trino.spi.type.VarcharType.VARCHAR;
 import static io.trino.spi.type.VarcharType.createUnboundedVarcharType;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 @State(Scope.Thread)
@@ -101,6 +106,16 @@ public class BenchmarkBinaryFileSpiller
         @Param("true")
         private boolean encryptionEnabled;
 
+        // the spill paths should be located on different disks, to measure the effect of striping
+        @Param({"1", "2"})
+        private int spillPathsCount = 1;
+
+        @Param({"4096", "1048576"})
+        private int bufferSize = 4096;
+
+        @Param({"0", "4"})
+        private int prefetchPages;
+
         private List<Page> pages;
         private Spiller readSpiller;
 
@@ -111,14 +126,23 @@ public class BenchmarkBinaryFileSpiller
         public void setup()
                 throws ExecutionException, InterruptedException
         {
+            List<Path> spillPaths = IntStream.range(0, spillPathsCount)
+                    .mapToObj(i -> SPILL_PATH.resolve("path" + i))
+                    .collect(toImmutableList());
             singleStreamSpillerFactory = new FileSingleStreamSpillerFactory(
                     MoreExecutors.newDirectExecutorService(),
                     BLOCK_ENCODING_SERDE,
                     spillerStats,
-                    ImmutableList.of(SPILL_PATH),
+                    spillPaths,
                     1.0,
                     compressionEnabled,
-                    encryptionEnabled);
+                    encryptionEnabled,
+                    false,
+                    false,
+                    listeningDecorator(newCachedThreadPool(daemonThreadsNamed("benchmark-spiller-io-%s"))),
+                    spillPathsCount > 1,
+                    bufferSize,
+                    prefetchPages);
             spillerFactory = new GenericSpillerFactory(singleStreamSpillerFactory);
             pages = createInputPages();
             readSpiller = spillerFactory.create(TYPES, bytes -> {}, newSimpleAggregatedMemoryContext());
@@ -23,6 +23,7 @@ import static io.trino.spi.type.DoubleType.DOUBLE;
 import static io.trino.spi.type.IntegerType.INTEGER;
 import static io.trino.spi.type.VarcharType.VARCHAR;
 import static io.trino.testing.MaterializedResult.resultBuilder;
+import static org.testng.Assert.assertEquals;
 
 public class TestAggregateWindowFunction
         extends AbstractTestWindowFunction
@@ -595,4 +596,18 @@ public class TestAggregateWindowFunction
                         .row(null, null, null)
                         .build());
     }
+
+    @Test
+    public void testLongSlidingFrames()
+    {
+        // frames of min and max, which cannot remove input, are aggregated from the intermediate states of a segment tree
+        MaterializedResult actual = queryRunner.execute("" +
+                "SELECT count(*) FROM (" +
+                "   SELECT x, " +
+                "       max(x) OVER (ORDER BY x ROWS BETWEEN 200 PRECEDING AND 100 PRECEDING) max_preceding, " +
+                "       min(x) OVER (ORDER BY x ROWS BETWEEN 100 FOLLOWING AND 300 FOLLOWING) min_following " +
+                "   FROM UNNEST(sequence(1, 2000)) t(x)) " +
+                "WHERE max_preceding IS DISTINCT FROM IF(x > 100, x - 100) OR min_following IS DISTINCT FROM IF(x <= 1900, x + 100)");
+        assertEquals(actual.getOnlyValue(), 0L);
+    }
 }
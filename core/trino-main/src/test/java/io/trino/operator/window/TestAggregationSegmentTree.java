@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.operator.window;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.metadata.Metadata;
+import io.trino.operator.PagesIndex;
+import io.trino.operator.aggregation.Accumulator;
+import io.trino.operator.aggregation.AccumulatorFactory;
+import io.trino.operator.aggregation.InternalAggregationFunction;
+import io.trino.spi.Page;
+import io.trino.spi.function.WindowIndex;
+import io.trino.sql.tree.QualifiedName;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static io.trino.block.BlockAssertions.createLongsBlock;
+import static io.trino.block.BlockAssertions.getOnlyValue;
+import static io.trino.metadata.MetadataManager.createTestMetadataManager;
+import static io.trino.operator.aggregation.AggregationTestUtils.getFinalBlock;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.sql.analyzer.TypeSignatureProvider.fromTypes;
+import static org.testng.Assert.assertEquals;
+
+public class TestAggregationSegmentTree
+{
+    private static final Metadata metadata = createTestMetadataManager();
+
+    @Test
+    public void testMax()
+    {
+        assertSegmentTree("max");
+    }
+
+    @Test
+    public void testArrayAgg()
+    {
+        // the order of the input rows must be preserved
+        assertSegmentTree("array_agg");
+    }
+
+    private static void assertSegmentTree(String name)
+    {
+        InternalAggregationFunction function = metadata.getAggregateFunctionImplementation(
+                metadata.resolveFunction(QualifiedName.of(name), fromTypes(BIGINT)));
+        List<Integer> channels = ImmutableList.of(0);
+        AccumulatorFactory accumulatorFactory = function.bind(channels, Optional.empty());
+
+        for (int positionCount : new int[] {1, AggregationSegmentTree.FANOUT, 1000, 5000}) {
+            Random random = new Random(positionCount);
+            List<Long> values = new ArrayList<>();
+            for (int position = 0; position < positionCount; position++) {
+                values.add(random.nextInt(10) == 0 ? null : random.nextLong());
+            }
+            PagesIndex pagesIndex = new PagesIndex.TestingFactory(false).newPagesIndex(ImmutableList.of(BIGINT), positionCount);
+            pagesIndex.addPage(new Page(createLongsBlock(values)));
+            WindowIndex windowIndex = new PagesWindowIndex(pagesIndex, 0, positionCount);
+            AggregationSegmentTree segmentTree = new AggregationSegmentTree(accumulatorFactory, windowIndex, channels);
+
+            for (int i = 0; i < 200; i++) {
+                int start = random.nextInt(positionCount);
+                int end = start + random.nextInt(positionCount - start);
+
+                Accumulator expected = accumulatorFactory.createAccumulator();
+                expected.addInput(windowIndex, channels, start, end);
+                Accumulator actual = accumulatorFactory.createAccumulator();
+                segmentTree.aggregate(actual, start, end);
+
+                assertEquals(
+                        getOnlyValue(function.getFinalType(), getFinalBlock(actual)),
+                        getOnlyValue(function.getFinalType(), getFinalBlock(expected)),
+                        "frame " + start + " to " + end);
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Binder;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.Provides;
+import io.airlift.bootstrap.Bootstrap;
+import io.airlift.json.JsonCodec;
+import io.airlift.json.JsonModule;
+import io.trino.block.BlockJsonSerde;
+import io.trino.execution.Lifespan;
+import io.trino.execution.ScheduledSplit;
+import io.trino.execution.TaskSource;
+import io.trino.metadata.HandleJsonModule;
+import io.trino.metadata.HandleResolver;
+import io.trino.metadata.Metadata;
+import io.trino.metadata.Split;
+import io.trino.spi.block.Block;
+import io.trino.spi.block.BlockEncodingSerde;
+import io.trino.spi.type.Type;
+import io.trino.testing.TestingHandleResolver;
+import io.trino.testing.TestingSplit;
+import io.trino.type.TypeDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import javax.inject.Singleton;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+import static io.airlift.json.JsonBinder.jsonBinder;
+import static io.airlift.json.JsonCodecBinder.jsonCodecBinder;
+import static io.trino.execution.TaskTestUtils.PLAN_FRAGMENT;
+import static io.trino.execution.TaskTestUtils.TABLE_SCAN_NODE_ID;
+import static io.trino.execution.buffer.OutputBuffers.BufferType.PARTITIONED;
+import static io.trino.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
+import static io.trino.metadata.MetadataManager.createTestMetadataManager;
+import static io.trino.testing.TestingHandles.TEST_TABLE_HANDLE;
+import static io.trino.testing.TestingSession.testSessionBuilder;
+import static io.trino.testing.assertions.Assert.assertEquals;
+
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkTaskUpdateRequestEncoding
+{
+    private static final int SPLITS = 1000;
+
+    @Benchmark
+    @OperationsPerInvocation(SPLITS)
+    public byte[] encode(BenchmarkData data)
+    {
+        return data.encode(data.getRequest());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SPLITS)
+    public TaskUpdateRequest decode(BenchmarkData data)
+    {
+        return data.decode(data.getEncodedRequest());
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"json", "smile"})
+        private String encoding = "json";
+
+        private JsonCodec<TaskUpdateRequest> jsonCodec;
+        private SmileCodec<TaskUpdateRequest> smileCodec;
+        private TaskUpdateRequest request;
+        private byte[] encodedRequest;
+
+        @Setup
+        public void setup()
+        {
+            Injector injector = new Bootstrap(
+                    new JsonModule(),
+                    new HandleJsonModule(),
+                    new Module()
+                    {
+                        @Override
+                        public void configure(Binder binder)
+                        {
+                            binder.bind(Metadata.class).toInstance(createTestMetadataManager());
+                            jsonBinder(binder).addDeserializerBinding(Type.class).to(TypeDeserializer.class);
+                            jsonBinder(binder).addSerializerBinding(Block.class).to(BlockJsonSerde.Serializer.class);
+                            jsonBinder(binder).addDeserializerBinding(Block.class).to(BlockJsonSerde.Deserializer.class);
+                            jsonCodecBinder(binder).bindJsonCodec(TaskUpdateRequest.class);
+                        }
+
+                        @Provides
+                        @Singleton
+                        public BlockEncodingSerde createBlockEncodingSerde(Metadata metadata)
+                        {
+                            return metadata.getBlockEncodingSerde();
+                        }
+                    })
+                    .strictConfig()
+                    .doNotInitializeLogging()
+                    .quiet()
+                    .initialize();
+            injector.getInstance(HandleResolver.class).addCatalogHandleResolver("test", new TestingHandleResolver());
+
+            jsonCodec = injector.getInstance(new Key<JsonCodec<TaskUpdateRequest>>() {});
+            smileCodec = new SmileCodec<>(injector.getInstance(ObjectMapper.class), TaskUpdateRequest.class);
+
+            ImmutableSet.Builder<ScheduledSplit> splits = ImmutableSet.builder();
+            for (int sequenceId = 0; sequenceId < SPLITS; sequenceId++) {
+                Split split = new Split(TEST_TABLE_HANDLE.getCatalogName(), TestingSplit.createRemoteSplit(), Lifespan.taskWide());
+                splits.add(new ScheduledSplit(sequenceId, TABLE_SCAN_NODE_ID, split));
+            }
+            request = new TaskUpdateRequest(
+                    Optional.of(testSessionBuilder().build().toSessionRepresentation()),
+                    ImmutableMap.of(),
+                    Optional.of(PLAN_FRAGMENT),
+                    ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, splits.build(), true)),
+                    createInitialEmptyOutputBuffers(PARTITIONED).withNoMoreBufferIds(),
+                    OptionalInt.empty());
+            encodedRequest = encode(request);
+        }
+
+        public byte[] encode(TaskUpdateRequest request)
+        {
+            switch (encoding) {
+                case "json":
+                    return jsonCodec.toJsonBytes(request);
+                case "smile":
+                    return smileCodec.toSmileBytes(request);
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+
+        public TaskUpdateRequest decode(byte[] bytes)
+        {
+            switch (encoding) {
+                case "json":
+                    return jsonCodec.fromJson(bytes);
+                case "smile":
+                    return smileCodec.fromSmile(bytes);
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+
+        public TaskUpdateRequest getRequest()
+        {
+            return request;
+        }
+
+        public byte[] getEncodedRequest()
+        {
+            return encodedRequest;
+        }
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        // assure the benchmarks are valid before running
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        assertEquals(data.decode(data.getEncodedRequest()).getSources().get(0).getSplits().size(), SPLITS);
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkTaskUpdateRequestEncoding.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
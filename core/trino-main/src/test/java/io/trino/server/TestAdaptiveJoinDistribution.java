@@ -0,0 +1,170 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.server;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.http.client.HttpClient;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.jetty.JettyHttpClient;
+import io.trino.client.QueryResults;
+import io.trino.client.Warning;
+import io.trino.plugin.tpch.TpchPlugin;
+import io.trino.server.testing.TestingTrinoServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static io.airlift.http.client.JsonResponseHandler.createJsonResponseHandler;
+import static io.airlift.http.client.Request.Builder.prepareGet;
+import static io.airlift.http.client.Request.Builder.preparePost;
+import static io.airlift.http.client.StaticBodyGenerator.createStaticBodyGenerator;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.airlift.testing.Closeables.closeAll;
+import static io.trino.SystemSessionProperties.ADAPTIVE_JOIN_DISTRIBUTION_ENABLED;
+import static io.trino.SystemSessionProperties.JOIN_MAX_BROADCAST_TABLE_SIZE;
+import static io.trino.client.ProtocolHeaders.TRINO_HEADERS;
+import static io.trino.spi.connector.StandardWarningCode.ADAPTIVE_PLAN_CHANGE;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestAdaptiveJoinDistribution
+{
+    // the filter on the line items is estimated to remove most of the rows, so they are broadcast
+    private static final String QUERY = "" +
+            "SELECT count(*) " +
+            "FROM tpch.tiny.orders o " +
+            "JOIN (SELECT partkey FROM tpch.tiny.lineitem WHERE quantity = quantity + 0) l ON o.custkey = l.partkey";
+    private static final List<List<Object>> EXPECTED_ROWS = ImmutableList.of(ImmutableList.of(449648L));
+
+    private HttpClient client;
+    private TestingTrinoServer server;
+
+    @BeforeClass
+    public void setup()
+    {
+        client = new JettyHttpClient();
+        server = TestingTrinoServer.create();
+        server.installPlugin(new TpchPlugin());
+        server.createCatalog("tpch", "tpch");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void teardown()
+            throws Exception
+    {
+        closeAll(server, client);
+        server = null;
+        client = null;
+    }
+
+    @Test
+    public void testBuildSideLargerThanEstimated()
+    {
+        String explain = getOnlyValue(execute("EXPLAIN " + QUERY, false, "100kB"));
+        assertTrue(explain.contains("Distribution: REPLICATED"), explain);
+
+        QueryResult result = execute(QUERY, true, "100kB");
+        assertEquals(result.getRows(), EXPECTED_ROWS);
+        assertEquals(result.getWarnings().size(), 1);
+        assertEquals(result.getWarnings().get(0).getWarningCode().getCode(), ADAPTIVE_PLAN_CHANGE.toWarningCode().getCode());
+
+        String explainAnalyze = getOnlyValue(execute("EXPLAIN ANALYZE " + QUERY, true, "100kB"));
+        assertTrue(explainAnalyze.startsWith("Plan change: Query was planned again"), explainAnalyze);
+        assertTrue(explainAnalyze.contains("Distribution: PARTITIONED"), explainAnalyze);
+        assertFalse(explainAnalyze.contains("Distribution: REPLICATED"), explainAnalyze);
+    }
+
+    @Test
+    public void testBuildSideSmallerThanMaxBroadcastSize()
+    {
+        QueryResult result = execute(QUERY, true, "100MB");
+        assertEquals(result.getRows(), EXPECTED_ROWS);
+        assertEquals(result.getWarnings(), ImmutableList.of());
+
+        String explainAnalyze = getOnlyValue(execute("EXPLAIN ANALYZE " + QUERY, true, "100MB"));
+        assertFalse(explainAnalyze.contains("Plan change"), explainAnalyze);
+        assertTrue(explainAnalyze.contains("Distribution: REPLICATED"), explainAnalyze);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        QueryResult result = execute(QUERY, false, "100kB");
+        assertEquals(result.getRows(), EXPECTED_ROWS);
+        assertEquals(result.getWarnings(), ImmutableList.of());
+    }
+
+    private static String getOnlyValue(QueryResult result)
+    {
+        assertEquals(result.getRows().size(), 1);
+        return (String) result.getRows().get(0).get(0);
+    }
+
+    private QueryResult execute(String sql, boolean adaptiveJoinDistribution, String maxBroadcastTableSize)
+    {
+        Request request = preparePost()
+                .setUri(uriBuilderFrom(server.getBaseUrl().resolve("/v1/statement")).build())
+                .setHeader(TRINO_HEADERS.requestUser(), "user")
+                .addHeader(TRINO_HEADERS.requestSession(), format("%s=%s", ADAPTIVE_JOIN_DISTRIBUTION_ENABLED, adaptiveJoinDistribution))
+                .addHeader(TRINO_HEADERS.requestSession(), format("%s=%s", JOIN_MAX_BROADCAST_TABLE_SIZE, maxBroadcastTableSize))
+                .setBodyGenerator(createStaticBodyGenerator(sql, UTF_8))
+                .build();
+        QueryResults queryResults = client.execute(request, createJsonResponseHandler(jsonCodec(QueryResults.class)));
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        while (true) {
+            if (queryResults.getData() != null) {
+                queryResults.getData().forEach(rows::add);
+            }
+            if (queryResults.getNextUri() == null) {
+                break;
+            }
+            request = prepareGet()
+                    .setHeader(TRINO_HEADERS.requestUser(), "user")
+                    .setUri(queryResults.getNextUri())
+                    .build();
+            queryResults = client.execute(request, createJsonResponseHandler(jsonCodec(QueryResults.class)));
+        }
+        assertEquals(queryResults.getStats().getState(), "FINISHED", String.valueOf(queryResults.getError()));
+        return new QueryResult(rows.build(), queryResults.getWarnings());
+    }
+
+    private static class QueryResult
+    {
+        private final List<List<Object>> rows;
+        private final List<Warning> warnings;
+
+        public QueryResult(List<List<Object>> rows, List<Warning> warnings)
+        {
+            this.rows = rows;
+            this.warnings = warnings;
+        }
+
+        public List<List<Object>> getRows()
+        {
+            return rows;
+        }
+
+        public List<Warning> getWarnings()
+        {
+            return warnings;
+        }
+    }
+}
@@ -66,6 +66,7 @@ public class TestBasicQueryInfo
                                 Duration.valueOf("44m"),
                                 Duration.valueOf("9m"),
                                 Duration.valueOf("99s"),
+                                Duration.valueOf("98s"),
                                 Duration.valueOf("12m"),
                                 13,
                                 14,
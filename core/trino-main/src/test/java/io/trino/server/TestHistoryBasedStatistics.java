@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
+import io.airlift.http.client.HttpClient;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.jetty.JettyHttpClient;
+import io.trino.client.QueryResults;
+import io.trino.cost.history.FileHistoryBasedStatisticsStore;
+import io.trino.plugin.tpch.TpchPlugin;
+import io.trino.server.testing.TestingTrinoServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static io.airlift.http.client.JsonResponseHandler.createJsonResponseHandler;
+import static io.airlift.http.client.Request.Builder.prepareGet;
+import static io.airlift.http.client.Request.Builder.preparePost;
+import static io.airlift.http.client.StaticBodyGenerator.createStaticBodyGenerator;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.airlift.testing.Closeables.closeAll;
+import static io.trino.SystemSessionProperties.USE_HISTORY_BASED_STATISTICS;
+import static io.trino.client.ProtocolHeaders.TRINO_HEADERS;
+import static io.trino.testing.assertions.Assert.assertEventually;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempDirectory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestHistoryBasedStatistics
+{
+    private static final String QUERY = "" +
+            "SELECT count(*) " +
+            "FROM tpch.tiny.orders o JOIN tpch.tiny.customer c ON o.custkey = c.custkey " +
+            "WHERE o.orderstatus = 'F' AND c.acctbal > 1000";
+
+    private Path directory;
+    private HttpClient client;
+    private TestingTrinoServer server;
+    private FileHistoryBasedStatisticsStore store;
+
+    @BeforeClass
+    public void setup()
+            throws IOException
+    {
+        directory = createTempDirectory("history-based-statistics");
+        client = new JettyHttpClient();
+        server = TestingTrinoServer.builder()
+                .setProperties(ImmutableMap.of("history-based-statistics.directory", directory.toString()))
+                .build();
+        server.installPlugin(new TpchPlugin());
+        server.createCatalog("tpch", "tpch");
+        store = server.getInstance(Key.get(FileHistoryBasedStatisticsStore.class));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void teardown()
+            throws Exception
+    {
+        closeAll(server, client);
+        deleteRecursively(directory, ALLOW_INSECURE);
+        server = null;
+        client = null;
+        store = null;
+    }
+
+    @Test
+    public void testEstimatesFromHistory()
+    {
+        long writes = store.getWrites().getTotalCount();
+        List<List<Object>> expected = execute(QUERY, "user", true);
+        // the statistics are recorded after the query completes
+        assertEventually(() -> assertTrue(store.getWrites().getTotalCount() > writes, "statistics of the query are not recorded"));
+
+        assertEquals(execute(QUERY, "user", true), expected);
+        List<List<Object>> estimates = execute(
+                "SELECT history_rows FROM system.runtime.history_based_estimates WHERE plan_node_type = 'FilterNode' AND canonical_plan LIKE '%acctbal%'",
+                "user",
+                false);
+        assertEquals(estimates.size(), 1);
+        List<List<Object>> filteredRows = execute("SELECT count(*) FROM tpch.tiny.customer WHERE acctbal > 1000", "user", false);
+        assertEquals(((Number) estimates.get(0).get(0)).longValue(), ((Number) filteredRows.get(0).get(0)).longValue());
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        String query = "SELECT count(*) FROM tpch.tiny.lineitem WHERE returnflag = 'R'";
+        long writes = store.getWrites().getTotalCount();
+        execute(query, "user", false);
+        execute(query, "user", false);
+        assertEquals(store.getWrites().getTotalCount(), writes);
+    }
+
+    private List<List<Object>> execute(String sql, String user, boolean useHistoryBasedStatistics)
+    {
+        Request request = preparePost()
+                .setUri(uriBuilderFrom(server.getBaseUrl().resolve("/v1/statement")).build())
+                .setHeader(TRINO_HEADERS.requestUser(), user)
+                .setHeader(TRINO_HEADERS.requestSession(), USE_HISTORY_BASED_STATISTICS + "=" + useHistoryBasedStatistics)
+                .setBodyGenerator(createStaticBodyGenerator(sql, UTF_8))
+                .build();
+        QueryResults queryResults = client.execute(request, createJsonResponseHandler(jsonCodec(QueryResults.class)));
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        while (true) {
+            if (queryResults.getData() != null) {
+                queryResults.getData().forEach(rows::add);
+            }
+            if (queryResults.getNextUri() == null) {
+                break;
+            }
+            request = prepareGet()
+                    .setHeader(TRINO_HEADERS.requestUser(), user)
+                    .setUri(queryResults.getNextUri())
+                    .build();
+            queryResults = client.execute(request, createJsonResponseHandler(jsonCodec(QueryResults.class)));
+        }
+        assertEquals(queryResults.getStats().getState(), "FINISHED");
+        return rows.build();
+    }
+}
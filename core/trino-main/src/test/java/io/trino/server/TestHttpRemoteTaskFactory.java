@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMultimap;
+import io.airlift.http.client.HttpStatus;
+import io.airlift.http.client.testing.TestingHttpClient;
+import io.airlift.http.client.testing.TestingResponse;
+import io.airlift.json.ObjectMapperProvider;
+import io.airlift.units.Duration;
+import io.trino.client.NodeVersion;
+import io.trino.execution.DynamicFilterConfig;
+import io.trino.execution.DynamicFiltersCollector.VersionedDynamicFilterDomains;
+import io.trino.execution.NodeTaskMap.PartitionedSplitCountTracker;
+import io.trino.execution.QueryManagerConfig;
+import io.trino.execution.RemoteTask;
+import io.trino.execution.TaskId;
+import io.trino.execution.TaskInfo;
+import io.trino.execution.TaskManagerConfig;
+import io.trino.execution.TaskStatus;
+import io.trino.execution.TestSqlTaskManager.MockLocationFactory;
+import io.trino.metadata.InternalNode;
+import io.trino.server.remotetask.RemoteTaskStats;
+import io.trino.spi.QueryId;
+import io.trino.spi.type.TypeOperators;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.trino.SessionTestUtils.TEST_SESSION;
+import static io.trino.execution.TaskTestUtils.PLAN_FRAGMENT;
+import static io.trino.execution.buffer.OutputBuffers.BufferType.BROADCAST;
+import static io.trino.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
+import static io.trino.metadata.MetadataManager.createTestMetadataManager;
+import static io.trino.testing.assertions.Assert.assertEventually;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+
+@Test(singleThreaded = true)
+public class TestHttpRemoteTaskFactory
+{
+    private static final QueryId QUERY_ID = new QueryId("query");
+    private static final QueryId OTHER_QUERY_ID = new QueryId("other");
+
+    private HttpRemoteTaskFactory factory;
+    private int nextTaskId;
+
+    @BeforeClass
+    public void setUp()
+    {
+        TaskManagerConfig taskConfig = new TaskManagerConfig()
+                .setInfoUpdateInterval(new Duration(1, SECONDS))
+                .setInfoUpdateIntervalPerTask(new Duration(100, MILLISECONDS));
+        factory = new HttpRemoteTaskFactory(
+                new QueryManagerConfig(),
+                taskConfig,
+                new TestingHttpClient(request -> new TestingResponse(HttpStatus.NO_CONTENT, ImmutableListMultimap.of(), new byte[0])),
+                new MockLocationFactory(),
+                jsonCodec(TaskStatus.class),
+                jsonCodec(VersionedDynamicFilterDomains.class),
+                jsonCodec(TaskInfo.class),
+                jsonCodec(TaskUpdateRequest.class),
+                new ObjectMapperProvider().get(),
+                new RemoteTaskStats(),
+                new DynamicFilterService(createTestMetadataManager(), new TypeOperators(), new DynamicFilterConfig()));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        factory.stop();
+        factory = null;
+    }
+
+    @Test
+    public void testAdaptiveTaskInfoUpdateInterval()
+    {
+        // the interval is not lengthened until the tasks exceed the base interval
+        List<RemoteTask> tasks = createRemoteTasks(QUERY_ID, 10);
+        assertEquals(factory.getTaskInfoUpdateInterval(QUERY_ID), new Duration(1, SECONDS));
+
+        List<RemoteTask> moreTasks = createRemoteTasks(QUERY_ID, 15);
+        assertEquals(factory.getTaskInfoUpdateInterval(QUERY_ID), new Duration(2500, MILLISECONDS));
+
+        // the tasks of other queries do not change the interval
+        List<RemoteTask> otherTasks = createRemoteTasks(OTHER_QUERY_ID, 20);
+        assertEquals(factory.getTaskInfoUpdateInterval(QUERY_ID), new Duration(2500, MILLISECONDS));
+        assertEquals(factory.getTaskInfoUpdateInterval(OTHER_QUERY_ID), new Duration(2, SECONDS));
+
+        // the interval shrinks as the tasks finish
+        moreTasks.forEach(RemoteTask::abort);
+        assertEventually(() -> assertEquals(factory.getTaskInfoUpdateInterval(QUERY_ID), new Duration(1, SECONDS)));
+        tasks.subList(0, 5).forEach(RemoteTask::abort);
+        otherTasks.forEach(RemoteTask::abort);
+        assertEventually(() -> assertEquals(factory.getTaskInfoUpdateInterval(OTHER_QUERY_ID), new Duration(1, SECONDS)));
+
+        // a task finishing twice is only removed once
+        createRemoteTasks(QUERY_ID, 15);
+        tasks.get(0).abort();
+        tasks.get(0).cancel();
+        assertEquals(factory.getTaskInfoUpdateInterval(QUERY_ID), new Duration(2, SECONDS));
+
+        tasks.subList(5, 10).forEach(RemoteTask::abort);
+        assertEventually(() -> assertEquals(factory.getTaskInfoUpdateInterval(QUERY_ID), new Duration(1500, MILLISECONDS)));
+    }
+
+    private List<RemoteTask> createRemoteTasks(QueryId queryId, int count)
+    {
+        ImmutableList.Builder<RemoteTask> tasks = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            tasks.add(factory.createRemoteTask(
+                    TEST_SESSION,
+                    new TaskId(queryId.getId(), 0, nextTaskId++),
+                    new InternalNode("node-id", URI.create("http://fake.invalid/"), new NodeVersion("version"), false),
+                    PLAN_FRAGMENT,
+                    ImmutableMultimap.of(),
+                    OptionalInt.empty(),
+                    createInitialEmptyOutputBuffers(BROADCAST),
+                    new PartitionedSplitCountTracker(splits -> {}),
+                    true));
+        }
+        return tasks.build();
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
+import io.airlift.units.Duration;
+import io.trino.execution.QueryInfo;
+import io.trino.execution.plancache.PlanCache;
+import io.trino.plugin.tpch.TpchColumnHandle;
+import io.trino.plugin.tpch.TpchPlugin;
+import io.trino.plugin.tpch.TpchTableHandle;
+import io.trino.server.TestingStatementClient.StatementResult;
+import io.trino.server.testing.TestingTrinoServer;
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.predicate.Domain;
+import io.trino.spi.predicate.TupleDomain;
+import io.trino.spi.type.Type;
+import io.trino.sql.planner.plan.TableScanNode;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.testing.Closeables.closeAll;
+import static io.trino.SystemSessionProperties.PLAN_CACHE_ENABLED;
+import static io.trino.execution.StageInfo.getAllStages;
+import static io.trino.spi.type.VarcharType.createVarcharType;
+import static io.trino.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestPlanCaching
+{
+    private static final String PREPARED_QUERY = "SELECT name FROM tpch.tiny.nation WHERE nationkey = ?";
+
+    private TestingTrinoServer server;
+    private TestingStatementClient client;
+    private PlanCache planCache;
+
+    @BeforeClass
+    public void setup()
+    {
+        server = TestingTrinoServer.builder()
+                .setProperties(ImmutableMap.of("query.plan-cache.enabled", "true"))
+                .build();
+        server.installPlugin(new TpchPlugin());
+        server.createCatalog("tpch", "tpch");
+        client = new TestingStatementClient(server);
+        planCache = server.getInstance(Key.get(PlanCache.class));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void teardown()
+            throws Exception
+    {
+        closeAll(client, server);
+        server = null;
+        client = null;
+        planCache = null;
+    }
+
+    @Test
+    public void testPreparedStatement()
+    {
+        planCache.invalidateAll();
+        long hits = planCache.getHits().getTotalCount();
+
+        QueryResult first = execute("EXECUTE my_query USING 3", Optional.of(PREPARED_QUERY), true);
+        assertEquals(first.getRows(), ImmutableList.of(ImmutableList.of("CANADA")));
+        assertEquals(first.getPlanningTimeSaved(), new Duration(0, MILLISECONDS));
+        assertEquals(planCache.getEntryCount(), 1);
+
+        QueryResult second = execute("EXECUTE my_query USING 3", Optional.of(PREPARED_QUERY), true);
+        assertEquals(second.getRows(), first.getRows());
+        assertEquals(planCache.getHits().getTotalCount(), hits + 1);
+        assertTrue(second.getPlanningTimeSaved().toMillis() > 0);
+
+        // the values of the parameters are bound to the plan
+        QueryResult other = execute("EXECUTE my_query USING 4", Optional.of(PREPARED_QUERY), true);
+        assertEquals(other.getRows(), ImmutableList.of(ImmutableList.of("EGYPT")));
+        assertEquals(planCache.getHits().getTotalCount(), hits + 2);
+        assertEquals(planCache.getEntryCount(), 1);
+
+        // the types of the parameters are a part of the key
+        QueryResult otherType = execute("EXECUTE my_query USING BIGINT '4'", Optional.of(PREPARED_QUERY), true);
+        assertEquals(otherType.getRows(), ImmutableList.of(ImmutableList.of("EGYPT")));
+        assertEquals(planCache.getHits().getTotalCount(), hits + 2);
+        assertEquals(planCache.getEntryCount(), 2);
+
+        // the data of another scale factor is not the same
+        execute("EXECUTE my_query USING 3", Optional.of(PREPARED_QUERY.replace("tiny", "sf1")), true);
+        assertEquals(planCache.getHits().getTotalCount(), hits + 2);
+        assertEquals(planCache.getEntryCount(), 3);
+    }
+
+    @Test
+    public void testParametersInExpressions()
+    {
+        planCache.invalidateAll();
+        String query = "" +
+                "SELECT n.name, count(*) " +
+                "FROM tpch.tiny.nation n JOIN tpch.tiny.customer c ON n.nationkey = c.nationkey AND c.acctbal > ? " +
+                "WHERE n.name LIKE ? " +
+                "GROUP BY n.name " +
+                "ORDER BY n.name";
+
+        List<List<Object>> expected = execute("EXECUTE my_query USING 9000, 'A%'", Optional.of(query), false).getRows();
+        assertEquals(execute("EXECUTE my_query USING 9000, 'A%'", Optional.of(query), true).getRows(), expected);
+
+        long hits = planCache.getHits().getTotalCount();
+        List<List<Object>> otherExpected = execute("EXECUTE my_query USING 1000, 'B%'", Optional.of(query), false).getRows();
+        assertEquals(execute("EXECUTE my_query USING 1000, 'B%'", Optional.of(query), true).getRows(), otherExpected);
+        assertEquals(planCache.getHits().getTotalCount(), hits + 1);
+    }
+
+    @Test
+    public void testPushedDownParameter()
+    {
+        planCache.invalidateAll();
+        String query = "SELECT count(*) FROM tpch.tiny.orders WHERE orderstatus = ?";
+        List<List<Object>> expected = execute("EXECUTE my_query USING 'F'", Optional.of(query), false).getRows();
+        List<List<Object>> otherExpected = execute("EXECUTE my_query USING 'O'", Optional.of(query), false).getRows();
+
+        long hits = planCache.getHits().getTotalCount();
+        QueryResult first = execute("EXECUTE my_query USING 'F'", Optional.of(query), true);
+        assertEquals(first.getRows(), expected);
+        assertEquals(first.getTableConstraints(), ImmutableList.of(orderStatusConstraint("F")));
+
+        // the cached plan keeps the filter pushed down into the connector
+        QueryResult second = execute("EXECUTE my_query USING 'F'", Optional.of(query), true);
+        assertEquals(second.getRows(), expected);
+        assertEquals(second.getTableConstraints(), ImmutableList.of(orderStatusConstraint("F")));
+        assertEquals(planCache.getHits().getTotalCount(), hits + 1);
+
+        // the plan is cached for every value of the pushed down parameter
+        QueryResult other = execute("EXECUTE my_query USING 'O'", Optional.of(query), true);
+        assertEquals(other.getRows(), otherExpected);
+        assertEquals(other.getTableConstraints(), ImmutableList.of(orderStatusConstraint("O")));
+        assertEquals(planCache.getHits().getTotalCount(), hits + 1);
+        assertEquals(planCache.getEntryCount(), 2);
+
+        QueryResult otherSecond = execute("EXECUTE my_query USING 'O'", Optional.of(query), true);
+        assertEquals(otherSecond.getRows(), otherExpected);
+        assertEquals(otherSecond.getTableConstraints(), ImmutableList.of(orderStatusConstraint("O")));
+        assertEquals(planCache.getHits().getTotalCount(), hits + 2);
+    }
+
+    @Test
+    public void testParameterOfLimit()
+    {
+        planCache.invalidateAll();
+        String query = "SELECT name FROM tpch.tiny.nation WHERE regionkey = ? ORDER BY name LIMIT ?";
+
+        long hits = planCache.getHits().getTotalCount();
+        assertEquals(execute("EXECUTE my_query USING 1, 2", Optional.of(query), true).getRows(), ImmutableList.of(ImmutableList.of("ARGENTINA"), ImmutableList.of("BRAZIL")));
+        assertEquals(execute("EXECUTE my_query USING 2, 2", Optional.of(query), true).getRows(), ImmutableList.of(ImmutableList.of("CHINA"), ImmutableList.of("INDIA")));
+        assertEquals(planCache.getHits().getTotalCount(), hits + 1);
+
+        // the row count of the limit is not bound to the plan, so the plan is not reused with another row count
+        assertEquals(execute("EXECUTE my_query USING 2, 1", Optional.of(query), true).getRows(), ImmutableList.of(ImmutableList.of("CHINA")));
+        assertEquals(planCache.getHits().getTotalCount(), hits + 1);
+        assertEquals(planCache.getEntryCount(), 1);
+    }
+
+    @Test
+    public void testQuery()
+    {
+        planCache.invalidateAll();
+        String query = "SELECT orderstatus, count(*) FROM tpch.tiny.orders o JOIN tpch.tiny.customer c ON o.custkey = c.custkey GROUP BY orderstatus ORDER BY orderstatus";
+
+        long hits = planCache.getHits().getTotalCount();
+        List<List<Object>> expected = execute(query, Optional.empty(), true).getRows();
+        assertEquals(expected.size(), 3);
+        assertEquals(execute(query, Optional.empty(), true).getRows(), expected);
+        assertEquals(planCache.getHits().getTotalCount(), hits + 1);
+        assertEquals(planCache.getEntryCount(), 1);
+    }
+
+    @Test
+    public void testBypassCache()
+    {
+        planCache.invalidateAll();
+        long misses = planCache.getMisses().getTotalCount();
+
+        QueryResult result = execute("EXECUTE my_query USING 3", Optional.of(PREPARED_QUERY), false);
+        execute("EXECUTE my_query USING 3", Optional.of(PREPARED_QUERY), false);
+        assertEquals(result.getRows(), ImmutableList.of(ImmutableList.of("CANADA")));
+        assertEquals(planCache.getMisses().getTotalCount(), misses);
+        assertEquals(planCache.getEntryCount(), 0);
+    }
+
+    @Test
+    public void testQueryStartTime()
+    {
+        planCache.invalidateAll();
+        long misses = planCache.getMisses().getTotalCount();
+
+        execute("SELECT count(*) FROM tpch.tiny.nation WHERE current_date > DATE '2000-01-01'", Optional.empty(), true);
+        execute("SELECT count(*) FROM tpch.tiny.nation WHERE now() > TIMESTAMP '2000-01-01 00:00:00'", Optional.empty(), true);
+        assertEquals(planCache.getMisses().getTotalCount(), misses);
+        assertEquals(planCache.getEntryCount(), 0);
+    }
+
+    private QueryResult execute(String sql, Optional<String> preparedQuery, boolean planCacheEnabled)
+    {
+        Map<String, String> preparedStatements = preparedQuery.map(query -> ImmutableMap.of("my_query", query)).orElse(ImmutableMap.of());
+        StatementResult result = client.execute(sql, ImmutableMap.of(PLAN_CACHE_ENABLED, String.valueOf(planCacheEnabled)), preparedStatements);
+        QueryInfo queryInfo = server.getQueryManager().getFullQueryInfo(result.getQueryId());
+        List<TupleDomain<ColumnHandle>> tableConstraints = getAllStages(queryInfo.getOutputStage()).stream()
+                .flatMap(stage -> searchFrom(stage.getPlan().getRoot()).where(TableScanNode.class::isInstance).<TableScanNode>findAll().stream())
+                .map(scan -> ((TpchTableHandle) scan.getTable().getConnectorHandle()).getConstraint())
+                .collect(toImmutableList());
+        return new QueryResult(result.getRows(), queryInfo.getQueryStats().getPlanningTimeSaved(), tableConstraints);
+    }
+
+    private static TupleDomain<ColumnHandle> orderStatusConstraint(String orderStatus)
+    {
+        Type type = createVarcharType(1);
+        return TupleDomain.withColumnDomains(ImmutableMap.of(new TpchColumnHandle("orderstatus", type), Domain.singleValue(type, utf8Slice(orderStatus))));
+    }
+
+    private static class QueryResult
+    {
+        private final List<List<Object>> rows;
+        private final Duration planningTimeSaved;
+        private final List<TupleDomain<ColumnHandle>> tableConstraints;
+
+        public QueryResult(List<List<Object>> rows, Duration planningTimeSaved, List<TupleDomain<ColumnHandle>> tableConstraints)
+        {
+            this.rows = rows;
+            this.planningTimeSaved = planningTimeSaved;
+            this.tableConstraints = tableConstraints;
+        }
+
+        public List<List<Object>> getRows()
+        {
+            return rows;
+        }
+
+        public Duration getPlanningTimeSaved()
+        {
+            return planningTimeSaved;
+        }
+
+        public List<TupleDomain<ColumnHandle>> getTableConstraints()
+        {
+            return tableConstraints;
+        }
+    }
+}
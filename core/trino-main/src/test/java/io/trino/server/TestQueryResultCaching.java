@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
+import io.trino.execution.resultcache.QueryResultCache;
+import io.trino.plugin.tpch.TpchPlugin;
+import io.trino.server.testing.TestingTrinoServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static io.airlift.testing.Closeables.closeAll;
+import static io.trino.SystemSessionProperties.RESULT_CACHE_ENABLED;
+import static org.testng.Assert.assertEquals;
+
+@Test(singleThreaded = true)
+public class TestQueryResultCaching
+{
+    private TestingTrinoServer server;
+    private TestingStatementClient client;
+    private QueryResultCache resultCache;
+
+    @BeforeClass
+    public void setup()
+    {
+        server = TestingTrinoServer.builder()
+                .setProperties(ImmutableMap.of("query.result-cache.enabled", "true"))
+                .build();
+        client = new TestingStatementClient(server);
+        server.installPlugin(new TpchPlugin());
+        server.createCatalog("tpch", "tpch");
+        resultCache = server.getInstance(Key.get(QueryResultCache.class));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void teardown()
+            throws Exception
+    {
+        closeAll(client, server);
+        server = null;
+        client = null;
+        resultCache = null;
+    }
+
+    @Test
+    public void testCachedResults()
+    {
+        resultCache.invalidateAll();
+        String query = "SELECT orderstatus, count(*), sum(totalprice) FROM tpch.tiny.orders GROUP BY orderstatus ORDER BY orderstatus";
+
+        long hits = resultCache.getHits().getTotalCount();
+        List<List<Object>> expected = execute(query, true);
+        assertEquals(expected.size(), 3);
+        assertEquals(resultCache.getHits().getTotalCount(), hits);
+        assertEquals(resultCache.getEntryCount(), 1);
+
+        assertEquals(execute(query, true), expected);
+        assertEquals(resultCache.getHits().getTotalCount(), hits + 1);
+
+        // the data of another scale factor is not the same
+        execute(query.replace("tiny", "sf1"), true);
+        assertEquals(resultCache.getHits().getTotalCount(), hits + 1);
+        assertEquals(resultCache.getEntryCount(), 2);
+    }
+
+    @Test
+    public void testEmptyResult()
+    {
+        resultCache.invalidateAll();
+        String query = "SELECT name FROM tpch.tiny.nation WHERE regionkey = 7";
+
+        assertEquals(execute(query, true), ImmutableList.of());
+        assertEquals(resultCache.getEntryCount(), 1);
+
+        long hits = resultCache.getHits().getTotalCount();
+        assertEquals(execute(query, true), ImmutableList.of());
+        assertEquals(resultCache.getHits().getTotalCount(), hits + 1);
+    }
+
+    @Test
+    public void testBypassCache()
+    {
+        resultCache.invalidateAll();
+        String query = "SELECT count(*) FROM tpch.tiny.nation";
+
+        long misses = resultCache.getMisses().getTotalCount();
+        execute(query, false);
+        execute(query, false);
+        assertEquals(resultCache.getMisses().getTotalCount(), misses);
+        assertEquals(resultCache.getEntryCount(), 0);
+    }
+
+    @Test
+    public void testNonDeterministicQuery()
+    {
+        resultCache.invalidateAll();
+        String query = "SELECT count(*) FROM tpch.tiny.nation WHERE rand() < 2";
+
+        long misses = resultCache.getMisses().getTotalCount();
+        execute(query, true);
+        execute(query, true);
+        assertEquals(resultCache.getMisses().getTotalCount(), misses);
+        assertEquals(resultCache.getEntryCount(), 0);
+    }
+
+    @Test
+    public void testSampledQuery()
+    {
+        resultCache.invalidateAll();
+        long misses = resultCache.getMisses().getTotalCount();
+
+        // the system sampling is not pushed into the connector, so the plan keeps the sample node
+        for (String sampleType : ImmutableList.of("SYSTEM", "BERNOULLI")) {
+            String query = "SELECT count(*) FROM tpch.tiny.orders TABLESAMPLE " + sampleType + " (50)";
+            execute(query, true);
+            execute(query, true);
+        }
+        assertEquals(resultCache.getMisses().getTotalCount(), misses);
+        assertEquals(resultCache.getEntryCount(), 0);
+    }
+
+    private List<List<Object>> execute(String sql, boolean resultCacheEnabled)
+    {
+        return client.execute(sql, ImmutableMap.of(RESULT_CACHE_ENABLED, String.valueOf(resultCacheEnabled))).getRows();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.json.ObjectMapperProvider;
+import io.airlift.slice.Slice;
+import io.trino.execution.buffer.OutputBuffers;
+import io.trino.execution.buffer.OutputBuffers.OutputBufferId;
+import io.trino.server.SliceSerialization.SliceDeserializer;
+import io.trino.server.SliceSerialization.SliceSerializer;
+import org.testng.annotations.Test;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.trino.execution.buffer.OutputBuffers.BufferType.PARTITIONED;
+import static io.trino.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+
+public class TestSmileCodec
+{
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapperProvider().get();
+
+    @Test
+    public void testRoundTrip()
+    {
+        SmileCodec<OutputBuffers> codec = new SmileCodec<>(OBJECT_MAPPER, OutputBuffers.class);
+        OutputBuffers outputBuffers = createOutputBuffers();
+        assertEquals(codec.fromSmile(codec.toSmileBytes(outputBuffers)), outputBuffers);
+    }
+
+    @Test
+    public void testDeserializerRequiringCodec()
+    {
+        // the deserializers of the expressions and the slices read the values with the codec of the parser
+        ObjectMapperProvider objectMapperProvider = new ObjectMapperProvider();
+        objectMapperProvider.setJsonSerializers(ImmutableMap.of(Slice.class, new SliceSerializer()));
+        objectMapperProvider.setJsonDeserializers(ImmutableMap.of(Slice.class, new SliceDeserializer()));
+        SmileCodec<Slice> codec = new SmileCodec<>(objectMapperProvider.get(), Slice.class);
+        assertEquals(codec.fromSmile(codec.toSmileBytes(utf8Slice("value"))), utf8Slice("value"));
+    }
+
+    @Test
+    public void testInvalidSmile()
+    {
+        SmileCodec<OutputBuffers> codec = new SmileCodec<>(OBJECT_MAPPER, OutputBuffers.class);
+        assertThatThrownBy(() -> codec.fromSmile(new byte[] {1, 2, 3}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid SMILE bytes for io.trino.execution.buffer.OutputBuffers");
+    }
+
+    private static OutputBuffers createOutputBuffers()
+    {
+        return createInitialEmptyOutputBuffers(PARTITIONED)
+                .withBuffer(new OutputBufferId(0), 0)
+                .withBuffer(new OutputBufferId(1), 1)
+                .withNoMoreBufferIds();
+    }
+}
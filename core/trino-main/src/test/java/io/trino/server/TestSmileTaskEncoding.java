@@ -0,0 +1,246 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
+import io.airlift.http.client.HttpClient;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.Response;
+import io.airlift.http.client.ResponseHandler;
+import io.airlift.http.client.StatusResponseHandler.StatusResponse;
+import io.airlift.http.client.jetty.JettyHttpClient;
+import io.trino.cost.StatsAndCosts;
+import io.trino.execution.TaskId;
+import io.trino.execution.TaskInfo;
+import io.trino.execution.TaskState;
+import io.trino.execution.TaskStatus;
+import io.trino.execution.buffer.OutputBuffers;
+import io.trino.execution.buffer.OutputBuffers.OutputBufferId;
+import io.trino.plugin.tpch.TpchPlugin;
+import io.trino.server.testing.TestingTrinoServer;
+import io.trino.sql.planner.Partitioning;
+import io.trino.sql.planner.PartitioningScheme;
+import io.trino.sql.planner.PlanFragment;
+import io.trino.sql.planner.Symbol;
+import io.trino.sql.planner.plan.FilterNode;
+import io.trino.sql.planner.plan.PlanFragmentId;
+import io.trino.sql.planner.plan.PlanNodeId;
+import io.trino.sql.planner.plan.ValuesNode;
+import io.trino.sql.tree.GenericLiteral;
+import io.trino.sql.tree.IsNotNullPredicate;
+import io.trino.sql.tree.Row;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static com.google.common.io.ByteStreams.toByteArray;
+import static com.google.common.net.HttpHeaders.ACCEPT;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static io.airlift.http.client.Request.Builder.prepareDelete;
+import static io.airlift.http.client.Request.Builder.prepareGet;
+import static io.airlift.http.client.Request.Builder.preparePost;
+import static io.airlift.http.client.ResponseHandlerUtils.propagate;
+import static io.airlift.http.client.StaticBodyGenerator.createStaticBodyGenerator;
+import static io.airlift.http.client.StatusResponseHandler.createStatusResponseHandler;
+import static io.airlift.testing.Closeables.closeAll;
+import static io.trino.SessionTestUtils.TEST_SESSION;
+import static io.trino.execution.buffer.BufferState.NO_MORE_BUFFERS;
+import static io.trino.execution.buffer.OutputBuffers.BufferType.PARTITIONED;
+import static io.trino.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
+import static io.trino.operator.StageExecutionDescriptor.ungroupedExecution;
+import static io.trino.server.InternalHeaders.TRINO_CURRENT_VERSION;
+import static io.trino.server.InternalHeaders.TRINO_MAX_WAIT;
+import static io.trino.server.SmileCodec.SMILE_MEDIA_TYPE;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
+import static io.trino.testing.assertions.Assert.assertEventually;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Runs the task updates, the task info and the task status between the coordinator and a worker encoded as SMILE.
+ */
+@Test(singleThreaded = true)
+public class TestSmileTaskEncoding
+{
+    private TestingTrinoServer server;
+    private TestingStatementClient client;
+    private HttpClient httpClient;
+    private SmileCodec<TaskUpdateRequest> taskUpdateRequestCodec;
+    private SmileCodec<TaskInfo> taskInfoCodec;
+    private SmileCodec<TaskStatus> taskStatusCodec;
+
+    @BeforeClass
+    public void setup()
+    {
+        server = TestingTrinoServer.builder()
+                .setProperties(ImmutableMap.of("query.remote-task.smile-encoding-enabled", "true"))
+                .build();
+        server.installPlugin(new TpchPlugin());
+        server.createCatalog("tpch", "tpch");
+        client = new TestingStatementClient(server);
+        httpClient = new JettyHttpClient();
+        ObjectMapper objectMapper = server.getInstance(Key.get(ObjectMapper.class));
+        taskUpdateRequestCodec = new SmileCodec<>(objectMapper, TaskUpdateRequest.class);
+        taskInfoCodec = new SmileCodec<>(objectMapper, TaskInfo.class);
+        taskStatusCodec = new SmileCodec<>(objectMapper, TaskStatus.class);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void teardown()
+            throws Exception
+    {
+        closeAll(httpClient, client, server);
+        httpClient = null;
+        client = null;
+        server = null;
+    }
+
+    @Test
+    public void testQuery()
+    {
+        // the plan fragments of the join and the aggregations hold expressions, types and connector handles
+        String query = "" +
+                "SELECT o.orderstatus, count(*), sum(l.quantity) " +
+                "FROM tpch.tiny.orders o JOIN tpch.tiny.lineitem l ON o.orderkey = l.orderkey " +
+                "WHERE l.shipdate > DATE '1995-01-01' " +
+                "GROUP BY o.orderstatus " +
+                "ORDER BY o.orderstatus";
+        assertThat(client.execute(query, ImmutableMap.of()).getRows()).containsExactly(
+                ImmutableList.of("F", 3021L, 77552.0),
+                ImmutableList.of("O", 29165L, 742160.0),
+                ImmutableList.of("P", 1764L, 45774.0));
+    }
+
+    @Test
+    public void testTaskResource()
+    {
+        TaskId taskId = new TaskId("test_query", 0, 0);
+        Symbol value = new Symbol("value");
+        PlanFragment fragment = new PlanFragment(
+                new PlanFragmentId("0"),
+                new FilterNode(
+                        new PlanNodeId("filter"),
+                        new ValuesNode(new PlanNodeId("values"), ImmutableList.of(value), ImmutableList.of(new Row(ImmutableList.of(new GenericLiteral("BIGINT", "42"))))),
+                        new IsNotNullPredicate(value.toSymbolReference())),
+                ImmutableMap.of(value, BIGINT),
+                SINGLE_DISTRIBUTION,
+                ImmutableList.of(),
+                new PartitioningScheme(Partitioning.create(SINGLE_DISTRIBUTION, ImmutableList.of()), ImmutableList.of(value)),
+                ungroupedExecution(),
+                StatsAndCosts.empty(),
+                Optional.empty());
+        OutputBuffers outputBuffers = createInitialEmptyOutputBuffers(PARTITIONED)
+                .withBuffer(new OutputBufferId(0), 0)
+                .withNoMoreBufferIds();
+        TaskUpdateRequest taskUpdateRequest = new TaskUpdateRequest(
+                Optional.of(TEST_SESSION.toSessionRepresentation()),
+                ImmutableMap.of(),
+                Optional.of(fragment),
+                ImmutableList.of(),
+                outputBuffers,
+                OptionalInt.empty());
+
+        TaskInfo taskInfo = execute(
+                preparePost()
+                        .setUri(taskUri(taskId, ""))
+                        .setHeader(CONTENT_TYPE, SMILE_MEDIA_TYPE)
+                        .setBodyGenerator(createStaticBodyGenerator(taskUpdateRequestCodec.toSmileBytes(taskUpdateRequest))),
+                taskInfoCodec);
+        assertEquals(taskInfo.getTaskStatus().getTaskId(), taskId);
+        assertEquals(taskInfo.getOutputBuffers().getState(), NO_MORE_BUFFERS);
+
+        // the rows of the values are produced, and wait in the output buffer
+        assertEventually(() -> {
+            TaskStatus taskStatus = execute(
+                    prepareGet()
+                            .setUri(taskUri(taskId, "/status"))
+                            .setHeader(TRINO_CURRENT_VERSION, String.valueOf(taskInfo.getTaskStatus().getVersion()))
+                            .setHeader(TRINO_MAX_WAIT, "100ms"),
+                    taskStatusCodec);
+            assertThat(taskStatus.getState()).isIn(EnumSet.of(TaskState.FLUSHING, TaskState.FINISHED));
+        });
+        TaskInfo updatedTaskInfo = execute(
+                prepareGet()
+                        .setUri(taskUri(taskId, ""))
+                        .setHeader(TRINO_CURRENT_VERSION, String.valueOf(taskInfo.getTaskStatus().getVersion()))
+                        .setHeader(TRINO_MAX_WAIT, "100ms"),
+                taskInfoCodec);
+        assertEquals(updatedTaskInfo.getTaskStatus().getTaskId(), taskId);
+        assertEquals(updatedTaskInfo.getOutputBuffers().getTotalRowsSent(), 1);
+
+        StatusResponse response = httpClient.execute(
+                server.getInstance(Key.get(InternalAuthenticationManager.class)).filterRequest(prepareDelete().setUri(taskUri(taskId, "")).build()),
+                createStatusResponseHandler());
+        assertEquals(response.getStatusCode(), 200);
+    }
+
+    private URI taskUri(TaskId taskId, String path)
+    {
+        return uriBuilderFrom(server.getBaseUrl())
+                .appendPath("/v1/task/" + taskId + path)
+                .build();
+    }
+
+    private <T> T execute(Request.Builder request, SmileCodec<T> codec)
+    {
+        request.setHeader(ACCEPT, SMILE_MEDIA_TYPE);
+        // the task resource accepts only the requests of the other nodes of the cluster
+        Request internalRequest = server.getInstance(Key.get(InternalAuthenticationManager.class)).filterRequest(request.build());
+        return httpClient.execute(internalRequest, new SmileResponseHandler<>(codec));
+    }
+
+    private static class SmileResponseHandler<T>
+            implements ResponseHandler<T, RuntimeException>
+    {
+        private final SmileCodec<T> codec;
+
+        public SmileResponseHandler(SmileCodec<T> codec)
+        {
+            this.codec = codec;
+        }
+
+        @Override
+        public T handleException(Request request, Exception exception)
+        {
+            throw propagate(request, exception);
+        }
+
+        @Override
+        public T handle(Request request, Response response)
+        {
+            try (InputStream input = response.getInputStream()) {
+                byte[] bytes = toByteArray(input);
+                assertEquals(response.getStatusCode(), 200, new String(bytes));
+                assertEquals(response.getHeader(CONTENT_TYPE), SMILE_MEDIA_TYPE);
+                return codec.fromSmile(bytes);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
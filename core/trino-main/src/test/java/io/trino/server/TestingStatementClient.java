@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.http.client.HttpClient;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.jetty.JettyHttpClient;
+import io.trino.client.QueryResults;
+import io.trino.client.Warning;
+import io.trino.server.testing.TestingTrinoServer;
+import io.trino.spi.QueryId;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+
+import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static io.airlift.http.client.JsonResponseHandler.createJsonResponseHandler;
+import static io.airlift.http.client.Request.Builder.prepareGet;
+import static io.airlift.http.client.Request.Builder.preparePost;
+import static io.airlift.http.client.StaticBodyGenerator.createStaticBodyGenerator;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.trino.client.ProtocolHeaders.TRINO_HEADERS;
+import static java.net.URLEncoder.encode;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Executes statements on a {@link TestingTrinoServer} through the client protocol, so that
+ * they go through the same dispatching and planning as the statements of the clients.
+ */
+public class TestingStatementClient
+        implements Closeable
+{
+    private static final String USER = "user";
+
+    private final TestingTrinoServer server;
+    private final HttpClient client = new JettyHttpClient();
+
+    public TestingStatementClient(TestingTrinoServer server)
+    {
+        this.server = requireNonNull(server, "server is null");
+    }
+
+    public StatementResult execute(String sql, Map<String, String> sessionProperties)
+    {
+        return execute(sql, sessionProperties, ImmutableMap.of());
+    }
+
+    /**
+     * Executes the statement with the given session properties and prepared statements, and
+     * returns its results, after checking that it finished successfully.
+     */
+    public StatementResult execute(String sql, Map<String, String> sessionProperties, Map<String, String> preparedStatements)
+    {
+        Request.Builder requestBuilder = preparePost()
+                .setUri(uriBuilderFrom(server.getBaseUrl().resolve("/v1/statement")).build())
+                .setHeader(TRINO_HEADERS.requestUser(), USER)
+                .setBodyGenerator(createStaticBodyGenerator(sql, UTF_8));
+        sessionProperties.forEach((name, value) -> requestBuilder.addHeader(TRINO_HEADERS.requestSession(), name + "=" + value));
+        preparedStatements.forEach((name, statement) -> requestBuilder.addHeader(TRINO_HEADERS.requestPreparedStatement(), name + "=" + encode(statement, UTF_8)));
+
+        QueryResults queryResults = client.execute(requestBuilder.build(), createJsonResponseHandler(jsonCodec(QueryResults.class)));
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        while (true) {
+            if (queryResults.getData() != null) {
+                queryResults.getData().forEach(rows::add);
+            }
+            if (queryResults.getNextUri() == null) {
+                break;
+            }
+            Request request = prepareGet()
+                    .setHeader(TRINO_HEADERS.requestUser(), USER)
+                    .setUri(queryResults.getNextUri())
+                    .build();
+            queryResults = client.execute(request, createJsonResponseHandler(jsonCodec(QueryResults.class)));
+        }
+        assertEquals(queryResults.getStats().getState(), "FINISHED", String.valueOf(queryResults.getError()));
+        return new StatementResult(new QueryId(queryResults.getId()), rows.build(), queryResults.getWarnings());
+    }
+
+    @Override
+    public void close()
+    {
+        client.close();
+    }
+
+    public static class StatementResult
+    {
+        private final QueryId queryId;
+        private final List<List<Object>> rows;
+        private final List<Warning> warnings;
+
+        public StatementResult(QueryId queryId, List<List<Object>> rows, List<Warning> warnings)
+        {
+            this.queryId = requireNonNull(queryId, "queryId is null");
+            this.rows = ImmutableList.copyOf(requireNonNull(rows, "rows is null"));
+            this.warnings = ImmutableList.copyOf(requireNonNull(warnings, "warnings is null"));
+        }
+
+        public QueryId getQueryId()
+        {
+            return queryId;
+        }
+
+        public List<List<Object>> getRows()
+        {
+            return rows;
+        }
+
+        public List<Warning> getWarnings()
+        {
+            return warnings;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.server.remotetask;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.net.MediaType;
+import io.airlift.http.client.testing.TestingResponse;
+import io.airlift.json.JsonCodec;
+import io.airlift.json.ObjectMapperProvider;
+import io.trino.execution.buffer.OutputBuffers;
+import io.trino.execution.buffer.OutputBuffers.OutputBufferId;
+import io.trino.server.SmileCodec;
+import io.trino.server.remotetask.FullTaskResponseHandler.TaskResponse;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.google.common.net.MediaType.JSON_UTF_8;
+import static com.google.common.net.MediaType.PLAIN_TEXT_UTF_8;
+import static io.airlift.http.client.HttpStatus.OK;
+import static io.airlift.http.client.testing.TestingResponse.contentType;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.trino.execution.buffer.OutputBuffers.BufferType.PARTITIONED;
+import static io.trino.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
+import static io.trino.server.SmileCodec.SMILE_MEDIA_TYPE;
+import static io.trino.server.remotetask.FullTaskResponseHandler.createFullTaskResponseHandler;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+public class TestFullTaskResponseHandler
+{
+    private static final JsonCodec<OutputBuffers> JSON_CODEC = jsonCodec(OutputBuffers.class);
+    private static final SmileCodec<OutputBuffers> SMILE_CODEC = new SmileCodec<>(new ObjectMapperProvider().get(), OutputBuffers.class);
+    private static final OutputBuffers OUTPUT_BUFFERS = createInitialEmptyOutputBuffers(PARTITIONED)
+            .withBuffer(new OutputBufferId(0), 0)
+            .withNoMoreBufferIds();
+
+    @Test
+    public void testAcceptedMediaType()
+    {
+        assertEquals(createFullTaskResponseHandler(JSON_CODEC, Optional.empty()).getAcceptedMediaType(), JSON_UTF_8.toString());
+        assertEquals(createFullTaskResponseHandler(JSON_CODEC, Optional.of(SMILE_CODEC)).getAcceptedMediaType(), SMILE_MEDIA_TYPE);
+    }
+
+    @Test
+    public void testJsonResponse()
+    {
+        TaskResponse<OutputBuffers> response = handle(Optional.of(SMILE_CODEC), JSON_UTF_8, JSON_CODEC.toJsonBytes(OUTPUT_BUFFERS));
+        assertEquals(response.getStatusCode(), OK.code());
+        assertEquals(response.getValue(), OUTPUT_BUFFERS);
+    }
+
+    @Test
+    public void testSmileResponse()
+    {
+        byte[] smile = SMILE_CODEC.toSmileBytes(OUTPUT_BUFFERS);
+        TaskResponse<OutputBuffers> response = handle(Optional.of(SMILE_CODEC), MediaType.parse(SMILE_MEDIA_TYPE), smile);
+        assertEquals(response.getValue(), OUTPUT_BUFFERS);
+        assertEquals(response.getResponseSize(), smile.length);
+
+        // SMILE responses are not expected without the SMILE codec
+        assertFalse(handle(Optional.empty(), MediaType.parse(SMILE_MEDIA_TYPE), smile).hasValue());
+    }
+
+    @Test
+    public void testInvalidResponse()
+    {
+        TaskResponse<OutputBuffers> response = handle(Optional.empty(), JSON_UTF_8, "{".getBytes(UTF_8));
+        assertFalse(response.hasValue());
+        assertNotNull(response.getException());
+
+        response = handle(Optional.empty(), PLAIN_TEXT_UTF_8, "Server error".getBytes(UTF_8));
+        assertFalse(response.hasValue());
+        assertNull(response.getException());
+        assertEquals(response.getResponseBody(), "Server error");
+    }
+
+    @Test
+    public void testMissingContentType()
+    {
+        TaskResponse<OutputBuffers> response = createFullTaskResponseHandler(JSON_CODEC, Optional.empty())
+                .handle(null, new TestingResponse(OK, ImmutableListMultimap.of(), JSON_CODEC.toJsonBytes(OUTPUT_BUFFERS)));
+        assertFalse(response.hasValue());
+    }
+
+    private static TaskResponse<OutputBuffers> handle(Optional<SmileCodec<OutputBuffers>> smileCodec, MediaType mediaType, byte[] body)
+    {
+        return createFullTaskResponseHandler(JSON_CODEC, smileCodec)
+                .handle(null, new TestingResponse(OK, contentType(mediaType), body));
+    }
+}
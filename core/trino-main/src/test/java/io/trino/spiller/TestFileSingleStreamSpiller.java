@@ -16,6 +16,7 @@ package io.trino.spiller;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.slice.InputStreamSliceInput;
 import io.trino.execution.buffer.PageCodecMarker;
@@ -31,6 +32,8 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -38,12 +41,14 @@ import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static io.trino.block.BlockAssertions.createLongSequenceBlock;
 import static io.trino.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.trino.metadata.MetadataManager.createTestMetadataManager;
 import static io.trino.spi.type.BigintType.BIGINT;
 import static io.trino.spi.type.DoubleType.DOUBLE;
 import static io.trino.spi.type.VarbinaryType.VARBINARY;
 import static java.lang.Double.doubleToLongBits;
+import static java.nio.file.Files.createTempDirectory;
 import static java.nio.file.Files.newInputStream;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
@@ -93,8 +98,28 @@ public class TestFileSingleStreamSpiller
         assertSpill(true, true);
     }
 
+    @Test
+    public void testSpillAdaptiveCompressionWithChecksum()
+            throws Exception
+    {
+        assertSpill(true, false, true, true);
+    }
+
+    @Test
+    public void testSpillEncryptionWithAdaptiveCompressionAndChecksum()
+            throws Exception
+    {
+        assertSpill(true, true, true, true);
+    }
+
     private void assertSpill(boolean compression, boolean encryption)
             throws Exception
+    {
+        assertSpill(compression, encryption, false, false);
+    }
+
+    private void assertSpill(boolean compression, boolean encryption, boolean adaptiveCompression, boolean checksum)
+            throws Exception
     {
         FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
                 executor, // executor won't be closed, because we don't call destroy() on the spiller factory
@@ -103,7 +128,9 @@ public class TestFileSingleStreamSpiller
                 ImmutableList.of(spillPath.toPath()),
                 1.0,
                 compression,
-                encryption);
+                encryption,
+                adaptiveCompression,
+                checksum);
         LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
         SingleStreamSpiller singleStreamSpiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext);
         assertTrue(singleStreamSpiller instanceof FileSingleStreamSpiller);
@@ -112,7 +139,7 @@ public class TestFileSingleStreamSpiller
         Page page = buildPage();
 
         // The spillers will reserve memory in their constructors
-        assertEquals(memoryContext.getBytes(), 4096);
+        assertEquals(memoryContext.getBytes(), 2 * FileSingleStreamSpiller.BUFFER_SIZE);
         spiller.spill(page).get();
         spiller.spill(Iterators.forArray(page, page, page)).get();
         assertEquals(listFiles(spillPath.toPath()).size(), 1);
@@ -122,7 +149,9 @@ public class TestFileSingleStreamSpiller
             Iterator<SerializedPage> serializedPages = PagesSerdeUtil.readSerializedPages(new InputStreamSliceInput(is));
             assertTrue(serializedPages.hasNext(), "at least one page should be successfully read back");
             byte markers = serializedPages.next().getPageCodecMarkers();
-            assertEquals(PageCodecMarker.COMPRESSED.isSet(markers), compression);
+            assertEquals(PageCodecMarker.COMPRESSED.isSet(markers), compression && !adaptiveCompression);
+            assertEquals(PageCodecMarker.BLOCK_COMPRESSED.isSet(markers), compression && adaptiveCompression);
+            assertEquals(PageCodecMarker.CHECKSUMMED.isSet(markers), checksum);
             assertEquals(PageCodecMarker.ENCRYPTED.isSet(markers), encryption);
         }
 
@@ -131,7 +160,7 @@ public class TestFileSingleStreamSpiller
         // assertEquals(memoryContext.getBytes(), 0);
 
         Iterator<Page> spilledPagesIterator = spiller.getSpilledPages();
-        assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
+        assertEquals(memoryContext.getBytes(), 2 * FileSingleStreamSpiller.BUFFER_SIZE);
         ImmutableList<Page> spilledPages = ImmutableList.copyOf(spilledPagesIterator);
         // The spillers release their memory reservations when they are closed, therefore at this point
         // they will have non-zero memory reservation.
@@ -147,6 +176,118 @@ public class TestFileSingleStreamSpiller
         assertEquals(memoryContext.getBytes(), 0);
     }
 
+    @Test
+    public void testStripedSpill()
+            throws Exception
+    {
+        assertStripedSpill(0);
+    }
+
+    @Test
+    public void testStripedSpillWithPrefetch()
+            throws Exception
+    {
+        assertStripedSpill(1);
+        assertStripedSpill(3);
+    }
+
+    private void assertStripedSpill(int prefetchPages)
+            throws Exception
+    {
+        List<Path> spillPaths = ImmutableList.of(createTempDirectory("spill1"), createTempDirectory("spill2"));
+        SpillerStats spillerStats = new SpillerStats();
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                createTestMetadataManager().getBlockEncodingSerde(),
+                spillerStats,
+                spillPaths,
+                1.0,
+                false,
+                false,
+                false,
+                false,
+                executor,
+                true,
+                FileSingleStreamSpiller.BUFFER_SIZE,
+                prefetchPages);
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller spiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext);
+        assertEquals(memoryContext.getBytes(), 2 * FileSingleStreamSpiller.BUFFER_SIZE * spillPaths.size());
+
+        List<Page> pages = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            pages.add(new Page(createLongSequenceBlock(0, i + 1)));
+        }
+        spiller.spill(pages.subList(0, 2).iterator()).get();
+        spiller.spill(pages.subList(2, pages.size()).iterator()).get();
+        for (Path spillPath : spillPaths) {
+            assertEquals(listFiles(spillPath).size(), 1);
+        }
+
+        List<Page> spilledPages = ImmutableList.copyOf(spiller.getSpilledPages());
+        assertEquals(spilledPages.size(), pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            PageAssertions.assertPageEquals(ImmutableList.of(BIGINT), spilledPages.get(i), pages.get(i));
+        }
+        for (Path spillPath : spillPaths) {
+            SpillerStats.SpillPathStats stats = spillerStats.getSpillPathStats(spillPath);
+            assertTrue(stats.getWrittenBytes() > 0);
+            assertEquals(stats.getReadBytes(), stats.getWrittenBytes());
+        }
+        assertEquals(spillerStats.getTotalReadBytes(), spillerStats.getTotalWrittenBytes());
+
+        spiller.close();
+        for (Path spillPath : spillPaths) {
+            assertEquals(listFiles(spillPath).size(), 0);
+            deleteRecursively(spillPath, ALLOW_INSECURE);
+        }
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
+    @Test
+    public void testMemoryOfPagesLargerThanBuffer()
+            throws Exception
+    {
+        Path spillPath = createTempDirectory("spill");
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                createTestMetadataManager().getBlockEncodingSerde(),
+                new SpillerStats(),
+                ImmutableList.of(spillPath),
+                1.0,
+                false,
+                false,
+                false,
+                false,
+                executor,
+                false,
+                FileSingleStreamSpiller.BUFFER_SIZE,
+                2);
+        PeakMemoryContext memoryContext = new PeakMemoryContext();
+        SingleStreamSpiller spiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext);
+        assertEquals(memoryContext.getBytes(), 2 * FileSingleStreamSpiller.BUFFER_SIZE);
+
+        Page page = new Page(createLongSequenceBlock(0, 10_000));
+        long pageSize = page.getSizeInBytes();
+        assertTrue(pageSize > 2 * FileSingleStreamSpiller.BUFFER_SIZE);
+
+        // the buffers grow to the size of the serialized pages
+        spiller.spill(Iterators.forArray(page, page, page)).get();
+        assertTrue(memoryContext.getPeakBytes() >= pageSize);
+        assertEquals(memoryContext.getBytes(), 2 * FileSingleStreamSpiller.BUFFER_SIZE);
+
+        // the prefetched pages are held in memory until they are returned
+        memoryContext.resetPeakBytes();
+        List<Page> spilledPages = ImmutableList.copyOf(spiller.getSpilledPages());
+        assertEquals(spilledPages.size(), 3);
+        assertTrue(memoryContext.getPeakBytes() >= pageSize);
+        assertEquals(memoryContext.getBytes(), 2 * FileSingleStreamSpiller.BUFFER_SIZE);
+
+        spiller.close();
+        assertEquals(memoryContext.getBytes(), 0);
+        deleteRecursively(spillPath, ALLOW_INSECURE);
+    }
+
     private Page buildPage()
     {
         BlockBuilder col1 = BIGINT.createBlockBuilder(null, 1);
@@ -159,4 +300,47 @@ public class TestFileSingleStreamSpiller
 
         return new Page(col1.build(), col2.build(), col3.build());
     }
+
+    private static class PeakMemoryContext
+            implements LocalMemoryContext
+    {
+        private final LocalMemoryContext delegate = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        private long peakBytes;
+
+        @Override
+        public synchronized long getBytes()
+        {
+            return delegate.getBytes();
+        }
+
+        @Override
+        public synchronized ListenableFuture<?> setBytes(long bytes)
+        {
+            peakBytes = Math.max(peakBytes, bytes);
+            return delegate.setBytes(bytes);
+        }
+
+        @Override
+        public synchronized boolean trySetBytes(long bytes)
+        {
+            peakBytes = Math.max(peakBytes, bytes);
+            return delegate.trySetBytes(bytes);
+        }
+
+        @Override
+        public synchronized void close()
+        {
+            delegate.close();
+        }
+
+        public synchronized long getPeakBytes()
+        {
+            return peakBytes;
+        }
+
+        public synchronized void resetPeakBytes()
+        {
+            peakBytes = 0;
+        }
+    }
 }
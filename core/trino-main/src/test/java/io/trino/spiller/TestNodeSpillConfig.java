@@ -23,6 +23,7 @@ import static io.airlift.configuration.testing.ConfigAssertions.assertFullMappin
 import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class TestNodeSpillConfig
@@ -34,7 +35,12 @@ public class TestNodeSpillConfig
                 .setMaxSpillPerNode(DataSize.of(100, GIGABYTE))
                 .setQueryMaxSpillPerNode(DataSize.of(100, GIGABYTE))
                 .setSpillCompressionEnabled(false)
-                .setSpillEncryptionEnabled(false));
+                .setSpillEncryptionEnabled(false)
+                .setSpillAdaptiveCompressionEnabled(false)
+                .setSpillChecksumEnabled(false)
+                .setSpillStripingEnabled(false)
+                .setSpillBufferSize(DataSize.of(4, KILOBYTE))
+                .setSpillPrefetchPages(0));
     }
 
     @Test
@@ -45,13 +51,23 @@ public class TestNodeSpillConfig
                 .put("query-max-spill-per-node", "15 MB")
                 .put("spill-compression-enabled", "true")
                 .put("spill-encryption-enabled", "true")
+                .put("spill-adaptive-compression-enabled", "true")
+                .put("spill-checksum-enabled", "true")
+                .put("spill-striping-enabled", "true")
+                .put("spill-buffer-size", "1MB")
+                .put("spill-prefetch-pages", "8")
                 .build();
 
         NodeSpillConfig expected = new NodeSpillConfig()
                 .setMaxSpillPerNode(DataSize.of(10, MEGABYTE))
                 .setQueryMaxSpillPerNode(DataSize.of(15, MEGABYTE))
                 .setSpillCompressionEnabled(true)
-                .setSpillEncryptionEnabled(true);
+                .setSpillEncryptionEnabled(true)
+                .setSpillAdaptiveCompressionEnabled(true)
+                .setSpillChecksumEnabled(true)
+                .setSpillStripingEnabled(true)
+                .setSpillBufferSize(DataSize.of(1, MEGABYTE))
+                .setSpillPrefetchPages(8);
 
         assertFullMapping(properties, expected);
     }
@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spiller;
+
+import io.trino.sql.analyzer.FeaturesConfig;
+import org.testng.annotations.Test;
+import org.weakref.jmx.MBeanExporter;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.weakref.jmx.ObjectNames.builder;
+
+public class TestSpillerStatsExporter
+{
+    @Test
+    public void testExportSpillPathStats()
+            throws Exception
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Path spillPath = Paths.get("/tmp/spill-exporter-test");
+        SpillerStats spillerStats = new SpillerStats();
+        spillerStats.getSpillPathStats(spillPath).addWrite(100, 10, 1000);
+
+        SpillerStatsExporter exporter = new SpillerStatsExporter(
+                spillerStats,
+                new FeaturesConfig().setSpillerSpillPaths(spillPath.toString()),
+                new MBeanExporter(server));
+        ObjectName name = new ObjectName(builder(SpillerStats.class).withProperty("path", spillPath.toString()).build());
+        try {
+            assertEquals(server.getAttribute(name, "WrittenBytes"), 100L);
+            assertEquals(server.getAttribute(name, "WriteQueuedNanos"), 10L);
+            assertEquals(server.getAttribute(name, "WriteBytesPerSecond"), 100.0 * 1_000_000);
+        }
+        finally {
+            exporter.destroy();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+}
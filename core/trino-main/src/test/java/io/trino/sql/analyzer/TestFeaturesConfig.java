@@ -63,7 +63,9 @@ public class TestFeaturesConfig
                 .setOptimizeMetadataQueries(false)
                 .setOptimizeHashGeneration(true)
                 .setPushTableWriteThroughUnion(true)
-                .setDictionaryAggregation(false)
+                .setDictionaryAggregation(true)
+                .setFlatGroupByHashEnabled(false)
+                .setRadixPartitionedJoinHashEnabled(false)
                 .setRegexLibrary(JONI)
                 .setRe2JDfaStatesLimit(Integer.MAX_VALUE)
                 .setRe2JDfaRetries(5)
@@ -85,6 +87,7 @@ public class TestFeaturesConfig
                 .setDefaultFilterFactorEnabled(false)
                 .setEnableForcedExchangeBelowGroupId(true)
                 .setExchangeCompressionEnabled(false)
+                .setExchangeAdaptiveCompressionEnabled(false)
                 .setExchangeDataIntegrityVerification(DataIntegrityVerification.ABORT)
                 .setEnableIntermediateAggregations(false)
                 .setPushAggregationThroughOuterJoin(true)
@@ -92,6 +95,7 @@ public class TestFeaturesConfig
                 .setParseDecimalLiteralsAsDouble(false)
                 .setForceSingleNodeOutput(true)
                 .setPagesIndexEagerCompactionEnabled(false)
+                .setPagesIndexNormalizedSortKeysEnabled(false)
                 .setFilterAndProjectMinOutputPageSize(DataSize.of(500, KILOBYTE))
                 .setFilterAndProjectMinOutputPageRowCount(256)
                 .setUseMarkDistinct(true)
@@ -110,7 +114,15 @@ public class TestFeaturesConfig
                 .setOptimizeDuplicateInsensitiveJoins(true)
                 .setUseLegacyWindowFilterPushdown(false)
                 .setUseTableScanNodePartitioning(true)
-                .setTableScanNodePartitioningMinBucketToTaskRatio(0.5));
+                .setTableScanNodePartitioningMinBucketToTaskRatio(0.5)
+                .setAdaptivePartialAggregationEnabled(true)
+                .setAdaptivePartialAggregationMinRows(100_000)
+                .setAdaptivePartialAggregationUniqueRowsRatioThreshold(0.8)
+                .setAdaptiveJoinDistributionEnabled(false)
+                .setSkewedJoinHandlingEnabled(false)
+                .setSkewedJoinHandlingMinKeyFraction(0.1)
+                .setSkewedJoinHandlingSampleRows(10_000)
+                .setUseHistoryBasedStatistics(false));
     }
 
     @Test
@@ -146,7 +158,9 @@ public class TestFeaturesConfig
                 .put("optimizer.optimize-mixed-distinct-aggregations", "true")
                 .put("optimizer.unwrap-casts", "false")
                 .put("optimizer.push-table-write-through-union", "false")
-                .put("optimizer.dictionary-aggregation", "true")
+                .put("optimizer.dictionary-aggregation", "false")
+                .put("flat-group-by-hash.enabled", "true")
+                .put("radix-partitioned-join-hash.enabled", "true")
                 .put("optimizer.push-aggregation-through-outer-join", "false")
                 .put("optimizer.push-partial-aggregation-through-join", "true")
                 .put("regex-library", "RE2J")
@@ -162,11 +176,13 @@ public class TestFeaturesConfig
                 .put("memory-revoking-threshold", "0.2")
                 .put("memory-revoking-target", "0.8")
                 .put("exchange.compression-enabled", "true")
+                .put("exchange.adaptive-compression-enabled", "true")
                 .put("exchange.data-integrity-verification", "RETRY")
                 .put("optimizer.enable-intermediate-aggregations", "true")
                 .put("parse-decimal-literals-as-double", "true")
                 .put("optimizer.force-single-node-output", "false")
                 .put("pages-index.eager-compaction-enabled", "true")
+                .put("pages-index.normalized-sort-keys-enabled", "true")
                 .put("filter-and-project-min-output-page-size", "1MB")
                 .put("filter-and-project-min-output-page-row-count", "2048")
                 .put("optimizer.use-mark-distinct", "false")
@@ -186,6 +202,14 @@ public class TestFeaturesConfig
                 .put("optimizer.use-legacy-window-filter-pushdown", "true")
                 .put("optimizer.use-table-scan-node-partitioning", "false")
                 .put("optimizer.table-scan-node-partitioning-min-bucket-to-task-ratio", "0.0")
+                .put("adaptive-partial-aggregation.enabled", "false")
+                .put("adaptive-partial-aggregation.min-rows", "1")
+                .put("adaptive-partial-aggregation.unique-rows-ratio-threshold", "0.99")
+                .put("adaptive-join-distribution.enabled", "true")
+                .put("skewed-join-handling.enabled", "true")
+                .put("skewed-join-handling.min-key-fraction", "0.25")
+                .put("skewed-join-handling.sample-rows", "1000")
+                .put("optimizer.use-history-based-statistics", "true")
                 .build();
 
         FeaturesConfig expected = new FeaturesConfig()
@@ -217,7 +241,9 @@ public class TestFeaturesConfig
                 .setOptimizeMixedDistinctAggregations(true)
                 .setUnwrapCasts(false)
                 .setPushTableWriteThroughUnion(false)
-                .setDictionaryAggregation(true)
+                .setDictionaryAggregation(false)
+                .setFlatGroupByHashEnabled(true)
+                .setRadixPartitionedJoinHashEnabled(true)
                 .setPushAggregationThroughOuterJoin(false)
                 .setPushPartialAggregationThoughJoin(true)
                 .setRegexLibrary(RE2J)
@@ -233,11 +259,13 @@ public class TestFeaturesConfig
                 .setMemoryRevokingThreshold(0.2)
                 .setMemoryRevokingTarget(0.8)
                 .setExchangeCompressionEnabled(true)
+                .setExchangeAdaptiveCompressionEnabled(true)
                 .setExchangeDataIntegrityVerification(DataIntegrityVerification.RETRY)
                 .setEnableIntermediateAggregations(true)
                 .setParseDecimalLiteralsAsDouble(true)
                 .setForceSingleNodeOutput(false)
                 .setPagesIndexEagerCompactionEnabled(true)
+                .setPagesIndexNormalizedSortKeysEnabled(true)
                 .setFilterAndProjectMinOutputPageSize(DataSize.of(1, MEGABYTE))
                 .setFilterAndProjectMinOutputPageRowCount(2048)
                 .setUseMarkDistinct(false)
@@ -257,7 +285,15 @@ public class TestFeaturesConfig
                 .setOptimizeDuplicateInsensitiveJoins(false)
                 .setUseLegacyWindowFilterPushdown(true)
                 .setUseTableScanNodePartitioning(false)
-                .setTableScanNodePartitioningMinBucketToTaskRatio(0.0);
+                .setTableScanNodePartitioningMinBucketToTaskRatio(0.0)
+                .setAdaptivePartialAggregationEnabled(false)
+                .setAdaptivePartialAggregationMinRows(1)
+                .setAdaptivePartialAggregationUniqueRowsRatioThreshold(0.99)
+                .setAdaptiveJoinDistributionEnabled(true)
+                .setSkewedJoinHandlingEnabled(true)
+                .setSkewedJoinHandlingMinKeyFraction(0.25)
+                .setSkewedJoinHandlingSampleRows(1000)
+                .setUseHistoryBasedStatistics(true);
         assertFullMapping(properties, expected);
     }
 }
@@ -0,0 +1,267 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql.gen;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.trino.metadata.Metadata;
+import io.trino.operator.DriverYieldSignal;
+import io.trino.operator.PageWithPositionComparator;
+import io.trino.operator.PagesHashStrategy;
+import io.trino.operator.Work;
+import io.trino.operator.project.PageProjection;
+import io.trino.operator.project.SelectedPositions;
+import io.trino.spi.Page;
+import io.trino.spi.block.Block;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.type.TypeOperators;
+import io.trino.sql.relational.CallExpression;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.trino.metadata.MetadataManager.createTestMetadataManager;
+import static io.trino.spi.connector.SortOrder.ASC_NULLS_FIRST;
+import static io.trino.spi.function.OperatorType.ADD;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.sql.relational.Expressions.call;
+import static io.trino.sql.relational.Expressions.constant;
+import static io.trino.sql.relational.Expressions.field;
+import static io.trino.testing.TestingConnectorSession.SESSION;
+import static java.nio.file.Files.createTempDirectory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestGeneratedClassCache
+{
+    private static final Metadata METADATA = createTestMetadataManager();
+    private static final Page PAGE = createLongBlockPage(3, 1, 2);
+
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        directory = createTempDirectory("class-cache");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testProjection()
+    {
+        GeneratedClassCache cache = createCache("1");
+        Work<Block> work = project(cache, addExpression(10));
+        assertEquals(toList(work.getResult()), ImmutableList.of(13L, 11L, 12L));
+        assertEquals(cache.getMisses().getTotalCount(), 1);
+        assertEquals(cache.getHits().getTotalCount(), 0);
+        assertTrue(cache.getSizeInBytes() > 0);
+
+        // the bytecode is read from disk after a restart
+        GeneratedClassCache restartedCache = createCache("1");
+        assertEquals(restartedCache.getSizeInBytes(), cache.getSizeInBytes());
+        Work<Block> cachedWork = project(restartedCache, addExpression(10));
+        assertEquals(toList(cachedWork.getResult()), ImmutableList.of(13L, 11L, 12L));
+        assertEquals(cachedWork.getClass().getName(), work.getClass().getName());
+        assertEquals(restartedCache.getHits().getTotalCount(), 1);
+        assertEquals(restartedCache.getMisses().getTotalCount(), 0);
+
+        // the constant is a part of the bytecode
+        Work<Block> otherWork = project(restartedCache, addExpression(20));
+        assertEquals(toList(otherWork.getResult()), ImmutableList.of(23L, 21L, 22L));
+        assertNotEquals(otherWork.getClass().getName(), work.getClass().getName());
+        assertEquals(restartedCache.getMisses().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testJoinAndOrdering()
+    {
+        List<List<Block>> channels = ImmutableList.of(ImmutableList.of(PAGE.getBlock(0)));
+        PagesHashStrategy hashStrategy = new JoinCompiler(new TypeOperators(), createCache("1"))
+                .compilePagesHashStrategyFactory(ImmutableList.of(BIGINT), ImmutableList.of(0))
+                .createPagesHashStrategy(channels, OptionalInt.empty());
+        PageWithPositionComparator comparator = new OrderingCompiler(new TypeOperators(), createCache("1"))
+                .compilePageWithPositionComparator(ImmutableList.of(BIGINT), ImmutableList.of(0), ImmutableList.of(ASC_NULLS_FIRST));
+
+        GeneratedClassCache restartedCache = createCache("1");
+        PagesHashStrategy cachedHashStrategy = new JoinCompiler(new TypeOperators(), restartedCache)
+                .compilePagesHashStrategyFactory(ImmutableList.of(BIGINT), ImmutableList.of(0))
+                .createPagesHashStrategy(channels, OptionalInt.empty());
+        PageWithPositionComparator cachedComparator = new OrderingCompiler(new TypeOperators(), restartedCache)
+                .compilePageWithPositionComparator(ImmutableList.of(BIGINT), ImmutableList.of(0), ImmutableList.of(ASC_NULLS_FIRST));
+        assertEquals(restartedCache.getHits().getTotalCount(), 2);
+        assertEquals(restartedCache.getMisses().getTotalCount(), 0);
+
+        assertEquals(cachedHashStrategy.getClass().getName(), hashStrategy.getClass().getName());
+        assertEquals(cachedHashStrategy.hashRow(1, PAGE), hashStrategy.hashRow(1, PAGE));
+        assertEquals(cachedComparator.getClass().getName(), comparator.getClass().getName());
+        assertTrue(cachedComparator.compareTo(PAGE, 0, PAGE, 1) > 0);
+        assertTrue(cachedComparator.compareTo(PAGE, 1, PAGE, 2) < 0);
+    }
+
+    @Test
+    public void testOtherServerVersion()
+    {
+        project(createCache("1"), addExpression(10));
+
+        GeneratedClassCache cache = createCache("2");
+        assertEquals(cache.getSizeInBytes(), 0);
+        assertFalse(Files.exists(directory.resolve("version-1")));
+        assertTrue(Files.exists(directory.resolve("version-2")));
+        project(cache, addExpression(10));
+        assertEquals(cache.getHits().getTotalCount(), 0);
+        assertEquals(cache.getMisses().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testOtherFilesInDirectory()
+            throws IOException
+    {
+        Path otherDirectory = Files.createDirectory(directory.resolve("other"));
+        Path otherFile = Files.write(directory.resolve("other.class"), new byte[] {1, 2, 3});
+
+        project(createCache("1"), addExpression(10));
+        createCache("2");
+        assertTrue(Files.exists(otherDirectory));
+        assertTrue(Files.exists(otherFile));
+    }
+
+    @Test
+    public void testMaxSize()
+    {
+        GeneratedClassCache cache = new GeneratedClassCache(Optional.of(directory), DataSize.ofBytes(10), "1");
+        project(cache, addExpression(10));
+        assertEquals(cache.getSizeInBytes(), 0);
+
+        GeneratedClassCache restartedCache = createCache("1");
+        project(restartedCache, addExpression(10));
+        assertEquals(restartedCache.getHits().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testEviction()
+    {
+        GeneratedClassCache cache = createCache("1");
+        project(cache, addExpression(10));
+        long classSize = cache.getSizeInBytes();
+
+        // only a single class fits in the cache
+        DataSize maxSize = DataSize.ofBytes(classSize * 3 / 2);
+        GeneratedClassCache restartedCache = new GeneratedClassCache(Optional.of(directory), maxSize, "1");
+        project(restartedCache, addExpression(10));
+        assertEquals(restartedCache.getHits().getTotalCount(), 1);
+        project(restartedCache, addExpression(20));
+        assertEquals(restartedCache.getEvictions().getTotalCount(), 1);
+        assertTrue(restartedCache.getSizeInBytes() <= maxSize.toBytes());
+
+        // the least recently used class is evicted
+        project(restartedCache, addExpression(10));
+        assertEquals(restartedCache.getHits().getTotalCount(), 1);
+        assertEquals(restartedCache.getMisses().getTotalCount(), 2);
+
+        // the cache is trimmed to a lower maximum size after a restart
+        GeneratedClassCache smallerCache = new GeneratedClassCache(Optional.of(directory), DataSize.ofBytes(10), "1");
+        assertEquals(smallerCache.getSizeInBytes(), 0);
+        assertEquals(smallerCache.getEvictions().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testInvalidFile()
+            throws IOException
+    {
+        project(createCache("1"), addExpression(10));
+        for (Path file : listFiles(directory.resolve("version-1"))) {
+            Files.write(file, new byte[] {1, 2, 3});
+        }
+
+        GeneratedClassCache cache = createCache("1");
+        Work<Block> work = project(cache, addExpression(10));
+        assertEquals(toList(work.getResult()), ImmutableList.of(13L, 11L, 12L));
+        assertEquals(cache.getFailures().getTotalCount(), 1);
+        assertEquals(cache.getMisses().getTotalCount(), 1);
+
+        // the file is replaced with the valid bytecode
+        GeneratedClassCache restartedCache = createCache("1");
+        project(restartedCache, addExpression(10));
+        assertEquals(restartedCache.getHits().getTotalCount(), 1);
+    }
+
+    private GeneratedClassCache createCache(String serverVersion)
+    {
+        return new GeneratedClassCache(Optional.of(directory), DataSize.of(1, MEGABYTE), serverVersion);
+    }
+
+    private static Work<Block> project(GeneratedClassCache cache, CallExpression expression)
+    {
+        PageProjection projection = new PageFunctionCompiler(METADATA, 0, cache).compileProjection(expression, Optional.empty()).get();
+        Work<Block> work = projection.project(SESSION, new DriverYieldSignal(), PAGE, SelectedPositions.positionsRange(0, PAGE.getPositionCount()));
+        assertTrue(work.process());
+        return work;
+    }
+
+    private static CallExpression addExpression(long value)
+    {
+        return call(
+                METADATA.resolveOperator(ADD, ImmutableList.of(BIGINT, BIGINT)),
+                field(0, BIGINT),
+                constant(value, BIGINT));
+    }
+
+    private static List<Long> toList(Block block)
+    {
+        ImmutableList.Builder<Long> values = ImmutableList.builder();
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            values.add(BIGINT.getLong(block, position));
+        }
+        return values.build();
+    }
+
+    private static List<Path> listFiles(Path directory)
+            throws IOException
+    {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(toImmutableList());
+        }
+    }
+
+    private static Page createLongBlockPage(long... values)
+    {
+        BlockBuilder builder = BIGINT.createFixedSizeBlockBuilder(values.length);
+        for (long value : values) {
+            BIGINT.writeLong(builder, value);
+        }
+        return new Page(builder.build());
+    }
+}
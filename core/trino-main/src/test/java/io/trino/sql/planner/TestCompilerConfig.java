@@ -14,13 +14,17 @@
 package io.trino.sql.planner;
 
 import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.Map;
 
 import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class TestCompilerConfig
 {
@@ -28,7 +32,9 @@ public class TestCompilerConfig
     public void testDefaults()
     {
         assertRecordedDefaults(recordDefaults(CompilerConfig.class)
-                .setExpressionCacheSize(10_000));
+                .setExpressionCacheSize(10_000)
+                .setClassCacheDirectory(null)
+                .setClassCacheMaxSize(DataSize.of(1, GIGABYTE)));
     }
 
     @Test
@@ -36,10 +42,14 @@ public class TestCompilerConfig
     {
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("compiler.expression-cache-size", "52")
+                .put("compiler.class-cache-directory", "/tmp/compiler-cache")
+                .put("compiler.class-cache-max-size", "100MB")
                 .build();
 
         CompilerConfig expected = new CompilerConfig()
-                .setExpressionCacheSize(52);
+                .setExpressionCacheSize(52)
+                .setClassCacheDirectory(new File("/tmp/compiler-cache"))
+                .setClassCacheMaxSize(DataSize.of(100, MEGABYTE));
 
         assertFullMapping(properties, expected);
     }
@@ -18,8 +18,12 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
+import io.trino.operator.DynamicFilterBloomFilter;
+import io.trino.spi.block.Block;
 import io.trino.spi.predicate.Domain;
 import io.trino.spi.predicate.TupleDomain;
+import io.trino.spi.type.TypeOperators;
 import io.trino.sql.analyzer.FeaturesConfig.JoinDistributionType;
 import io.trino.sql.analyzer.FeaturesConfig.JoinReorderingStrategy;
 import io.trino.sql.planner.assertions.BasePlanTest;
@@ -27,16 +31,20 @@ import io.trino.sql.planner.iterative.rule.test.PlanBuilder;
 import io.trino.sql.planner.plan.DynamicFilterId;
 import io.trino.sql.planner.plan.JoinNode;
 import io.trino.sql.planner.plan.JoinNode.EquiJoinClause;
+import io.trino.type.BlockTypeOperators;
 import org.testng.annotations.Test;
 
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.trino.SystemSessionProperties.ENABLE_DYNAMIC_FILTERING;
 import static io.trino.SystemSessionProperties.FORCE_SINGLE_NODE_OUTPUT;
 import static io.trino.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static io.trino.SystemSessionProperties.JOIN_REORDERING_STRATEGY;
+import static io.trino.block.BlockAssertions.createLongSequenceBlock;
+import static io.trino.block.BlockAssertions.createLongsBlock;
 import static io.trino.metadata.AbstractMockMetadata.dummyMetadata;
 import static io.trino.spi.type.BigintType.BIGINT;
 import static io.trino.spi.type.IntegerType.INTEGER;
@@ -44,6 +52,7 @@ import static io.trino.spi.type.SmallintType.SMALLINT;
 import static io.trino.sql.planner.plan.JoinNode.Type.INNER;
 import static io.trino.testing.assertions.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestLocalDynamicFilterConsumer
         extends BasePlanTest
@@ -215,6 +224,44 @@ public class TestLocalDynamicFilterConsumer
                 new DynamicFilterId("456"), Domain.multipleValues(BIGINT, ImmutableList.of(100L, 200L))));
     }
 
+    @Test
+    public void testBloomFilters()
+            throws Exception
+    {
+        DynamicFilterId filterId = new DynamicFilterId("123");
+        LocalDynamicFilterConsumer filter = new LocalDynamicFilterConsumer(
+                ImmutableMap.of(filterId, 0),
+                ImmutableMap.of(filterId, BIGINT),
+                2);
+        Consumer<TupleDomain<DynamicFilterId>> consumer = filter.getTupleDomainConsumer();
+        ListenableFuture<Map<DynamicFilterId, DynamicFilterBloomFilter>> bloomFilters = filter.getBloomFilters();
+
+        // the first partition exceeded the distinct values limits
+        DynamicFilterBloomFilter partitionBloomFilter = new DynamicFilterBloomFilter(
+                BIGINT,
+                new BlockTypeOperators(new TypeOperators()).getHashCodeOperator(BIGINT),
+                DataSize.of(16, KILOBYTE));
+        Block values = createLongSequenceBlock(0, 1000);
+        for (int position = 0; position < values.getPositionCount(); position++) {
+            partitionBloomFilter.add(values, position);
+        }
+        filter.getBloomFilterConsumer().accept(ImmutableMap.of(filterId, partitionBloomFilter));
+        consumer.accept(TupleDomain.all());
+        // 'all' doesn't complete the collection while bloom filters are collected
+        assertFalse(bloomFilters.isDone());
+        assertFalse(filter.getDynamicFilterDomains().isDone());
+
+        consumer.accept(TupleDomain.withColumnDomains(ImmutableMap.of(filterId, Domain.singleValue(BIGINT, 5000L))));
+        assertEquals(filter.getDynamicFilterDomains().get(), ImmutableMap.of(filterId, Domain.all(BIGINT)));
+
+        // the bloom filter contains the discrete values of the other partition
+        DynamicFilterBloomFilter bloomFilter = bloomFilters.get().get(filterId);
+        for (int position = 0; position < values.getPositionCount(); position++) {
+            assertTrue(bloomFilter.mightContain(values, position));
+        }
+        assertTrue(bloomFilter.mightContain(createLongsBlock(5000L), 0));
+    }
+
     @Test
     public void testDynamicFilterPruning()
             throws Exception
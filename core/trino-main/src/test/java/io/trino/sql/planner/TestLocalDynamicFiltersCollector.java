@@ -17,8 +17,13 @@ package io.trino.sql.planner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
 import io.trino.Session;
 import io.trino.metadata.Metadata;
+import io.trino.operator.DynamicFilterBloomFilter;
+import io.trino.operator.DynamicRowFilter;
+import io.trino.spi.Page;
+import io.trino.spi.block.Block;
 import io.trino.spi.connector.ColumnHandle;
 import io.trino.spi.connector.DynamicFilter;
 import io.trino.spi.connector.TestingColumnHandle;
@@ -30,11 +35,18 @@ import io.trino.spi.type.TypeOperators;
 import io.trino.sql.DynamicFilters;
 import io.trino.sql.planner.plan.DynamicFilterId;
 import io.trino.sql.tree.Cast;
+import io.trino.type.BlockTypeOperators;
 import org.testng.annotations.Test;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.trino.SessionTestUtils.TEST_SESSION;
+import static io.trino.block.BlockAssertions.createLongSequenceBlock;
+import static io.trino.block.BlockAssertions.createLongsBlock;
 import static io.trino.metadata.MetadataManager.createTestMetadataManager;
 import static io.trino.spi.type.BigintType.BIGINT;
 import static io.trino.spi.type.IntegerType.INTEGER;
@@ -44,6 +56,7 @@ import static io.trino.sql.tree.ComparisonExpression.Operator.GREATER_THAN;
 import static io.trino.sql.tree.ComparisonExpression.Operator.LESS_THAN;
 import static io.trino.testing.assertions.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 public class TestLocalDynamicFiltersCollector
@@ -84,6 +97,45 @@ public class TestLocalDynamicFiltersCollector
         assertEquals(filter.getCurrentPredicate(), TupleDomain.withColumnDomains(ImmutableMap.of(column, domain)));
     }
 
+    @Test
+    public void testDynamicRowFilter()
+    {
+        LocalDynamicFiltersCollector collector = new LocalDynamicFiltersCollector(metadata, typeOperators, session);
+        DynamicFilterId filterId = new DynamicFilterId("filter");
+        collector.register(ImmutableSet.of(filterId));
+
+        SymbolAllocator symbolAllocator = new SymbolAllocator();
+        Symbol otherSymbol = symbolAllocator.newSymbol("other", BIGINT);
+        Symbol symbol = symbolAllocator.newSymbol("symbol", BIGINT);
+        ColumnHandle otherColumn = new TestingColumnHandle("other");
+        ColumnHandle column = new TestingColumnHandle("column");
+        DynamicRowFilter filter = collector.createDynamicRowFilter(
+                ImmutableList.of(new DynamicFilters.Descriptor(filterId, symbol.toSymbolReference())),
+                ImmutableMap.of(symbol, column, otherSymbol, otherColumn),
+                ImmutableList.of(otherColumn, column),
+                symbolAllocator.getTypes());
+
+        Page page = new Page(createLongSequenceBlock(0, 100), createLongSequenceBlock(0, 100));
+        // pages are not filtered until the bloom filter is collected
+        assertSame(filter.filter(page), page);
+
+        DynamicFilterBloomFilter bloomFilter = new DynamicFilterBloomFilter(
+                BIGINT,
+                new BlockTypeOperators(typeOperators).getHashCodeOperator(BIGINT),
+                DataSize.of(16, KILOBYTE));
+        Block values = createLongsBlock(7L, 42L);
+        bloomFilter.add(values, 0);
+        bloomFilter.add(values, 1);
+        collector.collectDynamicFilterBloomFilters(ImmutableMap.of(filterId, bloomFilter));
+
+        Page filtered = filter.filter(page);
+        assertTrue(filtered.getPositionCount() >= 2 && filtered.getPositionCount() < 10, "Unexpected position count: " + filtered.getPositionCount());
+        List<Long> filteredValues = IntStream.range(0, filtered.getPositionCount())
+                .mapToObj(position -> BIGINT.getLong(filtered.getBlock(1), position))
+                .collect(toImmutableList());
+        assertTrue(filteredValues.containsAll(ImmutableList.of(7L, 42L)), "Missing values in " + filteredValues);
+    }
+
     @Test
     public void testDynamicFilterCoercion()
     {
@@ -0,0 +1,196 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql.planner;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.trino.Session;
+import io.trino.connector.MockConnectorColumnHandle;
+import io.trino.connector.MockConnectorFactory;
+import io.trino.connector.MockConnectorTableHandle;
+import io.trino.operator.InterpretedHashGenerator;
+import io.trino.plugin.tpch.TpchConnectorFactory;
+import io.trino.spi.Page;
+import io.trino.spi.connector.ColumnMetadata;
+import io.trino.spi.statistics.ColumnStatistics;
+import io.trino.spi.statistics.TableStatistics;
+import io.trino.spi.type.Type;
+import io.trino.spi.type.TypeOperators;
+import io.trino.sql.planner.assertions.BasePlanTest;
+import io.trino.testing.LocalQueryRunner;
+import io.trino.type.BlockTypeOperators;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.trino.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
+import static io.trino.SystemSessionProperties.JOIN_REORDERING_STRATEGY;
+import static io.trino.SystemSessionProperties.SKEWED_JOIN_HANDLING_ENABLED;
+import static io.trino.SystemSessionProperties.SKEWED_JOIN_HANDLING_MIN_KEY_FRACTION;
+import static io.trino.SystemSessionProperties.SKEWED_JOIN_HANDLING_SAMPLE_ROWS;
+import static io.trino.spi.predicate.Utils.nativeValueToBlock;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.VarcharType.createVarcharType;
+import static io.trino.sql.planner.LogicalPlanner.Stage.OPTIMIZED_AND_VALIDATED;
+import static io.trino.sql.planner.SkewedKeys.Distribution.REPLICATE;
+import static io.trino.sql.planner.SkewedKeys.Distribution.SPREAD;
+import static io.trino.testing.TestingSession.testSessionBuilder;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestSkewedJoins
+        extends BasePlanTest
+{
+    private static final String MOCK_CATALOG = "mock_catalog";
+    private static final String TPCH_CATALOG = "tpch";
+    private static final String TEST_SCHEMA = "test_schema";
+
+    private static final String FACT_TABLE = "fact";
+    private static final String KEY_COLUMN = "key";
+
+    private static final long SKEWED_KEY = 7;
+    private static final long FREQUENT_KEY = 8;
+
+    @Override
+    protected LocalQueryRunner createLocalQueryRunner()
+    {
+        LocalQueryRunner queryRunner = LocalQueryRunner.builder(session(true).build())
+                .withNodeCountForStats(10)
+                .build();
+        queryRunner.createCatalog(MOCK_CATALOG, createMockFactory(), ImmutableMap.of());
+        queryRunner.createCatalog(TPCH_CATALOG, new TpchConnectorFactory(1), ImmutableMap.of());
+        return queryRunner;
+    }
+
+    @Test
+    public void testSkewedKeys()
+    {
+        List<Optional<SkewedKeys>> skewedKeys = getSkewedKeys("SELECT * FROM fact f JOIN dimension d ON f.key = d.key", session(true).build());
+        Set<Long> keyHashes = ImmutableSet.of(hash(SKEWED_KEY));
+        assertThat(skewedKeys).containsExactlyInAnyOrder(
+                Optional.empty(),
+                Optional.empty(),
+                Optional.of(new SkewedKeys(keyHashes, SPREAD)),
+                Optional.of(new SkewedKeys(keyHashes, REPLICATE)));
+
+        // a lower threshold includes the less frequent keys
+        skewedKeys = getSkewedKeys(
+                "SELECT * FROM fact f LEFT JOIN dimension d ON f.key = d.key",
+                session(true).setSystemProperty(SKEWED_JOIN_HANDLING_MIN_KEY_FRACTION, "0.05").build());
+        keyHashes = ImmutableSet.of(hash(SKEWED_KEY), hash(FREQUENT_KEY));
+        assertThat(skewedKeys).contains(
+                Optional.of(new SkewedKeys(keyHashes, SPREAD)),
+                Optional.of(new SkewedKeys(keyHashes, REPLICATE)));
+    }
+
+    @Test
+    public void testSampledSkewedKeys()
+    {
+        // the connector does not report the most common values, so they are sampled
+        String query = "SELECT * FROM tpch.tiny.orders o JOIN tpch.tiny.lineitem l ON o.orderstatus = l.linestatus";
+        Set<Long> keyHashes = ImmutableSet.of(hash(createVarcharType(1), utf8Slice("F")), hash(createVarcharType(1), utf8Slice("O")));
+        assertThat(getSkewedKeys(query, session(true).build())).contains(
+                Optional.of(new SkewedKeys(keyHashes, SPREAD)),
+                Optional.of(new SkewedKeys(keyHashes, REPLICATE)));
+
+        // the order status 'P' holds less than a tenth of the orders
+        assertThat(getSkewedKeys(query, session(true).setSystemProperty(SKEWED_JOIN_HANDLING_MIN_KEY_FRACTION, "0.01").build()))
+                .contains(Optional.of(new SkewedKeys(
+                        ImmutableSet.<Long>builder().addAll(keyHashes).add(hash(createVarcharType(1), utf8Slice("P"))).build(),
+                        SPREAD)));
+
+        // sampling is disabled
+        assertThat(getSkewedKeys(query, session(true).setSystemProperty(SKEWED_JOIN_HANDLING_SAMPLE_ROWS, "0").build()))
+                .containsOnly(Optional.empty());
+    }
+
+    @Test
+    public void testNoSkewedKeys()
+    {
+        // disabled
+        assertThat(getSkewedKeys("SELECT * FROM fact f JOIN dimension d ON f.key = d.key", session(false).build()))
+                .containsOnly(Optional.empty());
+        // the unmatched build rows would be produced by every partition
+        assertThat(getSkewedKeys("SELECT * FROM fact f RIGHT JOIN dimension d ON f.key = d.key", session(true).build()))
+                .containsOnly(Optional.empty());
+        // the build side has no skewed keys
+        assertThat(getSkewedKeys("SELECT * FROM dimension d JOIN fact f ON d.key = f.key", session(true).build()))
+                .containsOnly(Optional.empty());
+        // the join key is computed
+        assertThat(getSkewedKeys("SELECT * FROM fact f JOIN dimension d ON f.key + 1 = d.key", session(true).build()))
+                .containsOnly(Optional.empty());
+    }
+
+    @Test
+    public void testJoinOutputIsNotPartitionedOnKey()
+    {
+        String query = "SELECT f.key, count(*) FROM fact f JOIN dimension d ON f.key = d.key GROUP BY f.key";
+        int fragments = subplan(query, OPTIMIZED_AND_VALIDATED, false, session(false).build()).getAllFragments().size();
+
+        // the rows of a skewed key are spread across all partitions of the join, so they are partitioned again for the aggregation
+        assertThat(subplan(query, OPTIMIZED_AND_VALIDATED, false, session(true).build()).getAllFragments())
+                .hasSize(fragments + 1);
+    }
+
+    private List<Optional<SkewedKeys>> getSkewedKeys(String query, Session session)
+    {
+        return subplan(query, OPTIMIZED_AND_VALIDATED, false, session).getAllFragments().stream()
+                .map(fragment -> fragment.getPartitioningScheme().getSkewedKeys())
+                .collect(toImmutableList());
+    }
+
+    private static long hash(long key)
+    {
+        return hash(BIGINT, key);
+    }
+
+    private static long hash(Type type, Object key)
+    {
+        return new InterpretedHashGenerator(ImmutableList.of(type), new int[] {0}, new BlockTypeOperators(new TypeOperators()))
+                .hashPosition(0, new Page(nativeValueToBlock(type, key)));
+    }
+
+    private static Session.SessionBuilder session(boolean skewedJoinHandlingEnabled)
+    {
+        return testSessionBuilder()
+                .setCatalog(MOCK_CATALOG)
+                .setSchema(TEST_SCHEMA)
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, "PARTITIONED")
+                .setSystemProperty(JOIN_REORDERING_STRATEGY, "NONE")
+                .setSystemProperty(SKEWED_JOIN_HANDLING_ENABLED, String.valueOf(skewedJoinHandlingEnabled));
+    }
+
+    private static MockConnectorFactory createMockFactory()
+    {
+        return MockConnectorFactory.builder()
+                .withGetColumns(schemaTableName -> ImmutableList.of(new ColumnMetadata(KEY_COLUMN, BIGINT)))
+                .withGetTableStatistics((session, tableHandle) -> {
+                    if (!((MockConnectorTableHandle) tableHandle).getTableName().getTableName().equals(FACT_TABLE)) {
+                        return TableStatistics.empty();
+                    }
+                    return TableStatistics.builder()
+                            .setColumnStatistics(
+                                    new MockConnectorColumnHandle(KEY_COLUMN, BIGINT),
+                                    ColumnStatistics.builder()
+                                            .setMostCommonValues(ImmutableMap.<Object, Double>of(SKEWED_KEY, 0.4, FREQUENT_KEY, 0.05, 9L, 0.01))
+                                            .build())
+                            .build();
+                })
+                .build();
+    }
+}
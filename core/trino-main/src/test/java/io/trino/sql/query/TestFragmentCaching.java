@@ -0,0 +1,156 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql.query;
+
+import com.google.common.collect.ImmutableMap;
+import io.trino.Session;
+import io.trino.execution.fragmentcache.FragmentCache;
+import io.trino.plugin.tpch.TpchConnectorFactory;
+import io.trino.testing.LocalQueryRunner;
+import io.trino.testing.MaterializedResult;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static io.trino.SystemSessionProperties.FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT;
+import static io.trino.SystemSessionProperties.FRAGMENT_CACHE_ENABLED;
+import static io.trino.plugin.tpch.TpchMetadata.TINY_SCHEMA_NAME;
+import static io.trino.testing.TestingSession.testSessionBuilder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+@Test(singleThreaded = true)
+public class TestFragmentCaching
+{
+    private static final String CATALOG = "local";
+
+    private LocalQueryRunner runner;
+    private FragmentCache fragmentCache;
+
+    @BeforeClass
+    public void init()
+    {
+        Session session = testSessionBuilder()
+                .setCatalog(CATALOG)
+                .setSchema(TINY_SCHEMA_NAME)
+                .build();
+
+        runner = LocalQueryRunner.builder(session)
+                .build();
+
+        runner.createCatalog(CATALOG, new TpchConnectorFactory(4), ImmutableMap.of());
+        fragmentCache = runner.getFragmentCache();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void teardown()
+    {
+        runner.close();
+        runner = null;
+        fragmentCache = null;
+    }
+
+    @Test
+    public void testCachedOutput()
+    {
+        fragmentCache.invalidateAll();
+        @Language("SQL") String query = "SELECT orderstatus, count(*), sum(totalprice) FROM orders WHERE orderpriority <> '1-URGENT' GROUP BY orderstatus";
+
+        MaterializedResult expected = runner.execute(query);
+        long hits = fragmentCache.getHits().getTotalCount();
+        assertEquals(execute(query), expected);
+        assertEquals(fragmentCache.getHits().getTotalCount(), hits);
+        assertEquals(fragmentCache.getEntryCount(), 4);
+
+        assertEquals(execute(query), expected);
+        assertEquals(fragmentCache.getHits().getTotalCount(), hits + 4);
+        assertEquals(fragmentCache.getEntryCount(), 4);
+    }
+
+    @Test
+    public void testGlobalAggregation()
+    {
+        fragmentCache.invalidateAll();
+        @Language("SQL") String query = "SELECT count(*), max(comment) FROM lineitem WHERE shipmode = 'AIR'";
+
+        MaterializedResult expected = runner.execute(query);
+        assertEquals(execute(query), expected);
+        long hits = fragmentCache.getHits().getTotalCount();
+        assertEquals(execute(query), expected);
+        assertEquals(fragmentCache.getHits().getTotalCount(), hits + 4);
+    }
+
+    @Test
+    public void testDifferentPipelines()
+    {
+        fragmentCache.invalidateAll();
+        assertEquals(execute("SELECT count(*) FROM orders WHERE orderpriority = '1-URGENT'"), runner.execute("SELECT count(*) FROM orders WHERE orderpriority = '1-URGENT'"));
+        assertEquals(execute("SELECT count(*) FROM orders WHERE orderpriority = '2-HIGH'"), runner.execute("SELECT count(*) FROM orders WHERE orderpriority = '2-HIGH'"));
+        assertEquals(fragmentCache.getEntryCount(), 8);
+
+        // the predicate is pushed into the table handle
+        MaterializedResult filtered = execute("SELECT count(*) FROM orders WHERE orderstatus = 'F'");
+        MaterializedResult all = execute("SELECT count(*) FROM orders");
+        assertEquals(filtered, runner.execute("SELECT count(*) FROM orders WHERE orderstatus = 'F'"));
+        assertEquals(all, runner.execute("SELECT count(*) FROM orders"));
+        assertNotEquals(filtered, all);
+    }
+
+    @Test
+    public void testSessionProperties()
+    {
+        fragmentCache.invalidateAll();
+        @Language("SQL") String query = "SELECT count(*) FROM orders WHERE orderpriority = '1-URGENT'";
+        MaterializedResult expected = execute(query);
+        assertEquals(fragmentCache.getEntryCount(), 4);
+
+        // the size of the pages produced by the pipeline depends on the session
+        Session session = Session.builder(runner.getDefaultSession())
+                .setSystemProperty(FRAGMENT_CACHE_ENABLED, "true")
+                .setSystemProperty(FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT, "1")
+                .build();
+        long hits = fragmentCache.getHits().getTotalCount();
+        assertEquals(runner.execute(session, query), expected);
+        assertEquals(fragmentCache.getHits().getTotalCount(), hits);
+        assertEquals(fragmentCache.getEntryCount(), 8);
+    }
+
+    @Test
+    public void testNonDeterministicPipeline()
+    {
+        fragmentCache.invalidateAll();
+        long misses = fragmentCache.getMisses().getTotalCount();
+        execute("SELECT count(*) FROM orders WHERE rand() < 2");
+        assertEquals(fragmentCache.getMisses().getTotalCount(), misses);
+        assertEquals(fragmentCache.getEntryCount(), 0);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        fragmentCache.invalidateAll();
+        runner.execute("SELECT orderstatus, count(*) FROM orders GROUP BY orderstatus");
+        assertEquals(fragmentCache.getEntryCount(), 0);
+        assertEquals(fragmentCache.getSizeInBytes(), 0);
+    }
+
+    private MaterializedResult execute(@Language("SQL") String query)
+    {
+        Session session = Session.builder(runner.getDefaultSession())
+                .setSystemProperty(FRAGMENT_CACHE_ENABLED, "true")
+                .build();
+        return runner.execute(session, query);
+    }
+}
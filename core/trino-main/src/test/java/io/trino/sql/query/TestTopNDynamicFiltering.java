@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql.query;
+
+import com.google.common.collect.ImmutableMap;
+import io.trino.Session;
+import io.trino.plugin.tpch.TpchConnectorFactory;
+import io.trino.testing.LocalQueryRunner;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static io.trino.SystemSessionProperties.DYNAMIC_FILTERING_TOP_N_ENABLED;
+import static io.trino.plugin.tpch.TpchMetadata.TINY_SCHEMA_NAME;
+import static io.trino.testing.TestingSession.testSessionBuilder;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestTopNDynamicFiltering
+{
+    private static final String CATALOG = "local";
+
+    private QueryAssertions assertions;
+
+    @BeforeClass
+    public void init()
+    {
+        Session session = testSessionBuilder()
+                .setCatalog(CATALOG)
+                .setSchema(TINY_SCHEMA_NAME)
+                .build();
+
+        LocalQueryRunner runner = LocalQueryRunner.builder(session)
+                .build();
+
+        runner.createCatalog(CATALOG, new TpchConnectorFactory(1), ImmutableMap.of());
+
+        assertions = new QueryAssertions(runner);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void teardown()
+    {
+        assertions.close();
+        assertions = null;
+    }
+
+    @Test
+    public void testTopN()
+    {
+        assertTopN("SELECT orderkey, totalprice FROM orders ORDER BY totalprice DESC LIMIT 10");
+        assertTopN("SELECT name, custkey FROM customer ORDER BY name LIMIT 5");
+        assertTopN("SELECT orderkey, linenumber FROM lineitem WHERE returnflag = 'R' ORDER BY orderkey DESC, linenumber LIMIT 7");
+    }
+
+    @Test
+    public void testTopNWithTies()
+    {
+        // rows with the same leading sort key as the boundary can still be part of the result
+        assertTopN("SELECT orderdate, orderkey FROM orders ORDER BY orderdate DESC, orderkey LIMIT 20");
+        assertTopN("SELECT shipmode, orderkey, linenumber FROM lineitem ORDER BY shipmode, orderkey DESC, linenumber DESC LIMIT 10");
+    }
+
+    @Test
+    public void testTopNWithNulls()
+    {
+        assertTopN("SELECT nullif(custkey % 7, 0) k, orderkey FROM orders ORDER BY k NULLS FIRST, orderkey LIMIT 10");
+        assertTopN("SELECT nullif(custkey % 7, 0) k, orderkey FROM orders ORDER BY k DESC NULLS LAST, orderkey LIMIT 10");
+    }
+
+    @Test
+    public void testTopNOverProjection()
+    {
+        assertTopN("SELECT k, orderkey FROM (SELECT orderkey, orderkey % 1000 AS k, orderdate FROM orders) ORDER BY k, orderkey LIMIT 10");
+        assertTopN("SELECT x, orderkey FROM (SELECT orderkey AS x, orderkey FROM orders WHERE orderpriority = '1-URGENT') ORDER BY x DESC LIMIT 10");
+    }
+
+    private void assertTopN(@Language("SQL") String query)
+    {
+        Session session = Session.builder(assertions.getDefaultSession())
+                .setSystemProperty(DYNAMIC_FILTERING_TOP_N_ENABLED, "true")
+                .build();
+        assertThat(assertions.query(session, query))
+                .ordered()
+                .matches((ignored, runner) -> runner.execute(assertions.getDefaultSession(), query));
+    }
+}
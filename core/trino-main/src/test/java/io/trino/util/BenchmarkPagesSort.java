@@ -71,7 +71,7 @@ public class BenchmarkPagesSort
     @Benchmark
     public List<Page> runPagesIndexSortBenchmark(PagesIndexSortBenchmarkData data)
     {
-        PagesIndex.TestingFactory pagesIndexFactory = new PagesIndex.TestingFactory(false);
+        PagesIndex.TestingFactory pagesIndexFactory = new PagesIndex.TestingFactory(false, data.isNormalizedSortKeys());
         PagesIndex pageIndex = pagesIndexFactory.newPagesIndex(data.getTypes(), data.getTotalPositions());
         for (Page page : data.getPages()) {
             pageIndex.addPage(page);
@@ -109,11 +109,19 @@ public class BenchmarkPagesSort
         @Param({"200", "400"})
         private int pagesCount = 200;
 
+        @Param({"false", "true"})
+        private boolean normalizedSortKeys;
+
         @Setup
         public void setup()
         {
             super.setup(numSortChannels, totalChannels, 1, pagesCount);
         }
+
+        boolean isNormalizedSortKeys()
+        {
+            return normalizedSortKeys;
+        }
     }
 
     @Benchmark
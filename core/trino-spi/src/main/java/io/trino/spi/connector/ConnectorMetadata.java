@@ -231,6 +231,17 @@ public interface ConnectorMetadata
         return TableStatistics.empty();
     }
 
+    /**
+     * Returns a token identifying the version of the data of the table. The token must change
+     * whenever the data returned when reading the table changes, for example when a new snapshot
+     * is committed. An empty result means the version is unknown, and results of queries reading
+     * the table are never cached.
+     */
+    default Optional<String> getDataVersion(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        return Optional.empty();
+    }
+
     /**
      * Creates a schema.
      */
@@ -14,8 +14,10 @@
 package io.trino.spi.connector;
 
 import io.trino.spi.HostAddress;
+import io.trino.spi.SplitWeight;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ConnectorSplit
 {
@@ -24,4 +26,33 @@ public interface ConnectorSplit
     List<HostAddress> getAddresses();
 
     Object getInfo();
+
+    /**
+     * Returns a key which identifies the data read by this split across queries, or empty
+     * if the data can change. Workers use the key to cache the results of processing the split.
+     */
+    default Optional<String> getCacheKey()
+    {
+        return Optional.empty();
+    }
+
+    /**
+     * Returns a key which identifies the data read by this split, for example the file and the offset
+     * within the file, or empty if the split has no preference for a node. When soft affinity scheduling
+     * is enabled, the splits with the same key are preferably scheduled on the same node, so the
+     * caches of the node are reused.
+     */
+    default Optional<String> getAffinityKey()
+    {
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the amount of work of the split relative to a standard split. The scheduler balances
+     * the work queued on the nodes by the weights of the splits.
+     */
+    default SplitWeight getSplitWeight()
+    {
+        return SplitWeight.standard();
+    }
 }
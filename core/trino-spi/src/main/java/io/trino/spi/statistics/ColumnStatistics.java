@@ -13,6 +13,7 @@
  */
 package io.trino.spi.statistics;
 
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -21,12 +22,13 @@ import static java.util.Objects.requireNonNull;
 
 public final class ColumnStatistics
 {
-    private static final ColumnStatistics EMPTY = new ColumnStatistics(Estimate.unknown(), Estimate.unknown(), Estimate.unknown(), Optional.empty());
+    private static final ColumnStatistics EMPTY = new ColumnStatistics(Estimate.unknown(), Estimate.unknown(), Estimate.unknown(), Optional.empty(), Map.of());
 
     private final Estimate nullsFraction;
     private final Estimate distinctValuesCount;
     private final Estimate dataSize;
     private final Optional<DoubleRange> range;
+    private final Map<Object, Double> mostCommonValues;
 
     public static ColumnStatistics empty()
     {
@@ -38,6 +40,16 @@ public final class ColumnStatistics
             Estimate distinctValuesCount,
             Estimate dataSize,
             Optional<DoubleRange> range)
+    {
+        this(nullsFraction, distinctValuesCount, dataSize, range, Map.of());
+    }
+
+    public ColumnStatistics(
+            Estimate nullsFraction,
+            Estimate distinctValuesCount,
+            Estimate dataSize,
+            Optional<DoubleRange> range,
+            Map<Object, Double> mostCommonValues)
     {
         this.nullsFraction = requireNonNull(nullsFraction, "nullsFraction is null");
         if (!nullsFraction.isUnknown()) {
@@ -54,6 +66,12 @@ public final class ColumnStatistics
             throw new IllegalArgumentException(format("dataSize must be greater than or equal to 0: %s", dataSize.getValue()));
         }
         this.range = requireNonNull(range, "range is null");
+        this.mostCommonValues = Map.copyOf(requireNonNull(mostCommonValues, "mostCommonValues is null"));
+        for (double fraction : this.mostCommonValues.values()) {
+            if (fraction < 0 || fraction > 1) {
+                throw new IllegalArgumentException(format("fraction of a most common value must be between 0 and 1: %s", fraction));
+            }
+        }
     }
 
     public Estimate getNullsFraction()
@@ -76,6 +94,15 @@ public final class ColumnStatistics
         return range;
     }
 
+    /**
+     * Returns the most common non-null values of the column, in the native representation of the column type,
+     * mapped to the fraction of the rows of the table holding them.
+     */
+    public Map<Object, Double> getMostCommonValues()
+    {
+        return mostCommonValues;
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -89,13 +116,14 @@ public final class ColumnStatistics
         return Objects.equals(nullsFraction, that.nullsFraction) &&
                 Objects.equals(distinctValuesCount, that.distinctValuesCount) &&
                 Objects.equals(dataSize, that.dataSize) &&
-                Objects.equals(range, that.range);
+                Objects.equals(range, that.range) &&
+                Objects.equals(mostCommonValues, that.mostCommonValues);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(nullsFraction, distinctValuesCount, dataSize, range);
+        return Objects.hash(nullsFraction, distinctValuesCount, dataSize, range, mostCommonValues);
     }
 
     @Override
@@ -106,6 +134,7 @@ public final class ColumnStatistics
                 ", distinctValuesCount=" + distinctValuesCount +
                 ", dataSize=" + dataSize +
                 ", range=" + range +
+                ", mostCommonValues=" + mostCommonValues +
                 '}';
     }
 
@@ -125,6 +154,7 @@ public final class ColumnStatistics
         private Estimate distinctValuesCount = Estimate.unknown();
         private Estimate dataSize = Estimate.unknown();
         private Optional<DoubleRange> range = Optional.empty();
+        private Map<Object, Double> mostCommonValues = Map.of();
 
         public Builder setNullsFraction(Estimate nullsFraction)
         {
@@ -156,9 +186,15 @@ public final class ColumnStatistics
             return this;
         }
 
+        public Builder setMostCommonValues(Map<Object, Double> mostCommonValues)
+        {
+            this.mostCommonValues = requireNonNull(mostCommonValues, "mostCommonValues is null");
+            return this;
+        }
+
         public ColumnStatistics build()
         {
-            return new ColumnStatistics(nullsFraction, distinctValuesCount, dataSize, range);
+            return new ColumnStatistics(nullsFraction, distinctValuesCount, dataSize, range, mostCommonValues);
         }
     }
 }
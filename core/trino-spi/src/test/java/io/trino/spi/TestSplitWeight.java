@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.spi;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class TestSplitWeight
+{
+    @Test
+    public void testFromProportion()
+    {
+        assertSame(SplitWeight.fromProportion(1), SplitWeight.standard());
+        assertEquals(SplitWeight.fromProportion(0.5).getRawValue(), 50);
+        assertEquals(SplitWeight.fromProportion(2.5).getRawValue(), 250);
+        // small weights are rounded up, so no split is free
+        assertEquals(SplitWeight.fromProportion(0.000001).getRawValue(), 1);
+
+        assertThatThrownBy(() -> SplitWeight.fromProportion(0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SplitWeight.fromProportion(Double.NaN))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SplitWeight.fromRawValue(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testToString()
+    {
+        assertEquals(SplitWeight.standard().toString(), "1");
+        assertEquals(SplitWeight.fromProportion(0.5).toString(), "0.5");
+        assertEquals(SplitWeight.fromRawValue(1).toString(), "0.01");
+        assertEquals(SplitWeight.fromRawValue(1200).toString(), "12");
+    }
+
+    @Test
+    public void testSums()
+    {
+        assertEquals(SplitWeight.rawValueForStandardSplitCount(0), 0);
+        assertEquals(SplitWeight.rawValueForStandardSplitCount(7), 700);
+        assertEquals(SplitWeight.rawValueSum(ImmutableList.of(0.5, 1.0, 0.25), SplitWeight::fromProportion), 175);
+    }
+}
@@ -282,6 +282,14 @@ public class ClassLoaderSafeConnectorMetadata
         }
     }
 
+    @Override
+    public Optional<String> getDataVersion(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
+            return delegate.getDataVersion(session, tableHandle);
+        }
+    }
+
     @Override
     public void addColumn(ConnectorSession session, ConnectorTableHandle tableHandle, ColumnMetadata column)
     {
@@ -28,6 +28,8 @@ import org.joda.time.DateTimeZone;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
@@ -146,6 +148,9 @@ public class HiveConfig
 
     private boolean legacyHiveViewTranslation;
 
+    private boolean sizeBasedSplitWeightsEnabled;
+    private double minimumAssignedSplitWeight = 0.05;
+
     public int getMaxInitialSplits()
     {
         return maxInitialSplits;
@@ -1041,4 +1046,32 @@ public class HiveConfig
     {
         return this.legacyHiveViewTranslation;
     }
+
+    public boolean isSizeBasedSplitWeightsEnabled()
+    {
+        return sizeBasedSplitWeightsEnabled;
+    }
+
+    @Config("hive.size-based-split-weights-enabled")
+    @ConfigDescription("Weight the splits by their size relative to the maximum split size, when scheduling them on the workers")
+    public HiveConfig setSizeBasedSplitWeightsEnabled(boolean sizeBasedSplitWeightsEnabled)
+    {
+        this.sizeBasedSplitWeightsEnabled = sizeBasedSplitWeightsEnabled;
+        return this;
+    }
+
+    @DecimalMin(value = "0", inclusive = false)
+    @DecimalMax("1")
+    public double getMinimumAssignedSplitWeight()
+    {
+        return minimumAssignedSplitWeight;
+    }
+
+    @Config("hive.minimum-assigned-split-weight")
+    @ConfigDescription("Minimum weight assigned to a split, when the splits are weighted by their size")
+    public HiveConfig setMinimumAssignedSplitWeight(double minimumAssignedSplitWeight)
+    {
+        this.minimumAssignedSplitWeight = minimumAssignedSplitWeight;
+        return this;
+    }
 }
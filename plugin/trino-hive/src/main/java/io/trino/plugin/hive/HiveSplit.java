@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.trino.plugin.hive.util.HiveBucketing.BucketingVersion;
 import io.trino.spi.HostAddress;
+import io.trino.spi.SplitWeight;
 import io.trino.spi.connector.ConnectorSplit;
 
 import java.util.List;
@@ -54,6 +55,7 @@ public class HiveSplit
     private final Optional<BucketValidation> bucketValidation;
     private final boolean s3SelectPushdownEnabled;
     private final Optional<AcidInfo> acidInfo;
+    private final SplitWeight splitWeight;
 
     @JsonCreator
     public HiveSplit(
@@ -75,7 +77,8 @@ public class HiveSplit
             @JsonProperty("bucketConversion") Optional<BucketConversion> bucketConversion,
             @JsonProperty("bucketValidation") Optional<BucketValidation> bucketValidation,
             @JsonProperty("s3SelectPushdownEnabled") boolean s3SelectPushdownEnabled,
-            @JsonProperty("acidInfo") Optional<AcidInfo> acidInfo)
+            @JsonProperty("acidInfo") Optional<AcidInfo> acidInfo,
+            @JsonProperty("splitWeight") SplitWeight splitWeight)
     {
         checkArgument(start >= 0, "start must be positive");
         checkArgument(length >= 0, "length must be positive");
@@ -92,6 +95,7 @@ public class HiveSplit
         requireNonNull(bucketConversion, "bucketConversion is null");
         requireNonNull(bucketValidation, "bucketValidation is null");
         requireNonNull(acidInfo, "acidInfo is null");
+        requireNonNull(splitWeight, "splitWeight is null");
 
         this.database = database;
         this.table = table;
@@ -112,6 +116,7 @@ public class HiveSplit
         this.bucketValidation = bucketValidation;
         this.s3SelectPushdownEnabled = s3SelectPushdownEnabled;
         this.acidInfo = acidInfo;
+        this.splitWeight = splitWeight;
     }
 
     @JsonProperty
@@ -235,6 +240,19 @@ public class HiveSplit
         return acidInfo;
     }
 
+    @JsonProperty
+    @Override
+    public SplitWeight getSplitWeight()
+    {
+        return splitWeight;
+    }
+
+    @Override
+    public Optional<String> getAffinityKey()
+    {
+        return Optional.of(path + ":" + start);
+    }
+
     @Override
     public Object getInfo()
     {
@@ -253,6 +271,16 @@ public class HiveSplit
                 .build();
     }
 
+    @Override
+    public Optional<String> getCacheKey()
+    {
+        // transactional tables and bucket conversions change the rows read from the file
+        if (acidInfo.isPresent() || bucketConversion.isPresent() || bucketValidation.isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.of(String.join(":", path, String.valueOf(start), String.valueOf(length), String.valueOf(fileModifiedTime), partitionName));
+    }
+
     @Override
     public String toString()
     {
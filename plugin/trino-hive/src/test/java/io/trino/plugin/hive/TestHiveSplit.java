@@ -20,6 +20,7 @@ import io.airlift.json.JsonCodecFactory;
 import io.airlift.json.ObjectMapperProvider;
 import io.trino.plugin.hive.HiveColumnHandle.ColumnType;
 import io.trino.spi.HostAddress;
+import io.trino.spi.SplitWeight;
 import io.trino.spi.type.TestingTypeManager;
 import io.trino.spi.type.Type;
 import org.apache.hadoop.fs.Path;
@@ -80,7 +81,8 @@ public class TestHiveSplit
                         ImmutableList.of(createBaseColumn("col", 5, HIVE_LONG, BIGINT, ColumnType.REGULAR, Optional.of("comment"))))),
                 Optional.empty(),
                 false,
-                Optional.of(acidInfo));
+                Optional.of(acidInfo),
+                SplitWeight.fromProportion(2.0)); // some non-standard value
 
         String json = codec.toJson(expected);
         HiveSplit actual = codec.fromJson(json);
@@ -101,5 +103,6 @@ public class TestHiveSplit
         assertEquals(actual.isForceLocalScheduling(), expected.isForceLocalScheduling());
         assertEquals(actual.isS3SelectPushdownEnabled(), expected.isS3SelectPushdownEnabled());
         assertEquals(actual.getAcidInfo().get(), expected.getAcidInfo().get());
+        assertEquals(actual.getSplitWeight(), expected.getSplitWeight());
     }
 }
@@ -23,6 +23,7 @@ import io.trino.execution.Lifespan;
 import io.trino.metadata.Metadata;
 import io.trino.metadata.Split;
 import io.trino.operator.DriverContext;
+import io.trino.operator.DynamicRowFilter;
 import io.trino.operator.ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory;
 import io.trino.operator.SourceOperator;
 import io.trino.operator.SourceOperatorFactory;
@@ -587,7 +588,8 @@ public class TestOrcPageSourceMemoryTracking
                     (session, split, table, columnHandles, dynamicFilter) -> pageSource,
                     TEST_TABLE_HANDLE,
                     columns.stream().map(ColumnHandle.class::cast).collect(toImmutableList()),
-                    DynamicFilter.EMPTY);
+                    DynamicFilter.EMPTY,
+                    DynamicRowFilter.EMPTY);
             SourceOperator operator = sourceOperatorFactory.createOperator(driverContext);
             operator.addSplit(new Split(new CatalogName("test"), TestingSplit.createLocalSplit(), Lifespan.taskWide()));
             return operator;
@@ -612,6 +614,7 @@ public class TestOrcPageSourceMemoryTracking
                     TEST_TABLE_HANDLE,
                     columns.stream().map(ColumnHandle.class::cast).collect(toList()),
                     DynamicFilter.EMPTY,
+                    DynamicRowFilter.EMPTY,
                     types,
                     DataSize.ofBytes(0),
                     0);
@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.hive;
+
+import io.airlift.units.DataSize;
+import io.trino.spi.SplitWeight;
+import org.testng.annotations.Test;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+
+public class TestSizeBasedSplitWeightProvider
+{
+    @Test
+    public void testSimpleProportions()
+    {
+        SizeBasedSplitWeightProvider provider = new SizeBasedSplitWeightProvider(0.01, DataSize.of(64, MEGABYTE));
+        assertEquals(provider.weightForSplitSizeInBytes(DataSize.of(64, MEGABYTE).toBytes()), SplitWeight.fromProportion(1));
+        assertEquals(provider.weightForSplitSizeInBytes(DataSize.of(32, MEGABYTE).toBytes()), SplitWeight.fromProportion(0.5));
+        assertEquals(provider.weightForSplitSizeInBytes(DataSize.of(16, MEGABYTE).toBytes()), SplitWeight.fromProportion(0.25));
+    }
+
+    @Test
+    public void testMinimumAndMaximumSplitWeightHandling()
+    {
+        SizeBasedSplitWeightProvider provider = new SizeBasedSplitWeightProvider(0.05, DataSize.of(64, MEGABYTE));
+        assertEquals(provider.weightForSplitSizeInBytes(1), SplitWeight.fromProportion(0.05));
+        assertEquals(provider.weightForSplitSizeInBytes(DataSize.of(128, MEGABYTE).toBytes()), SplitWeight.standard());
+    }
+
+    @Test
+    public void testInvalidMinimumWeight()
+    {
+        assertThatThrownBy(() -> new SizeBasedSplitWeightProvider(0, DataSize.of(64, MEGABYTE)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("minimumWeight must be > 0 and <= 1, found: 0.0");
+        assertThatThrownBy(() -> new SizeBasedSplitWeightProvider(1.01, DataSize.of(64, MEGABYTE)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("minimumWeight must be > 0 and <= 1, found: 1.01");
+    }
+}
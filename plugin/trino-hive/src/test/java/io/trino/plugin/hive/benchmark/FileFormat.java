@@ -55,6 +55,7 @@ import io.trino.rcfile.RcFileWriter;
 import io.trino.rcfile.binary.BinaryRcFileEncoding;
 import io.trino.rcfile.text.TextRcFileEncoding;
 import io.trino.spi.Page;
+import io.trino.spi.SplitWeight;
 import io.trino.spi.connector.ColumnHandle;
 import io.trino.spi.connector.ConnectorPageSource;
 import io.trino.spi.connector.ConnectorSession;
@@ -396,7 +397,8 @@ public enum FileFormat
                 Optional.empty(),
                 Optional.empty(),
                 false,
-                Optional.empty());
+                Optional.empty(),
+                SplitWeight.standard());
 
         ConnectorPageSource hivePageSource = factory.createPageSource(
                 TestingConnectorTransactionHandle.INSTANCE,
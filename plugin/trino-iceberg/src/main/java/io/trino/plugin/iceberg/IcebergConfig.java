@@ -18,6 +18,8 @@ import io.airlift.configuration.ConfigDescription;
 import io.trino.plugin.hive.HiveCompressionCodec;
 import org.apache.iceberg.FileFormat;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
@@ -30,6 +32,8 @@ public class IcebergConfig
     private HiveCompressionCodec compressionCodec = GZIP;
     private boolean useFileSizeFromMetadata = true;
     private int maxPartitionsPerWriter = 100;
+    private boolean sizeBasedSplitWeightsEnabled;
+    private double minimumAssignedSplitWeight = 0.05;
 
     @NotNull
     public FileFormat getFileFormat()
@@ -91,4 +95,32 @@ public class IcebergConfig
         this.maxPartitionsPerWriter = maxPartitionsPerWriter;
         return this;
     }
+
+    public boolean isSizeBasedSplitWeightsEnabled()
+    {
+        return sizeBasedSplitWeightsEnabled;
+    }
+
+    @Config("iceberg.size-based-split-weights-enabled")
+    @ConfigDescription("Weight the splits by their size relative to the target split size of the table, when scheduling them on the workers")
+    public IcebergConfig setSizeBasedSplitWeightsEnabled(boolean sizeBasedSplitWeightsEnabled)
+    {
+        this.sizeBasedSplitWeightsEnabled = sizeBasedSplitWeightsEnabled;
+        return this;
+    }
+
+    @DecimalMin(value = "0", inclusive = false)
+    @DecimalMax("1")
+    public double getMinimumAssignedSplitWeight()
+    {
+        return minimumAssignedSplitWeight;
+    }
+
+    @Config("iceberg.minimum-assigned-split-weight")
+    @ConfigDescription("Minimum weight assigned to a split, when the splits are weighted by their size")
+    public IcebergConfig setMinimumAssignedSplitWeight(double minimumAssignedSplitWeight)
+    {
+        this.minimumAssignedSplitWeight = minimumAssignedSplitWeight;
+        return this;
+    }
 }
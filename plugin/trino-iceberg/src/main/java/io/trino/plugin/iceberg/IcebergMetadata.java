@@ -800,6 +800,17 @@ public class IcebergMetadata
         return TableStatisticsMaker.getTableStatistics(typeManager, constraint, handle, icebergTable);
     }
 
+    @Override
+    public Optional<String> getDataVersion(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        IcebergTableHandle handle = (IcebergTableHandle) tableHandle;
+        if (handle.getTableType() != DATA) {
+            return Optional.empty();
+        }
+        // snapshots are immutable, so the snapshot read identifies the data
+        return handle.getSnapshotId().map(String::valueOf);
+    }
+
     private Optional<Long> getSnapshotId(org.apache.iceberg.Table table, Optional<Long> snapshotId)
     {
         return snapshotIds.computeIfAbsent(table.toString(), ignored -> snapshotId
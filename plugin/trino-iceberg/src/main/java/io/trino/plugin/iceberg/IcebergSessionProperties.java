@@ -61,6 +61,8 @@ public final class IcebergSessionProperties
     private static final String PARQUET_MAX_READ_BLOCK_SIZE = "parquet_max_read_block_size";
     private static final String PARQUET_WRITER_BLOCK_SIZE = "parquet_writer_block_size";
     private static final String PARQUET_WRITER_PAGE_SIZE = "parquet_writer_page_size";
+    private static final String SIZE_BASED_SPLIT_WEIGHTS_ENABLED = "size_based_split_weights_enabled";
+    private static final String MINIMUM_ASSIGNED_SPLIT_WEIGHT = "minimum_assigned_split_weight";
     private final List<PropertyMetadata<?>> sessionProperties;
 
     @Inject
@@ -182,6 +184,24 @@ public final class IcebergSessionProperties
                         "Parquet: Writer page size",
                         parquetWriterConfig.getPageSize(),
                         false))
+                .add(booleanProperty(
+                        SIZE_BASED_SPLIT_WEIGHTS_ENABLED,
+                        "Weight the splits by their size relative to the target split size of the table, when scheduling them on the workers",
+                        icebergConfig.isSizeBasedSplitWeightsEnabled(),
+                        false))
+                .add(doubleProperty(
+                        MINIMUM_ASSIGNED_SPLIT_WEIGHT,
+                        "Minimum weight assigned to a split, when the splits are weighted by their size",
+                        icebergConfig.getMinimumAssignedSplitWeight(),
+                        doubleValue -> {
+                            if (!Double.isFinite(doubleValue) || doubleValue <= 0 || doubleValue > 1) {
+                                throw new TrinoException(INVALID_SESSION_PROPERTY, format(
+                                        "%s must be > 0 and <= 1.0: %s",
+                                        MINIMUM_ASSIGNED_SPLIT_WEIGHT,
+                                        doubleValue));
+                            }
+                        },
+                        false))
                 .build();
     }
 
@@ -296,4 +316,14 @@ public final class IcebergSessionProperties
     {
         return session.getProperty(PARQUET_WRITER_PAGE_SIZE, DataSize.class);
     }
+
+    public static boolean isSizeBasedSplitWeightsEnabled(ConnectorSession session)
+    {
+        return session.getProperty(SIZE_BASED_SPLIT_WEIGHTS_ENABLED, Boolean.class);
+    }
+
+    public static double getMinimumAssignedSplitWeight(ConnectorSession session)
+    {
+        return session.getProperty(MINIMUM_ASSIGNED_SPLIT_WEIGHT, Double.class);
+    }
 }
@@ -14,8 +14,11 @@
 package io.trino.plugin.iceberg;
 
 import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
 import io.trino.plugin.base.classloader.ClassLoaderSafeConnectorSplitSource;
 import io.trino.plugin.hive.HdfsEnvironment;
+import io.trino.plugin.hive.HiveSplitWeightProvider;
+import io.trino.plugin.hive.SizeBasedSplitWeightProvider;
 import io.trino.plugin.hive.metastore.HiveMetastore;
 import io.trino.spi.connector.ConnectorSession;
 import io.trino.spi.connector.ConnectorSplitManager;
@@ -26,12 +29,17 @@ import io.trino.spi.connector.DynamicFilter;
 import io.trino.spi.connector.FixedSplitSource;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableScan;
+import org.apache.iceberg.util.PropertyUtil;
 
 import javax.inject.Inject;
 
 import static io.trino.plugin.iceberg.ExpressionConverter.toIcebergExpression;
+import static io.trino.plugin.iceberg.IcebergSessionProperties.getMinimumAssignedSplitWeight;
+import static io.trino.plugin.iceberg.IcebergSessionProperties.isSizeBasedSplitWeightsEnabled;
 import static io.trino.plugin.iceberg.IcebergUtil.getIcebergTable;
 import static java.util.Objects.requireNonNull;
+import static org.apache.iceberg.TableProperties.SPLIT_SIZE;
+import static org.apache.iceberg.TableProperties.SPLIT_SIZE_DEFAULT;
 
 public class IcebergSplitManager
         implements ConnectorSplitManager
@@ -77,7 +85,12 @@ public class IcebergSplitManager
 
         // TODO Use residual. Right now there is no way to propagate residual to Trino but at least we can
         //      propagate it at split level so the parquet pushdown can leverage it.
-        IcebergSplitSource splitSource = new IcebergSplitSource(tableScan.planTasks());
+        HiveSplitWeightProvider splitWeightProvider = HiveSplitWeightProvider.uniformStandardWeightProvider();
+        if (isSizeBasedSplitWeightsEnabled(session)) {
+            long targetSplitSize = PropertyUtil.propertyAsLong(icebergTable.properties(), SPLIT_SIZE, SPLIT_SIZE_DEFAULT);
+            splitWeightProvider = new SizeBasedSplitWeightProvider(getMinimumAssignedSplitWeight(session), DataSize.ofBytes(targetSplitSize));
+        }
+        IcebergSplitSource splitSource = new IcebergSplitSource(tableScan.planTasks(), splitWeightProvider);
 
         return new ClassLoaderSafeConnectorSplitSource(splitSource, Thread.currentThread().getContextClassLoader());
     }
@@ -15,6 +15,7 @@ package io.trino.plugin.iceberg;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Streams;
+import io.trino.plugin.hive.HiveSplitWeightProvider;
 import io.trino.spi.connector.ConnectorPartitionHandle;
 import io.trino.spi.connector.ConnectorSplit;
 import io.trino.spi.connector.ConnectorSplitSource;
@@ -40,10 +41,12 @@ public class IcebergSplitSource
 {
     private final CloseableIterable<CombinedScanTask> combinedScanIterable;
     private final Iterator<FileScanTask> fileScanIterator;
+    private final HiveSplitWeightProvider splitWeightProvider;
 
-    public IcebergSplitSource(CloseableIterable<CombinedScanTask> combinedScanIterable)
+    public IcebergSplitSource(CloseableIterable<CombinedScanTask> combinedScanIterable, HiveSplitWeightProvider splitWeightProvider)
     {
         this.combinedScanIterable = requireNonNull(combinedScanIterable, "combinedScanIterable is null");
+        this.splitWeightProvider = requireNonNull(splitWeightProvider, "splitWeightProvider is null");
 
         this.fileScanIterator = Streams.stream(combinedScanIterable)
                 .map(CombinedScanTask::files)
@@ -95,6 +98,7 @@ public class IcebergSplitSource
                 task.file().fileSizeInBytes(),
                 task.file().format(),
                 ImmutableList.of(),
-                getPartitionKeys(task));
+                getPartitionKeys(task),
+                splitWeightProvider.weightForSplitSizeInBytes(task.length()));
     }
 }